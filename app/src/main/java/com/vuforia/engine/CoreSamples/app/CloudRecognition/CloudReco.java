@@ -50,6 +50,7 @@ import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationGLView;
 import com.vuforia.engine.SampleApplication.utils.Texture;
+import com.vuforia.engine.SampleApplication.utils.TexturePreloader;
 import com.vuforia.engine.CoreSamples.R;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenu;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenuGroup;
@@ -107,6 +108,7 @@ public class CloudReco extends SampleActivityBase implements SampleApplicationCo
     
     // The textures we will use for rendering:
     private Vector<Texture> mTextures;
+    private TexturePreloader mTexturePreloader;
 
     // The keys necessary in order to use Cloud Recognition
     // Generate your own keys via the Target Manager on the Vuforia developer website
@@ -252,11 +254,13 @@ public class CloudReco extends SampleActivityBase implements SampleApplicationCo
     }
     
     
-    // Load specific textures from the APK, which we will later use for rendering.
+    // Start decoding the textures from the APK in the background, they are
+    // handed to the renderer once Vuforia is initialized.
     private void loadTextures()
     {
-        mTextures.add(Texture.loadTextureFromApk("TextureTeapotRed.png",
-            getAssets()));
+        mTexturePreloader = new TexturePreloader(getAssets());
+        mTexturePreloader.add("TextureTeapotRed.png");
+        mTexturePreloader.start();
     }
     
 
@@ -313,6 +317,7 @@ public class CloudReco extends SampleActivityBase implements SampleApplicationCo
         super.onDestroy();
 
         deinitCloudReco();
+        mTexturePreloader.cancel();
 
         try
         {
@@ -393,8 +398,11 @@ public class CloudReco extends SampleActivityBase implements SampleApplicationCo
         
         // Sets up the Renderer of the GLView
         mRenderer = new CloudRecoRenderer(vuforiaAppSession, this);
+        mTextures.addAll(mTexturePreloader.getTextures());
         mRenderer.setTextures(mTextures);
         mGlView.setRenderer(mRenderer);
+        mGlView.setRenderOnDemand(true);
+        vuforiaAppSession.setGLView(mGlView);
         mGlView.setPreserveEGLContextOnPause(true);
 
         setRendererReference(mRenderer);
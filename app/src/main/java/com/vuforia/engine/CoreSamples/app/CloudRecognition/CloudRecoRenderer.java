@@ -26,6 +26,7 @@ import com.vuforia.engine.SampleApplication.SampleAppRenderer;
 import com.vuforia.engine.SampleApplication.SampleAppRendererControl;
 import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.SampleRendererBase;
+import com.vuforia.engine.SampleApplication.utils.MeshBufferCache;
 import com.vuforia.engine.SampleApplication.utils.CubeShaders;
 import com.vuforia.engine.SampleApplication.utils.SampleMath;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
@@ -99,15 +100,15 @@ public class CloudRecoRenderer extends SampleRendererBase implements SampleAppRe
             CubeShaders.CUBE_MESH_VERTEX_SHADER,
             CubeShaders.CUBE_MESH_FRAGMENT_SHADER);
         
-        vertexHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        vertexHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexPosition");
-        textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexTexCoord");
-        mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "modelViewProjectionMatrix");
-        texSampler2DHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        texSampler2DHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "texSampler2D");
-        mTeapot = new Teapot();
+        mTeapot = Teapot.getShared();
     }
 
 
@@ -205,13 +206,8 @@ public class CloudRecoRenderer extends SampleRendererBase implements SampleAppRe
         
         // activate the shader program and bind the vertex/normal/tex coords
         GLES20.glUseProgram(shaderProgramID);
-        GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT, false,
-            0, mTeapot.getVertices());
-        GLES20.glVertexAttribPointer(textureCoordHandle, 2, GLES20.GL_FLOAT,
-            false, 0, mTeapot.getTexCoords());
-        
-        GLES20.glEnableVertexAttribArray(vertexHandle);
-        GLES20.glEnableVertexAttribArray(textureCoordHandle);
+        MeshBufferCache.MeshBuffers teapotBuffers = mMeshBufferCache.get(mTeapot);
+        teapotBuffers.bind(vertexHandle, -1, textureCoordHandle);
         
         // activate texture 0, bind it, and pass to shader
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
@@ -224,12 +220,10 @@ public class CloudRecoRenderer extends SampleRendererBase implements SampleAppRe
             modelViewProjection, 0);
         
         // finally draw the teapot
-        GLES20.glDrawElements(GLES20.GL_TRIANGLES, mTeapot.getNumObjectIndex(),
-            GLES20.GL_UNSIGNED_SHORT, mTeapot.getIndices());
+        teapotBuffers.draw();
         
         // disable the enabled arrays
-        GLES20.glDisableVertexAttribArray(vertexHandle);
-        GLES20.glDisableVertexAttribArray(textureCoordHandle);
+        teapotBuffers.unbind();
     }
     
     
@@ -33,8 +33,11 @@ import com.vuforia.engine.SampleApplication.SampleAppRenderer;
 import com.vuforia.engine.SampleApplication.SampleAppRendererControl;
 import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.SampleRendererBase;
+import com.vuforia.engine.SampleApplication.utils.MeshBufferCache;
 import com.vuforia.engine.SampleApplication.utils.CubeShaders;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
+import com.vuforia.engine.SampleApplication.utils.PrimitiveMesh;
+import com.vuforia.engine.SampleApplication.utils.PrimitiveMeshGenerator;
 import com.vuforia.engine.SampleApplication.utils.SampleApplication3DModel;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
 import com.vuforia.engine.SampleApplication.utils.Texture;
@@ -60,8 +63,12 @@ public class CylinderTargetRenderer extends SampleRendererBase implements Sample
     
     private Renderer mRenderer;
 
-    // Cylinder model which we use to rotate an object around
-    private CylinderModel mCylinderModel;
+    // Cylinder model which we use to rotate an object around, with as many sides
+    // as it needs to look round at its size on screen
+    private PrimitiveMesh mCylinderModel;
+    private float mCylinderTopRadiusRatio;
+    private int mCylinderSides = PrimitiveMeshGenerator.DEFAULT_CYLINDER_SIDES;
+    private int mViewportHeight;
     
     // dimensions of the cylinder (as set in the TMS tool)
     private final float kCylinderHeight = 0.095f;
@@ -139,13 +146,13 @@ public class CylinderTargetRenderer extends SampleRendererBase implements Sample
             CubeShaders.CUBE_MESH_VERTEX_SHADER,
             CubeShaders.CUBE_MESH_FRAGMENT_SHADER);
         SampleUtils.checkGLError("GLInitRendering");
-        vertexHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        vertexHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexPosition");
-        textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexTexCoord");
-        mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "modelViewProjectionMatrix");
-        texSampler2DHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        texSampler2DHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "texSampler2D");
         SampleUtils.checkGLError("GLInitRendering due");
         SampleUtils
@@ -167,9 +174,9 @@ public class CylinderTargetRenderer extends SampleRendererBase implements Sample
 
             // ratio between top and bottom diameter
             // used to generate the model of the cylinder
-            float kCylinderTopRadiusRatio = kCylinderTopDiameter / kCylinderBottomDiameter;
+            mCylinderTopRadiusRatio = kCylinderTopDiameter / kCylinderBottomDiameter;
 
-            mCylinderModel = new CylinderModel(kCylinderTopRadiusRatio);
+            mCylinderModel = PrimitiveMeshGenerator.getCylinder(mCylinderTopRadiusRatio, mCylinderSides);
 
             // Hide the Loading Dialog
             mActivity.loadingDialogHandler
@@ -178,6 +185,14 @@ public class CylinderTargetRenderer extends SampleRendererBase implements Sample
     }
 
 
+    @Override
+    public void onSurfaceChanged(GL10 gl, int width, int height)
+    {
+        mViewportHeight = height;
+        super.onSurfaceChanged(gl, width, height);
+    }
+
+
     public void updateRenderingPrimitives()
     {
         mSampleAppRenderer.updateRenderingPrimitives();
@@ -192,14 +207,17 @@ public class CylinderTargetRenderer extends SampleRendererBase implements Sample
     {
         // Renders video background replacing Renderer.DrawVideoBackground()
         mSampleAppRenderer.renderVideoBackground();
+
+        // The video background changed the state behind the cache's back
+        mGLState.invalidate();
         
-        GLES20.glEnable(GLES20.GL_DEPTH_TEST);
-        GLES20.glEnable(GLES20.GL_BLEND);
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        mGLState.enable(GLES20.GL_DEPTH_TEST);
+        mGLState.enable(GLES20.GL_BLEND);
+        mGLState.blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
         SampleUtils.checkGLError("CylinderTargets drawVideoBackground");
         
-        GLES20.glEnable(GLES20.GL_CULL_FACE);
-        GLES20.glCullFace(GLES20.GL_BACK);
+        mGLState.enable(GLES20.GL_CULL_FACE);
+        mGLState.cullFace(GLES20.GL_BACK);
 
         // Did we find any trackables this frame?
         TrackableResultList trackableResultList = state.getTrackableResults();
@@ -218,35 +236,30 @@ public class CylinderTargetRenderer extends SampleRendererBase implements Sample
             
             Matrix.scaleM(modelViewMatrix, 0, kCylinderScaleX, kCylinderScaleY,
                 kCylinderScaleZ);
+            selectCylinderModel(modelViewMatrix, projectionMatrix);
             Matrix.multiplyMM(modelViewProjection, 0, projectionMatrix, 0, modelViewMatrix, 0);
             SampleUtils.checkGLError("CylinderTargets prepareCylinder");
             
-            GLES20.glUseProgram(shaderProgramID);
+            mGLState.useProgram(shaderProgramID);
             
             // Draw the cylinder:
             
-            GLES20.glEnable(GLES20.GL_CULL_FACE);
-            GLES20.glCullFace(GLES20.GL_BACK);
+            mGLState.enable(GLES20.GL_CULL_FACE);
+            mGLState.cullFace(GLES20.GL_BACK);
 
-            GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT,
-                false, 0, mCylinderModel.getVertices());
-            GLES20.glVertexAttribPointer(textureCoordHandle, 2,
-                GLES20.GL_FLOAT, false, 0, mCylinderModel.getTexCoords());
+            MeshBufferCache.MeshBuffers cylinderBuffers = mMeshBufferCache.get(mCylinderModel);
+            cylinderBuffers.bind(vertexHandle, -1, textureCoordHandle);
             
-            GLES20.glEnableVertexAttribArray(vertexHandle);
-            GLES20.glEnableVertexAttribArray(textureCoordHandle);
-            
-            GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
-            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D,
+            mGLState.activeTexture(GLES20.GL_TEXTURE0);
+            mGLState.bindTexture(GLES20.GL_TEXTURE_2D,
                 mTextures.get(0).mTextureID[0]);
-            GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false,
+            mGLState.uniformMatrix4fv(mvpMatrixHandle, 1, false,
                 modelViewProjection, 0);
-            GLES20.glUniform1i(texSampler2DHandle, 0);
-            GLES20.glDrawElements(GLES20.GL_TRIANGLES,
-                mCylinderModel.getNumObjectIndex(), GLES20.GL_UNSIGNED_SHORT,
-                mCylinderModel.getIndices());
+            mGLState.uniform1i(texSampler2DHandle, 0);
+            cylinderBuffers.draw();
+            cylinderBuffers.unbind();
             
-            GLES20.glDisable(GLES20.GL_CULL_FACE);
+            mGLState.disable(GLES20.GL_CULL_FACE);
             SampleUtils.checkGLError("CylinderTargets drawCylinder");
             
             // prepare the object
@@ -264,36 +277,45 @@ public class CylinderTargetRenderer extends SampleRendererBase implements Sample
             
             Matrix.multiplyMM(modelViewProjection, 0, projectionMatrix, 0, modelViewMatrix, 0);
             
-            GLES20.glUseProgram(shaderProgramID);
+            mGLState.useProgram(shaderProgramID);
             
-            GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT,
-                false, 0, mSphereModel.getVertices());
-            GLES20.glVertexAttribPointer(textureCoordHandle, 2,
-                GLES20.GL_FLOAT, false, 0, mSphereModel.getTexCoords());
+            MeshBufferCache.MeshBuffers sphereBuffers = mMeshBufferCache.get(mSphereModel);
+            sphereBuffers.bind(vertexHandle, -1, textureCoordHandle);
             
-            GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
-            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D,
+            mGLState.activeTexture(GLES20.GL_TEXTURE0);
+            mGLState.bindTexture(GLES20.GL_TEXTURE_2D,
                 mTextures.get(1).mTextureID[0]);
-            GLES20.glUniform1i(texSampler2DHandle, 0);
-            GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false,
+            mGLState.uniform1i(texSampler2DHandle, 0);
+            mGLState.uniformMatrix4fv(mvpMatrixHandle, 1, false,
                 modelViewProjection, 0);
 
-            GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0,
-                mSphereModel.getNumObjectVertex());
-            
-            GLES20.glDisableVertexAttribArray(vertexHandle);
-            GLES20.glDisableVertexAttribArray(textureCoordHandle);
+            sphereBuffers.draw();
+            sphereBuffers.unbind();
             
             SampleUtils.checkGLError("CylinderTargets renderFrame");
         }
         
-        GLES20.glDisable(GLES20.GL_BLEND);
-        GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        mGLState.disable(GLES20.GL_BLEND);
+        mGLState.disable(GLES20.GL_DEPTH_TEST);
         
         mRenderer.end();
     }
     
     
+    // Switches to the cylinder with the sides needed at its current size on screen
+    private void selectCylinderModel(float[] modelViewMatrix, float[] projectionMatrix)
+    {
+        float screenRadius = PrimitiveMeshGenerator.getScreenRadius(1.0f, modelViewMatrix,
+                projectionMatrix, mViewportHeight);
+        int sides = PrimitiveMeshGenerator.selectSides(screenRadius, mCylinderSides);
+        if (sides != mCylinderSides)
+        {
+            mCylinderSides = sides;
+            mCylinderModel = PrimitiveMeshGenerator.getCylinder(mCylinderTopRadiusRatio, sides);
+        }
+    }
+    
+    
     private void animateObject(float[] modelViewMatrix)
     {
         double time = System.currentTimeMillis();             // Get real time difference
@@ -305,6 +327,9 @@ public class CylinderTargetRenderer extends SampleRendererBase implements Sample
         Matrix.rotateM(modelViewMatrix, 0, rotateBallAngle, 0.0f, 0.0f, 1.0f);
         
         prevTime = time;
+
+        // Keeps turning without new camera frames when rendering on demand
+        invalidateFrame();
     }
     
     
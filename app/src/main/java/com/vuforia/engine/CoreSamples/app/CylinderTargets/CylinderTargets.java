@@ -39,6 +39,7 @@ import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationGLView;
 import com.vuforia.engine.SampleApplication.utils.Texture;
+import com.vuforia.engine.SampleApplication.utils.TexturePreloader;
 import com.vuforia.engine.CoreSamples.R;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenu;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenuGroup;
@@ -69,6 +70,7 @@ public class CylinderTargets extends SampleActivityBase implements
     
     // The textures we will use for rendering:
     private Vector<Texture> mTextures;
+    private TexturePreloader mTexturePreloader;
     
     private RelativeLayout mUILayout;
     
@@ -146,13 +148,14 @@ public class CylinderTargets extends SampleActivityBase implements
     }
 
 
-    // Load specific textures from the APK, which we will later use for rendering.
+    // Start decoding the textures from the APK in the background, they are
+    // handed to the renderer once Vuforia is initialized.
     private void loadTextures()
     {
-        mTextures.add(Texture.loadTextureFromApk(
-            "CylinderTargets/TextureWireframeNoBorder.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("CylinderTargets/sphere.png",
-            getAssets()));
+        mTexturePreloader = new TexturePreloader(getAssets());
+        mTexturePreloader.add("CylinderTargets/TextureWireframeNoBorder.png");
+        mTexturePreloader.add("CylinderTargets/sphere.png");
+        mTexturePreloader.start();
     }
     
 
@@ -210,6 +213,7 @@ public class CylinderTargets extends SampleActivityBase implements
         }
         
         // Unload texture:
+        mTexturePreloader.cancel();
         mTextures.clear();
         mTextures = null;
         
@@ -257,8 +261,11 @@ public class CylinderTargets extends SampleActivityBase implements
         mGlView.init(translucent, depthSize, stencilSize);
         
         mRenderer = new CylinderTargetRenderer(this, vuforiaAppSession);
+        mTextures.addAll(mTexturePreloader.getTextures());
         mRenderer.setTextures(mTextures);
         mGlView.setRenderer(mRenderer);
+        mGlView.setRenderOnDemand(true);
+        vuforiaAppSession.setGLView(mGlView);
         mGlView.setPreserveEGLContextOnPause(true);
 
         setRendererReference(mRenderer);
@@ -35,6 +35,7 @@ import com.vuforia.Tracker;
 import com.vuforia.TrackerManager;
 import com.vuforia.Vec2F;
 import com.vuforia.Vuforia;
+import com.vuforia.engine.CoreSamples.BuildConfig;
 import com.vuforia.engine.CoreSamples.R;
 import com.vuforia.engine.SampleApplication.SampleActivityBase;
 import com.vuforia.engine.SampleApplication.utils.SampleAppTimer;
@@ -45,13 +46,13 @@ import com.vuforia.engine.CoreSamples.ui.SampleAppMessage;
 import com.vuforia.engine.SampleApplication.SampleApplicationControl;
 import com.vuforia.engine.SampleApplication.SampleApplicationException;
 import com.vuforia.engine.SampleApplication.SampleApplicationSession;
+import com.vuforia.engine.SampleApplication.utils.AssetPreloader;
+import com.vuforia.engine.SampleApplication.utils.FrameAllocationTracker;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationGLView;
 import com.vuforia.engine.SampleApplication.utils.SampleGestureListener;
-import com.vuforia.engine.SampleApplication.utils.Texture;
 
 import java.util.ArrayList;
-import java.util.Vector;
 
 
 /**
@@ -68,6 +69,14 @@ public class GroundPlane extends SampleActivityBase implements SampleApplication
 {
     private static final String LOGTAG = "GroundPlane";
 
+    // Set to count the objects allocated by each frame in debug builds. The counters of
+    // android.os.Debug slow the VM down, so this is only meant while investigating
+    private static final boolean TRACK_FRAME_ALLOCATIONS = false;
+
+    // Every object counts, including the wrappers returned by the Vuforia Java API, so
+    // the log shows each new peak of what a frame allocates
+    private static final int FRAME_ALLOCATION_BUDGET = 0;
+
     private SampleApplicationSession vuforiaAppSession;
 
     private SampleApplicationGLView mGlView;
@@ -77,8 +86,8 @@ public class GroundPlane extends SampleActivityBase implements SampleApplication
     private GestureDetector mGestureDetector;
     private SampleGestureListener mGestureListener;
 
-    // The textures we will use for rendering:
-    private Vector<Texture> mTextures;
+    // The textures and models we will use for rendering:
+    private GroundPlaneAssets mAssets;
 
     private RelativeLayout mUILayout;
 
@@ -180,9 +189,25 @@ public class GroundPlane extends SampleActivityBase implements SampleApplication
             }
         };
 
-        // Load any sample specific textures:
-        mTextures = new Vector<>();
-        loadTextures();
+        // Decode the sample specific textures and models while Vuforia initializes
+        mAssets = new GroundPlaneAssets(getAssets(), new AssetPreloader.Listener()
+        {
+            @Override
+            public void onAssetLoaded(int numLoaded, int numAssets)
+            {
+                loadingDialogHandler.sendLoadingProgress(numLoaded, numAssets);
+            }
+
+            @Override
+            public void onAllAssetsLoaded(AssetPreloader preloader)
+            {
+                for (AssetPreloader.Asset<?> asset : preloader.getFailedAssets())
+                {
+                    Log.e(LOGTAG, "Failed to load " + asset.getName() + ": " + asset.getError());
+                }
+            }
+        });
+        mAssets.start();
 
         btnAstro.setOnClickListener(new View.OnClickListener()
         {
@@ -259,20 +284,6 @@ public class GroundPlane extends SampleActivityBase implements SampleApplication
     }
 
 
-    // Load specific textures from the APK, which we will later use for rendering.
-    private void loadTextures()
-    {
-        mTextures.add(Texture.loadTextureFromApk("astronaut.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("drone.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("GroundPlane/reticle_interactive_2d.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("GroundPlane/reticle_midair.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("GroundPlane/reticle_interactive_3d.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("GroundPlane/shadow.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("GroundPlane/reticle_translate.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("GroundPlane/reticle_rotate.png", getAssets()));
-    }
-
-
     @Override
     protected void onResume()
     {
@@ -303,6 +314,7 @@ public class GroundPlane extends SampleActivityBase implements SampleApplication
                 if (mRenderer != null)
                 {
                     mRenderer.updateRenderingPrimitives();
+                    mRenderer.invalidateFrame();
                 }
 
                 showProgressIndicator(false);
@@ -319,6 +331,11 @@ public class GroundPlane extends SampleActivityBase implements SampleApplication
 
         if (mGlView != null)
         {
+            if (BuildConfig.DEBUG && TRACK_FRAME_ALLOCATIONS)
+            {
+                setAllocationTracker(null);
+            }
+
             mGlView.setVisibility(View.INVISIBLE);
             mGlView.onPause();
         }
@@ -347,9 +364,9 @@ public class GroundPlane extends SampleActivityBase implements SampleApplication
             mRenderer = null;
         }
 
-        // Unload texture:
-        mTextures.clear();
-        mTextures = null;
+        // Stop decoding assets the renderer will never use
+        mAssets.cancel();
+        mAssets = null;
 
         System.gc();
     }
@@ -366,15 +383,34 @@ public class GroundPlane extends SampleActivityBase implements SampleApplication
         mGlView.init(translucent, depthSize, stencilSize);
 
         mRenderer = new GroundPlaneRenderer(this, vuforiaAppSession);
-        mRenderer.setTextures(mTextures);
+        mRenderer.setAssets(mAssets);
         mRenderer.setMode(GroundPlaneRenderer.SAMPLE_APP_FURNITURE_MODE);
         mGlView.setRenderer(mRenderer);
+        mGlView.setRenderOnDemand(true);
+        mRenderer.setFramePacer(mGlView.getFramePacer());
+        vuforiaAppSession.setGLView(mGlView);
         mGlView.setPreserveEGLContextOnPause(true);
 
         setRendererReference(mRenderer);
     }
 
 
+    // The tracker counts the allocations of the GL thread, so it is started, read and
+    // stopped there. Queued events also run while the view is paused
+    private void setAllocationTracker(final FrameAllocationTracker allocationTracker)
+    {
+        final GroundPlaneRenderer renderer = mRenderer;
+        mGlView.queueEvent(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                renderer.setAllocationTracker(allocationTracker);
+            }
+        });
+    }
+
+
     private void startLoadingAnimation()
     {
         mUILayout = (RelativeLayout) View.inflate(this, R.layout.camera_overlay_ground_plane,
@@ -518,6 +554,11 @@ public class GroundPlane extends SampleActivityBase implements SampleApplication
         {
             mGlView.setVisibility(View.VISIBLE);
             mGlView.onResume();
+
+            if (BuildConfig.DEBUG && TRACK_FRAME_ALLOCATIONS)
+            {
+                setAllocationTracker(new FrameAllocationTracker(FRAME_ALLOCATION_BUDGET));
+            }
         }
     }
 
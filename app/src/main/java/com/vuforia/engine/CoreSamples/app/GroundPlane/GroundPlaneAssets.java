@@ -0,0 +1,157 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.CoreSamples.app.GroundPlane;
+
+import android.content.res.AssetManager;
+
+import com.vuforia.engine.SampleApplication.utils.AssetPreloader;
+import com.vuforia.engine.SampleApplication.utils.SampleApplicationV3DModel;
+import com.vuforia.engine.SampleApplication.utils.SampleAssetCache;
+import com.vuforia.engine.SampleApplication.utils.Texture;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+
+/**
+ * The textures and models of the Ground Plane sample, decoded in parallel by an
+ * AssetPreloader while Vuforia initializes. The activity starts the loading,
+ * the renderer takes the assets in one batch once isReady() returns true
+ */
+class GroundPlaneAssets
+{
+    // In the order of the texture indices used by GroundPlaneRenderer
+    private static final String[] TEXTURE_NAMES = {
+            "astronaut.png",
+            "drone.png",
+            "GroundPlane/reticle_interactive_2d.png",
+            "GroundPlane/reticle_midair.png",
+            "GroundPlane/reticle_interactive_3d.png",
+            "GroundPlane/shadow.png",
+            "GroundPlane/reticle_translate.png",
+            "GroundPlane/reticle_rotate.png" };
+
+    private final AssetPreloader mPreloader;
+    private final List<AssetPreloader.Asset<Texture>> mTextures = new ArrayList<>();
+    private final AssetPreloader.Asset<SampleApplicationV3DModel> mAstronaut;
+    private final AssetPreloader.Asset<SampleApplicationV3DModel> mDrone;
+    private final AssetPreloader.Asset<SampleApplicationV3DModel> mFurniture;
+
+
+    GroundPlaneAssets(AssetManager assetManager, AssetPreloader.Listener listener)
+    {
+        mPreloader = new AssetPreloader(listener);
+
+        // The models are the largest assets, queue them first
+        mAstronaut = mPreloader.add("astronaut.v3d",
+                modelLoader(assetManager, "astronaut.v3d", false));
+        mDrone = mPreloader.add("drone.v3d",
+                modelLoader(assetManager, "drone.v3d", false));
+        mFurniture = mPreloader.add("GroundPlane/chair.v3d",
+                modelLoader(assetManager, "GroundPlane/chair.v3d", true));
+
+        for (String name : TEXTURE_NAMES)
+        {
+            mTextures.add(mPreloader.add(name, textureLoader(assetManager, name)));
+        }
+    }
+
+
+    void start()
+    {
+        mPreloader.start();
+    }
+
+
+    void cancel()
+    {
+        mPreloader.cancel();
+    }
+
+
+    boolean isReady()
+    {
+        return mPreloader.isDone();
+    }
+
+
+    // Textures that failed to load are null
+    Vector<Texture> getTextures()
+    {
+        Vector<Texture> textures = new Vector<>();
+        for (AssetPreloader.Asset<Texture> texture : mTextures)
+        {
+            textures.add(texture.get());
+        }
+
+        return textures;
+    }
+
+
+    SampleApplicationV3DModel getAstronaut()
+    {
+        return mAstronaut.get();
+    }
+
+
+    SampleApplicationV3DModel getDrone()
+    {
+        return mDrone.get();
+    }
+
+
+    SampleApplicationV3DModel getFurniture()
+    {
+        return mFurniture.get();
+    }
+
+
+    private static Callable<Texture> textureLoader(final AssetManager assetManager, final String name)
+    {
+        return new Callable<Texture>()
+        {
+            @Override
+            public Texture call()
+            {
+                return SampleAssetCache.getInstance().getTexture(name, assetManager);
+            }
+        };
+    }
+
+
+    private static Callable<SampleApplicationV3DModel> modelLoader(final AssetManager assetManager,
+            final String name, final boolean isFurniture)
+    {
+        return new Callable<SampleApplicationV3DModel>()
+        {
+            @Override
+            public SampleApplicationV3DModel call() throws IOException
+            {
+                SampleApplicationV3DModel model = new SampleApplicationV3DModel(isFurniture);
+                if (!model.loadModel(assetManager, name) || !model.isLoaded())
+                {
+                    throw new IOException("Could not load model " + name);
+                }
+
+                if (isFurniture)
+                {
+                    model.setTransparency(.5f);
+                }
+                else
+                {
+                    // The furniture is drawn up close, the others can be far away
+                    model.generateLevelsOfDetail();
+                }
+
+                return model;
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.CoreSamples.app.GroundPlane;
+
+/**
+ * Per-frame pose logic of the GroundPlane sample
+ *
+ * The renderer feeds the poses it reads from the Vuforia State and gets back
+ * the matrices needed to draw each augmentation. Implementations make no
+ * Vuforia or OpenGL calls, so they can be driven with synthetic poses on a JVM.
+ *
+ * All matrices are 4x4 column-major float arrays. The arrays returned by the
+ * getters are owned by the implementation and overwritten by the next call to
+ * computeAugmentation()
+ */
+interface GroundPlaneFrameLogic
+{
+    // Poses set by the renderer
+    int POSE_HIT_TEST = 0;
+    int POSE_MID_AIR = 1;
+    int POSE_FURNITURE = 2;
+    int POSE_RETICLE = 3;
+    int NUM_POSES = 4;
+
+    // Augmentations whose matrices can be computed
+    int AUGMENTATION_ASTRONAUT = 0;
+    int AUGMENTATION_DRONE = 1;
+    int AUGMENTATION_FURNITURE = 2;
+    int AUGMENTATION_FURNITURE_SHADOW = 3;
+    int AUGMENTATION_FURNITURE_GESTURES = 4;
+    int AUGMENTATION_FURNITURE_PREVIEW = 5;
+    int AUGMENTATION_FURNITURE_PREVIEW_SHADOW = 6;
+    int AUGMENTATION_RETICLE = 7;
+
+
+    // Sets the device and every other pose back to identity
+    void resetPoses();
+
+    // modelViewMatrix is the GL pose of the device trackable result
+    void setDevicePose(float[] modelViewMatrix);
+
+    void setPose(int pose, float[] modelViewMatrix);
+
+    void resetPose(int pose);
+
+    // Scale and rotation around the up axis, in degrees, of the furniture
+    void setProductTransform(float scale, float rotation);
+
+    // Writes into out the row-major 3x4 pose of a mid-air anchor placed
+    // distance meters in front of the device, with the device orientation removed
+    void computeMidAirAnchorPose(float[] out, float distance);
+
+    void computeAugmentation(int augmentation, float[] projectionMatrix);
+
+    float[] getModelViewMatrix();
+
+    float[] getModelViewProjectionMatrix();
+
+    // Inverse transpose of the model-view matrix
+    float[] getNormalMatrix();
+}
@@ -0,0 +1,201 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.CoreSamples.app.GroundPlane;
+
+import com.vuforia.engine.SampleApplication.utils.SampleArrayMath;
+
+/**
+ * Allocation-free implementation of the GroundPlane frame logic
+ *
+ * Every pose and result lives in an array allocated once, the steady-state
+ * render path therefore creates no garbage
+ */
+class GroundPlaneFrameMatrices implements GroundPlaneFrameLogic
+{
+    private static final float MODEL_SCALE = 10.0f;
+
+    // The device pose as tracked, and its inverse which maps world space to camera space
+    private final float[] mDeviceModelView = new float[16];
+    private final float[] mDevicePose = new float[16];
+
+    private final float[][] mPoses = new float[NUM_POSES][16];
+
+    private float mProductScale = 1.0f;
+    private float mProductRotation = 0.0f;
+
+    private final float[] mModelMatrix = new float[16];
+    private final float[] mModelView = new float[16];
+    private final float[] mModelViewProjection = new float[16];
+    private final float[] mNormalMatrix = new float[16];
+
+
+    GroundPlaneFrameMatrices()
+    {
+        resetPoses();
+    }
+
+
+    @Override
+    public void resetPoses()
+    {
+        SampleArrayMath.Matrix44FIdentity(mDeviceModelView, 0);
+        SampleArrayMath.Matrix44FIdentity(mDevicePose, 0);
+
+        for (int pose = 0; pose < NUM_POSES; pose++)
+        {
+            resetPose(pose);
+        }
+    }
+
+
+    @Override
+    public void setDevicePose(float[] modelViewMatrix)
+    {
+        // The device pose is rigid, keep the previous one in the unlikely case it is degenerate
+        if (SampleArrayMath.Matrix44FInverseAffine(mDevicePose, 0, modelViewMatrix, 0))
+        {
+            System.arraycopy(modelViewMatrix, 0, mDeviceModelView, 0, 16);
+        }
+    }
+
+
+    @Override
+    public void setPose(int pose, float[] modelViewMatrix)
+    {
+        System.arraycopy(modelViewMatrix, 0, mPoses[pose], 0, 16);
+    }
+
+
+    @Override
+    public void resetPose(int pose)
+    {
+        SampleArrayMath.Matrix44FIdentity(mPoses[pose], 0);
+    }
+
+
+    @Override
+    public void setProductTransform(float scale, float rotation)
+    {
+        mProductScale = scale;
+        mProductRotation = rotation;
+    }
+
+
+    @Override
+    public void computeMidAirAnchorPose(float[] out, float distance)
+    {
+        // Translating the device pose along its viewing axis (-z) moves the
+        // position by -distance times the third column of its rotation
+        for (int row = 0; row < 3; row++)
+        {
+            out[row * 4] = row == 0 ? 1.0f : 0.0f;
+            out[row * 4 + 1] = row == 1 ? 1.0f : 0.0f;
+            out[row * 4 + 2] = row == 2 ? 1.0f : 0.0f;
+            out[row * 4 + 3] = mDeviceModelView[12 + row] - distance * mDeviceModelView[8 + row];
+        }
+    }
+
+
+    @Override
+    public void computeAugmentation(int augmentation, float[] projectionMatrix)
+    {
+        boolean isPreview = false;
+
+        switch (augmentation)
+        {
+            case AUGMENTATION_ASTRONAUT:
+                System.arraycopy(mPoses[POSE_HIT_TEST], 0, mModelMatrix, 0, 16);
+                SampleArrayMath.Matrix44FTranslate(mModelMatrix, 0, -0.30f, 0, 0);
+                SampleArrayMath.Matrix44FScale(mModelMatrix, 0, MODEL_SCALE, MODEL_SCALE, MODEL_SCALE);
+                break;
+
+            case AUGMENTATION_DRONE:
+                System.arraycopy(mPoses[POSE_MID_AIR], 0, mModelMatrix, 0, 16);
+                SampleArrayMath.Matrix44FTranslate(mModelMatrix, 0, -0.75f, -0.375f, -0.75f);
+                SampleArrayMath.Matrix44FScale(mModelMatrix, 0, MODEL_SCALE, MODEL_SCALE, MODEL_SCALE);
+                break;
+
+            case AUGMENTATION_FURNITURE:
+                System.arraycopy(mPoses[POSE_FURNITURE], 0, mModelMatrix, 0, 16);
+                SampleArrayMath.Matrix44FRotate(mModelMatrix, 0, mProductRotation, 0.0f, 1.0f, 0.0f);
+                SampleArrayMath.Matrix44FScale(mModelMatrix, 0, mProductScale, mProductScale, mProductScale);
+                break;
+
+            case AUGMENTATION_FURNITURE_SHADOW:
+                setFlatOnPlane(mPoses[POSE_FURNITURE], mProductScale);
+                break;
+
+            case AUGMENTATION_FURNITURE_GESTURES:
+                setFlatOnPlane(mPoses[POSE_FURNITURE], mProductScale * 2.0f);
+                break;
+
+            case AUGMENTATION_FURNITURE_PREVIEW:
+                System.arraycopy(mPoses[POSE_RETICLE], 0, mModelMatrix, 0, 16);
+                SampleArrayMath.Matrix44FScale(mModelMatrix, 0, mProductScale, mProductScale, mProductScale);
+                isPreview = true;
+                break;
+
+            case AUGMENTATION_FURNITURE_PREVIEW_SHADOW:
+                setFlatOnPlane(mPoses[POSE_RETICLE], mProductScale);
+                break;
+
+            case AUGMENTATION_RETICLE:
+                setFlatOnPlane(mPoses[POSE_RETICLE], 1.0f);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown augmentation " + augmentation);
+        }
+
+        SampleArrayMath.Matrix44FMultiply(mModelView, 0, mDevicePose, 0, mModelMatrix, 0);
+        SampleArrayMath.Matrix44FMultiply(mModelViewProjection, 0, projectionMatrix, 0, mModelView, 0);
+
+        // The furniture preview has always been lit with its pose on the reticle
+        // rather than in camera space, keep it that way
+        if (isPreview)
+        {
+            System.arraycopy(mModelMatrix, 0, mModelView, 0, 16);
+        }
+
+        if (!SampleArrayMath.Matrix44FInverse(mNormalMatrix, 0, mModelView, 0))
+        {
+            SampleArrayMath.Matrix44FIdentity(mNormalMatrix, 0);
+        }
+        SampleArrayMath.Matrix44FTranspose(mNormalMatrix, 0, mNormalMatrix, 0);
+    }
+
+
+    @Override
+    public float[] getModelViewMatrix()
+    {
+        return mModelView;
+    }
+
+
+    @Override
+    public float[] getModelViewProjectionMatrix()
+    {
+        return mModelViewProjection;
+    }
+
+
+    @Override
+    public float[] getNormalMatrix()
+    {
+        return mNormalMatrix;
+    }
+
+
+    // Textured planes are defined in the xy plane, rotate them to lie on the ground
+    private void setFlatOnPlane(float[] pose, float scale)
+    {
+        System.arraycopy(pose, 0, mModelMatrix, 0, 16);
+        SampleArrayMath.Matrix44FRotate(mModelMatrix, 0, -90.0f, 1.0f, 0.0f, 0.0f);
+        SampleArrayMath.Matrix44FScale(mModelMatrix, 0, scale, scale, scale);
+    }
+}
@@ -9,7 +9,6 @@ package com.vuforia.engine.CoreSamples.app.GroundPlane;
 
 import android.opengl.GLES20;
 import android.opengl.Matrix;
-import android.os.AsyncTask;
 import android.util.DisplayMetrics;
 import android.util.Log;
 import android.view.Display;
@@ -25,32 +24,35 @@ import com.vuforia.HitTestResult;
 import com.vuforia.HitTestResultList;
 import com.vuforia.Illumination;
 import com.vuforia.Matrix34F;
-import com.vuforia.Matrix44F;
 import com.vuforia.PositionalDeviceTracker;
 import com.vuforia.SmartTerrain;
 import com.vuforia.State;
-import com.vuforia.Tool;
 import com.vuforia.TrackableResult;
 import com.vuforia.TrackableResultList;
 import com.vuforia.TrackerManager;
 import com.vuforia.Vec2F;
-import com.vuforia.Vec3F;
-import com.vuforia.Vec4F;
 import com.vuforia.Vuforia;
 import com.vuforia.engine.SampleApplication.SampleAppRenderer;
 import com.vuforia.engine.SampleApplication.SampleAppRendererControl;
 import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.SampleRendererBase;
+import com.vuforia.engine.SampleApplication.utils.FrameAllocationTracker;
+import com.vuforia.engine.SampleApplication.utils.FramePacer;
+import com.vuforia.engine.SampleApplication.utils.MeshBufferCache;
 import com.vuforia.engine.SampleApplication.utils.LightingShaders;
-import com.vuforia.engine.SampleApplication.utils.Plane;
+import com.vuforia.engine.SampleApplication.utils.LodSelector;
+import com.vuforia.engine.SampleApplication.utils.MeshObject;
+import com.vuforia.engine.SampleApplication.utils.PrimitiveMesh;
+import com.vuforia.engine.SampleApplication.utils.PrimitiveMeshGenerator;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationV3DModel;
-import com.vuforia.engine.SampleApplication.utils.SampleMath;
+import com.vuforia.engine.SampleApplication.utils.SampleArrayMath;
+import com.vuforia.engine.SampleApplication.utils.SampleGLES20;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
 import com.vuforia.engine.SampleApplication.utils.Texture;
 import com.vuforia.engine.SampleApplication.utils.TextureColorShaders;
 
-import java.lang.ref.WeakReference;
-import java.util.Vector;
+
+import javax.microedition.khronos.opengles.GL10;
 
 
 /**
@@ -85,16 +87,20 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
     private int intensityCorrectionHandle;
 
     // No color correction by default
-    private Vec4F mColorCorrection = new Vec4F(1.0f, 1.0f, 1.0f, 1.0f);
+    private final float[] mColorCorrection = {1.0f, 1.0f, 1.0f, 1.0f};
     private float mIntensityCorrection = 1.0f;
 
     // This plane shows a real-world surface if one is detected using SmartTerrain
     // If no real-world surface is detected, this plane is displayed on the screen surface
-    private Plane mPlane;
+    private PrimitiveMesh mPlane;
 
     // Ground Plane augmentations
     private SampleApplicationV3DModel mAstronaut, mDrone, mFurniture;
 
+    // Simplified models are drawn when the astronaut or the drone is far away
+    private final LodSelector mAstronautLod = new LodSelector();
+    private final LodSelector mDroneLod = new LodSelector();
+
     // Tracking state confidence & degradation
     private int mCurrentStatusInfo = TrackableResult.STATUS_INFO.UNKNOWN;
     private boolean mIsTargetCurrentlyTracked = false;
@@ -103,6 +109,10 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
     private boolean mIsModelTranslating = false;
     private boolean mIsModelRotating = false;
 
+    // Textures and models decoded in the background, uploaded in one batch
+    private GroundPlaneAssets mAssets;
+    private boolean mAssetsUploaded = false;
+
     private boolean mModelsAreLoaded = false;
     private boolean initializedModelShaders = false;
 
@@ -128,15 +138,23 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
     private static final int TRANSLATE_TEXTURE_INDEX = 6;
     private static final int ROTATE_TEXTURE_INDEX = 7;
 
-    // Device and Smart Terrain poses
-    private Matrix44F mDevicePoseMatrix;
-    private Matrix44F mHitTestPoseMatrix;
-    private Matrix44F mMidAirPoseMatrix;
-    private Matrix44F mFurniturePoseMatrix;
-    private Matrix44F mReticlePose;
+    // Device and Smart Terrain poses, and the matrices of the augmentations
+    private final GroundPlaneFrameLogic mFrameLogic = new GroundPlaneFrameMatrices();
 
-    private Vec2F translateCoords;
-    private Vec2F mLastTranslationCoords;
+    // Per-frame scratch state, allocated once so that rendering does not create garbage
+    private final float[] mPoseScratch = new float[16];
+    private final float[] mMidAirPoseScratch = new float[12];
+    private final Matrix34F mMidAirAnchorPose = new Matrix34F();
+    private final float[] mHitTestCoords = new float[2];
+    private final Vec2F mHitTestPoint = new Vec2F();
+    private final float[] mReticleProjection = new float[16];
+
+    // Normalized screen coordinates of the translation gesture
+    private final float[] mTranslateCoords = new float[2];
+    private final float[] mLastTranslationCoords = new float[2];
+
+    // Optional instrumentation counting the allocations of each frame
+    private FrameAllocationTracker mAllocationTracker;
 
     // Anchor for registering content with latest hit test result
     private Anchor mHitTestAnchor, mMidAirAnchor, mFurnitureAnchor;
@@ -168,6 +186,9 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
     // In apps targeted for kids reduce the assumptions to ~80% of these values.
     private final static float DEFAULT_HEIGHT_ABOVE_GROUND = 1.4f;  // In meters
 
+    // Distance in front of the camera at which the drone is placed
+    private final static float MID_AIR_ANCHOR_DISTANCE = 3.0f;  // In meters
+
     GroundPlaneRenderer(GroundPlane activity, SampleApplicationSession session)
     {
         mActivity = activity;
@@ -177,6 +198,9 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
         // the device mode AR/VR and stereo mode
         mSampleAppRenderer = new SampleAppRenderer(this, mActivity, vuforiaAppSession.getVideoMode(),
                 0.1f, 10f);
+
+        // The furniture is the heaviest augmentation of the samples
+        mSampleAppRenderer.setDynamicResolutionEnabled(true);
     }
 
 
@@ -186,6 +210,13 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
     }
 
 
+    // The dynamic resolution tells the GPU time from the wait for the next camera frame
+    void setFramePacer(FramePacer framePacer)
+    {
+        mSampleAppRenderer.setFramePacer(framePacer);
+    }
+
+
     @Override
     public void initRendering()
     {
@@ -194,35 +225,26 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
 
         mActivity.setInstructionsState(INSTRUCTION_UNDEFINED);
 
-        for (Texture t : mTextures)
-        {
-            GLES20.glGenTextures(1, t.mTextureID, 0);
-            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, t.mTextureID[0]);
-            GLES20.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
-            GLES20.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
-            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_REPEAT);
-            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_REPEAT);
-
-            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, t.mWidth, t.mHeight, 0, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, t.mData);
-        }
+        // A new context needs the textures again, they are kept in mTextures
+        mAssetsUploaded = false;
 
         planeShaderProgramID = SampleUtils.createProgramFromShaderSrc(
                 TextureColorShaders.TEXTURE_COLOR_VERTEX_SHADER,
                 TextureColorShaders.TEXTURE_COLOR_FRAGMENT_SHADER);
 
-        mPlane = new Plane();
+        mPlane = PrimitiveMeshGenerator.getPlane(1);
 
         if (planeShaderProgramID > 0)
         {
-            planeVertexHandle = GLES20.glGetAttribLocation(planeShaderProgramID,
+            planeVertexHandle = SampleUtils.getAttribLocation(planeShaderProgramID,
                     "vertexPosition");
-            planeTextureCoordHandle = GLES20.glGetAttribLocation(planeShaderProgramID,
+            planeTextureCoordHandle = SampleUtils.getAttribLocation(planeShaderProgramID,
                     "vertexTexCoord");
-            planeMvpMatrixHandle = GLES20.glGetUniformLocation(planeShaderProgramID,
+            planeMvpMatrixHandle = SampleUtils.getUniformLocation(planeShaderProgramID,
                     "modelViewProjectionMatrix");
-            planeTexSampler2DHandle = GLES20.glGetUniformLocation(planeShaderProgramID,
+            planeTexSampler2DHandle = SampleUtils.getUniformLocation(planeShaderProgramID,
                     "texSampler2D");
-            planeColorHandle = GLES20.glGetUniformLocation(planeShaderProgramID,
+            planeColorHandle = SampleUtils.getUniformLocation(planeShaderProgramID,
                     "uniformColor");
 
         }
@@ -237,17 +259,17 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
 
         if (shaderProgramID > 0)
         {
-            vertexHandle = GLES20.glGetAttribLocation(shaderProgramID, "vertexPosition");
-            normalHandle = GLES20.glGetAttribLocation(shaderProgramID, "vertexNormal");
-            textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID, "vertexTexCoord");
-            mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_mvpMatrix");
-            mvMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_mvMatrix");
-            normalMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_normalMatrix");
-            lightPositionHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_lightPos");
-            lightColorHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_lightColor");
-            colorCorrectionHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_colorCorrection");
-            intensityCorrectionHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_intensityCorrection");
-            texSampler2DHandle = GLES20.glGetUniformLocation(shaderProgramID, "texSampler2D");
+            vertexHandle = SampleUtils.getAttribLocation(shaderProgramID, "vertexPosition");
+            normalHandle = SampleUtils.getAttribLocation(shaderProgramID, "vertexNormal");
+            textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID, "vertexTexCoord");
+            mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_mvpMatrix");
+            mvMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_mvMatrix");
+            normalMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_normalMatrix");
+            lightPositionHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_lightPos");
+            lightColorHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_lightColor");
+            colorCorrectionHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_colorCorrection");
+            intensityCorrectionHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_intensityCorrection");
+            texSampler2DHandle = SampleUtils.getUniformLocation(shaderProgramID, "texSampler2D");
 
         }
         else
@@ -255,26 +277,8 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
             Log.e(LOGTAG, "Could not init lighting shader");
         }
 
-        if (!mModelsAreLoaded)
-        {
-            LoadModelTask astronautModelTask = new LoadModelTask(this);
-            astronautModelTask.execute("astronaut.v3d");
-
-            LoadModelTask droneModelTask = new LoadModelTask(this);
-            droneModelTask.execute("drone.v3d");
-
-            LoadModelTask chairModelTask = new LoadModelTask(this);
-            chairModelTask.execute("GroundPlane/chair.v3d");
-        }
-
-        mDevicePoseMatrix = SampleMath.Matrix44FIdentity();
-        mMidAirPoseMatrix = SampleMath.Matrix44FIdentity();
-        mHitTestPoseMatrix = SampleMath.Matrix44FIdentity();
-        mFurniturePoseMatrix = SampleMath.Matrix44FIdentity();
-        mReticlePose = SampleMath.Matrix44FIdentity();
-
-        translateCoords = new Vec2F();
-        mLastTranslationCoords = new Vec2F();
+        mFrameLogic.resetPoses();
+        updateReticleProjection();
 
         mIsAnchorResultAvailable = false;
         mIsDeviceResultAvailable = false;
@@ -289,63 +293,54 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
     }
 
 
-    private static class LoadModelTask extends AsyncTask<String, Integer, Boolean>
+    // Called on the GL thread once the assets are decoded, and again after a context loss
+    private void uploadAssets()
     {
-        private final WeakReference<GroundPlaneRenderer> rendererRef;
-
-        LoadModelTask(GroundPlaneRenderer gpRenderer)
+        boolean isFirstUpload = mTextures == null;
+        if (isFirstUpload)
         {
-            rendererRef = new WeakReference<>(gpRenderer);
+            mTextures = mAssets.getTextures();
+            mAstronaut = mAssets.getAstronaut();
+            mDrone = mAssets.getDrone();
+            mFurniture = mAssets.getFurniture();
         }
 
-        protected Boolean doInBackground(String... params)
+        for (Texture t : mTextures)
         {
-            boolean isModelLoaded = false;
-
-            GroundPlaneRenderer renderer = rendererRef.get();
-            GroundPlane activity = renderer.mActivity;
-
-            switch(params[0])
+            if (t == null)
             {
-                case "astronaut.v3d":
-                {
-                    renderer.mAstronaut = new SampleApplicationV3DModel(false);
-                    isModelLoaded = renderer.mAstronaut.loadModel(activity.getResources().getAssets(), params[0]);
-
-                    break;
-                }
-                case "drone.v3d":
-                {
-                    renderer.mDrone = new SampleApplicationV3DModel(false);
-                    isModelLoaded = renderer.mDrone.loadModel(activity.getResources().getAssets(), params[0]);
-
-                    break;
-                }
-                case "GroundPlane/chair.v3d":
-                {
-                    renderer.mFurniture = new SampleApplicationV3DModel(true);
-                    isModelLoaded = renderer.mFurniture.loadModel(activity.getResources().getAssets(), params[0]);
-                    renderer.mFurniture.setTransparency(.5f);
-
-                    break;
-                }
+                continue;
             }
 
-            return isModelLoaded;
+            GLES20.glGenTextures(1, t.mTextureID, 0);
+            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, t.mTextureID[0]);
+            // The reticles are seen at grazing angles and come with precomputed mip levels
+            GLES20.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER,
+                    t.getNumLevels() > 1 ? GLES20.GL_LINEAR_MIPMAP_LINEAR : GLES20.GL_LINEAR);
+            GLES20.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_REPEAT);
+            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_REPEAT);
+
+            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, t.mWidth, t.mHeight, 0, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, t.mData);
+            t.uploadMipLevels();
         }
 
-        protected void onPostExecute(Boolean result)
+        mAssetsUploaded = true;
+        mModelsAreLoaded = mFurniture != null && mDrone != null && mAstronaut != null
+                && mFurniture.isLoaded() && mDrone.isLoaded() && mAstronaut.isLoaded();
+
+        if (isFirstUpload)
         {
-            GroundPlaneRenderer renderer = rendererRef.get();
-            GroundPlane activity = renderer.mActivity;
-
-            // Hide the Loading Dialog
-            activity.showProgressIndicator(false);
-            activity.mGroundPlaneLayout.setVisibility(View.VISIBLE);
-            renderer.mModelsAreLoaded = renderer.mFurniture != null
-                    && renderer.mDrone != null && renderer.mAstronaut != null
-                    && renderer.mFurniture.isLoaded() && renderer.mDrone.isLoaded()
-                    && renderer.mAstronaut.isLoaded();
+            mActivity.runOnUiThread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    // Hide the Loading Dialog
+                    mActivity.showProgressIndicator(false);
+                    mActivity.mGroundPlaneLayout.setVisibility(View.VISIBLE);
+                }
+            });
         }
     }
 
@@ -378,10 +373,83 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
     }
 
 
+    @Override
+    public void onSurfaceChanged(GL10 gl, int width, int height)
+    {
+        super.onSurfaceChanged(gl, width, height);
+
+        updateReticleProjection();
+    }
+
+
+    // Installs a tracker measuring the allocations of every frame, or removes it when null.
+    // The previous tracker is stopped and its results logged. Must be called from the GL thread
+    public void setAllocationTracker(FrameAllocationTracker allocationTracker)
+    {
+        if (mAllocationTracker != null)
+        {
+            mAllocationTracker.stop();
+            logAllocations(mAllocationTracker);
+        }
+
+        mAllocationTracker = allocationTracker;
+        if (allocationTracker != null)
+        {
+            allocationTracker.start();
+        }
+    }
+
+
+    private static void logAllocations(FrameAllocationTracker allocationTracker)
+    {
+        if (allocationTracker.isWithinBudget())
+        {
+            Log.i(LOGTAG, "No frame allocated more than " + allocationTracker.getBudget()
+                    + " objects in " + allocationTracker.getFrameCount() + " frames");
+        }
+        else
+        {
+            Log.w(LOGTAG, allocationTracker.getFramesOverBudget() + " of "
+                    + allocationTracker.getFrameCount() + " frames allocated more than "
+                    + allocationTracker.getBudget() + " objects, up to "
+                    + allocationTracker.getMaxSteadyStateAllocations());
+        }
+    }
+
+
+    // Brackets the whole frame, from the state update to the end of the Vuforia renderer
+    @Override
+    public void onDrawFrame(GL10 gl)
+    {
+        FrameAllocationTracker allocationTracker = mAllocationTracker;
+        if (allocationTracker != null)
+        {
+            allocationTracker.beginFrame();
+        }
+
+        super.onDrawFrame(gl);
+
+        if (allocationTracker != null)
+        {
+            allocationTracker.endFrame();
+        }
+    }
+
+
     // The render function.
     // This function is called from the SampleAppRenderer by using the RenderingPrimitives views.
     // The state is owned by SampleAppRenderer which is controlling its lifecycle.
     // NOTE: State should not be cached outside this method.
+    //
+    // Everything reached from here runs every frame and must not allocate, apart from
+    // the wrapper objects the Vuforia Java API returns. Matrices are computed by
+    // mFrameLogic into its own arrays and everything else uses the scratch fields above
+    //
+    // Unlike the other samples, the draws are issued right away and not recorded in a
+    // DrawCommandBuffer: the models need the model-view and normal matrices and the
+    // lighting uniforms, the shadows are blended with GL_FUNC_REVERSE_SUBTRACT, and the
+    // shadows, reticle and models rely on depth test changes in between them. There are
+    // at most four draws per frame, in an order that must be kept
     public void renderFrame(State state, float[] projectionMatrix)
     {
         boolean render3DReticle = false;
@@ -389,6 +457,11 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
         boolean renderDrone = false;
         boolean renderFurniture = false;
 
+        if (!mAssetsUploaded && mAssets != null && mAssets.isReady())
+        {
+            uploadAssets();
+        }
+
         // Prevent rendering augmentations until models are loaded
         if (!mModelsAreLoaded)
         {
@@ -401,6 +474,8 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
             initializedModelShaders = true;
         }
 
+        mViewFrustum.setProjection(projectionMatrix, 0);
+
         // Use color correction if illumination information is available
         Illumination illumination = state.getIllumination();
         if (illumination != null)
@@ -409,45 +484,45 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
             // https://developers.google.com/ar/reference/c/group/light#group__light_1ga70e0426f83e94a3f8f4c103a060b3414
             // These correction values are being used in the shaders used for augmentations rendering: LightingShaders and DiffuseLightMaterials
             mIntensityCorrection = illumination.getIntensityCorrection() / 0.466f;
-            mColorCorrection = illumination.getColorCorrection();
+            System.arraycopy(illumination.getColorCorrection().getData(), 0, mColorCorrection, 0, 4);
         }
 
         // Renders video background replacing Renderer.DrawVideoBackground()
         mSampleAppRenderer.renderVideoBackground();
 
+        // The video background changed the state behind the cache's back
+        mGLState.invalidate();
+
         GLES20.glEnable(GLES20.GL_DEPTH_TEST);
 
         GLES20.glEnable(GLES20.GL_CULL_FACE);
         GLES20.glCullFace(GLES20.GL_BACK);
         GLES20.glFrontFace(GLES20.GL_CCW);   // Back camera
 
-        if (state.getTrackableResults().empty())
+        TrackableResultList trackableResultList = state.getTrackableResults();
+
+        if (trackableResultList.empty())
         {
             Log.i(LOGTAG, "No trackables");
         }
         else
         {
-            Matrix34F devicePoseTemp = new Matrix34F();
             boolean furnitureAnchorExists = false;
 
-            TrackableResultList trackableResultList = state.getTrackableResults();
-
             // Determine if target is currently being tracked
             setIsTargetCurrentlyTracked(trackableResultList);
 
             // Iterate through trackable results and render any augmentations
-            for (TrackableResult result : trackableResultList)
+            int numResults = trackableResultList.size();
+            for (int i = 0; i < numResults; i++)
             {
-                Matrix44F modelViewMatrix = Tool.convertPose2GLMatrix(result.getPose());
-
-                Matrix44F projMatrix = new Matrix44F();
-                projMatrix.setData(projectionMatrix);
+                TrackableResult result = trackableResultList.at(i);
+                SampleArrayMath.Matrix44FFromPose(mPoseScratch, 0, result.getPose().getData(), 0);
 
                 // Look for a device pose to be able to move around in world space
                 if (result.isOfType(DeviceTrackableResult.getClassType()))
                 {
-                    devicePoseTemp.setData(result.getPose().getData());
-                    mDevicePoseMatrix = SampleMath.Matrix44FTranspose(SampleMath.Matrix44FInverse(modelViewMatrix));
+                    mFrameLogic.setDevicePose(mPoseScratch);
                     mIsDeviceResultAvailable = true;
 
                     setStatusInfoUpdate(result.getStatusInfo());
@@ -467,19 +542,21 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
                 {
                     mIsAnchorResultAvailable = true;
 
-                    if (result.getTrackable().getName().equals(HIT_TEST_ANCHOR_NAME))
+                    String anchorName = result.getTrackable().getName();
+
+                    if (anchorName.equals(HIT_TEST_ANCHOR_NAME))
                     {
                         renderAstronaut = true;
-                        mHitTestPoseMatrix = modelViewMatrix;
+                        mFrameLogic.setPose(GroundPlaneFrameLogic.POSE_HIT_TEST, mPoseScratch);
                     }
 
-                    if (result.getTrackable().getName().equals(MID_AIR_ANCHOR_NAME))
+                    if (anchorName.equals(MID_AIR_ANCHOR_NAME))
                     {
                         renderDrone = true;
-                        mMidAirPoseMatrix = modelViewMatrix;
+                        mFrameLogic.setPose(GroundPlaneFrameLogic.POSE_MID_AIR, mPoseScratch);
                     }
 
-                    if (result.getTrackable().getName().equals(FURNITURE_ANCHOR_NAME))
+                    if (anchorName.equals(FURNITURE_ANCHOR_NAME))
                     {
                         furnitureAnchorExists = true;
 
@@ -492,11 +569,11 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
 
                         if (mIsModelTranslating)
                         {
-                            updateFurnitureMatrix(state, translateCoords);
+                            updateFurnitureMatrix(state, mTranslateCoords);
                         }
                         else
                         {
-                            mFurniturePoseMatrix = modelViewMatrix;
+                            mFrameLogic.setPose(GroundPlaneFrameLogic.POSE_FURNITURE, mPoseScratch);
                         }
                     }
                 }
@@ -516,7 +593,7 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
                     {
                         if (mRepositionFurniture)
                         {
-                            performHitTest(state, mLastTranslationCoords.getData()[0], mLastTranslationCoords.getData()[1], true);
+                            performHitTest(state, mLastTranslationCoords[0], mLastTranslationCoords[1], true);
                             mRepositionFurniture = false;
                         }
                         else
@@ -544,38 +621,13 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
             // Should we set a new position for the drone?
             if (mSetDroneNewPosition)
             {
-                Matrix34F midAirPose = new Matrix34F();
-                midAirPose.setData(devicePoseTemp.getData());
-
-                // Matrix to translate drone at a given distance in front of camera
-                Matrix34F translationMat = new Matrix34F();
-                float[] translationArray = new float[12];
-                translationArray[0] = 1;
-                translationArray[5] = 1;
-                translationArray[10] = 1;
-
-                translationMat.setData(translationArray);
-                Tool.setTranslation(translationMat, new Vec3F(0f, 0f, -3f));
-
-                midAirPose = Tool.multiply(midAirPose, translationMat);
-
-                // We remove the orientation from the device pose to create the anchor
-                float[] midAirPoseArray = midAirPose.getData();
-                midAirPoseArray[0] = 1;
-                midAirPoseArray[1] = 0;
-                midAirPoseArray[2] = 0;
-
-                midAirPoseArray[4] = 0;
-                midAirPoseArray[5] = 1;
-                midAirPoseArray[6] = 0;
-                
-                midAirPoseArray[8] = 0;
-                midAirPoseArray[9] = 0;
-                midAirPoseArray[10] = 1;
-                midAirPose.setData(midAirPoseArray);
+                // The drone is placed at a given distance in front of the camera, and
+                // the orientation is removed from the device pose to create the anchor
+                mFrameLogic.computeMidAirAnchorPose(mMidAirPoseScratch, MID_AIR_ANCHOR_DISTANCE);
+                mMidAirAnchorPose.setData(mMidAirPoseScratch);
 
                 // Create an anchor for the drone
-                createMidAirAnchor(midAirPose);
+                createMidAirAnchor(mMidAirAnchorPose);
                 mSetDroneNewPosition = false;
             }
 
@@ -624,69 +676,54 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
             {
                 if (renderFurniture)
                 {
-                    float[] chairMV = mFurniturePoseMatrix.getData();
-                    float[] chairMVP = new float[16];
-
-                    Matrix.translateM(chairMV, 0, 0f, 0f, 0);
-                    Matrix.rotateM(chairMV, 0, mProductRotation + mNewProductRotation, 0.0f, 1.0f, 0.0f);
-                    Matrix.scaleM(chairMV, 0, mProductScale, mProductScale, mProductScale);
-
-                    Matrix.multiplyMM(chairMV, 0, mDevicePoseMatrix.getData(), 0, chairMV, 0);
-                    Matrix.multiplyMM(chairMVP, 0, projectionMatrix, 0, chairMV, 0);
-
-                    float shadowScale = mProductScale * 1.0f;
-                    float gesturesScale = mProductScale * 2.0f;
-                    float[] shadowMV = mFurniturePoseMatrix.getData();
-                    float[] gesturesMV = mFurniturePoseMatrix.getData();
-
-                    Matrix.rotateM(shadowMV, 0, -90, 1.0f, 0.0f, 0.0f);
-                    Matrix.scaleM(shadowMV, 0, shadowScale, shadowScale, shadowScale);
-                    Matrix.rotateM(gesturesMV, 0, -90, 1.0f, 0.0f, 0.0f);
-                    Matrix.scaleM(gesturesMV, 0, gesturesScale, gesturesScale, gesturesScale);
+                    mFrameLogic.setProductTransform(mProductScale, mProductRotation + mNewProductRotation);
 
                     GLES20.glDisable(GLES20.GL_DEPTH_TEST);
 
-                    Matrix44F projMatrix = new Matrix44F();
-                    projMatrix.setData(projectionMatrix);
-                    Matrix44F shadowMVMatrix = new Matrix44F();
-                    shadowMVMatrix.setData(shadowMV);
-                    Matrix44F gesturesMVMatrix = new Matrix44F();
-                    gesturesMVMatrix.setData(gesturesMV);
-
                     // Renders the shadow that will be placed underneath the furniture
-                    renderPlaneTexturedWithProjectionMatrix(projMatrix, shadowMVMatrix, mTextures.get(SHADOW_TEXTURE_INDEX).mTextureID[0], true, false);
+                    mFrameLogic.computeAugmentation(GroundPlaneFrameLogic.AUGMENTATION_FURNITURE_SHADOW, projectionMatrix);
+                    renderPlaneTextured(mFrameLogic.getModelViewProjectionMatrix(), mTextures.get(SHADOW_TEXTURE_INDEX).mTextureID[0], true);
 
                     // If any gestures are being performed on the furniture,
                     // render the corresponding texture
                     if(mProductPlacementState != PRODUCT_PLACEMENT_STATE_IDLE)
                     {
                         int gestureTexture = isModelRotating() ? ROTATE_TEXTURE_INDEX : TRANSLATE_TEXTURE_INDEX;
-                        renderPlaneTexturedWithProjectionMatrix(projMatrix, gesturesMVMatrix, mTextures.get(gestureTexture).mTextureID[0], false, false);
+                        mFrameLogic.computeAugmentation(GroundPlaneFrameLogic.AUGMENTATION_FURNITURE_GESTURES, projectionMatrix);
+                        renderPlaneTextured(mFrameLogic.getModelViewProjectionMatrix(), mTextures.get(gestureTexture).mTextureID[0], false);
                     }
 
                     GLES20.glEnable(GLES20.GL_DEPTH_TEST);
 
+                    mFrameLogic.computeAugmentation(GroundPlaneFrameLogic.AUGMENTATION_FURNITURE, projectionMatrix);
                     mFurniture.setRenderingColorCorrection(mColorCorrection, mIntensityCorrection);
-                    mFurniture.render(chairMV, chairMVP);
+
+                    if (isAugmentationOnScreen(mFurniture))
+                    {
+                        // The rest of the frame is drawn with direct GLES20 calls
+                        mGLState.invalidate();
+                        mFurniture.render(mGLState, mFrameLogic.getModelViewMatrix(), mFrameLogic.getModelViewProjectionMatrix());
+                    }
                 }
 
                 if (renderAstronaut)
                 {
-                    float[] astronautMV = mHitTestPoseMatrix.getData();
-                    Matrix.translateM(astronautMV, 0, -0.30f, 0, 0);
-                    Matrix.scaleM(astronautMV, 0, 10f, 10f, 10f);
-
-                    renderModelV3D(mAstronaut, astronautMV,
-                            projectionMatrix, SAMPLE_APP_INTERACTIVE_MODE);
+                    mFrameLogic.computeAugmentation(GroundPlaneFrameLogic.AUGMENTATION_ASTRONAUT, projectionMatrix);
+                    if (isAugmentationOnScreen(mAstronaut))
+                    {
+                        renderModelV3D(selectLevelOfDetail(mAstronaut, mAstronautLod, projectionMatrix),
+                                SAMPLE_APP_INTERACTIVE_MODE);
+                    }
                 }
 
                 if (renderDrone)
                 {
-                    float[] droneMV = mMidAirPoseMatrix.getData();
-                    Matrix.translateM(droneMV, 0, -0.75f, -0.375f, -0.75f);
-                    Matrix.scaleM(droneMV, 0, 10f, 10f, 10f);
-                    renderModelV3D(mDrone, droneMV,
-                            projectionMatrix, SAMPLE_APP_MIDAIR_MODE);
+                    mFrameLogic.computeAugmentation(GroundPlaneFrameLogic.AUGMENTATION_DRONE, projectionMatrix);
+                    if (isAugmentationOnScreen(mDrone))
+                    {
+                        renderModelV3D(selectLevelOfDetail(mDrone, mDroneLod, projectionMatrix),
+                                SAMPLE_APP_MIDAIR_MODE);
+                    }
                 }
 
             }
@@ -699,42 +736,29 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
         }
         else if (mCurrentMode == SAMPLE_APP_INTERACTIVE_MODE)
         {
-            Matrix44F projMatrix = new Matrix44F();
-            projMatrix.setData(projectionMatrix);
-            renderReticleWithProjectionMatrix(projMatrix, false);
+            mFrameLogic.computeAugmentation(GroundPlaneFrameLogic.AUGMENTATION_RETICLE, projectionMatrix);
+            renderPlaneTextured(mFrameLogic.getModelViewProjectionMatrix(),
+                    mTextures.get(getReticleTextureIndex(false)).mTextureID[0], false);
         }
         else if(mCurrentMode == SAMPLE_APP_FURNITURE_MODE && !mIsFurniturePlaced)
         {
-            float[] furnitureMVPMatrix = mReticlePose.getData();
-            float[] furnitureMV = mReticlePose.getData();
-            Matrix.scaleM(furnitureMV, 0, mProductScale, mProductScale, mProductScale);
-            float[] poseMatrix =  new float[16];
-            Matrix.multiplyMM(poseMatrix, 0, mDevicePoseMatrix.getData(), 0, furnitureMV, 0);
-
-            Matrix.multiplyMM(furnitureMVPMatrix, 0, projectionMatrix, 0, poseMatrix, 0);
-
-            float[] shadowMV = mReticlePose.getData();
-            float shadowScale = mProductScale * 1.0f;
-
-            Matrix.rotateM(shadowMV, 0, -90, 1.0f, 0.0f, 0);
-            Matrix.scaleM(shadowMV, 0 , shadowScale, shadowScale, shadowScale);
-
-            Matrix44F shadowMVMatrix = new Matrix44F();
-            shadowMVMatrix.setData(shadowMV);
-
-            Matrix44F projMatrix = new Matrix44F();
-            projMatrix.setData(projectionMatrix);
+            mFrameLogic.setProductTransform(mProductScale, mProductRotation + mNewProductRotation);
 
             // Disable depth test so the shadow does not occlude the furniture
             GLES20.glDisable(GLES20.GL_DEPTH_TEST);
-            renderPlaneTexturedWithProjectionMatrix(projMatrix, shadowMVMatrix, mTextures.get(SHADOW_TEXTURE_INDEX).mTextureID[0], true, false);
+            mFrameLogic.computeAugmentation(GroundPlaneFrameLogic.AUGMENTATION_FURNITURE_PREVIEW_SHADOW, projectionMatrix);
+            renderPlaneTextured(mFrameLogic.getModelViewProjectionMatrix(), mTextures.get(SHADOW_TEXTURE_INDEX).mTextureID[0], true);
             GLES20.glEnable(GLES20.GL_DEPTH_TEST);
 
-            GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
-            GLES20.glBlendEquation(GLES20.GL_FUNC_ADD);
+            SampleGLES20.getInstance().blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+            SampleGLES20.getInstance().blendEquation(GLES20.GL_FUNC_ADD);
+            mFrameLogic.computeAugmentation(GroundPlaneFrameLogic.AUGMENTATION_FURNITURE_PREVIEW, projectionMatrix);
             mFurniture.setRenderingColorCorrection(mColorCorrection, mIntensityCorrection);
-            mFurniture.render(furnitureMV, furnitureMVPMatrix);
-
+            if (isAugmentationOnScreen(mFurniture))
+            {
+                mGLState.invalidate();
+                mFurniture.render(mGLState, mFrameLogic.getModelViewMatrix(), mFrameLogic.getModelViewProjectionMatrix());
+            }
         }
 
         GLES20.glDisable(GLES20.GL_DEPTH_TEST);
@@ -744,29 +768,28 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
 
     private void render2DReticle()
     {
-        // Calculate aspect ratio
+        mFrameLogic.resetPose(GroundPlaneFrameLogic.POSE_RETICLE);
+
+        // The 2D reticle is drawn straight with the orthographic projection
+        GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        renderPlaneTextured(mReticleProjection, mTextures.get(getReticleTextureIndex(true)).mTextureID[0], false);
+        GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+    }
+
+
+    // Orthographic projection of the 2D reticle, only depends on the display aspect ratio
+    private void updateReticleProjection()
+    {
         DisplayMetrics metrics = new DisplayMetrics();
         mActivity.getWindowManager().getDefaultDisplay().getMetrics(metrics);
         float aspectRatio = (float) metrics.widthPixels / (float) metrics.heightPixels;
 
-        // Create orthographic matrix
-        float[] reticleProj = SampleMath.Matrix44FIdentity().getData();
-
         float orthoScale = 1.25f;
-        Matrix.orthoM(reticleProj, 0, aspectRatio * -orthoScale, aspectRatio * orthoScale, -orthoScale, orthoScale, 1f, -1f);
-
-        Matrix44F reticleProjection = new Matrix44F();
-        reticleProjection.setData(reticleProj);
-
-        mReticlePose = SampleMath.Matrix44FIdentity();
-
-        GLES20.glDisable(GLES20.GL_DEPTH_TEST);
-        renderReticleWithProjectionMatrix(reticleProjection, true);
-        GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+        Matrix.orthoM(mReticleProjection, 0, aspectRatio * -orthoScale, aspectRatio * orthoScale, -orthoScale, orthoScale, 1f, -1f);
     }
 
 
-    private void renderReticleWithProjectionMatrix(Matrix44F projectionMatrix, boolean isReticle2D)
+    private int getReticleTextureIndex(boolean isReticle2D)
     {
         int textureIndex = (mCurrentMode == SAMPLE_APP_INTERACTIVE_MODE || mCurrentMode == SAMPLE_APP_FURNITURE_MODE)
                 ? PLANE_2D_RETICLE_TEXTURE_INDEX : MIDAIR_RETICLE_TEXTURE_INDEX;
@@ -776,131 +799,94 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
             textureIndex = PLANE_3D_RETICLE_TEXTURE_INDEX;
         }
 
-        Matrix44F reticleMV = new Matrix44F();
-        reticleMV.setData(mReticlePose.getData());
-
-        // We rotate the reticle for it sit on the plane where we intend to render the reticle instead of intersecting it
-        float[] reticleTransform = reticleMV.getData();
-        Matrix.rotateM(reticleTransform, 0, 90, -1, 0, 0);
-
-        reticleMV.setData(reticleTransform);
-
-        renderPlaneTexturedWithProjectionMatrix(projectionMatrix, reticleMV, mTextures.get(textureIndex).mTextureID[0], false, isReticle2D);
+        return textureIndex;
     }
 
 
-    private void renderPlaneTexturedWithProjectionMatrix(Matrix44F projectionMatrix, Matrix44F modelViewMatrix, int textureHandle, boolean isSubstractingColors, boolean isRender2D)
+    private void renderPlaneTextured(float[] modelViewProjectionMatrix, int textureHandle, boolean isSubstractingColors)
     {
-        float[] modelViewProjectionMatrix = projectionMatrix.getData();
-        float[] poseMatrix = SampleMath.Matrix44FIdentity().getData();
-
-        if (!isRender2D)
-        {
-            Matrix.multiplyMM(poseMatrix, 0, mDevicePoseMatrix.getData(), 0, modelViewMatrix.getData(), 0);
-        }
-
-        Matrix.multiplyMM(modelViewProjectionMatrix, 0, projectionMatrix.getData(), 0, poseMatrix, 0);
-
+        // Set through SampleGLES20, which keeps the alpha right in the offscreen target.
+        // The shadow darkens what is behind it, the colors are subtracted
+        SampleGLES20 gl = SampleGLES20.getInstance();
         GLES20.glEnable(GLES20.GL_BLEND);
-        if(!isSubstractingColors)
-        {
-            GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
-            GLES20.glBlendEquation(GLES20.GL_FUNC_ADD);
-        }
-        else
-        {
-            GLES20.glBlendFuncSeparate(GLES20.GL_SRC_ALPHA, GLES20.GL_DST_ALPHA, GLES20.GL_SRC_ALPHA, GLES20.GL_DST_ALPHA);
-            GLES20.glBlendEquationSeparate(GLES20.GL_FUNC_REVERSE_SUBTRACT, GLES20.GL_FUNC_ADD);
-        }
-
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        gl.blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        gl.blendEquation(isSubstractingColors ? GLES20.GL_FUNC_REVERSE_SUBTRACT : GLES20.GL_FUNC_ADD);
 
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textureHandle);
 
-        GLES20.glEnableVertexAttribArray(planeVertexHandle);
-        GLES20.glVertexAttribPointer(planeVertexHandle, 3, GLES20.GL_FLOAT, false, 0, mPlane.getVertices());
-
-        GLES20.glEnableVertexAttribArray(planeTextureCoordHandle);
-        GLES20.glVertexAttribPointer(planeTextureCoordHandle, 2, GLES20.GL_FLOAT, false, 0, mPlane.getTexCoords());
+        MeshBufferCache.MeshBuffers planeBuffers = mMeshBufferCache.get(mPlane);
+        planeBuffers.bind(planeVertexHandle, -1, planeTextureCoordHandle);
 
         GLES20.glUseProgram(planeShaderProgramID);
         GLES20.glUniformMatrix4fv(planeMvpMatrixHandle, 1, false, modelViewProjectionMatrix, 0);
         GLES20.glUniform4f(planeColorHandle, 1, 1, 1, 1);
         GLES20.glUniform1i(planeTexSampler2DHandle, 0);
 
-        GLES20.glDrawElements(GLES20.GL_TRIANGLES, Plane.NUM_PLANE_INDEX, GLES20.GL_UNSIGNED_SHORT, mPlane.getIndices());
-
-        GLES20.glDisableVertexAttribArray(planeTextureCoordHandle);
-        GLES20.glDisableVertexAttribArray(planeVertexHandle);
+        planeBuffers.draw();
+        planeBuffers.unbind();
         GLES20.glUseProgram(0);
 
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
 
-        GLES20.glBlendFuncSeparate(GLES20.GL_SRC_ALPHA, GLES20.GL_DST_ALPHA, GLES20.GL_SRC_ALPHA, GLES20.GL_DST_ALPHA);
-        GLES20.glBlendEquationSeparate(GLES20.GL_FUNC_ADD, GLES20.GL_FUNC_ADD);
+        gl.blendEquation(GLES20.GL_FUNC_ADD);
         GLES20.glDisable(GLES20.GL_BLEND);
 
         SampleUtils.checkGLError("renderPlaneTextured");
     }
 
 
-    private void renderModelV3D(SampleApplicationV3DModel model,
-                                float[] modelPoseMatrix, float[] projectionMatrix, int mode)
+    // Renders the model with the matrices last computed by mFrameLogic
+    // Tests the model under the model-view matrix of the last computeAugmentation()
+    private boolean isAugmentationOnScreen(SampleApplicationV3DModel model)
     {
-        float[] modelViewProjection = new float[16];
-        float[] poseMatrix = new float[16];
+        return mViewFrustum.isVisible(model.getBounds(), mFrameLogic.getModelViewMatrix(), 0);
+    }
 
-        Matrix.setIdentityM(poseMatrix, 0);
 
-        Matrix.multiplyMM(poseMatrix, 0, mDevicePoseMatrix.getData(), 0, modelPoseMatrix, 0);
-        Matrix.multiplyMM(modelViewProjection, 0, projectionMatrix, 0, poseMatrix, 0);
+    // The level of the model for its size on screen, after computeAugmentation()
+    private MeshObject selectLevelOfDetail(SampleApplicationV3DModel model, LodSelector lodSelector,
+            float[] projectionMatrix)
+    {
+        float coverage = LodSelector.getScreenCoverage(model.getBounds(),
+                mFrameLogic.getModelViewMatrix(), projectionMatrix);
+        return model.getLevelOfDetail(lodSelector.select(coverage));
+    }
 
-        GLES20.glUseProgram(shaderProgramID);
 
-        GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT, false, 0, model.getVertices());
-        GLES20.glVertexAttribPointer(normalHandle, 3, GLES20.GL_FLOAT, false, 0, model.getNormals());
-        GLES20.glVertexAttribPointer(textureCoordHandle, 2, GLES20.GL_FLOAT, false, 0, model.getTexCoords());
+    private void renderModelV3D(MeshObject model, int mode)
+    {
+        GLES20.glUseProgram(shaderProgramID);
 
-        GLES20.glEnableVertexAttribArray(vertexHandle);
-        GLES20.glEnableVertexAttribArray(normalHandle);
-        GLES20.glEnableVertexAttribArray(textureCoordHandle);
+        MeshBufferCache.MeshBuffers modelBuffers = mMeshBufferCache.get(model);
+        modelBuffers.bind(vertexHandle, normalHandle, textureCoordHandle);
 
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
 
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures.elementAt(mode).mTextureID[0]);
 
-        GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false, modelViewProjection, 0);
-        GLES20.glUniformMatrix4fv(mvMatrixHandle, 1, false, poseMatrix, 0);
-
-        float[] inverseMatrix = new float[16];
-        Matrix.invertM(inverseMatrix, 0, poseMatrix, 0);
-
-        float[] normalMatrix = new float[16];
-        Matrix.transposeM(normalMatrix, 0, inverseMatrix, 0);
-
-        GLES20.glUniformMatrix4fv(normalMatrixHandle, 1, false, normalMatrix, 0);
+        GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false, mFrameLogic.getModelViewProjectionMatrix(), 0);
+        GLES20.glUniformMatrix4fv(mvMatrixHandle, 1, false, mFrameLogic.getModelViewMatrix(), 0);
+        GLES20.glUniformMatrix4fv(normalMatrixHandle, 1, false, mFrameLogic.getNormalMatrix(), 0);
 
         GLES20.glUniform4f(lightPositionHandle, 0.2f, -1.0f, 0.5f, -1.0f);
         GLES20.glUniform4f(lightColorHandle, 0.5f, 0.5f, 0.5f, 1.0f);
         GLES20.glUniform4f(colorCorrectionHandle,
-                mColorCorrection.getData()[0],
-                mColorCorrection.getData()[1],
-                mColorCorrection.getData()[2],
-                mColorCorrection.getData()[3]);
+                mColorCorrection[0],
+                mColorCorrection[1],
+                mColorCorrection[2],
+                mColorCorrection[3]);
         GLES20.glUniform1f(intensityCorrectionHandle, mIntensityCorrection);
 
         GLES20.glUniform1i(texSampler2DHandle, 0);
 
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, model.getNumObjectVertex());
-
-        GLES20.glDisableVertexAttribArray(vertexHandle);
-        GLES20.glDisableVertexAttribArray(normalHandle);
-        GLES20.glDisableVertexAttribArray(textureCoordHandle);
+        modelBuffers.draw();
+        modelBuffers.unbind();
 
         SampleUtils.checkGLError("Render Model V3D");
     }
 
+
     void handleTap()
     {
         if (!(mCurrentMode == SAMPLE_APP_FURNITURE_MODE && mIsFurniturePlaced))
@@ -912,9 +898,6 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
     private boolean performHitTest(State state, float normalTouchPointX, float normalTouchPointY,
                                    boolean createAnchor)
     {
-        Log.i(LOGTAG, "Perform hit test with normalized touch point ("
-                + normalTouchPointX + ", " + normalTouchPointY + ")");
-
         TrackerManager trackerManager = TrackerManager.getInstance();
         PositionalDeviceTracker deviceTracker = (PositionalDeviceTracker) trackerManager.getTracker(PositionalDeviceTracker.getClassType());
         SmartTerrain smartTerrain = (SmartTerrain) trackerManager.getTracker(SmartTerrain.getClassType());
@@ -925,13 +908,15 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
             return false;
         }
 
-        Vec2F hitTestPoint = new Vec2F(normalTouchPointX, normalTouchPointY);
+        mHitTestCoords[0] = normalTouchPointX;
+        mHitTestCoords[1] = normalTouchPointY;
+        mHitTestPoint.setData(mHitTestCoords);
         int hitTestHint = SmartTerrain.HITTEST_HINT.HITTEST_HINT_NONE; // hit test hint is currently unused
 
         // A hit test is performed for a given State at normalized screen coordinates.
         // The deviceHeight is a developer provided assumption as explained in the
         // definition of DEFAULT_HEIGHT_ABOVE_GROUND.
-        HitTestResultList hitTestResults = smartTerrain.hitTest(hitTestPoint, hitTestHint, state, DEFAULT_HEIGHT_ABOVE_GROUND);
+        HitTestResultList hitTestResults = smartTerrain.hitTest(mHitTestPoint, hitTestHint, state, DEFAULT_HEIGHT_ABOVE_GROUND);
 
         if (!hitTestResults.empty())
         {
@@ -940,17 +925,21 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
 
             if (createAnchor)
             {
+                // Only logged when placing content, this method also runs on every frame
+                Log.i(LOGTAG, "Perform hit test with normalized touch point ("
+                        + normalTouchPointX + ", " + normalTouchPointY + ")");
+
                 if(state.getDeviceTrackableResult().getStatus() == TrackableResult.STATUS.TRACKED)
                     createSurfaceAnchor(hitTestResult);
             }
 
-            mReticlePose = Tool.convertPose2GLMatrix(hitTestResult.getPose());
+            SampleArrayMath.Matrix44FFromPose(mPoseScratch, 0, hitTestResult.getPose().getData(), 0);
+            mFrameLogic.setPose(GroundPlaneFrameLogic.POSE_RETICLE, mPoseScratch);
             mIsAnchorResultAvailable = true;
             return true;
         }
         else
         {
-            Log.i(LOGTAG, "Hit test returned no results");
             return false;
         }
     }
@@ -1043,7 +1032,7 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
     }
 
 
-    private void updateFurnitureMatrix(State state, Vec2F screenCoords)
+    private void updateFurnitureMatrix(State state, float[] screenCoords)
     {
         TrackerManager trackerManager = TrackerManager.getInstance();
         PositionalDeviceTracker deviceTracker = (PositionalDeviceTracker) trackerManager.getTracker(PositionalDeviceTracker.getClassType());
@@ -1055,24 +1044,27 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
             return;
         }
 
-        Vec2F hitTestPoint = new Vec2F(screenCoords.getData()[0], screenCoords.getData()[1]);
+        mHitTestCoords[0] = screenCoords[0];
+        mHitTestCoords[1] = screenCoords[1];
+        mHitTestPoint.setData(mHitTestCoords);
         int hitTestHint = SmartTerrain.HITTEST_HINT.HITTEST_HINT_NONE; // hit test hint is currently unused
-        mLastTranslationCoords.setData(screenCoords.getData());
+        mLastTranslationCoords[0] = mHitTestCoords[0];
+        mLastTranslationCoords[1] = mHitTestCoords[1];
 
         // A hit test is performed for a given State at normalized screen coordinates.
         // The deviceHeight is an developer provided assumption as explained on
         // definition of DEFAULT_HEIGHT_ABOVE_GROUND.
-        HitTestResultList hitTestResults = smartTerrain.hitTest(hitTestPoint, hitTestHint, state, DEFAULT_HEIGHT_ABOVE_GROUND);
+        HitTestResultList hitTestResults = smartTerrain.hitTest(mHitTestPoint, hitTestHint, state, DEFAULT_HEIGHT_ABOVE_GROUND);
 
         if (hitTestResults.empty())
         {
-            Log.i(LOGTAG, "Hit test returned no results");
             return;
         }
 
         // Use first HitTestResult
         final HitTestResult hitTestResult = hitTestResults.at(0);
-        mFurniturePoseMatrix = Tool.convertPose2GLMatrix(hitTestResult.getPose());
+        SampleArrayMath.Matrix44FFromPose(mPoseScratch, 0, hitTestResult.getPose().getData(), 0);
+        mFrameLogic.setPose(GroundPlaneFrameLogic.POSE_FURNITURE, mPoseScratch);
     }
 
 
@@ -1088,11 +1080,7 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
 
     void resetGroundPlane(boolean resetTrackers)
     {
-        mDevicePoseMatrix = SampleMath.Matrix44FIdentity();
-        mMidAirPoseMatrix = SampleMath.Matrix44FIdentity();
-        mHitTestPoseMatrix = SampleMath.Matrix44FIdentity();
-        mFurniturePoseMatrix = SampleMath.Matrix44FIdentity();
-        mReticlePose = SampleMath.Matrix44FIdentity();
+        mFrameLogic.resetPoses();
 
         mIsAnchorResultAvailable = false;
         mIsDeviceResultAvailable = false;
@@ -1155,9 +1143,9 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
     }
 
 
-    public void setTextures(Vector<Texture> textures)
+    void setAssets(GroundPlaneAssets assets)
     {
-        mTextures = textures;
+        mAssets = assets;
     }
 
 
@@ -1276,9 +1264,8 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
                 break;
         }
 
-        float[] normalizedCoords = {normalizedX, normalizedY};
-
-        translateCoords.setData(normalizedCoords);
+        mTranslateCoords[0] = normalizedX;
+        mTranslateCoords[1] = normalizedY;
     }
 
 
@@ -1290,8 +1277,11 @@ public class GroundPlaneRenderer extends SampleRendererBase implements SampleApp
 
     private void setIsTargetCurrentlyTracked(TrackableResultList trackableResultList)
     {
-        for(TrackableResult result : trackableResultList)
+        int numResults = trackableResultList.size();
+        for (int i = 0; i < numResults; i++)
         {
+            TrackableResult result = trackableResultList.at(i);
+
             // Check the tracking status for result types
             // other than DeviceTrackableResult. ie: AnchorResult
             if (!result.isOfType(DeviceTrackableResult.getClassType()))
@@ -11,31 +11,32 @@ package com.vuforia.engine.CoreSamples.app.ImageTargets;
 
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.Vector;
 
 import android.opengl.GLES20;
-import android.opengl.Matrix;
 import android.util.Log;
 
-import com.vuforia.Device;
 import com.vuforia.DeviceTrackableResult;
 import com.vuforia.ImageTargetResult;
-import com.vuforia.Matrix44F;
 import com.vuforia.State;
-import com.vuforia.Tool;
 import com.vuforia.Trackable;
 import com.vuforia.TrackableResult;
-import com.vuforia.TrackableResultList;
 import com.vuforia.Vuforia;
 import com.vuforia.engine.SampleApplication.SampleAppRenderer;
 import com.vuforia.engine.SampleApplication.SampleAppRendererControl;
 import com.vuforia.engine.SampleApplication.SampleRendererBase;
 import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.utils.CubeShaders;
+import com.vuforia.engine.SampleApplication.utils.DrawCommandBuffer;
+import com.vuforia.engine.SampleApplication.utils.FramePreparer;
+import com.vuforia.engine.SampleApplication.utils.FrameSnapshot;
+import com.vuforia.engine.SampleApplication.utils.InstanceTransformBatch;
+import com.vuforia.engine.SampleApplication.utils.JobSystem;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
 import com.vuforia.engine.SampleApplication.utils.MeshObject;
 import com.vuforia.engine.SampleApplication.utils.SampleApplication3DModel;
-import com.vuforia.engine.SampleApplication.utils.SampleMath;
+import com.vuforia.engine.SampleApplication.utils.SampleArrayMath;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
 import com.vuforia.engine.SampleApplication.utils.Teapot;
 import com.vuforia.engine.SampleApplication.utils.Texture;
@@ -44,7 +45,9 @@ import com.vuforia.engine.SampleApplication.utils.Texture;
 /**
  * The renderer class for the Image Targets sample.
  *
- * In the renderFrame() function you can render augmentations to display over the Target
+ * The poses and matrices of the augmentations are computed by prepareFrame() on
+ * the frame preparation thread. In the renderFrame() function the latest of
+ * these snapshots is drawn over the Target
  */
 public class ImageTargetRenderer extends SampleRendererBase implements SampleAppRendererControl
 {
@@ -57,17 +60,50 @@ public class ImageTargetRenderer extends SampleRendererBase implements SampleApp
     private int textureCoordHandle;
     private int mvpMatrixHandle;
     private int texSampler2DHandle;
+    private DrawCommandBuffer.Material mModelMaterial;
 
-    // Object to be rendered
-    private Teapot mTeapot;
+    // Object to be rendered, read by the preparation thread once set
+    private volatile Teapot mTeapot;
     
     private static final float BUILDING_SCALE = 0.012f;
-    private SampleApplication3DModel mBuildingsModel;
+    private volatile SampleApplication3DModel mBuildingsModel;
 
     private boolean mModelIsLoaded = false;
-    private boolean mIsTargetCurrentlyTracked = false;
+    private volatile boolean mIsTargetCurrentlyTracked = false;
     
     private static final float OBJECT_SCALE_FLOAT = 0.003f;
+
+    // Values of the snapshot results and instances
+    private static final int RESULT_OTHER = 0;
+    private static final int RESULT_IMAGE_TARGET = 1;
+    private static final int RESULT_DEVICE = 2;
+    private static final int MESH_TEAPOT = 0;
+    private static final int MESH_BUILDINGS = 1;
+
+    // Local transformations of the models
+    private static final float[] TEAPOT_TRANSFORM = new float[16];
+    private static final float[] BUILDINGS_TRANSFORM = new float[16];
+    static
+    {
+        SampleArrayMath.Matrix44FIdentity(TEAPOT_TRANSFORM, 0);
+        SampleArrayMath.Matrix44FTranslate(TEAPOT_TRANSFORM, 0, 0, 0, OBJECT_SCALE_FLOAT);
+        SampleArrayMath.Matrix44FScale(TEAPOT_TRANSFORM, 0, OBJECT_SCALE_FLOAT, OBJECT_SCALE_FLOAT, OBJECT_SCALE_FLOAT);
+
+        SampleArrayMath.Matrix44FIdentity(BUILDINGS_TRANSFORM, 0);
+        SampleArrayMath.Matrix44FTranslate(BUILDINGS_TRANSFORM, 0, 0, -0.06f, 0);
+        SampleArrayMath.Matrix44FRotate(BUILDINGS_TRANSFORM, 0, 90.0f, 1.0f, 0, 0);
+        SampleArrayMath.Matrix44FScale(BUILDINGS_TRANSFORM, 0, BUILDING_SCALE, BUILDING_SCALE, BUILDING_SCALE);
+    }
+
+    // Used on the preparation thread only
+    private final InstanceTransformBatch mPrepareBatch = new InstanceTransformBatch(JobSystem.getShared());
+    private final float[] mPrepareProjection = new float[16];
+    private final float[] mPreparePose = new float[16];
+    private final float[] mPrepareView = new float[16];
+
+    // Result and texture of each instance of the batch
+    private int[] mPrepareResults = new int[8];
+    private int[] mPrepareTextures = new int[8];
     
     ImageTargetRenderer(ImageTargets activity, SampleApplicationSession session)
     {
@@ -78,6 +114,16 @@ public class ImageTargetRenderer extends SampleRendererBase implements SampleApp
         // the device mode AR/VR and stereo mode
         mSampleAppRenderer = new SampleAppRenderer(this, mActivityRef.get(), vuforiaAppSession.getVideoMode(),
                 0.01f , 5f);
+
+        mFramePreparer = new FramePreparer<>("ImageTargetPreparer", new FramePreparer.Callback<State>()
+        {
+            @Override
+            public void prepareFrame(State state, FrameSnapshot snapshot)
+            {
+                ImageTargetRenderer.this.prepareFrame(state, snapshot);
+            }
+        });
+        mSampleAppRenderer.setFramePreparer(mFramePreparer);
     }
 
 
@@ -93,18 +139,111 @@ public class ImageTargetRenderer extends SampleRendererBase implements SampleApp
     }
 
 
+    // Called on the preparation thread with a copy of each new state. Computes everything
+    // renderFrame() needs, so that it only has to submit the draws
+    private void prepareFrame(State state, FrameSnapshot snapshot)
+    {
+        snapshot.setTimestamp(state.getFrame().getTimeStamp());
+        if (!mSampleAppRenderer.getProjectionMatrix(state, mPrepareProjection))
+        {
+            return;
+        }
+
+        snapshot.setProjection(mPrepareProjection, 0);
+
+        // Read device pose from the state and create a corresponding view matrix (inverse of the device pose)
+        DeviceTrackableResult deviceResult = state.getDeviceTrackableResult();
+        if (deviceResult != null)
+        {
+            int trackerStatus = deviceResult.getStatus();
+            boolean hasPose = trackerStatus != TrackableResult.STATUS.NO_POSE;
+            if (hasPose)
+            {
+                SampleArrayMath.Matrix44FFromPose(mPreparePose, 0, deviceResult.getPose().getData(), 0);
+                hasPose = SampleArrayMath.Matrix44FInverseAffine(mPrepareView, 0, mPreparePose, 0);
+            }
+
+            snapshot.setDevice(trackerStatus, deviceResult.getStatusInfo(), hasPose ? mPrepareView : null, 0);
+        }
+
+        // Gone while the activity is torn down, the frame is then left without augmentations
+        ImageTargets activity = mActivityRef.get();
+        if (activity == null)
+        {
+            return;
+        }
+
+        boolean isDeviceTrackingActive = activity.isDeviceTrackingActive();
+        MeshObject model = isDeviceTrackingActive ? mBuildingsModel : mTeapot;
+        float[] modelTransform = isDeviceTrackingActive ? BUILDINGS_TRANSFORM : TEAPOT_TRANSFORM;
+
+        mPrepareBatch.begin(mPrepareProjection, 0, snapshot.getView(), 0);
+
+        for (TrackableResult result : state.getTrackableResults())
+        {
+            Trackable trackable = result.getTrackable();
+            int status = result.getStatus();
+            int type = result.isOfType(ImageTargetResult.getClassType()) ? RESULT_IMAGE_TARGET
+                    : result.isOfType(DeviceTrackableResult.getClassType()) ? RESULT_DEVICE : RESULT_OTHER;
+
+            SampleArrayMath.Matrix44FFromPose(mPreparePose, 0, result.getPose().getData(), 0);
+            int resultIndex = snapshot.addResult(trackable.getId(), type, status, result.getStatusInfo(),
+                    mPreparePose, 0);
+
+            // Only image targets with a full pose are augmented, once the model is loaded
+            if (type != RESULT_IMAGE_TARGET || status == TrackableResult.STATUS.LIMITED || model == null)
+            {
+                continue;
+            }
+
+            int textureIndex;
+            textureIndex = trackable.getName().equalsIgnoreCase("stones") ? 0
+                : 1;
+            textureIndex = trackable.getName().equalsIgnoreCase("tarmac") ? 2
+                : textureIndex;
+
+            textureIndex = isDeviceTrackingActive ? 3 : textureIndex;
+
+            int instance = mPrepareBatch.add(mPreparePose, 0, modelTransform, 0, model.getBounds());
+            if (instance == mPrepareResults.length)
+            {
+                mPrepareResults = Arrays.copyOf(mPrepareResults, instance * 2);
+                mPrepareTextures = Arrays.copyOf(mPrepareTextures, instance * 2);
+            }
+            mPrepareResults[instance] = resultIndex;
+            mPrepareTextures[instance] = textureIndex;
+        }
+
+        // Transforms and culls the instances in parallel when there are many
+        mPrepareBatch.run();
+
+        int mesh = isDeviceTrackingActive ? MESH_BUILDINGS : MESH_TEAPOT;
+        for (int instance = 0; instance < mPrepareBatch.getCount(); instance++)
+        {
+            // Nothing to draw when the model is entirely off-screen
+            if (mPrepareBatch.isVisible(instance))
+            {
+                snapshot.addInstance(mPrepareResults[instance], mesh, mPrepareTextures[instance],
+                        mPrepareBatch.getModelViewProjections(), instance * FrameSnapshot.MATRIX_SIZE);
+            }
+        }
+    }
+
+
     // The render function.
     // This function is called from the SampleAppRenderer by using the RenderingPrimitives views.
     // The state is owned by SampleAppRenderer which is controlling its lifecycle.
     // NOTE: State should not be cached outside this method.
+    // The augmentations are those of the snapshot SampleAppRenderer acquired, the state is
+    // the one it was prepared from. The projection matrix it was prepared with is the
+    // same as projectionMatrix unless the view just changed
     public void renderFrame(State state, float[] projectionMatrix)
     {
         // Renders video background replacing Renderer.DrawVideoBackground()
         mSampleAppRenderer.renderVideoBackground();
 
-        // Set the device pose matrix as identity
-        Matrix44F devicePoseMatrix = SampleMath.Matrix44FIdentity();
-        Matrix44F modelMatrix;
+        // The video background changed the state behind the cache's back
+        mGLState.invalidate();
 
         GLES20.glEnable(GLES20.GL_DEPTH_TEST);
 
@@ -112,51 +251,32 @@ public class ImageTargetRenderer extends SampleRendererBase implements SampleApp
         GLES20.glCullFace(GLES20.GL_BACK);
         GLES20.glFrontFace(GLES20.GL_CCW);   // Back camera
 
-        // Read device pose from the state and create a corresponding view matrix (inverse of the device pose)
-        if (state.getDeviceTrackableResult() != null)
+        FrameSnapshot snapshot = mFramePreparer.getAcquiredSnapshot();
+        if (snapshot != null)
         {
-            int statusInfo = state.getDeviceTrackableResult().getStatusInfo();
-            int trackerStatus = state.getDeviceTrackableResult().getStatus();
-
-            mActivityRef.get().checkForRelocalization(statusInfo);
-
-            if (trackerStatus != TrackableResult.STATUS.NO_POSE)
+            ImageTargets activity = mActivityRef.get();
+            if (snapshot.hasDevice() && activity != null)
             {
-                modelMatrix = Tool.convertPose2GLMatrix(state.getDeviceTrackableResult().getPose());
-
-                // We transpose here because Matrix44FInverse returns a transposed matrix
-                devicePoseMatrix = SampleMath.Matrix44FTranspose(SampleMath.Matrix44FInverse(modelMatrix));
+                activity.checkForRelocalization(snapshot.getDeviceStatusInfo());
             }
-        }
-
-        TrackableResultList trackableResultList = state.getTrackableResults();
 
-        // Determine if target is currently being tracked
-        setIsTargetCurrentlyTracked(trackableResultList);
+            // Determine if target is currently being tracked
+            setIsTargetCurrentlyTracked(snapshot);
 
-        // Iterate through trackable results and render any augmentations
-        for (TrackableResult result : trackableResultList)
-        {
-            Trackable trackable = result.getTrackable();
-
-            if (result.isOfType(ImageTargetResult.getClassType()) && result.getStatus() != TrackableResult.STATUS.LIMITED)
+            // Recorded, drawn once all the instances were visited
+            float[] modelViewProjections = snapshot.getModelViewProjections();
+            for (int instance = 0; instance < snapshot.getNumInstances(); instance++)
             {
-                int textureIndex;
-                modelMatrix = Tool.convertPose2GLMatrix(result.getPose());
-
-                textureIndex = trackable.getName().equalsIgnoreCase("stones") ? 0
-                    : 1;
-                textureIndex = trackable.getName().equalsIgnoreCase("tarmac") ? 2
-                    : textureIndex;
-
-                textureIndex = mActivityRef.get().isDeviceTrackingActive() ? 3 : textureIndex;
-
-                renderModel(projectionMatrix, devicePoseMatrix.getData(), modelMatrix.getData(), textureIndex);
-
-                SampleUtils.checkGLError("Image Targets renderFrame");
+                MeshObject model = snapshot.getInstanceMesh(instance) == MESH_BUILDINGS ? mBuildingsModel : mTeapot;
+                mDrawCommands.add(mModelMaterial, mMeshBufferCache.get(model),
+                        mTextures.get(snapshot.getInstanceTexture(instance)).mTextureID[0],
+                        modelViewProjections, instance * FrameSnapshot.MATRIX_SIZE);
             }
         }
 
+        mDrawCommands.submit(mGLState);
+        SampleUtils.checkGLError("Image Targets renderFrame");
+
         GLES20.glDisable(GLES20.GL_DEPTH_TEST);
     }
 
@@ -188,23 +308,28 @@ public class ImageTargetRenderer extends SampleRendererBase implements SampleApp
                 CubeShaders.CUBE_MESH_VERTEX_SHADER,
                 CubeShaders.CUBE_MESH_FRAGMENT_SHADER);
 
-        vertexHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        vertexHandle = SampleUtils.getAttribLocation(shaderProgramID,
                 "vertexPosition");
-        textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID,
                 "vertexTexCoord");
-        mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID,
                 "modelViewProjectionMatrix");
-        texSampler2DHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        texSampler2DHandle = SampleUtils.getUniformLocation(shaderProgramID,
                 "texSampler2D");
+        mModelMaterial = new DrawCommandBuffer.Material(shaderProgramID, vertexHandle, -1,
+                textureCoordHandle, mvpMatrixHandle, texSampler2DHandle,
+                DrawCommandBuffer.Material.FLAG_CULL_BACK_FACES);
 
         if(!mModelIsLoaded)
         {
-            mTeapot = new Teapot();
+            mTeapot = Teapot.getShared();
 
             try {
-                mBuildingsModel = new SampleApplication3DModel();
-                mBuildingsModel.loadModel(mActivityRef.get().getResources().getAssets(),
+                // Only published once loaded
+                SampleApplication3DModel buildingsModel = new SampleApplication3DModel();
+                buildingsModel.loadModel(mActivityRef.get().getResources().getAssets(),
                         "ImageTargets/Buildings.txt");
+                mBuildingsModel = buildingsModel;
                 mModelIsLoaded = true;
             } catch (IOException e)
             {
@@ -218,83 +343,22 @@ public class ImageTargetRenderer extends SampleRendererBase implements SampleApp
     }
 
 
-    private void renderModel(float[] projectionMatrix, float[] viewMatrix, float[] modelMatrix, int textureIndex)
-    {
-        MeshObject model;
-        float[] modelViewProjection = new float[16];
-
-        // Apply local transformation to our model
-        if (mActivityRef.get().isDeviceTrackingActive())
-        {
-            Matrix.translateM(modelMatrix, 0, 0, -0.06f, 0);
-            Matrix.rotateM(modelMatrix, 0, 90.0f, 1.0f, 0, 0);
-            Matrix.scaleM(modelMatrix, 0, BUILDING_SCALE, BUILDING_SCALE, BUILDING_SCALE);
-
-            model = mBuildingsModel;
-        }
-        else
-        {
-            Matrix.translateM(modelMatrix, 0, 0, 0, OBJECT_SCALE_FLOAT);
-            Matrix.scaleM(modelMatrix, 0, OBJECT_SCALE_FLOAT, OBJECT_SCALE_FLOAT, OBJECT_SCALE_FLOAT);
-
-            model = mTeapot;
-        }
-
-        // Combine device pose (view matrix) with model matrix
-        Matrix.multiplyMM(modelMatrix, 0, viewMatrix, 0, modelMatrix, 0);
-
-        // Do the final combination with the projection matrix
-        Matrix.multiplyMM(modelViewProjection, 0, projectionMatrix, 0, modelMatrix, 0);
-
-        // Activate the shader program and bind the vertex and tex coords
-        GLES20.glUseProgram(shaderProgramID);
-
-        GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT, false, 0, model.getVertices());
-        GLES20.glVertexAttribPointer(textureCoordHandle, 2, GLES20.GL_FLOAT, false, 0, model.getTexCoords());
-
-        GLES20.glEnableVertexAttribArray(vertexHandle);
-        GLES20.glEnableVertexAttribArray(textureCoordHandle);
-
-        // Activate texture 0, bind it, pass to shader
-        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
-        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures.get(textureIndex).mTextureID[0]);
-        GLES20.glUniform1i(texSampler2DHandle, 0);
-
-        // Pass the model view matrix to the shader
-        GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false, modelViewProjection, 0);
-
-        // Finally draw the model
-        if (mActivityRef.get().isDeviceTrackingActive())
-        {
-            GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, model.getNumObjectVertex());
-        }
-        else
-        {
-            GLES20.glDrawElements(GLES20.GL_TRIANGLES, model.getNumObjectIndex(), GLES20.GL_UNSIGNED_SHORT, model.getIndices());
-        }
-
-        // Disable the enabled arrays
-        GLES20.glDisableVertexAttribArray(vertexHandle);
-        GLES20.glDisableVertexAttribArray(textureCoordHandle);
-    }
-
-
     public void setTextures(Vector<Texture> textures)
     {
         mTextures = textures;
     }
 
 
-    private void setIsTargetCurrentlyTracked(TrackableResultList trackableResultList)
+    private void setIsTargetCurrentlyTracked(FrameSnapshot snapshot)
     {
-        for(TrackableResult result : trackableResultList)
+        for (int result = 0; result < snapshot.getNumResults(); result++)
         {
             // Check the tracking status for result types
             // other than DeviceTrackableResult. ie: ImageTargetResult
-            if (!result.isOfType(DeviceTrackableResult.getClassType()))
+            if (snapshot.getType(result) != RESULT_DEVICE)
             {
-                int currentStatus = result.getStatus();
-                int currentStatusInfo = result.getStatusInfo();
+                int currentStatus = snapshot.getStatus(result);
+                int currentStatusInfo = snapshot.getStatusInfo(result);
 
                 // The target is currently being tracked if the status is TRACKED|NORMAL
                 if (currentStatus == TrackableResult.STATUS.TRACKED
@@ -56,6 +56,7 @@ import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationGLView;
 import com.vuforia.engine.SampleApplication.utils.Texture;
+import com.vuforia.engine.SampleApplication.utils.TexturePreloader;
 import com.vuforia.engine.CoreSamples.R;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenu;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenuGroup;
@@ -98,6 +99,7 @@ public class ImageTargets extends SampleActivityBase implements SampleApplicatio
     
     // The textures we will use for rendering:
     private Vector<Texture> mTextures;
+    private TexturePreloader mTexturePreloader;
 
     // Menu option flags
     private boolean mSwitchDatasetAsap = false;
@@ -252,17 +254,16 @@ public class ImageTargets extends SampleActivityBase implements SampleApplicatio
     }
 
 
-    // Load specific textures from the APK, which we will later use for rendering.
+    // Start decoding the textures from the APK in the background, they are
+    // handed to the renderer once Vuforia is initialized.
     private void loadTextures()
     {
-        mTextures.add(Texture.loadTextureFromApk("TextureTeapotBrass.png",
-            getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("TextureTeapotBlue.png",
-            getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("TextureTeapotRed.png",
-            getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("ImageTargets/Buildings.png",
-            getAssets()));
+        mTexturePreloader = new TexturePreloader(getAssets());
+        mTexturePreloader.add("TextureTeapotBrass.png");
+        mTexturePreloader.add("TextureTeapotBlue.png");
+        mTexturePreloader.add("TextureTeapotRed.png");
+        mTexturePreloader.add("ImageTargets/Buildings.png");
+        mTexturePreloader.start();
     }
     
 
@@ -334,6 +335,7 @@ public class ImageTargets extends SampleActivityBase implements SampleApplicatio
         }
         
         // Unload texture:
+        mTexturePreloader.cancel();
         mTextures.clear();
         mTextures = null;
         
@@ -352,8 +354,12 @@ public class ImageTargets extends SampleActivityBase implements SampleApplicatio
         mGlView.init(translucent, depthSize, stencilSize);
 
         mRenderer = new ImageTargetRenderer(this, vuforiaAppSession);
+        mTextures.addAll(mTexturePreloader.getTextures());
         mRenderer.setTextures(mTextures);
         mGlView.setRenderer(mRenderer);
+        mGlView.setRenderOnDemand(true);
+        vuforiaAppSession.setGLView(mGlView);
+        vuforiaAppSession.setFramePreparer(mRenderer.getFramePreparer());
         mGlView.setPreserveEGLContextOnPause(true);
 
         setRendererReference(mRenderer);
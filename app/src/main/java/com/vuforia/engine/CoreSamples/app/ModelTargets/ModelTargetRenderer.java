@@ -36,9 +36,14 @@ import com.vuforia.engine.SampleApplication.SampleAppRenderer;
 import com.vuforia.engine.SampleApplication.SampleAppRendererControl;
 import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.SampleRendererBase;
+import com.vuforia.engine.SampleApplication.utils.MeshBufferCache;
 import com.vuforia.engine.SampleApplication.utils.LightingShaders;
-import com.vuforia.engine.SampleApplication.utils.Plane;
+import com.vuforia.engine.SampleApplication.utils.LodSelector;
+import com.vuforia.engine.SampleApplication.utils.MeshObject;
+import com.vuforia.engine.SampleApplication.utils.PrimitiveMesh;
+import com.vuforia.engine.SampleApplication.utils.PrimitiveMeshGenerator;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationV3DModel;
+import com.vuforia.engine.SampleApplication.utils.SampleGLES20;
 import com.vuforia.engine.SampleApplication.utils.SampleMath;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
 import com.vuforia.engine.SampleApplication.utils.Texture;
@@ -89,8 +94,9 @@ public class ModelTargetRenderer extends SampleRendererBase implements SampleApp
     private Vec4F mColorCorrection = new Vec4F(1.0f, 1.0f, 1.0f, 1.0f);
     private float mIntensityCorrection = 1.0f;
 
-    private Plane mPlane;
+    private PrimitiveMesh mPlane;
     private SampleApplicationV3DModel mLanderModel;
+    private final LodSelector mLanderLod = new LodSelector();
 
     private boolean mAreModelsLoaded = false;
 
@@ -155,19 +161,19 @@ public class ModelTargetRenderer extends SampleRendererBase implements SampleApp
             TextureColorShaders.TEXTURE_COLOR_VERTEX_SHADER,
             TextureColorShaders.TEXTURE_COLOR_FRAGMENT_SHADER);
 
-        mPlane = new Plane();
+        mPlane = PrimitiveMeshGenerator.getPlane(1);
 
         if (planeShaderProgramID > 0)
         {
-            planeVertexHandle = GLES20.glGetAttribLocation(planeShaderProgramID,
+            planeVertexHandle = SampleUtils.getAttribLocation(planeShaderProgramID,
                     "vertexPosition");
-            planeTextureCoordHandle = GLES20.glGetAttribLocation(planeShaderProgramID,
+            planeTextureCoordHandle = SampleUtils.getAttribLocation(planeShaderProgramID,
                     "vertexTexCoord");
-            planeMvpMatrixHandle = GLES20.glGetUniformLocation(planeShaderProgramID,
+            planeMvpMatrixHandle = SampleUtils.getUniformLocation(planeShaderProgramID,
                     "modelViewProjectionMatrix");
-            planeTexSampler2DHandle = GLES20.glGetUniformLocation(planeShaderProgramID,
+            planeTexSampler2DHandle = SampleUtils.getUniformLocation(planeShaderProgramID,
                     "texSampler2D");
-            planeColorHandle = GLES20.glGetUniformLocation(planeShaderProgramID,
+            planeColorHandle = SampleUtils.getUniformLocation(planeShaderProgramID,
                     "uniformColor");
 
         }
@@ -182,17 +188,17 @@ public class ModelTargetRenderer extends SampleRendererBase implements SampleApp
 
         if (shaderProgramID > 0)
         {
-            vertexHandle = GLES20.glGetAttribLocation(shaderProgramID, "vertexPosition");
-            normalHandle = GLES20.glGetAttribLocation(shaderProgramID, "vertexNormal");
-            textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID, "vertexTexCoord");
-            mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_mvpMatrix");
-            mvMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_mvMatrix");
-            normalMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_normalMatrix");
-            lightPositionHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_lightPos");
-            lightColorHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_lightColor");
-            colorCorrectionHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_colorCorrection");
-            intensityCorrectionHandle = GLES20.glGetUniformLocation(shaderProgramID, "u_intensityCorrection");
-            texSampler2DHandle = GLES20.glGetUniformLocation(shaderProgramID, "texSampler2D");
+            vertexHandle = SampleUtils.getAttribLocation(shaderProgramID, "vertexPosition");
+            normalHandle = SampleUtils.getAttribLocation(shaderProgramID, "vertexNormal");
+            textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID, "vertexTexCoord");
+            mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_mvpMatrix");
+            mvMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_mvMatrix");
+            normalMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_normalMatrix");
+            lightPositionHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_lightPos");
+            lightColorHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_lightColor");
+            colorCorrectionHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_colorCorrection");
+            intensityCorrectionHandle = SampleUtils.getUniformLocation(shaderProgramID, "u_intensityCorrection");
+            texSampler2DHandle = SampleUtils.getUniformLocation(shaderProgramID, "texSampler2D");
 
         }
         else
@@ -232,6 +238,10 @@ public class ModelTargetRenderer extends SampleRendererBase implements SampleApp
 
             renderer.mLanderModel = new SampleApplicationV3DModel(false);
             boolean landerLoaded = renderer.mLanderModel.loadModel(activity.getResources().getAssets(), "Lander.v3d");
+            if (landerLoaded)
+            {
+                renderer.mLanderModel.generateLevelsOfDetail();
+            }
 
             renderer.mAreModelsLoaded = landerLoaded;
 
@@ -257,11 +267,14 @@ public class ModelTargetRenderer extends SampleRendererBase implements SampleApp
         // Renders video background replacing Renderer.DrawVideoBackground()
         mSampleAppRenderer.renderVideoBackground();
 
+        // The video background changed the state behind the cache's back
+        mGLState.invalidate();
+
         GLES20.glEnable(GLES20.GL_DEPTH_TEST);
 
         GLES20.glEnable(GLES20.GL_CULL_FACE);
         GLES20.glEnable(GLES20.GL_BLEND);
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        SampleGLES20.getInstance().blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
         GLES20.glCullFace(GLES20.GL_BACK);
 
         if (state.getDeviceTrackableResult() != null)
@@ -416,6 +429,9 @@ public class ModelTargetRenderer extends SampleRendererBase implements SampleApp
                     int textureHandle = mTextures.get(symbolicGuideViewIndex).mTextureID[0];
 
                     renderPlaneTextured(orthoScale, textureHandle, alphaValue);
+
+                    // The guide view keeps fading in and out without new camera frames
+                    invalidateFrame();
                 }
             }
         }
@@ -448,15 +464,13 @@ public class ModelTargetRenderer extends SampleRendererBase implements SampleApp
 
         GLES20.glDisable(GLES20.GL_CULL_FACE);
 
-        GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT,
-                false, 0, currentModel.getVertices());
-        GLES20.glVertexAttribPointer(normalHandle, 3, GLES20.GL_FLOAT, false, 0, currentModel.getNormals());
-        GLES20.glVertexAttribPointer(textureCoordHandle, 2,
-                GLES20.GL_FLOAT, false, 0, currentModel.getTexCoords());
+        // A simplified lander when it is small on screen
+        float coverage = LodSelector.getScreenCoverage(currentModel.getBounds(), modelMatrix,
+                projectionMatrix);
+        MeshObject currentMesh = currentModel.getLevelOfDetail(mLanderLod.select(coverage));
 
-        GLES20.glEnableVertexAttribArray(vertexHandle);
-        GLES20.glEnableVertexAttribArray(normalHandle);
-        GLES20.glEnableVertexAttribArray(textureCoordHandle);
+        MeshBufferCache.MeshBuffers modelBuffers = mMeshBufferCache.get(currentMesh);
+        modelBuffers.bind(vertexHandle, normalHandle, textureCoordHandle);
 
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D,
@@ -485,12 +499,8 @@ public class ModelTargetRenderer extends SampleRendererBase implements SampleApp
 
         GLES20.glUniform1i(texSampler2DHandle, 0);
 
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0,
-                currentModel.getNumObjectVertex());
-
-        GLES20.glDisableVertexAttribArray(vertexHandle);
-        GLES20.glDisableVertexAttribArray(normalHandle);
-        GLES20.glDisableVertexAttribArray(textureCoordHandle);
+        modelBuffers.draw();
+        modelBuffers.unbind();
     }
 
     private void renderGuideView(ModelTarget modelTarget)
@@ -526,16 +536,13 @@ public class ModelTargetRenderer extends SampleRendererBase implements SampleApp
         Matrix.multiplyMM(modelViewProjectionMatrix, 0, modelViewProjectionMatrix, 0, scaledModelMatrixArray, 0);
 
         GLES20.glEnable(GLES20.GL_BLEND);
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        SampleGLES20.getInstance().blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
 
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textureHandle);
 
-        GLES20.glEnableVertexAttribArray(planeVertexHandle);
-        GLES20.glVertexAttribPointer(planeVertexHandle, 3, GLES20.GL_FLOAT, false, 0, mPlane.getVertices());
-
-        GLES20.glEnableVertexAttribArray(planeTextureCoordHandle);
-        GLES20.glVertexAttribPointer(planeTextureCoordHandle, 2, GLES20.GL_FLOAT, false, 0, mPlane.getTexCoords());
+        MeshBufferCache.MeshBuffers planeBuffers = mMeshBufferCache.get(mPlane);
+        planeBuffers.bind(planeVertexHandle, -1, planeTextureCoordHandle);
 
         GLES20.glUseProgram(planeShaderProgramID);
         GLES20.glUniformMatrix4fv(planeMvpMatrixHandle, 1, false, modelViewProjectionMatrix, 0);
@@ -543,12 +550,10 @@ public class ModelTargetRenderer extends SampleRendererBase implements SampleApp
         GLES20.glUniform1i(planeTexSampler2DHandle, 0);
 
         // Draw
-        GLES20.glDrawElements(GLES20.GL_TRIANGLES, Plane.NUM_PLANE_INDEX, GLES20.GL_UNSIGNED_SHORT, mPlane.getIndices());
+        planeBuffers.draw();
 
         // disable input data structures
-
-        GLES20.glDisableVertexAttribArray(planeTextureCoordHandle);
-        GLES20.glDisableVertexAttribArray(planeVertexHandle);
+        planeBuffers.unbind();
         GLES20.glUseProgram(0);
 
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
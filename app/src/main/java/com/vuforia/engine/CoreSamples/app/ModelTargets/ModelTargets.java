@@ -52,6 +52,7 @@ import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationGLView;
 import com.vuforia.engine.SampleApplication.utils.Texture;
+import com.vuforia.engine.SampleApplication.utils.TexturePreloader;
 import com.vuforia.engine.CoreSamples.R;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenu;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenuGroup;
@@ -87,6 +88,7 @@ public class ModelTargets extends SampleActivityBase implements SampleApplicatio
     
     // The textures we will use for rendering:
     private Vector<Texture> mTextures;
+    private TexturePreloader mTexturePreloader;
     private HashMap<String, Integer> mSymbolicGuideViewIndices;
     
     private RelativeLayout mUILayout;
@@ -223,13 +225,15 @@ public class ModelTargets extends SampleActivityBase implements SampleApplicatio
     }
     
     
-    // We want to load specific textures from the APK, which we will later use
-    // for rendering.
+    // We want to decode specific textures from the APK in the background, they
+    // are handed to the renderer once Vuforia is initialized.
     
     private void loadTextures()
     {
-        mTextures.add(Texture.loadTextureFromApk("Lander.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("ModelTargets/Lander360.png", getAssets()));
+        mTexturePreloader = new TexturePreloader(getAssets());
+        mTexturePreloader.add("Lander.png");
+        mTexturePreloader.add("ModelTargets/Lander360.png");
+        mTexturePreloader.start();
 
         mSymbolicGuideViewIndices.put("Vuforia_MarsLander", 1);
     }
@@ -266,6 +270,7 @@ public class ModelTargets extends SampleActivityBase implements SampleApplicatio
                 if (mRenderer != null)
                 {
                     mRenderer.updateRenderingPrimitives();
+                    mRenderer.invalidateFrame();
                 }
 
                 showProgressIndicator(false);
@@ -307,6 +312,7 @@ public class ModelTargets extends SampleActivityBase implements SampleApplicatio
         }
         
         // Unload texture:
+        mTexturePreloader.cancel();
         mTextures.clear();
         mTextures = null;
 
@@ -329,9 +335,12 @@ public class ModelTargets extends SampleActivityBase implements SampleApplicatio
         mGlView.init(translucent, depthSize, stencilSize);
 
         mRenderer = new ModelTargetRenderer(this, vuforiaAppSession);
+        mTextures.addAll(mTexturePreloader.getTextures());
         mRenderer.setTextures(mTextures, mSymbolicGuideViewIndices);
 
         mGlView.setRenderer(mRenderer);
+        mGlView.setRenderOnDemand(true);
+        vuforiaAppSession.setGLView(mGlView);
         mGlView.setPreserveEGLContextOnPause(true);
 
         setRendererReference(mRenderer);
@@ -11,17 +11,13 @@ package com.vuforia.engine.CoreSamples.app.MultiTargets;
 
 import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
-import android.opengl.Matrix;
 import android.util.Log;
 
 import com.vuforia.Device;
-import com.vuforia.Matrix44F;
 import com.vuforia.MultiTargetResult;
 import com.vuforia.Renderer;
 import com.vuforia.State;
-import com.vuforia.Tool;
 import com.vuforia.TrackableResult;
-import com.vuforia.TrackableResultList;
 import com.vuforia.Vuforia;
 import com.vuforia.engine.SampleApplication.SampleAppRenderer;
 import com.vuforia.engine.SampleApplication.SampleAppRendererControl;
@@ -29,6 +25,12 @@ import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.SampleRendererBase;
 import com.vuforia.engine.SampleApplication.utils.CubeObject;
 import com.vuforia.engine.SampleApplication.utils.CubeShaders;
+import com.vuforia.engine.SampleApplication.utils.DrawCommandBuffer;
+import com.vuforia.engine.SampleApplication.utils.FramePreparer;
+import com.vuforia.engine.SampleApplication.utils.FrameSnapshot;
+import com.vuforia.engine.SampleApplication.utils.InstanceTransformBatch;
+import com.vuforia.engine.SampleApplication.utils.JobSystem;
+import com.vuforia.engine.SampleApplication.utils.SampleArrayMath;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
 import com.vuforia.engine.SampleApplication.utils.Texture;
 
@@ -41,7 +43,9 @@ import javax.microedition.khronos.opengles.GL10;
 /**
  * The renderer class for the MultiTargets sample.
  *
- * In the renderFrame() function you can render augmentations to display over the Target
+ * The matrices of the augmentations are computed by prepareFrame() on the frame
+ * preparation thread. In the renderFrame() function the latest of these
+ * snapshots is drawn over the Target
  */
 public class MultiTargetRenderer extends SampleRendererBase implements SampleAppRendererControl
 {
@@ -53,6 +57,22 @@ public class MultiTargetRenderer extends SampleRendererBase implements SampleApp
     private int textureCoordHandle;
     private int mvpMatrixHandle;
     private int texSampler2DHandle;
+    private DrawCommandBuffer.Material mCubeMaterial;
+    private DrawCommandBuffer.Material mBowlMaterial;
+
+    // Values of the snapshot results and instances
+    private static final int RESULT_OTHER = 0;
+    private static final int RESULT_MULTI_TARGET = 1;
+    private static final int MESH_CUBE = 0;
+    private static final int MESH_BOWL = 1;
+
+    // Used on the preparation thread only, the matrices are computed on the job system
+    private final InstanceTransformBatch mPrepareBatch = new InstanceTransformBatch(JobSystem.getShared());
+    private final float[] mPrepareProjection = new float[16];
+    private final float[] mPreparePose = new float[16];
+
+    private final float[] mBowlTransform = new float[16];
+    private final float[] mModelViewProjection = new float[16];
     
     private double prevTime;
     private float rotateAngle;
@@ -69,6 +89,16 @@ public class MultiTargetRenderer extends SampleRendererBase implements SampleApp
     private final static float kBowlScaleX = 0.12f * 0.15f;
     private final static float kBowlScaleY = 0.12f * 0.15f;
     private final static float kBowlScaleZ = 0.12f * 0.15f;
+
+    // Local transformations of the cube and of the bowl before its animation
+    private static final float[] CUBE_TRANSFORM = new float[16];
+    private static final float[] IDENTITY = new float[16];
+    static
+    {
+        SampleArrayMath.Matrix44FIdentity(CUBE_TRANSFORM, 0);
+        SampleArrayMath.Matrix44FScale(CUBE_TRANSFORM, 0, kCubeScaleX, kCubeScaleY, kCubeScaleZ);
+        SampleArrayMath.Matrix44FIdentity(IDENTITY, 0);
+    }
     
     
     MultiTargetRenderer(MultiTargets activity, SampleApplicationSession session)
@@ -79,6 +109,16 @@ public class MultiTargetRenderer extends SampleRendererBase implements SampleApp
         // the device mode AR/VR and stereo mode
         mSampleAppRenderer = new SampleAppRenderer(this, activity,
                 vuforiaAppSession.getVideoMode(), 0.010f, 5f);
+
+        mFramePreparer = new FramePreparer<>("MultiTargetPreparer", new FramePreparer.Callback<State>()
+        {
+            @Override
+            public void prepareFrame(State state, FrameSnapshot snapshot)
+            {
+                MultiTargetRenderer.this.prepareFrame(state, snapshot);
+            }
+        });
+        mSampleAppRenderer.setFramePreparer(mFramePreparer);
     }
 
 
@@ -115,14 +155,23 @@ public class MultiTargetRenderer extends SampleRendererBase implements SampleApp
             CubeShaders.CUBE_MESH_VERTEX_SHADER,
             CubeShaders.CUBE_MESH_FRAGMENT_SHADER);
         
-        vertexHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        vertexHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexPosition");
-        textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexTexCoord");
-        mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "modelViewProjectionMatrix");
-        texSampler2DHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        texSampler2DHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "texSampler2D");
+
+        // Both models are drawn blended, only the cube culls its back faces
+        mCubeMaterial = new DrawCommandBuffer.Material(shaderProgramID, vertexHandle, -1,
+            textureCoordHandle, mvpMatrixHandle, texSampler2DHandle,
+            DrawCommandBuffer.Material.FLAG_TRANSLUCENT
+                | DrawCommandBuffer.Material.FLAG_CULL_BACK_FACES);
+        mBowlMaterial = new DrawCommandBuffer.Material(shaderProgramID, vertexHandle, -1,
+            textureCoordHandle, mvpMatrixHandle, texSampler2DHandle,
+            DrawCommandBuffer.Material.FLAG_TRANSLUCENT);
     }
 
 
@@ -132,10 +181,67 @@ public class MultiTargetRenderer extends SampleRendererBase implements SampleApp
     }
 
 
+    // Called on the preparation thread with a copy of each new state. Computes the matrices
+    // of the augmentations of the multi target on the job system
+    private void prepareFrame(State state, FrameSnapshot snapshot)
+    {
+        snapshot.setTimestamp(state.getFrame().getTimeStamp());
+        if (!mSampleAppRenderer.getProjectionMatrix(state, mPrepareProjection))
+        {
+            return;
+        }
+
+        snapshot.setProjection(mPrepareProjection, 0);
+
+        // The augmentations are placed without the device pose
+        mPrepareBatch.begin(mPrepareProjection, 0, null, 0);
+
+        // Browse results searching for the first MultiTarget
+        int targetResult = -1;
+        for (TrackableResult result : state.getTrackableResults())
+        {
+            boolean isMultiTarget = result.isOfType(MultiTargetResult.getClassType());
+            SampleArrayMath.Matrix44FFromPose(mPreparePose, 0, result.getPose().getData(), 0);
+            int resultIndex = snapshot.addResult(result.getTrackable().getId(),
+                    isMultiTarget ? RESULT_MULTI_TARGET : RESULT_OTHER, result.getStatus(),
+                    result.getStatusInfo(), mPreparePose, 0);
+
+            if (!isMultiTarget || targetResult != -1)
+            {
+                continue;
+            }
+
+            // Nothing is drawn if it has no full pose
+            targetResult = resultIndex;
+            if (result.getStatus() == TrackableResult.STATUS.LIMITED)
+            {
+                continue;
+            }
+
+            // The bowl is animated on the rendering thread, its transform is applied there
+            mPrepareBatch.add(mPreparePose, 0, CUBE_TRANSFORM, 0, cubeObject.getBounds());
+            mPrepareBatch.add(mPreparePose, 0, IDENTITY, 0, null);
+        }
+
+        mPrepareBatch.run();
+
+        for (int instance = 0; instance < mPrepareBatch.getCount(); instance++)
+        {
+            if (mPrepareBatch.isVisible(instance))
+            {
+                snapshot.addInstance(targetResult, instance == 0 ? MESH_CUBE : MESH_BOWL, instance,
+                        mPrepareBatch.getModelViewProjections(), instance * FrameSnapshot.MATRIX_SIZE);
+            }
+        }
+    }
+
+
     // The render function.
     // This function is called from the SampleAppRenderer by using the RenderingPrimitives views.
     // The state is owned by SampleAppRenderer which is controlling its lifecycle.
     // NOTE: State should not be cached outside this method.
+    // The augmentations are those of the snapshot SampleAppRenderer acquired, only the
+    // animation of the bowl is applied here, so that it goes on between camera frames
     public void renderFrame(State state, float[] projectionMatrix)
     {
         SampleUtils.checkGLError("Check gl errors prior render Frame");
@@ -143,116 +249,49 @@ public class MultiTargetRenderer extends SampleRendererBase implements SampleApp
         // Renders video background replacing Renderer.DrawVideoBackground()
         mSampleAppRenderer.renderVideoBackground();
         
-        GLES20.glEnable(GLES20.GL_DEPTH_TEST);
-        GLES20.glEnable(GLES20.GL_BLEND);
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        // The video background changed the state behind the cache's back
+        mGLState.invalidate();
 
-        TrackableResultList trackableResultList = state.getTrackableResults();
+        // Blending and culling are set per draw by the command buffer
+        GLES20.glEnable(GLES20.GL_DEPTH_TEST);
 
-        // Did we find any trackables this frame?
-        if (!trackableResultList.empty())
+        FrameSnapshot snapshot = mFramePreparer.getAcquiredSnapshot();
+        if (snapshot != null && snapshot.getNumInstances() > 0)
         {
-            // Get the trackable:
-            TrackableResult result = null;
-
-            // Browse results searching for the MultiTarget
-            for (TrackableResult tr : trackableResultList)
+            float[] modelViewProjections = snapshot.getModelViewProjections();
+            for (int instance = 0; instance < snapshot.getNumInstances(); instance++)
             {
-                if (tr.isOfType(MultiTargetResult.getClassType()))
+                int offset = instance * FrameSnapshot.MATRIX_SIZE;
+                if (snapshot.getInstanceMesh(instance) == MESH_CUBE)
                 {
-                    result = tr;
-                    break;
+                    // Draw the cube:
+                    mDrawCommands.add(mCubeMaterial, mMeshBufferCache.get(cubeObject),
+                        mTextures.get(0).mTextureID[0], modelViewProjections, offset);
+                }
+                else
+                {
+                    // Draw the bowl:
+                    animateBowl(mBowlTransform);
+                    SampleArrayMath.Matrix44FMultiply(mModelViewProjection, 0, modelViewProjections, offset,
+                        mBowlTransform, 0);
+                    mDrawCommands.add(mBowlMaterial, mMeshBufferCache.get(bowlAndSpoonObject),
+                        mTextures.get(1).mTextureID[0], mModelViewProjection, 0);
                 }
             }
-            
-            // If it was not found, exit
-            if (result == null || result.getStatus() == TrackableResult.STATUS.LIMITED)
-            {
-                // Clean up and leave
-                GLES20.glDisable(GLES20.GL_BLEND);
-                GLES20.glDisable(GLES20.GL_DEPTH_TEST);
-                
-                Renderer.getInstance().end();
-                return;
-            }
-            
-            Matrix44F modelViewMatrix_Vuforia = Tool
-                .convertPose2GLMatrix(result.getPose());
-            float[] modelViewMatrix = modelViewMatrix_Vuforia.getData();
-            
-            float[] modelViewProjection = new float[16];
-            Matrix.scaleM(modelViewMatrix, 0, kCubeScaleX, kCubeScaleY,
-                kCubeScaleZ);
-            Matrix.multiplyMM(modelViewProjection, 0, projectionMatrix, 0, modelViewMatrix, 0);
-            
-            GLES20.glUseProgram(shaderProgramID);
-            
-            // Draw the cube:
-            GLES20.glEnable(GLES20.GL_CULL_FACE);
-            GLES20.glCullFace(GLES20.GL_BACK);
-
-            GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT,
-                false, 0, cubeObject.getVertices());
-            GLES20.glVertexAttribPointer(textureCoordHandle, 2,
-                GLES20.GL_FLOAT, false, 0, cubeObject.getTexCoords());
-            
-            GLES20.glEnableVertexAttribArray(vertexHandle);
-            GLES20.glEnableVertexAttribArray(textureCoordHandle);
-            
-            GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
-            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D,
-                mTextures.get(0).mTextureID[0]);
-            GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false,
-                modelViewProjection, 0);
-            GLES20.glUniform1i(texSampler2DHandle, 0);
-            GLES20.glDrawElements(GLES20.GL_TRIANGLES,
-                cubeObject.getNumObjectIndex(), GLES20.GL_UNSIGNED_SHORT,
-                cubeObject.getIndices());
-            
-            GLES20.glDisable(GLES20.GL_CULL_FACE);
-            
-            // Draw the bowl:
-            modelViewMatrix = modelViewMatrix_Vuforia.getData();
-            
-            // Remove the following line to make the bowl stop spinning:
-            animateBowl(modelViewMatrix);
-            
-            Matrix.translateM(modelViewMatrix, 0, 0.0f, -0.50f * 0.12f,
-                0.00135f * 0.12f);
-            Matrix.rotateM(modelViewMatrix, 0, -90.0f, 1.0f, 0, 0);
-            
-            Matrix.scaleM(modelViewMatrix, 0, kBowlScaleX, kBowlScaleY,
-                kBowlScaleZ);
-            Matrix.multiplyMM(modelViewProjection, 0, projectionMatrix, 0, modelViewMatrix, 0);
-            
-            GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT,
-                false, 0, bowlAndSpoonObject.getVertices());
-            GLES20.glVertexAttribPointer(textureCoordHandle, 2,
-                GLES20.GL_FLOAT, false, 0, bowlAndSpoonObject.getTexCoords());
-            
-            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D,
-                mTextures.get(1).mTextureID[0]);
-            GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false,
-                modelViewProjection, 0);
-            GLES20.glDrawElements(GLES20.GL_TRIANGLES,
-                bowlAndSpoonObject.getNumObjectIndex(),
-                GLES20.GL_UNSIGNED_SHORT, bowlAndSpoonObject.getIndices());
-            
-            GLES20.glDisableVertexAttribArray(vertexHandle);
-            GLES20.glDisableVertexAttribArray(textureCoordHandle);
+
+            mDrawCommands.submit(mGLState);
             
             SampleUtils.checkGLError("MultiTargets renderFrame");
-            
         }
         
-        GLES20.glDisable(GLES20.GL_BLEND);
         GLES20.glDisable(GLES20.GL_DEPTH_TEST);
         
         Renderer.getInstance().end();
     }
     
     
-    private void animateBowl(float[] modelViewMatrix)
+    // Sets the local transform of the bowl, turning around the cube
+    private void animateBowl(float[] bowlTransform)
     {
         double time = System.currentTimeMillis(); // Get real time difference
         float dt = (float) (time - prevTime) / 1000; // from frame to frame
@@ -261,9 +300,17 @@ public class MultiTargetRenderer extends SampleRendererBase implements SampleApp
         rotateAngle %= 360;
         Log.d(LOGTAG, "Delta animation time: " + rotateAngle);
         
-        Matrix.rotateM(modelViewMatrix, 0, rotateAngle, 0.0f, 1.0f, 0.0f);
+        // Remove the rotation to make the bowl stop spinning
+        SampleArrayMath.Matrix44FIdentity(bowlTransform, 0);
+        SampleArrayMath.Matrix44FRotate(bowlTransform, 0, rotateAngle, 0.0f, 1.0f, 0.0f);
+        SampleArrayMath.Matrix44FTranslate(bowlTransform, 0, 0.0f, -0.50f * 0.12f, 0.00135f * 0.12f);
+        SampleArrayMath.Matrix44FRotate(bowlTransform, 0, -90.0f, 1.0f, 0, 0);
+        SampleArrayMath.Matrix44FScale(bowlTransform, 0, kBowlScaleX, kBowlScaleY, kBowlScaleZ);
         
         prevTime = time;
+
+        // Keeps turning without new camera frames when rendering on demand
+        invalidateFrame();
     }
     
     
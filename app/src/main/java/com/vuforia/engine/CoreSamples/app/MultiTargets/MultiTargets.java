@@ -47,6 +47,7 @@ import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationGLView;
 import com.vuforia.engine.SampleApplication.utils.Texture;
+import com.vuforia.engine.SampleApplication.utils.TexturePreloader;
 import com.vuforia.engine.CoreSamples.R;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenu;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenuGroup;
@@ -88,6 +89,7 @@ public class MultiTargets extends SampleActivityBase implements SampleApplicatio
     
     // The textures we will use for rendering:
     private Vector<Texture> mTextures;
+    private TexturePreloader mTexturePreloader;
     
     private MultiTarget mit = null;
     
@@ -165,13 +167,14 @@ public class MultiTargets extends SampleActivityBase implements SampleApplicatio
     }
 
 
-    // Load specific textures from the APK, which we will later use for rendering.
+    // Start decoding the textures from the APK in the background, they are
+    // handed to the renderer once Vuforia is initialized.
     private void loadTextures()
     {
-        mTextures.add(Texture.loadTextureFromApk(
-            "MultiTargets/TextureWireframe.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk(
-            "MultiTargets/TextureBowlAndSpoon.png", getAssets()));
+        mTexturePreloader = new TexturePreloader(getAssets());
+        mTexturePreloader.add("MultiTargets/TextureWireframe.png");
+        mTexturePreloader.add("MultiTargets/TextureBowlAndSpoon.png");
+        mTexturePreloader.start();
     }
     
 
@@ -236,6 +239,7 @@ public class MultiTargets extends SampleActivityBase implements SampleApplicatio
         }
         
         // Unload texture:
+        mTexturePreloader.cancel();
         mTextures.clear();
         mTextures = null;
         
@@ -290,8 +294,12 @@ public class MultiTargets extends SampleActivityBase implements SampleApplicatio
         mGlView.init(translucent, depthSize, stencilSize);
         
         mRenderer = new MultiTargetRenderer(this, vuforiaAppSession);
+        mTextures.addAll(mTexturePreloader.getTextures());
         mRenderer.setTextures(mTextures);
         mGlView.setRenderer(mRenderer);
+        mGlView.setRenderOnDemand(true);
+        vuforiaAppSession.setGLView(mGlView);
+        vuforiaAppSession.setFramePreparer(mRenderer.getFramePreparer());
         mGlView.setPreserveEGLContextOnPause(true);
 
         setRendererReference(mRenderer);
@@ -11,20 +11,16 @@ package com.vuforia.engine.CoreSamples.app.ObjectRecognition;
 
 import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
-import android.opengl.Matrix;
 import android.util.Log;
 
 import com.vuforia.Device;
 import com.vuforia.DeviceTrackableResult;
-import com.vuforia.Matrix44F;
 import com.vuforia.ObjectTarget;
 import com.vuforia.ObjectTargetResult;
 import com.vuforia.Renderer;
 import com.vuforia.State;
-import com.vuforia.Tool;
 import com.vuforia.Trackable;
 import com.vuforia.TrackableResult;
-import com.vuforia.TrackableResultList;
 import com.vuforia.Vuforia;
 import com.vuforia.engine.SampleApplication.SampleAppRenderer;
 import com.vuforia.engine.SampleApplication.SampleAppRendererControl;
@@ -32,11 +28,17 @@ import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.SampleRendererBase;
 import com.vuforia.engine.SampleApplication.utils.CubeObject;
 import com.vuforia.engine.SampleApplication.utils.CubeShaders;
+import com.vuforia.engine.SampleApplication.utils.DrawCommandBuffer;
+import com.vuforia.engine.SampleApplication.utils.FramePreparer;
+import com.vuforia.engine.SampleApplication.utils.FrameSnapshot;
+import com.vuforia.engine.SampleApplication.utils.InstanceTransformBatch;
+import com.vuforia.engine.SampleApplication.utils.JobSystem;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
-import com.vuforia.engine.SampleApplication.utils.SampleMath;
+import com.vuforia.engine.SampleApplication.utils.SampleArrayMath;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
 import com.vuforia.engine.SampleApplication.utils.Texture;
 
+import java.util.Arrays;
 import java.util.Vector;
 
 import javax.microedition.khronos.egl.EGLConfig;
@@ -46,7 +48,9 @@ import javax.microedition.khronos.opengles.GL10;
 /**
  * The renderer class for the ObjectTargets sample.
  *
- * In the renderFrame() function you can render augmentations to display over the Target
+ * The poses and matrices of the augmentations are computed by prepareFrame() on
+ * the frame preparation thread. In the renderFrame() function the latest of
+ * these snapshots is drawn over the Target
  */
 public class ObjectTargetRenderer extends SampleRendererBase implements SampleAppRendererControl
 {
@@ -61,12 +65,29 @@ public class ObjectTargetRenderer extends SampleRendererBase implements SampleAp
     private int mvpMatrixHandle;
     private int opacityHandle;
     private int colorHandle;
+    private DrawCommandBuffer.Material mCubeMaterial;
+
+    // Values of the snapshot results
+    private static final int RESULT_OTHER = 0;
+    private static final int RESULT_OBJECT_TARGET = 1;
+    private static final int RESULT_DEVICE = 2;
+
+    // Used on the preparation thread only, the matrices are computed on the job system
+    private final InstanceTransformBatch mPrepareBatch = new InstanceTransformBatch(JobSystem.getShared());
+    private final float[] mPrepareProjection = new float[16];
+    private final float[] mPreparePose = new float[16];
+    private final float[] mPrepareView = new float[16];
+    private final float[] mPrepareModelTransform = new float[16];
+
+    // Result of each instance of the batch
+    private int[] mPrepareResults = new int[8];
     
-    private CubeObject mCubeObject;
+    // Read by the preparation thread once set
+    private volatile CubeObject mCubeObject;
     
     private Renderer mRenderer;
 
-    private boolean mIsTargetCurrentlyTracked = false;
+    private volatile boolean mIsTargetCurrentlyTracked = false;
 
     ObjectTargetRenderer(ObjectTargets activity,
         SampleApplicationSession session)
@@ -78,6 +99,16 @@ public class ObjectTargetRenderer extends SampleRendererBase implements SampleAp
         // the device mode AR/VR and stereo mode
         mSampleAppRenderer = new SampleAppRenderer(this, mActivity,
                 vuforiaAppSession.getVideoMode(), .01f, 5f);
+
+        mFramePreparer = new FramePreparer<>("ObjectTargetPreparer", new FramePreparer.Callback<State>()
+        {
+            @Override
+            public void prepareFrame(State state, FrameSnapshot snapshot)
+            {
+                ObjectTargetRenderer.this.prepareFrame(state, snapshot);
+            }
+        });
+        mSampleAppRenderer.setFramePreparer(mFramePreparer);
     }
 
 
@@ -116,17 +147,21 @@ public class ObjectTargetRenderer extends SampleRendererBase implements SampleAp
             CubeShaders.CUBE_MESH_VERTEX_SHADER,
             CubeShaders.CUBE_MESH_FRAGMENT_SHADER);
         
-        vertexHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        vertexHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexPosition");
-        textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexTexCoord");
-        texSampler2DHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        texSampler2DHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "texSampler2D");
-        mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "modelViewProjectionMatrix");
-        opacityHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        opacityHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "opacity");
-        colorHandle = GLES20.glGetUniformLocation(shaderProgramID, "color");
+        colorHandle = SampleUtils.getUniformLocation(shaderProgramID, "color");
+        mCubeMaterial = new DrawCommandBuffer.Material(shaderProgramID, vertexHandle, -1,
+            textureCoordHandle, mvpMatrixHandle, texSampler2DHandle, colorHandle, opacityHandle,
+            DrawCommandBuffer.Material.FLAG_TRANSLUCENT
+                | DrawCommandBuffer.Material.FLAG_CULL_BACK_FACES);
 
         mActivity.loadingDialogHandler
             .sendEmptyMessage(LoadingDialogHandler.HIDE_LOADING_DIALOG);
@@ -139,127 +174,135 @@ public class ObjectTargetRenderer extends SampleRendererBase implements SampleAp
     }
 
 
-    // The render function.
-    // This function is called from the SampleAppRenderer by using the RenderingPrimitives views.
-    // The state is owned by SampleAppRenderer which is controlling its lifecycle.
-    // NOTE: State should not be cached outside this method.
-    public void renderFrame(State state, float[] projectionMatrix)
+    // Called on the preparation thread with a copy of each new state. Computes everything
+    // renderFrame() needs, so that it only has to submit the draws
+    private void prepareFrame(State state, FrameSnapshot snapshot)
     {
-        // Renders video background replacing Renderer.DrawVideoBackground()
-        mSampleAppRenderer.renderVideoBackground();
+        snapshot.setTimestamp(state.getFrame().getTimeStamp());
+        if (!mSampleAppRenderer.getProjectionMatrix(state, mPrepareProjection))
+        {
+            return;
+        }
 
-        GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+        snapshot.setProjection(mPrepareProjection, 0);
+
+        // Read device pose from the state and create a corresponding view matrix (inverse of the device pose)
+        DeviceTrackableResult deviceResult = state.getDeviceTrackableResult();
+        if (deviceResult != null)
+        {
+            int trackerStatus = deviceResult.getStatus();
+            boolean hasPose = trackerStatus != TrackableResult.STATUS.NO_POSE;
+            if (hasPose)
+            {
+                SampleArrayMath.Matrix44FFromPose(mPreparePose, 0, deviceResult.getPose().getData(), 0);
+                hasPose = SampleArrayMath.Matrix44FInverseAffine(mPrepareView, 0, mPreparePose, 0);
+            }
 
-        GLES20.glEnable(GLES20.GL_CULL_FACE);
-        GLES20.glEnable(GLES20.GL_BLEND);
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+            snapshot.setDevice(trackerStatus, deviceResult.getStatusInfo(), hasPose ? mPrepareView : null, 0);
+        }
 
-        // Set the device pose matrix as identity
-        Matrix44F devicePoseMatrix = SampleMath.Matrix44FIdentity();
-        Matrix44F modelMatrix;
+        CubeObject cubeObject = mCubeObject;
+        mPrepareBatch.begin(mPrepareProjection, 0, snapshot.getView(), 0);
 
-        // Read device pose from the state and create a corresponding view matrix (inverse of the device pose)
-        if (state.getDeviceTrackableResult() != null)
+        for (TrackableResult result : state.getTrackableResults())
         {
-            int statusInfo = state.getDeviceTrackableResult().getStatusInfo();
-            int trackerStatus = state.getDeviceTrackableResult().getStatus();
+            Trackable trackable = result.getTrackable();
+            int status = result.getStatus();
+            int type = result.isOfType(ObjectTargetResult.getClassType()) ? RESULT_OBJECT_TARGET
+                    : result.isOfType(DeviceTrackableResult.getClassType()) ? RESULT_DEVICE : RESULT_OTHER;
 
-            mActivity.checkForRelocalization(statusInfo);
+            SampleArrayMath.Matrix44FFromPose(mPreparePose, 0, result.getPose().getData(), 0);
+            int resultIndex = snapshot.addResult(trackable.getId(), type, status, result.getStatusInfo(),
+                    mPreparePose, 0);
 
-            if (trackerStatus != TrackableResult.STATUS.NO_POSE)
+            // Only object targets with a full pose are augmented, once the cube is created
+            if (type != RESULT_OBJECT_TARGET || status == TrackableResult.STATUS.LIMITED || cubeObject == null)
             {
-                modelMatrix = Tool.convertPose2GLMatrix(state.getDeviceTrackableResult().getPose());
+                continue;
+            }
+
+            printUserData(trackable);
+
+            ObjectTarget objectTarget = (ObjectTarget) trackable;
+            float[] objectSize = objectTarget.getSize().getData();
+
+            // Local transformation of our model
+            SampleArrayMath.Matrix44FIdentity(mPrepareModelTransform, 0);
+            SampleArrayMath.Matrix44FTranslate(mPrepareModelTransform, 0, objectSize[0] / 2, objectSize[1] / 2,
+                    objectSize[2] / 2);
 
-                // We transpose here because Matrix44FInverse returns a transposed matrix
-                devicePoseMatrix = SampleMath.Matrix44FTranspose(SampleMath.Matrix44FInverse(modelMatrix));
+            SampleArrayMath.Matrix44FScale(mPrepareModelTransform, 0, objectSize[0] / 2,
+                    objectSize[1] / 2, objectSize[2] / 2);
+
+            int instance = mPrepareBatch.add(mPreparePose, 0, mPrepareModelTransform, 0, cubeObject.getBounds());
+            if (instance == mPrepareResults.length)
+            {
+                mPrepareResults = Arrays.copyOf(mPrepareResults, instance * 2);
             }
+            mPrepareResults[instance] = resultIndex;
         }
 
-        TrackableResultList trackableResultList = state.getTrackableResults();
-
-        // Determine if target is currently being tracked
-        setIsTargetCurrentlyTracked(trackableResultList);
+        // Transforms and culls the augmentations, in parallel when there are many
+        mPrepareBatch.run();
 
-        // Iterate through trackable results and render any augmentations
-        for (TrackableResult result : trackableResultList)
+        for (int instance = 0; instance < mPrepareBatch.getCount(); instance++)
         {
-            if (result.isOfType(ObjectTargetResult.getClassType()) && result.getStatus() != TrackableResult.STATUS.LIMITED)
+            // Nothing to draw when the cube is entirely off-screen
+            if (mPrepareBatch.isVisible(instance))
             {
-                Trackable trackable = result.getTrackable();
+                snapshot.addInstance(mPrepareResults[instance], 0, 0,
+                        mPrepareBatch.getModelViewProjections(), instance * FrameSnapshot.MATRIX_SIZE);
+            }
+        }
+    }
 
-                modelMatrix = Tool.convertPose2GLMatrix(result.getPose());
-                float[] modelViewMatrix = modelMatrix.getData();
 
-                printUserData(trackable);
+    // The render function.
+    // This function is called from the SampleAppRenderer by using the RenderingPrimitives views.
+    // The state is owned by SampleAppRenderer which is controlling its lifecycle.
+    // NOTE: State should not be cached outside this method.
+    // The augmentations are those of the snapshot SampleAppRenderer acquired, the state is
+    // the one it was prepared from
+    public void renderFrame(State state, float[] projectionMatrix)
+    {
+        // Renders video background replacing Renderer.DrawVideoBackground()
+        mSampleAppRenderer.renderVideoBackground();
 
-                ObjectTarget objectTarget = (ObjectTarget) trackable;
-                float[] objectSize = objectTarget.getSize().getData();
+        // The video background changed the state behind the cache's back
+        mGLState.invalidate();
 
-                // Apply local transformation to our model
-                Matrix.translateM(modelViewMatrix, 0, objectSize[0] / 2, objectSize[1] / 2,
-                        objectSize[2] / 2);
+        // Blending and culling are set per draw by the command buffer
+        GLES20.glEnable(GLES20.GL_DEPTH_TEST);
 
-                Matrix.scaleM(modelViewMatrix, 0, objectSize[0] / 2,
-                        objectSize[1] / 2, objectSize[2] / 2);
+        FrameSnapshot snapshot = mFramePreparer.getAcquiredSnapshot();
+        if (snapshot != null)
+        {
+            if (snapshot.hasDevice())
+            {
+                mActivity.checkForRelocalization(snapshot.getDeviceStatusInfo());
+            }
 
-                // Renders the augmentation
-                renderModel(projectionMatrix, devicePoseMatrix.getData(), modelViewMatrix);
+            // Determine if target is currently being tracked
+            setIsTargetCurrentlyTracked(snapshot);
 
-                SampleUtils.checkGLError("Object Target Render Frame");
+            // Recorded, drawn once all the instances were visited
+            float[] modelViewProjections = snapshot.getModelViewProjections();
+            for (int instance = 0; instance < snapshot.getNumInstances(); instance++)
+            {
+                mDrawCommands.add(mCubeMaterial, mMeshBufferCache.get(mCubeObject),
+                        mTextures.get(0).mTextureID[0], modelViewProjections, instance * FrameSnapshot.MATRIX_SIZE,
+                        0.0f, 0.0f, 0.0f, 0.3f);
             }
         }
 
+        mDrawCommands.submit(mGLState);
+        SampleUtils.checkGLError("Object Target Render Frame");
+
         GLES20.glDisable(GLES20.GL_DEPTH_TEST);
-        GLES20.glDisable(GLES20.GL_BLEND);
 
         mRenderer.end();
     }
 
-
-    private void renderModel(float[] projectionMatrix, float[] viewMatrix, float[] modelMatrix)
-    {
-        float[] modelViewProjection = new float[16];
-
-        // Combine device pose (view matrix) with model matrix
-        Matrix.multiplyMM(modelMatrix, 0, viewMatrix, 0, modelMatrix, 0);
-
-        // Do the final combination with the projection matrix
-        Matrix.multiplyMM(modelViewProjection, 0, projectionMatrix, 0, modelMatrix, 0);
-
-        // Activate the shader program and bind the vertex/normal/tex coords
-        GLES20.glUseProgram(shaderProgramID);
-
-        GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT,
-                false, 0, mCubeObject.getVertices());
-        GLES20.glUniform1f(opacityHandle, 0.3f);
-        GLES20.glUniform3f(colorHandle, 0.0f, 0.0f, 0.0f);
-        GLES20.glVertexAttribPointer(textureCoordHandle, 2,
-                GLES20.GL_FLOAT, false, 0, mCubeObject.getTexCoords());
-
-        GLES20.glEnableVertexAttribArray(vertexHandle);
-        GLES20.glEnableVertexAttribArray(textureCoordHandle);
-
-        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
-        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D,
-                mTextures.get(0).mTextureID[0]);
-        GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false,
-                modelViewProjection, 0);
-        GLES20.glUniform1i(texSampler2DHandle, 0);
-
-        // Pass the model view matrix to the shader
-        GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false,
-                modelViewProjection, 0);
-
-        // Finally render
-        GLES20.glDrawElements(GLES20.GL_TRIANGLES,
-                mCubeObject.getNumObjectIndex(), GLES20.GL_UNSIGNED_SHORT,
-                mCubeObject.getIndices());
-
-        // Disable the enabled arrays
-        GLES20.glDisableVertexAttribArray(vertexHandle);
-        GLES20.glDisableVertexAttribArray(textureCoordHandle);
-    }
-
     
     private void printUserData(Trackable trackable)
     {
@@ -274,16 +317,16 @@ public class ObjectTargetRenderer extends SampleRendererBase implements SampleAp
     }
 
 
-    private void setIsTargetCurrentlyTracked(TrackableResultList trackableResultList)
+    private void setIsTargetCurrentlyTracked(FrameSnapshot snapshot)
     {
-        for(TrackableResult result : trackableResultList)
+        for (int result = 0; result < snapshot.getNumResults(); result++)
         {
             // Check the tracking status for result types
-            // other than DeviceTrackableResult. ie: ImageTargetResult
-            if (!result.isOfType(DeviceTrackableResult.getClassType()))
+            // other than DeviceTrackableResult. ie: ObjectTargetResult
+            if (snapshot.getType(result) != RESULT_DEVICE)
             {
-                int currentStatus = result.getStatus();
-                int currentStatusInfo = result.getStatusInfo();
+                int currentStatus = snapshot.getStatus(result);
+                int currentStatusInfo = snapshot.getStatusInfo(result);
 
                 // The target is currently being tracked if the status is TRACKED|NORMAL
                 if (currentStatus == TrackableResult.STATUS.TRACKED
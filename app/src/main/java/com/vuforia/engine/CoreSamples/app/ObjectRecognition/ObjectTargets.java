@@ -49,6 +49,7 @@ import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
 import com.vuforia.engine.SampleApplication.utils.SampleAppTimer;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationGLView;
 import com.vuforia.engine.SampleApplication.utils.Texture;
+import com.vuforia.engine.SampleApplication.utils.TexturePreloader;
 import com.vuforia.engine.CoreSamples.R;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenu;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenuGroup;
@@ -83,6 +84,7 @@ public class ObjectTargets extends SampleActivityBase implements SampleApplicati
     
     // The textures we will use for rendering:
     private Vector<Texture> mTextures;
+    private TexturePreloader mTexturePreloader;
     
     private GestureDetector mGestureDetector;
     
@@ -179,11 +181,13 @@ public class ObjectTargets extends SampleActivityBase implements SampleApplicati
     }
 
 
-    // Load specific textures from the APK, which we will later use for rendering.
+    // Start decoding the textures from the APK in the background, they are
+    // handed to the renderer once Vuforia is initialized.
     private void loadTextures()
     {
-        mTextures.add(Texture.loadTextureFromApk(
-            "ObjectRecognition/CubeWireframe.png", getAssets()));
+        mTexturePreloader = new TexturePreloader(getAssets());
+        mTexturePreloader.add("ObjectRecognition/CubeWireframe.png");
+        mTexturePreloader.start();
     }
     
 
@@ -302,6 +306,7 @@ public class ObjectTargets extends SampleActivityBase implements SampleApplicati
         }
         
         // Unload texture:
+        mTexturePreloader.cancel();
         mTextures.clear();
         mTextures = null;
         
@@ -320,8 +325,12 @@ public class ObjectTargets extends SampleActivityBase implements SampleApplicati
         mGlView.init(translucent, depthSize, stencilSize);
         
         mRenderer = new ObjectTargetRenderer(this, vuforiaAppSession);
+        mTextures.addAll(mTexturePreloader.getTextures());
         mRenderer.setTextures(mTextures);
         mGlView.setRenderer(mRenderer);
+        mGlView.setRenderOnDemand(true);
+        vuforiaAppSession.setGLView(mGlView);
+        vuforiaAppSession.setFramePreparer(mRenderer.getFramePreparer());
         mGlView.setPreserveEGLContextOnPause(true);
 
         setRendererReference(mRenderer);
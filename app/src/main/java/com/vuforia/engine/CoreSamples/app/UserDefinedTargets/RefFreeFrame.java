@@ -44,6 +44,9 @@ public class RefFreeFrame
     // / Keep track of the time between frames for color transitions
     private long lastFrameTime;
     
+    // Set while the color has not reached the one of the frame quality
+    private boolean isTransitioning = false;
+    
     // All rendering methods are contained in this class for easy
     // extraction/abstraction
     private final RefFreeFrameGL frameGL;
@@ -65,6 +68,13 @@ public class RefFreeFrame
     }
     
     
+    // True while the viewfinder color fades, which goes on without new camera frames
+    boolean isTransitioning()
+    {
+        return isTransitioning;
+    }
+    
+    
     RefFreeFrame(UserDefinedTargets activity)
     {
         mActivity = activity;
@@ -156,6 +166,7 @@ public class RefFreeFrame
         float transitionHalfSecond = elapsedTimeMS * 0.002f;
         
         STATUS newStatus = curStatus;
+        isTransitioning = false;
         
         switch (curStatus)
         {
@@ -186,6 +197,8 @@ public class RefFreeFrame
                             transitionHalfSecond);
                         colorFrame[2] = transition(colorFrame[2],
                             -transitionHalfSecond);
+                        isTransitioning = colorFrame[0] > 0.0f
+                            || colorFrame[1] < 1.0f || colorFrame[2] > 0.0f;
                         
                         break;
                 }
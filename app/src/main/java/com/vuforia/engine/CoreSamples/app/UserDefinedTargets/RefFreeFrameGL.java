@@ -22,6 +22,7 @@ import com.vuforia.Matrix44F;
 import com.vuforia.Renderer;
 import com.vuforia.Vec4F;
 import com.vuforia.VideoBackgroundConfig;
+import com.vuforia.engine.SampleApplication.utils.SampleGLES20;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
 import com.vuforia.engine.SampleApplication.utils.Texture;
 
@@ -154,16 +155,16 @@ class RefFreeFrameGL
                 FRAME_VERTEX_SHADER, FRAME_FRAGMENT_SHADER)) == 0)
             return false;
         
-        if ((vertexHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        if ((vertexHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexPosition")) == -1)
             return false;
-        if ((textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        if ((textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexTexCoord")) == -1)
             return false;
-        if ((mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        if ((mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "modelViewProjectionMatrix")) == -1)
             return false;
-        if ((colorHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        if ((colorHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "keyColor")) == -1)
             return false;
         
@@ -314,7 +315,7 @@ class RefFreeFrameGL
         
         // Set GL flags
         GLES20.glEnable(GLES20.GL_BLEND);
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        SampleGLES20.getInstance().blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
         GLES20.glDisable(GLES20.GL_DEPTH_TEST);
         GLES20.glDisable(GLES20.GL_CULL_FACE);
         
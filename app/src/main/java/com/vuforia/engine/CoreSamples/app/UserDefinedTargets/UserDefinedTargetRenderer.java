@@ -28,6 +28,7 @@ import com.vuforia.engine.SampleApplication.SampleAppRenderer;
 import com.vuforia.engine.SampleApplication.SampleAppRendererControl;
 import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.SampleRendererBase;
+import com.vuforia.engine.SampleApplication.utils.MeshBufferCache;
 import com.vuforia.engine.SampleApplication.utils.CubeShaders;
 import com.vuforia.engine.SampleApplication.utils.SampleMath;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
@@ -97,6 +98,10 @@ public class UserDefinedTargetRenderer extends SampleRendererBase implements Sam
 
         // Render the RefFree UI elements depending on the current state
         mActivity.refFreeFrame.render();
+        if (mActivity.refFreeFrame.isTransitioning())
+        {
+            invalidateFrame();
+        }
 
         // Set the device pose matrix as identity
         Matrix44F devicePoseMatrix = SampleMath.Matrix44FIdentity();
@@ -160,13 +165,8 @@ public class UserDefinedTargetRenderer extends SampleRendererBase implements Sam
 
         GLES20.glUseProgram(shaderProgramID);
 
-        GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT,
-                false, 0, mTeapot.getVertices());
-        GLES20.glVertexAttribPointer(textureCoordHandle, 2,
-                GLES20.GL_FLOAT, false, 0, mTeapot.getTexCoords());
-
-        GLES20.glEnableVertexAttribArray(vertexHandle);
-        GLES20.glEnableVertexAttribArray(textureCoordHandle);
+        MeshBufferCache.MeshBuffers teapotBuffers = mMeshBufferCache.get(mTeapot);
+        teapotBuffers.bind(vertexHandle, -1, textureCoordHandle);
 
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D,
@@ -174,12 +174,8 @@ public class UserDefinedTargetRenderer extends SampleRendererBase implements Sam
         GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false,
                 modelViewProjection, 0);
         GLES20.glUniform1i(texSampler2DHandle, 0);
-        GLES20.glDrawElements(GLES20.GL_TRIANGLES,
-                mTeapot.getNumObjectIndex(), GLES20.GL_UNSIGNED_SHORT,
-                mTeapot.getIndices());
-
-        GLES20.glDisableVertexAttribArray(vertexHandle);
-        GLES20.glDisableVertexAttribArray(textureCoordHandle);
+        teapotBuffers.draw();
+        teapotBuffers.unbind();
     }
 
 
@@ -188,7 +184,7 @@ public class UserDefinedTargetRenderer extends SampleRendererBase implements Sam
     {
         Log.d(LOGTAG, "initRendering");
         
-        mTeapot = new Teapot();
+        mTeapot = Teapot.getShared();
         
         // Define clear color
         GLES20.glClearColor(0.0f, 0.0f, 0.0f, Vuforia.requiresAlpha() ? 0.0f
@@ -212,13 +208,13 @@ public class UserDefinedTargetRenderer extends SampleRendererBase implements Sam
             CubeShaders.CUBE_MESH_VERTEX_SHADER,
             CubeShaders.CUBE_MESH_FRAGMENT_SHADER);
         
-        vertexHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        vertexHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexPosition");
-        textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexTexCoord");
-        mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "modelViewProjectionMatrix");
-        texSampler2DHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        texSampler2DHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "texSampler2D");
     }
 
@@ -44,7 +44,9 @@ import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
 import com.vuforia.engine.SampleApplication.utils.SampleAppTimer;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationGLView;
+import com.vuforia.engine.SampleApplication.utils.SampleAssetCache;
 import com.vuforia.engine.SampleApplication.utils.Texture;
+import com.vuforia.engine.SampleApplication.utils.TexturePreloader;
 import com.vuforia.engine.CoreSamples.R;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenu;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenuGroup;
@@ -76,6 +78,7 @@ public class UserDefinedTargets extends SampleActivityBase implements
     
     // The textures we will use for rendering:
     private Vector<Texture> mTextures;
+    private TexturePreloader mTexturePreloader;
     
     // View overlays to be displayed in the Augmented View
     private RelativeLayout mUILayout;
@@ -224,11 +227,13 @@ public class UserDefinedTargets extends SampleActivityBase implements
     }
 
 
-    // Load specific textures from the APK, which we will later use for rendering.
+    // Start decoding the textures from the APK in the background, they are
+    // handed to the renderer once Vuforia is initialized.
     private void loadTextures()
     {
-        mTextures.add(Texture.loadTextureFromApk("TextureTeapotBlue.png",
-            getAssets()));
+        mTexturePreloader = new TexturePreloader(getAssets());
+        mTexturePreloader.add("TextureTeapotBlue.png");
+        mTexturePreloader.start();
     }
     
 
@@ -282,6 +287,7 @@ public class UserDefinedTargets extends SampleActivityBase implements
         }
         
         // Unload texture:
+        mTexturePreloader.cancel();
         mTextures.clear();
         mTextures = null;
         
@@ -365,8 +371,11 @@ public class UserDefinedTargets extends SampleActivityBase implements
         mGlView.init(translucent, depthSize, stencilSize);
         
         mRenderer = new UserDefinedTargetRenderer(this, vuforiaAppSession);
+        mTextures.addAll(mTexturePreloader.getTextures());
         mRenderer.setTextures(mTextures);
         mGlView.setRenderer(mRenderer);
+        mGlView.setRenderOnDemand(true);
+        vuforiaAppSession.setGLView(mGlView);
         mGlView.setPreserveEGLContextOnPause(true);
 
         setRendererReference(mRenderer);
@@ -431,7 +440,7 @@ public class UserDefinedTargets extends SampleActivityBase implements
 
     Texture createTexture(String nName)
     {
-        return Texture.loadTextureFromApk(nName, getAssets());
+        return SampleAssetCache.getInstance().getTexture(nName, getAssets());
     }
     
     
@@ -0,0 +1,209 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.CoreSamples.app.VirtualButtons;
+
+import android.opengl.GLES20;
+
+import com.vuforia.VirtualButton;
+import com.vuforia.engine.SampleApplication.utils.SampleGL;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * The outlines of the virtual buttons of the dataset, built once and kept in a
+ * buffer object so that all of them are drawn with a single glDrawArrays
+ *
+ * Buttons are identified by their index in the dataset. Each vertex carries
+ * the index of its button in the w component, the vertex shader looks up the
+ * state of the button in a uniform array filled on every frame: hidden while
+ * the button has no result, released or pressed otherwise.
+ *
+ * Vuforia buttons are matched to their index by name the first time they are
+ * seen, then by id. This class must only be used from the GL thread
+ */
+class VirtualButtonOutlines
+{
+    // Size of the state array of VirtualButtonShaders
+    static final int MAX_BUTTONS = 64;
+
+    static final float STATE_HIDDEN = 0.0f;
+    static final float STATE_RELEASED = 1.0f;
+    static final float STATE_PRESSED = 2.0f;
+
+    // GL_LINES needs both ends of each of the four edges
+    private static final int VERTICES_PER_BUTTON = 8;
+
+    // x, y, z and the index of the button
+    private static final int COMPONENTS = 4;
+    private static final int STRIDE = COMPONENTS * (Float.SIZE / Byte.SIZE);
+
+    private static final int NO_ID = -1;
+
+    private final SampleGL mGL;
+    private final String[] mNames;
+    private final ByteBuffer mVertices;
+
+    private final float[] mStates;
+    private final int[] mButtonIds;
+
+    private int mBuffer = 0;
+
+
+    // rectangles holds left, top, right and bottom of each button, as in the dataset
+    VirtualButtonOutlines(SampleGL gl, String[] names, float[][] rectangles)
+    {
+        if (names.length != rectangles.length || names.length > MAX_BUTTONS)
+        {
+            throw new IllegalArgumentException("Expected at most " + MAX_BUTTONS
+                    + " buttons with one rectangle each");
+        }
+
+        mGL = gl;
+        mNames = names.clone();
+        mVertices = buildVertices(rectangles);
+        mStates = new float[names.length];
+        mButtonIds = new int[names.length];
+        Arrays.fill(mButtonIds, NO_ID);
+    }
+
+
+    static ByteBuffer buildVertices(float[][] rectangles)
+    {
+        ByteBuffer vertices = ByteBuffer.allocateDirect(
+                rectangles.length * VERTICES_PER_BUTTON * STRIDE).order(ByteOrder.nativeOrder());
+        FloatBuffer floats = vertices.asFloatBuffer();
+
+        for (int i = 0; i < rectangles.length; i++)
+        {
+            float left = rectangles[i][0];
+            float top = rectangles[i][1];
+            float right = rectangles[i][2];
+            float bottom = rectangles[i][3];
+
+            putLine(floats, left, top, right, top, i);
+            putLine(floats, right, top, right, bottom, i);
+            putLine(floats, right, bottom, left, bottom, i);
+            putLine(floats, left, bottom, left, top, i);
+        }
+
+        return vertices;
+    }
+
+
+    private static void putLine(FloatBuffer floats, float x0, float y0, float x1, float y1, int index)
+    {
+        floats.put(x0).put(y0).put(0.0f).put(index);
+        floats.put(x1).put(y1).put(0.0f).put(index);
+    }
+
+
+    // The buffer name died with the previous context, the vertices are uploaded again
+    void onSurfaceCreated()
+    {
+        mBuffer = 0;
+    }
+
+
+    int getNumButtons()
+    {
+        return mStates.length;
+    }
+
+
+    // Returns the index of the button in the dataset, or -1 if it is not part of it
+    int indexOf(VirtualButton button)
+    {
+        int id = button.getID();
+        int index = indexOfId(id);
+        if (index < 0)
+        {
+            // Toggling a button creates it again with a new id
+            index = bindId(id, button.getName());
+        }
+
+        return index;
+    }
+
+
+    // Returns -1 if no button was seen with this id yet
+    int indexOfId(int id)
+    {
+        for (int i = 0; i < mButtonIds.length; i++)
+        {
+            if (mButtonIds[i] == id)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+
+    // Matches the id to the button of that name, returns its index or -1
+    int bindId(int id, String name)
+    {
+        for (int i = 0; i < mNames.length; i++)
+        {
+            if (mNames[i].equals(name))
+            {
+                mButtonIds[i] = id;
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+
+    // Hides every outline, called at the start of each frame
+    void clearStates()
+    {
+        Arrays.fill(mStates, STATE_HIDDEN);
+    }
+
+
+    void setState(int index, float state)
+    {
+        mStates[index] = state;
+    }
+
+
+    // One value per button, for the buttonState uniform
+    float[] getStates()
+    {
+        return mStates;
+    }
+
+
+    void draw(int vertexHandle)
+    {
+        if (mBuffer == 0)
+        {
+            mBuffer = mGL.genBuffer();
+            mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, mBuffer);
+            mGL.bufferData(GLES20.GL_ARRAY_BUFFER, mVertices.capacity(), mVertices,
+                    GLES20.GL_STATIC_DRAW);
+        }
+        else
+        {
+            mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, mBuffer);
+        }
+
+        mGL.vertexAttribPointer(vertexHandle, COMPONENTS, GLES20.GL_FLOAT, false, STRIDE, 0);
+        mGL.enableVertexAttribArray(vertexHandle);
+
+        mGL.drawArrays(GLES20.GL_LINES, 0, mStates.length * VERTICES_PER_BUTTON);
+
+        mGL.disableVertexAttribArray(vertexHandle);
+        mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+    }
+}
@@ -16,12 +16,10 @@ import android.util.Log;
 
 import com.vuforia.Device;
 import com.vuforia.ImageTargetResult;
-import com.vuforia.Rectangle;
 import com.vuforia.Renderer;
 import com.vuforia.State;
 import com.vuforia.Tool;
 import com.vuforia.TrackableResult;
-import com.vuforia.VirtualButton;
 import com.vuforia.VirtualButtonResult;
 import com.vuforia.VirtualButtonResultList;
 import com.vuforia.Vuforia;
@@ -29,15 +27,12 @@ import com.vuforia.engine.SampleApplication.SampleAppRenderer;
 import com.vuforia.engine.SampleApplication.SampleAppRendererControl;
 import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.SampleRendererBase;
+import com.vuforia.engine.SampleApplication.utils.MeshBufferCache;
 import com.vuforia.engine.SampleApplication.utils.CubeShaders;
-import com.vuforia.engine.SampleApplication.utils.LineShaders;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
 import com.vuforia.engine.SampleApplication.utils.Teapot;
 import com.vuforia.engine.SampleApplication.utils.Texture;
 
-import java.nio.Buffer;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Vector;
 
 import javax.microedition.khronos.egl.EGLConfig;
@@ -56,7 +51,7 @@ public class VirtualButtonRenderer extends SampleRendererBase implements SampleA
     private final VirtualButtons mActivity;
 
     // Object to be rendered
-    private final Teapot mTeapot = new Teapot();
+    private final Teapot mTeapot = Teapot.getShared();
     
     // OpenGL ES 2.0 specific (3D model):
     private int shaderProgramID = 0;
@@ -67,6 +62,8 @@ public class VirtualButtonRenderer extends SampleRendererBase implements SampleA
     
     private int lineOpacityHandle = 0;
     private int lineColorHandle = 0;
+    private int linePressedColorHandle = 0;
+    private int buttonStateHandle = 0;
     private int mvpMatrixButtonsHandle = 0;
     
     // OpenGL ES 2.0 specific (Virtual Buttons):
@@ -82,12 +79,24 @@ public class VirtualButtonRenderer extends SampleRendererBase implements SampleA
     static private final float[] YELLOW_VB_BUTTON =  {0.01482f, -0.05352f, 0.04775f, -0.06587f};
     static private final float[] GREEN_VB_BUTTON =  {0.07657f, -0.05352f, 0.10950f, -0.06587f};
 
+    // In the order of VirtualButtons.virtualButtonColors
+    static private final float[][] VB_BUTTONS = {RED_VB_BUTTON, BLUE_VB_BUTTON,
+            YELLOW_VB_BUTTON, GREEN_VB_BUTTON};
+
+    private final VirtualButtonOutlines mOutlines;
+
+    // Reused on every frame
+    private final float[] mModelViewProjection = new float[16];
+    private final float[] mModelViewProjectionScaled = new float[16];
+
     VirtualButtonRenderer(VirtualButtons activity,
         SampleApplicationSession session)
     {
         mActivity = activity;
         vuforiaAppSession = session;
 
+        mOutlines = new VirtualButtonOutlines(mGLState, mActivity.virtualButtonColors, VB_BUTTONS);
+
         // SampleAppRenderer used to encapsulate the use of RenderingPrimitives setting
         // the device mode AR/VR and stereo mode
         mSampleAppRenderer = new SampleAppRenderer(this, mActivity,
@@ -128,27 +137,34 @@ public class VirtualButtonRenderer extends SampleRendererBase implements SampleA
             CubeShaders.CUBE_MESH_VERTEX_SHADER,
             CubeShaders.CUBE_MESH_FRAGMENT_SHADER);
         
-        vertexHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        vertexHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexPosition");
-        textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexTexCoord");
-        mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "modelViewProjectionMatrix");
-        texSampler2DHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        texSampler2DHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "texSampler2D");
         
         // OpenGL setup for Virtual Buttons
         vbShaderProgramID = SampleUtils.createProgramFromShaderSrc(
-            LineShaders.LINE_VERTEX_SHADER, LineShaders.LINE_FRAGMENT_SHADER);
+            VirtualButtonShaders.OUTLINE_VERTEX_SHADER,
+            VirtualButtonShaders.OUTLINE_FRAGMENT_SHADER);
         
-        mvpMatrixButtonsHandle = GLES20.glGetUniformLocation(vbShaderProgramID,
+        mvpMatrixButtonsHandle = SampleUtils.getUniformLocation(vbShaderProgramID,
             "modelViewProjectionMatrix");
-        vbVertexHandle = GLES20.glGetAttribLocation(vbShaderProgramID,
-            "vertexPosition");
-        lineOpacityHandle = GLES20.glGetUniformLocation(vbShaderProgramID,
+        vbVertexHandle = SampleUtils.getAttribLocation(vbShaderProgramID,
+            "vertexPositionAndIndex");
+        lineOpacityHandle = SampleUtils.getUniformLocation(vbShaderProgramID,
             "opacity");
-        lineColorHandle = GLES20.glGetUniformLocation(vbShaderProgramID,
+        lineColorHandle = SampleUtils.getUniformLocation(vbShaderProgramID,
             "color");
+        linePressedColorHandle = SampleUtils.getUniformLocation(vbShaderProgramID,
+            "pressedColor");
+        buttonStateHandle = SampleUtils.getUniformLocation(vbShaderProgramID,
+            "buttonState");
+
+        mOutlines.onSurfaceCreated();
     }
 
 
@@ -185,123 +201,59 @@ public class VirtualButtonRenderer extends SampleRendererBase implements SampleA
             VirtualButtonResultList virtualButtonResultList = imageTargetResult.getVirtualButtonResults();
 
             // Set transformations:
-            float[] modelViewProjection = new float[16];
-            Matrix.multiplyMM(modelViewProjection, 0, projectionMatrix, 0, modelViewMatrix, 0);
+            Matrix.multiplyMM(mModelViewProjection, 0, projectionMatrix, 0, modelViewMatrix, 0);
             
             // Set the texture used for the teapot model:
             int textureIndex = 0;
-            
-            float vbVertices[] = new float[virtualButtonResultList.size() * 24];
-            short vbCounter = 0;
+
+            // Only the buttons with a result are outlined
+            mOutlines.clearStates();
+            int numResults = virtualButtonResultList.size();
             
             // Iterate through this targets virtual buttons:
-            for (VirtualButtonResult buttonResult : virtualButtonResultList)
+            for (int i = 0; i < numResults; i++)
             {
-                VirtualButton button = buttonResult.getVirtualButton();
-                
-                int buttonIndex = 0;
-
-                // Run through button name array to find button index
-                for (int j = 0; j < VirtualButtons.NUM_BUTTONS; ++j)
+                VirtualButtonResult buttonResult = virtualButtonResultList.at(i);
+                int buttonIndex = mOutlines.indexOf(buttonResult.getVirtualButton());
+                if (buttonIndex < 0)
                 {
-                    if (button.getName().compareTo(
-                        mActivity.virtualButtonColors[j]) == 0)
-                    {
-                        buttonIndex = j;
-                        break;
-                    }
+                    continue;
                 }
                 
                 // If the button is pressed, than use this texture:
                 if (buttonResult.isPressed())
                 {
                     textureIndex = buttonIndex + 1;
+                    mOutlines.setState(buttonIndex, VirtualButtonOutlines.STATE_PRESSED);
+                }
+                else
+                {
+                    mOutlines.setState(buttonIndex, VirtualButtonOutlines.STATE_RELEASED);
                 }
-
-                // Define the four virtual buttons as Rectangle using the same values as the dataset
-                Rectangle vbRectangle[] = new Rectangle[4];
-                vbRectangle[0] = new Rectangle(RED_VB_BUTTON[0], RED_VB_BUTTON[1],
-                        RED_VB_BUTTON[2], RED_VB_BUTTON[3]);
-                vbRectangle[1] = new Rectangle(BLUE_VB_BUTTON[0], BLUE_VB_BUTTON[1],
-                        BLUE_VB_BUTTON[2], BLUE_VB_BUTTON[3]);
-                vbRectangle[2] = new Rectangle(YELLOW_VB_BUTTON[0], YELLOW_VB_BUTTON[1],
-                        YELLOW_VB_BUTTON[2], YELLOW_VB_BUTTON[3]);
-                vbRectangle[3] = new Rectangle(GREEN_VB_BUTTON[0], GREEN_VB_BUTTON[1],
-                        GREEN_VB_BUTTON[2], GREEN_VB_BUTTON[3]);
-                
-                // We add the vertices to a common array in order to have one
-                // single draw call. This is more efficient than having multiple
-                // glDrawArray calls
-                vbVertices[vbCounter] = vbRectangle[buttonIndex].getLeftTopX();
-                vbVertices[vbCounter + 1] = vbRectangle[buttonIndex]
-                    .getLeftTopY();
-                vbVertices[vbCounter + 2] = 0.0f;
-                vbVertices[vbCounter + 3] = vbRectangle[buttonIndex]
-                    .getRightBottomX();
-                vbVertices[vbCounter + 4] = vbRectangle[buttonIndex]
-                    .getLeftTopY();
-                vbVertices[vbCounter + 5] = 0.0f;
-                vbVertices[vbCounter + 6] = vbRectangle[buttonIndex]
-                    .getRightBottomX();
-                vbVertices[vbCounter + 7] = vbRectangle[buttonIndex]
-                    .getLeftTopY();
-                vbVertices[vbCounter + 8] = 0.0f;
-                vbVertices[vbCounter + 9] = vbRectangle[buttonIndex]
-                    .getRightBottomX();
-                vbVertices[vbCounter + 10] = vbRectangle[buttonIndex]
-                    .getRightBottomY();
-                vbVertices[vbCounter + 11] = 0.0f;
-                vbVertices[vbCounter + 12] = vbRectangle[buttonIndex]
-                    .getRightBottomX();
-                vbVertices[vbCounter + 13] = vbRectangle[buttonIndex]
-                    .getRightBottomY();
-                vbVertices[vbCounter + 14] = 0.0f;
-                vbVertices[vbCounter + 15] = vbRectangle[buttonIndex]
-                    .getLeftTopX();
-                vbVertices[vbCounter + 16] = vbRectangle[buttonIndex]
-                    .getRightBottomY();
-                vbVertices[vbCounter + 17] = 0.0f;
-                vbVertices[vbCounter + 18] = vbRectangle[buttonIndex]
-                    .getLeftTopX();
-                vbVertices[vbCounter + 19] = vbRectangle[buttonIndex]
-                    .getRightBottomY();
-                vbVertices[vbCounter + 20] = 0.0f;
-                vbVertices[vbCounter + 21] = vbRectangle[buttonIndex]
-                    .getLeftTopX();
-                vbVertices[vbCounter + 22] = vbRectangle[buttonIndex]
-                    .getLeftTopY();
-                vbVertices[vbCounter + 23] = 0.0f;
-                vbCounter += 24;
-                
             }
             
             // We only render if there is something on the array
-            if (vbCounter > 0)
+            if (numResults > 0)
             {
+                // The video background changed the state behind the cache's back
+                mGLState.invalidate();
+
                 // Render frame around button
-                GLES20.glUseProgram(vbShaderProgramID);
-                
-                GLES20.glVertexAttribPointer(vbVertexHandle, 3,
-                    GLES20.GL_FLOAT, false, 0, fillBuffer(vbVertices));
-                
-                GLES20.glEnableVertexAttribArray(vbVertexHandle);
+                mGLState.useProgram(vbShaderProgramID);
                 
-                GLES20.glUniform1f(lineOpacityHandle, 1.0f);
-                GLES20.glUniform3f(lineColorHandle, 1.0f, 1.0f, 1.0f);
+                mGLState.uniform1f(lineOpacityHandle, 1.0f);
+                mGLState.uniform3f(lineColorHandle, 1.0f, 1.0f, 1.0f);
+                mGLState.uniform3f(linePressedColorHandle, 1.0f, 0.6f, 0.0f);
+                mGLState.uniform1fv(buttonStateHandle, mOutlines.getNumButtons(),
+                    mOutlines.getStates(), 0);
                 
-                GLES20.glUniformMatrix4fv(mvpMatrixButtonsHandle, 1, false,
-                    modelViewProjection, 0);
+                mGLState.uniformMatrix4fv(mvpMatrixButtonsHandle, 1, false,
+                    mModelViewProjection, 0);
                 
-                // We multiply by 8 because that's the number of vertices per
-                // button
-                // The reason is that GL_LINES considers only pairs. So some
-                // vertices
-                // must be repeated.
-                GLES20.glDrawArrays(GLES20.GL_LINES, 0, virtualButtonResultList.size() * 8);
+                // All the outlines in one draw, the hidden ones are clipped
+                mOutlines.draw(vbVertexHandle);
                 
                 SampleUtils.checkGLError("VirtualButtons drawButton");
-                
-                GLES20.glDisableVertexAttribArray(vbVertexHandle);
             }
 
             Texture thisTexture = mTextures.get(textureIndex);
@@ -310,33 +262,23 @@ public class VirtualButtonRenderer extends SampleRendererBase implements SampleA
             Matrix.scaleM(modelViewMatrix, 0, kTeapotScale, kTeapotScale,
                 kTeapotScale);
             
-            float[] modelViewProjectionScaled = new float[16];
-            Matrix.multiplyMM(modelViewProjectionScaled, 0, projectionMatrix, 0, modelViewMatrix, 0);
+            Matrix.multiplyMM(mModelViewProjectionScaled, 0, projectionMatrix, 0, modelViewMatrix, 0);
             
             // Render 3D model
             GLES20.glUseProgram(shaderProgramID);
             
-            GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT,
-                false, 0, mTeapot.getVertices());
-            GLES20.glVertexAttribPointer(textureCoordHandle, 2,
-                GLES20.GL_FLOAT, false, 0, mTeapot.getTexCoords());
-            
-            GLES20.glEnableVertexAttribArray(vertexHandle);
-            GLES20.glEnableVertexAttribArray(textureCoordHandle);
+            MeshBufferCache.MeshBuffers teapotBuffers = mMeshBufferCache.get(mTeapot);
+            teapotBuffers.bind(vertexHandle, -1, textureCoordHandle);
             
             GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
             GLES20.glBindTexture(GLES20.GL_TEXTURE_2D,
                 thisTexture.mTextureID[0]);
             GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false,
-                modelViewProjectionScaled, 0);
+                mModelViewProjectionScaled, 0);
             GLES20.glUniform1i(texSampler2DHandle, 0);
 
-            GLES20.glDrawElements(GLES20.GL_TRIANGLES,
-                mTeapot.getNumObjectIndex(), GLES20.GL_UNSIGNED_SHORT,
-                mTeapot.getIndices());
-            
-            GLES20.glDisableVertexAttribArray(vertexHandle);
-            GLES20.glDisableVertexAttribArray(textureCoordHandle);
+            teapotBuffers.draw();
+            teapotBuffers.unbind();
             
             SampleUtils.checkGLError("VirtualButtons renderFrame");
         }
@@ -347,22 +289,6 @@ public class VirtualButtonRenderer extends SampleRendererBase implements SampleA
     }
     
     
-    private Buffer fillBuffer(float[] array)
-    {
-        // Convert to floats because OpenGL doesnt work on doubles, and manually
-        // casting each input value would take too much time.
-        // Each float takes four bytes
-        ByteBuffer bb = ByteBuffer.allocateDirect(4 * array.length);
-        bb.order(ByteOrder.LITTLE_ENDIAN);
-        for (float d : array)
-            bb.putFloat(d);
-        bb.rewind();
-        
-        return bb;
-        
-    }
-    
-    
     public void setTextures(Vector<Texture> textures)
     {
         mTextures = textures;
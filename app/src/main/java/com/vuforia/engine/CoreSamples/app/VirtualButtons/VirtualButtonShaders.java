@@ -0,0 +1,39 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.CoreSamples.app.VirtualButtons;
+
+/**
+ * These shaders render the outlines of all the virtual buttons at once, the w
+ * component of each vertex is the index of its button in buttonState
+ */
+class VirtualButtonShaders
+{
+
+    static final String OUTLINE_VERTEX_SHADER = " \n"
+        + "attribute vec4 vertexPositionAndIndex; \n"
+        + "uniform mat4 modelViewProjectionMatrix; \n"
+        + "uniform float buttonState[" + VirtualButtonOutlines.MAX_BUTTONS + "]; \n"
+        + "uniform vec3 color; \n"
+        + "uniform vec3 pressedColor; \n"
+        + "varying vec3 outlineColor; \n" + " \n"
+        + "void main() \n" + "{ \n"
+        + "   float state = buttonState[int(vertexPositionAndIndex.w + 0.5)]; \n"
+        + "   outlineColor = state > 1.5 ? pressedColor : color; \n"
+        + "   // Hidden buttons are moved out of the clip volume \n"
+        + "   gl_Position = state > 0.5 \n"
+        + "       ? modelViewProjectionMatrix * vec4(vertexPositionAndIndex.xyz, 1.0) \n"
+        + "       : vec4(2.0, 2.0, 2.0, 1.0); \n"
+        + "} \n";
+
+    static final String OUTLINE_FRAGMENT_SHADER = " \n" + " \n"
+        + "precision mediump float; \n" + "uniform float opacity; \n"
+        + "varying vec3 outlineColor; \n" + " \n" + "void main() \n" + "{ \n"
+        + "   gl_FragColor = vec4(outlineColor, opacity); \n"
+        + "} \n";
+
+}
@@ -43,6 +43,7 @@ import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
 import com.vuforia.engine.SampleApplication.utils.SampleApplicationGLView;
 import com.vuforia.engine.SampleApplication.utils.Texture;
+import com.vuforia.engine.SampleApplication.utils.TexturePreloader;
 import com.vuforia.engine.CoreSamples.R;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenu;
 import com.vuforia.engine.CoreSamples.ui.SampleAppMenu.SampleAppMenuGroup;
@@ -85,6 +86,7 @@ public class VirtualButtons extends SampleActivityBase implements
     
     // The textures we will use for rendering:
     private Vector<Texture> mTextures;
+    private TexturePreloader mTexturePreloader;
     
     private DataSet mDataSet = null;
     
@@ -173,19 +175,17 @@ public class VirtualButtons extends SampleActivityBase implements
     }
 
 
-    // Load specific textures from the APK, which we will later use for rendering.
+    // Start decoding the textures from the APK in the background, they are
+    // handed to the renderer once Vuforia is initialized.
     private void loadTextures()
     {
-        mTextures.add(Texture.loadTextureFromApk("TextureTeapotBrass.png",
-            getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("TextureTeapotRed.png",
-            getAssets()));
-        mTextures.add(Texture.loadTextureFromApk("TextureTeapotBlue.png",
-            getAssets()));
-        mTextures.add(Texture.loadTextureFromApk(
-            "VirtualButtons/TextureTeapotYellow.png", getAssets()));
-        mTextures.add(Texture.loadTextureFromApk(
-            "VirtualButtons/TextureTeapotGreen.png", getAssets()));
+        mTexturePreloader = new TexturePreloader(getAssets());
+        mTexturePreloader.add("TextureTeapotBrass.png");
+        mTexturePreloader.add("TextureTeapotRed.png");
+        mTexturePreloader.add("TextureTeapotBlue.png");
+        mTexturePreloader.add("VirtualButtons/TextureTeapotYellow.png");
+        mTexturePreloader.add("VirtualButtons/TextureTeapotGreen.png");
+        mTexturePreloader.start();
     }
     
 
@@ -250,6 +250,7 @@ public class VirtualButtons extends SampleActivityBase implements
         }
         
         // Unload texture:
+        mTexturePreloader.cancel();
         mTextures.clear();
         mTextures = null;
         
@@ -303,8 +304,11 @@ public class VirtualButtons extends SampleActivityBase implements
         mGlView.init(translucent, depthSize, stencilSize);
         
         mRenderer = new VirtualButtonRenderer(this, vuforiaAppSession);
+        mTextures.addAll(mTexturePreloader.getTextures());
         mRenderer.setTextures(mTextures);
         mGlView.setRenderer(mRenderer);
+        mGlView.setRenderOnDemand(true);
+        vuforiaAppSession.setGLView(mGlView);
         mGlView.setPreserveEGLContextOnPause(true);
 
         setRendererReference(mRenderer);
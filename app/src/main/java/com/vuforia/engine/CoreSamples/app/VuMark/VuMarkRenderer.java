@@ -13,7 +13,6 @@ import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
-import android.opengl.Matrix;
 import android.util.Log;
 
 import com.vuforia.CameraCalibration;
@@ -21,7 +20,6 @@ import com.vuforia.Device;
 import com.vuforia.DeviceTrackableResult;
 import com.vuforia.Image;
 import com.vuforia.InstanceId;
-import com.vuforia.Matrix44F;
 import com.vuforia.PIXEL_FORMAT;
 import com.vuforia.Renderer;
 import com.vuforia.State;
@@ -38,15 +36,22 @@ import com.vuforia.engine.SampleApplication.SampleAppRenderer;
 import com.vuforia.engine.SampleApplication.SampleAppRendererControl;
 import com.vuforia.engine.SampleApplication.SampleApplicationSession;
 import com.vuforia.engine.SampleApplication.SampleRendererBase;
+import com.vuforia.engine.SampleApplication.utils.MeshBufferCache;
 import com.vuforia.engine.SampleApplication.utils.CubeShaders;
+import com.vuforia.engine.SampleApplication.utils.InstanceTransformBatch;
+import com.vuforia.engine.SampleApplication.utils.JobSystem;
 import com.vuforia.engine.SampleApplication.utils.LoadingDialogHandler;
-import com.vuforia.engine.SampleApplication.utils.SampleMath;
+import com.vuforia.engine.SampleApplication.utils.PrimitiveMesh;
+import com.vuforia.engine.SampleApplication.utils.PrimitiveMeshGenerator;
+import com.vuforia.engine.SampleApplication.utils.SampleArrayMath;
+import com.vuforia.engine.SampleApplication.utils.SampleGLES20;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
 import com.vuforia.engine.SampleApplication.utils.Texture;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Vector;
 
 
@@ -73,7 +78,7 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
     private double t0;
 
     // Object to be rendered
-    private final Plane mPlaneObj;
+    private final PrimitiveMesh mPlaneObj;
 
     // Ratio to apply so that the augmentation surrounds the VuMark
     private static final float VUMARK_SCALE = 1.02f;
@@ -81,13 +86,20 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
 
     private boolean mIsTargetCurrentlyTracked = false;
 
+    // Matrices of the augmentations, computed on the job system
+    private final InstanceTransformBatch mInstances = new InstanceTransformBatch(JobSystem.getShared());
+    private final float[] mPose = new float[16];
+    private final float[] mView = new float[16];
+    private final float[] mModelTransform = new float[16];
+    private boolean[] mIsMainInstance = new boolean[4];
+
     VuMarkRenderer(VuMark activity, SampleApplicationSession session)
     {
         mActivity = activity;
         vuforiaAppSession = session;
         t0 = -1.0;
 
-        mPlaneObj = new Plane();
+        mPlaneObj = PrimitiveMeshGenerator.getPlane(1);
 
         // SampleAppRenderer used to encapsulate the use of RenderingPrimitives setting
         // the device mode AR/VR and stereo mode
@@ -127,15 +139,15 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
                 CubeShaders.CUBE_MESH_VERTEX_SHADER,
                 CubeShaders.CUBE_MESH_FRAGMENT_SHADER);
 
-        vertexHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        vertexHandle = SampleUtils.getAttribLocation(shaderProgramID,
                 "vertexPosition");
-        textureCoordHandle = GLES20.glGetAttribLocation(shaderProgramID,
+        textureCoordHandle = SampleUtils.getAttribLocation(shaderProgramID,
             "vertexTexCoord");
-        mvpMatrixHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        mvpMatrixHandle = SampleUtils.getUniformLocation(shaderProgramID,
                 "modelViewProjectionMatrix");
-        texSampler2DHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        texSampler2DHandle = SampleUtils.getUniformLocation(shaderProgramID,
             "texSampler2D");
-        calphaHandle = GLES20.glGetUniformLocation(shaderProgramID,
+        calphaHandle = SampleUtils.getUniformLocation(shaderProgramID,
                 "calpha");
 
         mActivity.loadingDialogHandler.sendEmptyMessage(LoadingDialogHandler.HIDE_LOADING_DIALOG);
@@ -161,6 +173,9 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
             return 1.0f;
         }
 
+        // The blinking goes on without new camera frames when rendering on demand
+        invalidateFrame();
+
         if ((delta < 300.0f) || ((delta > 500.0f) && (delta < 800.0f)))
         {
             return 1.0f;
@@ -185,13 +200,16 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
         // Renders video background replacing Renderer.DrawVideoBackground()
         mSampleAppRenderer.renderVideoBackground();
 
+        // The video background changed the state behind the cache's back
+        mGLState.invalidate();
+
         GLES20.glEnable(GLES20.GL_DEPTH_TEST);
 
         GLES20.glEnable(GLES20.GL_CULL_FACE);
         GLES20.glCullFace(GLES20.GL_BACK);
 
         GLES20.glEnable(GLES20.GL_BLEND);
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        SampleGLES20.getInstance().blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
 
         boolean gotVuMark = false;
         boolean isMainVuMark;
@@ -201,8 +219,8 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
         Bitmap markerBitmap = null;
         TrackableResult vuMarkToDisplay = null;
 
-        // Set the device pose matrix as identity
-        Matrix44F devicePoseMatrix = SampleMath.Matrix44FIdentity();
+        // The view matrix stays identity without a device pose
+        boolean hasView = false;
 
         // Read device pose from the state and create a corresponding view matrix (inverse of the device pose)
         if (state.getDeviceTrackableResult() != null)
@@ -214,13 +232,13 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
 
             if (trackerStatus != TrackableResult.STATUS.NO_POSE)
             {
-                Matrix44F modelMatrix = Tool.convertPose2GLMatrix(state.getDeviceTrackableResult().getPose());
-
-                // We transpose here because Matrix44FInverse returns a transposed matrix
-                devicePoseMatrix = SampleMath.Matrix44FTranspose(SampleMath.Matrix44FInverse(modelMatrix));
+                SampleArrayMath.Matrix44FFromPose(mPose, 0, state.getDeviceTrackableResult().getPose().getData(), 0);
+                hasView = SampleArrayMath.Matrix44FInverseAffine(mView, 0, mPose, 0);
             }
         }
 
+        mInstances.begin(projectionMatrix, 0, hasView ? mView : null, 0);
+
         TrackableResultList trackableResultList = state.getTrackableResults();
         if (trackableResultList.size() > 1)
         {
@@ -252,10 +270,6 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
         // Iterate through trackable results and render any augmentations
         for (TrackableResult result : trackableResultList)
         {
-            Matrix44F modelViewMatrix_Vuforia = Tool
-                .convertPose2GLMatrix(result.getPose());
-            float[] modelViewMatrix = modelViewMatrix_Vuforia.getData();
-
             if (result.isOfType(VuMarkTargetResult.getClassType()))
             {
                 VuMarkTargetResult vmtResult = (VuMarkTargetResult) result;
@@ -295,21 +309,35 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
                 Vec2F origin = vmTmp.getOrigin();
                 float translX = -origin.getData()[0];
                 float translY = -origin.getData()[1];
-                Matrix.translateM(modelViewMatrix, 0, translX, translY, 0);
+                SampleArrayMath.Matrix44FIdentity(mModelTransform, 0);
+                SampleArrayMath.Matrix44FTranslate(mModelTransform, 0, translX, translY, 0);
 
                 // Scales the plane relative to the target
                 float vumarkWidth = vmTgt.getSize().getData()[0];
                 float vumarkHeight = vmTgt.getSize().getData()[1];
-                Matrix.scaleM(modelViewMatrix, 0, vumarkWidth * VUMARK_SCALE,
+                SampleArrayMath.Matrix44FScale(mModelTransform, 0, vumarkWidth * VUMARK_SCALE,
                         vumarkHeight * VUMARK_SCALE, 1.0f);
+
+                SampleArrayMath.Matrix44FFromPose(mPose, 0, result.getPose().getData(), 0);
+                int instance = mInstances.add(mPose, 0, mModelTransform, 0, mPlaneObj.getBounds());
+                if (instance == mIsMainInstance.length)
+                {
+                    mIsMainInstance = Arrays.copyOf(mIsMainInstance, instance * 2);
+                }
+                mIsMainInstance[instance] = isMainVuMark;
             }
-            else
+        }
+
+        // Transforms and culls the augmentations, in parallel when there are many
+        mInstances.run();
+
+        for (int instance = 0; instance < mInstances.getCount(); instance++)
+        {
+            if (mInstances.isVisible(instance))
             {
-                continue;
+                renderModel(mInstances.getModelViewProjections(), instance * 16, mIsMainInstance[instance]);
+                SampleUtils.checkGLError("VuMark Render Frame");
             }
-
-            renderModel(projectionMatrix, devicePoseMatrix.getData(), modelViewMatrix, isMainVuMark);
-            SampleUtils.checkGLError("VuMark Render Frame");
         }
 
         if(gotVuMark)
@@ -335,27 +363,15 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
     }
 
 
-    private void renderModel(float[] projectionMatrix, float[] viewMatrix, float[] modelMatrix, boolean isMainVuMark)
+    private void renderModel(float[] modelViewProjections, int offset, boolean isMainVuMark)
     {
         int textureIndex = 0;
-        float[] modelViewProjection = new float[16];
-
-        // Combine device pose (view matrix) with model matrix
-        Matrix.multiplyMM(modelMatrix, 0, viewMatrix, 0, modelMatrix, 0);
-
-        // Do the final combination with the projection matrix
-        Matrix.multiplyMM(modelViewProjection, 0, projectionMatrix, 0, modelMatrix, 0);
 
         // activate the shader program and bind the vertex/normal/tex coords
         GLES20.glUseProgram(shaderProgramID);
 
-        GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT,
-                false, 0, mPlaneObj.getVertices());
-        GLES20.glVertexAttribPointer(textureCoordHandle, 2,
-                GLES20.GL_FLOAT, false, 0, mPlaneObj.getTexCoords());
-
-        GLES20.glEnableVertexAttribArray(vertexHandle);
-        GLES20.glEnableVertexAttribArray(textureCoordHandle);
+        MeshBufferCache.MeshBuffers planeBuffers = mMeshBufferCache.get(mPlaneObj);
+        planeBuffers.bind(vertexHandle, -1, textureCoordHandle);
 
         // activate texture 0, bind it, and pass to shader
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
@@ -366,16 +382,13 @@ public class VuMarkRenderer extends SampleRendererBase implements SampleAppRende
 
         // pass the model view matrix to the shader
         GLES20.glUniformMatrix4fv(mvpMatrixHandle, 1, false,
-                modelViewProjection, 0);
+                modelViewProjections, offset);
 
         // finally draw the plane
-        GLES20.glDrawElements(GLES20.GL_TRIANGLES,
-                mPlaneObj.getNumObjectIndex(), GLES20.GL_UNSIGNED_SHORT,
-                mPlaneObj.getIndices());
+        planeBuffers.draw();
 
         // disable the enabled arrays
-        GLES20.glDisableVertexAttribArray(vertexHandle);
-        GLES20.glDisableVertexAttribArray(textureCoordHandle);
+        planeBuffers.unbind();
     }
 
 
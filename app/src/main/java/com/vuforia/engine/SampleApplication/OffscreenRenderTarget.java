@@ -0,0 +1,236 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication;
+
+import android.opengl.GLES20;
+import android.util.Log;
+
+import com.vuforia.engine.SampleApplication.utils.OffscreenCompositeShader;
+import com.vuforia.engine.SampleApplication.utils.SampleAssetReader;
+import com.vuforia.engine.SampleApplication.utils.SampleUtils;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Framebuffer SampleAppRenderer draws the augmentations into at a reduced
+ * resolution, then draws over the video background
+ *
+ * The color texture and depth buffer are allocated at the full size of the
+ * viewport and only the scaled part of them is drawn to, so that changing the
+ * scale costs nothing. They are allocated again when the viewport size changes.
+ * The color texture holds colors premultiplied by their alpha, see
+ * SampleGLES20.setAlphaAccumulated().
+ *
+ * If the framebuffer cannot be created on the current context, bind() keeps
+ * returning false until the context is created again. Everything must be
+ * called from the GL thread
+ */
+class OffscreenRenderTarget
+{
+    private static final String LOGTAG = "OffscreenRenderTarget";
+
+    // Corners of the viewport as a triangle strip
+    private static final FloatBuffer QUAD_VERTICES = SampleAssetReader.allocateNative(8 * 4).asFloatBuffer();
+    static
+    {
+        QUAD_VERTICES.put(new float[] { -1.0f, -1.0f, 1.0f, -1.0f, -1.0f, 1.0f, 1.0f, 1.0f });
+        QUAD_VERTICES.rewind();
+    }
+
+    private final int[] mNames = new int[1];
+    private final int[] mParams = new int[1];
+    private final float[] mClearColor = new float[4];
+
+    private int mFramebuffer = 0;
+    private int mColorTexture = 0;
+    private int mDepthRenderbuffer = 0;
+    private int mWidth = 0;
+    private int mHeight = 0;
+    private int mScaledWidth = 0;
+    private int mScaledHeight = 0;
+    private boolean mIsUnsupported = false;
+
+    private int mShaderProgramID = 0;
+    private int mVertexHandle = 0;
+    private int mTexScaleHandle = 0;
+    private int mTexSamplerHandle = 0;
+
+
+    // The names died with the previous context and must not be deleted
+    void onSurfaceCreated()
+    {
+        mFramebuffer = mColorTexture = mDepthRenderbuffer = 0;
+        mWidth = mHeight = 0;
+        mShaderProgramID = 0;
+        mIsUnsupported = false;
+    }
+
+
+    // Binds the framebuffer to draw width x height pixels reduced by scale, and clears
+    // it. Returns false, with the default framebuffer still bound, if it cannot be used
+    boolean bind(int width, int height, float scale)
+    {
+        if (mIsUnsupported || width <= 0 || height <= 0)
+        {
+            return false;
+        }
+
+        if (mFramebuffer == 0 || width != mWidth || height != mHeight)
+        {
+            release();
+            if (!allocate(width, height))
+            {
+                release();
+                mIsUnsupported = true;
+                return false;
+            }
+        }
+
+        mScaledWidth = Math.max(1, Math.round(width * scale));
+        mScaledHeight = Math.max(1, Math.round(height * scale));
+
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, mFramebuffer);
+        GLES20.glViewport(0, 0, mScaledWidth, mScaledHeight);
+        GLES20.glScissor(0, 0, mScaledWidth, mScaledHeight);
+
+        // Transparent where nothing is drawn, the renderer's clear color is for the screen
+        GLES20.glDisable(GLES20.GL_SCISSOR_TEST);
+        GLES20.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
+        GLES20.glClearColor(mClearColor[0], mClearColor[1], mClearColor[2], mClearColor[3]);
+        return true;
+    }
+
+
+    // Binds the default framebuffer again and draws what was drawn since bind() over it
+    void composite(int[] viewport)
+    {
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0);
+        GLES20.glViewport(viewport[0], viewport[1], viewport[2], viewport[3]);
+        GLES20.glScissor(viewport[0], viewport[1], viewport[2], viewport[3]);
+
+        GLES20.glDisable(GLES20.GL_DEPTH_TEST);
+        GLES20.glDisable(GLES20.GL_CULL_FACE);
+        GLES20.glDisable(GLES20.GL_SCISSOR_TEST);
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+
+        GLES20.glUseProgram(mShaderProgramID);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mColorTexture);
+        GLES20.glUniform1i(mTexSamplerHandle, 0);
+        GLES20.glUniform2f(mTexScaleHandle, mScaledWidth / (float) mWidth, mScaledHeight / (float) mHeight);
+
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        GLES20.glVertexAttribPointer(mVertexHandle, 2, GLES20.GL_FLOAT, false, 0, QUAD_VERTICES);
+        GLES20.glEnableVertexAttribArray(mVertexHandle);
+        GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, 4);
+        GLES20.glDisableVertexAttribArray(mVertexHandle);
+
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+        GLES20.glDisable(GLES20.GL_BLEND);
+        GLES20.glUseProgram(0);
+
+        SampleUtils.checkGLError("Compositing of the offscreen target failed");
+    }
+
+
+    // Deletes the framebuffer, it is allocated again by the next bind()
+    void release()
+    {
+        if (mFramebuffer != 0)
+        {
+            mNames[0] = mFramebuffer;
+            GLES20.glDeleteFramebuffers(1, mNames, 0);
+        }
+
+        if (mColorTexture != 0)
+        {
+            mNames[0] = mColorTexture;
+            GLES20.glDeleteTextures(1, mNames, 0);
+        }
+
+        if (mDepthRenderbuffer != 0)
+        {
+            mNames[0] = mDepthRenderbuffer;
+            GLES20.glDeleteRenderbuffers(1, mNames, 0);
+        }
+
+        mFramebuffer = mColorTexture = mDepthRenderbuffer = 0;
+        mWidth = mHeight = 0;
+    }
+
+
+    private boolean allocate(int width, int height)
+    {
+        GLES20.glGetIntegerv(GLES20.GL_MAX_TEXTURE_SIZE, mParams, 0);
+        if (width > mParams[0] || height > mParams[0])
+        {
+            Log.e(LOGTAG, "Viewport of " + width + "x" + height + " exceeds the maximum texture size " + mParams[0]);
+            return false;
+        }
+
+        if (mShaderProgramID == 0)
+        {
+            mShaderProgramID = SampleUtils.createProgramFromShaderSrc(
+                    OffscreenCompositeShader.COMPOSITE_VERTEX_SHADER,
+                    OffscreenCompositeShader.COMPOSITE_FRAGMENT_SHADER);
+            if (mShaderProgramID <= 0)
+            {
+                mShaderProgramID = 0;
+                return false;
+            }
+
+            mVertexHandle = SampleUtils.getAttribLocation(mShaderProgramID, "vertexPosition");
+            mTexScaleHandle = SampleUtils.getUniformLocation(mShaderProgramID, "texScale");
+            mTexSamplerHandle = SampleUtils.getUniformLocation(mShaderProgramID, "texSampler2D");
+        }
+
+        // The renderers set their clear color once, it is put back after clearing the target
+        GLES20.glGetFloatv(GLES20.GL_COLOR_CLEAR_VALUE, mClearColor, 0);
+
+        GLES20.glGenTextures(1, mNames, 0);
+        mColorTexture = mNames[0];
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mColorTexture);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, width, height, 0,
+                GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, null);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+
+        GLES20.glGenRenderbuffers(1, mNames, 0);
+        mDepthRenderbuffer = mNames[0];
+        GLES20.glBindRenderbuffer(GLES20.GL_RENDERBUFFER, mDepthRenderbuffer);
+        GLES20.glRenderbufferStorage(GLES20.GL_RENDERBUFFER, GLES20.GL_DEPTH_COMPONENT16, width, height);
+        GLES20.glBindRenderbuffer(GLES20.GL_RENDERBUFFER, 0);
+
+        GLES20.glGenFramebuffers(1, mNames, 0);
+        mFramebuffer = mNames[0];
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, mFramebuffer);
+        GLES20.glFramebufferTexture2D(GLES20.GL_FRAMEBUFFER, GLES20.GL_COLOR_ATTACHMENT0,
+                GLES20.GL_TEXTURE_2D, mColorTexture, 0);
+        GLES20.glFramebufferRenderbuffer(GLES20.GL_FRAMEBUFFER, GLES20.GL_DEPTH_ATTACHMENT,
+                GLES20.GL_RENDERBUFFER, mDepthRenderbuffer);
+
+        int status = GLES20.glCheckFramebufferStatus(GLES20.GL_FRAMEBUFFER);
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0);
+
+        if (status != GLES20.GL_FRAMEBUFFER_COMPLETE)
+        {
+            Log.e(LOGTAG, "Offscreen framebuffer incomplete, status 0x" + Integer.toHexString(status));
+            return false;
+        }
+
+        mWidth = width;
+        mHeight = height;
+        Log.d(LOGTAG, "Allocated offscreen target of " + width + "x" + height);
+        return true;
+    }
+}
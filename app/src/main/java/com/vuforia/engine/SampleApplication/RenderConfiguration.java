@@ -0,0 +1,227 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication;
+
+import com.vuforia.RenderingPrimitives;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Everything SampleAppRenderer needs to know about the screen to render a
+ * frame: the rendering primitives and the viewport read from them, the near
+ * and far planes of the projection, the screen size and orientation, and
+ * whether the renderer is active
+ *
+ * A configuration never changes. The with*() methods return a copy with the
+ * next version number, which SampleAppRenderer publishes through an atomic
+ * reference. The rendering thread reads the reference once per frame and so
+ * always sees values that belong together, whichever thread changed them and
+ * without taking a lock. The version tells whether anything changed since a
+ * frame rendered before. update() applies a change to the latest
+ * configuration with a compare-and-set, so that changes made at the same
+ * time by several threads are all kept.
+ *
+ * The primitives are null until they are first fetched
+ */
+public final class RenderConfiguration
+{
+    // A change to the configuration. Applied again when another thread published a
+    // configuration in between, so it must only depend on the one it is given
+    public interface Change
+    {
+        // Returns the changed configuration, or current itself to leave it as it is
+        RenderConfiguration apply(RenderConfiguration current);
+    }
+
+    private final long mVersion;
+
+    private final RenderingPrimitives mRenderingPrimitives;
+    private final int mViewportX;
+    private final int mViewportY;
+    private final int mViewportWidth;
+    private final int mViewportHeight;
+
+    private final float mNearPlane;
+    private final float mFarPlane;
+
+    private final int mScreenWidth;
+    private final int mScreenHeight;
+    private final boolean mIsPortrait;
+
+    private final boolean mIsActive;
+
+
+    // The configuration before the screen is known, version 0
+    public RenderConfiguration(float nearPlane, float farPlane)
+    {
+        this(0, null, 0, 0, 0, 0, nearPlane, farPlane, 0, 0, false, false);
+    }
+
+
+    private RenderConfiguration(long version, RenderingPrimitives renderingPrimitives,
+                                int viewportX, int viewportY, int viewportWidth, int viewportHeight,
+                                float nearPlane, float farPlane,
+                                int screenWidth, int screenHeight, boolean isPortrait,
+                                boolean isActive)
+    {
+        mVersion = version;
+        mRenderingPrimitives = renderingPrimitives;
+        mViewportX = viewportX;
+        mViewportY = viewportY;
+        mViewportWidth = viewportWidth;
+        mViewportHeight = viewportHeight;
+        mNearPlane = nearPlane;
+        mFarPlane = farPlane;
+        mScreenWidth = screenWidth;
+        mScreenHeight = screenHeight;
+        mIsPortrait = isPortrait;
+        mIsActive = isActive;
+    }
+
+
+    // Publishes the change applied to the latest configuration of the reference, retrying
+    // until no other thread published one in between. Returns the configuration the change
+    // was applied to, the one it replaced unless the change left it as it was
+    public static RenderConfiguration update(AtomicReference<RenderConfiguration> reference, Change change)
+    {
+        RenderConfiguration current;
+        RenderConfiguration next;
+        do
+        {
+            current = reference.get();
+            next = change.apply(current);
+        }
+        while (next != current && !reference.compareAndSet(current, next));
+
+        return current;
+    }
+
+
+    // The viewport holds x, y, width and height, as read from the primitives
+    public RenderConfiguration withRenderingPrimitives(RenderingPrimitives renderingPrimitives,
+                                                       int[] viewport)
+    {
+        return new RenderConfiguration(mVersion + 1, renderingPrimitives,
+                viewport[0], viewport[1], viewport[2], viewport[3],
+                mNearPlane, mFarPlane, mScreenWidth, mScreenHeight, mIsPortrait, mIsActive);
+    }
+
+
+    public RenderConfiguration withScreen(int screenWidth, int screenHeight, boolean isPortrait)
+    {
+        return new RenderConfiguration(mVersion + 1, mRenderingPrimitives,
+                mViewportX, mViewportY, mViewportWidth, mViewportHeight,
+                mNearPlane, mFarPlane, screenWidth, screenHeight, isPortrait, mIsActive);
+    }
+
+
+    public RenderConfiguration withActive(boolean isActive)
+    {
+        return new RenderConfiguration(mVersion + 1, mRenderingPrimitives,
+                mViewportX, mViewportY, mViewportWidth, mViewportHeight,
+                mNearPlane, mFarPlane, mScreenWidth, mScreenHeight, mIsPortrait, isActive);
+    }
+
+
+    // Same values, next version. Marks a change the values do not show, e.g. of the
+    // video background configuration
+    public RenderConfiguration withNextVersion()
+    {
+        return new RenderConfiguration(mVersion + 1, mRenderingPrimitives,
+                mViewportX, mViewportY, mViewportWidth, mViewportHeight,
+                mNearPlane, mFarPlane, mScreenWidth, mScreenHeight, mIsPortrait, mIsActive);
+    }
+
+
+    // Increases with every change
+    public long getVersion()
+    {
+        return mVersion;
+    }
+
+
+    public RenderingPrimitives getRenderingPrimitives()
+    {
+        return mRenderingPrimitives;
+    }
+
+
+    public boolean hasRenderingPrimitives()
+    {
+        return mRenderingPrimitives != null;
+    }
+
+
+    // Writes x, y, width and height
+    public void getViewport(int[] viewport)
+    {
+        viewport[0] = mViewportX;
+        viewport[1] = mViewportY;
+        viewport[2] = mViewportWidth;
+        viewport[3] = mViewportHeight;
+    }
+
+
+    public int getViewportWidth()
+    {
+        return mViewportWidth;
+    }
+
+
+    public int getViewportHeight()
+    {
+        return mViewportHeight;
+    }
+
+
+    public float getNearPlane()
+    {
+        return mNearPlane;
+    }
+
+
+    public float getFarPlane()
+    {
+        return mFarPlane;
+    }
+
+
+    public int getScreenWidth()
+    {
+        return mScreenWidth;
+    }
+
+
+    public int getScreenHeight()
+    {
+        return mScreenHeight;
+    }
+
+
+    public boolean isPortrait()
+    {
+        return mIsPortrait;
+    }
+
+
+    public boolean isActive()
+    {
+        return mIsActive;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "RenderConfiguration v" + mVersion
+                + " viewport (" + mViewportX + ", " + mViewportY + ", " + mViewportWidth + ", " + mViewportHeight + ")"
+                + " screen (" + mScreenWidth + ", " + mScreenHeight + ")"
+                + (mIsPortrait ? " portrait" : " landscape")
+                + (mIsActive ? " active" : " inactive");
+    }
+}
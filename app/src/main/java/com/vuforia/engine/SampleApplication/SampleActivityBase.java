@@ -14,6 +14,13 @@ import android.content.Context;
 import android.hardware.display.DisplayManager;
 import android.os.Build;
 import android.os.Bundle;
+import android.view.MotionEvent;
+
+import com.vuforia.engine.SampleApplication.utils.SampleAssetCache;
+import com.vuforia.engine.SampleApplication.utils.SampleAssetReader;
+import com.vuforia.engine.SampleApplication.utils.ShaderProgramRegistry;
+
+import java.io.File;
 
 
 public abstract class SampleActivityBase extends Activity
@@ -25,11 +32,31 @@ public abstract class SampleActivityBase extends Activity
 
     protected SampleRendererBase mBaseRenderer;
 
+    // Posted after touch events, so that it runs after the clicks they trigger
+    private final Runnable mInvalidateFrame = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            if (mBaseRenderer != null)
+            {
+                mBaseRenderer.invalidateFrame();
+            }
+        }
+    };
+
     @Override
     protected void onCreate(Bundle savedInstanceState)
     {
         super.onCreate(savedInstanceState);
 
+        // Decoded assets are kept between samples, and released under memory pressure
+        SampleAssetCache.registerComponentCallbacks(this);
+        SampleAssetReader.setApplicationAssets(getApplicationContext().getAssets());
+
+        // Linked shader programs are saved there and reused on the next launch
+        ShaderProgramRegistry.getInstance().setBinaryCacheDir(new File(getCacheDir(), "shaders"));
+
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
         {
             mDisplayListener = new DisplayManager.DisplayListener()
@@ -102,6 +129,17 @@ public abstract class SampleActivityBase extends Activity
     }
 
 
+    // Gestures, buttons and menu entries change what is drawn without a new camera frame,
+    // which matters when the view renders on demand
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent event)
+    {
+        boolean isHandled = super.dispatchTouchEvent(event);
+        getWindow().getDecorView().post(mInvalidateFrame);
+        return isHandled;
+    }
+
+
     private int getDeviceOrientation()
     {
         return getWindowManager().getDefaultDisplay().getRotation();
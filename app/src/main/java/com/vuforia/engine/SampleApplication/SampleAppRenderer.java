@@ -19,7 +19,6 @@ import com.vuforia.CameraDevice;
 import com.vuforia.Device;
 import com.vuforia.GLTextureUnit;
 import com.vuforia.Matrix34F;
-import com.vuforia.Mesh;
 import com.vuforia.Renderer;
 import com.vuforia.RenderingPrimitives;
 import com.vuforia.State;
@@ -27,13 +26,20 @@ import com.vuforia.Tool;
 import com.vuforia.TrackerManager;
 import com.vuforia.VIEW;
 import com.vuforia.Vec2I;
-import com.vuforia.Vec4I;
 import com.vuforia.VideoBackgroundConfig;
 import com.vuforia.VideoMode;
+import com.vuforia.engine.SampleApplication.utils.SampleGLES20;
+import com.vuforia.engine.SampleApplication.utils.FramePacer;
+import com.vuforia.engine.SampleApplication.utils.FramePreparer;
+import com.vuforia.engine.SampleApplication.utils.FrameTimingOverlay;
+import com.vuforia.engine.SampleApplication.utils.FrameTimingRecorder;
+import com.vuforia.engine.SampleApplication.utils.GpuFrameTimeEstimator;
+import com.vuforia.engine.SampleApplication.utils.RenderScaleController;
 import com.vuforia.engine.SampleApplication.utils.SampleUtils;
 import com.vuforia.engine.SampleApplication.utils.VideoBackgroundShader;
 
 import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
@@ -49,15 +55,16 @@ public class SampleAppRenderer
 {
     private static final String LOGTAG = "SampleAppRenderer";
 
-    private RenderingPrimitives mRenderingPrimitives = null;
+    // Primitives, viewport, planes, screen and whether the renderer is active. Replaced as a
+    // whole by any thread, read once per frame by the GL thread
+    private final AtomicReference<RenderConfiguration> mConfiguration;
+
     private final SampleAppRendererControl mRenderingInterface;
     private final WeakReference<Activity> mActivityRef;
 
     private int mVideoMode;
 
     private final Renderer mRenderer;
-    private float mNearPlane = -1.0f;
-    private float mFarPlane = -1.0f;
 
     private GLTextureUnit videoBackgroundTex = null;
 
@@ -68,16 +75,33 @@ public class SampleAppRenderer
     private int vbTexCoordHandle = 0;
     private int vbProjectionMatrixHandle = 0;
 
-    // Display size of the device:
-    private int mScreenWidth = 0;
-    private int mScreenHeight = 0;
-
-    // Stores orientation
-    private boolean mIsPortrait = false;
-    private boolean mIsActive = false;
+    // Viewport of the frame being rendered, GL thread only
+    private final int[] mViewport = new int[4];
 
     private boolean mIsRenderingInit = false;
 
+    // Per-stage timings of every frame rendered by render()
+    private final FrameTimingRecorder mFrameTimingRecorder = new FrameTimingRecorder();
+    private FrameTimingOverlay mFrameTimingOverlay = null;
+
+    // Viewport and video background values, only read again when the primitives change
+    private final VideoBackgroundCache mVideoBackgroundCache =
+            new VideoBackgroundCache(SampleGLES20.getInstance());
+
+    // Augmentations drawn at a resolution that follows the frame time, off by default
+    private volatile boolean mIsDynamicResolutionEnabled = false;
+    private volatile float mRenderScale = 1.0f;
+    private final RenderScaleController mRenderScaleController = new RenderScaleController();
+    private final GpuFrameTimeEstimator mGpuFrameTimeEstimator =
+            new GpuFrameTimeEstimator(mRenderScaleController.getTargetFrameTime());
+    private volatile FramePacer mFramePacer = null;
+
+    // Set by the renderers that prepare their frames off the rendering thread
+    private volatile FramePreparer<State> mFramePreparer = null;
+    private final OffscreenRenderTarget mOffscreenTarget = new OffscreenRenderTarget();
+    private boolean mIsOffscreenTargetUsed = false;
+    private boolean mIsOffscreenTargetBound = false;
+
 
     public SampleAppRenderer(SampleAppRendererControl renderingInterface, Activity activity,
                              int videoMode, float nearPlane, float farPlane)
@@ -93,7 +117,7 @@ public class SampleAppRenderer
             throw new IllegalArgumentException();
         }
 
-        setNearFarPlanes(nearPlane, farPlane);
+        mConfiguration = new AtomicReference<>(new RenderConfiguration(nearPlane, farPlane));
 
         mVideoMode = videoMode;
     }
@@ -101,6 +125,8 @@ public class SampleAppRenderer
 
     void onSurfaceCreated()
     {
+        mVideoBackgroundCache.onSurfaceCreated();
+        mOffscreenTarget.onSurfaceCreated();
         initRendering();
     }
 
@@ -108,8 +134,7 @@ public class SampleAppRenderer
     // and we need to update the rendering primitives
     public void onConfigurationChanged()
     {
-        updateActivityOrientation();
-        storeScreenDimensions();
+        storeScreen();
 
         configureVideoBackground();
         updateRenderingPrimitives();
@@ -122,23 +147,68 @@ public class SampleAppRenderer
     }
 
 
-    public void setActive(boolean value)
+    public void setActive(final boolean value)
     {
-        if (mIsActive == value)
+        RenderConfiguration previous = RenderConfiguration.update(mConfiguration, new RenderConfiguration.Change()
         {
-            return;
+            @Override
+            public RenderConfiguration apply(RenderConfiguration current)
+            {
+                return current.isActive() == value ? current : current.withActive(value);
+            }
+        });
+
+        if (previous.isActive() != value)
+        {
+            configureVideoBackground();
         }
+    }
 
-        mIsActive = value;
-        configureVideoBackground();
+
+    // May be called from any thread, the next frame renders with the new primitives
+    public void updateRenderingPrimitives()
+    {
+        final RenderingPrimitives renderingPrimitives = Device.getInstance().getRenderingPrimitives();
+        final int[] viewport = renderingPrimitives.getViewport(VIEW.VIEW_SINGULAR).getData();
+
+        RenderConfiguration.update(mConfiguration, new RenderConfiguration.Change()
+        {
+            @Override
+            public RenderConfiguration apply(RenderConfiguration current)
+            {
+                return current.withRenderingPrimitives(renderingPrimitives, viewport);
+            }
+        });
     }
 
 
-    public synchronized void updateRenderingPrimitives()
+    // The latest configuration, may be called from any thread
+    public RenderConfiguration getRenderConfiguration()
     {
-        mRenderingPrimitives = Device.getInstance().getRenderingPrimitives();
+        return mConfiguration.get();
     }
 
+
+    // Writes the projection matrix render() would use for the state, so that frames can be
+    // prepared on another thread. Returns false before the rendering primitives are set
+    public boolean getProjectionMatrix(State state, float[] projectionMatrix)
+    {
+        RenderConfiguration configuration = mConfiguration.get();
+        RenderingPrimitives renderingPrimitives = configuration.getRenderingPrimitives();
+        if (renderingPrimitives == null)
+        {
+            return false;
+        }
+
+        Matrix34F projMatrix = renderingPrimitives.getProjectionMatrix(VIEW.VIEW_SINGULAR,
+                state.getCameraCalibration());
+        float[] data = Tool.convertPerspectiveProjection2GLMatrix(projMatrix,
+                configuration.getNearPlane(), configuration.getFarPlane()).getData();
+        System.arraycopy(data, 0, projectionMatrix, 0, data.length);
+        return true;
+    }
+
+
     // Initializes shader
     private void initRendering()
     {
@@ -152,15 +222,15 @@ public class SampleAppRenderer
             GLES20.glUseProgram(vbShaderProgramID);
 
             // Retrieve handler for texture sampler shader uniform variable:
-            vbTexSampler2DHandle = GLES20.glGetUniformLocation(vbShaderProgramID, "texSampler2D");
+            vbTexSampler2DHandle = SampleUtils.getUniformLocation(vbShaderProgramID, "texSampler2D");
 
             // Retrieve handler for projection matrix shader uniform variable:
-            vbProjectionMatrixHandle = GLES20.glGetUniformLocation(vbShaderProgramID, "projectionMatrix");
+            vbProjectionMatrixHandle = SampleUtils.getUniformLocation(vbShaderProgramID, "projectionMatrix");
 
-            vbVertexHandle = GLES20.glGetAttribLocation(vbShaderProgramID, "vertexPosition");
-            vbTexCoordHandle = GLES20.glGetAttribLocation(vbShaderProgramID, "vertexTexCoord");
-            vbProjectionMatrixHandle = GLES20.glGetUniformLocation(vbShaderProgramID, "projectionMatrix");
-            vbTexSampler2DHandle = GLES20.glGetUniformLocation(vbShaderProgramID, "texSampler2D");
+            vbVertexHandle = SampleUtils.getAttribLocation(vbShaderProgramID, "vertexPosition");
+            vbTexCoordHandle = SampleUtils.getAttribLocation(vbShaderProgramID, "vertexTexCoord");
+            vbProjectionMatrixHandle = SampleUtils.getUniformLocation(vbShaderProgramID, "projectionMatrix");
+            vbTexSampler2DHandle = SampleUtils.getUniformLocation(vbShaderProgramID, "texSampler2D");
 
             // Stop using the program
             GLES20.glUseProgram(0);
@@ -174,55 +244,212 @@ public class SampleAppRenderer
     // and call any specific rendering method
     public void render()
     {
-        if (!mIsActive)
+        // Read once, so that the whole frame uses values that belong together
+        RenderConfiguration configuration = mConfiguration.get();
+        if (!configuration.isActive() || !configuration.hasRenderingPrimitives())
         {
             return;
         }
 
+        mFrameTimingRecorder.beginFrame();
+        updateRenderScale();
+
         GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
 
-        // Get our current state
-        State state;
-        state = TrackerManager.getInstance().getStateUpdater().updateState();
+        // Get our current state. With a frame preparer, the state the latest snapshot was
+        // prepared from, so that the video background is of the camera frame the
+        // augmentations were placed on
+        mFrameTimingRecorder.beginStage(FrameTimingRecorder.STAGE_UPDATE_STATE);
+        State state = null;
+        FramePreparer<State> framePreparer = mFramePreparer;
+        if (framePreparer != null)
+        {
+            framePreparer.acquireSnapshot();
+            state = framePreparer.getAcquiredFrame();
+        }
+        if (state == null)
+        {
+            state = TrackerManager.getInstance().getStateUpdater().updateState();
+        }
+        mFrameTimingRecorder.endStage(FrameTimingRecorder.STAGE_UPDATE_STATE);
         mRenderer.begin(state);
 
+        // Refresh the cached video background if the configuration changed
+        mVideoBackgroundCache.update(configuration);
+        RenderingPrimitives renderingPrimitives = configuration.getRenderingPrimitives();
+
         GLES20.glFrontFace(GLES20.GL_CCW);  // Back camera
 
         // Get the viewport for that specific view
-        Vec4I viewport;
-        viewport = mRenderingPrimitives.getViewport(VIEW.VIEW_SINGULAR);
+        int[] viewport = mViewport;
+        configuration.getViewport(viewport);
 
         // Set viewport for current view
-        GLES20.glViewport(viewport.getData()[0], viewport.getData()[1], viewport.getData()[2], viewport.getData()[3]);
+        GLES20.glViewport(viewport[0], viewport[1], viewport[2], viewport[3]);
 
         // Set scissor
-        GLES20.glScissor(viewport.getData()[0], viewport.getData()[1], viewport.getData()[2], viewport.getData()[3]);
+        GLES20.glScissor(viewport[0], viewport[1], viewport[2], viewport[3]);
 
         // Get projection matrix for the current view.
-        Matrix34F projMatrix = mRenderingPrimitives.getProjectionMatrix(VIEW.VIEW_SINGULAR,
+        Matrix34F projMatrix = renderingPrimitives.getProjectionMatrix(VIEW.VIEW_SINGULAR,
                                                                         state.getCameraCalibration());
 
         // Create GL matrix setting up the near and far planes
         float[] projectionMatrix = Tool.convertPerspectiveProjection2GLMatrix(
                 projMatrix,
-                mNearPlane,
-                mFarPlane)
+                configuration.getNearPlane(),
+                configuration.getFarPlane())
                 .getData();
 
+        mFrameTimingRecorder.beginStage(FrameTimingRecorder.STAGE_RENDER_FRAME);
         mRenderingInterface.renderFrame(state, projectionMatrix);
+        if (mIsOffscreenTargetBound)
+        {
+            SampleGLES20.getInstance().setAlphaAccumulated(false);
+            mOffscreenTarget.composite(viewport);
+            mIsOffscreenTargetBound = false;
+        }
+        mFrameTimingRecorder.endStage(FrameTimingRecorder.STAGE_RENDER_FRAME);
 
+        mFrameTimingRecorder.beginStage(FrameTimingRecorder.STAGE_RENDERER_END);
         mRenderer.end();
+        mFrameTimingRecorder.endStage(FrameTimingRecorder.STAGE_RENDERER_END);
+
+        mFrameTimingRecorder.endFrame();
+
+        if (mIsOffscreenTargetUsed)
+        {
+            mGpuFrameTimeEstimator.onFrameEnd(System.nanoTime());
+        }
     }
 
 
-    private void setNearFarPlanes(float near, float far)
+    // Timings of the frames rendered so far, can be read from any thread
+    public FrameTimingRecorder getFrameTimingRecorder()
     {
-        mNearPlane = near;
-        mFarPlane = far;
+        return mFrameTimingRecorder;
+    }
+
+
+    // Shows or hides the on-screen frame timings, off by default
+    public void setFrameTimingOverlayVisible(boolean visible)
+    {
+        if (mFrameTimingOverlay == null)
+        {
+            if (!visible || mActivityRef.get() == null)
+            {
+                return;
+            }
+
+            mFrameTimingOverlay = new FrameTimingOverlay(mActivityRef.get(), mFrameTimingRecorder);
+        }
+
+        if (visible)
+        {
+            mFrameTimingOverlay.show();
+        }
+        else
+        {
+            mFrameTimingOverlay.hide();
+        }
+    }
+
+
+    // Draws the augmentations into an offscreen target whose resolution is lowered
+    // when the GPU takes longer than the camera frame period to draw a frame, then over the video
+    // background. Renderers draw as usual after renderVideoBackground(). May be called
+    // from any thread, takes effect on the next frame
+    public void setDynamicResolutionEnabled(boolean enabled)
+    {
+        mIsDynamicResolutionEnabled = enabled;
+    }
+
+
+    public boolean isDynamicResolutionEnabled()
+    {
+        return mIsDynamicResolutionEnabled;
+    }
+
+
+    // Share of the width and height of the viewport the augmentations are drawn at
+    public float getRenderScale()
+    {
+        return mRenderScale;
+    }
+
+
+    // Pacer of the view rendering on demand, so that the time a frame waited for the
+    // next camera frame is not taken for GPU time. May be called from any thread
+    public void setFramePacer(FramePacer framePacer)
+    {
+        mFramePacer = framePacer;
+    }
+
+
+    // render() acquires the latest snapshot of the preparer before renderFrame(), which reads
+    // it with FramePreparer.getAcquiredSnapshot(), and draws the frame of the state it was
+    // prepared from. Until the first snapshot, the frame of the current state is drawn
+    public void setFramePreparer(FramePreparer<State> framePreparer)
+    {
+        mFramePreparer = framePreparer;
+    }
+
+
+    // Releases the offscreen target once dynamic resolution is turned off
+    private void updateRenderScale()
+    {
+        if (!mIsDynamicResolutionEnabled)
+        {
+            if (mIsOffscreenTargetUsed)
+            {
+                mOffscreenTarget.release();
+                mRenderScaleController.reset();
+                mGpuFrameTimeEstimator.reset();
+                mRenderScale = 1.0f;
+                mIsOffscreenTargetUsed = false;
+            }
+            return;
+        }
+
+        mIsOffscreenTargetUsed = true;
+        onFrameStart(System.nanoTime());
+    }
+
+
+    // Feeds the GPU time of the previous frame to the controller, the new scale is used from
+    // the next frame. What render() takes on the CPU would not do: GL calls only queue
+    // commands, and a scene slow on the CPU would lower the resolution for nothing
+    private void onFrameStart(long frameStart)
+    {
+        FramePacer framePacer = mFramePacer;
+        long readyTime = framePacer != null ? framePacer.getFrameReadyTime() : FramePacer.NOT_REQUESTED;
+
+        long gpuFrameTime = mGpuFrameTimeEstimator.onFrameStart(frameStart,
+                readyTime == FramePacer.NOT_REQUESTED ? GpuFrameTimeEstimator.NOT_PACED : readyTime);
+        if (gpuFrameTime != GpuFrameTimeEstimator.NO_ESTIMATE && mRenderScaleController.onFrame(gpuFrameTime))
+        {
+            mRenderScale = mRenderScaleController.getScale();
+            Log.d(LOGTAG, "Render scale " + mRenderScale);
+        }
     }
 
 
     public void renderVideoBackground()
+    {
+        mFrameTimingRecorder.beginStage(FrameTimingRecorder.STAGE_VIDEO_BACKGROUND);
+        drawVideoBackground();
+        mFrameTimingRecorder.endStage(FrameTimingRecorder.STAGE_VIDEO_BACKGROUND);
+
+        // The augmentations drawn next go to the offscreen target, render() composites them
+        if (mIsOffscreenTargetUsed && !mIsOffscreenTargetBound)
+        {
+            mIsOffscreenTargetBound = mOffscreenTarget.bind(mViewport[2], mViewport[3], mRenderScale);
+            SampleGLES20.getInstance().setAlphaAccumulated(mIsOffscreenTargetBound);
+        }
+    }
+
+
+    private void drawVideoBackground()
     {
         // Bind the video bg texture and get the Texture ID from Vuforia Engine
         int vbVideoTextureUnit = 0;
@@ -234,37 +461,32 @@ public class SampleAppRenderer
             return;
         }
 
-        float[] vbProjectionMatrix = Tool.convert2GLMatrix(
-                mRenderingPrimitives.getVideoBackgroundProjectionMatrix(VIEW.VIEW_SINGULAR)).getData();
+        if (!mVideoBackgroundCache.hasMesh())
+        {
+            return;
+        }
+
+        // The projection and the mesh buffers are cached by mVideoBackgroundCache
+        float[] vbProjectionMatrix = mVideoBackgroundCache.getProjectionMatrix();
 
         GLES20.glDisable(GLES20.GL_DEPTH_TEST);
         GLES20.glDisable(GLES20.GL_CULL_FACE);
         GLES20.glDisable(GLES20.GL_SCISSOR_TEST);
 
-        Mesh vbMesh = mRenderingPrimitives.getVideoBackgroundMesh(VIEW.VIEW_SINGULAR);
-
-        // Load the shader and upload the vertex/texcoord/index data
+        // Load the shader and bind the vertex/texcoord/index buffers
         GLES20.glUseProgram(vbShaderProgramID);
-        GLES20.glVertexAttribPointer(vbVertexHandle, 3, GLES20.GL_FLOAT, false, 0, vbMesh.getPositions().asFloatBuffer());
-        GLES20.glVertexAttribPointer(vbTexCoordHandle, 2, GLES20.GL_FLOAT, false, 0, vbMesh.getUVs().asFloatBuffer());
+        mVideoBackgroundCache.bind(vbVertexHandle, vbTexCoordHandle);
 
         GLES20.glUniform1i(vbTexSampler2DHandle, vbVideoTextureUnit);
 
-        // Render the video background with the custom shader
-        // First, we enable the vertex arrays
-        GLES20.glEnableVertexAttribArray(vbVertexHandle);
-        GLES20.glEnableVertexAttribArray(vbTexCoordHandle);
-
         // Pass the projection matrix to OpenGL
         GLES20.glUniformMatrix4fv(vbProjectionMatrixHandle, 1, false, vbProjectionMatrix, 0);
 
-        // Then, we issue the render call
-        GLES20.glDrawElements(GLES20.GL_TRIANGLES, vbMesh.getNumTriangles() * 3, GLES20.GL_UNSIGNED_SHORT,
-                vbMesh.getTriangles().asShortBuffer());
+        // Render the video background with the custom shader
+        mVideoBackgroundCache.draw();
 
         // Finally, we disable the vertex arrays
-        GLES20.glDisableVertexAttribArray(vbVertexHandle);
-        GLES20.glDisableVertexAttribArray(vbTexCoordHandle);
+        mVideoBackgroundCache.unbind(vbVertexHandle, vbTexCoordHandle);
 
         SampleUtils.checkGLError("Rendering of the video background failed");
     }
@@ -273,11 +495,15 @@ public class SampleAppRenderer
     // Configures the video mode and sets offsets for the camera's image
     private void configureVideoBackground()
     {
-        if (!mIsActive)
+        RenderConfiguration configuration = mConfiguration.get();
+        if (!configuration.isActive())
         {
             return;
         }
 
+        int screenWidth = configuration.getScreenWidth();
+        int screenHeight = configuration.getScreenHeight();
+
         CameraDevice cameraDevice = CameraDevice.getInstance();
         VideoMode vm = cameraDevice.getVideoMode(mVideoMode);
 
@@ -295,72 +521,90 @@ public class SampleAppRenderer
         // preserve the height and scale width and vice versa if it is landscape, we preserve
         // the width and we check if the selected values fill the screen, otherwise we invert
         // the selection
-        if (mIsPortrait)
+        if (configuration.isPortrait())
         {
-            xSize = (int) (vm.getHeight() * (mScreenHeight / (float) vm
+            xSize = (int) (vm.getHeight() * (screenHeight / (float) vm
                     .getWidth()));
-            ySize = mScreenHeight;
+            ySize = screenHeight;
 
-            if (xSize < mScreenWidth)
+            if (xSize < screenWidth)
             {
-                xSize = mScreenWidth;
-                ySize = (int) (mScreenWidth * (vm.getWidth() / (float) vm
+                xSize = screenWidth;
+                ySize = (int) (screenWidth * (vm.getWidth() / (float) vm
                         .getHeight()));
             }
         }
         else
         {
-            xSize = mScreenWidth;
-            ySize = (int) (vm.getHeight() * (mScreenWidth / (float) vm
+            xSize = screenWidth;
+            ySize = (int) (vm.getHeight() * (screenWidth / (float) vm
                     .getWidth()));
 
-            if (ySize < mScreenHeight)
+            if (ySize < screenHeight)
             {
-                xSize = (int) (mScreenHeight * (vm.getWidth() / (float) vm
+                xSize = (int) (screenHeight * (vm.getWidth() / (float) vm
                         .getHeight()));
-                ySize = mScreenHeight;
+                ySize = screenHeight;
             }
         }
 
         config.setSize(new Vec2I(xSize, ySize));
 
         Log.i(LOGTAG, "Configure Video Background : Video (" + vm.getWidth()
-                + " , " + vm.getHeight() + "), Screen (" + mScreenWidth + " , "
-                + mScreenHeight + "), mSize (" + xSize + " , " + ySize + ")");
+                + " , " + vm.getHeight() + "), Screen (" + screenWidth + " , "
+                + screenHeight + "), mSize (" + xSize + " , " + ySize + ")");
 
         Renderer.getInstance().setVideoBackgroundConfig(config);
+
+        // The video background mesh and projection depend on this configuration
+        RenderConfiguration.update(mConfiguration, new RenderConfiguration.Change()
+        {
+            @Override
+            public RenderConfiguration apply(RenderConfiguration current)
+            {
+                return current.withNextVersion();
+            }
+        });
     }
 
 
-    private void storeScreenDimensions()
+    // Stores the display dimensions and the orientation depending on the current
+    // resources configuration
+    private void storeScreen()
     {
         // Query display dimensions:
         Point size = new Point();
         mActivityRef.get().getWindowManager().getDefaultDisplay().getRealSize(size);
-        mScreenWidth = size.x;
-        mScreenHeight = size.y;
-    }
 
+        final Configuration config = mActivityRef.get().getResources().getConfiguration();
+        final int screenWidth = size.x;
+        final int screenHeight = size.y;
 
-    // Stores the orientation depending on the current resources configuration
-    private void updateActivityOrientation()
-    {
-        Configuration config = mActivityRef.get().getResources().getConfiguration();
-
-        switch (config.orientation)
+        RenderConfiguration.update(mConfiguration, new RenderConfiguration.Change()
         {
-            case Configuration.ORIENTATION_PORTRAIT:
-                mIsPortrait = true;
-                break;
-            case Configuration.ORIENTATION_LANDSCAPE:
-                mIsPortrait = false;
-                break;
-            case Configuration.ORIENTATION_UNDEFINED:
-            default:
-                break;
-        }
+            @Override
+            public RenderConfiguration apply(RenderConfiguration current)
+            {
+                boolean isPortrait = current.isPortrait();
+
+                switch (config.orientation)
+                {
+                    case Configuration.ORIENTATION_PORTRAIT:
+                        isPortrait = true;
+                        break;
+                    case Configuration.ORIENTATION_LANDSCAPE:
+                        isPortrait = false;
+                        break;
+                    case Configuration.ORIENTATION_UNDEFINED:
+                    default:
+                        break;
+                }
+
+                return current.withScreen(screenWidth, screenHeight, isPortrait);
+            }
+        });
 
         Log.i(LOGTAG, "Activity is in "
-                + (mIsPortrait ? "PORTRAIT" : "LANDSCAPE"));
+                + (mConfiguration.get().isPortrait() ? "PORTRAIT" : "LANDSCAPE"));
     }
 }
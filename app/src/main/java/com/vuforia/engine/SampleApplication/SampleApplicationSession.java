@@ -27,6 +27,9 @@ import com.vuforia.TrackerManager;
 import com.vuforia.Vuforia;
 import com.vuforia.Vuforia.UpdateCallbackInterface;
 import com.vuforia.engine.CoreSamples.R;
+import com.vuforia.engine.SampleApplication.utils.FramePreparer;
+import com.vuforia.engine.SampleApplication.utils.FrameSnapshot;
+import com.vuforia.engine.SampleApplication.utils.SampleApplicationGLView;
 
 import java.lang.ref.WeakReference;
 
@@ -40,6 +43,12 @@ public class SampleApplicationSession implements UpdateCallbackInterface
 
     private WeakReference<Activity> mActivityRef;
     private final WeakReference<SampleApplicationControl> mSessionControlRef;
+
+    // Told about each camera frame when it renders on demand
+    private volatile WeakReference<SampleApplicationGLView> mGLViewRef = null;
+
+    // Given a copy of each state, the view is told about the frame once it is prepared
+    private volatile FramePreparer<State> mFramePreparer = null;
     
     // Vuforia Engine status flags
     private boolean mStarted = false;
@@ -212,6 +221,12 @@ public class SampleApplicationSession implements UpdateCallbackInterface
         mStarted = false;
         
         stopCamera();
+
+        FramePreparer<State> framePreparer = mFramePreparer;
+        if (framePreparer != null)
+        {
+            framePreparer.stop();
+        }
         
         // Ensure that all asynchronous operations to initialize Vuforia Engine
         // and loading the tracker datasets do not overlap:
@@ -330,6 +345,96 @@ public class SampleApplicationSession implements UpdateCallbackInterface
     public void Vuforia_onUpdate(State s)
     {
         mSessionControlRef.get().onVuforiaUpdate(s);
+
+        // After the activity, so that what it changed is in the frame that gets rendered
+        FramePreparer<State> framePreparer = mFramePreparer;
+        if (framePreparer != null)
+        {
+            // The state passed to the callback is only valid during the call. The copy is
+            // released once replaced by a newer one, or once the frame prepared from it is
+            // no longer drawn
+            framePreparer.submit(new StateCopy(s));
+        }
+        else
+        {
+            requestRender(s.getFrame().getTimeStamp());
+        }
+    }
+
+
+    private void requestRender(double timestamp)
+    {
+        WeakReference<SampleApplicationGLView> glViewRef = mGLViewRef;
+        SampleApplicationGLView glView = glViewRef != null ? glViewRef.get() : null;
+        if (glView != null && glView.isRenderOnDemand())
+        {
+            glView.onCameraFrame(timestamp);
+        }
+    }
+
+
+    // What is drawn changed without a new camera frame, e.g. after a touch or while an
+    // animation runs. May be called from any thread
+    public void invalidateFrame()
+    {
+        WeakReference<SampleApplicationGLView> glViewRef = mGLViewRef;
+        SampleApplicationGLView glView = glViewRef != null ? glViewRef.get() : null;
+        if (glView != null)
+        {
+            glView.invalidateFrame();
+        }
+    }
+
+
+    // Sets the view rendering the camera frames, for it to render on demand
+    public void setGLView(SampleApplicationGLView glView)
+    {
+        mGLViewRef = glView != null ? new WeakReference<>(glView) : null;
+    }
+
+
+    // Sets where the states go to be prepared off the rendering thread, and starts it.
+    // The view renders on demand once a frame is prepared rather than when it arrives
+    public void setFramePreparer(FramePreparer<State> framePreparer)
+    {
+        FramePreparer<State> previous = mFramePreparer;
+        if (previous != null && previous != framePreparer)
+        {
+            previous.stop();
+        }
+
+        if (framePreparer != null)
+        {
+            framePreparer.setListener(new FramePreparer.Listener()
+            {
+                @Override
+                public void onFramePrepared(FrameSnapshot snapshot)
+                {
+                    requestRender(snapshot.getTimestamp());
+                }
+
+
+                @Override
+                public void onFramePreparationFailed(RuntimeException exception)
+                {
+                    Log.e(LOGTAG, "Failed to prepare a frame", exception);
+                }
+            });
+            framePreparer.setReleaser(new FramePreparer.Releaser<State>()
+            {
+                @Override
+                public void releaseFrame(State frame)
+                {
+                    if (frame instanceof StateCopy)
+                    {
+                        ((StateCopy) frame).release();
+                    }
+                }
+            });
+            framePreparer.start();
+        }
+
+        mFramePreparer = framePreparer;
     }
     
     
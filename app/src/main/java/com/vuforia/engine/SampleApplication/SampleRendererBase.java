@@ -12,7 +12,16 @@ package com.vuforia.engine.SampleApplication;
 import android.opengl.GLSurfaceView;
 import android.util.Log;
 
+import com.vuforia.State;
+import com.vuforia.engine.SampleApplication.utils.DrawCommandBuffer;
+import com.vuforia.engine.SampleApplication.utils.FramePreparer;
+import com.vuforia.engine.SampleApplication.utils.MeshBufferCache;
+import com.vuforia.engine.SampleApplication.utils.SampleGLES20;
+import com.vuforia.engine.SampleApplication.utils.SampleGLStateCache;
+import com.vuforia.engine.SampleApplication.utils.ShaderProgramRegistry;
 import com.vuforia.engine.SampleApplication.utils.Texture;
+import com.vuforia.engine.SampleApplication.utils.VertexLayout;
+import com.vuforia.engine.SampleApplication.utils.ViewFrustum;
 
 import java.util.Vector;
 
@@ -27,6 +36,24 @@ public class SampleRendererBase implements GLSurfaceView.Renderer
     protected SampleApplicationSession vuforiaAppSession;
     protected Vector<Texture> mTextures;
 
+    // GPU copies of the meshes drawn by the renderer, interleaved with compact normals and
+    // tex coords that need no change to the shaders
+    protected final MeshBufferCache mMeshBufferCache = new MeshBufferCache(SampleGLES20.getInstance(),
+            MeshBufferCache.DEFAULT_MAX_BYTES, VertexLayout.COMPACT);
+
+    // Drops redundant state and uniform calls, call invalidate() after direct GLES20 calls
+    protected final SampleGLStateCache mGLState = new SampleGLStateCache(SampleGLES20.getInstance());
+
+    // Draws recorded while walking the trackable results, submitted sorted by state
+    protected final DrawCommandBuffer mDrawCommands = new DrawCommandBuffer();
+
+    // Set from the projection matrix on every frame, skips the meshes that are off-screen
+    protected final ViewFrustum mViewFrustum = new ViewFrustum();
+
+    // Set by the renderers that prepare their frames off the rendering thread, and given to
+    // SampleAppRenderer.setFramePreparer()
+    protected FramePreparer<State> mFramePreparer = null;
+
 
     @Override
     public void onSurfaceCreated(GL10 gl, EGLConfig config)
@@ -37,6 +64,11 @@ public class SampleRendererBase implements GLSurfaceView.Renderer
         // or after OpenGL ES context was lost (e.g. after onPause/onResume):
         vuforiaAppSession.onSurfaceCreated();
 
+        // Buffer objects of the previous context, if any, are gone
+        mMeshBufferCache.onSurfaceCreated();
+        ShaderProgramRegistry.getInstance().onContextCreated();
+        mGLState.reset();
+
         mSampleAppRenderer.onSurfaceCreated();
     }
 
@@ -66,4 +98,23 @@ public class SampleRendererBase implements GLSurfaceView.Renderer
     {
         mSampleAppRenderer.onConfigurationChanged();
     }
+
+
+    // Asks for another frame when the view renders on demand. Renderers call it from
+    // renderFrame() while an animation runs, so that it goes on without camera frames
+    public void invalidateFrame()
+    {
+        if (vuforiaAppSession != null)
+        {
+            vuforiaAppSession.invalidateFrame();
+        }
+    }
+
+
+    // Null if the renderer works from the state on the rendering thread, see
+    // SampleApplicationSession.setFramePreparer()
+    public FramePreparer<State> getFramePreparer()
+    {
+        return mFramePreparer;
+    }
 }
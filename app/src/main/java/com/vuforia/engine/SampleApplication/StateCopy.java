@@ -0,0 +1,32 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication;
+
+import com.vuforia.State;
+
+/**
+ * Copy of the State passed to Vuforia_onUpdate(), which is only valid during
+ * the call, that can be released as soon as it is no longer needed
+ *
+ * A State holds on to the camera frame and the tracking results in native
+ * memory, which would otherwise only be freed when the copy is finalized
+ */
+class StateCopy extends State
+{
+    StateCopy(State state)
+    {
+        super(state);
+    }
+
+
+    // Frees the native state, the copy must not be used afterwards
+    void release()
+    {
+        delete();
+    }
+}
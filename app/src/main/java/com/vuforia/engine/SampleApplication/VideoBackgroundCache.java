@@ -0,0 +1,247 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication;
+
+import android.opengl.GLES20;
+import android.util.Log;
+
+import com.vuforia.RenderingPrimitives;
+import com.vuforia.Tool;
+import com.vuforia.VIEW;
+import com.vuforia.engine.SampleApplication.utils.SampleGL;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the values SampleAppRenderer reads from the RenderingPrimitives on
+ * every frame: the video background projection and the video background mesh,
+ * the latter uploaded to buffer objects
+ *
+ * They only change when new RenderingPrimitives are fetched or the video
+ * background is configured, both of which publish a new RenderConfiguration.
+ * update() reads them again when the version of the configuration changed,
+ * and otherwise makes no call to Vuforia. Every value read through the
+ * Source is counted by getFetchCount().
+ *
+ * Must only be used from the GL thread, apart from getFetchCount()
+ */
+class VideoBackgroundCache
+{
+    private static final String LOGTAG = "VideoBackgroundCache";
+
+    private static final int POSITION_COMPONENTS = 3;
+    private static final int UV_COMPONENTS = 2;
+
+    private final SampleGL mGL;
+
+    // Version of the configuration the values were read from, -1 to read them again
+    private long mCachedVersion = -1;
+
+    private final AtomicLong mFetchCount = new AtomicLong(0);
+
+    private float[] mProjectionMatrix = new float[16];
+
+    private int mPositionBuffer = 0;
+    private int mUVBuffer = 0;
+    private int mIndexBuffer = 0;
+    private int mNumIndices = 0;
+
+
+    // The values of the video background, each call reads one of them from Vuforia
+    interface Source
+    {
+        float[] getProjectionMatrix();
+
+        ByteBuffer getPositions();
+
+        ByteBuffer getUVs();
+
+        ByteBuffer getTriangles();
+
+        int getNumTriangles();
+    }
+
+
+    // Reads the values from the RenderingPrimitives of a configuration
+    private static class PrimitivesSource implements Source
+    {
+        private final RenderingPrimitives mPrimitives;
+
+
+        PrimitivesSource(RenderingPrimitives primitives)
+        {
+            mPrimitives = primitives;
+        }
+
+
+        @Override
+        public float[] getProjectionMatrix()
+        {
+            return Tool.convert2GLMatrix(
+                    mPrimitives.getVideoBackgroundProjectionMatrix(VIEW.VIEW_SINGULAR)).getData();
+        }
+
+
+        @Override
+        public ByteBuffer getPositions()
+        {
+            return mPrimitives.getVideoBackgroundMesh(VIEW.VIEW_SINGULAR).getPositions();
+        }
+
+
+        @Override
+        public ByteBuffer getUVs()
+        {
+            return mPrimitives.getVideoBackgroundMesh(VIEW.VIEW_SINGULAR).getUVs();
+        }
+
+
+        @Override
+        public ByteBuffer getTriangles()
+        {
+            return mPrimitives.getVideoBackgroundMesh(VIEW.VIEW_SINGULAR).getTriangles();
+        }
+
+
+        @Override
+        public int getNumTriangles()
+        {
+            return mPrimitives.getVideoBackgroundMesh(VIEW.VIEW_SINGULAR).getNumTriangles();
+        }
+    }
+
+
+    VideoBackgroundCache(SampleGL gl)
+    {
+        mGL = gl;
+    }
+
+
+    // The buffer names died with the previous context and must not be deleted
+    void onSurfaceCreated()
+    {
+        mPositionBuffer = mUVBuffer = mIndexBuffer = 0;
+        mNumIndices = 0;
+        mCachedVersion = -1;
+    }
+
+
+    // Reads the primitives again if the configuration changed since the last call
+    void update(RenderConfiguration configuration)
+    {
+        RenderingPrimitives primitives = configuration.getRenderingPrimitives();
+        if (configuration.getVersion() == mCachedVersion || primitives == null)
+        {
+            return;
+        }
+
+        update(configuration.getVersion(), new PrimitivesSource(primitives));
+    }
+
+
+    // Reads the values from the source again if the version changed since the last call
+    void update(long version, Source source)
+    {
+        if (version == mCachedVersion)
+        {
+            return;
+        }
+
+        mProjectionMatrix = source.getProjectionMatrix();
+        mFetchCount.incrementAndGet();
+
+        uploadMesh(source);
+
+        mCachedVersion = version;
+        Log.d(LOGTAG, "Video background read for configuration " + version
+                + ", " + mFetchCount.get() + " values read so far");
+    }
+
+
+    float[] getProjectionMatrix()
+    {
+        return mProjectionMatrix;
+    }
+
+
+    boolean hasMesh()
+    {
+        return mNumIndices > 0;
+    }
+
+
+    void bind(int vertexHandle, int texCoordHandle)
+    {
+        mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, mPositionBuffer);
+        mGL.vertexAttribPointer(vertexHandle, POSITION_COMPONENTS, GLES20.GL_FLOAT, false, 0, 0);
+        mGL.enableVertexAttribArray(vertexHandle);
+
+        mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, mUVBuffer);
+        mGL.vertexAttribPointer(texCoordHandle, UV_COMPONENTS, GLES20.GL_FLOAT, false, 0, 0);
+        mGL.enableVertexAttribArray(texCoordHandle);
+
+        mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        mGL.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, mIndexBuffer);
+    }
+
+
+    void draw()
+    {
+        mGL.drawElements(GLES20.GL_TRIANGLES, mNumIndices, GLES20.GL_UNSIGNED_SHORT, 0);
+    }
+
+
+    void unbind(int vertexHandle, int texCoordHandle)
+    {
+        mGL.disableVertexAttribArray(vertexHandle);
+        mGL.disableVertexAttribArray(texCoordHandle);
+        mGL.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+
+    // Number of values read from a Source since the cache was created. It stays
+    // constant while the configuration does not change
+    long getFetchCount()
+    {
+        return mFetchCount.get();
+    }
+
+
+    private void uploadMesh(Source source)
+    {
+        mPositionBuffer = upload(mPositionBuffer, GLES20.GL_ARRAY_BUFFER, source.getPositions());
+        mFetchCount.incrementAndGet();
+
+        mUVBuffer = upload(mUVBuffer, GLES20.GL_ARRAY_BUFFER, source.getUVs());
+        mFetchCount.incrementAndGet();
+
+        mIndexBuffer = upload(mIndexBuffer, GLES20.GL_ELEMENT_ARRAY_BUFFER, source.getTriangles());
+        mFetchCount.incrementAndGet();
+
+        mNumIndices = source.getNumTriangles() * 3;
+        mFetchCount.incrementAndGet();
+
+        mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        mGL.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+
+    // Reuses the buffer name if there is one, the mesh keeps its layout
+    private int upload(int buffer, int target, ByteBuffer data)
+    {
+        if (buffer == 0)
+        {
+            buffer = mGL.genBuffer();
+        }
+
+        mGL.bindBuffer(target, buffer);
+        mGL.bufferData(target, data.capacity(), data, GLES20.GL_STATIC_DRAW);
+        return buffer;
+    }
+}
@@ -0,0 +1,308 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the textures and meshes of a sample in parallel, while Vuforia initializes
+ *
+ * Each asset is added with the Callable that decodes it, start() then runs all
+ * of them on a bounded pool shared by every activity. The listener is told of
+ * the progress after each asset and once when all of them are loaded. The GL
+ * thread polls isDone() on each frame and, once it returns true, uploads all
+ * the assets in one batch. A thread that cannot go on without the assets
+ * calls awaitDone() instead, which only blocks for those still loading.
+ *
+ * cancel() stops the loaders still queued or running, typically when the
+ * activity is destroyed, after which the listener is not called again.
+ *
+ * The class only depends on java.util.concurrent so that it can run on a JVM
+ * with fake loaders and a direct executor
+ */
+public class AssetPreloader
+{
+    public interface Listener
+    {
+        // Called from the loading threads, after each asset whether it failed or not
+        void onAssetLoaded(int numLoaded, int numAssets);
+
+        // Called once, from the thread that loaded the last asset
+        void onAllAssetsLoaded(AssetPreloader preloader);
+    }
+
+
+    public static final class Asset<T>
+    {
+        private final String mName;
+        private final Callable<T> mLoader;
+        private volatile T mValue;
+        private volatile Exception mError;
+
+
+        private Asset(String name, Callable<T> loader)
+        {
+            mName = name;
+            mLoader = loader;
+        }
+
+
+        public String getName()
+        {
+            return mName;
+        }
+
+
+        // null until the preloader is done, or if loading failed
+        public T get()
+        {
+            return mValue;
+        }
+
+
+        public Exception getError()
+        {
+            return mError;
+        }
+    }
+
+
+    // Leave a core to the UI thread and to Vuforia's own initialization, but keep two
+    // threads so that reading one asset overlaps with decoding another
+    private static final int MAX_POOL_SIZE = Math.max(2,
+            Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final long KEEP_ALIVE_SECONDS = 5;
+
+    private static ExecutorService sSharedExecutor;
+
+    private final ExecutorService mExecutor;
+    private final Listener mListener;
+
+    private final List<Asset<?>> mAssets = new ArrayList<>();
+    private final List<Future<?>> mFutures = new ArrayList<>();
+    private final AtomicInteger mNumLoaded = new AtomicInteger(0);
+    private final CountDownLatch mDoneLatch = new CountDownLatch(1);
+
+    private volatile boolean mIsStarted = false;
+    private volatile boolean mIsDone = false;
+    private volatile boolean mIsCancelled = false;
+
+
+    public AssetPreloader(Listener listener)
+    {
+        this(getSharedExecutor(), listener);
+    }
+
+
+    public AssetPreloader(ExecutorService executor, Listener listener)
+    {
+        mExecutor = executor;
+        mListener = listener;
+    }
+
+
+    // Pool threads time out when idle, so the pool costs nothing between activities
+    public static synchronized ExecutorService getSharedExecutor()
+    {
+        if (sSharedExecutor == null)
+        {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_POOL_SIZE, MAX_POOL_SIZE,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory()
+                    {
+                        private final AtomicInteger mThreadCount = new AtomicInteger(0);
+
+                        @Override
+                        public Thread newThread(Runnable runnable)
+                        {
+                            Thread thread = new Thread(runnable,
+                                    "AssetPreloader-" + mThreadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            thread.setPriority(Thread.NORM_PRIORITY - 1);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            sSharedExecutor = executor;
+        }
+
+        return sSharedExecutor;
+    }
+
+
+    // Must be called before start()
+    public synchronized <T> Asset<T> add(String name, Callable<T> loader)
+    {
+        if (mIsStarted)
+        {
+            throw new IllegalStateException("Assets cannot be added once loading started");
+        }
+
+        Asset<T> asset = new Asset<>(name, loader);
+        mAssets.add(asset);
+        return asset;
+    }
+
+
+    public synchronized void start()
+    {
+        if (mIsStarted)
+        {
+            return;
+        }
+
+        mIsStarted = true;
+
+        if (mAssets.isEmpty())
+        {
+            finish();
+            return;
+        }
+
+        for (final Asset<?> asset : mAssets)
+        {
+            if (mIsCancelled)
+            {
+                break;
+            }
+
+            mFutures.add(mExecutor.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    load(asset);
+                }
+            }));
+        }
+    }
+
+
+    // Loaders already running are interrupted, their result is dropped
+    public synchronized void cancel()
+    {
+        mIsCancelled = true;
+
+        for (Future<?> future : mFutures)
+        {
+            future.cancel(true);
+        }
+
+        // Nothing will finish the loading anymore, release the waiting threads
+        mDoneLatch.countDown();
+    }
+
+
+    // Blocks until every asset was loaded or failed to load, or until the preloader
+    // is cancelled. Returns isDone()
+    public boolean awaitDone() throws InterruptedException
+    {
+        mDoneLatch.await();
+        return isDone();
+    }
+
+
+    // True once every asset was loaded or failed to load, and the preloader was not cancelled
+    public boolean isDone()
+    {
+        return mIsDone && !mIsCancelled;
+    }
+
+
+    public boolean isCancelled()
+    {
+        return mIsCancelled;
+    }
+
+
+    public int getNumLoaded()
+    {
+        return mNumLoaded.get();
+    }
+
+
+    public synchronized int getNumAssets()
+    {
+        return mAssets.size();
+    }
+
+
+    // Returns the assets that failed to load
+    public synchronized List<Asset<?>> getFailedAssets()
+    {
+        List<Asset<?>> failed = new ArrayList<>();
+        for (Asset<?> asset : mAssets)
+        {
+            if (asset.mError != null)
+            {
+                failed.add(asset);
+            }
+        }
+
+        return failed;
+    }
+
+
+    private <T> void load(Asset<T> asset)
+    {
+        if (mIsCancelled)
+        {
+            return;
+        }
+
+        try
+        {
+            asset.mValue = asset.mLoader.call();
+        }
+        catch (Exception e)
+        {
+            asset.mError = e;
+        }
+
+        if (mIsCancelled)
+        {
+            return;
+        }
+
+        int numLoaded = mNumLoaded.incrementAndGet();
+        int numAssets = mAssets.size();
+
+        if (mListener != null)
+        {
+            mListener.onAssetLoaded(numLoaded, numAssets);
+        }
+
+        if (numLoaded == numAssets)
+        {
+            finish();
+        }
+    }
+
+
+    private void finish()
+    {
+        // Values written by the loading threads are visible to whoever reads mIsDone
+        mIsDone = true;
+        mDoneLatch.countDown();
+
+        if (mListener != null && !mIsCancelled)
+        {
+            mListener.onAllAssetsLoaded(this);
+        }
+    }
+}
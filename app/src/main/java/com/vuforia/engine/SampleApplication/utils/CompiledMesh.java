@@ -0,0 +1,196 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A mesh stored in an asset compiled by SampleMeshCompiler
+ *
+ * Creating it reads nothing. The asset is read the first time the geometry is
+ * asked for, or by an earlier call to load(), and each section is copied in
+ * one call into a native-order buffer. Assets are opened through the
+ * AssetManager given to SampleAssetReader.setApplicationAssets()
+ */
+public class CompiledMesh extends MeshObject
+{
+    private final String mAssetName;
+
+    private ByteBuffer mVertices;
+    private ByteBuffer mNormals;
+    private ByteBuffer mTexCoords;
+    private ByteBuffer mIndices;
+    private int mNumVertices = 0;
+    private int mNumIndices = 0;
+
+    // Written last, so that a thread that sees it set also sees the buffers
+    private volatile boolean mIsLoaded = false;
+
+
+    public CompiledMesh(String assetName)
+    {
+        mAssetName = assetName;
+    }
+
+
+    public String getAssetName()
+    {
+        return mAssetName;
+    }
+
+
+    public boolean isLoaded()
+    {
+        return mIsLoaded;
+    }
+
+
+    // Reads the asset unless it was already, e.g. on a loading thread ahead of the first draw
+    public void load()
+    {
+        if (mIsLoaded)
+        {
+            return;
+        }
+
+        synchronized (this)
+        {
+            if (mIsLoaded)
+            {
+                return;
+            }
+
+            ByteBuffer compiled;
+            try
+            {
+                compiled = SampleAssetReader.readAsset(SampleAssetReader.getApplicationAssets(), mAssetName);
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException("Could not read mesh " + mAssetName, e);
+            }
+
+            load(compiled);
+        }
+    }
+
+
+    // Fills the mesh from the content of a compiled asset
+    synchronized void load(ByteBuffer compiled)
+    {
+        ByteBuffer[] sections = readSections(compiled);
+
+        mVertices = sections[CompiledMeshFormat.SECTION_VERTICES];
+        mNormals = sections[CompiledMeshFormat.SECTION_NORMALS];
+        mTexCoords = sections[CompiledMeshFormat.SECTION_TEX_COORDS];
+        mIndices = sections[CompiledMeshFormat.SECTION_INDICES];
+        mNumVertices = mVertices.capacity() / (3 * (Float.SIZE / Byte.SIZE));
+        mNumIndices = mIndices != null ? mIndices.capacity() / (Short.SIZE / Byte.SIZE) : 0;
+        mIsLoaded = true;
+    }
+
+
+    // Copies each section of a compiled mesh into a native-order buffer, indexed by the
+    // CompiledMeshFormat section numbers. Empty and missing sections are null.
+    // Throws IllegalArgumentException if the content is not a valid compiled mesh
+    static ByteBuffer[] readSections(ByteBuffer compiled)
+    {
+        compiled.order(ByteOrder.LITTLE_ENDIAN);
+        if (compiled.remaining() < CompiledMeshFormat.HEADER_SIZE
+                || compiled.getInt() != CompiledMeshFormat.MAGIC_NUMBER
+                || compiled.getInt() != CompiledMeshFormat.VERSION)
+        {
+            throw new IllegalArgumentException("Not a compiled mesh");
+        }
+
+        int numSections = compiled.getInt();
+        if (numSections != CompiledMeshFormat.NUM_SECTIONS
+                && numSections != CompiledMeshFormat.NUM_INDEXED_SECTIONS)
+        {
+            throw new IllegalArgumentException("Unexpected number of sections " + numSections);
+        }
+
+        try
+        {
+            // The section table directly follows the first three header values
+            int[] counts = new int[numSections];
+            int[] offsets = new int[numSections];
+            for (int section = 0; section < numSections; section++)
+            {
+                counts[section] = compiled.getInt();
+                offsets[section] = compiled.getInt();
+            }
+
+            ByteBuffer[] sections = new ByteBuffer[CompiledMeshFormat.NUM_INDEXED_SECTIONS];
+            for (int section = 0; section < numSections; section++)
+            {
+                if (counts[section] == 0)
+                {
+                    continue;
+                }
+
+                compiled.position(offsets[section]);
+                sections[section] = section == CompiledMeshFormat.SECTION_INDICES
+                        ? SampleAssetReader.copyShorts(compiled, counts[section])
+                        : SampleAssetReader.copyFloats(compiled, counts[section]);
+            }
+
+            if (sections[CompiledMeshFormat.SECTION_VERTICES] == null)
+            {
+                throw new IllegalArgumentException("Compiled mesh without vertices");
+            }
+
+            return sections;
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw new IllegalArgumentException("Truncated compiled mesh", e);
+        }
+    }
+
+
+    @Override
+    protected Buffer getBuffer(BUFFER_TYPE bufferType)
+    {
+        load();
+
+        switch (bufferType)
+        {
+            case BUFFER_TYPE_VERTEX:
+                return mVertices;
+            case BUFFER_TYPE_NORMALS:
+                return mNormals;
+            case BUFFER_TYPE_TEXTURE_COORD:
+                return mTexCoords;
+            case BUFFER_TYPE_INDICES:
+                return mIndices;
+            default:
+                return null;
+        }
+    }
+
+
+    @Override
+    public int getNumObjectVertex()
+    {
+        load();
+        return mNumVertices;
+    }
+
+
+    @Override
+    public int getNumObjectIndex()
+    {
+        load();
+        return mNumIndices;
+    }
+}
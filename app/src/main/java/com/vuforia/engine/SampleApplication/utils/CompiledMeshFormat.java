@@ -0,0 +1,65 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+/**
+ * The binary mesh format written by SampleMeshCompiler, found in the tools
+ * module, and read by CompiledMesh and SampleApplication3DModel
+ *
+ * Layout of the compiled file, little-endian:
+ *   int   magic number ('S', 'M', 'S', 'H')
+ *   int   format version
+ *   int   number of sections, 3, or 4 for an indexed mesh
+ *   then for each section (vertices, normals, tex coords, indices):
+ *     int number of values
+ *     int byte offset of the values from the start of the file
+ *   followed by the float data of each section, then the indices as 16-bit
+ *   unsigned integers
+ */
+public final class CompiledMeshFormat
+{
+    public static final int MAGIC_NUMBER = ('S' << 24) | ('M' << 16) | ('S' << 8) | 'H';
+    public static final int VERSION = 1;
+    public static final String COMPILED_EXTENSION = ".mesh";
+
+    public static final int SECTION_VERTICES = 0;
+    public static final int SECTION_NORMALS = 1;
+    public static final int SECTION_TEX_COORDS = 2;
+    public static final int NUM_SECTIONS = 3;
+
+    // Only in indexed meshes, after the float sections
+    public static final int SECTION_INDICES = 3;
+    public static final int NUM_INDEXED_SECTIONS = 4;
+
+    // magic, version, section count, then count and offset per section
+    public static final int HEADER_SIZE = getHeaderSize(NUM_SECTIONS);
+
+
+    private CompiledMeshFormat()
+    {
+    }
+
+
+    // Returns the asset name the compiled version of a .txt mesh is stored under
+    public static String getCompiledName(String textFilename)
+    {
+        int extension = textFilename.lastIndexOf('.');
+        if (extension <= textFilename.lastIndexOf('/'))
+        {
+            extension = textFilename.length();
+        }
+
+        return textFilename.substring(0, extension) + COMPILED_EXTENSION;
+    }
+
+
+    public static int getHeaderSize(int numSections)
+    {
+        return 3 * 4 + numSections * 2 * 4;
+    }
+}
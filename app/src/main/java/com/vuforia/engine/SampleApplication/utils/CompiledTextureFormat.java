@@ -0,0 +1,58 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+/**
+ * The texture container written by SampleTextureCompiler, found in the tools
+ * module, and read by Texture.loadTextureFromApk()
+ *
+ * Layout of the compiled file, little-endian:
+ *   int   magic number ('S', 'T', 'E', 'X')
+ *   int   format version
+ *   int   pixel format, FORMAT_RGBA8888
+ *   int   flags, FLAG_FLIPPED and optionally FLAG_PREMULTIPLIED
+ *   int   number of mip levels
+ *   then for each level, starting with the full size image:
+ *     int width, int height
+ *     int byte offset of the pixels from the start of the file
+ *     int size of the pixels in bytes
+ *   followed by the pixels of each level
+ */
+public final class CompiledTextureFormat
+{
+    public static final int MAGIC_NUMBER = ('S' << 24) | ('T' << 16) | ('E' << 8) | 'X';
+    public static final int VERSION = 1;
+    public static final String COMPILED_EXTENSION = ".tex";
+
+    public static final int FORMAT_RGBA8888 = 0;
+
+    public static final int FLAG_FLIPPED = 1;
+    public static final int FLAG_PREMULTIPLIED = 2;
+
+    // magic, version, format, flags, level count
+    public static final int HEADER_SIZE = 5 * 4;
+    public static final int LEVEL_ENTRY_SIZE = 4 * 4;
+
+
+    private CompiledTextureFormat()
+    {
+    }
+
+
+    // Returns the asset name the compiled version of a texture is stored under
+    public static String getCompiledName(String textureFilename)
+    {
+        int extension = textureFilename.lastIndexOf('.');
+        if (extension <= textureFilename.lastIndexOf('/'))
+        {
+            extension = textureFilename.length();
+        }
+
+        return textureFilename.substring(0, extension) + COMPILED_EXTENSION;
+    }
+}
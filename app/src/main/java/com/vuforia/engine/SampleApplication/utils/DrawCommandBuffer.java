@@ -0,0 +1,383 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+
+import java.util.Arrays;
+
+/**
+ * Records the draws of a frame instead of issuing them right away, then
+ * submits them sorted so that GL state changes are as few as possible
+ *
+ * Renderers add one packet per draw while they walk the trackable results: the
+ * Material (program, handles, blending and culling), the mesh, the texture, the
+ * model-view-projection matrix and optionally a color. Packets are kept in
+ * primitive arrays reused from frame to frame, and each gets a 64-bit sort key:
+ *
+ *   opaque:      0 | 0 | program (12) | texture (16) | depth (18) | packet (16)
+ *   translucent: 0 | 1 | far to near depth (18) | program (12) | texture (16) | packet (16)
+ *
+ * so that opaque packets come first, grouped by program and texture and near
+ * to far within a group, followed by translucent packets back to front. The
+ * depth is the w of the model origin in clip space, the distance to the camera
+ * along the view axis, quantized over [0, maxDepth].
+ *
+ * submit() sorts the keys and issues the packets through a SampleGL, use the
+ * renderer's SampleGLStateCache so that the program, texture, blend and cull
+ * state shared by consecutive packets is only set once.
+ *
+ * Recording and sorting do not touch GL, so they can run on a JVM. This class
+ * must otherwise only be used from the GL thread
+ */
+public class DrawCommandBuffer
+{
+    public static final int MAX_PACKETS = 1 << 16;
+
+    public static final float DEFAULT_MAX_DEPTH = 10.0f;
+
+    private static final int PACKET_BITS = 16;
+    private static final int DEPTH_BITS = 18;
+    private static final int TEXTURE_BITS = 16;
+    private static final int PROGRAM_BITS = 12;
+    private static final long TRANSLUCENT_BIT = 1L << 62;
+
+    private static final int MAX_DEPTH_VALUE = (1 << DEPTH_BITS) - 1;
+
+    // Per packet: the model-view-projection matrix followed by r, g, b, opacity
+    private static final int FLOATS_PER_PACKET = 20;
+    private static final int COLOR_OFFSET = 16;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The program of a draw, the locations of its inputs and how it is
+     * rasterized, set up once in initRendering(). Locations a program does not
+     * have are -1
+     */
+    public static final class Material
+    {
+        // Blended, sorted back to front after the opaque draws
+        public static final int FLAG_TRANSLUCENT = 1;
+        public static final int FLAG_CULL_BACK_FACES = 2;
+
+        final int mProgram;
+        final int mVertexHandle;
+        final int mNormalHandle;
+        final int mTexCoordHandle;
+        final int mMvpMatrixHandle;
+        final int mTexSampler2DHandle;
+        final int mColorHandle;
+        final int mOpacityHandle;
+        final boolean mIsTranslucent;
+        final boolean mCullsBackFaces;
+
+
+        public Material(int program, int vertexHandle, int normalHandle, int texCoordHandle,
+                int mvpMatrixHandle, int texSampler2DHandle, int flags)
+        {
+            this(program, vertexHandle, normalHandle, texCoordHandle, mvpMatrixHandle,
+                    texSampler2DHandle, -1, -1, flags);
+        }
+
+
+        public Material(int program, int vertexHandle, int normalHandle, int texCoordHandle,
+                int mvpMatrixHandle, int texSampler2DHandle, int colorHandle, int opacityHandle,
+                int flags)
+        {
+            mProgram = program;
+            mVertexHandle = vertexHandle;
+            mNormalHandle = normalHandle;
+            mTexCoordHandle = texCoordHandle;
+            mMvpMatrixHandle = mvpMatrixHandle;
+            mTexSampler2DHandle = texSampler2DHandle;
+            mColorHandle = colorHandle;
+            mOpacityHandle = opacityHandle;
+            mIsTranslucent = (flags & FLAG_TRANSLUCENT) != 0;
+            mCullsBackFaces = (flags & FLAG_CULL_BACK_FACES) != 0;
+        }
+
+
+        public boolean isTranslucent()
+        {
+            return mIsTranslucent;
+        }
+    }
+
+
+    private float mMaxDepth = DEFAULT_MAX_DEPTH;
+
+    private int mCount = 0;
+    private long[] mKeys = new long[INITIAL_CAPACITY];
+    private int[] mTextures = new int[INITIAL_CAPACITY];
+    private float[] mFloats = new float[INITIAL_CAPACITY * FLOATS_PER_PACKET];
+    private Material[] mMaterials = new Material[INITIAL_CAPACITY];
+    private MeshBufferCache.MeshBuffers[] mMeshes = new MeshBufferCache.MeshBuffers[INITIAL_CAPACITY];
+
+    private boolean mIsSorted = true;
+
+    // State changes made by the last submit()
+    private int mProgramChangeCount = 0;
+    private int mTextureChangeCount = 0;
+
+
+    // Packets further than maxDepth from the camera share the farthest depth value,
+    // typically the far plane of the projection
+    public void setMaxDepth(float maxDepth)
+    {
+        if (!(maxDepth > 0.0f))
+        {
+            throw new IllegalArgumentException("maxDepth must be positive");
+        }
+
+        mMaxDepth = maxDepth;
+    }
+
+
+    // Forgets the packets of the previous frame
+    public void clear()
+    {
+        Arrays.fill(mMaterials, 0, mCount, null);
+        Arrays.fill(mMeshes, 0, mCount, null);
+        mCount = 0;
+        mIsSorted = true;
+    }
+
+
+    public int getCount()
+    {
+        return mCount;
+    }
+
+
+    // Records a draw of mesh with the given texture, or 0 for none. The 16 values of
+    // mvpMatrix starting at mvpOffset are copied, the array can be reused right away
+    public void add(Material material, MeshBufferCache.MeshBuffers mesh, int texture,
+            float[] mvpMatrix, int mvpOffset)
+    {
+        add(material, mesh, texture, mvpMatrix, mvpOffset, 1.0f, 1.0f, 1.0f, 1.0f);
+    }
+
+
+    // Same as above for materials with a color and an opacity uniform
+    public void add(Material material, MeshBufferCache.MeshBuffers mesh, int texture,
+            float[] mvpMatrix, int mvpOffset, float red, float green, float blue, float opacity)
+    {
+        if (mCount == mKeys.length)
+        {
+            grow();
+        }
+
+        int packet = mCount;
+        int floatOffset = packet * FLOATS_PER_PACKET;
+        System.arraycopy(mvpMatrix, mvpOffset, mFloats, floatOffset, 16);
+        mFloats[floatOffset + COLOR_OFFSET] = red;
+        mFloats[floatOffset + COLOR_OFFSET + 1] = green;
+        mFloats[floatOffset + COLOR_OFFSET + 2] = blue;
+        mFloats[floatOffset + COLOR_OFFSET + 3] = opacity;
+
+        mMaterials[packet] = material;
+        mMeshes[packet] = mesh;
+        mTextures[packet] = texture;
+
+        // w of the transformed origin, mvpMatrix is column-major
+        float depth = mvpMatrix[mvpOffset + 15];
+        mKeys[packet] = makeKey(material.mProgram, texture, quantizeDepth(depth),
+                material.mIsTranslucent, packet);
+
+        mCount++;
+        mIsSorted = false;
+    }
+
+
+    // Orders the packets by key, submit() calls it if needed
+    public void sort()
+    {
+        if (!mIsSorted)
+        {
+            Arrays.sort(mKeys, 0, mCount);
+            mIsSorted = true;
+        }
+    }
+
+
+    // Index of the i-th packet in submission order, sort() must have been called
+    public int getSortedPacket(int i)
+    {
+        return (int) (mKeys[i] & ((1 << PACKET_BITS) - 1));
+    }
+
+
+    public long getSortedKey(int i)
+    {
+        return mKeys[i];
+    }
+
+
+    // Issues the packets in key order and clears the buffer. Blending is enabled for
+    // translucent packets only, and left disabled. Face culling is set per packet
+    public void submit(SampleGL gl)
+    {
+        sort();
+
+        mProgramChangeCount = 0;
+        mTextureChangeCount = 0;
+
+        int currentProgram = 0;
+        int currentTexture = 0;
+        boolean isBlending = false;
+
+        gl.disable(GLES20.GL_BLEND);
+
+        for (int i = 0; i < mCount; i++)
+        {
+            int packet = getSortedPacket(i);
+            Material material = mMaterials[packet];
+            MeshBufferCache.MeshBuffers mesh = mMeshes[packet];
+            int texture = mTextures[packet];
+            int floatOffset = packet * FLOATS_PER_PACKET;
+
+            if (material.mIsTranslucent != isBlending)
+            {
+                isBlending = material.mIsTranslucent;
+                if (isBlending)
+                {
+                    gl.enable(GLES20.GL_BLEND);
+                    gl.blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+                }
+                else
+                {
+                    gl.disable(GLES20.GL_BLEND);
+                }
+            }
+
+            if (material.mCullsBackFaces)
+            {
+                gl.enable(GLES20.GL_CULL_FACE);
+                gl.cullFace(GLES20.GL_BACK);
+            }
+            else
+            {
+                gl.disable(GLES20.GL_CULL_FACE);
+            }
+
+            if (material.mProgram != currentProgram)
+            {
+                currentProgram = material.mProgram;
+                mProgramChangeCount++;
+            }
+
+            gl.useProgram(material.mProgram);
+
+            if (texture != 0 && material.mTexSampler2DHandle >= 0)
+            {
+                if (texture != currentTexture)
+                {
+                    currentTexture = texture;
+                    mTextureChangeCount++;
+                }
+
+                gl.activeTexture(GLES20.GL_TEXTURE0);
+                gl.bindTexture(GLES20.GL_TEXTURE_2D, texture);
+                gl.uniform1i(material.mTexSampler2DHandle, 0);
+            }
+
+            gl.uniformMatrix4fv(material.mMvpMatrixHandle, 1, false, mFloats, floatOffset);
+
+            if (material.mColorHandle >= 0)
+            {
+                gl.uniform3f(material.mColorHandle, mFloats[floatOffset + COLOR_OFFSET],
+                        mFloats[floatOffset + COLOR_OFFSET + 1],
+                        mFloats[floatOffset + COLOR_OFFSET + 2]);
+            }
+
+            if (material.mOpacityHandle >= 0)
+            {
+                gl.uniform1f(material.mOpacityHandle, mFloats[floatOffset + COLOR_OFFSET + 3]);
+            }
+
+            mesh.bind(material.mVertexHandle, material.mNormalHandle, material.mTexCoordHandle);
+            mesh.draw();
+            mesh.unbind();
+        }
+
+        if (isBlending)
+        {
+            gl.disable(GLES20.GL_BLEND);
+        }
+
+        clear();
+    }
+
+
+    public int getProgramChangeCount()
+    {
+        return mProgramChangeCount;
+    }
+
+
+    public int getTextureChangeCount()
+    {
+        return mTextureChangeCount;
+    }
+
+
+    static long makeKey(int program, int texture, int depth, boolean isTranslucent, int packet)
+    {
+        long programBits = program & ((1L << PROGRAM_BITS) - 1);
+        long textureBits = texture & ((1L << TEXTURE_BITS) - 1);
+
+        if (isTranslucent)
+        {
+            long farToNear = MAX_DEPTH_VALUE - depth;
+            return TRANSLUCENT_BIT
+                    | (farToNear << (PROGRAM_BITS + TEXTURE_BITS + PACKET_BITS))
+                    | (programBits << (TEXTURE_BITS + PACKET_BITS))
+                    | (textureBits << PACKET_BITS)
+                    | packet;
+        }
+
+        return (programBits << (TEXTURE_BITS + DEPTH_BITS + PACKET_BITS))
+                | (textureBits << (DEPTH_BITS + PACKET_BITS))
+                | ((long) depth << PACKET_BITS)
+                | packet;
+    }
+
+
+    private int quantizeDepth(float depth)
+    {
+        // Behind the camera, or NaN, sorts as nearest
+        if (!(depth > 0.0f))
+        {
+            return 0;
+        }
+
+        if (depth >= mMaxDepth)
+        {
+            return MAX_DEPTH_VALUE;
+        }
+
+        return (int) (depth / mMaxDepth * MAX_DEPTH_VALUE);
+    }
+
+
+    private void grow()
+    {
+        if (mKeys.length >= MAX_PACKETS)
+        {
+            throw new IllegalStateException("More than " + MAX_PACKETS + " draws in one frame");
+        }
+
+        int capacity = Math.min(MAX_PACKETS, mKeys.length * 2);
+        mKeys = Arrays.copyOf(mKeys, capacity);
+        mTextures = Arrays.copyOf(mTextures, capacity);
+        mFloats = Arrays.copyOf(mFloats, capacity * FLOATS_PER_PACKET);
+        mMaterials = Arrays.copyOf(mMaterials, capacity);
+        mMeshes = Arrays.copyOf(mMeshes, capacity);
+    }
+}
@@ -0,0 +1,202 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.os.Debug;
+import android.util.Log;
+
+/**
+ * Counts the objects allocated by the rendering thread during each frame
+ *
+ * Calls to beginFrame() and endFrame() bracket the code being measured. The
+ * first frames are a warm-up during which caches and scratch state are filled,
+ * after that every frame allocating more than the budget is counted and
+ * reported once in the log. isWithinBudget() tells whether the steady state
+ * stayed within the budget, which is what a test should assert on.
+ *
+ * The counts are read from an AllocationCounter. The default one uses the
+ * per-thread counters of android.os.Debug, which slow the VM down and should
+ * only be enabled while investigating. A test running the frame logic on a
+ * JVM can provide its own counter.
+ *
+ * This class must only be used from the thread being measured
+ */
+public class FrameAllocationTracker
+{
+    private static final String LOGTAG = "FrameAllocationTracker";
+
+    public static final int DEFAULT_WARM_UP_FRAMES = 60;
+
+    public interface AllocationCounter
+    {
+        void start();
+
+        void stop();
+
+        // Number of objects allocated by the calling thread since start()
+        long getAllocationCount();
+    }
+
+
+    private final AllocationCounter mCounter;
+    private final int mBudget;
+    private final int mWarmUpFrames;
+
+    private boolean mIsInFrame = false;
+    private long mFrameStartCount;
+
+    private int mFrameCount = 0;
+    private int mLastFrameAllocations = 0;
+    private int mMaxSteadyStateAllocations = 0;
+    private int mFramesOverBudget = 0;
+
+
+    // Tracker using the android.os.Debug thread counters
+    public FrameAllocationTracker(int budget)
+    {
+        this(new DebugAllocationCounter(), budget, DEFAULT_WARM_UP_FRAMES);
+    }
+
+
+    public FrameAllocationTracker(AllocationCounter counter, int budget, int warmUpFrames)
+    {
+        if (budget < 0 || warmUpFrames < 0)
+        {
+            throw new IllegalArgumentException("budget and warmUpFrames must not be negative");
+        }
+
+        mCounter = counter;
+        mBudget = budget;
+        mWarmUpFrames = warmUpFrames;
+    }
+
+
+    public void start()
+    {
+        mCounter.start();
+    }
+
+
+    public void stop()
+    {
+        mCounter.stop();
+    }
+
+
+    public void beginFrame()
+    {
+        mIsInFrame = true;
+        mFrameStartCount = mCounter.getAllocationCount();
+    }
+
+
+    // Returns the number of objects allocated since beginFrame()
+    public int endFrame()
+    {
+        if (!mIsInFrame)
+        {
+            return 0;
+        }
+
+        mIsInFrame = false;
+        mLastFrameAllocations = (int) (mCounter.getAllocationCount() - mFrameStartCount);
+        mFrameCount++;
+
+        if (mFrameCount > mWarmUpFrames)
+        {
+            if (mLastFrameAllocations > mBudget)
+            {
+                // Only log the first time and then on every new peak, logging allocates too
+                if (mFramesOverBudget == 0 || mLastFrameAllocations > mMaxSteadyStateAllocations)
+                {
+                    Log.w(LOGTAG, "Frame " + mFrameCount + " allocated " + mLastFrameAllocations
+                            + " objects, budget is " + mBudget);
+                }
+
+                mFramesOverBudget++;
+            }
+
+            mMaxSteadyStateAllocations = Math.max(mMaxSteadyStateAllocations, mLastFrameAllocations);
+        }
+
+        return mLastFrameAllocations;
+    }
+
+
+    public void reset()
+    {
+        mIsInFrame = false;
+        mFrameCount = 0;
+        mLastFrameAllocations = 0;
+        mMaxSteadyStateAllocations = 0;
+        mFramesOverBudget = 0;
+    }
+
+
+    // True if no frame after the warm-up went over the budget
+    public boolean isWithinBudget()
+    {
+        return mFramesOverBudget == 0;
+    }
+
+
+    public int getBudget()
+    {
+        return mBudget;
+    }
+
+
+    public int getFrameCount()
+    {
+        return mFrameCount;
+    }
+
+
+    public int getLastFrameAllocations()
+    {
+        return mLastFrameAllocations;
+    }
+
+
+    public int getMaxSteadyStateAllocations()
+    {
+        return mMaxSteadyStateAllocations;
+    }
+
+
+    public int getFramesOverBudget()
+    {
+        return mFramesOverBudget;
+    }
+
+
+    @SuppressWarnings("deprecation")
+    private static class DebugAllocationCounter implements AllocationCounter
+    {
+        @Override
+        public void start()
+        {
+            Debug.resetThreadAllocCount();
+            Debug.startAllocCounting();
+        }
+
+
+        @Override
+        public void stop()
+        {
+            Debug.stopAllocCounting();
+        }
+
+
+        @Override
+        public long getAllocationCount()
+        {
+            return Debug.getThreadAllocCount();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+/**
+ * Decides when a view rendering on demand has to draw
+ *
+ * A render is asked for when a camera frame with a new timestamp arrives, or
+ * when something else on screen changed through invalidate(). Requests made
+ * while one is already pending are folded into it, since the render will show
+ * the latest camera frame anyway. Renders are kept at least the minimum frame
+ * interval apart: a request coming earlier is delayed instead of dropped.
+ *
+ * The caller posts the render after the delay returned by onCameraFrame() or
+ * invalidate(), and the rendering thread calls onFrameRendered() at the start
+ * of each frame. A pending request that did not lead to a frame within
+ * STALE_REQUEST_NS, e.g. because the surface was paused, does not block the
+ * next one.
+ *
+ * So that the view does not stay frozen when no request comes, e.g. while the
+ * camera stalls or a request was lost, a frame is drawn at least every maximum
+ * frame interval. The caller runs onIdleCheck() after the delay it returns,
+ * and posts a render when it returns 0.
+ *
+ * All methods may be called from any thread. This class does not depend on
+ * Android and can be driven on a JVM with a custom Clock
+ */
+public class FramePacer
+{
+    // Returned when no render has to be posted
+    public static final long NO_RENDER = -1;
+
+    // Ready time of a frame nothing was requested for
+    public static final long NOT_REQUESTED = -1;
+
+    // No more than one render per display refresh
+    public static final long DEFAULT_MIN_FRAME_INTERVAL_NS = 1000000000L / 60;
+
+    // No less than one render per second
+    public static final long DEFAULT_MAX_FRAME_INTERVAL_NS = 1000000000L;
+
+    private static final long STALE_REQUEST_NS = 250000000L;
+
+    private static final FrameTimingRecorder.Clock SYSTEM_CLOCK = new FrameTimingRecorder.Clock()
+    {
+        @Override
+        public long nanoTime()
+        {
+            return System.nanoTime();
+        }
+    };
+
+    private final FrameTimingRecorder.Clock mClock;
+    private final long mMinFrameIntervalNs;
+    private final long mMaxFrameIntervalNs;
+
+    private boolean mIsRequestPending = false;
+    private long mRequestTime = 0;
+    private long mRequestReadyTime = 0;
+    private long mFrameReadyTime = NOT_REQUESTED;
+    private boolean mHasRendered = false;
+    private long mLastRenderTime = 0;
+    private boolean mHasTimestamp = false;
+    private double mLastTimestamp = 0.0;
+
+    // Set by requests, cleared by the frame that shows them
+    private boolean mHasNewContent = false;
+
+    private long mCameraFrames = 0;
+    private long mDuplicateFrames = 0;
+    private long mInvalidations = 0;
+    private long mCoalescedRequests = 0;
+    private long mRenderedFrames = 0;
+    private long mRedundantFrames = 0;
+    private long mFallbackFrames = 0;
+
+
+    public FramePacer()
+    {
+        this(SYSTEM_CLOCK, DEFAULT_MIN_FRAME_INTERVAL_NS, DEFAULT_MAX_FRAME_INTERVAL_NS);
+    }
+
+
+    public FramePacer(FrameTimingRecorder.Clock clock, long minFrameIntervalNs)
+    {
+        this(clock, minFrameIntervalNs, DEFAULT_MAX_FRAME_INTERVAL_NS);
+    }
+
+
+    public FramePacer(FrameTimingRecorder.Clock clock, long minFrameIntervalNs, long maxFrameIntervalNs)
+    {
+        if (minFrameIntervalNs < 0 || maxFrameIntervalNs <= minFrameIntervalNs)
+        {
+            throw new IllegalArgumentException("minFrameIntervalNs must not be negative and less than "
+                    + "maxFrameIntervalNs");
+        }
+
+        mClock = clock;
+        mMinFrameIntervalNs = minFrameIntervalNs;
+        mMaxFrameIntervalNs = maxFrameIntervalNs;
+    }
+
+
+    // A camera frame was processed. Returns the delay in nanoseconds after which a
+    // render must be posted, or NO_RENDER if the frame was already seen or a render
+    // is already pending
+    public synchronized long onCameraFrame(double timestamp)
+    {
+        if (mHasTimestamp && timestamp == mLastTimestamp)
+        {
+            mDuplicateFrames++;
+            return NO_RENDER;
+        }
+
+        mHasTimestamp = true;
+        mLastTimestamp = timestamp;
+        mCameraFrames++;
+        return request();
+    }
+
+
+    // Something other than the camera frame changed what is drawn, e.g. the UI or
+    // an animation. Returns like onCameraFrame()
+    public synchronized long invalidate()
+    {
+        mInvalidations++;
+        return request();
+    }
+
+
+    private long request()
+    {
+        mHasNewContent = true;
+        long now = mClock.nanoTime();
+
+        if (mIsRequestPending && now - mRequestTime < STALE_REQUEST_NS)
+        {
+            mCoalescedRequests++;
+            return NO_RENDER;
+        }
+
+        mIsRequestPending = true;
+        mRequestTime = now;
+
+        long delay = mHasRendered ? Math.max(0, mLastRenderTime + mMinFrameIntervalNs - now) : 0;
+        mRequestReadyTime = now + delay;
+        return delay;
+    }
+
+
+    // Checks whether a frame is due because none was drawn for the maximum frame interval.
+    // Returns 0 if a render must be posted now, otherwise the delay in nanoseconds after
+    // which to check again
+    public synchronized long onIdleCheck()
+    {
+        long now = mClock.nanoTime();
+
+        // Nothing drawn yet, or a request on its way: its frame restarts the interval
+        if (!mHasRendered || (mIsRequestPending && now - mRequestTime < STALE_REQUEST_NS))
+        {
+            return mMaxFrameIntervalNs;
+        }
+
+        long due = mLastRenderTime + mMaxFrameIntervalNs;
+        if (now < due)
+        {
+            return due - now;
+        }
+
+        mFallbackFrames++;
+        mHasNewContent = true;
+        mIsRequestPending = true;
+        mRequestTime = now;
+        mRequestReadyTime = now;
+        return 0;
+    }
+
+
+    // Called by the rendering thread when it starts drawing a frame
+    public synchronized void onFrameRendered()
+    {
+        if (!mHasNewContent)
+        {
+            // The system redrew, e.g. after the surface changed
+            mRedundantFrames++;
+        }
+
+        mRenderedFrames++;
+        mFrameReadyTime = mIsRequestPending ? mRequestReadyTime : NOT_REQUESTED;
+        mHasNewContent = false;
+        mIsRequestPending = false;
+        mHasRendered = true;
+        mLastRenderTime = mClock.nanoTime();
+    }
+
+
+    // Forgets the pending request and the last timestamp, e.g. when rendering resumes.
+    // The counters are kept
+    public synchronized void reset()
+    {
+        mIsRequestPending = false;
+        mHasNewContent = false;
+        mHasRendered = false;
+        mHasTimestamp = false;
+        mFrameReadyTime = NOT_REQUESTED;
+    }
+
+
+    // Clock time from which the frame being drawn was allowed to start, or NOT_REQUESTED
+    // if it was drawn without a request, e.g. when rendering continuously
+    public synchronized long getFrameReadyTime()
+    {
+        return mFrameReadyTime;
+    }
+
+
+    public long getMinFrameInterval()
+    {
+        return mMinFrameIntervalNs;
+    }
+
+
+    public long getMaxFrameInterval()
+    {
+        return mMaxFrameIntervalNs;
+    }
+
+
+    // Camera frames with a new timestamp
+    public synchronized long getCameraFrames()
+    {
+        return mCameraFrames;
+    }
+
+
+    // Updates repeating the timestamp of the previous one, nothing was drawn for them
+    public synchronized long getDuplicateFrames()
+    {
+        return mDuplicateFrames;
+    }
+
+
+    public synchronized long getInvalidations()
+    {
+        return mInvalidations;
+    }
+
+
+    // Camera frames and invalidations shown by a render that was already pending,
+    // i.e. the frames skipped compared to drawing each of them
+    public synchronized long getSkippedFrames()
+    {
+        return mCoalescedRequests;
+    }
+
+
+    public synchronized long getRenderedFrames()
+    {
+        return mRenderedFrames;
+    }
+
+
+    // Rendered frames nothing new had been requested for
+    public synchronized long getRedundantFrames()
+    {
+        return mRedundantFrames;
+    }
+
+
+    // Renders asked for by onIdleCheck() after the maximum frame interval without a frame
+    public synchronized long getFallbackFrames()
+    {
+        return mFallbackFrames;
+    }
+
+
+    @Override
+    public synchronized String toString()
+    {
+        return "rendered " + mRenderedFrames + " (redundant " + mRedundantFrames + "), camera frames "
+                + mCameraFrames + ", duplicates " + mDuplicateFrames + ", invalidations "
+                + mInvalidations + ", skipped " + mCoalescedRequests + ", fallbacks " + mFallbackFrames;
+    }
+}
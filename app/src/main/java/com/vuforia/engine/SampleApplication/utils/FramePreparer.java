@@ -0,0 +1,316 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Turns camera frames into FrameSnapshots on a thread of its own, so that the
+ * rendering thread only has to submit draws
+ *
+ * submit() hands over the latest frame, e.g. a copy of the Vuforia State from
+ * the update callback. A frame submitted while the previous one is still
+ * waiting replaces it, the thread always prepares the latest. The Callback
+ * fills a snapshot from the frame, which is then published through a
+ * TripleBuffer and the Listener is told about it. The rendering thread takes
+ * the latest snapshot with acquireSnapshot().
+ *
+ * A prepared frame stays with its snapshot, so that the rendering thread can
+ * draw what goes with the snapshot from the same frame, e.g. the video
+ * background of the same camera frame. Every frame submitted is given to the
+ * Releaser once it is no longer used, e.g. to free native memory: when it is
+ * replaced or its preparation failed, when its snapshot is reused for a later
+ * frame, which the TripleBuffer only does once the rendering thread let go of
+ * it, or on stop().
+ *
+ * A frame whose Callback throws is not published, the Listener is told about
+ * the exception and the thread goes on with the next frame. Neither the
+ * submitting nor the rendering thread ever waits for the preparation thread.
+ * This class does not depend on Android and can be driven on a JVM with any
+ * type of frame
+ */
+public class FramePreparer<T>
+{
+    public interface Callback<T>
+    {
+        // Called on the preparation thread, the snapshot is empty apart from its sequence number
+        void prepareFrame(T frame, FrameSnapshot snapshot);
+    }
+
+    public interface Releaser<T>
+    {
+        // Called once for every frame submitted, on any thread, when the frame is no longer used
+        void releaseFrame(T frame);
+    }
+
+    public interface Listener
+    {
+        // Called on the preparation thread once the snapshot can be acquired, it may be read
+        // but not modified
+        void onFramePrepared(FrameSnapshot snapshot);
+
+        // Called on the preparation thread when the Callback threw, the frame is dropped
+        void onFramePreparationFailed(RuntimeException exception);
+    }
+
+    private final String mName;
+    private final Callback<T> mCallback;
+    private volatile Listener mListener = null;
+    private volatile Releaser<T> mReleaser = null;
+
+    // A snapshot and the frame it was prepared from
+    private static class Slot<T>
+    {
+        final FrameSnapshot mSnapshot = new FrameSnapshot();
+        T mFrame = null;
+    }
+
+    private final AtomicReference<T> mPendingFrame = new AtomicReference<>();
+    private final List<Slot<T>> mAllSlots = new ArrayList<>(3);
+    private final TripleBuffer<Slot<T>> mSlots;
+
+    private volatile Thread mThread = null;
+    private volatile boolean mIsRunning = false;
+
+    // Written by the preparation thread only
+    private long mSequence = 0;
+
+    private final AtomicLong mSubmittedFrames = new AtomicLong(0);
+    private final AtomicLong mReplacedFrames = new AtomicLong(0);
+    private final AtomicLong mFailedFrames = new AtomicLong(0);
+
+
+    public FramePreparer(String name, Callback<T> callback)
+    {
+        mName = name;
+        mCallback = callback;
+
+        for (int i = 0; i < 3; i++)
+        {
+            mAllSlots.add(new Slot<T>());
+        }
+        mSlots = new TripleBuffer<>(mAllSlots.get(0), mAllSlots.get(1), mAllSlots.get(2));
+    }
+
+
+    public void setListener(Listener listener)
+    {
+        mListener = listener;
+    }
+
+
+    // Must be set before the first frame is submitted
+    public void setReleaser(Releaser<T> releaser)
+    {
+        mReleaser = releaser;
+    }
+
+
+    // Starts the preparation thread if it is not running
+    public synchronized void start()
+    {
+        if (mThread != null)
+        {
+            return;
+        }
+
+        mIsRunning = true;
+        mThread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                prepareFrames();
+            }
+        }, mName);
+        mThread.start();
+    }
+
+
+    // Stops the preparation thread once it is done with the current frame, and waits for it.
+    // A frame waiting to be prepared is dropped, and the frames of the snapshots are released:
+    // the rendering thread must not use them any more, acquireSnapshot() returns null until
+    // a frame is prepared after the next start()
+    public synchronized void stop()
+    {
+        if (mThread == null)
+        {
+            return;
+        }
+
+        mIsRunning = false;
+        LockSupport.unpark(mThread);
+
+        boolean isInterrupted = false;
+        while (mThread.isAlive())
+        {
+            try
+            {
+                mThread.join();
+            }
+            catch (InterruptedException e)
+            {
+                isInterrupted = true;
+            }
+        }
+
+        if (isInterrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        mThread = null;
+        release(mPendingFrame.getAndSet(null));
+
+        for (Slot<T> slot : mAllSlots)
+        {
+            release(slot.mFrame);
+            slot.mFrame = null;
+        }
+        mSlots.clear();
+    }
+
+
+    public synchronized boolean isRunning()
+    {
+        return mThread != null;
+    }
+
+
+    // Hands over a frame to prepare, may be called from any thread. The frame must not be
+    // modified afterwards
+    public void submit(T frame)
+    {
+        mSubmittedFrames.incrementAndGet();
+        T replaced = mPendingFrame.getAndSet(frame);
+        if (replaced != null)
+        {
+            mReplacedFrames.incrementAndGet();
+            release(replaced);
+        }
+
+        Thread thread = mThread;
+        if (thread != null)
+        {
+            LockSupport.unpark(thread);
+        }
+    }
+
+
+    // The latest prepared snapshot, kept by the caller until the next call. Null until the
+    // first frame was prepared. Must always be called from the same thread
+    public FrameSnapshot acquireSnapshot()
+    {
+        Slot<T> slot = mSlots.acquire();
+        return slot != null ? slot.mSnapshot : null;
+    }
+
+
+    // The snapshot returned by the last acquireSnapshot(), or null. Same thread as acquireSnapshot()
+    public FrameSnapshot getAcquiredSnapshot()
+    {
+        Slot<T> slot = mSlots.getReadBuffer();
+        return slot != null ? slot.mSnapshot : null;
+    }
+
+
+    // The frame the snapshot returned by the last acquireSnapshot() was prepared from, or null.
+    // It is not released before the next acquireSnapshot(). Same thread as acquireSnapshot()
+    public T getAcquiredFrame()
+    {
+        Slot<T> slot = mSlots.getReadBuffer();
+        return slot != null ? slot.mFrame : null;
+    }
+
+
+    private void prepareFrames()
+    {
+        while (mIsRunning)
+        {
+            T frame = mPendingFrame.getAndSet(null);
+            if (frame == null)
+            {
+                // Returns at once if submit() or stop() unparked the thread since the last time
+                LockSupport.park(this);
+                continue;
+            }
+
+            // The reader let go of the slot, the frame of its previous snapshot can go
+            Slot<T> slot = mSlots.getWriteBuffer();
+            release(slot.mFrame);
+            slot.mFrame = null;
+
+            FrameSnapshot snapshot = slot.mSnapshot;
+            snapshot.clear(++mSequence);
+
+            // An exception would end the thread, and the rendering would show the last frame forever
+            Listener listener = mListener;
+            try
+            {
+                mCallback.prepareFrame(frame, snapshot);
+            }
+            catch (RuntimeException e)
+            {
+                mFailedFrames.incrementAndGet();
+                release(frame);
+                if (listener != null)
+                {
+                    listener.onFramePreparationFailed(e);
+                }
+                continue;
+            }
+
+            slot.mFrame = frame;
+            mSlots.publish();
+            if (listener != null)
+            {
+                listener.onFramePrepared(snapshot);
+            }
+        }
+    }
+
+
+    private void release(T frame)
+    {
+        Releaser<T> releaser = mReleaser;
+        if (frame != null && releaser != null)
+        {
+            releaser.releaseFrame(frame);
+        }
+    }
+
+
+    public long getSubmittedFrames()
+    {
+        return mSubmittedFrames.get();
+    }
+
+
+    // Frames replaced by a newer one before their preparation started
+    public long getReplacedFrames()
+    {
+        return mReplacedFrames.get();
+    }
+
+
+    // Frames whose Callback threw, they were not published
+    public long getFailedFrames()
+    {
+        return mFailedFrames.get();
+    }
+
+
+    public long getPreparedFrames()
+    {
+        return mSlots.getNumPublished();
+    }
+}
@@ -0,0 +1,275 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.Arrays;
+
+/**
+ * What the rendering thread needs of one camera frame, prepared ahead of it
+ *
+ * A snapshot holds the projection and view matrices, one result per trackable
+ * with its ID, type, status and pose, and the instances to draw, each with its
+ * model-view-projection matrix and two values chosen by the renderer, e.g. the
+ * mesh and the texture. Matrices are column-major 4x4, stored one after the
+ * other in arrays read at index * MATRIX_SIZE.
+ *
+ * Snapshots are filled on the preparation thread and handed to the rendering
+ * thread through a TripleBuffer, which reuses them. Once published a snapshot
+ * must not be modified: the setters are only for the thread preparing it. The
+ * arrays grow as needed and are kept for the next frames
+ */
+public class FrameSnapshot
+{
+    public static final int MATRIX_SIZE = 16;
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private long mSequence = 0;
+    private double mTimestamp = 0.0;
+
+    private final float[] mProjection = new float[MATRIX_SIZE];
+    private final float[] mView = new float[MATRIX_SIZE];
+    private boolean mHasDevice = false;
+    private boolean mHasDevicePose = false;
+    private int mDeviceStatus = 0;
+    private int mDeviceStatusInfo = 0;
+
+    private int mNumResults = 0;
+    private int[] mIds;
+    private int[] mTypes;
+    private int[] mStatuses;
+    private int[] mStatusInfos;
+    private float[] mPoses;
+
+    private int mNumInstances = 0;
+    private int[] mInstanceResults;
+    private int[] mInstanceMeshes;
+    private int[] mInstanceTextures;
+    private float[] mModelViewProjections;
+
+
+    public FrameSnapshot()
+    {
+        mIds = new int[DEFAULT_CAPACITY];
+        mTypes = new int[DEFAULT_CAPACITY];
+        mStatuses = new int[DEFAULT_CAPACITY];
+        mStatusInfos = new int[DEFAULT_CAPACITY];
+        mPoses = new float[DEFAULT_CAPACITY * MATRIX_SIZE];
+
+        mInstanceResults = new int[DEFAULT_CAPACITY];
+        mInstanceMeshes = new int[DEFAULT_CAPACITY];
+        mInstanceTextures = new int[DEFAULT_CAPACITY];
+        mModelViewProjections = new float[DEFAULT_CAPACITY * MATRIX_SIZE];
+    }
+
+
+    // Empties the snapshot for a new frame. The view starts as identity, i.e. no device pose
+    public void clear(long sequence)
+    {
+        mSequence = sequence;
+        mTimestamp = 0.0;
+        mNumResults = 0;
+        mNumInstances = 0;
+        mHasDevice = false;
+        mHasDevicePose = false;
+        mDeviceStatus = 0;
+        mDeviceStatusInfo = 0;
+        SampleArrayMath.Matrix44FIdentity(mView, 0);
+    }
+
+
+    // Timestamp of the camera frame, in seconds
+    public void setTimestamp(double timestamp)
+    {
+        mTimestamp = timestamp;
+    }
+
+
+    public void setProjection(float[] projection, int offset)
+    {
+        System.arraycopy(projection, offset, mProjection, 0, MATRIX_SIZE);
+    }
+
+
+    // The status of the device pose, with the view matrix if there is a pose
+    public void setDevice(int status, int statusInfo, float[] view, int offset)
+    {
+        mHasDevice = true;
+        mDeviceStatus = status;
+        mDeviceStatusInfo = statusInfo;
+        mHasDevicePose = view != null;
+        if (view != null)
+        {
+            System.arraycopy(view, offset, mView, 0, MATRIX_SIZE);
+        }
+    }
+
+
+    // Adds a trackable result and returns its index
+    public int addResult(int id, int type, int status, int statusInfo, float[] pose, int offset)
+    {
+        if (mNumResults == mIds.length)
+        {
+            int capacity = mIds.length * 2;
+            mIds = Arrays.copyOf(mIds, capacity);
+            mTypes = Arrays.copyOf(mTypes, capacity);
+            mStatuses = Arrays.copyOf(mStatuses, capacity);
+            mStatusInfos = Arrays.copyOf(mStatusInfos, capacity);
+            mPoses = Arrays.copyOf(mPoses, capacity * MATRIX_SIZE);
+        }
+
+        int index = mNumResults++;
+        mIds[index] = id;
+        mTypes[index] = type;
+        mStatuses[index] = status;
+        mStatusInfos[index] = statusInfo;
+        System.arraycopy(pose, offset, mPoses, index * MATRIX_SIZE, MATRIX_SIZE);
+        return index;
+    }
+
+
+    // Adds an instance to draw for a result and returns its index
+    public int addInstance(int result, int mesh, int texture, float[] modelViewProjection, int offset)
+    {
+        if (mNumInstances == mInstanceResults.length)
+        {
+            int capacity = mInstanceResults.length * 2;
+            mInstanceResults = Arrays.copyOf(mInstanceResults, capacity);
+            mInstanceMeshes = Arrays.copyOf(mInstanceMeshes, capacity);
+            mInstanceTextures = Arrays.copyOf(mInstanceTextures, capacity);
+            mModelViewProjections = Arrays.copyOf(mModelViewProjections, capacity * MATRIX_SIZE);
+        }
+
+        int index = mNumInstances++;
+        mInstanceResults[index] = result;
+        mInstanceMeshes[index] = mesh;
+        mInstanceTextures[index] = texture;
+        System.arraycopy(modelViewProjection, offset, mModelViewProjections, index * MATRIX_SIZE, MATRIX_SIZE);
+        return index;
+    }
+
+
+    // Increases with every frame prepared
+    public long getSequence()
+    {
+        return mSequence;
+    }
+
+
+    // Timestamp of the camera frame, in seconds
+    public double getTimestamp()
+    {
+        return mTimestamp;
+    }
+
+
+    public float[] getProjection()
+    {
+        return mProjection;
+    }
+
+
+    // Inverse of the device pose, identity without one
+    public float[] getView()
+    {
+        return mView;
+    }
+
+
+    // True if the frame had a device result, the device status is only valid then
+    public boolean hasDevice()
+    {
+        return mHasDevice;
+    }
+
+
+    public boolean hasDevicePose()
+    {
+        return mHasDevicePose;
+    }
+
+
+    public int getDeviceStatus()
+    {
+        return mDeviceStatus;
+    }
+
+
+    public int getDeviceStatusInfo()
+    {
+        return mDeviceStatusInfo;
+    }
+
+
+    public int getNumResults()
+    {
+        return mNumResults;
+    }
+
+
+    public int getId(int result)
+    {
+        return mIds[result];
+    }
+
+
+    public int getType(int result)
+    {
+        return mTypes[result];
+    }
+
+
+    public int getStatus(int result)
+    {
+        return mStatuses[result];
+    }
+
+
+    public int getStatusInfo(int result)
+    {
+        return mStatusInfos[result];
+    }
+
+
+    // Poses of all the results, the one of a result starts at result * MATRIX_SIZE
+    public float[] getPoses()
+    {
+        return mPoses;
+    }
+
+
+    public int getNumInstances()
+    {
+        return mNumInstances;
+    }
+
+
+    public int getInstanceResult(int instance)
+    {
+        return mInstanceResults[instance];
+    }
+
+
+    public int getInstanceMesh(int instance)
+    {
+        return mInstanceMeshes[instance];
+    }
+
+
+    public int getInstanceTexture(int instance)
+    {
+        return mInstanceTextures[instance];
+    }
+
+
+    // Matrices of all the instances, the one of an instance starts at instance * MATRIX_SIZE
+    public float[] getModelViewProjections()
+    {
+        return mModelViewProjections;
+    }
+}
@@ -0,0 +1,123 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Optional on-screen display of the frame timings of a FrameTimingRecorder
+ *
+ * The text is refreshed twice per second on the UI thread, reading the
+ * recorder never blocks the rendering thread. show() and hide() may be called
+ * from any thread
+ */
+public class FrameTimingOverlay
+{
+    private static final long UPDATE_PERIOD_MS = 500;
+
+    private final WeakReference<Activity> mActivityRef;
+    private final FrameTimingRecorder mRecorder;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private TextView mTextView;
+    private boolean mIsShown = false;
+
+    private final Runnable mUpdateRunnable = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            if (!mIsShown || mTextView == null)
+            {
+                return;
+            }
+
+            mTextView.setText(mRecorder.getSummary().toDisplayString());
+            mHandler.postDelayed(this, UPDATE_PERIOD_MS);
+        }
+    };
+
+
+    public FrameTimingOverlay(Activity activity, FrameTimingRecorder recorder)
+    {
+        mActivityRef = new WeakReference<>(activity);
+        mRecorder = recorder;
+    }
+
+
+    public void show()
+    {
+        mHandler.post(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                Activity activity = mActivityRef.get();
+                if (mIsShown || activity == null)
+                {
+                    return;
+                }
+
+                if (mTextView == null)
+                {
+                    mTextView = createTextView(activity);
+                    activity.addContentView(mTextView, new FrameLayout.LayoutParams(
+                            ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                            Gravity.TOP | Gravity.START));
+                }
+
+                mTextView.setVisibility(TextView.VISIBLE);
+                mIsShown = true;
+                mUpdateRunnable.run();
+            }
+        });
+    }
+
+
+    public void hide()
+    {
+        mHandler.post(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                mIsShown = false;
+                mHandler.removeCallbacks(mUpdateRunnable);
+
+                if (mTextView != null)
+                {
+                    mTextView.setVisibility(TextView.GONE);
+                }
+            }
+        });
+    }
+
+
+    private static TextView createTextView(Activity activity)
+    {
+        TextView textView = new TextView(activity);
+        textView.setTypeface(Typeface.MONOSPACE);
+        textView.setTextSize(10);
+        textView.setTextColor(Color.WHITE);
+        textView.setBackgroundColor(Color.argb(128, 0, 0, 0));
+
+        int padding = (int) (4 * activity.getResources().getDisplayMetrics().density);
+        textView.setPadding(padding, padding, padding, padding);
+        return textView;
+    }
+}
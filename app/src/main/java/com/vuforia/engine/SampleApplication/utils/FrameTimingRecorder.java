@@ -0,0 +1,453 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how long each stage of a frame takes
+ *
+ * The rendering thread brackets every frame with beginFrame() and endFrame(),
+ * and every stage with beginStage() and endStage(). The duration of each stage
+ * goes into a LatencyHistogram and, together with the interval since the
+ * previous frame, into a ring buffer keeping the last frames. Frames arriving
+ * later than the target frame period are counted as dropped frames.
+ *
+ * Recording is lock-free and does not allocate. Other threads may read a
+ * Summary, export the recent frames, or request a reset() at any time; the
+ * reset is applied by the rendering thread at the start of the next frame.
+ *
+ * This class does not depend on Android and can be driven on a JVM with a
+ * custom Clock
+ */
+public class FrameTimingRecorder
+{
+    public static final int STAGE_UPDATE_STATE = 0;
+    public static final int STAGE_VIDEO_BACKGROUND = 1;
+    // Includes STAGE_VIDEO_BACKGROUND, which samples render from their renderFrame()
+    public static final int STAGE_RENDER_FRAME = 2;
+    public static final int STAGE_RENDERER_END = 3;
+    public static final int STAGE_FRAME = 4;
+    public static final int NUM_STAGES = 5;
+
+    private static final String[] STAGE_NAMES =
+            { "updateState", "videoBackground", "renderFrame", "rendererEnd", "frame" };
+
+    public static final int DEFAULT_CAPACITY = 512;
+    public static final long DEFAULT_FRAME_PERIOD_NS = 1000000000L / 60;
+
+    // Intervals above this are pauses, e.g. the activity was in the background
+    private static final long MAX_FRAME_INTERVAL_NS = 1000000000L;
+
+    // A frame is dropped when it comes this many periods after the previous one
+    private static final double DROPPED_FRAME_THRESHOLD = 1.5;
+
+    // Per frame: sequence number, interval since previous frame, then the stages
+    private static final int RECORD_SIZE = 2 + NUM_STAGES;
+
+    public interface Clock
+    {
+        long nanoTime();
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock()
+    {
+        @Override
+        public long nanoTime()
+        {
+            return System.nanoTime();
+        }
+    };
+
+
+    private final Clock mClock;
+    private final int mCapacity;
+    private final long mFramePeriodNs;
+
+    private final LatencyHistogram[] mStageHistograms = new LatencyHistogram[NUM_STAGES];
+    private final LatencyHistogram mIntervalHistogram = new LatencyHistogram();
+
+    // Ring of the last mCapacity frames, written by the rendering thread only.
+    // mFramesWritten is published after each record so readers can tell which
+    // records are complete and which may have been overwritten while copying
+    private final long[] mRecords;
+    private final AtomicLong mFramesWritten = new AtomicLong(0);
+
+    private final AtomicLong mDroppedFrames = new AtomicLong(0);
+
+    // Rendering thread state
+    private final long[] mStageStart = new long[NUM_STAGES];
+    private final long[] mStageDuration = new long[NUM_STAGES];
+    private long mFrameStart = 0;
+    private long mLastFrameStart = 0;
+    private long mFrameInterval = 0;
+    private boolean mIsInFrame = false;
+
+    private volatile boolean mIsEnabled = true;
+    private volatile boolean mResetRequested = false;
+
+
+    public FrameTimingRecorder()
+    {
+        this(SYSTEM_CLOCK, DEFAULT_CAPACITY, DEFAULT_FRAME_PERIOD_NS);
+    }
+
+
+    public FrameTimingRecorder(Clock clock, int capacity, long framePeriodNs)
+    {
+        if (capacity <= 0 || framePeriodNs <= 0)
+        {
+            throw new IllegalArgumentException("capacity and framePeriodNs must be positive");
+        }
+
+        mClock = clock;
+        mCapacity = capacity;
+        mFramePeriodNs = framePeriodNs;
+        mRecords = new long[capacity * RECORD_SIZE];
+
+        for (int stage = 0; stage < NUM_STAGES; stage++)
+        {
+            mStageHistograms[stage] = new LatencyHistogram();
+        }
+    }
+
+
+    public void setEnabled(boolean enabled)
+    {
+        mIsEnabled = enabled;
+    }
+
+
+    public boolean isEnabled()
+    {
+        return mIsEnabled;
+    }
+
+
+    // May be called from any thread, takes effect on the next frame
+    public void reset()
+    {
+        mResetRequested = true;
+    }
+
+
+    public static String getStageName(int stage)
+    {
+        return STAGE_NAMES[stage];
+    }
+
+
+    public void beginFrame()
+    {
+        if (!mIsEnabled)
+        {
+            mIsInFrame = false;
+            return;
+        }
+
+        if (mResetRequested)
+        {
+            applyReset();
+        }
+
+        long now = mClock.nanoTime();
+        mFrameInterval = mLastFrameStart == 0 ? 0 : now - mLastFrameStart;
+        mLastFrameStart = now;
+        mFrameStart = now;
+
+        for (int stage = 0; stage < NUM_STAGES; stage++)
+        {
+            mStageDuration[stage] = -1;
+        }
+
+        mIsInFrame = true;
+    }
+
+
+    public void beginStage(int stage)
+    {
+        if (mIsInFrame)
+        {
+            mStageStart[stage] = mClock.nanoTime();
+        }
+    }
+
+
+    public void endStage(int stage)
+    {
+        if (mIsInFrame)
+        {
+            mStageDuration[stage] = mClock.nanoTime() - mStageStart[stage];
+        }
+    }
+
+
+    public void endFrame()
+    {
+        if (!mIsInFrame)
+        {
+            return;
+        }
+
+        mIsInFrame = false;
+        mStageDuration[STAGE_FRAME] = mClock.nanoTime() - mFrameStart;
+
+        for (int stage = 0; stage < NUM_STAGES; stage++)
+        {
+            if (mStageDuration[stage] >= 0)
+            {
+                mStageHistograms[stage].record(mStageDuration[stage]);
+            }
+        }
+
+        if (mFrameInterval > 0 && mFrameInterval <= MAX_FRAME_INTERVAL_NS)
+        {
+            mIntervalHistogram.record(mFrameInterval);
+
+            if (mFrameInterval > mFramePeriodNs * DROPPED_FRAME_THRESHOLD)
+            {
+                mDroppedFrames.addAndGet(Math.max(1, Math.round((double) mFrameInterval / mFramePeriodNs) - 1));
+            }
+        }
+
+        long frame = mFramesWritten.get();
+        int offset = (int) (frame % mCapacity) * RECORD_SIZE;
+        mRecords[offset] = frame;
+        mRecords[offset + 1] = mFrameInterval;
+        System.arraycopy(mStageDuration, 0, mRecords, offset + 2, NUM_STAGES);
+
+        // Volatile write, publishes the record above to the readers
+        mFramesWritten.set(frame + 1);
+    }
+
+
+    public long getFrameCount()
+    {
+        return mFramesWritten.get();
+    }
+
+
+    public long getDroppedFrameCount()
+    {
+        return mDroppedFrames.get();
+    }
+
+
+    public LatencyHistogram getStageHistogram(int stage)
+    {
+        return mStageHistograms[stage];
+    }
+
+
+    public LatencyHistogram getFrameIntervalHistogram()
+    {
+        return mIntervalHistogram;
+    }
+
+
+    public Summary getSummary()
+    {
+        return new Summary(this);
+    }
+
+
+    // Copies up to capacity - 1 of the most recent frames into out, oldest first, each
+    // as getRecordSize() values: frame number, interval since the previous frame, then
+    // the duration of each stage in nanoseconds or -1 if the stage did not run.
+    // Returns the number of frames copied
+    public int copyRecentFrames(long[] out)
+    {
+        // The slot after the newest frame may be being written, leave it out
+        int maxFrames = Math.min(mCapacity - 1, out.length / RECORD_SIZE);
+
+        long end = mFramesWritten.get();
+        long start = Math.max(0, end - maxFrames);
+
+        for (long frame = start; frame < end; frame++)
+        {
+            int offset = (int) (frame % mCapacity) * RECORD_SIZE;
+            System.arraycopy(mRecords, offset, out, (int) (frame - start) * RECORD_SIZE, RECORD_SIZE);
+        }
+
+        // Drop the records the rendering thread may have overwritten during the copy,
+        // including the one it may be writing right now and has not published yet
+        long overwrittenBefore = mFramesWritten.get() + 1 - mCapacity;
+        int skip = (int) Math.max(0, Math.min(end - start, overwrittenBefore - start));
+        if (skip > 0)
+        {
+            System.arraycopy(out, skip * RECORD_SIZE, out, 0, (int) (end - start - skip) * RECORD_SIZE);
+        }
+
+        return (int) (end - start - skip);
+    }
+
+
+    public static int getRecordSize()
+    {
+        return RECORD_SIZE;
+    }
+
+
+    // Recent frames as CSV, one line per frame, durations in nanoseconds
+    public String toCsv()
+    {
+        long[] records = new long[mCapacity * RECORD_SIZE];
+        int numFrames = copyRecentFrames(records);
+
+        StringBuilder csv = new StringBuilder();
+        csv.append("frame,intervalNs");
+        for (int stage = 0; stage < NUM_STAGES; stage++)
+        {
+            csv.append(',').append(STAGE_NAMES[stage]).append("Ns");
+        }
+        csv.append('\n');
+
+        for (int i = 0; i < numFrames; i++)
+        {
+            int offset = i * RECORD_SIZE;
+            csv.append(records[offset]);
+            for (int value = 1; value < RECORD_SIZE; value++)
+            {
+                csv.append(',').append(records[offset + value]);
+            }
+            csv.append('\n');
+        }
+
+        return csv.toString();
+    }
+
+
+    public String toJson()
+    {
+        return getSummary().toJson();
+    }
+
+
+    private void applyReset()
+    {
+        mResetRequested = false;
+
+        for (LatencyHistogram histogram : mStageHistograms)
+        {
+            histogram.reset();
+        }
+
+        mIntervalHistogram.reset();
+        mDroppedFrames.set(0);
+        mLastFrameStart = 0;
+    }
+
+
+    /**
+     * Percentiles of every stage at the time the summary was taken
+     */
+    public static class Summary
+    {
+        // Frames recorded since the last reset
+        public final long frameCount;
+        public final long droppedFrameCount;
+
+        // Indexed by stage, in nanoseconds
+        public final long[] p50 = new long[NUM_STAGES];
+        public final long[] p95 = new long[NUM_STAGES];
+        public final long[] p99 = new long[NUM_STAGES];
+        public final long[] max = new long[NUM_STAGES];
+        public final long[] mean = new long[NUM_STAGES];
+
+        public final long intervalP50;
+        public final long intervalP99;
+
+
+        private Summary(FrameTimingRecorder recorder)
+        {
+            droppedFrameCount = recorder.getDroppedFrameCount();
+
+            long frames = 0;
+            long[] counts = new long[LatencyHistogram.getNumBuckets()];
+            for (int stage = 0; stage < NUM_STAGES; stage++)
+            {
+                LatencyHistogram histogram = recorder.mStageHistograms[stage];
+                long total = histogram.copyCounts(counts);
+                if (stage == STAGE_FRAME)
+                {
+                    frames = total;
+                }
+
+                max[stage] = histogram.getMaxNs();
+
+                // Buckets report their upper bound, which may be above the largest value
+                p50[stage] = Math.min(LatencyHistogram.getValueAtPercentile(counts, total, 50.0), max[stage]);
+                p95[stage] = Math.min(LatencyHistogram.getValueAtPercentile(counts, total, 95.0), max[stage]);
+                p99[stage] = Math.min(LatencyHistogram.getValueAtPercentile(counts, total, 99.0), max[stage]);
+                mean[stage] = histogram.getMeanNs();
+            }
+
+            frameCount = frames;
+
+            LatencyHistogram intervals = recorder.mIntervalHistogram;
+            long total = intervals.copyCounts(counts);
+            intervalP50 = Math.min(LatencyHistogram.getValueAtPercentile(counts, total, 50.0), intervals.getMaxNs());
+            intervalP99 = Math.min(LatencyHistogram.getValueAtPercentile(counts, total, 99.0), intervals.getMaxNs());
+        }
+
+
+        // Durations are written in milliseconds
+        public String toJson()
+        {
+            StringBuilder json = new StringBuilder();
+            json.append("{\"frames\":").append(frameCount)
+                    .append(",\"droppedFrames\":").append(droppedFrameCount)
+                    .append(",\"frameIntervalMs\":{\"p50\":").append(toMs(intervalP50))
+                    .append(",\"p99\":").append(toMs(intervalP99)).append('}')
+                    .append(",\"stagesMs\":{");
+
+            for (int stage = 0; stage < NUM_STAGES; stage++)
+            {
+                if (stage > 0)
+                {
+                    json.append(',');
+                }
+
+                json.append('"').append(STAGE_NAMES[stage]).append("\":{")
+                        .append("\"p50\":").append(toMs(p50[stage]))
+                        .append(",\"p95\":").append(toMs(p95[stage]))
+                        .append(",\"p99\":").append(toMs(p99[stage]))
+                        .append(",\"max\":").append(toMs(max[stage]))
+                        .append(",\"mean\":").append(toMs(mean[stage]))
+                        .append('}');
+            }
+
+            json.append("}}");
+            return json.toString();
+        }
+
+
+        // Short multi-line text for the on-screen overlay
+        public String toDisplayString()
+        {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(Locale.US, "frames %d  dropped %d%n", frameCount, droppedFrameCount));
+            text.append("stage  p50 / p95 / p99 ms");
+
+            for (int stage = 0; stage < NUM_STAGES; stage++)
+            {
+                text.append(String.format(Locale.US, "%n%s  %s / %s / %s", STAGE_NAMES[stage],
+                        toMs(p50[stage]), toMs(p95[stage]), toMs(p99[stage])));
+            }
+
+            return text.toString();
+        }
+
+
+        private static String toMs(long ns)
+        {
+            return String.format(Locale.US, "%.2f", ns / 1000000.0);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+/**
+ * Estimates how long the GPU takes to draw a frame from when the rendering
+ * thread starts and ends its frames, for RenderScaleController
+ *
+ * GL calls only queue commands, so the time a frame takes on the CPU says
+ * nothing of what it costs the GPU. OpenGL ES 2.0 has no timer queries, but
+ * when the GPU falls behind, the buffer swap after a frame blocks until a
+ * buffer is free and the frames follow each other at the rate the GPU
+ * completes them. A frame that starts later than it could, after the previous
+ * one ended and after the pacer asked for it when rendering on demand, waited
+ * on the swap: the interval between the two frame starts is then the GPU frame
+ * time. The wait for the next camera frame is not part of it.
+ *
+ * A frame that started as soon as it could did not wait on the GPU, whose frame
+ * time is only known to be shorter than the time the CPU took. That time is
+ * capped at the target frame time, so that a frame slow because of its CPU work
+ * keeps the resolution, which lowering would not make any faster.
+ *
+ * This class must only be used from the rendering thread
+ */
+public class GpuFrameTimeEstimator
+{
+    // Returned while there is no previous frame to estimate
+    public static final long NO_ESTIMATE = -1;
+
+    // Passed as the ready time of frames rendered continuously
+    public static final long NOT_PACED = -1;
+
+    // Shorter delays are the rendering thread waking up, not a blocked swap
+    private static final long SWAP_WAIT_THRESHOLD_NS = 2000000L;
+
+    private final long mTargetFrameTimeNs;
+
+    private boolean mHasFrame = false;
+    private boolean mIsInFrame = false;
+    private long mFrameStartNs;
+    private long mFrameEndNs;
+
+
+    public GpuFrameTimeEstimator(long targetFrameTimeNs)
+    {
+        if (targetFrameTimeNs <= 0)
+        {
+            throw new IllegalArgumentException("targetFrameTimeNs must be positive");
+        }
+
+        mTargetFrameTimeNs = targetFrameTimeNs;
+    }
+
+
+    // The rendering thread starts a frame at startNs, which the pacer allowed from readyNs
+    // on, or NOT_PACED. Returns the estimated GPU time of the previous frame, or NO_ESTIMATE
+    public long onFrameStart(long startNs, long readyNs)
+    {
+        long estimate = NO_ESTIMATE;
+
+        if (mHasFrame && !mIsInFrame)
+        {
+            long interval = startNs - mFrameStartNs;
+            long earliestStart = readyNs == NOT_PACED ? mFrameEndNs : Math.max(readyNs, mFrameEndNs);
+            long swapWait = Math.max(0, startNs - earliestStart);
+
+            if (swapWait >= SWAP_WAIT_THRESHOLD_NS)
+            {
+                // The GPU set the pace
+                estimate = interval;
+            }
+            else
+            {
+                estimate = Math.min(mFrameEndNs - mFrameStartNs + swapWait, mTargetFrameTimeNs);
+            }
+        }
+
+        mHasFrame = true;
+        mIsInFrame = true;
+        mFrameStartNs = startNs;
+        return estimate;
+    }
+
+
+    public void onFrameEnd(long endNs)
+    {
+        if (mIsInFrame)
+        {
+            mIsInFrame = false;
+            mFrameEndNs = endNs;
+        }
+    }
+
+
+    // Forgets the previous frame, e.g. when frames were not measured for a while
+    public void reset()
+    {
+        mHasFrame = false;
+        mIsInFrame = false;
+    }
+
+
+    public long getTargetFrameTime()
+    {
+        return mTargetFrameTimeNs;
+    }
+}
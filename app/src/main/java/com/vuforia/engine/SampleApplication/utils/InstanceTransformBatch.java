@@ -0,0 +1,176 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.Arrays;
+
+/**
+ * The matrices and visibility of the augmentations of a frame, computed in
+ * parallel by a JobSystem
+ *
+ * The renderer reads the poses from the Vuforia results on its own thread and
+ * adds one instance per augmentation, with the pose of its target, the local
+ * transform of the model and the bounds of its mesh. run() then computes for
+ * every instance the model-view matrix, view * pose * local, culls it against
+ * the view frustum and computes its model-view-projection matrix. Instances
+ * are split between the workers GRAIN_SIZE at a time, fewer are handled on
+ * the calling thread. Results are at the index add() returned, so the order
+ * of the draws does not depend on the threads.
+ *
+ * Matrices are column-major 4x4, stored one after the other in arrays read at
+ * index * 16. The batch itself must only be used from one thread
+ */
+public class InstanceTransformBatch
+{
+    // Instances per job, below that the cost of handing them over is higher than the work
+    public static final int GRAIN_SIZE = 8;
+
+    private static final int MATRIX_SIZE = 16;
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private final JobSystem mJobSystem;
+    private final ViewFrustum mFrustum = new ViewFrustum();
+    private final float[] mProjection = new float[MATRIX_SIZE];
+    private final float[] mView = new float[MATRIX_SIZE];
+
+    private int mCount = 0;
+    private float[] mPoses = new float[DEFAULT_CAPACITY * MATRIX_SIZE];
+    private float[] mLocals = new float[DEFAULT_CAPACITY * MATRIX_SIZE];
+    private MeshBounds[] mBounds = new MeshBounds[DEFAULT_CAPACITY];
+    private float[] mModelViews = new float[DEFAULT_CAPACITY * MATRIX_SIZE];
+    private float[] mModelViewProjections = new float[DEFAULT_CAPACITY * MATRIX_SIZE];
+    private boolean[] mIsVisible = new boolean[DEFAULT_CAPACITY];
+    private int mVisibleCount = 0;
+
+    private final JobSystem.RangeTask mTransformTask = new JobSystem.RangeTask()
+    {
+        @Override
+        public void run(int begin, int end)
+        {
+            transform(begin, end);
+        }
+    };
+
+
+    public InstanceTransformBatch(JobSystem jobSystem)
+    {
+        mJobSystem = jobSystem;
+    }
+
+
+    // Starts a frame with its projection and view matrices. A null view is identity
+    public void begin(float[] projection, int projectionOffset, float[] view, int viewOffset)
+    {
+        System.arraycopy(projection, projectionOffset, mProjection, 0, MATRIX_SIZE);
+        if (view != null)
+        {
+            System.arraycopy(view, viewOffset, mView, 0, MATRIX_SIZE);
+        }
+        else
+        {
+            SampleArrayMath.Matrix44FIdentity(mView, 0);
+        }
+
+        mFrustum.setProjection(mProjection, 0);
+        Arrays.fill(mBounds, 0, mCount, null);
+        mCount = 0;
+        mVisibleCount = 0;
+    }
+
+
+    // Adds an instance and returns its index. bounds may be null for instances never culled
+    public int add(float[] pose, int poseOffset, float[] local, int localOffset, MeshBounds bounds)
+    {
+        if (mCount == mBounds.length)
+        {
+            int capacity = mCount * 2;
+            mPoses = Arrays.copyOf(mPoses, capacity * MATRIX_SIZE);
+            mLocals = Arrays.copyOf(mLocals, capacity * MATRIX_SIZE);
+            mBounds = Arrays.copyOf(mBounds, capacity);
+            mModelViews = Arrays.copyOf(mModelViews, capacity * MATRIX_SIZE);
+            mModelViewProjections = Arrays.copyOf(mModelViewProjections, capacity * MATRIX_SIZE);
+            mIsVisible = Arrays.copyOf(mIsVisible, capacity);
+        }
+
+        int index = mCount++;
+        System.arraycopy(pose, poseOffset, mPoses, index * MATRIX_SIZE, MATRIX_SIZE);
+        System.arraycopy(local, localOffset, mLocals, index * MATRIX_SIZE, MATRIX_SIZE);
+        mBounds[index] = bounds;
+        return index;
+    }
+
+
+    // Computes the matrices and visibility of all the instances, returns once they are done
+    public void run()
+    {
+        mJobSystem.parallelFor(mCount, GRAIN_SIZE, mTransformTask);
+
+        int visibleCount = 0;
+        for (int i = 0; i < mCount; i++)
+        {
+            if (mIsVisible[i])
+            {
+                visibleCount++;
+            }
+        }
+        mVisibleCount = visibleCount;
+    }
+
+
+    // Only touches the instances in the range, and reads nothing written by other ranges
+    private void transform(int begin, int end)
+    {
+        for (int i = begin; i < end; i++)
+        {
+            int offset = i * MATRIX_SIZE;
+
+            // The model-view matrix holds the model matrix until it is complete
+            SampleArrayMath.Matrix44FMultiply(mModelViews, offset, mPoses, offset, mLocals, offset);
+            SampleArrayMath.Matrix44FMultiply(mModelViews, offset, mView, 0, mModelViews, offset);
+
+            mIsVisible[i] = mBounds[i] == null
+                    || mFrustum.classify(mBounds[i], mModelViews, offset) != ViewFrustum.OUTSIDE;
+            if (mIsVisible[i])
+            {
+                SampleArrayMath.Matrix44FMultiply(mModelViewProjections, offset, mProjection, 0, mModelViews, offset);
+            }
+        }
+    }
+
+
+    public int getCount()
+    {
+        return mCount;
+    }
+
+
+    public int getVisibleCount()
+    {
+        return mVisibleCount;
+    }
+
+
+    public boolean isVisible(int index)
+    {
+        return mIsVisible[index];
+    }
+
+
+    // Model-view matrices of all the instances, the one of an instance starts at index * 16
+    public float[] getModelViews()
+    {
+        return mModelViews;
+    }
+
+
+    // Only valid for the visible instances
+    public float[] getModelViewProjections()
+    {
+        return mModelViewProjections;
+    }
+}
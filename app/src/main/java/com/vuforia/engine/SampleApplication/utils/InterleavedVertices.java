@@ -0,0 +1,461 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * The vertices of a MeshObject packed into one buffer following a VertexLayout
+ *
+ * An attribute the layout cannot store faithfully is kept as floats: normals
+ * that are not unit length, and tex coords outside [0, 1], which repeat the
+ * texture. getLayout() is the layout actually used, to bind the buffer with.
+ *
+ * NORMALIZED_SHORT positions are stored relative to the bounding box of the
+ * mesh and scaled by its largest half extent, the same on all axes so that the
+ * normal matrix is unchanged. Renderers multiply the model-view and
+ * model-view-projection matrices by getPositionDecodeMatrix(), but not the
+ * normal matrix.
+ *
+ * getPosition(), getNormal() and getTexCoord() decode a vertex the way the GL
+ * does, with the OpenGL ES 3.0 rule for signed normalized values. OpenGL ES 2.0
+ * maps them with (2c + 1) / (2^b - 1), which differs by at most half a step
+ */
+public final class InterleavedVertices
+{
+    // Normals further from unit length are not quantized
+    private static final float UNIT_LENGTH_TOLERANCE = 1.0e-3f;
+
+    private static final int SHORT_MAX = 32767;
+    private static final int UNSIGNED_SHORT_MAX = 65535;
+    private static final int BYTE_MAX = 127;
+    private static final int TEN_BITS_MAX = 511;
+
+    private final ByteBuffer mData;
+    private final VertexLayout mLayout;
+    private final int mNumVertices;
+
+    // Applied to NORMALIZED_SHORT positions: position = offset + scale * value, zero
+    // and one for the other formats
+    private final float[] mPositionOffset = new float[3];
+    private final float mPositionScale;
+
+
+    private InterleavedVertices(ByteBuffer data, VertexLayout layout, int numVertices,
+            MeshBounds bounds)
+    {
+        mData = data;
+        mLayout = layout;
+        mNumVertices = numVertices;
+
+        if (layout.getPositionFormat() == VertexLayout.PositionFormat.NORMALIZED_SHORT)
+        {
+            float scale = 0.0f;
+            for (int axis = 0; axis < 3; axis++)
+            {
+                mPositionOffset[axis] = bounds.getCenter(axis);
+                scale = Math.max(scale, bounds.getHalfExtent(axis));
+            }
+
+            // A single point is still stored exactly
+            mPositionScale = scale > 0.0f ? scale : 1.0f;
+        }
+        else
+        {
+            mPositionScale = 1.0f;
+        }
+    }
+
+
+    public static InterleavedVertices build(MeshObject mesh, VertexLayout layout)
+    {
+        int numVertices = mesh.getNumObjectVertex();
+        FloatBuffer positions = MeshObject.asFloatBuffer(mesh.getVertices());
+        FloatBuffer normals = mesh.getNormals() != null ? MeshObject.asFloatBuffer(mesh.getNormals()) : null;
+        FloatBuffer texCoords = mesh.getTexCoords() != null ? MeshObject.asFloatBuffer(mesh.getTexCoords()) : null;
+
+        if (normals == null)
+        {
+            layout = layout.withNormalFormat(VertexLayout.NormalFormat.NONE);
+        }
+        else if (layout.getNormalFormat() != VertexLayout.NormalFormat.NONE
+                && !isUnitLength(normals, numVertices))
+        {
+            layout = layout.withNormalFormat(VertexLayout.NormalFormat.FLOAT);
+        }
+
+        if (texCoords == null)
+        {
+            layout = layout.withTexCoordFormat(VertexLayout.TexCoordFormat.NONE);
+        }
+        else if (layout.getTexCoordFormat() == VertexLayout.TexCoordFormat.NORMALIZED_UNSIGNED_SHORT
+                && !isInUnitRange(texCoords, numVertices * 2))
+        {
+            layout = layout.withTexCoordFormat(VertexLayout.TexCoordFormat.FLOAT);
+        }
+
+        int stride = layout.getStride();
+        ByteBuffer data = SampleAssetReader.allocateNative(numVertices * stride);
+        InterleavedVertices vertices = new InterleavedVertices(data, layout, numVertices,
+                mesh.getBounds());
+
+        VertexLayout.Attribute normal = layout.getNormal();
+        VertexLayout.Attribute texCoord = layout.getTexCoord();
+        for (int v = 0; v < numVertices; v++)
+        {
+            int base = v * stride;
+            vertices.putPosition(base, positions.get(v * 3), positions.get(v * 3 + 1),
+                    positions.get(v * 3 + 2));
+
+            if (normal != null)
+            {
+                vertices.putNormal(base + normal.getOffset(), normals.get(v * 3),
+                        normals.get(v * 3 + 1), normals.get(v * 3 + 2));
+            }
+
+            if (texCoord != null)
+            {
+                vertices.putTexCoord(base + texCoord.getOffset(), texCoords.get(v * 2),
+                        texCoords.get(v * 2 + 1));
+            }
+        }
+
+        return vertices;
+    }
+
+
+    public ByteBuffer getData()
+    {
+        return mData;
+    }
+
+
+    public VertexLayout getLayout()
+    {
+        return mLayout;
+    }
+
+
+    public int getNumVertices()
+    {
+        return mNumVertices;
+    }
+
+
+    public int getSizeInBytes()
+    {
+        return mNumVertices * mLayout.getStride();
+    }
+
+
+    // False if the positions are drawn as they are
+    public boolean hasPositionDecode()
+    {
+        return mLayout.getPositionFormat() == VertexLayout.PositionFormat.NORMALIZED_SHORT;
+    }
+
+
+    // Column-major matrix from stored to model space positions, identity if there is
+    // no decoding to do
+    public void getPositionDecodeMatrix(float[] m, int offset)
+    {
+        for (int i = 0; i < 16; i++)
+        {
+            m[offset + i] = 0.0f;
+        }
+
+        m[offset] = m[offset + 5] = m[offset + 10] = mPositionScale;
+        m[offset + 12] = mPositionOffset[0];
+        m[offset + 13] = mPositionOffset[1];
+        m[offset + 14] = mPositionOffset[2];
+        m[offset + 15] = 1.0f;
+    }
+
+
+    public void getPosition(int vertex, float[] out, int offset)
+    {
+        int base = vertex * mLayout.getStride();
+        for (int i = 0; i < 3; i++)
+        {
+            switch (mLayout.getPositionFormat())
+            {
+                case HALF_FLOAT:
+                    out[offset + i] = fromHalf(mData.getShort(base + i * 2));
+                    break;
+                case NORMALIZED_SHORT:
+                    out[offset + i] = mPositionOffset[i]
+                            + mPositionScale * fromSnorm(mData.getShort(base + i * 2), SHORT_MAX);
+                    break;
+                default:
+                    out[offset + i] = mData.getFloat(base + i * 4);
+                    break;
+            }
+        }
+    }
+
+
+    // OCTAHEDRAL normals come out normalized as by OCTAHEDRAL_NORMAL_GLSL
+    public void getNormal(int vertex, float[] out, int offset)
+    {
+        int base = vertex * mLayout.getStride() + mLayout.getNormal().getOffset();
+        switch (mLayout.getNormalFormat())
+        {
+            case NORMALIZED_BYTE:
+                for (int i = 0; i < 3; i++)
+                {
+                    out[offset + i] = fromSnorm(mData.get(base + i), BYTE_MAX);
+                }
+                break;
+            case INT_10_10_10_2:
+                int packed = mData.getInt(base);
+                for (int i = 0; i < 3; i++)
+                {
+                    // x is in the most significant bits, the shifts sign extend
+                    out[offset + i] = fromSnorm((packed << (i * 10)) >> 22, TEN_BITS_MAX);
+                }
+                break;
+            case OCTAHEDRAL:
+                decodeOctahedral(fromSnorm(mData.getShort(base), SHORT_MAX),
+                        fromSnorm(mData.getShort(base + 2), SHORT_MAX), out, offset);
+                break;
+            default:
+                for (int i = 0; i < 3; i++)
+                {
+                    out[offset + i] = mData.getFloat(base + i * 4);
+                }
+                break;
+        }
+    }
+
+
+    public void getTexCoord(int vertex, float[] out, int offset)
+    {
+        int base = vertex * mLayout.getStride() + mLayout.getTexCoord().getOffset();
+        for (int i = 0; i < 2; i++)
+        {
+            if (mLayout.getTexCoordFormat() == VertexLayout.TexCoordFormat.NORMALIZED_UNSIGNED_SHORT)
+            {
+                out[offset + i] = (mData.getShort(base + i * 2) & 0xFFFF) / (float) UNSIGNED_SHORT_MAX;
+            }
+            else
+            {
+                out[offset + i] = mData.getFloat(base + i * 4);
+            }
+        }
+    }
+
+
+    private void putPosition(int base, float x, float y, float z)
+    {
+        switch (mLayout.getPositionFormat())
+        {
+            case HALF_FLOAT:
+                mData.putShort(base, toHalf(x));
+                mData.putShort(base + 2, toHalf(y));
+                mData.putShort(base + 4, toHalf(z));
+                break;
+            case NORMALIZED_SHORT:
+                mData.putShort(base, (short) toSnorm((x - mPositionOffset[0]) / mPositionScale, SHORT_MAX));
+                mData.putShort(base + 2, (short) toSnorm((y - mPositionOffset[1]) / mPositionScale, SHORT_MAX));
+                mData.putShort(base + 4, (short) toSnorm((z - mPositionOffset[2]) / mPositionScale, SHORT_MAX));
+                break;
+            default:
+                mData.putFloat(base, x);
+                mData.putFloat(base + 4, y);
+                mData.putFloat(base + 8, z);
+                break;
+        }
+    }
+
+
+    private void putNormal(int base, float x, float y, float z)
+    {
+        switch (mLayout.getNormalFormat())
+        {
+            case NORMALIZED_BYTE:
+                mData.put(base, (byte) toSnorm(x, BYTE_MAX));
+                mData.put(base + 1, (byte) toSnorm(y, BYTE_MAX));
+                mData.put(base + 2, (byte) toSnorm(z, BYTE_MAX));
+                break;
+            case INT_10_10_10_2:
+                mData.putInt(base, (toSnorm(x, TEN_BITS_MAX) & 0x3FF) << 22
+                        | (toSnorm(y, TEN_BITS_MAX) & 0x3FF) << 12
+                        | (toSnorm(z, TEN_BITS_MAX) & 0x3FF) << 2);
+                break;
+            case OCTAHEDRAL:
+                // Project on the octahedron |x| + |y| + |z| = 1, and fold the lower half
+                // over the upper one
+                float sum = Math.abs(x) + Math.abs(y) + Math.abs(z);
+                float u = x / sum;
+                float v = y / sum;
+                if (z < 0.0f)
+                {
+                    float foldedU = (1.0f - Math.abs(v)) * (u >= 0.0f ? 1.0f : -1.0f);
+                    v = (1.0f - Math.abs(u)) * (v >= 0.0f ? 1.0f : -1.0f);
+                    u = foldedU;
+                }
+                mData.putShort(base, (short) toSnorm(u, SHORT_MAX));
+                mData.putShort(base + 2, (short) toSnorm(v, SHORT_MAX));
+                break;
+            default:
+                mData.putFloat(base, x);
+                mData.putFloat(base + 4, y);
+                mData.putFloat(base + 8, z);
+                break;
+        }
+    }
+
+
+    private void putTexCoord(int base, float u, float v)
+    {
+        if (mLayout.getTexCoordFormat() == VertexLayout.TexCoordFormat.NORMALIZED_UNSIGNED_SHORT)
+        {
+            mData.putShort(base, (short) Math.round(u * UNSIGNED_SHORT_MAX));
+            mData.putShort(base + 2, (short) Math.round(v * UNSIGNED_SHORT_MAX));
+        }
+        else
+        {
+            mData.putFloat(base, u);
+            mData.putFloat(base + 4, v);
+        }
+    }
+
+
+    private static int toSnorm(float value, int max)
+    {
+        return Math.round(Math.max(-1.0f, Math.min(1.0f, value)) * max);
+    }
+
+
+    private static float fromSnorm(int value, int max)
+    {
+        return Math.max(-1.0f, value / (float) max);
+    }
+
+
+    // Same as OCTAHEDRAL_NORMAL_GLSL
+    private static void decodeOctahedral(float u, float v, float[] out, int offset)
+    {
+        float x = u;
+        float y = v;
+        float z = 1.0f - Math.abs(u) - Math.abs(v);
+        float t = Math.max(-z, 0.0f);
+        x += x >= 0.0f ? -t : t;
+        y += y >= 0.0f ? -t : t;
+
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        out[offset] = x / length;
+        out[offset + 1] = y / length;
+        out[offset + 2] = z / length;
+    }
+
+
+    private static boolean isUnitLength(FloatBuffer normals, int numVertices)
+    {
+        for (int v = 0; v < numVertices; v++)
+        {
+            float x = normals.get(v * 3);
+            float y = normals.get(v * 3 + 1);
+            float z = normals.get(v * 3 + 2);
+            if (Math.abs((float) Math.sqrt(x * x + y * y + z * z) - 1.0f) > UNIT_LENGTH_TOLERANCE)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    private static boolean isInUnitRange(FloatBuffer values, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            float value = values.get(i);
+            if (!(value >= 0.0f && value <= 1.0f))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    // IEEE 754 half precision, rounded to nearest even
+    private static short toHalf(float value)
+    {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = ((bits >>> 23) & 0xFF) - 127 + 15;
+        int mantissa = bits & 0x7FFFFF;
+
+        if (((bits >>> 23) & 0xFF) == 0xFF)
+        {
+            // Infinity or NaN
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0));
+        }
+
+        if (exponent >= 0x1F)
+        {
+            return (short) (sign | 0x7C00);
+        }
+
+        int half;
+        int shift;
+        if (exponent <= 0)
+        {
+            // Subnormal half, with the implicit bit of the float made explicit
+            if (exponent < -10)
+            {
+                return (short) sign;
+            }
+
+            mantissa |= 0x800000;
+            shift = 14 - exponent;
+            half = mantissa >> shift;
+        }
+        else
+        {
+            shift = 13;
+            half = (exponent << 10) | (mantissa >> shift);
+        }
+
+        // A carry out of the mantissa correctly moves to the next exponent
+        int rest = mantissa & ((1 << shift) - 1);
+        int halfway = 1 << (shift - 1);
+        if (rest > halfway || (rest == halfway && (half & 1) != 0))
+        {
+            half++;
+        }
+
+        return (short) (sign | half);
+    }
+
+
+    private static float fromHalf(short value)
+    {
+        int sign = (value & 0x8000) << 16;
+        int exponent = (value >>> 10) & 0x1F;
+        int mantissa = value & 0x3FF;
+
+        if (exponent == 0)
+        {
+            float subnormal = mantissa / (float) (1 << 24);
+            return sign != 0 ? -subnormal : subnormal;
+        }
+
+        if (exponent == 0x1F)
+        {
+            return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+        }
+
+        return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+    }
+}
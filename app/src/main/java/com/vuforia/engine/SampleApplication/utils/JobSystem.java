@@ -0,0 +1,478 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the CPU work of a frame on a fixed set of worker threads
+ *
+ * Work is scheduled as jobs, each of which may depend on jobs scheduled
+ * before it: a job only starts once all its dependencies are done, which
+ * builds the task graph of a frame. A parallel-for job runs a RangeTask over
+ * [0, count) and splits the range in halves, down to the grain size, as it
+ * goes. The halves split off are pushed on the deque of the worker running
+ * it, workers take their own jobs newest first and steal the oldest jobs of
+ * the others when they have none left.
+ *
+ * join() runs jobs on the calling thread until the job joined is done, so
+ * the rendering thread helps rather than blocks, and a system without
+ * workers runs everything there. Once nothing is left to take, it parks
+ * until the thread finishing the job unparks it. An exception thrown by a
+ * job is rethrown by join(). Idle workers are parked.
+ *
+ * API level 19 has no ForkJoinPool. This class does not depend on Android
+ */
+public class JobSystem
+{
+    public interface RangeTask
+    {
+        // Handles the indices from begin to end, excluded. Called from any thread
+        void run(int begin, int end);
+    }
+
+    public static final class Job
+    {
+        private static final Job[] NO_JOBS = new Job[0];
+        private static final Thread[] NO_THREADS = new Thread[0];
+
+        private final Runnable mWork;
+        private final RangeTask mRangeTask;
+        private final int mBegin;
+        private final int mEnd;
+        private final int mGrainSize;
+
+        // The job a part of a range was split from, the job itself otherwise
+        private final Job mRoot;
+
+        // Dependencies not done yet, plus one until the job is scheduled
+        private final AtomicInteger mPendingDependencies = new AtomicInteger(1);
+
+        // The job and the parts split from it that are not done yet
+        private final AtomicInteger mUnfinishedParts = new AtomicInteger(1);
+
+        // Guarded by the job
+        private Job[] mDependents = NO_JOBS;
+        private int mNumDependents = 0;
+        private Thread[] mJoiners = NO_THREADS;
+        private int mNumJoiners = 0;
+
+        private volatile boolean mIsDone = false;
+        private volatile Throwable mFailure = null;
+
+
+        private Job(Runnable work, RangeTask rangeTask, int begin, int end, int grainSize, Job root)
+        {
+            mWork = work;
+            mRangeTask = rangeTask;
+            mBegin = begin;
+            mEnd = end;
+            mGrainSize = grainSize;
+            mRoot = root != null ? root : this;
+        }
+
+
+        public boolean isDone()
+        {
+            return mIsDone;
+        }
+
+
+        // Returns false if the job is already done
+        private synchronized boolean addDependent(Job dependent)
+        {
+            if (mIsDone)
+            {
+                return false;
+            }
+
+            if (mNumDependents == mDependents.length)
+            {
+                Job[] dependents = new Job[Math.max(2, mNumDependents * 2)];
+                System.arraycopy(mDependents, 0, dependents, 0, mNumDependents);
+                mDependents = dependents;
+            }
+
+            mDependents[mNumDependents++] = dependent;
+            return true;
+        }
+
+
+        // The thread is unparked once the job is done. Returns false if it is already done
+        private synchronized boolean addJoiner(Thread joiner)
+        {
+            if (mIsDone)
+            {
+                return false;
+            }
+
+            for (int i = 0; i < mNumJoiners; i++)
+            {
+                if (mJoiners[i] == joiner)
+                {
+                    return true;
+                }
+            }
+
+            if (mNumJoiners == mJoiners.length)
+            {
+                Thread[] joiners = new Thread[Math.max(2, mNumJoiners * 2)];
+                System.arraycopy(mJoiners, 0, joiners, 0, mNumJoiners);
+                mJoiners = joiners;
+            }
+
+            mJoiners[mNumJoiners++] = joiner;
+            return true;
+        }
+    }
+
+    private static final class Worker extends Thread
+    {
+        private final JobSystem mSystem;
+        private final int mIndex;
+        private final AtomicBoolean mIsParked = new AtomicBoolean(false);
+
+
+        private Worker(JobSystem system, int index)
+        {
+            super("JobSystem-" + index);
+            mSystem = system;
+            mIndex = index;
+            setDaemon(true);
+        }
+
+
+        @Override
+        public void run()
+        {
+            mSystem.work(this);
+        }
+    }
+
+    private static JobSystem sSharedInstance = null;
+
+    private final Worker[] mWorkers;
+
+    // One deque per worker, the last one for the jobs pushed by other threads.
+    // Each is guarded by itself
+    private final ArrayDeque<Job>[] mDeques;
+
+    private volatile boolean mIsRunning = true;
+
+
+    // A system with the given number of worker threads, which may be 0
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public JobSystem(int numWorkers)
+    {
+        if (numWorkers < 0)
+        {
+            throw new IllegalArgumentException("numWorkers must not be negative");
+        }
+
+        mDeques = new ArrayDeque[numWorkers + 1];
+        for (int i = 0; i < mDeques.length; i++)
+        {
+            mDeques[i] = new ArrayDeque<>();
+        }
+
+        mWorkers = new Worker[numWorkers];
+        for (int i = 0; i < numWorkers; i++)
+        {
+            mWorkers[i] = new Worker(this, i);
+            mWorkers[i].start();
+        }
+    }
+
+
+    // Shared by the renderers, with a worker for every core but the one of the calling thread
+    public static synchronized JobSystem getShared()
+    {
+        if (sSharedInstance == null)
+        {
+            sSharedInstance = new JobSystem(Math.max(0, Runtime.getRuntime().availableProcessors() - 1));
+        }
+
+        return sSharedInstance;
+    }
+
+
+    public int getNumWorkers()
+    {
+        return mWorkers.length;
+    }
+
+
+    // Schedules work to run once the dependencies are done
+    public Job schedule(Runnable work, Job... dependencies)
+    {
+        return schedule(new Job(work, null, 0, 0, 0, null), dependencies);
+    }
+
+
+    // Schedules task over [0, count) once the dependencies are done, in parts of at least
+    // grainSize indices
+    public Job scheduleParallelFor(int count, int grainSize, RangeTask task, Job... dependencies)
+    {
+        if (count < 0 || grainSize <= 0)
+        {
+            throw new IllegalArgumentException("count must not be negative and grainSize must be positive");
+        }
+
+        return schedule(new Job(null, task, 0, count, grainSize, null), dependencies);
+    }
+
+
+    // Runs task over [0, count) and returns once it is done. Runs it on the calling
+    // thread alone if count does not exceed grainSize
+    public void parallelFor(int count, int grainSize, RangeTask task)
+    {
+        if (count <= grainSize || mWorkers.length == 0)
+        {
+            if (count > 0)
+            {
+                task.run(0, count);
+            }
+            return;
+        }
+
+        join(scheduleParallelFor(count, grainSize, task));
+    }
+
+
+    // Runs jobs on the calling thread until the job is done, then rethrows what it threw
+    public void join(Job job)
+    {
+        Worker worker = getCurrentWorker();
+        int index = worker != null ? worker.mIndex : mWorkers.length;
+        Thread thread = Thread.currentThread();
+
+        while (!job.mIsDone)
+        {
+            Job next = take(index);
+            if (next != null)
+            {
+                execute(next);
+            }
+            else if (job.addJoiner(thread))
+            {
+                // The last parts are running on other threads, the one finishing the job
+                // unparks this one. Parking may also return early, the loop looks again
+                LockSupport.park(job);
+            }
+        }
+
+        Throwable failure = job.mFailure;
+        if (failure instanceof RuntimeException)
+        {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error)
+        {
+            throw (Error) failure;
+        }
+        if (failure != null)
+        {
+            throw new RuntimeException(failure);
+        }
+    }
+
+
+    // Stops the workers once they are done with their current job, jobs not started are dropped
+    public void shutdown()
+    {
+        mIsRunning = false;
+        for (Worker worker : mWorkers)
+        {
+            LockSupport.unpark(worker);
+        }
+    }
+
+
+    private Job schedule(Job job, Job[] dependencies)
+    {
+        for (Job dependency : dependencies)
+        {
+            job.mPendingDependencies.incrementAndGet();
+            if (!dependency.mRoot.addDependent(job))
+            {
+                job.mPendingDependencies.decrementAndGet();
+            }
+        }
+
+        release(job);
+        return job;
+    }
+
+
+    // Pushes the job once its last dependency is done
+    private void release(Job job)
+    {
+        if (job.mPendingDependencies.decrementAndGet() == 0)
+        {
+            push(job);
+        }
+    }
+
+
+    private void push(Job job)
+    {
+        Worker worker = getCurrentWorker();
+        ArrayDeque<Job> deque = mDeques[worker != null ? worker.mIndex : mWorkers.length];
+        synchronized (deque)
+        {
+            deque.addLast(job);
+        }
+
+        // Claims a parked worker, so that two pushes do not wake the same one
+        for (Worker parked : mWorkers)
+        {
+            if (parked.mIsParked.compareAndSet(true, false))
+            {
+                LockSupport.unpark(parked);
+                break;
+            }
+        }
+    }
+
+
+    // The newest job of the given deque, or the oldest one of another
+    private Job take(int index)
+    {
+        Job job;
+        ArrayDeque<Job> own = mDeques[index];
+        synchronized (own)
+        {
+            job = own.pollLast();
+        }
+
+        for (int i = 1; job == null && i < mDeques.length; i++)
+        {
+            ArrayDeque<Job> other = mDeques[(index + i) % mDeques.length];
+            synchronized (other)
+            {
+                job = other.pollFirst();
+            }
+        }
+
+        return job;
+    }
+
+
+    private void execute(Job job)
+    {
+        Job root = job.mRoot;
+        try
+        {
+            if (root.mWork != null)
+            {
+                root.mWork.run();
+            }
+            else
+            {
+                // Splits off the upper half until the rest is small enough, for other workers to steal
+                int begin = job.mBegin;
+                int end = job.mEnd;
+                while (end - begin > root.mGrainSize)
+                {
+                    int middle = (begin + end) >>> 1;
+                    root.mUnfinishedParts.incrementAndGet();
+                    push(new Job(null, null, middle, end, 0, root));
+                    end = middle;
+                }
+
+                if (begin < end && root.mFailure == null)
+                {
+                    root.mRangeTask.run(begin, end);
+                }
+            }
+        }
+        catch (Throwable t)
+        {
+            root.mFailure = t;
+        }
+
+        if (root.mUnfinishedParts.decrementAndGet() == 0)
+        {
+            finish(root);
+        }
+    }
+
+
+    private void finish(Job job)
+    {
+        Job[] dependents;
+        int numDependents;
+        Thread[] joiners;
+        int numJoiners;
+        synchronized (job)
+        {
+            job.mIsDone = true;
+            dependents = job.mDependents;
+            numDependents = job.mNumDependents;
+            job.mDependents = Job.NO_JOBS;
+            joiners = job.mJoiners;
+            numJoiners = job.mNumJoiners;
+            job.mJoiners = Job.NO_THREADS;
+        }
+
+        for (int i = 0; i < numJoiners; i++)
+        {
+            LockSupport.unpark(joiners[i]);
+        }
+
+        for (int i = 0; i < numDependents; i++)
+        {
+            release(dependents[i]);
+        }
+    }
+
+
+    private void work(Worker worker)
+    {
+        while (mIsRunning)
+        {
+            Job job = take(worker.mIndex);
+            if (job != null)
+            {
+                execute(job);
+                continue;
+            }
+
+            // Looks again after raising the flag, a push in between either is seen or unparks
+            worker.mIsParked.set(true);
+            job = take(worker.mIndex);
+            if (job != null)
+            {
+                worker.mIsParked.set(false);
+                execute(job);
+                continue;
+            }
+
+            if (mIsRunning)
+            {
+                LockSupport.park(this);
+            }
+            worker.mIsParked.set(false);
+        }
+    }
+
+
+    private Worker getCurrentWorker()
+    {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof Worker && ((Worker) thread).mSystem == this)
+        {
+            return (Worker) thread;
+        }
+
+        return null;
+    }
+}
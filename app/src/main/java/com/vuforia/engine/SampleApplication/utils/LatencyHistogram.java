@@ -0,0 +1,180 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations with a bounded relative error, in the spirit of HdrHistogram
+ *
+ * Durations are recorded in nanoseconds and bucketed by microsecond. Values
+ * below SUB_BUCKET_COUNT microseconds are exact, above that every power of two
+ * is split into SUB_BUCKET_COUNT / 2 linear buckets, so a reported percentile
+ * is at most about 1.6% above the recorded value. Recording is constant time
+ * and never allocates.
+ *
+ * A single thread may record while any number of threads read. Readers work on
+ * a copy of the counts and may miss the values recorded during the copy.
+ * reset() must be called from the recording thread
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    // Longest duration that can be told apart from longer ones, about 67 seconds
+    private static final int MAX_EXPONENT = 26 - SUB_BUCKET_BITS;
+    public static final long MAX_TRACKABLE_NS = ((long) SUB_BUCKET_COUNT << MAX_EXPONENT) * 1000L - 1;
+
+    private static final int NUM_BUCKETS = SUB_BUCKET_COUNT + MAX_EXPONENT * SUB_BUCKET_HALF_COUNT;
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(NUM_BUCKETS);
+
+    // Only written by the recording thread
+    private volatile long mMaxNs = 0;
+    private volatile long mSumNs = 0;
+
+
+    public void record(long durationNs)
+    {
+        long clamped = Math.max(0, Math.min(durationNs, MAX_TRACKABLE_NS));
+        int index = indexOf(clamped / 1000);
+
+        // A single writer can increment without a compare-and-set loop
+        mCounts.lazySet(index, mCounts.get(index) + 1);
+        mSumNs += clamped;
+
+        if (clamped > mMaxNs)
+        {
+            mMaxNs = clamped;
+        }
+    }
+
+
+    public void reset()
+    {
+        for (int i = 0; i < NUM_BUCKETS; i++)
+        {
+            mCounts.lazySet(i, 0);
+        }
+
+        mMaxNs = 0;
+        mSumNs = 0;
+    }
+
+
+    // Copies the bucket counts into out, which must hold getNumBuckets() values,
+    // and returns their total
+    public long copyCounts(long[] out)
+    {
+        long total = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++)
+        {
+            out[i] = mCounts.get(i);
+            total += out[i];
+        }
+
+        return total;
+    }
+
+
+    public long getCount()
+    {
+        long total = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++)
+        {
+            total += mCounts.get(i);
+        }
+
+        return total;
+    }
+
+
+    public long getMaxNs()
+    {
+        return mMaxNs;
+    }
+
+
+    public long getMeanNs()
+    {
+        long count = getCount();
+        return count == 0 ? 0 : mSumNs / count;
+    }
+
+
+    // Returns the smallest duration that percentile percent of the values do not exceed,
+    // 0 if nothing was recorded
+    public long getValueAtPercentile(double percentile)
+    {
+        long[] counts = new long[NUM_BUCKETS];
+        return Math.min(getValueAtPercentile(counts, copyCounts(counts), percentile), mMaxNs);
+    }
+
+
+    // Same as getValueAtPercentile() on counts previously filled by copyCounts(),
+    // so several percentiles can be read from one consistent copy. The result is the
+    // upper bound of the bucket and may exceed the largest recorded value
+    public static long getValueAtPercentile(long[] counts, long total, double percentile)
+    {
+        if (total == 0)
+        {
+            return 0;
+        }
+
+        double clamped = Math.max(0.0, Math.min(percentile, 100.0));
+        long target = Math.max(1, (long) Math.ceil(clamped / 100.0 * total));
+
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++)
+        {
+            seen += counts[i];
+            if (seen >= target)
+            {
+                return (highestEquivalentValue(i) + 1) * 1000L - 1;
+            }
+        }
+
+        return MAX_TRACKABLE_NS;
+    }
+
+
+    public static int getNumBuckets()
+    {
+        return NUM_BUCKETS;
+    }
+
+
+    static int indexOf(long valueUs)
+    {
+        if (valueUs < SUB_BUCKET_COUNT)
+        {
+            return (int) valueUs;
+        }
+
+        // Shift so that the value falls in the upper half of the sub-buckets
+        int exponent = 63 - Long.numberOfLeadingZeros(valueUs) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (valueUs >> exponent) - SUB_BUCKET_HALF_COUNT;
+        return SUB_BUCKET_COUNT + (exponent - 1) * SUB_BUCKET_HALF_COUNT + subBucket;
+    }
+
+
+    // Largest value, in microseconds, that falls in the bucket at index
+    static long highestEquivalentValue(int index)
+    {
+        if (index < SUB_BUCKET_COUNT)
+        {
+            return index;
+        }
+
+        int exponent = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return (((long) subBucket + 1) << exponent) - 1;
+    }
+}
@@ -15,6 +15,7 @@ import android.app.Activity;
 import android.os.Handler;
 import android.os.Message;
 import android.view.View;
+import android.widget.ProgressBar;
 
 
 /**
@@ -26,6 +27,8 @@ public final class LoadingDialogHandler extends Handler
     // Constants for Hiding/Showing Loading dialog
     public static final int HIDE_LOADING_DIALOG = 0;
     public static final int SHOW_LOADING_DIALOG = 1;
+    // arg1 is the number of assets loaded, arg2 the number of assets
+    public static final int UPDATE_LOADING_PROGRESS = 2;
     
     public View mLoadingDialogContainer;
     
@@ -34,6 +37,13 @@ public final class LoadingDialogHandler extends Handler
     {
         mActivityRef = new WeakReference<>(activity);
     }
+
+
+    // May be called from any thread
+    public void sendLoadingProgress(int numLoaded, int numAssets)
+    {
+        obtainMessage(UPDATE_LOADING_PROGRESS, numLoaded, numAssets).sendToTarget();
+    }
     
     
     public void handleMessage(Message msg)
@@ -51,6 +61,17 @@ public final class LoadingDialogHandler extends Handler
         } else if (msg.what == HIDE_LOADING_DIALOG)
         {
             mLoadingDialogContainer.setVisibility(View.GONE);
+        } else if (msg.what == UPDATE_LOADING_PROGRESS)
+        {
+            if (mLoadingDialogContainer instanceof ProgressBar)
+            {
+                ProgressBar progressBar = (ProgressBar) mLoadingDialogContainer;
+                progressBar.setMax(msg.arg2);
+                progressBar.setProgress(msg.arg1);
+            }
+
+            mLoadingDialogContainer.setContentDescription(
+                "Loading " + msg.arg1 + " of " + msg.arg2);
         }
     }
 }
@@ -0,0 +1,116 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+/**
+ * Picks the level of detail of one drawn model from the share of the screen
+ * height its bounding sphere covers
+ *
+ * Level i + 1 is used once the coverage falls below thresholds[i]. To keep a
+ * model hovering around a threshold from switching on every frame, a level is
+ * only left when the coverage is past the threshold by the hysteresis factor
+ * in either direction. Each drawn instance keeps its own selector
+ */
+public class LodSelector
+{
+    // Half and a fifth of the screen height
+    private static final float[] DEFAULT_THRESHOLDS = {0.5f, 0.2f};
+    public static final float DEFAULT_HYSTERESIS = 0.15f;
+
+    private final float[] mThresholds;
+    private final float mHysteresis;
+
+    private int mLevel = 0;
+
+
+    public LodSelector()
+    {
+        this(DEFAULT_THRESHOLDS, DEFAULT_HYSTERESIS);
+    }
+
+
+    // thresholds must be decreasing, hysteresis is a fraction of each threshold
+    public LodSelector(float[] thresholds, float hysteresis)
+    {
+        if (!(hysteresis >= 0.0f && hysteresis < 1.0f))
+        {
+            throw new IllegalArgumentException("hysteresis must be in [0, 1)");
+        }
+
+        // The bands around two thresholds must not overlap
+        for (int i = 1; i < thresholds.length; i++)
+        {
+            if (!(thresholds[i] * (1.0f + hysteresis) < thresholds[i - 1] * (1.0f - hysteresis)))
+            {
+                throw new IllegalArgumentException("Thresholds must be decreasing and apart by more than the hysteresis");
+            }
+        }
+
+        mThresholds = thresholds.clone();
+        mHysteresis = hysteresis;
+    }
+
+
+    // Returns the level to draw, from 0 for the full model to the number of thresholds
+    public int select(float coverage)
+    {
+        while (mLevel < mThresholds.length && coverage < mThresholds[mLevel] * (1.0f - mHysteresis))
+        {
+            mLevel++;
+        }
+
+        while (mLevel > 0 && coverage > mThresholds[mLevel - 1] * (1.0f + mHysteresis))
+        {
+            mLevel--;
+        }
+
+        return mLevel;
+    }
+
+
+    public int getLevel()
+    {
+        return mLevel;
+    }
+
+
+    // Back to the full model, for a model that was not drawn for a while
+    public void reset()
+    {
+        mLevel = 0;
+    }
+
+
+    // Share of the viewport height covered by the bounding sphere of bounds placed by the
+    // column-major modelView matrix, for a perspective projectionMatrix. Values above 1
+    // mean the model fills the screen, including when the camera is inside the sphere
+    public static float getScreenCoverage(MeshBounds bounds, float[] modelView, float[] projectionMatrix)
+    {
+        float cx = bounds.getCenter(0);
+        float cy = bounds.getCenter(1);
+        float cz = bounds.getCenter(2);
+
+        // Distance in front of the camera, which looks down -z
+        float distance = -(modelView[2] * cx + modelView[6] * cy + modelView[10] * cz + modelView[14]);
+
+        float scaleSq = Math.max(
+                modelView[0] * modelView[0] + modelView[1] * modelView[1] + modelView[2] * modelView[2],
+                Math.max(modelView[4] * modelView[4] + modelView[5] * modelView[5] + modelView[6] * modelView[6],
+                        modelView[8] * modelView[8] + modelView[9] * modelView[9] + modelView[10] * modelView[10]));
+        float radius = bounds.getRadius() * (float) Math.sqrt(scaleSq);
+
+        if (distance <= radius)
+        {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        // projectionMatrix[5] is the cotangent of half the vertical field of view, the
+        // diameter over the height of the view volume at that distance
+        return radius * Math.abs(projectionMatrix[5]) / distance;
+    }
+}
@@ -0,0 +1,122 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+
+/**
+ * The extents of a mesh in its own coordinates: the axis-aligned bounding box
+ * and a bounding sphere centered on the box
+ *
+ * MeshBounds are immutable, ViewFrustum tests them against the view volume
+ */
+public final class MeshBounds
+{
+    private final float[] mMin = new float[3];
+    private final float[] mMax = new float[3];
+    private final float[] mCenter = new float[3];
+    private final float[] mHalfExtents = new float[3];
+    private final float mRadius;
+
+
+    public MeshBounds(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+            float radius)
+    {
+        mMin[0] = minX;
+        mMin[1] = minY;
+        mMin[2] = minZ;
+        mMax[0] = maxX;
+        mMax[1] = maxY;
+        mMax[2] = maxZ;
+
+        for (int i = 0; i < 3; i++)
+        {
+            mCenter[i] = (mMin[i] + mMax[i]) * 0.5f;
+            mHalfExtents[i] = (mMax[i] - mMin[i]) * 0.5f;
+        }
+
+        mRadius = radius;
+    }
+
+
+    // Bounds of numVertices x, y, z positions. vertices is a FloatBuffer or a ByteBuffer
+    // holding floats in its own byte order, read from index 0 without moving its position
+    public static MeshBounds fromVertices(Buffer vertices, int numVertices)
+    {
+        FloatBuffer floats = MeshObject.asFloatBuffer(vertices);
+
+        int numFloats = numVertices * 3;
+        if (numVertices <= 0 || numFloats > floats.capacity())
+        {
+            throw new IllegalArgumentException("Expected " + numVertices + " vertices, buffer holds "
+                    + floats.capacity() / 3);
+        }
+
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < numFloats; i += 3)
+        {
+            float x = floats.get(i);
+            float y = floats.get(i + 1);
+            float z = floats.get(i + 2);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+
+        // The sphere is centered on the box, its radius reaches the farthest vertex,
+        // which is usually well inside the corners of the box
+        float centerX = (minX + maxX) * 0.5f;
+        float centerY = (minY + maxY) * 0.5f;
+        float centerZ = (minZ + maxZ) * 0.5f;
+        float maxDistanceSq = 0.0f;
+        for (int i = 0; i < numFloats; i += 3)
+        {
+            float dx = floats.get(i) - centerX;
+            float dy = floats.get(i + 1) - centerY;
+            float dz = floats.get(i + 2) - centerZ;
+            maxDistanceSq = Math.max(maxDistanceSq, dx * dx + dy * dy + dz * dz);
+        }
+
+        return new MeshBounds(minX, minY, minZ, maxX, maxY, maxZ, (float) Math.sqrt(maxDistanceSq));
+    }
+
+
+    public float getMin(int axis)
+    {
+        return mMin[axis];
+    }
+
+
+    public float getMax(int axis)
+    {
+        return mMax[axis];
+    }
+
+
+    public float getCenter(int axis)
+    {
+        return mCenter[axis];
+    }
+
+
+    public float getHalfExtent(int axis)
+    {
+        return mHalfExtents[axis];
+    }
+
+
+    public float getRadius()
+    {
+        return mRadius;
+    }
+}
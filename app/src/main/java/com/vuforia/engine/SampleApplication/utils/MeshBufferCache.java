@@ -0,0 +1,511 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The MeshBufferCache keeps the geometry of MeshObjects resident on the GPU
+ *
+ * The first time a mesh is requested its vertices, normals, tex coords and
+ * indices are uploaded to buffer objects. Following requests return the same
+ * MeshBuffers so renderers no longer send client-side arrays on every frame.
+ *
+ * Meshes are keyed by identity (MeshObject does not override equals) and the
+ * least recently used ones are deleted once the cache exceeds its byte budget.
+ * When the GL context is lost every buffer name becomes invalid, so
+ * onSurfaceCreated() forgets them and the meshes are uploaded again on next use.
+ *
+ * A cache created with a VertexLayout interleaves the vertices of each mesh
+ * into a single buffer in that layout, see InterleavedVertices. Without one
+ * each attribute gets its own buffer of floats.
+ *
+ * This class must only be used from the GL thread
+ */
+public class MeshBufferCache
+{
+    public static final int DEFAULT_MAX_BYTES = 32 * 1024 * 1024;
+
+    private static final int VERTEX_COMPONENTS = 3;
+    private static final int NORMAL_COMPONENTS = 3;
+    private static final int TEX_COORD_COMPONENTS = 2;
+
+    private final SampleGL mGL;
+    private final int mMaxBytes;
+    private final VertexLayout mLayout;
+
+    // Access ordered so that iteration starts at the least recently used mesh
+    private final LinkedHashMap<MeshObject, MeshBuffers> mEntries =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    private int mTotalBytes = 0;
+    private int mContextGeneration = 0;
+
+    // Queried once per context, for 32-bit indices and the layouts that need an extension
+    private String mExtensions = null;
+    private int mUploadCount = 0;
+    private int mEvictionCount = 0;
+
+
+    public MeshBufferCache(SampleGL gl)
+    {
+        this(gl, DEFAULT_MAX_BYTES);
+    }
+
+
+    public MeshBufferCache(SampleGL gl, int maxBytes)
+    {
+        this(gl, maxBytes, null);
+    }
+
+
+    // layout is null to keep each attribute in its own buffer of floats
+    public MeshBufferCache(SampleGL gl, int maxBytes, VertexLayout layout)
+    {
+        if (maxBytes <= 0)
+        {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+
+        mGL = gl;
+        mMaxBytes = maxBytes;
+        mLayout = layout;
+    }
+
+
+    // Returns the GPU buffers of the mesh, uploading them if needed
+    public MeshBuffers get(MeshObject mesh)
+    {
+        MeshBuffers buffers = mEntries.get(mesh);
+        if (buffers != null)
+        {
+            return buffers;
+        }
+
+        buffers = upload(mesh);
+        mEntries.put(mesh, buffers);
+        mTotalBytes += buffers.mSizeInBytes;
+
+        evict(buffers);
+
+        return buffers;
+    }
+
+
+    public boolean contains(MeshObject mesh)
+    {
+        return mEntries.containsKey(mesh);
+    }
+
+
+    // Deletes the GPU buffers of the mesh, e.g. when its geometry changes
+    public void release(MeshObject mesh)
+    {
+        MeshBuffers buffers = mEntries.remove(mesh);
+        if (buffers != null)
+        {
+            delete(buffers);
+        }
+    }
+
+
+    public void releaseAll()
+    {
+        for (MeshBuffers buffers : mEntries.values())
+        {
+            delete(buffers);
+        }
+
+        mEntries.clear();
+    }
+
+
+    // Must be called when a new GL context has been created. The names owned by
+    // the previous context are gone with it and must not be deleted
+    public void onSurfaceCreated()
+    {
+        for (MeshBuffers buffers : mEntries.values())
+        {
+            buffers.invalidate();
+        }
+
+        mEntries.clear();
+        mTotalBytes = 0;
+        mContextGeneration++;
+        mExtensions = null;
+    }
+
+
+    public int getNumEntries()
+    {
+        return mEntries.size();
+    }
+
+
+    public int getTotalBytes()
+    {
+        return mTotalBytes;
+    }
+
+
+    public int getMaxBytes()
+    {
+        return mMaxBytes;
+    }
+
+
+    // Null when the attributes are kept in separate buffers
+    public VertexLayout getLayout()
+    {
+        return mLayout;
+    }
+
+
+    public int getContextGeneration()
+    {
+        return mContextGeneration;
+    }
+
+
+    public int getUploadCount()
+    {
+        return mUploadCount;
+    }
+
+
+    public int getEvictionCount()
+    {
+        return mEvictionCount;
+    }
+
+
+    private MeshBuffers upload(MeshObject mesh)
+    {
+        MeshBuffers buffers = new MeshBuffers(mGL);
+        buffers.mNumVertices = mesh.getNumObjectVertex();
+        buffers.mNumIndices = mesh.getNumObjectIndex();
+        buffers.mIndexType = mesh.getIndexType();
+
+        if (buffers.mNumIndices > 0 && buffers.mIndexType == GLES20.GL_UNSIGNED_INT
+                && !hasExtension("GL_OES_element_index_uint"))
+        {
+            throw new UnsupportedOperationException(
+                    "Meshes with more than 65536 vertices need GL_OES_element_index_uint");
+        }
+
+        if (mLayout != null)
+        {
+            String extension = mLayout.getRequiredExtension();
+            if (extension != null && !hasExtension(extension))
+            {
+                throw new UnsupportedOperationException("Vertex layout " + mLayout + " needs " + extension);
+            }
+
+            InterleavedVertices vertices = InterleavedVertices.build(mesh, mLayout);
+            buffers.mLayout = vertices.getLayout();
+            vertices.getPositionDecodeMatrix(buffers.mPositionDecodeMatrix, 0);
+            buffers.mHasPositionDecode = vertices.hasPositionDecode();
+            buffers.mVertexBuffer = uploadBuffer(buffers, GLES20.GL_ARRAY_BUFFER, vertices.getData());
+        }
+        else
+        {
+            buffers.mVertexBuffer = uploadBuffer(buffers, GLES20.GL_ARRAY_BUFFER, mesh.getVertices());
+            buffers.mNormalBuffer = uploadBuffer(buffers, GLES20.GL_ARRAY_BUFFER, mesh.getNormals());
+            buffers.mTexCoordBuffer = uploadBuffer(buffers, GLES20.GL_ARRAY_BUFFER, mesh.getTexCoords());
+        }
+
+        if (buffers.mNumIndices > 0)
+        {
+            buffers.mIndexBuffer = uploadBuffer(buffers, GLES20.GL_ELEMENT_ARRAY_BUFFER, mesh.getIndices());
+        }
+
+        mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        mGL.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+
+        mUploadCount++;
+        return buffers;
+    }
+
+
+    private int uploadBuffer(MeshBuffers buffers, int target, Buffer data)
+    {
+        if (data == null)
+        {
+            return 0;
+        }
+
+        int size = sizeInBytes(data);
+        int name = mGL.genBuffer();
+        mGL.bindBuffer(target, name);
+        mGL.bufferData(target, size, data, GLES20.GL_STATIC_DRAW);
+
+        buffers.mSizeInBytes += size;
+        return name;
+    }
+
+
+    private boolean hasExtension(String name)
+    {
+        if (mExtensions == null)
+        {
+            String extensions = mGL.getString(GLES20.GL_EXTENSIONS);
+            mExtensions = extensions != null ? " " + extensions + " " : "";
+        }
+
+        return mExtensions.contains(" " + name + " ");
+    }
+
+
+    private void evict(MeshBuffers justAdded)
+    {
+        Iterator<Map.Entry<MeshObject, MeshBuffers>> it = mEntries.entrySet().iterator();
+        while (mTotalBytes > mMaxBytes && it.hasNext())
+        {
+            MeshBuffers buffers = it.next().getValue();
+
+            // Never evict the mesh that is about to be drawn
+            if (buffers == justAdded)
+            {
+                continue;
+            }
+
+            it.remove();
+            delete(buffers);
+            mEvictionCount++;
+        }
+    }
+
+
+    private void delete(MeshBuffers buffers)
+    {
+        int[] names = { buffers.mVertexBuffer, buffers.mNormalBuffer,
+                buffers.mTexCoordBuffer, buffers.mIndexBuffer };
+        for (int name : names)
+        {
+            if (name != 0)
+            {
+                mGL.deleteBuffer(name);
+            }
+        }
+
+        mTotalBytes -= buffers.mSizeInBytes;
+        buffers.invalidate();
+    }
+
+
+    static int sizeInBytes(Buffer data)
+    {
+        int elementSize;
+        if (data instanceof ByteBuffer)
+        {
+            elementSize = 1;
+        }
+        else if (data instanceof ShortBuffer)
+        {
+            elementSize = 2;
+        }
+        else
+        {
+            // FloatBuffer and IntBuffer
+            elementSize = 4;
+        }
+
+        return data.capacity() * elementSize;
+    }
+
+
+    /**
+     * Handle on the GPU buffers of one mesh
+     *
+     * Usage: bind() with the attribute handles of the current program,
+     * then draw() once or more, then unbind()
+     *
+     * If hasPositionDecode(), the positions are quantized and the model-view
+     * and model-view-projection matrices of the draw must be multiplied by
+     * getPositionDecodeMatrix()
+     */
+    public static final class MeshBuffers
+    {
+        private final SampleGL mGL;
+
+        private int mVertexBuffer = 0;
+        private int mNormalBuffer = 0;
+        private int mTexCoordBuffer = 0;
+        private int mIndexBuffer = 0;
+        private int mNumVertices = 0;
+        private int mNumIndices = 0;
+        private int mIndexType = GLES20.GL_UNSIGNED_SHORT;
+        private int mSizeInBytes = 0;
+
+        // Set when the vertices are interleaved in mVertexBuffer
+        private VertexLayout mLayout = null;
+        private boolean mHasPositionDecode = false;
+        private final float[] mPositionDecodeMatrix = new float[16];
+
+        private boolean mIsValid = true;
+
+        private int mBoundVertexHandle = -1;
+        private int mBoundNormalHandle = -1;
+        private int mBoundTexCoordHandle = -1;
+
+
+        private MeshBuffers(SampleGL gl)
+        {
+            mGL = gl;
+        }
+
+
+        // Handles set to -1 are not bound
+        public void bind(int vertexHandle, int normalHandle, int texCoordHandle)
+        {
+            if (mLayout != null)
+            {
+                mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, mVertexBuffer);
+                mBoundVertexHandle = bindAttribute(vertexHandle, mLayout.getPosition());
+                mBoundNormalHandle = bindAttribute(normalHandle, mLayout.getNormal());
+                mBoundTexCoordHandle = bindAttribute(texCoordHandle, mLayout.getTexCoord());
+            }
+            else
+            {
+                mBoundVertexHandle = bindAttribute(vertexHandle, mVertexBuffer, VERTEX_COMPONENTS);
+                mBoundNormalHandle = bindAttribute(normalHandle, mNormalBuffer, NORMAL_COMPONENTS);
+                mBoundTexCoordHandle = bindAttribute(texCoordHandle, mTexCoordBuffer, TEX_COORD_COMPONENTS);
+            }
+            mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+
+            if (mIndexBuffer != 0)
+            {
+                mGL.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, mIndexBuffer);
+            }
+        }
+
+
+        // Draws indexed triangles if the mesh has indices, otherwise a triangle list
+        public void draw()
+        {
+            if (mIndexBuffer != 0)
+            {
+                mGL.drawElements(GLES20.GL_TRIANGLES, mNumIndices, mIndexType, 0);
+            }
+            else
+            {
+                mGL.drawArrays(GLES20.GL_TRIANGLES, 0, mNumVertices);
+            }
+        }
+
+
+        public void unbind()
+        {
+            unbindAttribute(mBoundVertexHandle);
+            unbindAttribute(mBoundNormalHandle);
+            unbindAttribute(mBoundTexCoordHandle);
+            mBoundVertexHandle = mBoundNormalHandle = mBoundTexCoordHandle = -1;
+
+            if (mIndexBuffer != 0)
+            {
+                mGL.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
+            }
+        }
+
+
+        public boolean isValid()
+        {
+            return mIsValid;
+        }
+
+
+        public int getSizeInBytes()
+        {
+            return mSizeInBytes;
+        }
+
+
+        public int getNumVertices()
+        {
+            return mNumVertices;
+        }
+
+
+        public int getNumIndices()
+        {
+            return mNumIndices;
+        }
+
+
+        // Null when the attributes are in separate buffers of floats
+        public VertexLayout getLayout()
+        {
+            return mLayout;
+        }
+
+
+        public boolean hasPositionDecode()
+        {
+            return mHasPositionDecode;
+        }
+
+
+        // Column-major, identity if !hasPositionDecode(). Shared, not to be modified
+        public float[] getPositionDecodeMatrix()
+        {
+            return mPositionDecodeMatrix;
+        }
+
+
+        private int bindAttribute(int handle, int buffer, int components)
+        {
+            if (handle < 0 || buffer == 0)
+            {
+                return -1;
+            }
+
+            mGL.bindBuffer(GLES20.GL_ARRAY_BUFFER, buffer);
+            mGL.vertexAttribPointer(handle, components, GLES20.GL_FLOAT, false, 0, 0);
+            mGL.enableVertexAttribArray(handle);
+            return handle;
+        }
+
+
+        // For interleaved vertices, with mVertexBuffer bound
+        private int bindAttribute(int handle, VertexLayout.Attribute attribute)
+        {
+            if (handle < 0 || attribute == null || mVertexBuffer == 0)
+            {
+                return -1;
+            }
+
+            mGL.vertexAttribPointer(handle, attribute.getComponents(), attribute.getType(),
+                    attribute.isNormalized(), mLayout.getStride(), attribute.getOffset());
+            mGL.enableVertexAttribArray(handle);
+            return handle;
+        }
+
+
+        private void unbindAttribute(int handle)
+        {
+            if (handle >= 0)
+            {
+                mGL.disableVertexAttribArray(handle);
+            }
+        }
+
+
+        private void invalidate()
+        {
+            mIsValid = false;
+            mVertexBuffer = mNormalBuffer = mTexCoordBuffer = mIndexBuffer = 0;
+        }
+    }
+}
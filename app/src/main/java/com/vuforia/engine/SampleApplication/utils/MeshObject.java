@@ -9,9 +9,14 @@ countries.
 
 package com.vuforia.engine.SampleApplication.utils;
 
+import android.opengl.GLES20;
+
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 
 /**
  * The MeshObject utility class is used to render various 3D objects and stores
@@ -27,6 +32,10 @@ public abstract class MeshObject
         BUFFER_TYPE_VERTEX, BUFFER_TYPE_TEXTURE_COORD, BUFFER_TYPE_NORMALS, BUFFER_TYPE_INDICES
     }
     
+    // Bounds of mBoundsVertices, computed again if the mesh is loaded again
+    private MeshBounds mBounds;
+    private Buffer mBoundsVertices;
+    
     
     public Buffer getVertices()
     {
@@ -52,6 +61,28 @@ public abstract class MeshObject
     }
     
     
+    // GL_UNSIGNED_SHORT, or GL_UNSIGNED_INT for meshes with more than 65536 vertices
+    public int getIndexType()
+    {
+        return GLES20.GL_UNSIGNED_SHORT;
+    }
+    
+    
+    // Computed from the vertices the first time, meshes that load from a file call it
+    // once loaded so that the renderer does not pay for it on its first frame
+    public synchronized MeshBounds getBounds()
+    {
+        Buffer vertices = getVertices();
+        if (mBounds == null || mBoundsVertices != vertices)
+        {
+            mBounds = MeshBounds.fromVertices(vertices, getNumObjectVertex());
+            mBoundsVertices = vertices;
+        }
+        
+        return mBounds;
+    }
+    
+    
     protected Buffer fillBuffer(double[] array)
     {
         // Convert to floats because OpenGL doesn't work on doubles, and manually
@@ -96,6 +127,88 @@ public abstract class MeshObject
     }
     
     
+    // A view of the floats of a FloatBuffer, or of a ByteBuffer in its own byte order,
+    // from index 0 and without moving the position of the buffer
+    static FloatBuffer asFloatBuffer(Buffer buffer)
+    {
+        if (buffer instanceof FloatBuffer)
+        {
+            FloatBuffer floats = ((FloatBuffer) buffer).duplicate();
+            floats.rewind();
+            return floats;
+        }
+        
+        if (buffer instanceof ByteBuffer)
+        {
+            ByteBuffer bytes = ((ByteBuffer) buffer).duplicate().order(((ByteBuffer) buffer).order());
+            bytes.rewind();
+            return bytes.asFloatBuffer();
+        }
+        
+        throw new IllegalArgumentException("Expected a buffer of floats");
+    }
+    
+    
+    // Smallest index type that can address numVertices vertices
+    static int getIndexTypeFor(int numVertices)
+    {
+        return numVertices <= 0x10000 ? GLES20.GL_UNSIGNED_SHORT : GLES20.GL_UNSIGNED_INT;
+    }
+    
+    
+    // Native-order index buffer of the given type
+    static ByteBuffer createIndexBuffer(int[] indices, int indexType)
+    {
+        if (indexType == GLES20.GL_UNSIGNED_INT)
+        {
+            ByteBuffer bytes = SampleAssetReader.allocateNative(indices.length * 4);
+            bytes.asIntBuffer().put(indices);
+            return bytes;
+        }
+        
+        ByteBuffer bytes = SampleAssetReader.allocateNative(indices.length * 2);
+        ShortBuffer shorts = bytes.asShortBuffer();
+        for (int index : indices)
+        {
+            shorts.put((short) index);
+        }
+        return bytes;
+    }
+    
+    
+    // The indices of the mesh as ints, whatever their type
+    int[] copyIndices()
+    {
+        int[] indices = new int[getNumObjectIndex()];
+        Buffer buffer = getIndices();
+        
+        if (buffer instanceof ByteBuffer)
+        {
+            ByteBuffer bytes = ((ByteBuffer) buffer).duplicate().order(((ByteBuffer) buffer).order());
+            bytes.rewind();
+            buffer = getIndexType() == GLES20.GL_UNSIGNED_INT ? bytes.asIntBuffer() : bytes.asShortBuffer();
+        }
+        
+        if (buffer instanceof IntBuffer)
+        {
+            IntBuffer ints = ((IntBuffer) buffer).duplicate();
+            ints.rewind();
+            ints.get(indices);
+        }
+        else
+        {
+            ShortBuffer shorts = ((ShortBuffer) buffer).duplicate();
+            shorts.rewind();
+            for (int i = 0; i < indices.length; i++)
+            {
+                indices[i] = shorts.get() & 0xFFFF;
+            }
+        }
+        
+        return indices;
+    }
+    
+    
     protected abstract Buffer getBuffer(BUFFER_TYPE bufferType);
     
     
@@ -0,0 +1,731 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Reduces the triangle count of a MeshObject with edge collapses ordered by
+ * the quadric error metric, used to build the levels of detail of a model
+ * when it is loaded
+ *
+ * Corners with the same position, normal and tex coord are welded into one
+ * vertex. Each vertex accumulates the planes of its triangles in a quadric,
+ * the cost of moving it is the sum of its squared distances to those planes.
+ * A collapse moves a vertex onto one of its neighbours, so the remaining
+ * vertices keep their original attributes, and is rejected if it flips a
+ * triangle. Open borders add planes perpendicular to the surface so that they
+ * only shrink along themselves. Vertices whose position is shared by a vertex
+ * with other attributes, on texture or normal seams, never move so that the
+ * two sides of a seam can not come apart.
+ *
+ * simplify() can be called again with a lower target to continue from where
+ * it stopped, toMesh() copies the current triangles into a new indexed mesh. Every
+ * vertex that moved is within getMaxError() of the planes of the triangles it
+ * was part of, in the units of the mesh.
+ *
+ * Instances are not thread-safe, each loading thread uses its own
+ */
+public class MeshSimplifier
+{
+    // Per vertex: x, y, z, normal x, y, z, u, v
+    private static final int STRIDE = 8;
+    private static final int NORMAL_OFFSET = 3;
+    private static final int TEX_COORD_OFFSET = 6;
+
+    // Coefficients of the symmetric 4x4 quadric matrix
+    private static final int QUADRIC_SIZE = 10;
+
+    // Makes moving a border vertex off the border costlier than moving it off the surface
+    private static final double BORDER_WEIGHT = 10.0;
+
+    // A collapse is rejected if it turns a triangle by more than about 78 degrees
+    private static final double MIN_NORMAL_COSINE = 0.2;
+
+    private static final int NONE = -1;
+
+    private final float[] mAttributes;
+    private final int mNumVertices;
+    private final boolean mHasNormals;
+    private final boolean mHasTexCoords;
+
+    // Three vertices per triangle, the first is NONE once the triangle is removed
+    private final int[] mFaces;
+    private int mNumTriangles;
+
+    private final double[] mQuadrics;
+    private final boolean[] mIsLocked;
+    private final boolean[] mIsRemoved;
+
+    // Triangles around each vertex, removed ones are dropped lazily
+    private final int[][] mVertexFaces;
+    private final int[] mVertexFaceCounts;
+
+    // Min-heap of the vertices by the cost of their cheapest collapse
+    private final int[] mHeap;
+    private final int[] mHeapIndex;
+    private int mHeapSize;
+    private final double[] mCosts;
+    private final int[] mTargets;
+
+    // Marks the vertices already updated after a collapse
+    private final int[] mVisitStamps;
+    private int mVisitStamp = 0;
+
+    private double mMaxCost = 0.0;
+
+
+    public MeshSimplifier(MeshObject mesh)
+    {
+        int numIndices = mesh.getNumObjectIndex();
+        int numCorners = numIndices > 0 ? numIndices : mesh.getNumObjectVertex();
+        if (numCorners < 3 || numCorners % 3 != 0)
+        {
+            throw new IllegalArgumentException("Expected a triangle list, got " + numCorners
+                    + " corners");
+        }
+
+        FloatBuffer positions = MeshObject.asFloatBuffer(mesh.getVertices());
+        FloatBuffer normals = mesh.getNormals() != null ? MeshObject.asFloatBuffer(mesh.getNormals()) : null;
+        FloatBuffer texCoords = mesh.getTexCoords() != null ? MeshObject.asFloatBuffer(mesh.getTexCoords()) : null;
+        int[] indices = numIndices > 0 ? mesh.copyIndices() : null;
+
+        mHasNormals = normals != null;
+        mHasTexCoords = texCoords != null;
+
+        float[] corners = new float[numCorners * STRIDE];
+        for (int corner = 0; corner < numCorners; corner++)
+        {
+            int source = indices != null ? indices[corner] : corner;
+            int offset = corner * STRIDE;
+            for (int i = 0; i < 3; i++)
+            {
+                corners[offset + i] = positions.get(source * 3 + i);
+                corners[offset + NORMAL_OFFSET + i] = mHasNormals ? normals.get(source * 3 + i) : 0.0f;
+            }
+
+            corners[offset + TEX_COORD_OFFSET] = mHasTexCoords ? texCoords.get(source * 2) : 0.0f;
+            corners[offset + TEX_COORD_OFFSET + 1] = mHasTexCoords ? texCoords.get(source * 2 + 1) : 0.0f;
+        }
+
+        // Corners that are equal in every attribute become one vertex
+        int[] cornerVertices = new int[numCorners];
+        float[] attributes = new float[numCorners * STRIDE];
+        mNumVertices = VertexWelder.weld(corners, numCorners, STRIDE, STRIDE, cornerVertices, attributes);
+        mAttributes = Arrays.copyOf(attributes, mNumVertices * STRIDE);
+
+        // Triangles that lost a corner in the welding are dropped
+        int[] faces = new int[numCorners];
+        int numTriangles = 0;
+        for (int corner = 0; corner < numCorners; corner += 3)
+        {
+            int a = cornerVertices[corner];
+            int b = cornerVertices[corner + 1];
+            int c = cornerVertices[corner + 2];
+            if (a != b && b != c && c != a)
+            {
+                faces[numTriangles * 3] = a;
+                faces[numTriangles * 3 + 1] = b;
+                faces[numTriangles * 3 + 2] = c;
+                numTriangles++;
+            }
+        }
+        mFaces = Arrays.copyOf(faces, numTriangles * 3);
+        mNumTriangles = numTriangles;
+
+        mVertexFaceCounts = new int[mNumVertices];
+        for (int i = 0; i < numTriangles * 3; i++)
+        {
+            mVertexFaceCounts[mFaces[i]]++;
+        }
+
+        mVertexFaces = new int[mNumVertices][];
+        for (int v = 0; v < mNumVertices; v++)
+        {
+            mVertexFaces[v] = new int[mVertexFaceCounts[v]];
+            mVertexFaceCounts[v] = 0;
+        }
+
+        for (int face = 0; face < numTriangles; face++)
+        {
+            for (int k = 0; k < 3; k++)
+            {
+                int v = mFaces[face * 3 + k];
+                mVertexFaces[v][mVertexFaceCounts[v]++] = face;
+            }
+        }
+
+        // Vertices sharing a position with another vertex lie on a seam
+        int[] positionGroups = new int[mNumVertices];
+        int numPositions = VertexWelder.weld(mAttributes, mNumVertices, STRIDE, 3, positionGroups, null);
+        int[] groupSizes = new int[numPositions];
+        for (int v = 0; v < mNumVertices; v++)
+        {
+            groupSizes[positionGroups[v]]++;
+        }
+
+        mIsLocked = new boolean[mNumVertices];
+        for (int v = 0; v < mNumVertices; v++)
+        {
+            mIsLocked[v] = groupSizes[positionGroups[v]] > 1;
+        }
+
+        mIsRemoved = new boolean[mNumVertices];
+        mQuadrics = new double[mNumVertices * QUADRIC_SIZE];
+        initQuadrics(numTriangles);
+
+        mCosts = new double[mNumVertices];
+        mTargets = new int[mNumVertices];
+        mHeap = new int[mNumVertices];
+        mHeapIndex = new int[mNumVertices];
+        mVisitStamps = new int[mNumVertices];
+
+        for (int v = 0; v < mNumVertices; v++)
+        {
+            computeCollapse(v);
+            mHeap[v] = v;
+            mHeapIndex[v] = v;
+        }
+
+        mHeapSize = mNumVertices;
+        for (int i = mHeapSize / 2 - 1; i >= 0; i--)
+        {
+            siftDown(i);
+        }
+    }
+
+
+    public int getNumTriangles()
+    {
+        return mNumTriangles;
+    }
+
+
+    // Distance bound of the collapses made so far, in the units of the mesh
+    public float getMaxError()
+    {
+        return (float) Math.sqrt(mMaxCost);
+    }
+
+
+    // Collapses the cheapest edges until at most targetTriangles remain, or until the
+    // next collapse would move a vertex further than maxError. Returns the number of
+    // triangles left
+    public int simplify(int targetTriangles, float maxError)
+    {
+        double maxCost = (double) maxError * maxError;
+
+        while (mNumTriangles > targetTriangles && mHeapSize > 0)
+        {
+            int v = mHeap[0];
+            if (!(mCosts[v] <= maxCost))
+            {
+                break;
+            }
+
+            collapse(v);
+        }
+
+        return mNumTriangles;
+    }
+
+
+    // The remaining triangles as a new indexed mesh, ordered for the vertex cache
+    public SimplifiedMesh toMesh()
+    {
+        int[] indices = new int[mNumTriangles * 3];
+        int numIndices = 0;
+        for (int face = 0; face < mFaces.length / 3; face++)
+        {
+            if (mFaces[face * 3] != NONE)
+            {
+                System.arraycopy(mFaces, face * 3, indices, numIndices, 3);
+                numIndices += 3;
+            }
+        }
+
+        indices = VertexCacheOptimizer.optimize(indices, mNumVertices);
+        int[] sourceVertices = VertexCacheOptimizer.reorderVertices(indices, mNumVertices);
+        int numVertices = sourceVertices.length;
+
+        ByteBuffer vertices = SampleAssetReader.allocateNative(numVertices * 3 * (Float.SIZE / Byte.SIZE));
+        ByteBuffer normals = mHasNormals
+                ? SampleAssetReader.allocateNative(numVertices * 3 * (Float.SIZE / Byte.SIZE)) : null;
+        ByteBuffer texCoords = mHasTexCoords
+                ? SampleAssetReader.allocateNative(numVertices * 2 * (Float.SIZE / Byte.SIZE)) : null;
+
+        for (int source : sourceVertices)
+        {
+            int offset = source * STRIDE;
+            vertices.putFloat(mAttributes[offset]);
+            vertices.putFloat(mAttributes[offset + 1]);
+            vertices.putFloat(mAttributes[offset + 2]);
+
+            if (normals != null)
+            {
+                normals.putFloat(mAttributes[offset + NORMAL_OFFSET]);
+                normals.putFloat(mAttributes[offset + NORMAL_OFFSET + 1]);
+                normals.putFloat(mAttributes[offset + NORMAL_OFFSET + 2]);
+            }
+
+            if (texCoords != null)
+            {
+                texCoords.putFloat(mAttributes[offset + TEX_COORD_OFFSET]);
+                texCoords.putFloat(mAttributes[offset + TEX_COORD_OFFSET + 1]);
+            }
+        }
+
+        vertices.rewind();
+        if (normals != null)
+        {
+            normals.rewind();
+        }
+        if (texCoords != null)
+        {
+            texCoords.rewind();
+        }
+
+        int indexType = MeshObject.getIndexTypeFor(numVertices);
+        return new SimplifiedMesh(vertices, normals, texCoords, numVertices,
+                MeshObject.createIndexBuffer(indices, indexType), indices.length, indexType);
+    }
+
+
+    private void initQuadrics(int numTriangles)
+    {
+        double[] normal = new double[3];
+
+        for (int face = 0; face < numTriangles; face++)
+        {
+            if (!computeNormal(face, normal))
+            {
+                continue;
+            }
+
+            int offset = mFaces[face * 3] * STRIDE;
+            double d = -(normal[0] * mAttributes[offset] + normal[1] * mAttributes[offset + 1]
+                    + normal[2] * mAttributes[offset + 2]);
+
+            for (int k = 0; k < 3; k++)
+            {
+                int v = mFaces[face * 3 + k];
+                addPlane(v, normal[0], normal[1], normal[2], d, 1.0);
+
+                // Edges that belong to this triangle only are on a border
+                int next = mFaces[face * 3 + (k + 1) % 3];
+                if (countFaces(v, next) == 1)
+                {
+                    addBorderPlane(v, next, normal);
+                }
+            }
+        }
+    }
+
+
+    private void addBorderPlane(int a, int b, double[] faceNormal)
+    {
+        int offsetA = a * STRIDE;
+        int offsetB = b * STRIDE;
+        double ex = mAttributes[offsetB] - mAttributes[offsetA];
+        double ey = mAttributes[offsetB + 1] - mAttributes[offsetA + 1];
+        double ez = mAttributes[offsetB + 2] - mAttributes[offsetA + 2];
+
+        // Perpendicular to both the edge and the triangle
+        double nx = ey * faceNormal[2] - ez * faceNormal[1];
+        double ny = ez * faceNormal[0] - ex * faceNormal[2];
+        double nz = ex * faceNormal[1] - ey * faceNormal[0];
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length == 0.0)
+        {
+            return;
+        }
+
+        nx /= length;
+        ny /= length;
+        nz /= length;
+        double d = -(nx * mAttributes[offsetA] + ny * mAttributes[offsetA + 1] + nz * mAttributes[offsetA + 2]);
+
+        addPlane(a, nx, ny, nz, d, BORDER_WEIGHT);
+        addPlane(b, nx, ny, nz, d, BORDER_WEIGHT);
+    }
+
+
+    private void addPlane(int v, double a, double b, double c, double d, double weight)
+    {
+        int q = v * QUADRIC_SIZE;
+        mQuadrics[q] += weight * a * a;
+        mQuadrics[q + 1] += weight * a * b;
+        mQuadrics[q + 2] += weight * a * c;
+        mQuadrics[q + 3] += weight * a * d;
+        mQuadrics[q + 4] += weight * b * b;
+        mQuadrics[q + 5] += weight * b * c;
+        mQuadrics[q + 6] += weight * b * d;
+        mQuadrics[q + 7] += weight * c * c;
+        mQuadrics[q + 8] += weight * c * d;
+        mQuadrics[q + 9] += weight * d * d;
+    }
+
+
+    // Number of remaining triangles that have both a and b
+    private int countFaces(int a, int b)
+    {
+        int count = 0;
+        int[] faces = mVertexFaces[a];
+        for (int i = 0; i < mVertexFaceCounts[a]; i++)
+        {
+            int face = faces[i];
+            if (mFaces[face * 3] != NONE && hasVertex(face, b))
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+
+    private boolean hasVertex(int face, int v)
+    {
+        return mFaces[face * 3] == v || mFaces[face * 3 + 1] == v || mFaces[face * 3 + 2] == v;
+    }
+
+
+    // Unit normal of the triangle, false if it has no area
+    private boolean computeNormal(int face, double[] normal)
+    {
+        int a = mFaces[face * 3] * STRIDE;
+        int b = mFaces[face * 3 + 1] * STRIDE;
+        int c = mFaces[face * 3 + 2] * STRIDE;
+
+        double abx = mAttributes[b] - mAttributes[a];
+        double aby = mAttributes[b + 1] - mAttributes[a + 1];
+        double abz = mAttributes[b + 2] - mAttributes[a + 2];
+        double acx = mAttributes[c] - mAttributes[a];
+        double acy = mAttributes[c + 1] - mAttributes[a + 1];
+        double acz = mAttributes[c + 2] - mAttributes[a + 2];
+
+        double nx = aby * acz - abz * acy;
+        double ny = abz * acx - abx * acz;
+        double nz = abx * acy - aby * acx;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length == 0.0)
+        {
+            return false;
+        }
+
+        normal[0] = nx / length;
+        normal[1] = ny / length;
+        normal[2] = nz / length;
+        return true;
+    }
+
+
+    // Cost of moving v onto u with the quadrics of both
+    private double collapseCost(int v, int u)
+    {
+        int qv = v * QUADRIC_SIZE;
+        int qu = u * QUADRIC_SIZE;
+        int offset = u * STRIDE;
+        double x = mAttributes[offset];
+        double y = mAttributes[offset + 1];
+        double z = mAttributes[offset + 2];
+
+        double q0 = mQuadrics[qv] + mQuadrics[qu];
+        double q1 = mQuadrics[qv + 1] + mQuadrics[qu + 1];
+        double q2 = mQuadrics[qv + 2] + mQuadrics[qu + 2];
+        double q3 = mQuadrics[qv + 3] + mQuadrics[qu + 3];
+        double q4 = mQuadrics[qv + 4] + mQuadrics[qu + 4];
+        double q5 = mQuadrics[qv + 5] + mQuadrics[qu + 5];
+        double q6 = mQuadrics[qv + 6] + mQuadrics[qu + 6];
+        double q7 = mQuadrics[qv + 7] + mQuadrics[qu + 7];
+        double q8 = mQuadrics[qv + 8] + mQuadrics[qu + 8];
+        double q9 = mQuadrics[qv + 9] + mQuadrics[qu + 9];
+
+        double cost = q0 * x * x + 2 * q1 * x * y + 2 * q2 * x * z + 2 * q3 * x
+                + q4 * y * y + 2 * q5 * y * z + 2 * q6 * y
+                + q7 * z * z + 2 * q8 * z
+                + q9;
+
+        // Rounding can make it slightly negative
+        return Math.max(cost, 0.0);
+    }
+
+
+    // True if moving v onto u turns one of the triangles that remain too far
+    private boolean isFlipping(int v, int u)
+    {
+        int offsetV = v * STRIDE;
+        int offsetU = u * STRIDE;
+        int[] faces = mVertexFaces[v];
+
+        for (int i = 0; i < mVertexFaceCounts[v]; i++)
+        {
+            int face = faces[i];
+            if (mFaces[face * 3] == NONE || hasVertex(face, u))
+            {
+                continue;
+            }
+
+            // The two other corners, in winding order after v
+            int k = mFaces[face * 3] == v ? 0 : mFaces[face * 3 + 1] == v ? 1 : 2;
+            int a = mFaces[face * 3 + (k + 1) % 3] * STRIDE;
+            int b = mFaces[face * 3 + (k + 2) % 3] * STRIDE;
+
+            double ax = mAttributes[a] - mAttributes[offsetV];
+            double ay = mAttributes[a + 1] - mAttributes[offsetV + 1];
+            double az = mAttributes[a + 2] - mAttributes[offsetV + 2];
+            double bx = mAttributes[b] - mAttributes[offsetV];
+            double by = mAttributes[b + 1] - mAttributes[offsetV + 1];
+            double bz = mAttributes[b + 2] - mAttributes[offsetV + 2];
+            double oldX = ay * bz - az * by;
+            double oldY = az * bx - ax * bz;
+            double oldZ = ax * by - ay * bx;
+
+            ax = mAttributes[a] - mAttributes[offsetU];
+            ay = mAttributes[a + 1] - mAttributes[offsetU + 1];
+            az = mAttributes[a + 2] - mAttributes[offsetU + 2];
+            bx = mAttributes[b] - mAttributes[offsetU];
+            by = mAttributes[b + 1] - mAttributes[offsetU + 1];
+            bz = mAttributes[b + 2] - mAttributes[offsetU + 2];
+            double newX = ay * bz - az * by;
+            double newY = az * bx - ax * bz;
+            double newZ = ax * by - ay * bx;
+
+            double oldLengthSq = oldX * oldX + oldY * oldY + oldZ * oldZ;
+            if (oldLengthSq == 0.0)
+            {
+                continue;
+            }
+
+            double dot = oldX * newX + oldY * newY + oldZ * newZ;
+            double newLengthSq = newX * newX + newY * newY + newZ * newZ;
+            if (dot <= 0.0 || dot * dot < MIN_NORMAL_COSINE * MIN_NORMAL_COSINE * oldLengthSq * newLengthSq)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    // Finds the cheapest valid collapse of v
+    private void computeCollapse(int v)
+    {
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestTarget = NONE;
+
+        if (!mIsLocked[v] && !mIsRemoved[v])
+        {
+            int[] faces = mVertexFaces[v];
+            for (int i = 0; i < mVertexFaceCounts[v]; i++)
+            {
+                int face = faces[i];
+                if (mFaces[face * 3] == NONE)
+                {
+                    continue;
+                }
+
+                for (int k = 0; k < 3; k++)
+                {
+                    int u = mFaces[face * 3 + k];
+                    if (u == v)
+                    {
+                        continue;
+                    }
+
+                    double cost = collapseCost(v, u);
+                    if (cost < bestCost && !isFlipping(v, u))
+                    {
+                        bestCost = cost;
+                        bestTarget = u;
+                    }
+                }
+            }
+        }
+
+        mCosts[v] = bestCost;
+        mTargets[v] = bestTarget;
+    }
+
+
+    private void collapse(int v)
+    {
+        int u = mTargets[v];
+        mMaxCost = Math.max(mMaxCost, mCosts[v]);
+
+        // Triangles on the edge disappear, the others are moved over to u
+        int[] faces = mVertexFaces[v];
+        for (int i = 0; i < mVertexFaceCounts[v]; i++)
+        {
+            int face = faces[i];
+            if (mFaces[face * 3] == NONE)
+            {
+                continue;
+            }
+
+            if (hasVertex(face, u))
+            {
+                mFaces[face * 3] = NONE;
+                mNumTriangles--;
+                continue;
+            }
+
+            for (int k = 0; k < 3; k++)
+            {
+                if (mFaces[face * 3 + k] == v)
+                {
+                    mFaces[face * 3 + k] = u;
+                }
+            }
+
+            addFace(u, face);
+        }
+
+        int qv = v * QUADRIC_SIZE;
+        int qu = u * QUADRIC_SIZE;
+        for (int i = 0; i < QUADRIC_SIZE; i++)
+        {
+            mQuadrics[qu + i] += mQuadrics[qv + i];
+        }
+
+        mIsRemoved[v] = true;
+        mVertexFaces[v] = null;
+        mVertexFaceCounts[v] = 0;
+        removeFromHeap(v);
+
+        compactFaces(u);
+
+        // The neighbourhood of u changed, so did the collapses of its neighbours
+        mVisitStamp++;
+        updateCollapse(u);
+        int[] uFaces = mVertexFaces[u];
+        for (int i = 0; i < mVertexFaceCounts[u]; i++)
+        {
+            int face = uFaces[i];
+            for (int k = 0; k < 3; k++)
+            {
+                updateCollapse(mFaces[face * 3 + k]);
+            }
+        }
+    }
+
+
+    private void updateCollapse(int v)
+    {
+        if (mVisitStamps[v] == mVisitStamp)
+        {
+            return;
+        }
+
+        mVisitStamps[v] = mVisitStamp;
+        computeCollapse(v);
+
+        siftUp(mHeapIndex[v]);
+        siftDown(mHeapIndex[v]);
+    }
+
+
+    private void addFace(int v, int face)
+    {
+        int[] faces = mVertexFaces[v];
+        if (mVertexFaceCounts[v] == faces.length)
+        {
+            faces = Arrays.copyOf(faces, Math.max(4, faces.length * 2));
+            mVertexFaces[v] = faces;
+        }
+
+        faces[mVertexFaceCounts[v]++] = face;
+    }
+
+
+    // Drops the removed triangles from the list of v
+    private void compactFaces(int v)
+    {
+        int[] faces = mVertexFaces[v];
+        int count = 0;
+        for (int i = 0; i < mVertexFaceCounts[v]; i++)
+        {
+            if (mFaces[faces[i] * 3] != NONE)
+            {
+                faces[count++] = faces[i];
+            }
+        }
+
+        mVertexFaceCounts[v] = count;
+    }
+
+
+    private void removeFromHeap(int v)
+    {
+        int i = mHeapIndex[v];
+        mHeapSize--;
+        if (i != mHeapSize)
+        {
+            int last = mHeap[mHeapSize];
+            swap(i, mHeapSize);
+            siftUp(i);
+            siftDown(mHeapIndex[last]);
+        }
+    }
+
+
+    private void siftUp(int i)
+    {
+        while (i > 0)
+        {
+            int parent = (i - 1) / 2;
+            if (mCosts[mHeap[i]] >= mCosts[mHeap[parent]])
+            {
+                break;
+            }
+
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+
+    private void siftDown(int i)
+    {
+        while (true)
+        {
+            int smallest = i;
+            int left = i * 2 + 1;
+            int right = left + 1;
+            if (left < mHeapSize && mCosts[mHeap[left]] < mCosts[mHeap[smallest]])
+            {
+                smallest = left;
+            }
+            if (right < mHeapSize && mCosts[mHeap[right]] < mCosts[mHeap[smallest]])
+            {
+                smallest = right;
+            }
+            if (smallest == i)
+            {
+                return;
+            }
+
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+
+    private void swap(int i, int j)
+    {
+        int a = mHeap[i];
+        int b = mHeap[j];
+        mHeap[i] = b;
+        mHeap[j] = a;
+        mHeapIndex[b] = i;
+        mHeapIndex[a] = j;
+    }
+}
@@ -0,0 +1,42 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+
+/**
+ * These shaders draw the augmentations rendered at a reduced resolution over
+ * the video background
+ *
+ * The vertices are the corners of the viewport in clip space, texScale is the
+ * share of the offscreen texture that was drawn to
+ */
+public class OffscreenCompositeShader
+{
+
+    public static final String COMPOSITE_VERTEX_SHADER =
+        "attribute vec2 vertexPosition;\n" +
+        "uniform vec2 texScale;\n" +
+
+        "varying vec2 texCoord;\n" +
+
+        "void main()\n" +
+        "{\n" +
+        "    gl_Position = vec4(vertexPosition, 0.0, 1.0);\n" +
+        "    texCoord = (vertexPosition * 0.5 + 0.5) * texScale;\n" +
+        "}\n";
+
+    public static final String COMPOSITE_FRAGMENT_SHADER =
+        "precision mediump float;\n" +
+        "varying vec2 texCoord;\n" +
+        "uniform sampler2D texSampler2D;\n" +
+        "void main ()\n" +
+        "{\n" +
+        "    gl_FragColor = texture2D(texSampler2D, texCoord);\n" +
+        "}\n";
+
+}
@@ -0,0 +1,95 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * A shape built by PrimitiveMeshGenerator, drawn like any other MeshObject
+ *
+ * All the sections are slices of one native-order direct buffer, with 16-bit
+ * indices. Meshes handed out by the generator may be shared and must not be
+ * modified
+ */
+public final class PrimitiveMesh extends MeshObject
+{
+    private final String mKey;
+    private final ByteBuffer mVertices;
+    private final ByteBuffer mNormals;
+    private final ByteBuffer mTexCoords;
+    private final ByteBuffer mIndices;
+    private final int mNumVertices;
+    private final int mNumIndices;
+
+
+    PrimitiveMesh(String key, ByteBuffer vertices, ByteBuffer normals, ByteBuffer texCoords,
+            int numVertices, ByteBuffer indices, int numIndices)
+    {
+        mKey = key;
+        mVertices = vertices;
+        mNormals = normals;
+        mTexCoords = texCoords;
+        mNumVertices = numVertices;
+        mIndices = indices;
+        mNumIndices = numIndices;
+    }
+
+
+    // The shape and its parameters, also its key in SampleAssetCache
+    public String getKey()
+    {
+        return mKey;
+    }
+
+
+    public int getNumTriangles()
+    {
+        return mNumIndices / 3;
+    }
+
+
+    @Override
+    protected Buffer getBuffer(BUFFER_TYPE bufferType)
+    {
+        switch (bufferType)
+        {
+            case BUFFER_TYPE_VERTEX:
+                return mVertices;
+            case BUFFER_TYPE_NORMALS:
+                return mNormals;
+            case BUFFER_TYPE_TEXTURE_COORD:
+                return mTexCoords;
+            case BUFFER_TYPE_INDICES:
+                return mIndices;
+            default:
+                return null;
+        }
+    }
+
+
+    @Override
+    public int getNumObjectVertex()
+    {
+        return mNumVertices;
+    }
+
+
+    @Override
+    public int getNumObjectIndex()
+    {
+        return mNumIndices;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return mKey;
+    }
+}
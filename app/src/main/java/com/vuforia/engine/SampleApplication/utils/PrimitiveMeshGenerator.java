@@ -0,0 +1,482 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.concurrent.Callable;
+
+/**
+ * Builds cylinders, cones, planes, spheres and boxes
+ *
+ * The create methods build a new mesh. Each mesh is written directly into one
+ * native-order direct buffer, so no Java array is converted. The get methods
+ * share meshes through SampleAssetCache, keyed by shape and parameters.
+ *
+ * A curved shape should have enough sides that it still looks round on
+ * screen. getScreenRadius() gives its size in pixels, and
+ * getSidesForScreenRadius() the number of sides for that size
+ */
+public final class PrimitiveMeshGenerator
+{
+    // Sides picked for a circle on screen, always a power of two between the two
+    public static final int MIN_SIDES = 8;
+    public static final int MAX_SIDES = 128;
+
+    // What the cylinder targets sample always used
+    public static final int DEFAULT_CYLINDER_SIDES = 64;
+
+    // Largest distance in pixels between a side and the true circle
+    public static final float DEFAULT_MAX_ERROR_PIXELS = 0.5f;
+
+    // 16-bit indices
+    private static final int MAX_VERTICES = 0x10000;
+
+
+    private PrimitiveMeshGenerator()
+    {
+    }
+
+
+    // Cylinder of radius 1 and height 1 along z. The bottom circle is at z = 0, and the
+    // top circle at z = 1 has radius topRadius, 0 for a cone. Its vertices, tex coords
+    // and indices match the CylinderModel the cylinder targets sample used to build
+    public static PrimitiveMesh createCylinder(float topRadius, int sides)
+    {
+        if (sides < 3 || sides * 2 + 2 > MAX_VERTICES)
+        {
+            throw new IllegalArgumentException("Unsupported number of sides " + sides);
+        }
+
+        MeshWriter writer = new MeshWriter(getCylinderKey(topRadius, sides), sides * 2 + 2, sides * 12);
+        double deltaTex = 1.0 / (double) sides;
+
+        // Sides normals lean inwards as the radius shrinks towards the top
+        double slope = 1.0 - topRadius;
+        double normalScale = 1.0 / Math.sqrt(1.0 + slope * slope);
+
+        for (int circle = 0; circle < 2; circle++)
+        {
+            double radius = circle == 0 ? 1.0 : topRadius;
+
+            for (int i = 0; i < sides; i++)
+            {
+                double angle = 2 * Math.PI * i / sides;
+                double x = Math.cos(angle);
+                double y = Math.sin(angle);
+
+                writer.vertex((float) (radius * x), (float) (radius * y), circle);
+                writer.normal((float) (x * normalScale), (float) (y * normalScale), (float) (slope * normalScale));
+                writer.texCoord((float) (i * deltaTex), 1 - circle);
+            }
+        }
+
+        // Centers of the bottom and top circles
+        int centerBottom = 2 * sides;
+        int centerTop = centerBottom + 1;
+        writer.vertex(0.0f, 0.0f, 0.0f);
+        writer.normal(0.0f, 0.0f, -1.0f);
+        writer.texCoord(0.5f, 0.5f);
+        writer.vertex(0.0f, 0.0f, 1.0f);
+        writer.normal(0.0f, 0.0f, 1.0f);
+        writer.texCoord(0.5f, 0.5f);
+
+        for (int i = 0; i < sides; i++)
+        {
+            // Next vertex on the circle
+            int i1 = (i + 1) % sides;
+
+            // Side quad, bottom circle then top circle
+            writer.triangle(i, i1, i1 + sides);
+            writer.triangle(i1 + sides, i + sides, i);
+            writer.triangle(i1, i, centerBottom);
+            writer.triangle(i + sides, i1 + sides, centerTop);
+        }
+
+        return writer.build();
+    }
+
+
+    // Same as createCylinder() with a cone's top radius of 0
+    public static PrimitiveMesh createCone(int sides)
+    {
+        return createCylinder(0.0f, sides);
+    }
+
+
+    // Square of side 1 centered on the origin in the z = 0 plane, facing +z, split into
+    // divisions x divisions quads. Tex coords go from (0, 0) at (-0.5, -0.5) to (1, 1)
+    public static PrimitiveMesh createPlane(int divisions)
+    {
+        int rowLength = divisions + 1;
+        if (divisions < 1 || rowLength * rowLength > MAX_VERTICES)
+        {
+            throw new IllegalArgumentException("Unsupported number of divisions " + divisions);
+        }
+
+        MeshWriter writer = new MeshWriter(getPlaneKey(divisions), rowLength * rowLength,
+                divisions * divisions * 6);
+
+        for (int row = 0; row <= divisions; row++)
+        {
+            float v = (float) row / divisions;
+            for (int column = 0; column <= divisions; column++)
+            {
+                float u = (float) column / divisions;
+                writer.vertex(u - 0.5f, v - 0.5f, 0.0f);
+                writer.normal(0.0f, 0.0f, 1.0f);
+                writer.texCoord(u, v);
+            }
+        }
+
+        for (int row = 0; row < divisions; row++)
+        {
+            for (int column = 0; column < divisions; column++)
+            {
+                int corner = row * rowLength + column;
+                writer.triangle(corner, corner + 1, corner + rowLength + 1);
+                writer.triangle(corner, corner + rowLength + 1, corner + rowLength);
+            }
+        }
+
+        return writer.build();
+    }
+
+
+    // Sphere of radius 1 centered on the origin with its poles on the z axis, in slices
+    // around the axis and stacks from pole to pole. The seam is duplicated for the
+    // tex coords, u goes around from +x and v from the -z pole to the +z pole
+    public static PrimitiveMesh createSphere(int slices, int stacks)
+    {
+        int rowLength = slices + 1;
+        if (slices < 3 || stacks < 2 || rowLength * (stacks + 1) > MAX_VERTICES)
+        {
+            throw new IllegalArgumentException("Unsupported sphere of " + slices + " slices and "
+                    + stacks + " stacks");
+        }
+
+        // The triangles touching the poles are single
+        MeshWriter writer = new MeshWriter(getSphereKey(slices, stacks), rowLength * (stacks + 1),
+                slices * (stacks - 1) * 6);
+
+        for (int stack = 0; stack <= stacks; stack++)
+        {
+            double latitude = Math.PI * stack / stacks - Math.PI / 2;
+            double z = Math.sin(latitude);
+            double ringRadius = Math.cos(latitude);
+
+            for (int slice = 0; slice <= slices; slice++)
+            {
+                double longitude = 2 * Math.PI * slice / slices;
+                float x = (float) (ringRadius * Math.cos(longitude));
+                float y = (float) (ringRadius * Math.sin(longitude));
+                writer.vertex(x, y, (float) z);
+                writer.normal(x, y, (float) z);
+                writer.texCoord((float) slice / slices, (float) stack / stacks);
+            }
+        }
+
+        for (int stack = 0; stack < stacks; stack++)
+        {
+            for (int slice = 0; slice < slices; slice++)
+            {
+                int corner = stack * rowLength + slice;
+                int above = corner + rowLength;
+
+                if (stack > 0)
+                {
+                    writer.triangle(corner, corner + 1, above + 1);
+                }
+
+                if (stack < stacks - 1)
+                {
+                    writer.triangle(corner, above + 1, above);
+                }
+            }
+        }
+
+        return writer.build();
+    }
+
+
+    // Cube of side 1 centered on the origin, with 4 vertices per face so that each face
+    // has its own normal and the whole texture
+    public static PrimitiveMesh createBox()
+    {
+        MeshWriter writer = new MeshWriter(getBoxKey(), 24, 36);
+
+        // Normal, then the u and v directions of each face, u x v = normal
+        writeBoxFace(writer, 1, 0, 0, 0, 1, 0, 0, 0, 1);
+        writeBoxFace(writer, -1, 0, 0, 0, -1, 0, 0, 0, 1);
+        writeBoxFace(writer, 0, 1, 0, 0, 0, 1, 1, 0, 0);
+        writeBoxFace(writer, 0, -1, 0, 0, 0, -1, 1, 0, 0);
+        writeBoxFace(writer, 0, 0, 1, 1, 0, 0, 0, 1, 0);
+        writeBoxFace(writer, 0, 0, -1, -1, 0, 0, 0, 1, 0);
+
+        return writer.build();
+    }
+
+
+    public static PrimitiveMesh getCylinder(final float topRadius, final int sides)
+    {
+        return SampleAssetCache.getInstance().getMesh(getCylinderKey(topRadius, sides),
+                new Callable<PrimitiveMesh>()
+                {
+                    @Override
+                    public PrimitiveMesh call()
+                    {
+                        return createCylinder(topRadius, sides);
+                    }
+                });
+    }
+
+
+    public static PrimitiveMesh getCone(int sides)
+    {
+        return getCylinder(0.0f, sides);
+    }
+
+
+    public static PrimitiveMesh getPlane(final int divisions)
+    {
+        return SampleAssetCache.getInstance().getMesh(getPlaneKey(divisions),
+                new Callable<PrimitiveMesh>()
+                {
+                    @Override
+                    public PrimitiveMesh call()
+                    {
+                        return createPlane(divisions);
+                    }
+                });
+    }
+
+
+    public static PrimitiveMesh getSphere(final int slices, final int stacks)
+    {
+        return SampleAssetCache.getInstance().getMesh(getSphereKey(slices, stacks),
+                new Callable<PrimitiveMesh>()
+                {
+                    @Override
+                    public PrimitiveMesh call()
+                    {
+                        return createSphere(slices, stacks);
+                    }
+                });
+    }
+
+
+    public static PrimitiveMesh getBox()
+    {
+        return SampleAssetCache.getInstance().getMesh(getBoxKey(),
+                new Callable<PrimitiveMesh>()
+                {
+                    @Override
+                    public PrimitiveMesh call()
+                    {
+                        return createBox();
+                    }
+                });
+    }
+
+
+    // Fewest sides, a power of two from MIN_SIDES to MAX_SIDES, for which no side of a
+    // circle radiusPixels in radius is further than maxErrorPixels from the circle
+    public static int getSidesForScreenRadius(float radiusPixels, float maxErrorPixels)
+    {
+        int sides = MIN_SIDES;
+
+        // A side is 1 - cos(pi / sides) radii away from the circle at its middle
+        while (sides < MAX_SIDES && radiusPixels * (1.0 - Math.cos(Math.PI / sides)) > maxErrorPixels)
+        {
+            sides *= 2;
+        }
+
+        return sides;
+    }
+
+
+    // Same with DEFAULT_MAX_ERROR_PIXELS, but keeps currentSides until the radius is
+    // below what it needs by LodSelector.DEFAULT_HYSTERESIS, so that a shape whose size
+    // hovers around a step does not switch mesh every frame
+    public static int selectSides(float radiusPixels, int currentSides)
+    {
+        int sides = getSidesForScreenRadius(radiusPixels, DEFAULT_MAX_ERROR_PIXELS);
+        if (sides < currentSides && getSidesForScreenRadius(radiusPixels * (1.0f + LodSelector.DEFAULT_HYSTERESIS),
+                DEFAULT_MAX_ERROR_PIXELS) >= currentSides)
+        {
+            return currentSides;
+        }
+
+        return sides;
+    }
+
+
+    // Radius in pixels of a circle of the given radius around the z axis of the model,
+    // placed by the column-major modelView matrix, for a perspective projectionMatrix
+    // and a viewport viewportHeight pixels high. Infinite when the camera is that close
+    public static float getScreenRadius(float radius, float[] modelView, float[] projectionMatrix,
+            int viewportHeight)
+    {
+        // Distance of the origin in front of the camera, which looks down -z
+        float distance = -modelView[14];
+
+        float scaleSq = Math.max(
+                modelView[0] * modelView[0] + modelView[1] * modelView[1] + modelView[2] * modelView[2],
+                modelView[4] * modelView[4] + modelView[5] * modelView[5] + modelView[6] * modelView[6]);
+        float scaledRadius = radius * (float) Math.sqrt(scaleSq);
+
+        if (distance <= scaledRadius)
+        {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        // projectionMatrix[5] is the cotangent of half the vertical field of view
+        return scaledRadius * Math.abs(projectionMatrix[5]) / distance * viewportHeight * 0.5f;
+    }
+
+
+    private static void writeBoxFace(MeshWriter writer, int nx, int ny, int nz,
+            int ux, int uy, int uz, int vx, int vy, int vz)
+    {
+        int first = writer.getNumVerticesWritten();
+
+        for (int corner = 0; corner < 4; corner++)
+        {
+            // Counterclockwise from (-u, -v)
+            int s = corner == 1 || corner == 2 ? 1 : -1;
+            int t = corner >= 2 ? 1 : -1;
+
+            writer.vertex(0.5f * (nx + s * ux + t * vx), 0.5f * (ny + s * uy + t * vy),
+                    0.5f * (nz + s * uz + t * vz));
+            writer.normal(nx, ny, nz);
+            writer.texCoord((s + 1) / 2, (t + 1) / 2);
+        }
+
+        writer.triangle(first, first + 1, first + 2);
+        writer.triangle(first, first + 2, first + 3);
+    }
+
+
+    private static String getCylinderKey(float topRadius, int sides)
+    {
+        return "primitive/cylinder/" + topRadius + "/" + sides;
+    }
+
+
+    private static String getPlaneKey(int divisions)
+    {
+        return "primitive/plane/" + divisions;
+    }
+
+
+    private static String getSphereKey(int slices, int stacks)
+    {
+        return "primitive/sphere/" + slices + "/" + stacks;
+    }
+
+
+    private static String getBoxKey()
+    {
+        return "primitive/box";
+    }
+
+
+    // Writes the attributes and indices of a mesh into the sections of one direct buffer
+    private static final class MeshWriter
+    {
+        private final String mKey;
+        private final int mNumVertices;
+        private final int mNumIndices;
+
+        private final ByteBuffer mVertexBytes;
+        private final ByteBuffer mNormalBytes;
+        private final ByteBuffer mTexCoordBytes;
+        private final ByteBuffer mIndexBytes;
+
+        private final FloatBuffer mVertices;
+        private final FloatBuffer mNormals;
+        private final FloatBuffer mTexCoords;
+        private final ShortBuffer mIndices;
+
+
+        MeshWriter(String key, int numVertices, int numIndices)
+        {
+            mKey = key;
+            mNumVertices = numVertices;
+            mNumIndices = numIndices;
+
+            int vertexBytes = numVertices * 3 * (Float.SIZE / Byte.SIZE);
+            int texCoordBytes = numVertices * 2 * (Float.SIZE / Byte.SIZE);
+            int indexBytes = numIndices * (Short.SIZE / Byte.SIZE);
+            ByteBuffer block = SampleAssetReader.allocateNative(2 * vertexBytes + texCoordBytes + indexBytes);
+
+            mVertexBytes = sectionOf(block, 0, vertexBytes);
+            mNormalBytes = sectionOf(block, vertexBytes, vertexBytes);
+            mTexCoordBytes = sectionOf(block, 2 * vertexBytes, texCoordBytes);
+            mIndexBytes = sectionOf(block, 2 * vertexBytes + texCoordBytes, indexBytes);
+
+            mVertices = mVertexBytes.asFloatBuffer();
+            mNormals = mNormalBytes.asFloatBuffer();
+            mTexCoords = mTexCoordBytes.asFloatBuffer();
+            mIndices = mIndexBytes.asShortBuffer();
+        }
+
+
+        void vertex(float x, float y, float z)
+        {
+            mVertices.put(x).put(y).put(z);
+        }
+
+
+        void normal(float x, float y, float z)
+        {
+            mNormals.put(x).put(y).put(z);
+        }
+
+
+        void texCoord(float u, float v)
+        {
+            mTexCoords.put(u).put(v);
+        }
+
+
+        void triangle(int a, int b, int c)
+        {
+            mIndices.put((short) a).put((short) b).put((short) c);
+        }
+
+
+        int getNumVerticesWritten()
+        {
+            return mVertices.position() / 3;
+        }
+
+
+        PrimitiveMesh build()
+        {
+            if (mVertices.hasRemaining() || mNormals.hasRemaining() || mTexCoords.hasRemaining()
+                    || mIndices.hasRemaining())
+            {
+                throw new IllegalStateException("Mesh " + mKey + " was not completely written");
+            }
+
+            return new PrimitiveMesh(mKey, mVertexBytes, mNormalBytes, mTexCoordBytes, mNumVertices,
+                    mIndexBytes, mNumIndices);
+        }
+
+
+        private static ByteBuffer sectionOf(ByteBuffer block, int offset, int numBytes)
+        {
+            ByteBuffer section = block.duplicate();
+            section.position(offset);
+            section.limit(offset + numBytes);
+            return section.slice().order(block.order());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.Arrays;
+
+/**
+ * Picks the resolution scale augmentations are drawn at from the GPU frame
+ * times, e.g. from GpuFrameTimeEstimator, so that a heavy scene keeps its
+ * frame rate by drawing fewer pixels
+ *
+ * Frame times are collected over a window of frames and only the median of
+ * each window is acted on, so single hitches do not count. A median above the
+ * target by OVER_BUDGET lowers the scale in one step to where the frame time
+ * should meet the target, taking the cost as proportional to the number of
+ * pixels. A median below the target by UNDER_BUDGET raises it by SCALE_UP_STEP.
+ * In between the scale is kept.
+ *
+ * An increase that puts the next window over budget is reverted, and the scale
+ * it reached is not tried again for a number of windows. That number doubles
+ * every time the increase fails again and halves when it holds, so that a
+ * scene on the edge of the budget settles instead of going up and down.
+ *
+ * The scale is a factor of the width and height, from the minimum to the
+ * maximum scale. This class must only be used from one thread
+ */
+public class RenderScaleController
+{
+    public static final float DEFAULT_MIN_SCALE = 0.5f;
+    public static final float DEFAULT_MAX_SCALE = 1.0f;
+
+    // The rate of the camera, drawing faster than that shows no new frame
+    public static final long DEFAULT_TARGET_FRAME_TIME_NS = 1000000000L / 30;
+
+    public static final int DEFAULT_WINDOW_SIZE = 30;
+
+    private static final float OVER_BUDGET = 0.1f;
+    private static final float UNDER_BUDGET = 0.25f;
+    private static final float SCALE_UP_STEP = 0.05f;
+
+    // Largest share of the scale removed by one step down
+    private static final float MAX_SCALE_DOWN = 0.25f;
+
+    private static final int MAX_HOLD_WINDOWS = 32;
+
+    // Frames drawn at the previous scale may still be in flight after a change
+    private static final int FRAMES_SKIPPED_AFTER_CHANGE = 2;
+
+    // Longer frames are pauses, e.g. the activity was in the background
+    private static final long MAX_FRAME_TIME_NS = 1000000000L;
+
+    private final float mMinScale;
+    private final float mMaxScale;
+    private final long mTargetFrameTimeNs;
+
+    private final long[] mWindow;
+    private int mNumSamples = 0;
+    private int mNumSkipped = 0;
+
+    private float mScale;
+    private float mPreviousScale;
+    private boolean mWasIncreased = false;
+
+    // Lowest scale an increase failed at, only tried again once the hold is over
+    private float mCeiling = Float.POSITIVE_INFINITY;
+    private int mHoldWindows = 1;
+    private int mHoldRemaining = 0;
+    private int mChangeCount = 0;
+
+
+    public RenderScaleController()
+    {
+        this(DEFAULT_MIN_SCALE, DEFAULT_MAX_SCALE, DEFAULT_TARGET_FRAME_TIME_NS, DEFAULT_WINDOW_SIZE);
+    }
+
+
+    public RenderScaleController(float minScale, float maxScale, long targetFrameTimeNs, int windowSize)
+    {
+        if (!(minScale > 0.0f && minScale <= maxScale && maxScale <= 1.0f))
+        {
+            throw new IllegalArgumentException("Scales must be in (0, 1] with minScale <= maxScale");
+        }
+
+        if (targetFrameTimeNs <= 0 || windowSize <= 0)
+        {
+            throw new IllegalArgumentException("targetFrameTimeNs and windowSize must be positive");
+        }
+
+        mMinScale = minScale;
+        mMaxScale = maxScale;
+        mTargetFrameTimeNs = targetFrameTimeNs;
+        mWindow = new long[windowSize];
+        mScale = maxScale;
+        mPreviousScale = maxScale;
+    }
+
+
+    // Adds the time the GPU spent drawing one frame, not the time since the previous one,
+    // returns true if the scale changed
+    public boolean onFrame(long frameTimeNs)
+    {
+        if (frameTimeNs <= 0 || frameTimeNs > MAX_FRAME_TIME_NS)
+        {
+            return false;
+        }
+
+        if (mNumSkipped < FRAMES_SKIPPED_AFTER_CHANGE)
+        {
+            mNumSkipped++;
+            return false;
+        }
+
+        mWindow[mNumSamples++] = frameTimeNs;
+        if (mNumSamples < mWindow.length)
+        {
+            return false;
+        }
+
+        mNumSamples = 0;
+        Arrays.sort(mWindow);
+        return update(mWindow[mWindow.length / 2]);
+    }
+
+
+    private boolean update(long medianFrameTimeNs)
+    {
+        float scale = mScale;
+
+        if (medianFrameTimeNs > mTargetFrameTimeNs * (1.0f + OVER_BUDGET))
+        {
+            if (mWasIncreased)
+            {
+                // Back to the scale that was within budget
+                scale = mPreviousScale;
+                mCeiling = Math.min(mCeiling, mScale);
+                mHoldWindows = Math.min(mHoldWindows * 2, MAX_HOLD_WINDOWS);
+                mHoldRemaining = mHoldWindows;
+            }
+            else
+            {
+                // Pixels are the square of the scale
+                float fit = mScale * (float) Math.sqrt((double) mTargetFrameTimeNs / medianFrameTimeNs);
+                scale = Math.max(mMinScale, Math.max(fit, mScale * (1.0f - MAX_SCALE_DOWN)));
+            }
+        }
+        else
+        {
+            if (mWasIncreased && mScale >= mCeiling)
+            {
+                mCeiling = Float.POSITIVE_INFINITY;
+                mHoldWindows = Math.max(1, mHoldWindows / 2);
+            }
+
+            if (mHoldRemaining > 0)
+            {
+                mHoldRemaining--;
+            }
+
+            if (medianFrameTimeNs < mTargetFrameTimeNs * (1.0f - UNDER_BUDGET))
+            {
+                float increased = Math.min(mMaxScale, mScale + SCALE_UP_STEP);
+                if (increased < mCeiling || mHoldRemaining == 0)
+                {
+                    scale = increased;
+                }
+            }
+        }
+
+        mWasIncreased = scale > mScale;
+        if (scale == mScale)
+        {
+            return false;
+        }
+
+        mPreviousScale = mScale;
+        mScale = scale;
+        mNumSkipped = 0;
+        mChangeCount++;
+        return true;
+    }
+
+
+    public float getScale()
+    {
+        return mScale;
+    }
+
+
+    // Number of times the scale changed since the last reset
+    public int getChangeCount()
+    {
+        return mChangeCount;
+    }
+
+
+    public long getTargetFrameTime()
+    {
+        return mTargetFrameTimeNs;
+    }
+
+
+    // Back to the maximum scale with no history, e.g. when the scene changes
+    public void reset()
+    {
+        mScale = mMaxScale;
+        mPreviousScale = mMaxScale;
+        mNumSamples = 0;
+        mNumSkipped = 0;
+        mWasIncreased = false;
+        mCeiling = Float.POSITIVE_INFINITY;
+        mHoldWindows = 1;
+        mHoldRemaining = 0;
+        mChangeCount = 0;
+    }
+}
@@ -18,6 +18,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 import android.content.res.AssetManager;
+import android.util.Log;
 
 
 /**
@@ -27,9 +28,13 @@ import android.content.res.AssetManager;
  * The first number in the text file corresponds to the number of vertices * 3 (x, y, z)
  * The lines are parsed until we have parsed all of the vertices
  * Then the process repeats for reading the normals and tex coords
+ *
+ * If a version of the model compiled by SampleMeshCompiler is found next to the
+ * .txt file it is loaded instead, which avoids parsing the text entirely
  */
 public class SampleApplication3DModel extends MeshObject
 {
+    private static final String LOGTAG = "SampleApplication3DModel";
     
     private ByteBuffer verts;
     private ByteBuffer textCoords;
@@ -39,6 +44,52 @@ public class SampleApplication3DModel extends MeshObject
     
     public void loadModel(AssetManager assetManager, String filename)
         throws IOException
+    {
+        if (!loadCompiledModel(assetManager, CompiledMeshFormat.getCompiledName(filename)))
+        {
+            Log.w(LOGTAG, "No compiled mesh found for " + filename + ", parsing text");
+            loadTextModel(assetManager, filename);
+        }
+
+        if (numVerts > 0)
+        {
+            getBounds();
+        }
+    }
+
+
+    private boolean loadCompiledModel(AssetManager assetManager, String filename)
+    {
+        ByteBuffer compiled;
+        try
+        {
+            compiled = SampleAssetReader.readAsset(assetManager, filename);
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+
+        try
+        {
+            ByteBuffer[] sections = CompiledMesh.readSections(compiled);
+            verts = sections[CompiledMeshFormat.SECTION_VERTICES];
+            norms = sections[CompiledMeshFormat.SECTION_NORMALS];
+            textCoords = sections[CompiledMeshFormat.SECTION_TEX_COORDS];
+            numVerts = verts.capacity() / (3 * (Float.SIZE / Byte.SIZE));
+        }
+        catch (IllegalArgumentException e)
+        {
+            Log.e(LOGTAG, "Invalid compiled mesh " + filename + ": " + e.getMessage());
+            return false;
+        }
+
+        return true;
+    }
+
+
+    private void loadTextModel(AssetManager assetManager, String filename)
+        throws IOException
     {
         InputStream is = null;
         try
@@ -13,6 +13,7 @@ import javax.microedition.khronos.egl.EGL10;
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.egl.EGLContext;
 import javax.microedition.khronos.egl.EGLDisplay;
+import javax.microedition.khronos.opengles.GL10;
 
 import android.content.Context;
 import android.graphics.PixelFormat;
@@ -26,15 +27,169 @@ import android.util.Log;
  *
  * This class does not contain any Vuforia Engine specific code.
  * You can use your own OpenGL implementation.
+ *
+ * By default the view renders continuously. With setRenderOnDemand() it only
+ * renders when onCameraFrame() is given a new frame or invalidateFrame() is
+ * called, paced by a FramePacer, and at least once per maximum frame interval
+ * of the pacer.
  */
 public class SampleApplicationGLView extends GLSurfaceView
 {
     private static final String LOGTAG = "VuforiaEngine_SampleGLView";
 
+    private final FramePacer mFramePacer = new FramePacer();
+    private volatile boolean mIsRenderOnDemand = false;
+
+    private final Runnable mRequestRender = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            requestRender();
+        }
+    };
+
+    // Renders when nothing asked for a frame for the maximum frame interval
+    private final Runnable mIdleCheck = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            long delayNs = mFramePacer.onIdleCheck();
+            if (delayNs == 0)
+            {
+                requestRender();
+                delayNs = mFramePacer.getMaxFrameInterval();
+            }
+
+            postDelayed(this, (delayNs + 999999) / 1000000);
+        }
+    };
+
     public SampleApplicationGLView(Context context)
     {
         super(context);
     }
+
+
+    // Tells the pacer about every frame drawn, whatever asked for it
+    @Override
+    public void setRenderer(final Renderer renderer)
+    {
+        super.setRenderer(new Renderer()
+        {
+            @Override
+            public void onSurfaceCreated(GL10 gl, EGLConfig config)
+            {
+                renderer.onSurfaceCreated(gl, config);
+            }
+
+
+            @Override
+            public void onSurfaceChanged(GL10 gl, int width, int height)
+            {
+                renderer.onSurfaceChanged(gl, width, height);
+            }
+
+
+            @Override
+            public void onDrawFrame(GL10 gl)
+            {
+                mFramePacer.onFrameRendered();
+                renderer.onDrawFrame(gl);
+            }
+        });
+    }
+
+
+    // Renders only when asked to instead of at the display rate. Must be called
+    // after setRenderer()
+    public void setRenderOnDemand(boolean renderOnDemand)
+    {
+        mIsRenderOnDemand = renderOnDemand;
+        mFramePacer.reset();
+        setRenderMode(renderOnDemand ? RENDERMODE_WHEN_DIRTY : RENDERMODE_CONTINUOUSLY);
+        scheduleIdleCheck();
+        Log.i(LOGTAG, "Rendering " + (renderOnDemand ? "on demand" : "continuously"));
+    }
+
+
+    public boolean isRenderOnDemand()
+    {
+        return mIsRenderOnDemand;
+    }
+
+
+    // A camera frame with the given timestamp is ready, may be called from any thread.
+    // Frames with the timestamp of the previous one are not rendered again
+    public void onCameraFrame(double timestamp)
+    {
+        if (mIsRenderOnDemand)
+        {
+            postRender(mFramePacer.onCameraFrame(timestamp));
+        }
+    }
+
+
+    // What is drawn changed without a new camera frame, may be called from any thread
+    public void invalidateFrame()
+    {
+        if (mIsRenderOnDemand)
+        {
+            postRender(mFramePacer.invalidate());
+        }
+    }
+
+
+    private void postRender(long delayNs)
+    {
+        if (delayNs == 0)
+        {
+            requestRender();
+        }
+        else if (delayNs > 0)
+        {
+            // Rounded up, so that the render does not come before the pacer allows it
+            postDelayed(mRequestRender, (delayNs + 999999) / 1000000);
+        }
+    }
+
+
+    private void scheduleIdleCheck()
+    {
+        removeCallbacks(mIdleCheck);
+        if (mIsRenderOnDemand)
+        {
+            postDelayed(mIdleCheck, mFramePacer.getMaxFrameInterval() / 1000000);
+        }
+    }
+
+
+    // Rendered and skipped frame counters
+    public FramePacer getFramePacer()
+    {
+        return mFramePacer;
+    }
+
+
+    @Override
+    public void onResume()
+    {
+        // Requests made while paused were never rendered
+        mFramePacer.reset();
+        super.onResume();
+        scheduleIdleCheck();
+    }
+
+
+    @Override
+    public void onPause()
+    {
+        super.onPause();
+        removeCallbacks(mRequestRender);
+        removeCallbacks(mIdleCheck);
+        Log.d(LOGTAG, "Frames: " + mFramePacer);
+    }
     
 
     public void init(boolean translucent, int depth, int stencil)
@@ -14,12 +14,13 @@ import android.util.Log;
 
 import com.vuforia.Vec4F;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * This class is used to load 3D models from a .v3d file
@@ -37,13 +38,16 @@ public class SampleApplicationV3DModel extends MeshObject
     private ByteBuffer _modelTexCoords;
     private ByteBuffer _modelNormals;
     private ByteBuffer _modelMaterialIndices;
-    private ByteBuffer _modelGroupAmbientColors;
-    private ByteBuffer _modelGroupDiffuseColors;
-    private ByteBuffer _modelGroupSpecularColors;
+    private float[] _modelGroupAmbientColors;
+    private float[] _modelGroupDiffuseColors;
+    private float[] _modelGroupSpecularColors;
     private ByteBuffer _modelGroupDiffuseIndexes;
-    private ByteBuffer _modelGroupDissolveFactor;
+    private float[] _modelGroupDissolveFactor;
     private ByteBuffer _modelGroupVertexRanges;
+    private ByteBuffer _modelIndices;
     private int _nbVertices = -1;
+    private int _nbIndices = 0;
+    private int mIndexType = GLES20.GL_UNSIGNED_SHORT;
     private int _nbGroups = -1;
     private int _nbFaces = -1;
     private int _nbMaterials = -1;
@@ -58,8 +62,9 @@ public class SampleApplicationV3DModel extends MeshObject
     private static final int OBJ_MTL_EXTRA_ARRAY = 2;
     private static final int OBJ_AMBIENT_ARRAY = 3;
     private static final int OBJ_DIFFUSE_ARRAY = 4;
+    private static final int INDEX_ARRAY = 5;
 
-    private final int SHADERS_BUFFER_NUM = 5;
+    private final int SHADERS_BUFFER_NUM = 6;
     private final int[] shaderBuffers = new int[SHADERS_BUFFER_NUM];
 
     private int objMtlProgramID;
@@ -81,18 +86,36 @@ public class SampleApplicationV3DModel extends MeshObject
     private int objMtlGroupTransparencyHandle;
 
     // No color correction by default
-    private Vec4F mColorCorrection = new Vec4F(1.0f, 1.0f, 1.0f, 1.0f);
+    private final float[] mColorCorrection = {1.0f, 1.0f, 1.0f, 1.0f};
     private float mIntensityCorrection = 1.0f;
 
+    // Scratch matrices reused by render() so that drawing does not allocate
+    private final float[] mInverseMatrix = new float[16];
+    private final float[] mNormalMatrix = new float[16];
+
     private final boolean mUseTransparency;
 
+    // Share of the triangles kept by each simplified level, and how far in fractions of
+    // the bounding radius it may move the surface
+    private static final float[] LOD_TRIANGLE_RATIOS = {0.5f, 0.25f};
+    private static final float[] LOD_MAX_ERRORS = {0.01f, 0.05f};
+
+    // A level that removes less than this share of the previous one is not kept
+    private static final float LOD_MIN_REDUCTION = 0.1f;
+
+    // Floats per welded vertex: position, normal, tex coord, and the material index
+    // and shininess of a_vertexExtra
+    private static final int WELD_STRIDE = 10;
+
+    // Level 0 is the model itself
+    private volatile MeshObject[] mLevelsOfDetail = {this};
+
     public SampleApplicationV3DModel(boolean enableTransparency)
     {
         mUseTransparency = enableTransparency;
     }
 
 
-    @SuppressWarnings("ResultOfMethodCallIgnored")
     public boolean loadModel(AssetManager assetManager, String filename)
     {
         if (mIsLoaded)
@@ -102,207 +125,103 @@ public class SampleApplicationV3DModel extends MeshObject
 
         try
         {
-            InputStream inputStream = assetManager.open(filename);
-            BufferedInputStream bufInputStream = new BufferedInputStream(inputStream);
-
-            int numBytes = bufInputStream.available();
-
-            if (numBytes < 0 || numBytes >= Integer.MAX_VALUE)
-            {
-                Log.e(LOGTAG, "Could not load model, number of bytes "
-                        + numBytes + " exceeds limit");
-                return false;
-            }
-            
-            byte[] bytesArray = new byte[numBytes];
+            // The asset is memory-mapped when stored uncompressed, so every section
+            // is copied only once, straight into its native-order buffer
+            ByteBuffer byteBuffer = SampleAssetReader.readAsset(assetManager, filename);
 
-            bufInputStream.read(bytesArray);
-            ByteBuffer byteBuffer = ByteBuffer.wrap(bytesArray);
-
-            // Read magic number
-            int magicNumber = byteBuffer.getInt();
-            Log.d(LOGTAG, "MagicNumber: " + magicNumber);
-
-            // Read version number
-            mVersion = byteBuffer.getFloat();
-            Log.d(LOGTAG, "NumVersion: " + mVersion);
-
-            // Read vertices number
-            _nbVertices = byteBuffer.getInt();
-            Log.d(LOGTAG, "_nbVertices: " + _nbVertices);
-
-            // Read faces number
-            _nbFaces = byteBuffer.getInt();
-            Log.d(LOGTAG, "_nbFaces: " + _nbFaces);
-
-            // Read material number
-            _nbMaterials = byteBuffer.getInt();
-            Log.d(LOGTAG, "_nbMaterials: " + _nbMaterials);
-            _nbGroups = _nbMaterials;
-
-            // Read vertices
-            int numFloatsToRead = _nbFaces * 3 * 3; // 3 vertices per face, 3 values per vertex x, y, z
-            _modelVertices = ByteBuffer.allocateDirect(numFloatsToRead * (Float.SIZE / Byte.SIZE));
-            _modelVertices.order(ByteOrder.nativeOrder());
-
-            for (int i = 0; i < numFloatsToRead; ++i)
+            if (readModel(byteBuffer, filename))
             {
-                _modelVertices.putFloat(byteBuffer.getFloat());
-            }
-
-            _modelVertices.rewind();
-            Log.d(LOGTAG, "First vertex: " + _modelVertices.getFloat(0) + "," + _modelVertices.getFloat(1) + "," + _modelVertices.getFloat(2));
-
-            // Read normals
-            numFloatsToRead = _nbFaces * 3 * 3; // 3 vertices per face, 3 values per vertex x, y, z
-            _modelNormals = ByteBuffer.allocateDirect(numFloatsToRead * (Float.SIZE / Byte.SIZE));
-            _modelNormals.order(ByteOrder.nativeOrder());
-
-            for (int i = 0; i < numFloatsToRead; ++i)
-            {
-                _modelNormals.putFloat(byteBuffer.getFloat());
-            }
-
-            _modelNormals.rewind();
-            Log.d(LOGTAG, "First normal: " + _modelNormals.getFloat(0) + "," + _modelNormals.getFloat(1) + "," + _modelNormals.getFloat(2));
+               // Set default light color to gray and alpha to 1.0f
+                float[] color = {0.5f, 0.5f, 0.5f, 1.0f};
+                setLightColor(color);
+                setTransparency(0.5f);
 
-            // Read texture coordinates
-            numFloatsToRead = _nbFaces * 3 * 2; // 3 vertices per face, 2 values per vertex u, v
-            _modelTexCoords = ByteBuffer.allocateDirect(numFloatsToRead * (Float.SIZE / Byte.SIZE));
-            _modelTexCoords.order(ByteOrder.nativeOrder());
+                initShaders();
+                getBounds();
 
-            for (int i = 0; i < numFloatsToRead; ++i)
-            {
-                _modelTexCoords.putFloat(byteBuffer.getFloat());
+                mIsLoaded = true;
             }
-
-            _modelTexCoords.rewind();
-            Log.d(LOGTAG, "First tex coord: " + _modelTexCoords.getFloat(0) + "," + _modelTexCoords.getFloat(1));
-
-            // Read material per face and shininess
-            numFloatsToRead = _nbFaces * 3 * 2; // 3 vertices per face, 2 values per vertex material, shininess
-            _modelMaterialIndices = ByteBuffer.allocateDirect(numFloatsToRead * (Float.SIZE / Byte.SIZE));
-            _modelMaterialIndices.order(ByteOrder.nativeOrder());
-
-            for (int i = 0; i < numFloatsToRead; ++i)
+            else
             {
-                _modelMaterialIndices.putFloat(byteBuffer.getFloat());
+                unloadModel();
+                Log.d(LOGTAG, "Could not initialize shader");
             }
 
-            _modelMaterialIndices.rewind();
-            Log.d(LOGTAG, "First material and shininess: " + _modelMaterialIndices.getFloat(0) + "," + _modelMaterialIndices.getFloat(1));
-
-            // Read material ambient color
-            numFloatsToRead = _nbMaterials * 4; // 4 values per material r, g, b, a
-            _modelGroupAmbientColors = ByteBuffer.allocateDirect(numFloatsToRead * (Float.SIZE / Byte.SIZE));
-            _modelGroupAmbientColors.order(ByteOrder.nativeOrder());
+            return true;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            e.printStackTrace();
+            Log.e(LOGTAG, "Could not load model " + filename);
 
-            for (int i = 0; i < numFloatsToRead; ++i)
-            {
-                _modelGroupAmbientColors.putFloat(byteBuffer.getFloat());
-            }
+            return false;
+        }
+    }
 
-            _modelGroupAmbientColors.rewind();
-            Log.d(LOGTAG, "First ambient color: " + _modelGroupAmbientColors.getFloat(0) + "," + _modelGroupAmbientColors.getFloat(1) + "," + _modelGroupAmbientColors.getFloat(2) + "," + _modelGroupAmbientColors.getFloat(3));
 
-            // Read material diffuse color
-            numFloatsToRead = _nbMaterials * 4; // 4 values per material r, g, b, a
-            _modelGroupDiffuseColors = ByteBuffer.allocateDirect(numFloatsToRead * (Float.SIZE / Byte.SIZE));
-            _modelGroupDiffuseColors.order(ByteOrder.nativeOrder());
+    // Reads the sections of the .v3d content and indexes its vertices, without GL calls.
+    // Returns false if the magic number at the end does not match the one at the start
+    boolean readModel(ByteBuffer byteBuffer, String filename)
+    {
+        // Read magic number
+        int magicNumber = byteBuffer.getInt();
 
-            for (int i = 0; i < numFloatsToRead; ++i)
-            {
-                _modelGroupDiffuseColors.putFloat(byteBuffer.getFloat());
-            }
+        // Read version number
+        mVersion = byteBuffer.getFloat();
 
-            _modelGroupDiffuseColors.rewind();
-            Log.d(LOGTAG, "First diffuse color: " + _modelGroupDiffuseColors.getFloat(0) + "," + _modelGroupDiffuseColors.getFloat(1) + "," + _modelGroupDiffuseColors.getFloat(2) + "," + _modelGroupDiffuseColors.getFloat(3));
+        // Read vertices number
+        _nbVertices = byteBuffer.getInt();
 
-            // Read material specular color
-            numFloatsToRead = _nbMaterials * 4; // 4 values per material r, g, b, a
-            _modelGroupSpecularColors = ByteBuffer.allocateDirect(numFloatsToRead * (Float.SIZE / Byte.SIZE));
-            _modelGroupSpecularColors.order(ByteOrder.nativeOrder());
+        // Read faces number
+        _nbFaces = byteBuffer.getInt();
 
-            for (int i = 0; i < numFloatsToRead; ++i)
-            {
-                _modelGroupSpecularColors.putFloat(byteBuffer.getFloat());
-            }
+        // Read material number
+        _nbMaterials = byteBuffer.getInt();
+        _nbGroups = _nbMaterials;
 
-            _modelGroupSpecularColors.rewind();
-            Log.d(LOGTAG, "First specular color: " + _modelGroupSpecularColors.getFloat(0) + "," + _modelGroupSpecularColors.getFloat(1) + "," + _modelGroupSpecularColors.getFloat(2) + "," + _modelGroupSpecularColors.getFloat(3));
+        Log.d(LOGTAG, "Loading " + filename + ", version: " + mVersion + ", vertices: "
+                + _nbVertices + ", faces: " + _nbFaces + ", materials: " + _nbMaterials);
 
-            // Read material diffuse texture indexes
-            numFloatsToRead = _nbMaterials; // 1 index per material
-            _modelGroupDiffuseIndexes = ByteBuffer.allocateDirect(numFloatsToRead * (Integer.SIZE / Byte.SIZE));
-            _modelGroupDiffuseIndexes.order(ByteOrder.nativeOrder());
+        // Read vertices, 3 vertices per face, 3 values per vertex x, y, z
+        _modelVertices = SampleAssetReader.copyFloats(byteBuffer, _nbFaces * 3 * 3);
 
-            for (int i = 0; i < numFloatsToRead; ++i)
-            {
-                _modelGroupDiffuseIndexes.putInt(byteBuffer.getInt());
-            }
+        // Read normals, 3 vertices per face, 3 values per vertex x, y, z
+        _modelNormals = SampleAssetReader.copyFloats(byteBuffer, _nbFaces * 3 * 3);
 
-            _modelGroupDiffuseIndexes.rewind();
-            Log.d(LOGTAG, "First material diffuse texture index: " + _modelGroupDiffuseIndexes.getInt(0));
+        // Read texture coordinates, 3 vertices per face, 2 values per vertex u, v
+        _modelTexCoords = SampleAssetReader.copyFloats(byteBuffer, _nbFaces * 3 * 2);
 
-            // Read material dissolve value (transparency)
-            numFloatsToRead = _nbMaterials; // 1 value per material
-            _modelGroupDissolveFactor = ByteBuffer.allocateDirect(numFloatsToRead * (Float.SIZE / Byte.SIZE));
-            _modelGroupDissolveFactor.order(ByteOrder.nativeOrder());
+        // Read material per face and shininess, 3 vertices per face, 2 values per vertex
+        _modelMaterialIndices = SampleAssetReader.copyFloats(byteBuffer, _nbFaces * 3 * 2);
 
-            for (int i = 0; i < numFloatsToRead; ++i)
-            {
-                _modelGroupDissolveFactor.putFloat(byteBuffer.getFloat());
-            }
+        // Read material ambient color, 4 values per material r, g, b, a
+        _modelGroupAmbientColors = SampleAssetReader.readFloatArray(byteBuffer, _nbMaterials * 4);
 
-            _modelGroupDissolveFactor.rewind();
-            Log.d(LOGTAG, "First material dissolve: " + _modelGroupDissolveFactor.getFloat(0));
+        // Read material diffuse color, 4 values per material r, g, b, a
+        _modelGroupDiffuseColors = SampleAssetReader.readFloatArray(byteBuffer, _nbMaterials * 4);
 
-            // Read vertex range per group
-            numFloatsToRead = _nbMaterials * 2; // 1 index per material
-            _modelGroupVertexRanges = ByteBuffer.allocateDirect(numFloatsToRead * (Integer.SIZE / Byte.SIZE));
-            _modelGroupVertexRanges.order(ByteOrder.nativeOrder());
+        // Read material specular color, 4 values per material r, g, b, a
+        _modelGroupSpecularColors = SampleAssetReader.readFloatArray(byteBuffer, _nbMaterials * 4);
 
-            for (int i = 0; i < numFloatsToRead; ++i)
-            {
-                _modelGroupVertexRanges.putInt(byteBuffer.getInt());
-            }
-            
-            _modelGroupVertexRanges.rewind();
-            Log.d(LOGTAG, "First material diffuse texture index: " + _modelGroupVertexRanges.getInt(0) + "," + _modelGroupVertexRanges.getInt(1));
+        // Read material diffuse texture indexes, 1 index per material
+        _modelGroupDiffuseIndexes = SampleAssetReader.copyInts(byteBuffer, _nbMaterials);
 
-            // Read magic number again
-            int magicNumberEnd = byteBuffer.getInt();
-            Log.d(LOGTAG, "MagicNumber: " + magicNumber);
+        // Read material dissolve value (transparency), 1 value per material
+        _modelGroupDissolveFactor = SampleAssetReader.readFloatArray(byteBuffer, _nbMaterials);
 
-            if (magicNumberEnd == magicNumber)
-            {
-               // Set default light color to gray and alpha to 1.0f
-                float[] color = {0.5f, 0.5f, 0.5f, 1.0f};
-                setLightColor(color);
-                setTransparency(0.5f);
+        // Read vertex range per group, 2 indexes per material
+        _modelGroupVertexRanges = SampleAssetReader.copyInts(byteBuffer, _nbMaterials * 2);
 
-                initShaders();
+        // Read magic number again
+        int magicNumberEnd = byteBuffer.getInt();
 
-                mIsLoaded = true;
-            }
-            else
-            {
-                unloadModel();
-                Log.d(LOGTAG, "Could not initialize shader");
-            }
-
-            bufInputStream.close();
-            inputStream.close();
-
-            return true;
-        }
-        catch (IOException e)
+        if (magicNumberEnd != magicNumber)
         {
-            e.printStackTrace();
-            Log.e(LOGTAG, "Could not load model " + filename);
-
             return false;
         }
+
+        buildIndices();
+        return true;
     }
 
     public void unloadModel()
@@ -315,6 +234,7 @@ public class SampleApplicationV3DModel extends MeshObject
         mIsLoaded = false;
         mVersion = -1;
         _nbVertices = -1;
+        _nbIndices = 0;
         _nbFaces = -1;
         _nbMaterials = -1;
         _modelVertices = null;
@@ -327,6 +247,8 @@ public class SampleApplicationV3DModel extends MeshObject
         _modelGroupDiffuseIndexes = null;
         _modelGroupDissolveFactor = null;
         _modelGroupVertexRanges = null;
+        _modelIndices = null;
+        mLevelsOfDetail = new MeshObject[] {this};
 
         GLES20.glDeleteBuffers(SHADERS_BUFFER_NUM, shaderBuffers, 0);
     }
@@ -336,6 +258,147 @@ public class SampleApplicationV3DModel extends MeshObject
         return mIsLoaded;
     }
 
+
+    // The file stores three vertices per face. Vertices equal in all their attributes
+    // are merged and the faces become indices, ordered for the post-transform vertex
+    // cache, so that the GPU transforms each vertex about once instead of six times.
+    // The group vertex ranges still refer to the file's order
+    private void buildIndices()
+    {
+        long startTime = System.nanoTime();
+        int numCorners = _nbFaces * 3;
+
+        FloatBuffer positions = asFloatBuffer(_modelVertices);
+        FloatBuffer normals = asFloatBuffer(_modelNormals);
+        FloatBuffer texCoords = asFloatBuffer(_modelTexCoords);
+        FloatBuffer extras = asFloatBuffer(_modelMaterialIndices);
+
+        float[] corners = new float[numCorners * WELD_STRIDE];
+        for (int corner = 0; corner < numCorners; corner++)
+        {
+            int offset = corner * WELD_STRIDE;
+            positions.get(corners, offset, 3);
+            normals.get(corners, offset + 3, 3);
+            texCoords.get(corners, offset + 6, 2);
+            extras.get(corners, offset + 8, 2);
+        }
+
+        int[] cornerVertices = new int[numCorners];
+        float[] vertices = new float[numCorners * WELD_STRIDE];
+        int numVertices = VertexWelder.weld(corners, numCorners, WELD_STRIDE, WELD_STRIDE,
+                cornerVertices, vertices);
+
+        // Faces that lost a corner in the welding cover no pixels
+        int[] indices = new int[numCorners];
+        int numIndices = 0;
+        for (int corner = 0; corner < numCorners; corner += 3)
+        {
+            int a = cornerVertices[corner];
+            int b = cornerVertices[corner + 1];
+            int c = cornerVertices[corner + 2];
+            if (a != b && b != c && c != a)
+            {
+                indices[numIndices++] = a;
+                indices[numIndices++] = b;
+                indices[numIndices++] = c;
+            }
+        }
+
+        indices = VertexCacheOptimizer.optimize(Arrays.copyOf(indices, numIndices), numVertices);
+        int[] sourceVertices = VertexCacheOptimizer.reorderVertices(indices, numVertices);
+        numVertices = sourceVertices.length;
+
+        ByteBuffer newPositions = SampleAssetReader.allocateNative(numVertices * 3 * (Float.SIZE / Byte.SIZE));
+        ByteBuffer newNormals = SampleAssetReader.allocateNative(numVertices * 3 * (Float.SIZE / Byte.SIZE));
+        ByteBuffer newTexCoords = SampleAssetReader.allocateNative(numVertices * 2 * (Float.SIZE / Byte.SIZE));
+        ByteBuffer newExtras = SampleAssetReader.allocateNative(numVertices * 2 * (Float.SIZE / Byte.SIZE));
+        FloatBuffer positionFloats = newPositions.asFloatBuffer();
+        FloatBuffer normalFloats = newNormals.asFloatBuffer();
+        FloatBuffer texCoordFloats = newTexCoords.asFloatBuffer();
+        FloatBuffer extraFloats = newExtras.asFloatBuffer();
+
+        for (int sourceVertex : sourceVertices)
+        {
+            int offset = sourceVertex * WELD_STRIDE;
+            positionFloats.put(vertices, offset, 3);
+            normalFloats.put(vertices, offset + 3, 3);
+            texCoordFloats.put(vertices, offset + 6, 2);
+            extraFloats.put(vertices, offset + 8, 2);
+        }
+
+        int bytesBefore = numCorners * WELD_STRIDE * (Float.SIZE / Byte.SIZE);
+
+        _modelVertices = newPositions;
+        _modelNormals = newNormals;
+        _modelTexCoords = newTexCoords;
+        _modelMaterialIndices = newExtras;
+        _nbVertices = numVertices;
+        _nbIndices = indices.length;
+        mIndexType = getIndexTypeFor(numVertices);
+        _modelIndices = createIndexBuffer(indices, mIndexType);
+
+        int bytesAfter = numVertices * WELD_STRIDE * (Float.SIZE / Byte.SIZE) + _modelIndices.capacity();
+        Log.d(LOGTAG, "Indexed " + numCorners + " vertices into " + numVertices + " in "
+                + (System.nanoTime() - startTime) / 1000000 + " ms, " + bytesBefore + " -> "
+                + bytesAfter + " bytes, ACMR 3.0 -> " + VertexCacheOptimizer.computeAcmr(
+                        indices, numVertices, VertexCacheOptimizer.DEFAULT_FIFO_SIZE));
+    }
+
+
+    // Builds simplified copies of the loaded model for getLevelOfDetail(). This takes
+    // some time for large models, call it on the loading thread after loadModel()
+    public void generateLevelsOfDetail()
+    {
+        if (!mIsLoaded)
+        {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        MeshSimplifier simplifier = new MeshSimplifier(this);
+        float radius = getBounds().getRadius();
+        int fullTriangles = simplifier.getNumTriangles();
+
+        List<MeshObject> levels = new ArrayList<>();
+        levels.add(this);
+        int previousTriangles = fullTriangles;
+
+        for (int level = 0; level < LOD_TRIANGLE_RATIOS.length; level++)
+        {
+            int triangles = simplifier.simplify((int) (fullTriangles * LOD_TRIANGLE_RATIOS[level]),
+                    radius * LOD_MAX_ERRORS[level]);
+
+            if (triangles > previousTriangles * (1.0f - LOD_MIN_REDUCTION))
+            {
+                continue;
+            }
+
+            levels.add(simplifier.toMesh());
+            previousTriangles = triangles;
+
+            Log.d(LOGTAG, "Level of detail " + (levels.size() - 1) + ": " + triangles + " of "
+                    + fullTriangles + " triangles, error " + simplifier.getMaxError());
+        }
+
+        mLevelsOfDetail = levels.toArray(new MeshObject[levels.size()]);
+
+        Log.d(LOGTAG, "Levels of detail built in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+    }
+
+
+    public int getNumLevelsOfDetail()
+    {
+        return mLevelsOfDetail.length;
+    }
+
+
+    // Level 0 is the model itself, levels past the last one return the last one
+    public MeshObject getLevelOfDetail(int level)
+    {
+        MeshObject[] levels = mLevelsOfDetail;
+        return levels[Math.max(0, Math.min(level, levels.length - 1))];
+    }
+
     public void initShaders()
     {
         Log.d(LOGTAG, "initShaders");
@@ -348,10 +411,13 @@ public class SampleApplicationV3DModel extends MeshObject
         GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, shaderBuffers[OBJ_MTL_EXTRA_ARRAY]);
         GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, _nbVertices * 2 * (Float.SIZE / Byte.SIZE), _modelMaterialIndices, GLES20.GL_STATIC_DRAW);
         GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, shaderBuffers[OBJ_AMBIENT_ARRAY]);
-        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, _nbGroups * (Float.SIZE / Byte.SIZE), _modelGroupAmbientColors, GLES20.GL_STATIC_DRAW);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, _nbGroups * (Float.SIZE / Byte.SIZE), FloatBuffer.wrap(_modelGroupAmbientColors), GLES20.GL_STATIC_DRAW);
         GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, shaderBuffers[OBJ_DIFFUSE_ARRAY]);
-        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, _nbGroups * (Float.SIZE / Byte.SIZE), _modelGroupDiffuseColors, GLES20.GL_STATIC_DRAW);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, _nbGroups * (Float.SIZE / Byte.SIZE), FloatBuffer.wrap(_modelGroupDiffuseColors), GLES20.GL_STATIC_DRAW);
         GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, shaderBuffers[INDEX_ARRAY]);
+        GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, _modelIndices.capacity(), _modelIndices, GLES20.GL_STATIC_DRAW);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
 
 
         // objmtl program
@@ -363,8 +429,8 @@ public class SampleApplicationV3DModel extends MeshObject
 
             SampleUtils.checkGLError("v3d GLInitRendering #0");
 
-            objMtlVertexHandle = GLES20.glGetAttribLocation(objMtlProgramID, "a_vertexPosition");
-            objMtlNormalHandle = GLES20.glGetAttribLocation(objMtlProgramID, "a_vertexNormal");
+            objMtlVertexHandle = SampleUtils.getAttribLocation(objMtlProgramID, "a_vertexPosition");
+            objMtlNormalHandle = SampleUtils.getAttribLocation(objMtlProgramID, "a_vertexNormal");
         }
         else
         {
@@ -374,36 +440,36 @@ public class SampleApplicationV3DModel extends MeshObject
 
             SampleUtils.checkGLError("v3d GLInitRendering #0");
 
-            objMtlVertexHandle = GLES20.glGetAttribLocation(objMtlProgramID, "a_position");
-            objMtlNormalHandle = GLES20.glGetAttribLocation(objMtlProgramID, "a_normal");
+            objMtlVertexHandle = SampleUtils.getAttribLocation(objMtlProgramID, "a_position");
+            objMtlNormalHandle = SampleUtils.getAttribLocation(objMtlProgramID, "a_normal");
 
         }
 
-        objMtlExtra = GLES20.glGetAttribLocation(objMtlProgramID, "a_vertexExtra");
+        objMtlExtra = SampleUtils.getAttribLocation(objMtlProgramID, "a_vertexExtra");
 
         Log.d(LOGTAG, ">GL> objMtlVertexHandle= " + objMtlVertexHandle);
         Log.d(LOGTAG, ">GL> objMtlExtra= " + objMtlExtra);
 
-        objMtlMvpMatrixHandle = GLES20.glGetUniformLocation(objMtlProgramID,
+        objMtlMvpMatrixHandle = SampleUtils.getUniformLocation(objMtlProgramID,
                 "u_mvpMatrix");
-        objMtlMvMatrixHandle = GLES20.glGetUniformLocation(objMtlProgramID, "u_mvMatrix");
-        objMtlNormalMatrixHandle = GLES20.glGetUniformLocation(objMtlProgramID,
+        objMtlMvMatrixHandle = SampleUtils.getUniformLocation(objMtlProgramID, "u_mvMatrix");
+        objMtlNormalMatrixHandle = SampleUtils.getUniformLocation(objMtlProgramID,
                 "u_normalMatrix");
 
-        objMtlLightPosHandle = GLES20.glGetUniformLocation(objMtlProgramID, "u_lightPos");
-        objMtlLightColorHandle = GLES20.glGetUniformLocation(objMtlProgramID,
+        objMtlLightPosHandle = SampleUtils.getUniformLocation(objMtlProgramID, "u_lightPos");
+        objMtlLightColorHandle = SampleUtils.getUniformLocation(objMtlProgramID,
                 "u_lightColor");
-        objMtlColorCorrectionHandle = GLES20.glGetUniformLocation(objMtlProgramID, "u_colorCorrection");
-        objMtlIntensityCorrectionHandle = GLES20.glGetUniformLocation(objMtlProgramID, "u_intensityCorrection");
-        objTransparencyHandle = GLES20.glGetUniformLocation(objMtlProgramID, "u_transparency");
+        objMtlColorCorrectionHandle = SampleUtils.getUniformLocation(objMtlProgramID, "u_colorCorrection");
+        objMtlIntensityCorrectionHandle = SampleUtils.getUniformLocation(objMtlProgramID, "u_intensityCorrection");
+        objTransparencyHandle = SampleUtils.getUniformLocation(objMtlProgramID, "u_transparency");
 
-        objMtlGroupAmbientColorsHandle = GLES20.glGetUniformLocation(objMtlProgramID,
+        objMtlGroupAmbientColorsHandle = SampleUtils.getUniformLocation(objMtlProgramID,
                 "u_groupAmbientColors");
-        objMtlGroupDiffuseColorsHandle = GLES20.glGetUniformLocation(objMtlProgramID,
+        objMtlGroupDiffuseColorsHandle = SampleUtils.getUniformLocation(objMtlProgramID,
                 "u_groupDiffuseColors");
-        objMtlGroupSpecularColorsHandle = GLES20.glGetUniformLocation(objMtlProgramID,
+        objMtlGroupSpecularColorsHandle = SampleUtils.getUniformLocation(objMtlProgramID,
                 "u_groupSpecularColors");
-        objMtlGroupTransparencyHandle = GLES20.glGetUniformLocation(objMtlProgramID,
+        objMtlGroupTransparencyHandle = SampleUtils.getUniformLocation(objMtlProgramID,
                 "u_groupTransparency");
 
         SampleUtils.checkGLError("v3d GLInitRendering #1");
@@ -417,7 +483,7 @@ public class SampleApplicationV3DModel extends MeshObject
             int[] uniformType = new int[1];
             int[] uniformSize = new int[1];
             String name = GLES20.glGetActiveUniform(objMtlProgramID, i, uniformSize, 0, uniformType, 0);
-            int location = GLES20.glGetUniformLocation(objMtlProgramID, name);
+            int location = SampleUtils.getUniformLocation(objMtlProgramID, name);
             Log.d(LOGTAG, "@@ uniform(" + name + "), location= " + location);
         }
 
@@ -426,72 +492,78 @@ public class SampleApplicationV3DModel extends MeshObject
 
     public void setRenderingColorCorrection(Vec4F colorCorrection, float intensityCorrection)
     {
-        mColorCorrection = new Vec4F(colorCorrection);
+        setRenderingColorCorrection(colorCorrection.getData(), intensityCorrection);
+    }
+
+
+    // colorCorrection holds the r, g, b, a factors and is copied
+    public void setRenderingColorCorrection(float[] colorCorrection, float intensityCorrection)
+    {
+        System.arraycopy(colorCorrection, 0, mColorCorrection, 0, 4);
         mIntensityCorrection = intensityCorrection;
     }
 
-    public void render(float[] modelViewMatrix, float[] modelViewProjMatrix)
+    // The uniforms are set through gl, pass the renderer's SampleGLStateCache so that
+    // the ones that did not change since the previous draw are not sent again
+    public void render(SampleGL gl, float[] modelViewMatrix, float[] modelViewProjMatrix)
     {
-        GLES20.glUseProgram(objMtlProgramID);
+        gl.useProgram(objMtlProgramID);
 
         if (mIsLoaded)
         {
-            GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, shaderBuffers[GEOMETRY_ARRAY]);
-            GLES20.glVertexAttribPointer(objMtlVertexHandle, 3, GLES20.GL_FLOAT, false, 0,
+            gl.bindBuffer(GLES20.GL_ARRAY_BUFFER, shaderBuffers[GEOMETRY_ARRAY]);
+            gl.vertexAttribPointer(objMtlVertexHandle, 3, GLES20.GL_FLOAT, false, 0,
                     0);
-            GLES20.glEnableVertexAttribArray(objMtlVertexHandle);
+            gl.enableVertexAttribArray(objMtlVertexHandle);
 
-            GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, shaderBuffers[NORMALS_ARRAY]);
-            GLES20.glVertexAttribPointer(objMtlNormalHandle, 3, GLES20.GL_FLOAT, false, 0,
+            gl.bindBuffer(GLES20.GL_ARRAY_BUFFER, shaderBuffers[NORMALS_ARRAY]);
+            gl.vertexAttribPointer(objMtlNormalHandle, 3, GLES20.GL_FLOAT, false, 0,
                     0);
-            GLES20.glEnableVertexAttribArray(objMtlNormalHandle);
+            gl.enableVertexAttribArray(objMtlNormalHandle);
 
-            GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, shaderBuffers[OBJ_MTL_EXTRA_ARRAY]);
-            GLES20.glVertexAttribPointer(objMtlExtra, 2, GLES20.GL_FLOAT, false, 0,
+            gl.bindBuffer(GLES20.GL_ARRAY_BUFFER, shaderBuffers[OBJ_MTL_EXTRA_ARRAY]);
+            gl.vertexAttribPointer(objMtlExtra, 2, GLES20.GL_FLOAT, false, 0,
                     0);
-            GLES20.glEnableVertexAttribArray(objMtlExtra);
+            gl.enableVertexAttribArray(objMtlExtra);
 
-            GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+            gl.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
 
 
             if (objMtlMvpMatrixHandle >= 0)
             {
-                GLES20.glUniformMatrix4fv(objMtlMvpMatrixHandle, 1, false,
+                gl.uniformMatrix4fv(objMtlMvpMatrixHandle, 1, false,
                         modelViewProjMatrix, 0);
             }
 
-            GLES20.glUniformMatrix4fv(objMtlMvMatrixHandle, 1, false,
+            gl.uniformMatrix4fv(objMtlMvMatrixHandle, 1, false,
                     modelViewMatrix, 0);
 
             // compute normal matrix
-            float[] inverseMatrix = new float[16];
-            Matrix.invertM(inverseMatrix, 0, modelViewMatrix, 0);
-
-            float[] normalMatrix = new float[16];
-            Matrix.transposeM(normalMatrix, 0, inverseMatrix, 0);
-
-            GLES20.glUniformMatrix4fv(objMtlNormalMatrixHandle, 1, false,
-                    normalMatrix, 0);
-
-            GLES20.glUniform4fv(objMtlGroupAmbientColorsHandle, _nbGroups,
-                    _modelGroupAmbientColors.asFloatBuffer());
-            GLES20.glUniform4fv(objMtlGroupDiffuseColorsHandle, _nbGroups,
-                    _modelGroupDiffuseColors.asFloatBuffer());
-
-            GLES20.glUniform4fv(objMtlGroupSpecularColorsHandle, _nbGroups,
-                    _modelGroupSpecularColors.asFloatBuffer());
-            GLES20.glUniform1fv(objMtlGroupTransparencyHandle, _nbGroups,
-                    _modelGroupDissolveFactor.asFloatBuffer());
-
-            GLES20.glUniform4f(objMtlLightPosHandle, 0.2f, -1.0f, 0.5f, -1.0f);
-            GLES20.glUniform4f(objMtlLightColorHandle, _lightColor[0], _lightColor[1], _lightColor[2], _lightColor[3]);
-            GLES20.glUniform1f(objTransparencyHandle, _transparencyValue);
-            GLES20.glUniform4f(objMtlColorCorrectionHandle,
-                    mColorCorrection.getData()[0],
-                    mColorCorrection.getData()[1],
-                    mColorCorrection.getData()[2],
-                    mColorCorrection.getData()[3]);
-            GLES20.glUniform1f(objMtlIntensityCorrectionHandle, mIntensityCorrection);
+            Matrix.invertM(mInverseMatrix, 0, modelViewMatrix, 0);
+            Matrix.transposeM(mNormalMatrix, 0, mInverseMatrix, 0);
+
+            gl.uniformMatrix4fv(objMtlNormalMatrixHandle, 1, false,
+                    mNormalMatrix, 0);
+
+            gl.uniform4fv(objMtlGroupAmbientColorsHandle, _nbGroups,
+                    _modelGroupAmbientColors, 0);
+            gl.uniform4fv(objMtlGroupDiffuseColorsHandle, _nbGroups,
+                    _modelGroupDiffuseColors, 0);
+
+            gl.uniform4fv(objMtlGroupSpecularColorsHandle, _nbGroups,
+                    _modelGroupSpecularColors, 0);
+            gl.uniform1fv(objMtlGroupTransparencyHandle, _nbGroups,
+                    _modelGroupDissolveFactor, 0);
+
+            gl.uniform4f(objMtlLightPosHandle, 0.2f, -1.0f, 0.5f, -1.0f);
+            gl.uniform4f(objMtlLightColorHandle, _lightColor[0], _lightColor[1], _lightColor[2], _lightColor[3]);
+            gl.uniform1f(objTransparencyHandle, _transparencyValue);
+            gl.uniform4f(objMtlColorCorrectionHandle,
+                    mColorCorrection[0],
+                    mColorCorrection[1],
+                    mColorCorrection[2],
+                    mColorCorrection[3]);
+            gl.uniform1f(objMtlIntensityCorrectionHandle, mIntensityCorrection);
 
             boolean enableBlending = false;
             if (_transparencyValue < 1.0f)
@@ -501,20 +573,23 @@ public class SampleApplicationV3DModel extends MeshObject
 
             if (enableBlending)
             {
-                GLES20.glEnable(GLES20.GL_BLEND);
-                GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+                gl.enable(GLES20.GL_BLEND);
+                gl.blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
             }
 
-            GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, _nbVertices);
+            // Models with more than 65536 vertices need GL_OES_element_index_uint
+            gl.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, shaderBuffers[INDEX_ARRAY]);
+            gl.drawElements(GLES20.GL_TRIANGLES, _nbIndices, mIndexType, 0);
+            gl.bindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, 0);
 
             if (enableBlending)
             {
-                GLES20.glDisable(GLES20.GL_BLEND);
+                gl.disable(GLES20.GL_BLEND);
             }
 
-            GLES20.glDisableVertexAttribArray(objMtlVertexHandle);
-            GLES20.glDisableVertexAttribArray(objMtlNormalHandle);
-            GLES20.glDisableVertexAttribArray(objMtlExtra);
+            gl.disableVertexAttribArray(objMtlVertexHandle);
+            gl.disableVertexAttribArray(objMtlNormalHandle);
+            gl.disableVertexAttribArray(objMtlExtra);
         }
         else
         {
@@ -555,6 +630,10 @@ public class SampleApplicationV3DModel extends MeshObject
                 break;
             case BUFFER_TYPE_NORMALS:
                 result = _modelNormals;
+                break;
+            case BUFFER_TYPE_INDICES:
+                result = _modelIndices;
+                break;
             default:
                 break;
         }
@@ -570,7 +649,13 @@ public class SampleApplicationV3DModel extends MeshObject
     @Override
     public int getNumObjectIndex()
     {
-        return 0;
+        return _nbIndices;
+    }
+
+    @Override
+    public int getIndexType()
+    {
+        return mIndexType;
     }
 
 }
@@ -0,0 +1,427 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+/**
+ * Support class for the Vuforia sample applications
+ * Allocation-free counterpart of SampleMath working on float arrays
+ *
+ * Every function writes its result into a caller-supplied array at a given
+ * offset, and reads its inputs from arrays at given offsets. Nothing is
+ * allocated and no state is shared between calls, so the functions can be
+ * used from several threads at once as long as the arrays are not shared.
+ * Outputs may alias inputs.
+ *
+ * Matrices are 4x4, column-major, as used by OpenGL and android.opengl.Matrix
+ */
+public final class SampleArrayMath
+{
+    private static final float PARALLEL_EPSILON = 0.00001f;
+
+
+    private SampleArrayMath()
+    {
+    }
+
+
+    public static void Vec3FAdd(float[] out, int outOffset,
+                                float[] v1, int v1Offset, float[] v2, int v2Offset)
+    {
+        out[outOffset] = v1[v1Offset] + v2[v2Offset];
+        out[outOffset + 1] = v1[v1Offset + 1] + v2[v2Offset + 1];
+        out[outOffset + 2] = v1[v1Offset + 2] + v2[v2Offset + 2];
+    }
+
+
+    public static void Vec3FSub(float[] out, int outOffset,
+                                float[] v1, int v1Offset, float[] v2, int v2Offset)
+    {
+        out[outOffset] = v1[v1Offset] - v2[v2Offset];
+        out[outOffset + 1] = v1[v1Offset + 1] - v2[v2Offset + 1];
+        out[outOffset + 2] = v1[v1Offset + 2] - v2[v2Offset + 2];
+    }
+
+
+    public static void Vec3FScale(float[] out, int outOffset, float[] v, int vOffset, float s)
+    {
+        out[outOffset] = v[vOffset] * s;
+        out[outOffset + 1] = v[vOffset + 1] * s;
+        out[outOffset + 2] = v[vOffset + 2] * s;
+    }
+
+
+    public static float Vec3FDot(float[] v1, int v1Offset, float[] v2, int v2Offset)
+    {
+        return v1[v1Offset] * v2[v2Offset]
+                + v1[v1Offset + 1] * v2[v2Offset + 1]
+                + v1[v1Offset + 2] * v2[v2Offset + 2];
+    }
+
+
+    public static void Vec3FCross(float[] out, int outOffset,
+                                  float[] v1, int v1Offset, float[] v2, int v2Offset)
+    {
+        float x = v1[v1Offset + 1] * v2[v2Offset + 2] - v1[v1Offset + 2] * v2[v2Offset + 1];
+        float y = v1[v1Offset + 2] * v2[v2Offset] - v1[v1Offset] * v2[v2Offset + 2];
+        float z = v1[v1Offset] * v2[v2Offset + 1] - v1[v1Offset + 1] * v2[v2Offset];
+
+        out[outOffset] = x;
+        out[outOffset + 1] = y;
+        out[outOffset + 2] = z;
+    }
+
+
+    public static void Vec3FNormalize(float[] out, int outOffset, float[] v, int vOffset)
+    {
+        float length = (float) Math.sqrt(Vec3FDot(v, vOffset, v, vOffset));
+        if (length != 0.0f)
+        {
+            length = 1.0f / length;
+        }
+
+        Vec3FScale(out, outOffset, v, vOffset, length);
+    }
+
+
+    // Transforms the point (x, y, z, 1) and divides the result by its w
+    public static void Vec3FTransform(float[] out, int outOffset,
+                                      float[] m, int mOffset, float[] v, int vOffset)
+    {
+        float x = v[vOffset];
+        float y = v[vOffset + 1];
+        float z = v[vOffset + 2];
+
+        float w = m[mOffset + 3] * x + m[mOffset + 7] * y + m[mOffset + 11] * z + m[mOffset + 15];
+
+        out[outOffset] = (m[mOffset] * x + m[mOffset + 4] * y + m[mOffset + 8] * z + m[mOffset + 12]) / w;
+        out[outOffset + 1] = (m[mOffset + 1] * x + m[mOffset + 5] * y + m[mOffset + 9] * z + m[mOffset + 13]) / w;
+        out[outOffset + 2] = (m[mOffset + 2] * x + m[mOffset + 6] * y + m[mOffset + 10] * z + m[mOffset + 14]) / w;
+    }
+
+
+    // Transforms the direction (x, y, z, 0), ignoring the translation
+    public static void Vec3FTransformNormal(float[] out, int outOffset,
+                                            float[] m, int mOffset, float[] v, int vOffset)
+    {
+        float x = v[vOffset];
+        float y = v[vOffset + 1];
+        float z = v[vOffset + 2];
+
+        out[outOffset] = m[mOffset] * x + m[mOffset + 4] * y + m[mOffset + 8] * z;
+        out[outOffset + 1] = m[mOffset + 1] * x + m[mOffset + 5] * y + m[mOffset + 9] * z;
+        out[outOffset + 2] = m[mOffset + 2] * x + m[mOffset + 6] * y + m[mOffset + 10] * z;
+    }
+
+
+    public static void Vec4FTransform(float[] out, int outOffset,
+                                      float[] m, int mOffset, float[] v, int vOffset)
+    {
+        float x = v[vOffset];
+        float y = v[vOffset + 1];
+        float z = v[vOffset + 2];
+        float w = v[vOffset + 3];
+
+        for (int row = 0; row < 3; row++)
+        {
+            out[outOffset + row] = m[mOffset + row] * x + m[mOffset + 4 + row] * y
+                    + m[mOffset + 8 + row] * z + m[mOffset + 12 + row] * w;
+        }
+
+        out[outOffset + 3] = m[mOffset + 3] * x + m[mOffset + 7] * y
+                + m[mOffset + 11] * z + m[mOffset + 15] * w;
+    }
+
+
+    public static void Matrix44FIdentity(float[] out, int outOffset)
+    {
+        for (int i = 0; i < 16; i++)
+        {
+            out[outOffset + i] = 0.0f;
+        }
+
+        out[outOffset] = 1.0f;
+        out[outOffset + 5] = 1.0f;
+        out[outOffset + 10] = 1.0f;
+        out[outOffset + 15] = 1.0f;
+    }
+
+
+    public static void Matrix44FTranspose(float[] out, int outOffset, float[] m, int mOffset)
+    {
+        // Swap across the diagonal so that out and m may be the same matrix
+        for (int i = 0; i < 4; i++)
+        {
+            out[outOffset + i * 5] = m[mOffset + i * 5];
+
+            for (int j = i + 1; j < 4; j++)
+            {
+                float upper = m[mOffset + i * 4 + j];
+                float lower = m[mOffset + j * 4 + i];
+                out[outOffset + i * 4 + j] = lower;
+                out[outOffset + j * 4 + i] = upper;
+            }
+        }
+    }
+
+
+    // out = lhs * rhs
+    public static void Matrix44FMultiply(float[] out, int outOffset,
+                                         float[] lhs, int lhsOffset, float[] rhs, int rhsOffset)
+    {
+        float l0 = lhs[lhsOffset], l1 = lhs[lhsOffset + 1], l2 = lhs[lhsOffset + 2], l3 = lhs[lhsOffset + 3];
+        float l4 = lhs[lhsOffset + 4], l5 = lhs[lhsOffset + 5], l6 = lhs[lhsOffset + 6], l7 = lhs[lhsOffset + 7];
+        float l8 = lhs[lhsOffset + 8], l9 = lhs[lhsOffset + 9], l10 = lhs[lhsOffset + 10], l11 = lhs[lhsOffset + 11];
+        float l12 = lhs[lhsOffset + 12], l13 = lhs[lhsOffset + 13], l14 = lhs[lhsOffset + 14], l15 = lhs[lhsOffset + 15];
+
+        // Each column of rhs is read in full before the matching column of out is
+        // written, which keeps the result correct when out aliases rhs
+        for (int column = 0; column < 16; column += 4)
+        {
+            float r0 = rhs[rhsOffset + column];
+            float r1 = rhs[rhsOffset + column + 1];
+            float r2 = rhs[rhsOffset + column + 2];
+            float r3 = rhs[rhsOffset + column + 3];
+
+            out[outOffset + column] = l0 * r0 + l4 * r1 + l8 * r2 + l12 * r3;
+            out[outOffset + column + 1] = l1 * r0 + l5 * r1 + l9 * r2 + l13 * r3;
+            out[outOffset + column + 2] = l2 * r0 + l6 * r1 + l10 * r2 + l14 * r3;
+            out[outOffset + column + 3] = l3 * r0 + l7 * r1 + l11 * r2 + l15 * r3;
+        }
+    }
+
+
+    // m = m * translation(x, y, z), same as android.opengl.Matrix.translateM()
+    public static void Matrix44FTranslate(float[] m, int mOffset, float x, float y, float z)
+    {
+        for (int i = 0; i < 4; i++)
+        {
+            m[mOffset + 12 + i] += m[mOffset + i] * x + m[mOffset + 4 + i] * y + m[mOffset + 8 + i] * z;
+        }
+    }
+
+
+    // m = m * scale(x, y, z), same as android.opengl.Matrix.scaleM()
+    public static void Matrix44FScale(float[] m, int mOffset, float x, float y, float z)
+    {
+        for (int i = 0; i < 4; i++)
+        {
+            m[mOffset + i] *= x;
+            m[mOffset + 4 + i] *= y;
+            m[mOffset + 8 + i] *= z;
+        }
+    }
+
+
+    // m = m * rotation(angle, x, y, z), same as android.opengl.Matrix.rotateM()
+    // but without going through a temporary matrix. The angle is in degrees
+    public static void Matrix44FRotate(float[] m, int mOffset, float angle, float x, float y, float z)
+    {
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        if (length == 0.0f)
+        {
+            return;
+        }
+
+        x /= length;
+        y /= length;
+        z /= length;
+
+        float radians = (float) Math.toRadians(angle);
+        float s = (float) Math.sin(radians);
+        float c = (float) Math.cos(radians);
+        float nc = 1.0f - c;
+
+        // Rotation block, indexed [row][column]
+        float r00 = x * x * nc + c, r01 = x * y * nc - z * s, r02 = z * x * nc + y * s;
+        float r10 = x * y * nc + z * s, r11 = y * y * nc + c, r12 = y * z * nc - x * s;
+        float r20 = z * x * nc - y * s, r21 = y * z * nc + x * s, r22 = z * z * nc + c;
+
+        for (int i = 0; i < 4; i++)
+        {
+            float a0 = m[mOffset + i];
+            float a1 = m[mOffset + 4 + i];
+            float a2 = m[mOffset + 8 + i];
+
+            m[mOffset + i] = a0 * r00 + a1 * r10 + a2 * r20;
+            m[mOffset + 4 + i] = a0 * r01 + a1 * r11 + a2 * r21;
+            m[mOffset + 8 + i] = a0 * r02 + a1 * r12 + a2 * r22;
+        }
+    }
+
+
+    // Converts a row-major 3x4 pose, as returned by Matrix34F.getData(), to a
+    // 4x4 model-view matrix. Same as Tool.convertPose2GLMatrix() without the
+    // intermediate Vuforia objects. out must not overlap pose
+    public static void Matrix44FFromPose(float[] out, int outOffset, float[] pose, int poseOffset)
+    {
+        for (int column = 0; column < 4; column++)
+        {
+            out[outOffset + column * 4] = pose[poseOffset + column];
+            out[outOffset + column * 4 + 1] = pose[poseOffset + 4 + column];
+            out[outOffset + column * 4 + 2] = pose[poseOffset + 8 + column];
+            out[outOffset + column * 4 + 3] = column == 3 ? 1.0f : 0.0f;
+        }
+    }
+
+
+    // General inverse, returns false and leaves out untouched if m is singular
+    public static boolean Matrix44FInverse(float[] out, int outOffset, float[] m, int mOffset)
+    {
+        float m0 = m[mOffset], m1 = m[mOffset + 1], m2 = m[mOffset + 2], m3 = m[mOffset + 3];
+        float m4 = m[mOffset + 4], m5 = m[mOffset + 5], m6 = m[mOffset + 6], m7 = m[mOffset + 7];
+        float m8 = m[mOffset + 8], m9 = m[mOffset + 9], m10 = m[mOffset + 10], m11 = m[mOffset + 11];
+        float m12 = m[mOffset + 12], m13 = m[mOffset + 13], m14 = m[mOffset + 14], m15 = m[mOffset + 15];
+
+        // 2x2 sub-determinants of the two lower and the two upper rows
+        float s0 = m0 * m5 - m4 * m1;
+        float s1 = m0 * m9 - m8 * m1;
+        float s2 = m0 * m13 - m12 * m1;
+        float s3 = m4 * m9 - m8 * m5;
+        float s4 = m4 * m13 - m12 * m5;
+        float s5 = m8 * m13 - m12 * m9;
+
+        float c5 = m10 * m15 - m14 * m11;
+        float c4 = m6 * m15 - m14 * m7;
+        float c3 = m6 * m11 - m10 * m7;
+        float c2 = m2 * m15 - m14 * m3;
+        float c1 = m2 * m11 - m10 * m3;
+        float c0 = m2 * m7 - m6 * m3;
+
+        float det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        if (det == 0.0f)
+        {
+            return false;
+        }
+
+        float invDet = 1.0f / det;
+
+        out[outOffset] = (m5 * c5 - m9 * c4 + m13 * c3) * invDet;
+        out[outOffset + 1] = (-m1 * c5 + m9 * c2 - m13 * c1) * invDet;
+        out[outOffset + 2] = (m1 * c4 - m5 * c2 + m13 * c0) * invDet;
+        out[outOffset + 3] = (-m1 * c3 + m5 * c1 - m9 * c0) * invDet;
+
+        out[outOffset + 4] = (-m4 * c5 + m8 * c4 - m12 * c3) * invDet;
+        out[outOffset + 5] = (m0 * c5 - m8 * c2 + m12 * c1) * invDet;
+        out[outOffset + 6] = (-m0 * c4 + m4 * c2 - m12 * c0) * invDet;
+        out[outOffset + 7] = (m0 * c3 - m4 * c1 + m8 * c0) * invDet;
+
+        out[outOffset + 8] = (m7 * s5 - m11 * s4 + m15 * s3) * invDet;
+        out[outOffset + 9] = (-m3 * s5 + m11 * s2 - m15 * s1) * invDet;
+        out[outOffset + 10] = (m3 * s4 - m7 * s2 + m15 * s0) * invDet;
+        out[outOffset + 11] = (-m3 * s3 + m7 * s1 - m11 * s0) * invDet;
+
+        out[outOffset + 12] = (-m6 * s5 + m10 * s4 - m14 * s3) * invDet;
+        out[outOffset + 13] = (m2 * s5 - m10 * s2 + m14 * s1) * invDet;
+        out[outOffset + 14] = (-m2 * s4 + m6 * s2 - m14 * s0) * invDet;
+        out[outOffset + 15] = (m2 * s3 - m6 * s1 + m10 * s0) * invDet;
+
+        return true;
+    }
+
+
+    // Inverse of a matrix whose last row is (0, 0, 0, 1), such as a pose or a
+    // model-view matrix. Cheaper than Matrix44FInverse()
+    public static boolean Matrix44FInverseAffine(float[] out, int outOffset, float[] m, int mOffset)
+    {
+        float a = m[mOffset], b = m[mOffset + 4], c = m[mOffset + 8];
+        float d = m[mOffset + 1], e = m[mOffset + 5], f = m[mOffset + 9];
+        float g = m[mOffset + 2], h = m[mOffset + 6], i = m[mOffset + 10];
+        float tx = m[mOffset + 12], ty = m[mOffset + 13], tz = m[mOffset + 14];
+
+        // Cofactors of the upper-left 3x3 block
+        float A = e * i - f * h;
+        float B = f * g - d * i;
+        float C = d * h - e * g;
+
+        float det = a * A + b * B + c * C;
+        if (det == 0.0f)
+        {
+            return false;
+        }
+
+        float invDet = 1.0f / det;
+
+        float r00 = A * invDet;
+        float r01 = (c * h - b * i) * invDet;
+        float r02 = (b * f - c * e) * invDet;
+        float r10 = B * invDet;
+        float r11 = (a * i - c * g) * invDet;
+        float r12 = (c * d - a * f) * invDet;
+        float r20 = C * invDet;
+        float r21 = (b * g - a * h) * invDet;
+        float r22 = (a * e - b * d) * invDet;
+
+        out[outOffset] = r00;
+        out[outOffset + 1] = r10;
+        out[outOffset + 2] = r20;
+        out[outOffset + 3] = 0.0f;
+        out[outOffset + 4] = r01;
+        out[outOffset + 5] = r11;
+        out[outOffset + 6] = r21;
+        out[outOffset + 7] = 0.0f;
+        out[outOffset + 8] = r02;
+        out[outOffset + 9] = r12;
+        out[outOffset + 10] = r22;
+        out[outOffset + 11] = 0.0f;
+        out[outOffset + 12] = -(r00 * tx + r01 * ty + r02 * tz);
+        out[outOffset + 13] = -(r10 * tx + r11 * ty + r12 * tz);
+        out[outOffset + 14] = -(r20 * tx + r21 * ty + r22 * tz);
+        out[outOffset + 15] = 1.0f;
+
+        return true;
+    }
+
+
+    // Intersects the line going through lineStart and lineEnd with a plane.
+    // Returns false if the line is parallel to the plane, out is then untouched
+    public static boolean linePlaneIntersection(float[] out, int outOffset,
+                                                float[] lineStart, int lineStartOffset,
+                                                float[] lineEnd, int lineEndOffset,
+                                                float[] pointOnPlane, int pointOnPlaneOffset,
+                                                float[] planeNormal, int planeNormalOffset)
+    {
+        float sx = lineStart[lineStartOffset];
+        float sy = lineStart[lineStartOffset + 1];
+        float sz = lineStart[lineStartOffset + 2];
+
+        float dx = lineEnd[lineEndOffset] - sx;
+        float dy = lineEnd[lineEndOffset + 1] - sy;
+        float dz = lineEnd[lineEndOffset + 2] - sz;
+
+        float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length != 0.0f)
+        {
+            dx /= length;
+            dy /= length;
+            dz /= length;
+        }
+
+        float nx = planeNormal[planeNormalOffset];
+        float ny = planeNormal[planeNormalOffset + 1];
+        float nz = planeNormal[planeNormalOffset + 2];
+
+        float n = nx * (pointOnPlane[pointOnPlaneOffset] - sx)
+                + ny * (pointOnPlane[pointOnPlaneOffset + 1] - sy)
+                + nz * (pointOnPlane[pointOnPlaneOffset + 2] - sz);
+        float d = nx * dx + ny * dy + nz * dz;
+
+        if (Math.abs(d) < PARALLEL_EPSILON)
+        {
+            // Line is parallel to plane
+            return false;
+        }
+
+        float dist = n / d;
+
+        out[outOffset] = sx + dx * dist;
+        out[outOffset + 1] = sy + dy * dist;
+        out[outOffset + 2] = sz + dz * dist;
+
+        return true;
+    }
+}
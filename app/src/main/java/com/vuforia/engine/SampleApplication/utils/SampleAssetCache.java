@@ -0,0 +1,351 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.content.res.Configuration;
+
+import java.nio.Buffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Process-wide cache of the decoded textures and meshes of the samples, so
+ * that moving from one sample to another does not decode the same assets again
+ *
+ * Entries are keyed by asset path, or by any name unique to a generated mesh,
+ * and the least recently used ones are evicted once their total size exceeds
+ * the byte budget. Textures are handed out as duplicates sharing the pixels of
+ * the cached one, each with its own GL texture name. Meshes are shared as is
+ * and must not be modified.
+ *
+ * trimMemory() releases entries according to the ComponentCallbacks2 levels,
+ * registerComponentCallbacks() forwards them from the application.
+ *
+ * All methods are thread-safe. Loading happens outside of the lock, if two
+ * threads miss the same key at once both load it and the first one stored wins
+ */
+public class SampleAssetCache
+{
+    public static final int DEFAULT_MAX_BYTES = 48 * 1024 * 1024;
+
+    private static SampleAssetCache sInstance;
+    private static boolean sCallbacksRegistered = false;
+
+    private final int mMaxBytes;
+
+    // Access ordered so that iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long mTotalBytes = 0;
+    private long mHitCount = 0;
+    private long mMissCount = 0;
+    private long mEvictionCount = 0;
+
+
+    private static final class Entry
+    {
+        final Object mValue;
+        final int mNumBytes;
+
+        Entry(Object value, int numBytes)
+        {
+            mValue = value;
+            mNumBytes = numBytes;
+        }
+    }
+
+
+    public SampleAssetCache(int maxBytes)
+    {
+        if (maxBytes <= 0)
+        {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+
+        mMaxBytes = maxBytes;
+    }
+
+
+    public static synchronized SampleAssetCache getInstance()
+    {
+        if (sInstance == null)
+        {
+            sInstance = new SampleAssetCache(DEFAULT_MAX_BYTES);
+        }
+
+        return sInstance;
+    }
+
+
+    // Forwards the memory pressure notifications of the application to the shared
+    // cache. Only the first call registers, later ones are ignored
+    public static synchronized void registerComponentCallbacks(Context context)
+    {
+        if (sCallbacksRegistered)
+        {
+            return;
+        }
+
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2()
+        {
+            @Override
+            public void onTrimMemory(int level)
+            {
+                getInstance().trimMemory(level);
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig)
+            {
+            }
+
+            @Override
+            public void onLowMemory()
+            {
+                getInstance().trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+            }
+        });
+        sCallbacksRegistered = true;
+    }
+
+
+    // Returns a texture sharing the pixels of the cached one, decoding the asset on a miss.
+    // Returns null if the asset cannot be loaded, as Texture.loadTextureFromApk() does
+    public Texture getTexture(String fileName, AssetManager assets)
+    {
+        Texture texture = get(fileName, Texture.class);
+        if (texture == null)
+        {
+            texture = Texture.loadTextureFromApk(fileName, assets);
+            if (texture == null)
+            {
+                return null;
+            }
+
+            texture = putIfAbsent(fileName, texture, texture.getSizeInBytes());
+        }
+
+        return texture.duplicate();
+    }
+
+
+    // Returns the cached mesh, creating it with loader on a miss
+    public <T extends MeshObject> T getMesh(String key, Callable<T> loader)
+    {
+        // Each key is only ever used with one mesh class
+        MeshObject cached = get(key, MeshObject.class);
+        if (cached != null)
+        {
+            @SuppressWarnings("unchecked")
+            T mesh = (T) cached;
+            return mesh;
+        }
+
+        T mesh;
+        try
+        {
+            mesh = loader.call();
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException("Could not create mesh " + key, e);
+        }
+
+        return putIfAbsent(key, mesh, sizeOf(mesh));
+    }
+
+
+    // Returns null on a miss or if the entry is not of the given type
+    public synchronized <T> T get(String key, Class<T> type)
+    {
+        Entry entry = mEntries.get(key);
+        if (entry != null && type.isInstance(entry.mValue))
+        {
+            mHitCount++;
+            return type.cast(entry.mValue);
+        }
+
+        mMissCount++;
+        return null;
+    }
+
+
+    // Stores value unless the key is already cached, and returns the value kept in the
+    // cache. Values larger than the whole budget are returned without being cached
+    public synchronized <T> T putIfAbsent(String key, T value, int numBytes)
+    {
+        Entry existing = mEntries.get(key);
+        if (existing != null && existing.mValue.getClass() == value.getClass())
+        {
+            @SuppressWarnings("unchecked")
+            T existingValue = (T) existing.mValue;
+            return existingValue;
+        }
+
+        if (numBytes > mMaxBytes)
+        {
+            return value;
+        }
+
+        if (existing != null)
+        {
+            remove(key);
+        }
+
+        mEntries.put(key, new Entry(value, numBytes));
+        mTotalBytes += numBytes;
+        trimToSize(mMaxBytes);
+        return value;
+    }
+
+
+    public synchronized boolean remove(String key)
+    {
+        Entry entry = mEntries.remove(key);
+        if (entry == null)
+        {
+            return false;
+        }
+
+        mTotalBytes -= entry.mNumBytes;
+        return true;
+    }
+
+
+    public synchronized void clear()
+    {
+        mEvictionCount += mEntries.size();
+        mEntries.clear();
+        mTotalBytes = 0;
+    }
+
+
+    // Evicts least recently used entries until the cache holds at most maxBytes
+    public synchronized void trimToSize(long maxBytes)
+    {
+        Iterator<Map.Entry<String, Entry>> iterator = mEntries.entrySet().iterator();
+        while (mTotalBytes > maxBytes && iterator.hasNext())
+        {
+            Entry entry = iterator.next().getValue();
+            iterator.remove();
+            mTotalBytes -= entry.mNumBytes;
+            mEvictionCount++;
+        }
+    }
+
+
+    // Keeps everything while the app is in the foreground and memory is only getting
+    // scarce, halves the cache when the system is running low or the app went to the
+    // background, and empties it when the process is next in line to be killed
+    public void trimMemory(int level)
+    {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL)
+        {
+            clear();
+        }
+        else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+        {
+            trimToSize(mMaxBytes / 2);
+        }
+    }
+
+
+    public synchronized boolean contains(String key)
+    {
+        return mEntries.containsKey(key);
+    }
+
+
+    public synchronized int getEntryCount()
+    {
+        return mEntries.size();
+    }
+
+
+    public synchronized long getTotalBytes()
+    {
+        return mTotalBytes;
+    }
+
+
+    public int getMaxBytes()
+    {
+        return mMaxBytes;
+    }
+
+
+    public synchronized long getHitCount()
+    {
+        return mHitCount;
+    }
+
+
+    public synchronized long getMissCount()
+    {
+        return mMissCount;
+    }
+
+
+    public synchronized long getEvictionCount()
+    {
+        return mEvictionCount;
+    }
+
+
+    public synchronized void resetStats()
+    {
+        mHitCount = 0;
+        mMissCount = 0;
+        mEvictionCount = 0;
+    }
+
+
+    static int sizeOf(MeshObject mesh)
+    {
+        return sizeOf(mesh.getVertices()) + sizeOf(mesh.getTexCoords())
+                + sizeOf(mesh.getNormals()) + sizeOf(mesh.getIndices());
+    }
+
+
+    private static int sizeOf(Buffer buffer)
+    {
+        if (buffer == null)
+        {
+            return 0;
+        }
+
+        int elementSize = 1;
+        if (buffer instanceof ShortBuffer || buffer instanceof CharBuffer)
+        {
+            elementSize = 2;
+        }
+        else if (buffer instanceof FloatBuffer || buffer instanceof IntBuffer)
+        {
+            elementSize = 4;
+        }
+        else if (buffer instanceof DoubleBuffer || buffer instanceof LongBuffer)
+        {
+            elementSize = 8;
+        }
+
+        return buffer.capacity() * elementSize;
+    }
+}
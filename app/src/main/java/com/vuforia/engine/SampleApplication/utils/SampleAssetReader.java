@@ -0,0 +1,196 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Support class for the Vuforia sample applications
+ * Reads binary assets with as few copies as possible
+ *
+ * Assets stored uncompressed in the APK (see aaptOptions in build.gradle) are
+ * memory-mapped, any other asset is streamed in bulk into a single direct buffer.
+ * The sections of the returned buffer can then be copied in one call into
+ * native-order buffers ready to be handed to OpenGL
+ */
+public class SampleAssetReader
+{
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+
+    private static AssetManager sApplicationAssets;
+
+
+    // Set by SampleActivityBase, for assets loaded by code that has no Context, such
+    // as the meshes that CompiledMesh loads on first use
+    public static synchronized void setApplicationAssets(AssetManager assetManager)
+    {
+        sApplicationAssets = assetManager;
+    }
+
+
+    public static synchronized AssetManager getApplicationAssets()
+    {
+        if (sApplicationAssets == null)
+        {
+            throw new IllegalStateException("setApplicationAssets() has not been called");
+        }
+
+        return sApplicationAssets;
+    }
+
+
+    // Returns the content of the asset, positioned at 0 and in big endian order
+    public static ByteBuffer readAsset(AssetManager assetManager, String filename)
+        throws IOException
+    {
+        ByteBuffer mapped = mapAsset(assetManager, filename);
+        if (mapped != null)
+        {
+            return mapped;
+        }
+
+        InputStream inputStream = assetManager.open(filename, AssetManager.ACCESS_STREAMING);
+        try
+        {
+            return readStream(inputStream);
+        }
+        finally
+        {
+            inputStream.close();
+        }
+    }
+
+
+    // Returns null if the asset is compressed and cannot be mapped
+    private static ByteBuffer mapAsset(AssetManager assetManager, String filename)
+        throws IOException
+    {
+        AssetFileDescriptor fd;
+        try
+        {
+            fd = assetManager.openFd(filename);
+        }
+        catch (IOException e)
+        {
+            // openFd() fails for assets that are compressed in the APK
+            return null;
+        }
+
+        FileInputStream fileStream = fd.createInputStream();
+        try
+        {
+            return mapRegion(fileStream, fd.getStartOffset(), fd.getLength());
+        }
+        finally
+        {
+            fileStream.close();
+            fd.close();
+        }
+    }
+
+
+    // Maps length bytes of the file starting at offset, e.g. an asset inside the APK.
+    // The mapping stays valid after the stream is closed
+    static ByteBuffer mapRegion(FileInputStream fileStream, long offset, long length)
+        throws IOException
+    {
+        return fileStream.getChannel().map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+
+    public static ByteBuffer readStream(InputStream inputStream) throws IOException
+    {
+        byte[] chunk = new byte[READ_CHUNK_SIZE];
+        ByteBuffer result = ByteBuffer.allocateDirect(Math.max(inputStream.available(), READ_CHUNK_SIZE));
+
+        int numRead;
+        while ((numRead = inputStream.read(chunk)) != -1)
+        {
+            if (result.remaining() < numRead)
+            {
+                ByteBuffer larger = ByteBuffer.allocateDirect(
+                        Math.max(result.capacity() * 2, result.position() + numRead));
+                result.flip();
+                larger.put(result);
+                result = larger;
+            }
+
+            result.put(chunk, 0, numRead);
+        }
+
+        result.flip();
+        return result;
+    }
+
+
+    // Copies numFloats floats starting at the current position of src into a new
+    // native-order direct buffer and advances src past them
+    public static ByteBuffer copyFloats(ByteBuffer src, int numFloats)
+    {
+        ByteBuffer dst = allocateNative(numFloats * (Float.SIZE / Byte.SIZE));
+        dst.asFloatBuffer().put(sectionOf(src, numFloats * (Float.SIZE / Byte.SIZE)).asFloatBuffer());
+        return dst;
+    }
+
+
+    // Same as copyFloats() into a Java array, for values sent as uniforms
+    public static float[] readFloatArray(ByteBuffer src, int numFloats)
+    {
+        float[] values = new float[numFloats];
+        sectionOf(src, numFloats * (Float.SIZE / Byte.SIZE)).asFloatBuffer().get(values);
+        return values;
+    }
+
+
+    // Same as copyFloats() for 32-bit integers
+    public static ByteBuffer copyInts(ByteBuffer src, int numInts)
+    {
+        ByteBuffer dst = allocateNative(numInts * (Integer.SIZE / Byte.SIZE));
+        dst.asIntBuffer().put(sectionOf(src, numInts * (Integer.SIZE / Byte.SIZE)).asIntBuffer());
+        return dst;
+    }
+
+
+    // Same as copyFloats() for 16-bit integers
+    public static ByteBuffer copyShorts(ByteBuffer src, int numShorts)
+    {
+        ByteBuffer dst = allocateNative(numShorts * (Short.SIZE / Byte.SIZE));
+        dst.asShortBuffer().put(sectionOf(src, numShorts * (Short.SIZE / Byte.SIZE)).asShortBuffer());
+        return dst;
+    }
+
+
+    public static ByteBuffer allocateNative(int numBytes)
+    {
+        return ByteBuffer.allocateDirect(numBytes).order(ByteOrder.nativeOrder());
+    }
+
+
+    // Returns a view of the next numBytes bytes of src, keeping its byte order
+    private static ByteBuffer sectionOf(ByteBuffer src, int numBytes)
+    {
+        if (numBytes < 0 || numBytes > src.remaining())
+        {
+            throw new IllegalArgumentException("Section of " + numBytes
+                    + " bytes exceeds the " + src.remaining() + " remaining bytes");
+        }
+
+        ByteBuffer section = src.slice().order(src.order());
+        section.limit(numBytes);
+        src.position(src.position() + numBytes);
+        return section;
+    }
+}
@@ -0,0 +1,114 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * The SampleGL interface is the subset of OpenGL ES 2.0 used by the sample
+ * utilities that manage GL objects on behalf of the renderers
+ *
+ * SampleGLES20 forwards every call to GLES20. Keeping the utilities behind this
+ * interface lets their bookkeeping run without a GL context
+ */
+public interface SampleGL
+{
+    // Buffer objects
+    int genBuffer();
+
+    void deleteBuffer(int buffer);
+
+    void bindBuffer(int target, int buffer);
+
+    void bufferData(int target, int size, Buffer data, int usage);
+
+    // Vertex attributes bound to the current GL_ARRAY_BUFFER
+    void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, int offset);
+
+    void enableVertexAttribArray(int index);
+
+    void disableVertexAttribArray(int index);
+
+    // Draw calls sourcing their data from the bound buffer objects
+    void drawArrays(int mode, int first, int count);
+
+    void drawElements(int mode, int count, int type, int offset);
+
+    // Fixed function state
+    void enable(int cap);
+
+    void disable(int cap);
+
+    void blendFunc(int sfactor, int dfactor);
+
+    void blendEquation(int mode);
+
+    void cullFace(int mode);
+
+    void activeTexture(int texture);
+
+    void bindTexture(int target, int texture);
+
+    // Uniforms of the program in use
+    void useProgram(int program);
+
+    void uniform1i(int location, int x);
+
+    void uniform1f(int location, float x);
+
+    void uniform3f(int location, float x, float y, float z);
+
+    void uniform4f(int location, float x, float y, float z, float w);
+
+    void uniform1fv(int location, int count, float[] v, int offset);
+
+    void uniform4fv(int location, int count, float[] v, int offset);
+
+    void uniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset);
+
+    // Shaders and programs
+    int createShader(int type);
+
+    void shaderSource(int shader, String source);
+
+    void compileShader(int shader);
+
+    int getShaderParameter(int shader, int pname);
+
+    String getShaderInfoLog(int shader);
+
+    void deleteShader(int shader);
+
+    int createProgram();
+
+    void attachShader(int program, int shader);
+
+    void linkProgram(int program);
+
+    int getProgramParameter(int program, int pname);
+
+    String getProgramInfoLog(int program);
+
+    void deleteProgram(int program);
+
+    int getAttribLocation(int program, String name);
+
+    int getUniformLocation(int program, String name);
+
+    // GL_VENDOR, GL_RENDERER, GL_VERSION...
+    String getString(int name);
+
+    // Program binaries, only available on OpenGL ES 3.0 contexts with at least one
+    // binary format. getProgramBinary() stores the format of the binary in format[0]
+    boolean isProgramBinarySupported();
+
+    ByteBuffer getProgramBinary(int program, int[] format);
+
+    void programBinary(int program, int format, ByteBuffer binary);
+}
@@ -0,0 +1,378 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+import android.opengl.GLES30;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * SampleGL implementation forwarding to the OpenGL ES 2.0 context of the
+ * calling thread, it must only be used from the GL thread
+ */
+public class SampleGLES20 implements SampleGL
+{
+    private static final SampleGLES20 sInstance = new SampleGLES20();
+
+    private final int[] mNames = new int[1];
+    private final int[] mParams = new int[1];
+
+    // Set while drawing into a target composited over the video background
+    private boolean mIsAlphaAccumulated = false;
+
+
+    public static SampleGLES20 getInstance()
+    {
+        return sInstance;
+    }
+
+
+    private SampleGLES20()
+    {
+    }
+
+
+    @Override
+    public int genBuffer()
+    {
+        GLES20.glGenBuffers(1, mNames, 0);
+        return mNames[0];
+    }
+
+
+    @Override
+    public void deleteBuffer(int buffer)
+    {
+        mNames[0] = buffer;
+        GLES20.glDeleteBuffers(1, mNames, 0);
+    }
+
+
+    @Override
+    public void bindBuffer(int target, int buffer)
+    {
+        GLES20.glBindBuffer(target, buffer);
+    }
+
+
+    @Override
+    public void bufferData(int target, int size, Buffer data, int usage)
+    {
+        GLES20.glBufferData(target, size, data, usage);
+    }
+
+
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, int offset)
+    {
+        GLES20.glVertexAttribPointer(index, size, type, normalized, stride, offset);
+    }
+
+
+    @Override
+    public void enableVertexAttribArray(int index)
+    {
+        GLES20.glEnableVertexAttribArray(index);
+    }
+
+
+    @Override
+    public void disableVertexAttribArray(int index)
+    {
+        GLES20.glDisableVertexAttribArray(index);
+    }
+
+
+    @Override
+    public void drawArrays(int mode, int first, int count)
+    {
+        GLES20.glDrawArrays(mode, first, count);
+    }
+
+
+    @Override
+    public void drawElements(int mode, int count, int type, int offset)
+    {
+        GLES20.glDrawElements(mode, count, type, offset);
+    }
+
+
+    @Override
+    public void enable(int cap)
+    {
+        GLES20.glEnable(cap);
+    }
+
+
+    @Override
+    public void disable(int cap)
+    {
+        GLES20.glDisable(cap);
+    }
+
+
+    // While set, blendFunc() and blendEquation() keep the alpha of the destination as the
+    // coverage of everything drawn, which the composite needs, instead of blending it like
+    // the colors. The color channels then hold colors premultiplied by that coverage.
+    // Renderers drawing after SampleAppRenderer.renderVideoBackground() must therefore set
+    // the blend state through this class rather than GLES20
+    public void setAlphaAccumulated(boolean accumulated)
+    {
+        mIsAlphaAccumulated = accumulated;
+    }
+
+
+    @Override
+    public void blendFunc(int sfactor, int dfactor)
+    {
+        if (mIsAlphaAccumulated)
+        {
+            GLES20.glBlendFuncSeparate(sfactor, dfactor, GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        }
+        else
+        {
+            GLES20.glBlendFunc(sfactor, dfactor);
+        }
+    }
+
+
+    @Override
+    public void blendEquation(int mode)
+    {
+        if (mIsAlphaAccumulated)
+        {
+            GLES20.glBlendEquationSeparate(mode, GLES20.GL_FUNC_ADD);
+        }
+        else
+        {
+            GLES20.glBlendEquation(mode);
+        }
+    }
+
+
+    @Override
+    public void cullFace(int mode)
+    {
+        GLES20.glCullFace(mode);
+    }
+
+
+    @Override
+    public void activeTexture(int texture)
+    {
+        GLES20.glActiveTexture(texture);
+    }
+
+
+    @Override
+    public void bindTexture(int target, int texture)
+    {
+        GLES20.glBindTexture(target, texture);
+    }
+
+
+    @Override
+    public void useProgram(int program)
+    {
+        GLES20.glUseProgram(program);
+    }
+
+
+    @Override
+    public void uniform1i(int location, int x)
+    {
+        GLES20.glUniform1i(location, x);
+    }
+
+
+    @Override
+    public void uniform1f(int location, float x)
+    {
+        GLES20.glUniform1f(location, x);
+    }
+
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z)
+    {
+        GLES20.glUniform3f(location, x, y, z);
+    }
+
+
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w)
+    {
+        GLES20.glUniform4f(location, x, y, z, w);
+    }
+
+
+    @Override
+    public void uniform1fv(int location, int count, float[] v, int offset)
+    {
+        GLES20.glUniform1fv(location, count, v, offset);
+    }
+
+
+    @Override
+    public void uniform4fv(int location, int count, float[] v, int offset)
+    {
+        GLES20.glUniform4fv(location, count, v, offset);
+    }
+
+
+    @Override
+    public void uniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset)
+    {
+        GLES20.glUniformMatrix4fv(location, count, transpose, value, offset);
+    }
+
+
+    @Override
+    public int createShader(int type)
+    {
+        return GLES20.glCreateShader(type);
+    }
+
+
+    @Override
+    public void shaderSource(int shader, String source)
+    {
+        GLES20.glShaderSource(shader, source);
+    }
+
+
+    @Override
+    public void compileShader(int shader)
+    {
+        GLES20.glCompileShader(shader);
+    }
+
+
+    @Override
+    public int getShaderParameter(int shader, int pname)
+    {
+        GLES20.glGetShaderiv(shader, pname, mParams, 0);
+        return mParams[0];
+    }
+
+
+    @Override
+    public String getShaderInfoLog(int shader)
+    {
+        return GLES20.glGetShaderInfoLog(shader);
+    }
+
+
+    @Override
+    public void deleteShader(int shader)
+    {
+        GLES20.glDeleteShader(shader);
+    }
+
+
+    @Override
+    public int createProgram()
+    {
+        return GLES20.glCreateProgram();
+    }
+
+
+    @Override
+    public void attachShader(int program, int shader)
+    {
+        GLES20.glAttachShader(program, shader);
+    }
+
+
+    @Override
+    public void linkProgram(int program)
+    {
+        GLES20.glLinkProgram(program);
+    }
+
+
+    @Override
+    public int getProgramParameter(int program, int pname)
+    {
+        GLES20.glGetProgramiv(program, pname, mParams, 0);
+        return mParams[0];
+    }
+
+
+    @Override
+    public String getProgramInfoLog(int program)
+    {
+        return GLES20.glGetProgramInfoLog(program);
+    }
+
+
+    @Override
+    public void deleteProgram(int program)
+    {
+        GLES20.glDeleteProgram(program);
+    }
+
+
+    @Override
+    public int getAttribLocation(int program, String name)
+    {
+        return GLES20.glGetAttribLocation(program, name);
+    }
+
+
+    @Override
+    public int getUniformLocation(int program, String name)
+    {
+        return GLES20.glGetUniformLocation(program, name);
+    }
+
+
+    @Override
+    public String getString(int name)
+    {
+        return GLES20.glGetString(name);
+    }
+
+
+    // The GLES30 entry points may only be called on an OpenGL ES 3 context, even if
+    // the application asked for a 2.0 one
+    @Override
+    public boolean isProgramBinarySupported()
+    {
+        String version = GLES20.glGetString(GLES20.GL_VERSION);
+        if (version == null || !version.startsWith("OpenGL ES 3"))
+        {
+            return false;
+        }
+
+        GLES20.glGetIntegerv(GLES30.GL_NUM_PROGRAM_BINARY_FORMATS, mParams, 0);
+        return mParams[0] > 0;
+    }
+
+
+    @Override
+    public ByteBuffer getProgramBinary(int program, int[] format)
+    {
+        GLES20.glGetProgramiv(program, GLES30.GL_PROGRAM_BINARY_LENGTH, mParams, 0);
+        ByteBuffer binary = ByteBuffer.allocateDirect(mParams[0]).order(ByteOrder.nativeOrder());
+
+        GLES30.glGetProgramBinary(program, mParams[0], mParams, 0, format, 0, binary);
+        binary.limit(mParams[0]);
+        return binary;
+    }
+
+
+    @Override
+    public void programBinary(int program, int format, ByteBuffer binary)
+    {
+        GLES30.glProgramBinary(program, format, binary, binary.remaining());
+    }
+}
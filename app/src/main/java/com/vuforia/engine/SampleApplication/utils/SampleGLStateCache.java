@@ -0,0 +1,789 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SampleGL decorator that shadows the GL state and drops the calls that would
+ * not change it
+ *
+ * The cache tracks the program in use, the common enable bits, the blend
+ * function and equation, the cull face, the texture bound to GL_TEXTURE_2D on each unit,
+ * the array and element array buffers, and the last value of each uniform of
+ * every program used through it. Calls setting the state to the value it
+ * already holds are elided, everything else is forwarded to the wrapped
+ * SampleGL.
+ *
+ * The shadow is only exact as long as nobody changes the state behind the
+ * cache's back. Code that mixes direct GLES20 calls with the cache calls
+ * invalidate() before using the cache again, which forgets everything,
+ * uniform values included: programs are shared through ShaderProgramRegistry,
+ * so their uniforms may have been set directly or through the cache of another
+ * renderer. Uniform arrays are expected to be set as a whole from their first
+ * element. reset() is called once the GL context was (re)created.
+ *
+ * This class must only be used from the GL thread
+ */
+public class SampleGLStateCache implements SampleGL
+{
+    // Value of the shadowed state when the cache does not know what the context holds
+    private static final int UNKNOWN = -1;
+
+    private static final byte CAP_UNKNOWN = 0;
+    private static final byte CAP_ENABLED = 1;
+    private static final byte CAP_DISABLED = 2;
+
+    // Capabilities whose enable bit is shadowed, the others are always forwarded
+    private static final int[] SHADOWED_CAPS = {
+            GLES20.GL_BLEND,
+            GLES20.GL_CULL_FACE,
+            GLES20.GL_DEPTH_TEST,
+            GLES20.GL_POLYGON_OFFSET_FILL,
+            GLES20.GL_SCISSOR_TEST,
+            GLES20.GL_STENCIL_TEST };
+
+    private static final int MAX_SHADOWED_TEXTURE_UNITS = 8;
+
+    // Uniforms at higher locations are always forwarded
+    private static final int MAX_SHADOWED_LOCATIONS = 256;
+
+    private static final int TYPE_1I = 0;
+    private static final int TYPE_1F = 1;
+    private static final int TYPE_3F = 2;
+    private static final int TYPE_4F = 3;
+    private static final int TYPE_1FV = 4;
+    private static final int TYPE_4FV = 5;
+    private static final int TYPE_MATRIX4FV = 6;
+
+    private final SampleGL mGL;
+
+    private final byte[] mCaps = new byte[SHADOWED_CAPS.length];
+    private final int[] mBoundTextures = new int[MAX_SHADOWED_TEXTURE_UNITS];
+    private int mProgram;
+    private int mBlendSrc;
+    private int mBlendDst;
+    private int mBlendEquation;
+    private int mCullFace;
+    private int mActiveTextureUnit;
+    private int mArrayBuffer;
+    private int mElementArrayBuffer;
+
+    // Few programs are alive at once, a list is enough to find their uniforms
+    private final List<ProgramUniforms> mPrograms = new ArrayList<>();
+    private ProgramUniforms mCurrentUniforms;
+
+    // Values of the uniform call being filtered. Floats are compared bit for bit,
+    // so that a NaN is not sent again on every call
+    private int[] mBits = new int[16];
+
+    private long mIssuedCount = 0;
+    private long mElidedCount = 0;
+
+
+    // Last values set for the uniforms of one program, indexed by location
+    private static final class ProgramUniforms
+    {
+        final int mProgram;
+        UniformValue[] mValues = new UniformValue[16];
+
+        ProgramUniforms(int program)
+        {
+            mProgram = program;
+        }
+    }
+
+
+    private static final class UniformValue
+    {
+        int mType;
+        int mCount;
+        int mLength;
+        int[] mBits = new int[4];
+
+
+        boolean matches(int type, int count, int[] bits, int length)
+        {
+            if (mType != type || mCount != count || mLength != length)
+            {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++)
+            {
+                if (mBits[i] != bits[i])
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+
+        void set(int type, int count, int[] bits, int length)
+        {
+            mType = type;
+            mCount = count;
+            mLength = length;
+            if (mBits.length < length)
+            {
+                mBits = new int[length];
+            }
+
+            System.arraycopy(bits, 0, mBits, 0, length);
+        }
+    }
+
+
+    public SampleGLStateCache(SampleGL gl)
+    {
+        mGL = gl;
+        reset();
+    }
+
+
+    // Forgets the bindings, enable bits and uniform values, after direct GL calls or
+    // Vuforia rendering
+    public void invalidate()
+    {
+        mPrograms.clear();
+        mProgram = UNKNOWN;
+        mCurrentUniforms = null;
+        Arrays.fill(mCaps, CAP_UNKNOWN);
+        mBlendSrc = UNKNOWN;
+        mBlendDst = UNKNOWN;
+        mBlendEquation = UNKNOWN;
+        mCullFace = UNKNOWN;
+        mActiveTextureUnit = UNKNOWN;
+        Arrays.fill(mBoundTextures, UNKNOWN);
+        mArrayBuffer = UNKNOWN;
+        mElementArrayBuffer = UNKNOWN;
+    }
+
+
+    // Forgets everything when the GL context is (re)created
+    public void reset()
+    {
+        invalidate();
+    }
+
+
+    // Number of state and uniform calls forwarded to the wrapped SampleGL
+    public long getIssuedCount()
+    {
+        return mIssuedCount;
+    }
+
+
+    // Number of state and uniform calls dropped because they changed nothing
+    public long getElidedCount()
+    {
+        return mElidedCount;
+    }
+
+
+    public void resetCounters()
+    {
+        mIssuedCount = 0;
+        mElidedCount = 0;
+    }
+
+
+    @Override
+    public void enable(int cap)
+    {
+        if (setCap(cap, CAP_ENABLED))
+        {
+            mGL.enable(cap);
+        }
+    }
+
+
+    @Override
+    public void disable(int cap)
+    {
+        if (setCap(cap, CAP_DISABLED))
+        {
+            mGL.disable(cap);
+        }
+    }
+
+
+    @Override
+    public void blendFunc(int sfactor, int dfactor)
+    {
+        if (elide(mBlendSrc == sfactor && mBlendDst == dfactor))
+        {
+            return;
+        }
+
+        mBlendSrc = sfactor;
+        mBlendDst = dfactor;
+        mGL.blendFunc(sfactor, dfactor);
+    }
+
+
+    @Override
+    public void blendEquation(int mode)
+    {
+        if (elide(mBlendEquation == mode))
+        {
+            return;
+        }
+
+        mBlendEquation = mode;
+        mGL.blendEquation(mode);
+    }
+
+
+    @Override
+    public void cullFace(int mode)
+    {
+        if (elide(mCullFace == mode))
+        {
+            return;
+        }
+
+        mCullFace = mode;
+        mGL.cullFace(mode);
+    }
+
+
+    @Override
+    public void activeTexture(int texture)
+    {
+        int unit = texture - GLES20.GL_TEXTURE0;
+        if (elide(unit >= 0 && unit == mActiveTextureUnit))
+        {
+            return;
+        }
+
+        mActiveTextureUnit = (unit >= 0 && unit < MAX_SHADOWED_TEXTURE_UNITS) ? unit : UNKNOWN;
+        mGL.activeTexture(texture);
+    }
+
+
+    @Override
+    public void bindTexture(int target, int texture)
+    {
+        if (target != GLES20.GL_TEXTURE_2D)
+        {
+            issue();
+            mGL.bindTexture(target, texture);
+            return;
+        }
+
+        int unit = mActiveTextureUnit;
+        if (elide(unit != UNKNOWN && mBoundTextures[unit] == texture))
+        {
+            return;
+        }
+
+        if (unit != UNKNOWN)
+        {
+            mBoundTextures[unit] = texture;
+        }
+        else
+        {
+            // Whichever unit is active, its binding is no longer known
+            Arrays.fill(mBoundTextures, UNKNOWN);
+        }
+
+        mGL.bindTexture(target, texture);
+    }
+
+
+    @Override
+    public void useProgram(int program)
+    {
+        if (elide(mProgram == program))
+        {
+            return;
+        }
+
+        mProgram = program;
+        mCurrentUniforms = program != 0 ? getUniforms(program, true) : null;
+        mGL.useProgram(program);
+    }
+
+
+    @Override
+    public void uniform1i(int location, int x)
+    {
+        mBits[0] = x;
+        if (!isUniformSet(location, TYPE_1I, 1, 1))
+        {
+            mGL.uniform1i(location, x);
+        }
+    }
+
+
+    @Override
+    public void uniform1f(int location, float x)
+    {
+        mBits[0] = Float.floatToRawIntBits(x);
+        if (!isUniformSet(location, TYPE_1F, 1, 1))
+        {
+            mGL.uniform1f(location, x);
+        }
+    }
+
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z)
+    {
+        mBits[0] = Float.floatToRawIntBits(x);
+        mBits[1] = Float.floatToRawIntBits(y);
+        mBits[2] = Float.floatToRawIntBits(z);
+        if (!isUniformSet(location, TYPE_3F, 1, 3))
+        {
+            mGL.uniform3f(location, x, y, z);
+        }
+    }
+
+
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w)
+    {
+        mBits[0] = Float.floatToRawIntBits(x);
+        mBits[1] = Float.floatToRawIntBits(y);
+        mBits[2] = Float.floatToRawIntBits(z);
+        mBits[3] = Float.floatToRawIntBits(w);
+        if (!isUniformSet(location, TYPE_4F, 1, 4))
+        {
+            mGL.uniform4f(location, x, y, z, w);
+        }
+    }
+
+
+    @Override
+    public void uniform1fv(int location, int count, float[] v, int offset)
+    {
+        if (!isUniformSet(location, TYPE_1FV, count, v, offset, count))
+        {
+            mGL.uniform1fv(location, count, v, offset);
+        }
+    }
+
+
+    @Override
+    public void uniform4fv(int location, int count, float[] v, int offset)
+    {
+        if (!isUniformSet(location, TYPE_4FV, count, v, offset, count * 4))
+        {
+            mGL.uniform4fv(location, count, v, offset);
+        }
+    }
+
+
+    @Override
+    public void uniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset)
+    {
+        // OpenGL ES 2.0 only accepts transpose == false, leave the error to GL
+        if (transpose)
+        {
+            issue();
+            mGL.uniformMatrix4fv(location, count, true, value, offset);
+            return;
+        }
+
+        if (!isUniformSet(location, TYPE_MATRIX4FV, count, value, offset, count * 16))
+        {
+            mGL.uniformMatrix4fv(location, count, false, value, offset);
+        }
+    }
+
+
+    @Override
+    public int genBuffer()
+    {
+        return mGL.genBuffer();
+    }
+
+
+    @Override
+    public void deleteBuffer(int buffer)
+    {
+        // Deleting a bound buffer reverts the binding to 0
+        if (buffer != 0 && mArrayBuffer == buffer)
+        {
+            mArrayBuffer = 0;
+        }
+
+        if (buffer != 0 && mElementArrayBuffer == buffer)
+        {
+            mElementArrayBuffer = 0;
+        }
+
+        mGL.deleteBuffer(buffer);
+    }
+
+
+    @Override
+    public void bindBuffer(int target, int buffer)
+    {
+        if (target == GLES20.GL_ARRAY_BUFFER)
+        {
+            if (elide(mArrayBuffer == buffer))
+            {
+                return;
+            }
+
+            mArrayBuffer = buffer;
+        }
+        else if (target == GLES20.GL_ELEMENT_ARRAY_BUFFER)
+        {
+            if (elide(mElementArrayBuffer == buffer))
+            {
+                return;
+            }
+
+            mElementArrayBuffer = buffer;
+        }
+        else
+        {
+            issue();
+        }
+
+        mGL.bindBuffer(target, buffer);
+    }
+
+
+    @Override
+    public void bufferData(int target, int size, Buffer data, int usage)
+    {
+        mGL.bufferData(target, size, data, usage);
+    }
+
+
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, int offset)
+    {
+        mGL.vertexAttribPointer(index, size, type, normalized, stride, offset);
+    }
+
+
+    @Override
+    public void enableVertexAttribArray(int index)
+    {
+        mGL.enableVertexAttribArray(index);
+    }
+
+
+    @Override
+    public void disableVertexAttribArray(int index)
+    {
+        mGL.disableVertexAttribArray(index);
+    }
+
+
+    @Override
+    public void drawArrays(int mode, int first, int count)
+    {
+        mGL.drawArrays(mode, first, count);
+    }
+
+
+    @Override
+    public void drawElements(int mode, int count, int type, int offset)
+    {
+        mGL.drawElements(mode, count, type, offset);
+    }
+
+
+    @Override
+    public int createShader(int type)
+    {
+        return mGL.createShader(type);
+    }
+
+
+    @Override
+    public void shaderSource(int shader, String source)
+    {
+        mGL.shaderSource(shader, source);
+    }
+
+
+    @Override
+    public void compileShader(int shader)
+    {
+        mGL.compileShader(shader);
+    }
+
+
+    @Override
+    public int getShaderParameter(int shader, int pname)
+    {
+        return mGL.getShaderParameter(shader, pname);
+    }
+
+
+    @Override
+    public String getShaderInfoLog(int shader)
+    {
+        return mGL.getShaderInfoLog(shader);
+    }
+
+
+    @Override
+    public void deleteShader(int shader)
+    {
+        mGL.deleteShader(shader);
+    }
+
+
+    @Override
+    public int createProgram()
+    {
+        return mGL.createProgram();
+    }
+
+
+    @Override
+    public void attachShader(int program, int shader)
+    {
+        mGL.attachShader(program, shader);
+    }
+
+
+    // Linking resets the uniforms of the program
+    @Override
+    public void linkProgram(int program)
+    {
+        forgetUniforms(program);
+        mGL.linkProgram(program);
+    }
+
+
+    @Override
+    public int getProgramParameter(int program, int pname)
+    {
+        return mGL.getProgramParameter(program, pname);
+    }
+
+
+    @Override
+    public String getProgramInfoLog(int program)
+    {
+        return mGL.getProgramInfoLog(program);
+    }
+
+
+    // The name may be reused by a later program
+    @Override
+    public void deleteProgram(int program)
+    {
+        forgetUniforms(program);
+        mGL.deleteProgram(program);
+    }
+
+
+    @Override
+    public int getAttribLocation(int program, String name)
+    {
+        return mGL.getAttribLocation(program, name);
+    }
+
+
+    @Override
+    public int getUniformLocation(int program, String name)
+    {
+        return mGL.getUniformLocation(program, name);
+    }
+
+
+    @Override
+    public String getString(int name)
+    {
+        return mGL.getString(name);
+    }
+
+
+    @Override
+    public boolean isProgramBinarySupported()
+    {
+        return mGL.isProgramBinarySupported();
+    }
+
+
+    @Override
+    public ByteBuffer getProgramBinary(int program, int[] format)
+    {
+        return mGL.getProgramBinary(program, format);
+    }
+
+
+    // Loading a binary links the program again
+    @Override
+    public void programBinary(int program, int format, ByteBuffer binary)
+    {
+        forgetUniforms(program);
+        mGL.programBinary(program, format, binary);
+    }
+
+
+    // Counts the call, returns true if it can be dropped
+    private boolean elide(boolean isUnchanged)
+    {
+        if (isUnchanged)
+        {
+            mElidedCount++;
+            return true;
+        }
+
+        mIssuedCount++;
+        return false;
+    }
+
+
+    private void issue()
+    {
+        mIssuedCount++;
+    }
+
+
+    // Records the new enable bit, returns true if the call must be forwarded
+    private boolean setCap(int cap, byte state)
+    {
+        for (int i = 0; i < SHADOWED_CAPS.length; i++)
+        {
+            if (SHADOWED_CAPS[i] == cap)
+            {
+                if (elide(mCaps[i] == state))
+                {
+                    return false;
+                }
+
+                mCaps[i] = state;
+                return true;
+            }
+        }
+
+        issue();
+        return true;
+    }
+
+
+    private boolean isUniformSet(int location, int type, int count, float[] v, int offset, int length)
+    {
+        if (mBits.length < length)
+        {
+            mBits = new int[length];
+        }
+
+        for (int i = 0; i < length; i++)
+        {
+            mBits[i] = Float.floatToRawIntBits(v[offset + i]);
+        }
+
+        return isUniformSet(location, type, count, length);
+    }
+
+
+    // Returns true if the uniform of the current program already holds the first
+    // length values of mBits, otherwise records them and returns false so that the
+    // caller forwards the call
+    private boolean isUniformSet(int location, int type, int count, int length)
+    {
+        if (mCurrentUniforms == null)
+        {
+            // The values go to a program the cache cannot tell, none of the recorded
+            // values can be trusted anymore
+            if (mProgram == UNKNOWN)
+            {
+                mPrograms.clear();
+            }
+
+            issue();
+            return false;
+        }
+
+        if (location < 0 || location >= MAX_SHADOWED_LOCATIONS)
+        {
+            issue();
+            return false;
+        }
+
+        UniformValue[] values = mCurrentUniforms.mValues;
+        if (location >= values.length)
+        {
+            values = Arrays.copyOf(values, Math.min(MAX_SHADOWED_LOCATIONS,
+                    Math.max(location + 1, values.length * 2)));
+            mCurrentUniforms.mValues = values;
+        }
+
+        UniformValue value = values[location];
+        if (value != null && value.matches(type, count, mBits, length))
+        {
+            mElidedCount++;
+            return true;
+        }
+
+        if (value == null)
+        {
+            value = new UniformValue();
+            values[location] = value;
+        }
+
+        value.set(type, count, mBits, length);
+
+        // The following elements of an array have locations of their own
+        for (int i = location + 1; i < location + count && i < values.length; i++)
+        {
+            values[i] = null;
+        }
+
+        mIssuedCount++;
+        return false;
+    }
+
+
+    private ProgramUniforms getUniforms(int program, boolean create)
+    {
+        for (int i = 0; i < mPrograms.size(); i++)
+        {
+            ProgramUniforms uniforms = mPrograms.get(i);
+            if (uniforms.mProgram == program)
+            {
+                return uniforms;
+            }
+        }
+
+        if (!create)
+        {
+            return null;
+        }
+
+        ProgramUniforms uniforms = new ProgramUniforms(program);
+        mPrograms.add(uniforms);
+        return uniforms;
+    }
+
+
+    private void forgetUniforms(int program)
+    {
+        ProgramUniforms uniforms = getUniforms(program, false);
+        if (uniforms != null)
+        {
+            mPrograms.remove(uniforms);
+        }
+
+        if (mProgram == program)
+        {
+            mCurrentUniforms = program != 0 ? getUniforms(program, true) : null;
+        }
+    }
+}
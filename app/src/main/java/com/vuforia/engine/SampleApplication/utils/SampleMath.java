@@ -28,344 +28,162 @@ public class SampleMath
     
     private static final String LOGTAG = "SampleMath";
     
-    private static final float[] temp = new float[16];
     private static Vec3F mLineStart = new Vec3F();
     private static Vec3F mLineEnd = new Vec3F();
     private static Vec3F mIntersection = new Vec3F();
     
+    // Each function reads the data of its arguments once, since getData() copies
+    // it across JNI, and works on local arrays so that it can be called from any
+    // thread. See SampleArrayMath for allocation-free versions
     
     public static Vec2F Vec2FSub(Vec2F v1, Vec2F v2)
     {
-        temp[0] = v1.getData()[0] - v2.getData()[0];
-        temp[1] = v1.getData()[1] - v2.getData()[1];
-        return new Vec2F(temp[0], temp[1]);
+        float[] d1 = v1.getData();
+        float[] d2 = v2.getData();
+        return new Vec2F(d1[0] - d2[0], d1[1] - d2[1]);
     }
     
     
     public static float Vec2FDist(Vec2F v1, Vec2F v2)
     {
-        float dx = v1.getData()[0] - v2.getData()[0];
-        float dy = v1.getData()[1] - v2.getData()[1];
+        float[] d1 = v1.getData();
+        float[] d2 = v2.getData();
+        float dx = d1[0] - d2[0];
+        float dy = d1[1] - d2[1];
         return (float) Math.sqrt(dx * dx + dy * dy);
     }
     
     
     private static Vec3F Vec3FAdd(Vec3F v1, Vec3F v2)
     {
-        temp[0] = v1.getData()[0] + v2.getData()[0];
-        temp[1] = v1.getData()[1] + v2.getData()[1];
-        temp[2] = v1.getData()[2] + v2.getData()[2];
-        return new Vec3F(temp[0], temp[1], temp[2]);
+        float[] result = new float[3];
+        SampleArrayMath.Vec3FAdd(result, 0, v1.getData(), 0, v2.getData(), 0);
+        return new Vec3F(result[0], result[1], result[2]);
     }
     
     
     private static Vec3F Vec3FSub(Vec3F v1, Vec3F v2)
     {
-        temp[0] = v1.getData()[0] - v2.getData()[0];
-        temp[1] = v1.getData()[1] - v2.getData()[1];
-        temp[2] = v1.getData()[2] - v2.getData()[2];
-        return new Vec3F(temp[0], temp[1], temp[2]);
+        float[] result = new float[3];
+        SampleArrayMath.Vec3FSub(result, 0, v1.getData(), 0, v2.getData(), 0);
+        return new Vec3F(result[0], result[1], result[2]);
     }
     
     
     private static Vec3F Vec3FScale(Vec3F v, float s)
     {
-        temp[0] = v.getData()[0] * s;
-        temp[1] = v.getData()[1] * s;
-        temp[2] = v.getData()[2] * s;
-        return new Vec3F(temp[0], temp[1], temp[2]);
+        float[] result = new float[3];
+        SampleArrayMath.Vec3FScale(result, 0, v.getData(), 0, s);
+        return new Vec3F(result[0], result[1], result[2]);
     }
     
     
     private static float Vec3FDot(Vec3F v1, Vec3F v2)
     {
-        return v1.getData()[0] * v2.getData()[0] + v1.getData()[1]
-            * v2.getData()[1] + v1.getData()[2] * v2.getData()[2];
+        return SampleArrayMath.Vec3FDot(v1.getData(), 0, v2.getData(), 0);
     }
     
     
     public static Vec3F Vec3FCross(Vec3F v1, Vec3F v2)
     {
-        temp[0] = v1.getData()[1] * v2.getData()[2] - v1.getData()[2]
-            * v2.getData()[1];
-        temp[1] = v1.getData()[2] * v2.getData()[0] - v1.getData()[0]
-            * v2.getData()[2];
-        temp[2] = v1.getData()[0] * v2.getData()[1] - v1.getData()[1]
-            * v2.getData()[0];
-        return new Vec3F(temp[0], temp[1], temp[2]);
+        float[] result = new float[3];
+        SampleArrayMath.Vec3FCross(result, 0, v1.getData(), 0, v2.getData(), 0);
+        return new Vec3F(result[0], result[1], result[2]);
     }
     
     
     private static Vec3F Vec3FNormalize(Vec3F v)
     {
-        float length = (float) Math
-            .sqrt(v.getData()[0] * v.getData()[0] + v.getData()[1]
-                * v.getData()[1] + v.getData()[2] * v.getData()[2]);
-        if (length != 0.0f)
-            length = 1.0f / length;
-        
-        temp[0] = v.getData()[0] * length;
-        temp[1] = v.getData()[1] * length;
-        temp[2] = v.getData()[2] * length;
-        
-        return new Vec3F(temp[0], temp[1], temp[2]);
+        float[] result = new float[3];
+        SampleArrayMath.Vec3FNormalize(result, 0, v.getData(), 0);
+        return new Vec3F(result[0], result[1], result[2]);
     }
     
     
+    // Note the matrix is indexed by rows here, which is the transpose of the
+    // column-major convention used by SampleArrayMath
     public static Vec3F Vec3FTransform(Vec3F v, Matrix44F m)
     {
-        float lambda;
-        lambda = m.getData()[12] * v.getData()[0] + m.getData()[13]
-            * v.getData()[1] + m.getData()[14] * v.getData()[2]
-            + m.getData()[15];
-        
-        temp[0] = m.getData()[0] * v.getData()[0] + m.getData()[1]
-            * v.getData()[1] + m.getData()[2] * v.getData()[2] + m.getData()[3];
-        temp[1] = m.getData()[4] * v.getData()[0] + m.getData()[5]
-            * v.getData()[1] + m.getData()[6] * v.getData()[2] + m.getData()[7];
-        temp[2] = m.getData()[8] * v.getData()[0] + m.getData()[9]
-            * v.getData()[1] + m.getData()[10] * v.getData()[2]
-            + m.getData()[11];
+        float[] d = m.getData();
+        float[] vd = v.getData();
         
-        temp[0] /= lambda;
-        temp[1] /= lambda;
-        temp[2] /= lambda;
+        float lambda = d[12] * vd[0] + d[13] * vd[1] + d[14] * vd[2] + d[15];
         
-        return new Vec3F(temp[0], temp[1], temp[2]);
+        return new Vec3F(
+            (d[0] * vd[0] + d[1] * vd[1] + d[2] * vd[2] + d[3]) / lambda,
+            (d[4] * vd[0] + d[5] * vd[1] + d[6] * vd[2] + d[7]) / lambda,
+            (d[8] * vd[0] + d[9] * vd[1] + d[10] * vd[2] + d[11]) / lambda);
     }
     
     
     public static Vec3F Vec3FTransformNormal(Vec3F v, Matrix44F m)
     {
-        temp[0] = m.getData()[0] * v.getData()[0] + m.getData()[1]
-            * v.getData()[1] + m.getData()[2] * v.getData()[2];
-        temp[1] = m.getData()[4] * v.getData()[0] + m.getData()[5]
-            * v.getData()[1] + m.getData()[6] * v.getData()[2];
-        temp[2] = m.getData()[8] * v.getData()[0] + m.getData()[9]
-            * v.getData()[1] + m.getData()[10] * v.getData()[2];
+        float[] d = m.getData();
+        float[] vd = v.getData();
         
-        return new Vec3F(temp[0], temp[1], temp[2]);
+        return new Vec3F(
+            d[0] * vd[0] + d[1] * vd[1] + d[2] * vd[2],
+            d[4] * vd[0] + d[5] * vd[1] + d[6] * vd[2],
+            d[8] * vd[0] + d[9] * vd[1] + d[10] * vd[2]);
     }
     
     
     private static Vec4F Vec4FTransform(Vec4F v, Matrix44F m)
     {
-        temp[0] = m.getData()[0] * v.getData()[0] + m.getData()[1]
-            * v.getData()[1] + m.getData()[2] * v.getData()[2] + m.getData()[3]
-            * v.getData()[3];
-        temp[1] = m.getData()[4] * v.getData()[0] + m.getData()[5]
-            * v.getData()[1] + m.getData()[6] * v.getData()[2] + m.getData()[7]
-            * v.getData()[3];
-        temp[2] = m.getData()[8] * v.getData()[0] + m.getData()[9]
-            * v.getData()[1] + m.getData()[10] * v.getData()[2]
-            + m.getData()[11] * v.getData()[3];
-        temp[3] = m.getData()[12] * v.getData()[0] + m.getData()[13]
-            * v.getData()[1] + m.getData()[14] * v.getData()[2]
-            + m.getData()[15] * v.getData()[3];
-        
-        return new Vec4F(temp[0], temp[1], temp[2], temp[3]);
+        float[] d = m.getData();
+        float[] vd = v.getData();
+        
+        return new Vec4F(
+            d[0] * vd[0] + d[1] * vd[1] + d[2] * vd[2] + d[3] * vd[3],
+            d[4] * vd[0] + d[5] * vd[1] + d[6] * vd[2] + d[7] * vd[3],
+            d[8] * vd[0] + d[9] * vd[1] + d[10] * vd[2] + d[11] * vd[3],
+            d[12] * vd[0] + d[13] * vd[1] + d[14] * vd[2] + d[15] * vd[3]);
     }
     
     
     private static Vec4F Vec4FDiv(Vec4F v, float s)
     {
-        temp[0] = v.getData()[0] / s;
-        temp[1] = v.getData()[1] / s;
-        temp[2] = v.getData()[2] / s;
-        temp[3] = v.getData()[3] / s;
-        return new Vec4F(temp[0], temp[1], temp[2], temp[3]);
+        float[] vd = v.getData();
+        return new Vec4F(vd[0] / s, vd[1] / s, vd[2] / s, vd[3] / s);
     }
     
     
     public static Matrix44F Matrix44FIdentity()
     {
-        Matrix44F r = new Matrix44F();
-        
-        for (int i = 0; i < 16; i++)
-            temp[i] = 0.0f;
-        
-        temp[0] = 1.0f;
-        temp[5] = 1.0f;
-        temp[10] = 1.0f;
-        temp[15] = 1.0f;
-        
-        r.setData(temp);
+        float[] data = new float[16];
+        SampleArrayMath.Matrix44FIdentity(data, 0);
         
+        Matrix44F r = new Matrix44F();
+        r.setData(data);
         return r;
     }
     
     
     public static Matrix44F Matrix44FTranspose(Matrix44F m)
     {
-        Matrix44F r = new Matrix44F();
-        for (int i = 0; i < 4; i++)
-            for (int j = 0; j < 4; j++)
-                temp[i * 4 + j] = m.getData()[i + 4 * j];
+        float[] data = m.getData();
+        SampleArrayMath.Matrix44FTranspose(data, 0, data, 0);
         
-        r.setData(temp);
+        Matrix44F r = new Matrix44F();
+        r.setData(data);
         return r;
     }
     
     
-    private static float Matrix44FDeterminate(Matrix44F m)
-    {
-        return m.getData()[12] * m.getData()[9] * m.getData()[6]
-            * m.getData()[3] - m.getData()[8] * m.getData()[13]
-            * m.getData()[6] * m.getData()[3] - m.getData()[12]
-            * m.getData()[5] * m.getData()[10] * m.getData()[3]
-            + m.getData()[4] * m.getData()[13] * m.getData()[10]
-            * m.getData()[3] + m.getData()[8] * m.getData()[5]
-            * m.getData()[14] * m.getData()[3] - m.getData()[4]
-            * m.getData()[9] * m.getData()[14] * m.getData()[3]
-            - m.getData()[12] * m.getData()[9] * m.getData()[2]
-            * m.getData()[7] + m.getData()[8] * m.getData()[13]
-            * m.getData()[2] * m.getData()[7] + m.getData()[12]
-            * m.getData()[1] * m.getData()[10] * m.getData()[7]
-            - m.getData()[0] * m.getData()[13] * m.getData()[10]
-            * m.getData()[7] - m.getData()[8] * m.getData()[1]
-            * m.getData()[14] * m.getData()[7] + m.getData()[0]
-            * m.getData()[9] * m.getData()[14] * m.getData()[7]
-            + m.getData()[12] * m.getData()[5] * m.getData()[2]
-            * m.getData()[11] - m.getData()[4] * m.getData()[13]
-            * m.getData()[2] * m.getData()[11] - m.getData()[12]
-            * m.getData()[1] * m.getData()[6] * m.getData()[11]
-            + m.getData()[0] * m.getData()[13] * m.getData()[6]
-            * m.getData()[11] + m.getData()[4] * m.getData()[1]
-            * m.getData()[14] * m.getData()[11] - m.getData()[0]
-            * m.getData()[5] * m.getData()[14] * m.getData()[11]
-            - m.getData()[8] * m.getData()[5] * m.getData()[2]
-            * m.getData()[15] + m.getData()[4] * m.getData()[9]
-            * m.getData()[2] * m.getData()[15] + m.getData()[8]
-            * m.getData()[1] * m.getData()[6] * m.getData()[15]
-            - m.getData()[0] * m.getData()[9] * m.getData()[6]
-            * m.getData()[15] - m.getData()[4] * m.getData()[1]
-            * m.getData()[10] * m.getData()[15] + m.getData()[0]
-            * m.getData()[5] * m.getData()[10] * m.getData()[15];
-    }
-    
-    
+    // Note the result is the transpose of the inverse, as the original version
+    // of this function returned it that way and callers rely on it
     public static Matrix44F Matrix44FInverse(Matrix44F m)
     {
-        Matrix44F r = new Matrix44F();
-        
-        float det = 1.0f / Matrix44FDeterminate(m);
-        
-        temp[0] = m.getData()[6] * m.getData()[11] * m.getData()[13]
-            - m.getData()[7] * m.getData()[10] * m.getData()[13]
-            + m.getData()[7] * m.getData()[9] * m.getData()[14]
-            - m.getData()[5] * m.getData()[11] * m.getData()[14]
-            - m.getData()[6] * m.getData()[9] * m.getData()[15]
-            + m.getData()[5] * m.getData()[10] * m.getData()[15];
-        
-        temp[4] = m.getData()[3] * m.getData()[10] * m.getData()[13]
-            - m.getData()[2] * m.getData()[11] * m.getData()[13]
-            - m.getData()[3] * m.getData()[9] * m.getData()[14]
-            + m.getData()[1] * m.getData()[11] * m.getData()[14]
-            + m.getData()[2] * m.getData()[9] * m.getData()[15]
-            - m.getData()[1] * m.getData()[10] * m.getData()[15];
-        
-        temp[8] = m.getData()[2] * m.getData()[7] * m.getData()[13]
-            - m.getData()[3] * m.getData()[6] * m.getData()[13]
-            + m.getData()[3] * m.getData()[5] * m.getData()[14]
-            - m.getData()[1] * m.getData()[7] * m.getData()[14]
-            - m.getData()[2] * m.getData()[5] * m.getData()[15]
-            + m.getData()[1] * m.getData()[6] * m.getData()[15];
-        
-        temp[12] = m.getData()[3] * m.getData()[6] * m.getData()[9]
-            - m.getData()[2] * m.getData()[7] * m.getData()[9] - m.getData()[3]
-            * m.getData()[5] * m.getData()[10] + m.getData()[1]
-            * m.getData()[7] * m.getData()[10] + m.getData()[2]
-            * m.getData()[5] * m.getData()[11] - m.getData()[1]
-            * m.getData()[6] * m.getData()[11];
-        
-        temp[1] = m.getData()[7] * m.getData()[10] * m.getData()[12]
-            - m.getData()[6] * m.getData()[11] * m.getData()[12]
-            - m.getData()[7] * m.getData()[8] * m.getData()[14]
-            + m.getData()[4] * m.getData()[11] * m.getData()[14]
-            + m.getData()[6] * m.getData()[8] * m.getData()[15]
-            - m.getData()[4] * m.getData()[10] * m.getData()[15];
-        
-        temp[5] = m.getData()[2] * m.getData()[11] * m.getData()[12]
-            - m.getData()[3] * m.getData()[10] * m.getData()[12]
-            + m.getData()[3] * m.getData()[8] * m.getData()[14]
-            - m.getData()[0] * m.getData()[11] * m.getData()[14]
-            - m.getData()[2] * m.getData()[8] * m.getData()[15]
-            + m.getData()[0] * m.getData()[10] * m.getData()[15];
-        
-        temp[9] = m.getData()[3] * m.getData()[6] * m.getData()[12]
-            - m.getData()[2] * m.getData()[7] * m.getData()[12]
-            - m.getData()[3] * m.getData()[4] * m.getData()[14]
-            + m.getData()[0] * m.getData()[7] * m.getData()[14]
-            + m.getData()[2] * m.getData()[4] * m.getData()[15]
-            - m.getData()[0] * m.getData()[6] * m.getData()[15];
-        
-        temp[13] = m.getData()[2] * m.getData()[7] * m.getData()[8]
-            - m.getData()[3] * m.getData()[6] * m.getData()[8] + m.getData()[3]
-            * m.getData()[4] * m.getData()[10] - m.getData()[0]
-            * m.getData()[7] * m.getData()[10] - m.getData()[2]
-            * m.getData()[4] * m.getData()[11] + m.getData()[0]
-            * m.getData()[6] * m.getData()[11];
-        
-        temp[2] = m.getData()[5] * m.getData()[11] * m.getData()[12]
-            - m.getData()[7] * m.getData()[9] * m.getData()[12]
-            + m.getData()[7] * m.getData()[8] * m.getData()[13]
-            - m.getData()[4] * m.getData()[11] * m.getData()[13]
-            - m.getData()[5] * m.getData()[8] * m.getData()[15]
-            + m.getData()[4] * m.getData()[9] * m.getData()[15];
-        
-        temp[6] = m.getData()[3] * m.getData()[9] * m.getData()[12]
-            - m.getData()[1] * m.getData()[11] * m.getData()[12]
-            - m.getData()[3] * m.getData()[8] * m.getData()[13]
-            + m.getData()[0] * m.getData()[11] * m.getData()[13]
-            + m.getData()[1] * m.getData()[8] * m.getData()[15]
-            - m.getData()[0] * m.getData()[9] * m.getData()[15];
-        
-        temp[10] = m.getData()[1] * m.getData()[7] * m.getData()[12]
-            - m.getData()[3] * m.getData()[5] * m.getData()[12]
-            + m.getData()[3] * m.getData()[4] * m.getData()[13]
-            - m.getData()[0] * m.getData()[7] * m.getData()[13]
-            - m.getData()[1] * m.getData()[4] * m.getData()[15]
-            + m.getData()[0] * m.getData()[5] * m.getData()[15];
-        
-        temp[14] = m.getData()[3] * m.getData()[5] * m.getData()[8]
-            - m.getData()[1] * m.getData()[7] * m.getData()[8] - m.getData()[3]
-            * m.getData()[4] * m.getData()[9] + m.getData()[0] * m.getData()[7]
-            * m.getData()[9] + m.getData()[1] * m.getData()[4]
-            * m.getData()[11] - m.getData()[0] * m.getData()[5]
-            * m.getData()[11];
-        
-        temp[3] = m.getData()[6] * m.getData()[9] * m.getData()[12]
-            - m.getData()[5] * m.getData()[10] * m.getData()[12]
-            - m.getData()[6] * m.getData()[8] * m.getData()[13]
-            + m.getData()[4] * m.getData()[10] * m.getData()[13]
-            + m.getData()[5] * m.getData()[8] * m.getData()[14]
-            - m.getData()[4] * m.getData()[9] * m.getData()[14];
-        
-        temp[7] = m.getData()[1] * m.getData()[10] * m.getData()[12]
-            - m.getData()[2] * m.getData()[9] * m.getData()[12]
-            + m.getData()[2] * m.getData()[8] * m.getData()[13]
-            - m.getData()[0] * m.getData()[10] * m.getData()[13]
-            - m.getData()[1] * m.getData()[8] * m.getData()[14]
-            + m.getData()[0] * m.getData()[9] * m.getData()[14];
-        
-        temp[11] = m.getData()[2] * m.getData()[5] * m.getData()[12]
-            - m.getData()[1] * m.getData()[6] * m.getData()[12]
-            - m.getData()[2] * m.getData()[4] * m.getData()[13]
-            + m.getData()[0] * m.getData()[6] * m.getData()[13]
-            + m.getData()[1] * m.getData()[4] * m.getData()[14]
-            - m.getData()[0] * m.getData()[5] * m.getData()[14];
-        
-        temp[15] = m.getData()[1] * m.getData()[6] * m.getData()[8]
-            - m.getData()[2] * m.getData()[5] * m.getData()[8] + m.getData()[2]
-            * m.getData()[4] * m.getData()[9] - m.getData()[0] * m.getData()[6]
-            * m.getData()[9] - m.getData()[1] * m.getData()[4]
-            * m.getData()[10] + m.getData()[0] * m.getData()[5]
-            * m.getData()[10];
+        float[] data = m.getData();
+        if (!SampleArrayMath.Matrix44FInverse(data, 0, data, 0))
+        {
+            Log.e(LOGTAG, "Cannot invert a singular matrix");
+        }
         
-        for (int i = 0; i < 16; i++)
-            temp[i] *= det;
+        SampleArrayMath.Matrix44FTranspose(data, 0, data, 0);
         
-        r.setData(temp);
+        Matrix44F r = new Matrix44F();
+        r.setData(data);
         return r;
     }
     
@@ -29,66 +29,37 @@ public class SampleUtils
     // Enable this flag to debug OpenGL errors
     private static final boolean DEBUG_GL = false;
     
-    private static int initShader(int shaderType, String source)
-    {
-        int shader = GLES20.glCreateShader(shaderType);
-        if (shader != 0)
-        {
-            GLES20.glShaderSource(shader, source);
-            GLES20.glCompileShader(shader);
-            
-            int[] glStatusVar = { GLES20.GL_FALSE };
-            GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, glStatusVar,
-                0);
-            if (glStatusVar[0] == GLES20.GL_FALSE)
-            {
-                Log.e(LOGTAG, "Could NOT compile shader " + shaderType + " : "
-                    + GLES20.glGetShaderInfoLog(shader));
-                GLES20.glDeleteShader(shader);
-                shader = 0;
-            }
-            
-        }
-        
-        return shader;
-    }
-    
-    
+    // Returns the program shared by every renderer of the current GL context that uses
+    // the same sources, compiling it only the first time. Returns 0 on failure
     public static int createProgramFromShaderSrc(String vertexShaderSrc,
         String fragmentShaderSrc)
     {
-        int vertShader = initShader(GLES20.GL_VERTEX_SHADER, vertexShaderSrc);
-        int fragShader = initShader(GLES20.GL_FRAGMENT_SHADER,
-            fragmentShaderSrc);
-        
-        if (vertShader == 0 || fragShader == 0)
-            return 0;
-        
-        int program = GLES20.glCreateProgram();
-        if (program != 0)
-        {
-            GLES20.glAttachShader(program, vertShader);
-            checkGLError("glAttchShader(vert)");
-            
-            GLES20.glAttachShader(program, fragShader);
-            checkGLError("glAttchShader(frag)");
-            
-            GLES20.glLinkProgram(program);
-            int[] glStatusVar = { GLES20.GL_FALSE };
-            GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, glStatusVar,
-                0);
-            if (glStatusVar[0] == GLES20.GL_FALSE)
-            {
-                Log.e(
-                    LOGTAG,
-                    "Could NOT link program : "
-                        + GLES20.glGetProgramInfoLog(program));
-                GLES20.glDeleteProgram(program);
-                program = 0;
-            }
-        }
-        
-        return program;
+        ShaderProgramRegistry.Program program = ShaderProgramRegistry.getInstance()
+            .getProgram(vertexShaderSrc, fragmentShaderSrc);
+
+        return program != null ? program.getId() : 0;
+    }
+
+
+    // Same as glGetAttribLocation(), cached for the programs of createProgramFromShaderSrc()
+    public static int getAttribLocation(int programId, String name)
+    {
+        ShaderProgramRegistry.Program program = ShaderProgramRegistry.getInstance()
+            .findProgram(programId);
+
+        return program != null ? program.getAttribLocation(name)
+            : GLES20.glGetAttribLocation(programId, name);
+    }
+
+
+    // Same as glGetUniformLocation(), cached for the programs of createProgramFromShaderSrc()
+    public static int getUniformLocation(int programId, String name)
+    {
+        ShaderProgramRegistry.Program program = ShaderProgramRegistry.getInstance()
+            .findProgram(programId);
+
+        return program != null ? program.getUniformLocation(name)
+            : GLES20.glGetUniformLocation(programId, name);
     }
     
     
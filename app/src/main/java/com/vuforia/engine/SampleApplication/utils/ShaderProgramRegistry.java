@@ -0,0 +1,514 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The ShaderProgramRegistry compiles each shader program once per GL context
+ * and shares it between every renderer using the same sources
+ *
+ * Programs are keyed by a 64-bit hash of their vertex and fragment sources.
+ * The attribute and uniform locations of each program are looked up once and
+ * kept in arrays. When the driver supports program binaries, linked programs
+ * are saved to the binary cache directory, keyed by the source hash and a hash
+ * of the driver identification, and loaded from there on the next launch
+ * instead of being compiled. Binaries of another driver version are deleted.
+ *
+ * onContextCreated() must be called when a new GL context is created, the
+ * program names of the previous one are then forgotten.
+ *
+ * All GL calls go through SampleGL, so the registry can run without a GL
+ * context. Its methods are synchronized but the GL calls they make still
+ * need the context of the calling thread
+ */
+public class ShaderProgramRegistry
+{
+    private static final String LOGTAG = "ShaderProgramRegistry";
+
+    private static final int BINARY_MAGIC_NUMBER = ('S' << 24) | ('P' << 16) | ('R' << 8) | 'G';
+    private static final String BINARY_EXTENSION = ".bin";
+
+    private static ShaderProgramRegistry sInstance;
+
+    private final SampleGL mGL;
+    private File mBinaryCacheDir;
+
+    // Programs of the current context, by source hash and by GL name
+    private final Map<Long, Program> mProgramsByHash = new HashMap<>();
+    private final Map<Integer, Program> mProgramsById = new HashMap<>();
+
+    // Hash of the driver identification, read once per context
+    private String mDriverHash;
+
+    private int mCompileCount = 0;
+    private int mBinaryLoadCount = 0;
+    private int mHitCount = 0;
+
+
+    /**
+     * A linked program and the locations looked up so far
+     */
+    public static class Program
+    {
+        private static final int INITIAL_CAPACITY = 8;
+
+        private final SampleGL mGL;
+        private final int mProgramId;
+        private final long mSourceHash;
+
+        private String[] mAttribNames = new String[INITIAL_CAPACITY];
+        private int[] mAttribLocations = new int[INITIAL_CAPACITY];
+        private int mNumAttribs = 0;
+
+        private String[] mUniformNames = new String[INITIAL_CAPACITY];
+        private int[] mUniformLocations = new int[INITIAL_CAPACITY];
+        private int mNumUniforms = 0;
+
+
+        Program(SampleGL gl, int programId, long sourceHash)
+        {
+            mGL = gl;
+            mProgramId = programId;
+            mSourceHash = sourceHash;
+        }
+
+
+        public int getId()
+        {
+            return mProgramId;
+        }
+
+
+        public long getSourceHash()
+        {
+            return mSourceHash;
+        }
+
+
+        public synchronized int getAttribLocation(String name)
+        {
+            for (int i = 0; i < mNumAttribs; i++)
+            {
+                if (mAttribNames[i].equals(name))
+                {
+                    return mAttribLocations[i];
+                }
+            }
+
+            int location = mGL.getAttribLocation(mProgramId, name);
+            if (mNumAttribs == mAttribNames.length)
+            {
+                mAttribNames = grow(mAttribNames);
+                mAttribLocations = grow(mAttribLocations);
+            }
+
+            mAttribNames[mNumAttribs] = name;
+            mAttribLocations[mNumAttribs] = location;
+            mNumAttribs++;
+            return location;
+        }
+
+
+        public synchronized int getUniformLocation(String name)
+        {
+            for (int i = 0; i < mNumUniforms; i++)
+            {
+                if (mUniformNames[i].equals(name))
+                {
+                    return mUniformLocations[i];
+                }
+            }
+
+            int location = mGL.getUniformLocation(mProgramId, name);
+            if (mNumUniforms == mUniformNames.length)
+            {
+                mUniformNames = grow(mUniformNames);
+                mUniformLocations = grow(mUniformLocations);
+            }
+
+            mUniformNames[mNumUniforms] = name;
+            mUniformLocations[mNumUniforms] = location;
+            mNumUniforms++;
+            return location;
+        }
+
+
+        private static String[] grow(String[] names)
+        {
+            String[] larger = new String[names.length * 2];
+            System.arraycopy(names, 0, larger, 0, names.length);
+            return larger;
+        }
+
+
+        private static int[] grow(int[] locations)
+        {
+            int[] larger = new int[locations.length * 2];
+            System.arraycopy(locations, 0, larger, 0, locations.length);
+            return larger;
+        }
+    }
+
+
+    public ShaderProgramRegistry(SampleGL gl, File binaryCacheDir)
+    {
+        mGL = gl;
+        mBinaryCacheDir = binaryCacheDir;
+    }
+
+
+    // Registry of the samples, forwarding to GLES20
+    public static synchronized ShaderProgramRegistry getInstance()
+    {
+        if (sInstance == null)
+        {
+            sInstance = new ShaderProgramRegistry(SampleGLES20.getInstance(), null);
+        }
+
+        return sInstance;
+    }
+
+
+    // Binaries are only persisted once a directory is set, usually under Context.getCacheDir()
+    public synchronized void setBinaryCacheDir(File binaryCacheDir)
+    {
+        mBinaryCacheDir = binaryCacheDir;
+    }
+
+
+    // The program names died with the previous context and must not be deleted
+    public synchronized void onContextCreated()
+    {
+        mProgramsByHash.clear();
+        mProgramsById.clear();
+        mDriverHash = null;
+    }
+
+
+    // Returns the program built from these sources in the current context, loading or
+    // compiling it on first use. Returns null if it does not compile or link
+    public synchronized Program getProgram(String vertexShaderSrc, String fragmentShaderSrc)
+    {
+        long sourceHash = hashSources(vertexShaderSrc, fragmentShaderSrc);
+
+        Program program = mProgramsByHash.get(sourceHash);
+        if (program != null)
+        {
+            mHitCount++;
+            return program;
+        }
+
+        int programId = loadBinary(sourceHash);
+        if (programId != 0)
+        {
+            mBinaryLoadCount++;
+        }
+        else
+        {
+            programId = compileAndLink(vertexShaderSrc, fragmentShaderSrc);
+            if (programId == 0)
+            {
+                return null;
+            }
+
+            mCompileCount++;
+            saveBinary(programId, sourceHash);
+        }
+
+        program = new Program(mGL, programId, sourceHash);
+        mProgramsByHash.put(sourceHash, program);
+        mProgramsById.put(programId, program);
+        return program;
+    }
+
+
+    // Returns the registered program with this GL name in the current context, or null
+    public synchronized Program findProgram(int programId)
+    {
+        return mProgramsById.get(programId);
+    }
+
+
+    public synchronized int getCompileCount()
+    {
+        return mCompileCount;
+    }
+
+
+    public synchronized int getBinaryLoadCount()
+    {
+        return mBinaryLoadCount;
+    }
+
+
+    public synchronized int getHitCount()
+    {
+        return mHitCount;
+    }
+
+
+    // 64-bit FNV-1a over both sources, with a separator so that moving text from one
+    // shader to the other changes the hash
+    static long hashSources(String vertexShaderSrc, String fragmentShaderSrc)
+    {
+        long hash = 0xcbf29ce484222325L;
+        hash = hashString(hash, vertexShaderSrc);
+        hash = (hash ^ 0xFFFF) * 0x100000001b3L;
+        return hashString(hash, fragmentShaderSrc);
+    }
+
+
+    private static long hashString(long hash, String text)
+    {
+        for (int i = 0; i < text.length(); i++)
+        {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+
+        return hash;
+    }
+
+
+    private int compileAndLink(String vertexShaderSrc, String fragmentShaderSrc)
+    {
+        int vertShader = compileShader(GLES20.GL_VERTEX_SHADER, vertexShaderSrc);
+        int fragShader = compileShader(GLES20.GL_FRAGMENT_SHADER, fragmentShaderSrc);
+
+        int program = 0;
+        if (vertShader != 0 && fragShader != 0)
+        {
+            program = mGL.createProgram();
+        }
+
+        if (program != 0)
+        {
+            mGL.attachShader(program, vertShader);
+            mGL.attachShader(program, fragShader);
+            mGL.linkProgram(program);
+
+            if (mGL.getProgramParameter(program, GLES20.GL_LINK_STATUS) == GLES20.GL_FALSE)
+            {
+                Log.e(LOGTAG, "Could NOT link program : " + mGL.getProgramInfoLog(program));
+                mGL.deleteProgram(program);
+                program = 0;
+            }
+        }
+
+        // Flagged for deletion, they are freed with the program they are attached to
+        if (vertShader != 0)
+        {
+            mGL.deleteShader(vertShader);
+        }
+        if (fragShader != 0)
+        {
+            mGL.deleteShader(fragShader);
+        }
+
+        return program;
+    }
+
+
+    private int compileShader(int shaderType, String source)
+    {
+        int shader = mGL.createShader(shaderType);
+        if (shader == 0)
+        {
+            return 0;
+        }
+
+        mGL.shaderSource(shader, source);
+        mGL.compileShader(shader);
+
+        if (mGL.getShaderParameter(shader, GLES20.GL_COMPILE_STATUS) == GLES20.GL_FALSE)
+        {
+            Log.e(LOGTAG, "Could NOT compile shader " + shaderType + " : " + mGL.getShaderInfoLog(shader));
+            mGL.deleteShader(shader);
+            return 0;
+        }
+
+        return shader;
+    }
+
+
+    // Returns 0 if there is no usable binary, a rejected binary is deleted
+    private int loadBinary(long sourceHash)
+    {
+        File file = getBinaryFile(sourceHash);
+        if (file == null || !file.isFile())
+        {
+            return 0;
+        }
+
+        int format;
+        ByteBuffer binary;
+        try
+        {
+            DataInputStream inputStream = new DataInputStream(new FileInputStream(file));
+            try
+            {
+                if (inputStream.readInt() != BINARY_MAGIC_NUMBER)
+                {
+                    throw new IOException("Not a program binary");
+                }
+
+                format = inputStream.readInt();
+                byte[] data = new byte[inputStream.readInt()];
+                inputStream.readFully(data);
+
+                binary = ByteBuffer.allocateDirect(data.length);
+                binary.put(data).flip();
+            }
+            finally
+            {
+                inputStream.close();
+            }
+        }
+        catch (IOException e)
+        {
+            Log.w(LOGTAG, "Could not read program binary " + file.getName() + ": " + e.getMessage());
+            deleteFile(file);
+            return 0;
+        }
+
+        int program = mGL.createProgram();
+        if (program == 0)
+        {
+            return 0;
+        }
+
+        mGL.programBinary(program, format, binary);
+        if (mGL.getProgramParameter(program, GLES20.GL_LINK_STATUS) == GLES20.GL_FALSE)
+        {
+            // The driver may reject binaries of its own version, e.g. after a system update
+            Log.w(LOGTAG, "Program binary " + file.getName() + " rejected, compiling");
+            mGL.deleteProgram(program);
+            deleteFile(file);
+            return 0;
+        }
+
+        return program;
+    }
+
+
+    private void saveBinary(int program, long sourceHash)
+    {
+        File file = getBinaryFile(sourceHash);
+        if (file == null)
+        {
+            return;
+        }
+
+        deleteStaleBinaries(sourceHash, file);
+
+        int[] format = new int[1];
+        ByteBuffer binary = mGL.getProgramBinary(program, format);
+        if (binary == null || !binary.hasRemaining())
+        {
+            return;
+        }
+
+        byte[] data = new byte[binary.remaining()];
+        binary.get(data);
+
+        try
+        {
+            mBinaryCacheDir.mkdirs();
+
+            // Written under a temporary name so that a partial file is never loaded
+            File tmpFile = new File(mBinaryCacheDir, file.getName() + ".tmp");
+            DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(tmpFile));
+            try
+            {
+                outputStream.writeInt(BINARY_MAGIC_NUMBER);
+                outputStream.writeInt(format[0]);
+                outputStream.writeInt(data.length);
+                outputStream.write(data);
+            }
+            finally
+            {
+                outputStream.close();
+            }
+
+            if (!tmpFile.renameTo(file))
+            {
+                deleteFile(tmpFile);
+            }
+        }
+        catch (IOException e)
+        {
+            Log.w(LOGTAG, "Could not save program binary " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+
+    // Binaries of the same sources built by another driver can never be loaded again
+    private void deleteStaleBinaries(long sourceHash, File current)
+    {
+        File[] files = mBinaryCacheDir.listFiles();
+        if (files == null)
+        {
+            return;
+        }
+
+        String prefix = toHex(sourceHash) + "-";
+        for (File file : files)
+        {
+            if (file.getName().startsWith(prefix) && !file.equals(current))
+            {
+                deleteFile(file);
+            }
+        }
+    }
+
+
+    // Returns null if binaries are not persisted
+    private File getBinaryFile(long sourceHash)
+    {
+        if (mBinaryCacheDir == null || !mGL.isProgramBinarySupported())
+        {
+            return null;
+        }
+
+        if (mDriverHash == null)
+        {
+            mDriverHash = toHex(hashSources(
+                    mGL.getString(GLES20.GL_VENDOR) + "\n" + mGL.getString(GLES20.GL_RENDERER),
+                    String.valueOf(mGL.getString(GLES20.GL_VERSION))));
+        }
+
+        return new File(mBinaryCacheDir, toHex(sourceHash) + "-" + mDriverHash + BINARY_EXTENSION);
+    }
+
+
+    private static String toHex(long value)
+    {
+        String hex = Long.toHexString(value);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+
+    private static void deleteFile(File file)
+    {
+        if (!file.delete())
+        {
+            Log.w(LOGTAG, "Could not delete " + file.getName());
+        }
+    }
+}
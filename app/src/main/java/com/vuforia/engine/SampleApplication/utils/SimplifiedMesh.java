@@ -0,0 +1,86 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * An indexed mesh built by MeshSimplifier, drawn like any other MeshObject
+ *
+ * Normals and tex coords are null if the source mesh had none
+ */
+public final class SimplifiedMesh extends MeshObject
+{
+    private final ByteBuffer mVertices;
+    private final ByteBuffer mNormals;
+    private final ByteBuffer mTexCoords;
+    private final ByteBuffer mIndices;
+    private final int mNumVertices;
+    private final int mNumIndices;
+    private final int mIndexType;
+
+
+    SimplifiedMesh(ByteBuffer vertices, ByteBuffer normals, ByteBuffer texCoords, int numVertices,
+            ByteBuffer indices, int numIndices, int indexType)
+    {
+        mVertices = vertices;
+        mNormals = normals;
+        mTexCoords = texCoords;
+        mNumVertices = numVertices;
+        mIndices = indices;
+        mNumIndices = numIndices;
+        mIndexType = indexType;
+    }
+
+
+    public int getNumTriangles()
+    {
+        return mNumIndices / 3;
+    }
+
+
+    @Override
+    public int getIndexType()
+    {
+        return mIndexType;
+    }
+
+
+    @Override
+    protected Buffer getBuffer(BUFFER_TYPE bufferType)
+    {
+        switch (bufferType)
+        {
+            case BUFFER_TYPE_VERTEX:
+                return mVertices;
+            case BUFFER_TYPE_NORMALS:
+                return mNormals;
+            case BUFFER_TYPE_TEXTURE_COORD:
+                return mTexCoords;
+            case BUFFER_TYPE_INDICES:
+                return mIndices;
+            default:
+                return null;
+        }
+    }
+
+
+    @Override
+    public int getNumObjectVertex()
+    {
+        return mNumVertices;
+    }
+
+
+    @Override
+    public int getNumObjectIndex()
+    {
+        return mNumIndices;
+    }
+}
@@ -18,6 +18,7 @@ import java.nio.ByteOrder;
 import android.content.res.AssetManager;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.opengl.GLES20;
 import android.util.Log;
 
 import com.vuforia.Image;
@@ -35,11 +36,25 @@ public class Texture
     private  int mChannels;       // The number of channels.
     public ByteBuffer mData;    // The pixel data.
     public final int[] mTextureID = new int[1];
+
+    // Only textures compiled with mipmaps have more than one level, mData is level 0
+    private ByteBuffer[] mLevelData;
+    private int[] mLevelSizes;
+    private boolean mIsPremultiplied = false;
     
 
+    // Reads the version compiled by SampleTextureCompiler if the APK contains one,
+    // otherwise decodes the image
     public static Texture loadTextureFromApk(String fileName,
         AssetManager assets)
     {
+        Texture compiled = loadCompiledTexture(assets,
+            CompiledTextureFormat.getCompiledName(fileName));
+        if (compiled != null)
+        {
+            return compiled;
+        }
+
         InputStream inputStream;
         try
         {
@@ -64,7 +79,167 @@ public class Texture
     }
     
     
-    private static Texture loadTextureFromIntBuffer(int[] data, int width,
+    // Returns null if there is no such asset or it cannot be read. The pixels
+    // are used in place, without any copy beyond reading the asset
+    private static Texture loadCompiledTexture(AssetManager assets, String fileName)
+    {
+        ByteBuffer compiled;
+        try
+        {
+            compiled = SampleAssetReader.readAsset(assets, fileName);
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+
+        return loadCompiledTexture(compiled, fileName);
+    }
+
+
+    // Returns null if the content is not a compiled texture this class can use
+    static Texture loadCompiledTexture(ByteBuffer compiled, String fileName)
+    {
+        compiled.order(ByteOrder.LITTLE_ENDIAN);
+
+        try
+        {
+            if (compiled.getInt() != CompiledTextureFormat.MAGIC_NUMBER
+                || compiled.getInt() != CompiledTextureFormat.VERSION)
+            {
+                Log.e(LOGTAG, "Unsupported compiled texture '" + fileName + "'");
+                return null;
+            }
+
+            int format = compiled.getInt();
+            int flags = compiled.getInt();
+            int numLevels = compiled.getInt();
+            if (format != CompiledTextureFormat.FORMAT_RGBA8888
+                || (flags & CompiledTextureFormat.FLAG_FLIPPED) == 0 || numLevels < 1)
+            {
+                Log.e(LOGTAG, "Unsupported format of compiled texture '" + fileName + "'");
+                return null;
+            }
+
+            Texture texture = new Texture();
+            texture.mChannels = 4;
+            texture.mIsPremultiplied = (flags & CompiledTextureFormat.FLAG_PREMULTIPLIED) != 0;
+            texture.mLevelData = new ByteBuffer[numLevels];
+            texture.mLevelSizes = new int[numLevels * 2];
+
+            for (int level = 0; level < numLevels; level++)
+            {
+                int width = compiled.getInt();
+                int height = compiled.getInt();
+                int offset = compiled.getInt();
+                int size = compiled.getInt();
+                if (size != width * height * texture.mChannels)
+                {
+                    Log.e(LOGTAG, "Corrupt compiled texture '" + fileName + "'");
+                    return null;
+                }
+
+                ByteBuffer levelData = compiled.duplicate();
+                levelData.limit(offset + size).position(offset);
+
+                texture.mLevelData[level] = levelData.slice().order(ByteOrder.nativeOrder());
+                texture.mLevelSizes[level * 2] = width;
+                texture.mLevelSizes[level * 2 + 1] = height;
+            }
+
+            texture.mWidth = texture.mLevelSizes[0];
+            texture.mHeight = texture.mLevelSizes[1];
+            texture.mData = texture.mLevelData[0];
+            return texture;
+        }
+        catch (RuntimeException e)
+        {
+            // Truncated file or offsets outside of it
+            Log.e(LOGTAG, "Failed to read compiled texture '" + fileName + "'");
+            Log.i(LOGTAG, e.toString());
+            return null;
+        }
+    }
+
+
+    // Returns a texture sharing the pixels of this one, with its own GL texture name,
+    // so that renderers of different contexts can use the same decoded data
+    public Texture duplicate()
+    {
+        Texture texture = new Texture();
+        texture.mWidth = mWidth;
+        texture.mHeight = mHeight;
+        texture.mChannels = mChannels;
+        texture.mData = mData.duplicate();
+        texture.mIsPremultiplied = mIsPremultiplied;
+        texture.mLevelSizes = mLevelSizes;
+
+        if (mLevelData != null)
+        {
+            texture.mLevelData = new ByteBuffer[mLevelData.length];
+            for (int level = 0; level < mLevelData.length; level++)
+            {
+                texture.mLevelData[level] = mLevelData[level].duplicate();
+            }
+            texture.mData = texture.mLevelData[0];
+        }
+
+        return texture;
+    }
+
+
+    // Size of the pixels of all levels
+    public int getSizeInBytes()
+    {
+        if (mLevelData == null)
+        {
+            return mData.capacity();
+        }
+
+        int numBytes = 0;
+        for (ByteBuffer levelData : mLevelData)
+        {
+            numBytes += levelData.capacity();
+        }
+
+        return numBytes;
+    }
+
+
+    public int getNumLevels()
+    {
+        return mLevelData != null ? mLevelData.length : 1;
+    }
+
+
+    public boolean isPremultiplied()
+    {
+        return mIsPremultiplied;
+    }
+
+
+    // Uploads the precomputed mip levels to the texture bound to GL_TEXTURE_2D,
+    // after level 0 was uploaded from mData. Returns false if there are none
+    public boolean uploadMipLevels()
+    {
+        if (getNumLevels() < 2)
+        {
+            return false;
+        }
+
+        for (int level = 1; level < mLevelData.length; level++)
+        {
+            GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, level, GLES20.GL_RGBA,
+                mLevelSizes[level * 2], mLevelSizes[level * 2 + 1], 0,
+                GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, mLevelData[level]);
+        }
+
+        return true;
+    }
+    
+    
+    // data holds the ARGB pixels of a Bitmap, top row first
+    static Texture loadTextureFromIntBuffer(int[] data, int width,
         int height)
     {
         // Convert:
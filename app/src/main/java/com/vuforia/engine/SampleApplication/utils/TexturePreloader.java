@@ -0,0 +1,117 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+
+/**
+ * The textures of a sample, decoded in parallel by an AssetPreloader while
+ * Vuforia initializes
+ *
+ * The activity adds the texture names and starts the loading in onCreate().
+ * getTextures() is called once Vuforia is initialized, before the textures are
+ * handed to the renderer, and only waits for those still being decoded
+ */
+public class TexturePreloader
+{
+    private static final String LOGTAG = "TexturePreloader";
+
+    // Decodes the texture of a file, returns null if it cannot be loaded
+    interface Loader
+    {
+        Texture load(String name) throws Exception;
+    }
+
+
+    private final AssetPreloader mPreloader;
+    private final Loader mLoader;
+    private final List<AssetPreloader.Asset<Texture>> mTextures = new ArrayList<>();
+
+
+    public TexturePreloader(final AssetManager assetManager)
+    {
+        this(new AssetPreloader(null), new Loader()
+        {
+            @Override
+            public Texture load(String name)
+            {
+                return SampleAssetCache.getInstance().getTexture(name, assetManager);
+            }
+        });
+    }
+
+
+    TexturePreloader(AssetPreloader preloader, Loader loader)
+    {
+        mPreloader = preloader;
+        mLoader = loader;
+    }
+
+
+    // Must be called before start(), in the order of the texture indices used by the renderer
+    public void add(final String name)
+    {
+        mTextures.add(mPreloader.add(name, new Callable<Texture>()
+        {
+            @Override
+            public Texture call() throws Exception
+            {
+                return mLoader.load(name);
+            }
+        }));
+    }
+
+
+    public void start()
+    {
+        mPreloader.start();
+    }
+
+
+    public void cancel()
+    {
+        mPreloader.cancel();
+    }
+
+
+    // Waits for the textures still loading. Textures that failed to load are null
+    public Vector<Texture> getTextures()
+    {
+        try
+        {
+            if (!mPreloader.awaitDone())
+            {
+                Log.w(LOGTAG, "Texture loading was cancelled");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Log.w(LOGTAG, "Interrupted while waiting for the textures");
+            Thread.currentThread().interrupt();
+        }
+
+        Vector<Texture> textures = new Vector<>();
+        for (AssetPreloader.Asset<Texture> texture : mTextures)
+        {
+            if (texture.get() == null)
+            {
+                Log.e(LOGTAG, "Could not load texture " + texture.getName());
+            }
+
+            textures.add(texture.get());
+        }
+
+        return textures;
+    }
+}
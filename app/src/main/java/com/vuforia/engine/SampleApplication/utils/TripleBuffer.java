@@ -0,0 +1,119 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the latest of a series of objects from one writing thread to one
+ * reading thread, without locking and without copying
+ *
+ * Of the three buffers, one is owned by the writer, one by the reader and one
+ * is in between. publish() swaps the written buffer with the one in between,
+ * and acquire() swaps the one in between with the one read before if it was
+ * published since. Neither thread ever waits for the other, and a buffer is
+ * never written while the reader holds it. Buffers published while the reader
+ * was busy are overwritten: the reader always gets the latest one.
+ *
+ * Only one thread may call getWriteBuffer() and publish(), and only one thread
+ * may call acquire() and getReadBuffer()
+ */
+public class TripleBuffer<T>
+{
+    // The index of the buffer in between, and whether it was published since the last acquire()
+    private static final int INDEX_MASK = 0x3;
+    private static final int PUBLISHED = 0x4;
+
+    private final Object[] mBuffers;
+    private final AtomicInteger mMiddle = new AtomicInteger(1);
+
+    private int mWriteIndex = 0;
+    private int mReadIndex = 2;
+    private boolean mHasRead = false;
+
+    // Written by the writer only
+    private volatile long mNumPublished = 0;
+
+
+    public TripleBuffer(T first, T second, T third)
+    {
+        if (first == null || second == null || third == null
+                || first == second || second == third || first == third)
+        {
+            throw new IllegalArgumentException("Three distinct buffers are needed");
+        }
+
+        mBuffers = new Object[] { first, second, third };
+    }
+
+
+    // The buffer to fill before the next publish(), never seen by the reader until then
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer()
+    {
+        return (T) mBuffers[mWriteIndex];
+    }
+
+
+    // Makes the written buffer the latest, the writer gets another one to fill
+    public void publish()
+    {
+        mWriteIndex = mMiddle.getAndSet(mWriteIndex | PUBLISHED) & INDEX_MASK;
+        mNumPublished++;
+    }
+
+
+    // Returns the latest published buffer, which stays the reader's until the next call.
+    // Returns the same buffer as before if nothing was published since, and null if
+    // nothing was ever published
+    @SuppressWarnings("unchecked")
+    public T acquire()
+    {
+        if ((mMiddle.get() & PUBLISHED) != 0)
+        {
+            mReadIndex = mMiddle.getAndSet(mReadIndex) & INDEX_MASK;
+            mHasRead = true;
+        }
+
+        return mHasRead ? (T) mBuffers[mReadIndex] : null;
+    }
+
+
+    // The buffer returned by the last acquire(), or null
+    @SuppressWarnings("unchecked")
+    public T getReadBuffer()
+    {
+        return mHasRead ? (T) mBuffers[mReadIndex] : null;
+    }
+
+
+    // Forgets what was published and acquired, acquire() returns null until the next publish().
+    // Only while neither the writer nor the reader uses the buffers
+    public void clear()
+    {
+        mWriteIndex = 0;
+        mReadIndex = 2;
+        mHasRead = false;
+
+        // Last, so that a thread reading it next sees the indices above
+        mMiddle.set(1);
+    }
+
+
+    // True if a buffer was published since the last acquire(), may be called from any thread
+    public boolean hasPublished()
+    {
+        return (mMiddle.get() & PUBLISHED) != 0;
+    }
+
+
+    public long getNumPublished()
+    {
+        return mNumPublished;
+    }
+}
@@ -0,0 +1,272 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.Arrays;
+
+/**
+ * Reorders the triangles of an indexed mesh so that the GPU finds more of
+ * their vertices in its post-transform cache, following Tom Forsyth's linear
+ * speed vertex cache optimisation
+ *
+ * Each vertex is scored from its position in a simulated LRU cache and from
+ * the number of its triangles not emitted yet, which favours finishing off
+ * vertices before they are evicted. The triangle with the best total score
+ * among those touching the cache is emitted next.
+ *
+ * computeAcmr() measures the result as the average number of cache misses per
+ * triangle on a FIFO cache: 3 for a triangle list with no sharing, about 0.6
+ * to 0.7 for a well ordered regular mesh
+ */
+public final class VertexCacheOptimizer
+{
+    // A typical post-transform FIFO size for computeAcmr()
+    public static final int DEFAULT_FIFO_SIZE = 16;
+
+    private static final int CACHE_SIZE = 32;
+    private static final float CACHE_DECAY_POWER = 1.5f;
+    private static final float LAST_TRIANGLE_SCORE = 0.75f;
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+    private static final float VALENCE_BOOST_POWER = 0.5f;
+
+    private static final int NONE = -1;
+
+
+    private VertexCacheOptimizer()
+    {
+    }
+
+
+    // Returns the triangles of indices in a cache friendly order, with the same winding.
+    // Triangles must have three different vertices
+    public static int[] optimize(int[] indices, int numVertices)
+    {
+        int numTriangles = indices.length / 3;
+
+        // Triangles of each vertex, the ones not emitted yet first
+        int[] offsets = new int[numVertices + 1];
+        for (int index : indices)
+        {
+            offsets[index + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++)
+        {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] remaining = new int[numVertices];
+        int[] vertexTriangles = new int[indices.length];
+        for (int i = 0; i < numTriangles * 3; i++)
+        {
+            int v = indices[i];
+            vertexTriangles[offsets[v] + remaining[v]++] = i / 3;
+        }
+
+        int[] cachePositions = new int[numVertices];
+        Arrays.fill(cachePositions, NONE);
+        float[] vertexScores = new float[numVertices];
+        for (int v = 0; v < numVertices; v++)
+        {
+            vertexScores[v] = score(NONE, remaining[v]);
+        }
+
+        float[] triangleScores = new float[numTriangles];
+        boolean[] isEmitted = new boolean[numTriangles];
+        int bestTriangle = NONE;
+        for (int t = 0; t < numTriangles; t++)
+        {
+            triangleScores[t] = vertexScores[indices[t * 3]] + vertexScores[indices[t * 3 + 1]]
+                    + vertexScores[indices[t * 3 + 2]];
+            if (bestTriangle == NONE || triangleScores[t] > triangleScores[bestTriangle])
+            {
+                bestTriangle = t;
+            }
+        }
+
+        // Three more entries for the vertices pushed out by the last triangle
+        int[] cache = new int[CACHE_SIZE + 3];
+        int[] newCache = new int[CACHE_SIZE + 3];
+        int cacheSize = 0;
+
+        int[] result = new int[numTriangles * 3];
+        int nextUnemitted = 0;
+
+        for (int emitted = 0; emitted < numTriangles; emitted++)
+        {
+            // No triangle touches the cache, continue with the next one in order
+            if (bestTriangle == NONE)
+            {
+                while (isEmitted[nextUnemitted])
+                {
+                    nextUnemitted++;
+                }
+                bestTriangle = nextUnemitted;
+            }
+
+            int triangle = bestTriangle;
+            isEmitted[triangle] = true;
+            System.arraycopy(indices, triangle * 3, result, emitted * 3, 3);
+
+            // The triangle's vertices go to the front of the cache
+            int newCacheSize = 0;
+            for (int k = 0; k < 3; k++)
+            {
+                int v = indices[triangle * 3 + k];
+                newCache[newCacheSize++] = v;
+
+                int start = offsets[v];
+                int end = start + remaining[v];
+                for (int i = start; i < end; i++)
+                {
+                    if (vertexTriangles[i] == triangle)
+                    {
+                        vertexTriangles[i] = vertexTriangles[end - 1];
+                        vertexTriangles[end - 1] = triangle;
+                        break;
+                    }
+                }
+                remaining[v]--;
+            }
+
+            // At most CACHE_SIZE vertices were kept, so all of them fit
+            for (int i = 0; i < cacheSize; i++)
+            {
+                int v = cache[i];
+                if (v != newCache[0] && v != newCache[1] && v != newCache[2])
+                {
+                    newCache[newCacheSize++] = v;
+                }
+            }
+
+            int[] swap = cache;
+            cache = newCache;
+            newCache = swap;
+            cacheSize = newCacheSize;
+
+            // Rescore the cached vertices, and with them their triangles
+            for (int i = 0; i < cacheSize; i++)
+            {
+                int v = cache[i];
+                cachePositions[v] = i < CACHE_SIZE ? i : NONE;
+
+                float newScore = score(cachePositions[v], remaining[v]);
+                float delta = newScore - vertexScores[v];
+                vertexScores[v] = newScore;
+
+                for (int j = offsets[v]; j < offsets[v] + remaining[v]; j++)
+                {
+                    triangleScores[vertexTriangles[j]] += delta;
+                }
+            }
+
+            bestTriangle = NONE;
+            float bestScore = -1.0f;
+            for (int i = 0; i < cacheSize; i++)
+            {
+                int v = cache[i];
+                for (int j = offsets[v]; j < offsets[v] + remaining[v]; j++)
+                {
+                    int t = vertexTriangles[j];
+                    if (triangleScores[t] > bestScore)
+                    {
+                        bestScore = triangleScores[t];
+                        bestTriangle = t;
+                    }
+                }
+            }
+
+            // The vertices past the cache are forgotten
+            if (cacheSize > CACHE_SIZE)
+            {
+                cacheSize = CACHE_SIZE;
+            }
+        }
+
+        return result;
+    }
+
+
+    // Average number of vertices transformed per triangle with a FIFO cache of fifoSize
+    public static float computeAcmr(int[] indices, int numVertices, int fifoSize)
+    {
+        if (indices.length < 3)
+        {
+            return 0.0f;
+        }
+
+        // Time at which each vertex entered the cache, the cache holds the last fifoSize misses
+        int[] entryTimes = new int[numVertices];
+        Arrays.fill(entryTimes, -fifoSize - 1);
+        int misses = 0;
+
+        for (int index : indices)
+        {
+            if (misses - entryTimes[index] > fifoSize)
+            {
+                entryTimes[index] = misses;
+                misses++;
+            }
+        }
+
+        return misses / (indices.length / 3.0f);
+    }
+
+
+    // Renumbers the vertices in the order the indices first use them, which keeps the
+    // vertex fetches sequential. Returns the old vertex of each new one, and rewrites
+    // indices in place
+    public static int[] reorderVertices(int[] indices, int numVertices)
+    {
+        int[] newIds = new int[numVertices];
+        Arrays.fill(newIds, NONE);
+        int[] oldIds = new int[numVertices];
+        int count = 0;
+
+        for (int i = 0; i < indices.length; i++)
+        {
+            int v = indices[i];
+            if (newIds[v] == NONE)
+            {
+                newIds[v] = count;
+                oldIds[count++] = v;
+            }
+            indices[i] = newIds[v];
+        }
+
+        return Arrays.copyOf(oldIds, count);
+    }
+
+
+    private static float score(int cachePosition, int remainingTriangles)
+    {
+        if (remainingTriangles == 0)
+        {
+            return -1.0f;
+        }
+
+        float score = 0.0f;
+        if (cachePosition >= 0)
+        {
+            if (cachePosition < 3)
+            {
+                // The last triangle's vertices, deliberately not the best so that strips
+                // do not keep reusing them
+                score = LAST_TRIANGLE_SCORE;
+            }
+            else
+            {
+                float scaler = 1.0f / (CACHE_SIZE - 3);
+                score = (float) Math.pow(1.0f - (cachePosition - 3) * scaler, CACHE_DECAY_POWER);
+            }
+        }
+
+        // Vertices with few triangles left are finished off first
+        score += VALENCE_BOOST_SCALE * (float) Math.pow(remainingTriangles, -VALENCE_BOOST_POWER);
+        return score;
+    }
+}
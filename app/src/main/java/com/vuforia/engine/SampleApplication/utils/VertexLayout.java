@@ -0,0 +1,302 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+
+/**
+ * Describes how the vertices of a mesh are packed into one interleaved buffer
+ *
+ * Each attribute can be stored as floats or quantized. The Attribute
+ * descriptors give the values to pass to glVertexAttribPointer(), with
+ * getStride() as the stride of all of them. Every attribute starts on a
+ * 4 byte boundary. InterleavedVertices builds the buffer of a MeshObject.
+ *
+ * Quantized attributes are decoded by the GL, with the exceptions of
+ * NORMALIZED_SHORT positions, which need the decode matrix of their
+ * InterleavedVertices, and OCTAHEDRAL normals, which need
+ * OCTAHEDRAL_NORMAL_GLSL in the vertex shader. HALF_FLOAT positions and
+ * INT_10_10_10_2 normals need the OpenGL ES 2.0 extension returned by
+ * getRequiredExtension()
+ */
+public final class VertexLayout
+{
+    public enum PositionFormat
+    {
+        // 12 bytes
+        FLOAT,
+        // 8 bytes, about 3 significant digits
+        HALF_FLOAT,
+        // 8 bytes, 16 bits over the bounding box
+        NORMALIZED_SHORT
+    }
+
+    public enum NormalFormat
+    {
+        NONE,
+        // 12 bytes
+        FLOAT,
+        // 4 bytes, 8 bits per component
+        NORMALIZED_BYTE,
+        // 4 bytes, 10 bits per component
+        INT_10_10_10_2,
+        // 4 bytes, two 16 bit coordinates on the octahedron
+        OCTAHEDRAL
+    }
+
+    public enum TexCoordFormat
+    {
+        NONE,
+        // 8 bytes
+        FLOAT,
+        // 4 bytes, coordinates in [0, 1] only
+        NORMALIZED_UNSIGNED_SHORT
+    }
+
+    // GL_OES_vertex_half_float and GL_OES_vertex_type_10_10_10_2 types, not in GLES20
+    public static final int GL_HALF_FLOAT_OES = 0x8D61;
+    public static final int GL_INT_10_10_10_2_OES = 0x8DF7;
+
+    // The data of the separate float buffers in a single buffer, 32 bytes per vertex
+    public static final VertexLayout FLOAT = new VertexLayout(PositionFormat.FLOAT,
+            NormalFormat.FLOAT, TexCoordFormat.FLOAT);
+
+    // 20 bytes per vertex with OpenGL ES 2.0 core types only, and decoded by the GL
+    // so that renderers draw it without any change
+    public static final VertexLayout COMPACT = new VertexLayout(PositionFormat.FLOAT,
+            NormalFormat.NORMALIZED_BYTE, TexCoordFormat.NORMALIZED_UNSIGNED_SHORT);
+
+    // 16 bytes per vertex, renderers apply the position decode matrix
+    public static final VertexLayout QUANTIZED = new VertexLayout(PositionFormat.NORMALIZED_SHORT,
+            NormalFormat.NORMALIZED_BYTE, TexCoordFormat.NORMALIZED_UNSIGNED_SHORT);
+
+    // Decodes an OCTAHEDRAL normal, declare the attribute as a vec2
+    public static final String OCTAHEDRAL_NORMAL_GLSL = " \n"
+            + "vec3 decodeOctahedral(vec2 e) \n"
+            + "{ \n"
+            + "    vec3 n = vec3(e, 1.0 - abs(e.x) - abs(e.y)); \n"
+            + "    float t = max(-n.z, 0.0); \n"
+            + "    n.x += n.x >= 0.0 ? -t : t; \n"
+            + "    n.y += n.y >= 0.0 ? -t : t; \n"
+            + "    return normalize(n); \n"
+            + "} \n";
+
+    private final PositionFormat mPositionFormat;
+    private final NormalFormat mNormalFormat;
+    private final TexCoordFormat mTexCoordFormat;
+
+    private final Attribute mPosition;
+    private final Attribute mNormal;
+    private final Attribute mTexCoord;
+    private final int mStride;
+
+
+    public VertexLayout(PositionFormat positionFormat, NormalFormat normalFormat,
+            TexCoordFormat texCoordFormat)
+    {
+        mPositionFormat = positionFormat;
+        mNormalFormat = normalFormat;
+        mTexCoordFormat = texCoordFormat;
+
+        switch (positionFormat)
+        {
+            case HALF_FLOAT:
+                mPosition = new Attribute(3, GL_HALF_FLOAT_OES, false, 0, 8);
+                break;
+            case NORMALIZED_SHORT:
+                mPosition = new Attribute(3, GLES20.GL_SHORT, true, 0, 8);
+                break;
+            default:
+                mPosition = new Attribute(3, GLES20.GL_FLOAT, false, 0, 12);
+                break;
+        }
+
+        int offset = mPosition.mSizeInBytes;
+        switch (normalFormat)
+        {
+            case FLOAT:
+                mNormal = new Attribute(3, GLES20.GL_FLOAT, false, offset, 12);
+                break;
+            case NORMALIZED_BYTE:
+                mNormal = new Attribute(3, GLES20.GL_BYTE, true, offset, 4);
+                break;
+            case INT_10_10_10_2:
+                mNormal = new Attribute(4, GL_INT_10_10_10_2_OES, true, offset, 4);
+                break;
+            case OCTAHEDRAL:
+                mNormal = new Attribute(2, GLES20.GL_SHORT, true, offset, 4);
+                break;
+            default:
+                mNormal = null;
+                break;
+        }
+
+        if (mNormal != null)
+        {
+            offset += mNormal.mSizeInBytes;
+        }
+
+        switch (texCoordFormat)
+        {
+            case FLOAT:
+                mTexCoord = new Attribute(2, GLES20.GL_FLOAT, false, offset, 8);
+                break;
+            case NORMALIZED_UNSIGNED_SHORT:
+                mTexCoord = new Attribute(2, GLES20.GL_UNSIGNED_SHORT, true, offset, 4);
+                break;
+            default:
+                mTexCoord = null;
+                break;
+        }
+
+        if (mTexCoord != null)
+        {
+            offset += mTexCoord.mSizeInBytes;
+        }
+
+        mStride = offset;
+    }
+
+
+    public PositionFormat getPositionFormat()
+    {
+        return mPositionFormat;
+    }
+
+
+    public NormalFormat getNormalFormat()
+    {
+        return mNormalFormat;
+    }
+
+
+    public TexCoordFormat getTexCoordFormat()
+    {
+        return mTexCoordFormat;
+    }
+
+
+    public Attribute getPosition()
+    {
+        return mPosition;
+    }
+
+
+    // Null if the layout has no normals
+    public Attribute getNormal()
+    {
+        return mNormal;
+    }
+
+
+    // Null if the layout has no tex coords
+    public Attribute getTexCoord()
+    {
+        return mTexCoord;
+    }
+
+
+    // Bytes per vertex
+    public int getStride()
+    {
+        return mStride;
+    }
+
+
+    // Null when the layout only uses OpenGL ES 2.0 core types
+    public String getRequiredExtension()
+    {
+        if (mPositionFormat == PositionFormat.HALF_FLOAT)
+        {
+            return "GL_OES_vertex_half_float";
+        }
+
+        if (mNormalFormat == NormalFormat.INT_10_10_10_2)
+        {
+            return "GL_OES_vertex_type_10_10_10_2";
+        }
+
+        return null;
+    }
+
+
+    VertexLayout withNormalFormat(NormalFormat normalFormat)
+    {
+        return normalFormat == mNormalFormat ? this
+                : new VertexLayout(mPositionFormat, normalFormat, mTexCoordFormat);
+    }
+
+
+    VertexLayout withTexCoordFormat(TexCoordFormat texCoordFormat)
+    {
+        return texCoordFormat == mTexCoordFormat ? this
+                : new VertexLayout(mPositionFormat, mNormalFormat, texCoordFormat);
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return mPositionFormat + "/" + mNormalFormat + "/" + mTexCoordFormat + ", " + mStride + " bytes";
+    }
+
+
+    /**
+     * One attribute of the layout, as passed to glVertexAttribPointer()
+     */
+    public static final class Attribute
+    {
+        private final int mComponents;
+        private final int mType;
+        private final boolean mIsNormalized;
+        private final int mOffset;
+        private final int mSizeInBytes;
+
+
+        private Attribute(int components, int type, boolean isNormalized, int offset, int sizeInBytes)
+        {
+            mComponents = components;
+            mType = type;
+            mIsNormalized = isNormalized;
+            mOffset = offset;
+            mSizeInBytes = sizeInBytes;
+        }
+
+
+        public int getComponents()
+        {
+            return mComponents;
+        }
+
+
+        public int getType()
+        {
+            return mType;
+        }
+
+
+        public boolean isNormalized()
+        {
+            return mIsNormalized;
+        }
+
+
+        // Bytes from the start of the vertex
+        public int getOffset()
+        {
+            return mOffset;
+        }
+
+
+        // Including the padding to the next attribute
+        public int getSizeInBytes()
+        {
+            return mSizeInBytes;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.Arrays;
+
+/**
+ * Merges the vertices of a triangle soup that are equal in every attribute
+ *
+ * Vertices are rows of stride floats in one array. They are compared bit for
+ * bit on their first components floats through an open-addressing hash table
+ * of ints, so welding does not allocate per vertex
+ */
+public final class VertexWelder
+{
+    private static final int EMPTY = -1;
+
+
+    private VertexWelder()
+    {
+    }
+
+
+    // Gives equal rows the same id, numbered in order of first occurrence, and returns
+    // the number of ids. The first row of each id is copied to unique unless it is null
+    public static int weld(float[] data, int count, int stride, int components, int[] ids, float[] unique)
+    {
+        // At most half full
+        int capacity = Integer.highestOneBit(Math.max(count, 1)) * 4;
+        int mask = capacity - 1;
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+
+        int numIds = 0;
+        for (int row = 0; row < count; row++)
+        {
+            int offset = row * stride;
+            int hash = 1;
+            for (int i = 0; i < components; i++)
+            {
+                hash = 31 * hash + Float.floatToIntBits(data[offset + i]);
+            }
+            hash ^= hash >>> 16;
+
+            int slot = hash & mask;
+            while (table[slot] != EMPTY && !isEqual(data, table[slot] * stride, offset, components))
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            if (table[slot] == EMPTY)
+            {
+                table[slot] = row;
+                if (unique != null)
+                {
+                    System.arraycopy(data, offset, unique, numIds * stride, stride);
+                }
+                ids[row] = numIds++;
+            }
+            else
+            {
+                ids[row] = ids[table[slot]];
+            }
+        }
+
+        return numIds;
+    }
+
+
+    private static boolean isEqual(float[] data, int offsetA, int offsetB, int components)
+    {
+        for (int i = 0; i < components; i++)
+        {
+            if (Float.floatToIntBits(data[offsetA + i]) != Float.floatToIntBits(data[offsetB + i]))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,203 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+/**
+ * The view volume of a projection matrix, used to skip the draws of meshes
+ * that are entirely off-screen
+ *
+ * setProjection() extracts the six planes of the frustum in eye coordinates
+ * once per frame. isVisible() then tests the MeshBounds of a mesh under its
+ * model-view matrix: the bounding sphere first, which settles most meshes
+ * that are well inside or well outside, then the bounding box transformed
+ * into an oriented box for those crossing a plane. The test is conservative,
+ * a mesh is only culled if it is certainly outside.
+ *
+ * isVisible() counts the meshes it passes and culls. This class is not
+ * thread-safe, each renderer owns its own. classify() only reads the planes
+ * and may be called from several threads between calls to setProjection()
+ */
+public class ViewFrustum
+{
+    public static final int OUTSIDE = 0;
+    public static final int INTERSECTING = 1;
+    public static final int INSIDE = 2;
+
+    private static final int NUM_PLANES = 6;
+
+    // a, b, c, d of each plane, normalized and facing the inside of the volume,
+    // in the order left, right, bottom, top, near, far
+    private final float[] mPlanes = new float[NUM_PLANES * 4];
+
+    private long mVisibleCount = 0;
+    private long mCulledCount = 0;
+
+
+    public ViewFrustum()
+    {
+        // Accepts everything until a projection is set
+        for (int i = 0; i < NUM_PLANES; i++)
+        {
+            mPlanes[i * 4 + 3] = Float.POSITIVE_INFINITY;
+        }
+    }
+
+
+    // Extracts the planes from the column-major matrix at offset. With a projection
+    // matrix the planes are in eye coordinates, with a model-view-projection matrix
+    // they are in the coordinates of the model
+    public void setProjection(float[] m, int offset)
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            // Planes 2i and 2i + 1 are row 3 plus and minus row i
+            for (int sign = 0; sign < 2; sign++)
+            {
+                float s = sign == 0 ? 1.0f : -1.0f;
+                int plane = (i * 2 + sign) * 4;
+                float a = m[offset + 3] + s * m[offset + i];
+                float b = m[offset + 7] + s * m[offset + 4 + i];
+                float c = m[offset + 11] + s * m[offset + 8 + i];
+                float d = m[offset + 15] + s * m[offset + 12 + i];
+
+                float length = (float) Math.sqrt(a * a + b * b + c * c);
+                if (length > 0.0f)
+                {
+                    a /= length;
+                    b /= length;
+                    c /= length;
+                    d /= length;
+                }
+
+                mPlanes[plane] = a;
+                mPlanes[plane + 1] = b;
+                mPlanes[plane + 2] = c;
+                mPlanes[plane + 3] = d;
+            }
+        }
+    }
+
+
+    // Returns OUTSIDE, INTERSECTING or INSIDE for the bounds placed by the column-major
+    // model-view matrix at offset
+    public int classify(MeshBounds bounds, float[] modelView, int offset)
+    {
+        float cx = bounds.getCenter(0);
+        float cy = bounds.getCenter(1);
+        float cz = bounds.getCenter(2);
+
+        // Center of the bounds in eye coordinates
+        float ex = modelView[offset] * cx + modelView[offset + 4] * cy + modelView[offset + 8] * cz + modelView[offset + 12];
+        float ey = modelView[offset + 1] * cx + modelView[offset + 5] * cy + modelView[offset + 9] * cz + modelView[offset + 13];
+        float ez = modelView[offset + 2] * cx + modelView[offset + 6] * cy + modelView[offset + 10] * cz + modelView[offset + 14];
+
+        // The sphere grows with the largest scale of the model-view matrix
+        float scaleSq = Math.max(lengthSq(modelView, offset),
+                Math.max(lengthSq(modelView, offset + 4), lengthSq(modelView, offset + 8)));
+        float radius = bounds.getRadius() * (float) Math.sqrt(scaleSq);
+
+        int sphere = classifySphere(ex, ey, ez, radius);
+        if (sphere != INTERSECTING)
+        {
+            return sphere;
+        }
+
+        // Half axes of the box in eye coordinates
+        float hx = bounds.getHalfExtent(0);
+        float hy = bounds.getHalfExtent(1);
+        float hz = bounds.getHalfExtent(2);
+
+        int result = INSIDE;
+        for (int plane = 0; plane < NUM_PLANES * 4; plane += 4)
+        {
+            float a = mPlanes[plane];
+            float b = mPlanes[plane + 1];
+            float c = mPlanes[plane + 2];
+
+            float extent = Math.abs(a * modelView[offset] + b * modelView[offset + 1] + c * modelView[offset + 2]) * hx
+                    + Math.abs(a * modelView[offset + 4] + b * modelView[offset + 5] + c * modelView[offset + 6]) * hy
+                    + Math.abs(a * modelView[offset + 8] + b * modelView[offset + 9] + c * modelView[offset + 10]) * hz;
+            float distance = a * ex + b * ey + c * ez + mPlanes[plane + 3];
+
+            if (distance < -extent)
+            {
+                return OUTSIDE;
+            }
+
+            if (distance < extent)
+            {
+                result = INTERSECTING;
+            }
+        }
+
+        return result;
+    }
+
+
+    // Sphere given in the coordinates of the planes
+    public int classifySphere(float x, float y, float z, float radius)
+    {
+        int result = INSIDE;
+        for (int plane = 0; plane < NUM_PLANES * 4; plane += 4)
+        {
+            float distance = mPlanes[plane] * x + mPlanes[plane + 1] * y
+                    + mPlanes[plane + 2] * z + mPlanes[plane + 3];
+
+            if (distance < -radius)
+            {
+                return OUTSIDE;
+            }
+
+            if (distance < radius)
+            {
+                result = INTERSECTING;
+            }
+        }
+
+        return result;
+    }
+
+
+    // Counts the result, renderers skip the draw when it returns false
+    public boolean isVisible(MeshBounds bounds, float[] modelView, int offset)
+    {
+        if (classify(bounds, modelView, offset) == OUTSIDE)
+        {
+            mCulledCount++;
+            return false;
+        }
+
+        mVisibleCount++;
+        return true;
+    }
+
+
+    public long getVisibleCount()
+    {
+        return mVisibleCount;
+    }
+
+
+    public long getCulledCount()
+    {
+        return mCulledCount;
+    }
+
+
+    public void resetCounters()
+    {
+        mVisibleCount = 0;
+        mCulledCount = 0;
+    }
+
+
+    private static float lengthSq(float[] m, int offset)
+    {
+        return m[offset] * m[offset] + m[offset + 1] * m[offset + 1] + m[offset + 2] * m[offset + 2];
+    }
+}
@@ -0,0 +1,265 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.CoreSamples.app.GroundPlane;
+
+import com.vuforia.engine.SampleApplication.utils.FrameAllocationTracker;
+import com.vuforia.engine.SampleApplication.utils.SampleArrayMath;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class GroundPlaneFrameMatricesTest
+{
+    private static final float EPSILON = 0.0001f;
+
+    private static final int WARM_UP_FRAMES = 2000;
+    private static final int MEASURED_FRAMES = 2000;
+
+    /**
+     * Counts the bytes allocated by the calling thread rather than objects, a budget
+     * of 0 means the same. What reading the counter allocates itself is measured
+     * in start() and subtracted
+     */
+    private static class ThreadAllocationCounter implements FrameAllocationTracker.AllocationCounter
+    {
+        private final com.sun.management.ThreadMXBean mThreads;
+        private final long mThreadId = Thread.currentThread().getId();
+
+        private long mStart;
+        private long mReadCost;
+        private long mNumReads;
+
+
+        ThreadAllocationCounter(com.sun.management.ThreadMXBean threads)
+        {
+            mThreads = threads;
+        }
+
+
+        @Override
+        public void start()
+        {
+            mThreads.setThreadAllocatedMemoryEnabled(true);
+
+            mReadCost = Long.MAX_VALUE;
+            for (int i = 0; i < 100; i++)
+            {
+                long first = mThreads.getThreadAllocatedBytes(mThreadId);
+                long second = mThreads.getThreadAllocatedBytes(mThreadId);
+                mReadCost = Math.min(mReadCost, second - first);
+            }
+
+            mNumReads = 0;
+            mStart = mThreads.getThreadAllocatedBytes(mThreadId);
+        }
+
+
+        @Override
+        public void stop()
+        {
+        }
+
+
+        @Override
+        public long getAllocationCount()
+        {
+            long allocated = mThreads.getThreadAllocatedBytes(mThreadId);
+            mNumReads++;
+            return allocated - mStart - mNumReads * mReadCost;
+        }
+    }
+
+    // Synthetic poses, updated in place every frame
+    private final float[] mDevicePose = new float[16];
+    private final float[][] mPoses = new float[GroundPlaneFrameLogic.NUM_POSES][16];
+    private final float[] mProjection = new float[16];
+    private final float[] mMidAirAnchorPose = new float[12];
+    private float mChecksum;
+
+    private GroundPlaneFrameMatrices mFrameLogic;
+
+
+    @Before
+    public void setUp()
+    {
+        mFrameLogic = new GroundPlaneFrameMatrices();
+
+        // A perspective projection with near and far planes at 0.01 and 5
+        mProjection[0] = 2.0f;
+        mProjection[5] = 1.5f;
+        mProjection[10] = -1.004f;
+        mProjection[11] = -1.0f;
+        mProjection[14] = -0.02f;
+    }
+
+
+    private FrameAllocationTracker createTracker()
+    {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+        ThreadAllocationCounter counter = new ThreadAllocationCounter((com.sun.management.ThreadMXBean) threads);
+        return new FrameAllocationTracker(counter, 0, WARM_UP_FRAMES);
+    }
+
+
+    // The device walks around and the anchors move a little, as tracked by Vuforia
+    private void setPoses(int frame)
+    {
+        float angle = frame * 0.5f;
+
+        SampleArrayMath.Matrix44FIdentity(mDevicePose, 0);
+        SampleArrayMath.Matrix44FTranslate(mDevicePose, 0, 0.1f * (frame % 50), -1.4f, 0.2f);
+        SampleArrayMath.Matrix44FRotate(mDevicePose, 0, angle, 0.2f, 1.0f, 0.1f);
+        mFrameLogic.setDevicePose(mDevicePose);
+
+        for (int pose = 0; pose < GroundPlaneFrameLogic.NUM_POSES; pose++)
+        {
+            SampleArrayMath.Matrix44FIdentity(mPoses[pose], 0);
+            SampleArrayMath.Matrix44FTranslate(mPoses[pose], 0, pose * 0.3f, 0.0f, -1.0f - 0.001f * frame);
+            SampleArrayMath.Matrix44FRotate(mPoses[pose], 0, angle * pose, 0.0f, 1.0f, 0.0f);
+            mFrameLogic.setPose(pose, mPoses[pose]);
+        }
+
+        mFrameLogic.setProductTransform(1.0f + 0.001f * (frame % 100), angle);
+    }
+
+
+    // What GroundPlaneRenderer does on every frame, reading every matrix it uses
+    private void renderFrame(int frame)
+    {
+        setPoses(frame);
+        mFrameLogic.computeMidAirAnchorPose(mMidAirAnchorPose, 1.5f);
+
+        for (int augmentation = GroundPlaneFrameLogic.AUGMENTATION_ASTRONAUT;
+             augmentation <= GroundPlaneFrameLogic.AUGMENTATION_RETICLE; augmentation++)
+        {
+            mFrameLogic.computeAugmentation(augmentation, mProjection);
+            mChecksum += mFrameLogic.getModelViewMatrix()[12]
+                    + mFrameLogic.getModelViewProjectionMatrix()[15]
+                    + mFrameLogic.getNormalMatrix()[0];
+        }
+    }
+
+
+    @Test
+    public void steadyStateFramesDoNotAllocate()
+    {
+        FrameAllocationTracker tracker = createTracker();
+        tracker.start();
+
+        for (int frame = 0; frame < WARM_UP_FRAMES + MEASURED_FRAMES; frame++)
+        {
+            tracker.beginFrame();
+            renderFrame(frame);
+            tracker.endFrame();
+        }
+
+        tracker.stop();
+
+        assertEquals(WARM_UP_FRAMES + MEASURED_FRAMES, tracker.getFrameCount());
+        assertEquals("Bytes allocated by the worst frame", 0, tracker.getMaxSteadyStateAllocations());
+        assertTrue(tracker.isWithinBudget());
+        assertFalse(Float.isNaN(mChecksum));
+    }
+
+
+    @Test
+    public void theTrackerCatchesAFrameThatAllocates()
+    {
+        FrameAllocationTracker tracker = createTracker();
+        tracker.start();
+
+        int allocatingFrameBytes = 0;
+        for (int frame = 0; frame < WARM_UP_FRAMES + MEASURED_FRAMES; frame++)
+        {
+            tracker.beginFrame();
+            renderFrame(frame);
+
+            // The kind of garbage the frame logic replaced, kept so that it is not optimized away
+            boolean isAllocatingFrame = frame == WARM_UP_FRAMES + MEASURED_FRAMES / 2;
+            if (isAllocatingFrame)
+            {
+                float[] modelView = new float[16];
+                mChecksum += modelView.length;
+            }
+
+            int allocated = tracker.endFrame();
+            if (isAllocatingFrame)
+            {
+                allocatingFrameBytes = allocated;
+            }
+        }
+
+        tracker.stop();
+
+        // Run after the other tests, the JVM itself sometimes allocates a few hundred bytes
+        // on the thread, which may count one more frame
+        assertTrue("Bytes of the allocating frame " + allocatingFrameBytes, allocatingFrameBytes >= 16 * 4);
+        assertFalse(tracker.isWithinBudget());
+        assertTrue(tracker.getFramesOverBudget() >= 1);
+    }
+
+
+    @Test
+    public void computesTheMatricesOfAnAugmentation()
+    {
+        // The device is 2 meters above the origin, looking down -z
+        SampleArrayMath.Matrix44FIdentity(mDevicePose, 0);
+        SampleArrayMath.Matrix44FTranslate(mDevicePose, 0, 0.0f, 2.0f, 0.0f);
+        mFrameLogic.setDevicePose(mDevicePose);
+
+        float[] hitTestPose = new float[16];
+        SampleArrayMath.Matrix44FIdentity(hitTestPose, 0);
+        SampleArrayMath.Matrix44FTranslate(hitTestPose, 0, 1.0f, 0.0f, -3.0f);
+        mFrameLogic.setPose(GroundPlaneFrameLogic.POSE_HIT_TEST, hitTestPose);
+
+        mFrameLogic.computeAugmentation(GroundPlaneFrameLogic.AUGMENTATION_ASTRONAUT, mProjection);
+
+        // The astronaut is moved 0.3 to the left of the hit, in camera space
+        float[] modelView = mFrameLogic.getModelViewMatrix();
+        assertEquals(0.7f, modelView[12], EPSILON);
+        assertEquals(-2.0f, modelView[13], EPSILON);
+        assertEquals(-3.0f, modelView[14], EPSILON);
+        assertEquals(10.0f, modelView[0], EPSILON);
+
+        float[] expected = new float[16];
+        SampleArrayMath.Matrix44FMultiply(expected, 0, mProjection, 0, modelView, 0);
+        assertArrayEquals(expected, mFrameLogic.getModelViewProjectionMatrix(), EPSILON);
+
+        // The normal matrix of a uniform scale is the inverse scale
+        assertEquals(0.1f, mFrameLogic.getNormalMatrix()[0], EPSILON);
+        assertEquals(0.0f, mFrameLogic.getNormalMatrix()[12], EPSILON);
+    }
+
+
+    @Test
+    public void placesTheMidAirAnchorInFrontOfTheDevice()
+    {
+        SampleArrayMath.Matrix44FIdentity(mDevicePose, 0);
+        SampleArrayMath.Matrix44FTranslate(mDevicePose, 0, 0.5f, 1.0f, 2.0f);
+        SampleArrayMath.Matrix44FRotate(mDevicePose, 0, 90.0f, 0.0f, 1.0f, 0.0f);
+        mFrameLogic.setDevicePose(mDevicePose);
+
+        mFrameLogic.computeMidAirAnchorPose(mMidAirAnchorPose, 2.0f);
+
+        // Rotated a quarter turn around y, the device looks down -x
+        assertArrayEquals(new float[] {
+                1, 0, 0, -1.5f,
+                0, 1, 0, 1.0f,
+                0, 0, 1, 2.0f}, mMidAirAnchorPose, EPSILON);
+    }
+}
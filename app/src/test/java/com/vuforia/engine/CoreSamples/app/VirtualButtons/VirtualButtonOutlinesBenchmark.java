@@ -0,0 +1,242 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.CoreSamples.app.VirtualButtons;
+
+import com.vuforia.engine.SampleApplication.utils.Benchmarks;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Compares the per-frame CPU cost of the virtual button outlines, as
+ * renderFrame() built them before VirtualButtonOutlines, with the cost of
+ * filling the state array of VirtualButtonOutlines, for 4 and 64 synthetic
+ * buttons that all have a result
+ *
+ * The GL calls are left out of both. The old path allocated a Vuforia
+ * Rectangle for every button of the dataset per result, which needs the
+ * native library, so a plain object of four floats stands in for it
+ */
+public class VirtualButtonOutlinesBenchmark
+{
+    private static final int[] NUM_BUTTONS = {4, 64};
+    private static final int FRAMES_PER_RUN = 1000;
+    private static final int RUNS = 21;
+    private static final int FIRST_ID = 1000;
+
+    // Stands for com.vuforia.Rectangle
+    private static final class Rectangle
+    {
+        private final float mLeftTopX;
+        private final float mLeftTopY;
+        private final float mRightBottomX;
+        private final float mRightBottomY;
+
+
+        Rectangle(float leftTopX, float leftTopY, float rightBottomX, float rightBottomY)
+        {
+            mLeftTopX = leftTopX;
+            mLeftTopY = leftTopY;
+            mRightBottomX = rightBottomX;
+            mRightBottomY = rightBottomY;
+        }
+    }
+
+    // Keeps the result of the last frame alive so that the work is not optimized away
+    private ByteBuffer mVertices;
+    private int mTextureIndex;
+
+
+    private static String[] createNames(int numButtons)
+    {
+        String[] names = new String[numButtons];
+        for (int i = 0; i < numButtons; i++)
+        {
+            names[i] = "button" + i;
+        }
+
+        return names;
+    }
+
+
+    // A row of buttons of the size of those of the dataset
+    private static float[][] createRectangles(int numButtons)
+    {
+        float[][] rectangles = new float[numButtons][];
+        for (int i = 0; i < numButtons; i++)
+        {
+            float left = -0.1f + i * 0.04f;
+            rectangles[i] = new float[] {left, -0.05352f, left + 0.03293f, -0.06587f};
+        }
+
+        return rectangles;
+    }
+
+
+    // Vuforia reports the results in any order, every third button is pressed
+    private static boolean isPressed(int result)
+    {
+        return result % 3 == 0;
+    }
+
+
+    // What renderFrame() did on every frame before the outlines were kept in a buffer object
+    private void renderOldFrame(String[] names, String[] resultNames, float[][] rectangles)
+    {
+        int numButtons = names.length;
+        float[] vbVertices = new float[resultNames.length * 24];
+        int vbCounter = 0;
+        int textureIndex = 0;
+
+        for (int result = 0; result < resultNames.length; result++)
+        {
+            int buttonIndex = 0;
+            for (int j = 0; j < numButtons; ++j)
+            {
+                if (resultNames[result].compareTo(names[j]) == 0)
+                {
+                    buttonIndex = j;
+                    break;
+                }
+            }
+
+            if (isPressed(result))
+            {
+                textureIndex = buttonIndex + 1;
+            }
+
+            Rectangle[] vbRectangle = new Rectangle[numButtons];
+            for (int j = 0; j < numButtons; j++)
+            {
+                vbRectangle[j] = new Rectangle(rectangles[j][0], rectangles[j][1],
+                        rectangles[j][2], rectangles[j][3]);
+            }
+
+            Rectangle rectangle = vbRectangle[buttonIndex];
+            float[] corners = {
+                    rectangle.mLeftTopX, rectangle.mLeftTopY,
+                    rectangle.mRightBottomX, rectangle.mLeftTopY,
+                    rectangle.mRightBottomX, rectangle.mLeftTopY,
+                    rectangle.mRightBottomX, rectangle.mRightBottomY,
+                    rectangle.mRightBottomX, rectangle.mRightBottomY,
+                    rectangle.mLeftTopX, rectangle.mRightBottomY,
+                    rectangle.mLeftTopX, rectangle.mRightBottomY,
+                    rectangle.mLeftTopX, rectangle.mLeftTopY};
+            for (int corner = 0; corner < 8; corner++)
+            {
+                vbVertices[vbCounter++] = corners[corner * 2];
+                vbVertices[vbCounter++] = corners[corner * 2 + 1];
+                vbVertices[vbCounter++] = 0.0f;
+            }
+        }
+
+        // MeshObject.fillBuffer(), for the client-side vertex array of glVertexAttribPointer
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 * vbVertices.length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        FloatBuffer floats = buffer.asFloatBuffer();
+        floats.put(vbVertices);
+
+        mVertices = buffer;
+        mTextureIndex = textureIndex;
+    }
+
+
+    // What renderFrame() does now before drawing the outlines
+    private void renderNewFrame(VirtualButtonOutlines outlines, int[] resultIds)
+    {
+        int textureIndex = 0;
+        outlines.clearStates();
+
+        for (int result = 0; result < resultIds.length; result++)
+        {
+            int buttonIndex = outlines.indexOfId(resultIds[result]);
+            if (buttonIndex < 0)
+            {
+                continue;
+            }
+
+            if (isPressed(result))
+            {
+                textureIndex = buttonIndex + 1;
+                outlines.setState(buttonIndex, VirtualButtonOutlines.STATE_PRESSED);
+            }
+            else
+            {
+                outlines.setState(buttonIndex, VirtualButtonOutlines.STATE_RELEASED);
+            }
+        }
+
+        mTextureIndex = textureIndex;
+    }
+
+
+    @Test
+    public void perFrameCostOfTheOutlines() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        for (int numButtons : NUM_BUTTONS)
+        {
+            final String[] names = createNames(numButtons);
+            final float[][] rectangles = createRectangles(numButtons);
+
+            // The results come in reverse order of the dataset
+            final String[] resultNames = new String[numButtons];
+            final int[] resultIds = new int[numButtons];
+            for (int result = 0; result < numButtons; result++)
+            {
+                resultNames[result] = new String(names[numButtons - 1 - result]);
+                resultIds[result] = FIRST_ID + numButtons - 1 - result;
+            }
+
+            // No GL call is made without drawing
+            final VirtualButtonOutlines outlines = new VirtualButtonOutlines(null,
+                    names, rectangles);
+            for (int i = 0; i < numButtons; i++)
+            {
+                outlines.bindId(FIRST_ID + i, names[i]);
+            }
+
+            Benchmarks.Task oldFrames = new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    for (int frame = 0; frame < FRAMES_PER_RUN; frame++)
+                    {
+                        renderOldFrame(names, resultNames, rectangles);
+                    }
+                }
+            };
+
+            Benchmarks.Task newFrames = new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    for (int frame = 0; frame < FRAMES_PER_RUN; frame++)
+                    {
+                        renderNewFrame(outlines, resultIds);
+                    }
+                }
+            };
+
+            double oldMicros = Benchmarks.medianNanos(RUNS, oldFrames) / 1e3 / FRAMES_PER_RUN;
+            double newMicros = Benchmarks.medianNanos(RUNS, newFrames) / 1e3 / FRAMES_PER_RUN;
+            long oldBytes = Benchmarks.allocatedBytes(oldFrames) / FRAMES_PER_RUN;
+            long newBytes = Benchmarks.allocatedBytes(newFrames) / FRAMES_PER_RUN;
+
+            Benchmarks.report("VirtualButtonOutlines", "%d buttons: before %.2f us %d bytes per frame, "
+                            + "after %.2f us %d bytes per frame, %.1fx faster",
+                    numButtons, oldMicros, oldBytes, newMicros, newBytes, oldMicros / newMicros);
+        }
+    }
+}
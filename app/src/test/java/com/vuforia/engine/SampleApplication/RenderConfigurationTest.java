@@ -0,0 +1,231 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RenderConfigurationTest
+{
+    private static final float NEAR_PLANE = 0.01f;
+    private static final float FAR_PLANE = 5.0f;
+
+    private static final int WRITERS_PER_CHANGE = 2;
+    private static final int CHANGES_PER_WRITER = 20000;
+
+    // Grows the screen by a pixel, its height is twice its width and odd widths are portrait
+    private static final RenderConfiguration.Change GROW_SCREEN = new RenderConfiguration.Change()
+    {
+        @Override
+        public RenderConfiguration apply(RenderConfiguration current)
+        {
+            int width = current.getScreenWidth() + 1;
+            return current.withScreen(width, 2 * width, width % 2 == 1);
+        }
+    };
+
+    // Moves the viewport by a pixel, its y, width and height all equal its x
+    private static final RenderConfiguration.Change MOVE_VIEWPORT = new RenderConfiguration.Change()
+    {
+        @Override
+        public RenderConfiguration apply(RenderConfiguration current)
+        {
+            int[] viewport = new int[4];
+            current.getViewport(viewport);
+            int x = viewport[0] + 1;
+            return current.withRenderingPrimitives(null, new int[] { x, x, x, x });
+        }
+    };
+
+    private static final RenderConfiguration.Change TOGGLE_ACTIVE = new RenderConfiguration.Change()
+    {
+        @Override
+        public RenderConfiguration apply(RenderConfiguration current)
+        {
+            return current.withActive(!current.isActive());
+        }
+    };
+
+    // What configureVideoBackground() publishes
+    private static final RenderConfiguration.Change NEXT_VERSION = new RenderConfiguration.Change()
+    {
+        @Override
+        public RenderConfiguration apply(RenderConfiguration current)
+        {
+            return current.withNextVersion();
+        }
+    };
+
+    private static final RenderConfiguration.Change[] CHANGES =
+            { GROW_SCREEN, MOVE_VIEWPORT, TOGGLE_ACTIVE, NEXT_VERSION };
+
+    private final AtomicReference<RenderConfiguration> mConfiguration =
+            new AtomicReference<>(new RenderConfiguration(NEAR_PLANE, FAR_PLANE));
+
+
+    // Checks what every change keeps true, a torn configuration would break it
+    private static void assertConsistent(RenderConfiguration configuration)
+    {
+        int width = configuration.getScreenWidth();
+        assertEquals(configuration.toString(), 2 * width, configuration.getScreenHeight());
+        assertEquals(configuration.toString(), width % 2 == 1, configuration.isPortrait());
+
+        int[] viewport = new int[4];
+        configuration.getViewport(viewport);
+        for (int i = 1; i < viewport.length; i++)
+        {
+            assertEquals(configuration.toString(), viewport[0], viewport[i]);
+        }
+
+        assertEquals(NEAR_PLANE, configuration.getNearPlane(), 0.0f);
+        assertEquals(FAR_PLANE, configuration.getFarPlane(), 0.0f);
+
+        // Every change is a version, at least as many as the screen and viewport moves
+        assertTrue(configuration.toString(), configuration.getVersion() >= width + viewport[0]);
+    }
+
+
+    @Test
+    public void updateLeavesAnUnchangedConfiguration()
+    {
+        RenderConfiguration initial = mConfiguration.get();
+        RenderConfiguration previous = RenderConfiguration.update(mConfiguration, new RenderConfiguration.Change()
+        {
+            @Override
+            public RenderConfiguration apply(RenderConfiguration current)
+            {
+                return current;
+            }
+        });
+
+        assertSame(initial, previous);
+        assertSame(initial, mConfiguration.get());
+        assertEquals(0, initial.getVersion());
+    }
+
+
+    @Test
+    public void updateReturnsTheReplacedConfiguration()
+    {
+        RenderConfiguration initial = mConfiguration.get();
+
+        assertSame(initial, RenderConfiguration.update(mConfiguration, TOGGLE_ACTIVE));
+        assertTrue(mConfiguration.get().isActive());
+        assertEquals(1, mConfiguration.get().getVersion());
+
+        assertFalse(initial.isActive());
+        assertFalse(mConfiguration.get().hasRenderingPrimitives());
+    }
+
+
+    /**
+     * Writers apply changes as SampleAppRenderer does from the UI and rendering
+     * threads, while a simulated render loop reads the configuration once per
+     * frame. No frame may see a configuration mixing two changes, or a version
+     * older than the frame before it, and no change may be lost
+     */
+    @Test
+    public void concurrentChangesAreNeitherTornNorLost() throws Exception
+    {
+        final int numWriters = WRITERS_PER_CHANGE * CHANGES.length;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < numWriters; i++)
+        {
+            final RenderConfiguration.Change change = CHANGES[i % CHANGES.length];
+            Thread writer = new Thread("RenderConfigurationWriter" + i)
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        for (int n = 0; n < CHANGES_PER_WRITER; n++)
+                        {
+                            RenderConfiguration previous = RenderConfiguration.update(mConfiguration, change);
+                            assertConsistent(previous);
+                        }
+                    }
+                    catch (Throwable t)
+                    {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            };
+            writers.add(writer);
+            writer.start();
+        }
+
+        final long[] frames = new long[1];
+        Thread renderer = new Thread("RenderConfigurationReader")
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    start.await();
+                    long lastVersion = -1;
+                    while (writing.get())
+                    {
+                        RenderConfiguration configuration = mConfiguration.get();
+                        assertConsistent(configuration);
+                        assertTrue(configuration + " after version " + lastVersion,
+                                configuration.getVersion() >= lastVersion);
+                        lastVersion = configuration.getVersion();
+                        frames[0]++;
+                    }
+                }
+                catch (Throwable t)
+                {
+                    failure.compareAndSet(null, t);
+                }
+            }
+        };
+        renderer.start();
+
+        start.countDown();
+        for (Thread writer : writers)
+        {
+            writer.join();
+        }
+        writing.set(false);
+        renderer.join();
+
+        if (failure.get() != null)
+        {
+            throw new AssertionError(failure.get());
+        }
+        assertTrue(frames[0] > 0);
+
+        RenderConfiguration last = mConfiguration.get();
+        assertConsistent(last);
+
+        int changesOfEachKind = WRITERS_PER_CHANGE * CHANGES_PER_WRITER;
+        int[] viewport = new int[4];
+        last.getViewport(viewport);
+        assertEquals(changesOfEachKind, last.getScreenWidth());
+        assertEquals(changesOfEachKind, viewport[0]);
+        assertEquals(changesOfEachKind % 2 == 1, last.isActive());
+        assertEquals((long) numWriters * CHANGES_PER_WRITER, last.getVersion());
+    }
+}
@@ -0,0 +1,193 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication;
+
+import com.vuforia.engine.SampleApplication.utils.RecordingGL;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VideoBackgroundCacheTest
+{
+    private static final int NUM_FRAMES = 1000;
+
+    // Stands for the RenderingPrimitives, counts every value read from it
+    private static class CountingSource implements VideoBackgroundCache.Source
+    {
+        private final float[] mProjectionMatrix = new float[16];
+        private int mNumReads = 0;
+
+
+        CountingSource(float scale)
+        {
+            for (int i = 0; i < 16; i += 5)
+            {
+                mProjectionMatrix[i] = scale;
+            }
+        }
+
+
+        @Override
+        public float[] getProjectionMatrix()
+        {
+            mNumReads++;
+            return mProjectionMatrix.clone();
+        }
+
+
+        @Override
+        public ByteBuffer getPositions()
+        {
+            mNumReads++;
+            return ByteBuffer.allocate(4 * 3 * 4);
+        }
+
+
+        @Override
+        public ByteBuffer getUVs()
+        {
+            mNumReads++;
+            return ByteBuffer.allocate(4 * 2 * 4);
+        }
+
+
+        @Override
+        public ByteBuffer getTriangles()
+        {
+            mNumReads++;
+            return ByteBuffer.allocate(6 * 2);
+        }
+
+
+        @Override
+        public int getNumTriangles()
+        {
+            mNumReads++;
+            return 2;
+        }
+    }
+
+
+    private RecordingGL mGL;
+    private VideoBackgroundCache mCache;
+    private RenderConfiguration mConfiguration;
+    private CountingSource mSource;
+
+
+    @Before
+    public void setUp()
+    {
+        mGL = new RecordingGL();
+        mCache = new VideoBackgroundCache(mGL);
+        mConfiguration = new RenderConfiguration(0.01f, 5.0f)
+                .withScreen(1920, 1080, false)
+                .withActive(true);
+        mSource = new CountingSource(1.0f);
+    }
+
+
+    // What SampleAppRenderer.render() does on every frame
+    private void renderFrames(int numFrames)
+    {
+        for (int frame = 0; frame < numFrames; frame++)
+        {
+            mCache.update(mConfiguration.getVersion(), mSource);
+            mCache.bind(0, 1);
+            mCache.draw();
+            mCache.unbind(0, 1);
+        }
+    }
+
+
+    @Test
+    public void readsEveryValueOnceOnTheFirstFrame()
+    {
+        renderFrames(1);
+
+        assertEquals(5, mSource.mNumReads);
+        assertEquals(5, mCache.getFetchCount());
+        assertTrue(mCache.hasMesh());
+        assertArrayEquals(mSource.mProjectionMatrix, mCache.getProjectionMatrix(), 0.0f);
+        assertEquals(3, mGL.count("genBuffer"));
+        assertEquals(3, mGL.count("bufferData"));
+    }
+
+
+    @Test
+    public void fetchCountStaysFlatAcrossSteadyStateFrames()
+    {
+        renderFrames(1);
+        long fetchCount = mCache.getFetchCount();
+        mGL.clearCalls();
+
+        renderFrames(NUM_FRAMES);
+
+        assertEquals(fetchCount, mCache.getFetchCount());
+        assertEquals(5, mSource.mNumReads);
+        assertEquals(0, mGL.count("bufferData"));
+        assertEquals(NUM_FRAMES, mGL.count("drawElements"));
+    }
+
+
+    @Test
+    public void fetchCountRisesOnlyWhenTheVideoBackgroundIsConfigured()
+    {
+        renderFrames(NUM_FRAMES);
+        assertEquals(5, mCache.getFetchCount());
+
+        // What configureVideoBackground() publishes when the video mode changes
+        mConfiguration = mConfiguration.withNextVersion();
+        mSource = new CountingSource(2.0f);
+        renderFrames(NUM_FRAMES);
+
+        assertEquals(10, mCache.getFetchCount());
+        assertEquals(5, mSource.mNumReads);
+        assertArrayEquals(mSource.mProjectionMatrix, mCache.getProjectionMatrix(), 0.0f);
+
+        // The buffer names are reused
+        assertEquals(3, mGL.count("genBuffer"));
+        assertEquals(3, mGL.getNumLiveBuffers());
+    }
+
+
+    @Test
+    public void readsAgainInANewContext()
+    {
+        renderFrames(1);
+        mGL.loseContext();
+        mCache.onSurfaceCreated();
+        assertFalse(mCache.hasMesh());
+
+        renderFrames(NUM_FRAMES);
+
+        assertEquals(10, mCache.getFetchCount());
+        assertEquals(6, mGL.count("genBuffer"));
+        assertEquals(3, mGL.getNumLiveBuffers());
+    }
+
+
+    @Test
+    public void readsNothingWithoutRenderingPrimitives()
+    {
+        for (int frame = 0; frame < NUM_FRAMES; frame++)
+        {
+            mCache.update(mConfiguration);
+        }
+
+        assertEquals(0, mCache.getFetchCount());
+        assertFalse(mCache.hasMesh());
+        assertTrue(mGL.getCalls().isEmpty());
+    }
+}
@@ -0,0 +1,300 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AssetPreloaderTest
+{
+    private static final long TIMEOUT_MS = 5000;
+
+    // Records the calls of the preloader, from any thread
+    private static class RecordingListener implements AssetPreloader.Listener
+    {
+        final List<String> mProgress = new ArrayList<>();
+        final AtomicInteger mNumAllLoaded = new AtomicInteger(0);
+
+
+        @Override
+        public synchronized void onAssetLoaded(int numLoaded, int numAssets)
+        {
+            mProgress.add(numLoaded + "/" + numAssets);
+        }
+
+
+        @Override
+        public void onAllAssetsLoaded(AssetPreloader preloader)
+        {
+            mNumAllLoaded.incrementAndGet();
+        }
+    }
+
+
+    private final RecordingListener mListener = new RecordingListener();
+    private final AtomicInteger mNumQueuedLoads = new AtomicInteger(0);
+    private final AtomicBoolean mWasInterrupted = new AtomicBoolean(false);
+    private final CountDownLatch mBlockingLoaderStarted = new CountDownLatch(1);
+
+    private ExecutorService mExecutor;
+
+
+    @After
+    public void tearDown() throws InterruptedException
+    {
+        if (mExecutor != null)
+        {
+            mExecutor.shutdownNow();
+            assertTrue(mExecutor.awaitTermination(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        }
+    }
+
+
+    private static Callable<String> value(final String value)
+    {
+        return new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                return value;
+            }
+        };
+    }
+
+
+    // Blocks until interrupted, the way a decode is stopped by cancel()
+    private Callable<String> blocking()
+    {
+        return new Callable<String>()
+        {
+            @Override
+            public String call() throws InterruptedException
+            {
+                mBlockingLoaderStarted.countDown();
+                try
+                {
+                    new CountDownLatch(1).await();
+                }
+                catch (InterruptedException e)
+                {
+                    mWasInterrupted.set(true);
+                    throw e;
+                }
+
+                return "never";
+            }
+        };
+    }
+
+
+    private Callable<String> counting()
+    {
+        return new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                mNumQueuedLoads.incrementAndGet();
+                return "queued";
+            }
+        };
+    }
+
+
+    // One loading thread, so that the assets after the blocking one stay queued
+    private AssetPreloader startBlockedPreloader() throws InterruptedException
+    {
+        mExecutor = Executors.newSingleThreadExecutor();
+        AssetPreloader preloader = new AssetPreloader(mExecutor, mListener);
+        preloader.add("blocking", blocking());
+        preloader.add("queued 1", counting());
+        preloader.add("queued 2", counting());
+        preloader.start();
+
+        assertTrue(mBlockingLoaderStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        return preloader;
+    }
+
+
+    @Test
+    public void loadsEveryAssetOnADirectExecutor() throws InterruptedException
+    {
+        DirectExecutor executor = new DirectExecutor();
+        AssetPreloader preloader = new AssetPreloader(executor, mListener);
+        AssetPreloader.Asset<String> first = preloader.add("first", value("1"));
+        AssetPreloader.Asset<String> second = preloader.add("second", value("2"));
+        assertNull(first.get());
+
+        preloader.start();
+
+        assertEquals(2, executor.getNumExecuted());
+        assertTrue(preloader.isDone());
+        assertTrue(preloader.awaitDone());
+        assertEquals("1", first.get());
+        assertEquals("2", second.get());
+        assertEquals(2, preloader.getNumLoaded());
+        assertEquals("[1/2, 2/2]", mListener.mProgress.toString());
+        assertEquals(1, mListener.mNumAllLoaded.get());
+        assertTrue(preloader.getFailedAssets().isEmpty());
+    }
+
+
+    @Test
+    public void reportsTheAssetsThatFailed() throws InterruptedException
+    {
+        final IOException error = new IOException("Corrupt");
+
+        AssetPreloader preloader = new AssetPreloader(new DirectExecutor(), mListener);
+        preloader.add("loaded", value("1"));
+        AssetPreloader.Asset<String> failed = preloader.add("failed", new Callable<String>()
+        {
+            @Override
+            public String call() throws IOException
+            {
+                throw error;
+            }
+        });
+        preloader.start();
+
+        // A failed asset still counts as loaded, so that the preloader gets done
+        assertTrue(preloader.awaitDone());
+        assertEquals(2, preloader.getNumLoaded());
+        assertEquals(1, mListener.mNumAllLoaded.get());
+
+        List<AssetPreloader.Asset<?>> failedAssets = preloader.getFailedAssets();
+        assertEquals(1, failedAssets.size());
+        assertSame(failed, failedAssets.get(0));
+        assertEquals("failed", failed.getName());
+        assertSame(error, failed.getError());
+        assertNull(failed.get());
+    }
+
+
+    @Test
+    public void isDoneWithoutAssets() throws InterruptedException
+    {
+        AssetPreloader preloader = new AssetPreloader(new DirectExecutor(), mListener);
+        preloader.start();
+
+        assertTrue(preloader.awaitDone());
+        assertEquals(1, mListener.mNumAllLoaded.get());
+    }
+
+
+    @Test
+    public void assetsCannotBeAddedOnceStarted()
+    {
+        AssetPreloader preloader = new AssetPreloader(new DirectExecutor(), mListener);
+        preloader.start();
+
+        try
+        {
+            preloader.add("late", value("1"));
+            fail("Added an asset after start()");
+        }
+        catch (IllegalStateException e)
+        {
+            // Expected
+        }
+    }
+
+
+    @Test
+    public void cancelBeforeStartLoadsNothing() throws InterruptedException
+    {
+        DirectExecutor executor = new DirectExecutor();
+        AssetPreloader preloader = new AssetPreloader(executor, mListener);
+        preloader.add("first", value("1"));
+        preloader.cancel();
+        preloader.start();
+
+        assertEquals(0, executor.getNumExecuted());
+        assertFalse(preloader.awaitDone());
+        assertTrue(preloader.isCancelled());
+        assertEquals(0, mListener.mNumAllLoaded.get());
+    }
+
+
+    @Test
+    public void destroyingTheActivityStopsTheLoaders() throws InterruptedException
+    {
+        AssetPreloader preloader = startBlockedPreloader();
+
+        // What the activity does in onDestroy()
+        preloader.cancel();
+
+        mExecutor.shutdown();
+        assertTrue(mExecutor.awaitTermination(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        assertTrue(mWasInterrupted.get());
+        assertEquals(0, mNumQueuedLoads.get());
+        assertTrue(preloader.isCancelled());
+        assertFalse(preloader.isDone());
+        assertEquals(0, preloader.getNumLoaded());
+        assertTrue(mListener.mProgress.isEmpty());
+        assertEquals(0, mListener.mNumAllLoaded.get());
+    }
+
+
+    @Test
+    public void awaitDoneReturnsAfterCancel() throws InterruptedException
+    {
+        final AssetPreloader preloader = startBlockedPreloader();
+        final AtomicBoolean result = new AtomicBoolean(true);
+
+        Thread waiter = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    result.set(preloader.awaitDone());
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        waiter.start();
+
+        // Wait until the thread blocks for the assets
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (waiter.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(1);
+        }
+        assertTrue(waiter.isAlive());
+
+        preloader.cancel();
+        waiter.join(TIMEOUT_MS);
+
+        assertFalse(waiter.isAlive());
+        assertFalse(result.get());
+    }
+}
@@ -0,0 +1,131 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Assume;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Support class for the JVM benchmarks of the samples and their utilities
+ *
+ * The benchmarks are JUnit tests that are skipped unless the benchmarks system
+ * property is set, e.g. from the root of the project:
+ *   ./gradlew :app:testDebugUnitTest -Pbenchmarks --tests '*Benchmark'
+ * Their results are printed to the standard output. The numbers are only
+ * comparable with each other on the same machine
+ */
+public final class Benchmarks
+{
+    public interface Task
+    {
+        void run() throws Exception;
+    }
+
+    private static final int WARM_UP_RUNS = 5;
+
+
+    private Benchmarks()
+    {
+    }
+
+
+    // Skips the calling test unless the benchmarks were asked for
+    public static void assumeEnabled()
+    {
+        Assume.assumeTrue("Benchmarks are run with -Pbenchmarks", Boolean.getBoolean("benchmarks"));
+    }
+
+
+    // Median duration of the task in nanoseconds, after a few runs to warm up the JIT
+    public static long medianNanos(int runs, Task task) throws Exception
+    {
+        for (int run = 0; run < WARM_UP_RUNS; run++)
+        {
+            task.run();
+        }
+
+        long[] durations = new long[runs];
+        for (int run = 0; run < runs; run++)
+        {
+            long start = System.nanoTime();
+            task.run();
+            durations[run] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(durations);
+        return durations[runs / 2];
+    }
+
+
+    // Bytes allocated on the Java heap by the calling thread while running the task,
+    // or -1 if the JVM cannot count them
+    public static long allocatedBytes(Task task) throws Exception
+    {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean))
+        {
+            task.run();
+            return -1;
+        }
+
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        long threadId = Thread.currentThread().getId();
+        long before = counter.getThreadAllocatedBytes(threadId);
+        task.run();
+        return counter.getThreadAllocatedBytes(threadId) - before;
+    }
+
+
+    // Bytes of the Java heap still used after a garbage collection
+    public static long usedHeapBytes()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+
+    // Bytes of the direct buffers still allocated, where the meshes keep their geometry,
+    // or -1 if the JVM cannot count them. Unreachable buffers are freed by a cleaner thread
+    // after the garbage collection, which is given a moment to run
+    public static long directBufferBytes() throws InterruptedException
+    {
+        usedHeapBytes();
+        Thread.sleep(100);
+
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class))
+        {
+            if (pool.getName().equals("direct"))
+            {
+                return pool.getMemoryUsed();
+            }
+        }
+
+        return -1;
+    }
+
+
+    public static void report(String benchmark, String format, Object... args)
+    {
+        System.out.println(benchmark + ": " + String.format(Locale.US, format, args));
+    }
+
+
+    public static double toMillis(long nanos)
+    {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,70 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * Compares the time to load the .txt meshes by parsing them, the way
+ * SampleApplication3DModel falls back to, with loading their compiled versions
+ *
+ * Both include reading the file and filling native-order direct buffers
+ */
+public class CompiledMeshBenchmark
+{
+    private static final String[] MESHES = {"ImageTargets/Buildings.txt", "CylinderTargets/Sphere.txt"};
+    private static final int RUNS = 21;
+
+    // Keeps the result of the last load alive so that the work is not optimized away
+    private ByteBuffer[] mSections;
+
+
+    @Test
+    public void parseTextAndBinary() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        for (String name : MESHES)
+        {
+            final File text = TestAssets.getFile(name);
+            final String binaryName = CompiledMeshFormat.getCompiledName(name);
+            File binary = TestAssets.getFile(binaryName);
+
+            long textNs = Benchmarks.medianNanos(RUNS, new Benchmarks.Task()
+            {
+                @Override
+                public void run() throws Exception
+                {
+                    float[][] values = SampleMeshCompiler.parseText(text);
+                    mSections = new ByteBuffer[values.length];
+                    for (int section = 0; section < values.length; section++)
+                    {
+                        mSections[section] = SampleAssetReader.allocateNative(values[section].length * 4);
+                        mSections[section].asFloatBuffer().put(values[section]);
+                    }
+                }
+            });
+
+            long binaryNs = Benchmarks.medianNanos(RUNS, new Benchmarks.Task()
+            {
+                @Override
+                public void run() throws Exception
+                {
+                    mSections = CompiledMesh.readSections(TestAssets.read(binaryName));
+                }
+            });
+
+            Benchmarks.report("CompiledMesh", "%s: text %.2f ms (%d bytes), binary %.2f ms (%d bytes), %.1fx faster",
+                    name, Benchmarks.toMillis(textNs), text.length(), Benchmarks.toMillis(binaryNs),
+                    binary.length(), (double) textNs / binaryNs);
+        }
+    }
+}
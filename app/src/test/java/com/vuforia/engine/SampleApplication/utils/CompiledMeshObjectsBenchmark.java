@@ -0,0 +1,207 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Compares the construction time and the memory kept by the Teapot, the cube
+ * and the bowl and spoon as they were, built from array literals, and as they
+ * are, read from their compiled .mesh assets
+ *
+ * The first construction includes loading and initializing the class, it is
+ * only cold when the benchmark runs alone in its JVM. The Java heap and the
+ * direct buffers each instance keeps are averaged over EXTRA_INSTANCES, the
+ * static arrays of the literal classes are kept once for all and counted
+ * separately. The compiled meshes are read from the files the AssetManager
+ * would open, without the AssetManager itself
+ */
+public class CompiledMeshObjectsBenchmark
+{
+    private static final int RUNS = 21;
+    private static final int EXTRA_INSTANCES = 16;
+
+    private interface Factory
+    {
+        MeshObject create() throws Exception;
+    }
+
+    // Keeps the result of the last run alive so that the work is not optimized away
+    private MeshObject mMesh;
+
+
+    private static Factory literal(final Class<? extends MeshObject> meshClass)
+    {
+        return new Factory()
+        {
+            @Override
+            public MeshObject create() throws Exception
+            {
+                return meshClass.newInstance();
+            }
+        };
+    }
+
+
+    private static Factory compiled(final String assetName)
+    {
+        return new Factory()
+        {
+            @Override
+            public MeshObject create() throws Exception
+            {
+                CompiledMesh mesh = new CompiledMesh(assetName);
+                mesh.load(TestAssets.read(assetName));
+                return mesh;
+            }
+        };
+    }
+
+
+    private static long getClassFileSize(Class<?> meshClass) throws Exception
+    {
+        InputStream stream = meshClass.getResourceAsStream(meshClass.getSimpleName() + ".class");
+        assertNotNull(meshClass.getName(), stream);
+        try
+        {
+            long size = 0;
+            byte[] chunk = new byte[4096];
+            for (int read = stream.read(chunk); read >= 0; read = stream.read(chunk))
+            {
+                size += read;
+            }
+            return size;
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+
+    // Bytes of the content of the static arrays of the class, kept as long as it is loaded
+    private static long getStaticArrayBytes(Class<?> meshClass) throws Exception
+    {
+        long size = 0;
+        for (Field field : meshClass.getDeclaredFields())
+        {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType().isArray())
+            {
+                field.setAccessible(true);
+                Object array = field.get(null);
+                int elementSize = field.getType().getComponentType() == double.class ? 8
+                        : field.getType().getComponentType() == short.class ? 2 : 4;
+                size += (long) Array.getLength(array) * elementSize;
+            }
+        }
+
+        return size;
+    }
+
+
+    private static float[] getFloats(Buffer buffer)
+    {
+        FloatBuffer floats = MeshObject.asFloatBuffer(buffer);
+        float[] result = new float[floats.remaining()];
+        floats.get(result);
+        return result;
+    }
+
+
+    // Both versions give the same geometry, bit for bit
+    private static void assertSameGeometry(String name, MeshObject expected, MeshObject actual)
+    {
+        assertEquals(name, expected.getNumObjectVertex(), actual.getNumObjectVertex());
+        assertEquals(name, expected.getNumObjectIndex(), actual.getNumObjectIndex());
+        assertArrayEquals(name, getFloats(expected.getVertices()), getFloats(actual.getVertices()), 0.0f);
+        assertArrayEquals(name, getFloats(expected.getNormals()), getFloats(actual.getNormals()), 0.0f);
+        assertArrayEquals(name, getFloats(expected.getTexCoords()), getFloats(actual.getTexCoords()), 0.0f);
+        assertArrayEquals(name, expected.copyIndices(), actual.copyIndices());
+    }
+
+
+    private void measure(String name, Factory factory, long sourceBytes, long staticBytes)
+            throws Exception
+    {
+        final Factory create = factory;
+        List<MeshObject> kept = new ArrayList<MeshObject>();
+
+        long start = System.nanoTime();
+        kept.add(create.create());
+        long firstNanos = System.nanoTime() - start;
+
+        long direct = Benchmarks.directBufferBytes();
+        long heap = Benchmarks.usedHeapBytes();
+        for (int i = 0; i < EXTRA_INSTANCES; i++)
+        {
+            kept.add(create.create());
+        }
+        long extraHeap = Benchmarks.usedHeapBytes() - heap;
+        long extraDirect = Benchmarks.directBufferBytes() - direct;
+
+        long warmNanos = Benchmarks.medianNanos(RUNS, new Benchmarks.Task()
+        {
+            @Override
+            public void run() throws Exception
+            {
+                mMesh = create.create();
+            }
+        });
+        long allocated = Benchmarks.allocatedBytes(new Benchmarks.Task()
+        {
+            @Override
+            public void run() throws Exception
+            {
+                mMesh = create.create();
+            }
+        });
+
+        Benchmarks.report("CompiledMeshObjects", "%s from %d bytes: first %.2f ms, then %.3f ms "
+                        + "allocating %d heap bytes; static arrays %d bytes, each instance keeps %d heap "
+                        + "and %d direct bytes",
+                name, sourceBytes, Benchmarks.toMillis(firstNanos), Benchmarks.toMillis(warmNanos),
+                allocated, staticBytes, extraHeap / EXTRA_INSTANCES, extraDirect / EXTRA_INSTANCES);
+
+        assertEquals(EXTRA_INSTANCES + 1, kept.size());
+    }
+
+
+    private void compare(String name, Class<? extends MeshObject> literalClass, String assetName)
+            throws Exception
+    {
+        measure(name + " literal", literal(literalClass), getClassFileSize(literalClass),
+                getStaticArrayBytes(literalClass));
+        measure(name + " compiled", compiled(assetName), TestAssets.getFile(assetName).length(), 0);
+
+        assertSameGeometry(name, literal(literalClass).create(), compiled(assetName).create());
+    }
+
+
+    @Test
+    public void constructionTimeAndRetainedMemory() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        compare("Teapot", LiteralTeapot.class, "Teapot.mesh");
+        compare("Cube", LiteralCubeObject.class, "Cube.mesh");
+        compare("BowlAndSpoon", LiteralBowlAndSpoonObject.class, "MultiTargets/BowlAndSpoon.mesh");
+    }
+}
@@ -0,0 +1,72 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every task on the thread that submits it, before submit() returns
+ */
+class DirectExecutor extends AbstractExecutorService
+{
+    private volatile boolean mIsShutdown = false;
+    private int mNumExecuted = 0;
+
+
+    int getNumExecuted()
+    {
+        return mNumExecuted;
+    }
+
+
+    @Override
+    public void execute(Runnable command)
+    {
+        mNumExecuted++;
+        command.run();
+    }
+
+
+    @Override
+    public void shutdown()
+    {
+        mIsShutdown = true;
+    }
+
+
+    @Override
+    public List<Runnable> shutdownNow()
+    {
+        mIsShutdown = true;
+        return Collections.emptyList();
+    }
+
+
+    @Override
+    public boolean isShutdown()
+    {
+        return mIsShutdown;
+    }
+
+
+    @Override
+    public boolean isTerminated()
+    {
+        return mIsShutdown;
+    }
+
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+    {
+        return true;
+    }
+}
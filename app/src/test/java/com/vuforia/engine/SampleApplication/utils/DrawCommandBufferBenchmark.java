@@ -0,0 +1,247 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the CPU cost of recording and sorting a frame of synthetic draw
+ * packets in DrawCommandBuffer, and compares it with sorting one object per
+ * packet with a Comparator, as a list of draw objects would
+ *
+ * The packets use 8 programs and 32 textures, a quarter of them are
+ * translucent and their depths are spread over the whole range. Submission
+ * is left out, it needs mesh buffers and its cost is that of the GL calls
+ */
+public class DrawCommandBufferBenchmark
+{
+    private static final int[] NUM_PACKETS = {1024, 4096, 16384};
+    private static final int NUM_PROGRAMS = 8;
+    private static final int NUM_TEXTURES = 32;
+    private static final int FRAMES_PER_RUN = 20;
+    private static final int RUNS = 21;
+
+    // The draw object a renderer without the command buffer would sort
+    private static final class Packet
+    {
+        final DrawCommandBuffer.Material mMaterial;
+        final int mTexture;
+        final float[] mMvpMatrix;
+
+
+        Packet(DrawCommandBuffer.Material material, int texture, float[] mvpMatrix)
+        {
+            mMaterial = material;
+            mTexture = texture;
+            mMvpMatrix = mvpMatrix;
+        }
+    }
+
+    // Same order as the keys of DrawCommandBuffer
+    private static final Comparator<Packet> PACKET_ORDER = new Comparator<Packet>()
+    {
+        @Override
+        public int compare(Packet a, Packet b)
+        {
+            if (a.mMaterial.mIsTranslucent != b.mMaterial.mIsTranslucent)
+            {
+                return a.mMaterial.mIsTranslucent ? 1 : -1;
+            }
+
+            float depthA = a.mMvpMatrix[15];
+            float depthB = b.mMvpMatrix[15];
+            if (a.mMaterial.mIsTranslucent)
+            {
+                return Float.compare(depthB, depthA);
+            }
+
+            if (a.mMaterial.mProgram != b.mMaterial.mProgram)
+            {
+                return a.mMaterial.mProgram < b.mMaterial.mProgram ? -1 : 1;
+            }
+
+            if (a.mTexture != b.mTexture)
+            {
+                return a.mTexture < b.mTexture ? -1 : 1;
+            }
+
+            return Float.compare(depthA, depthB);
+        }
+    };
+
+    private DrawCommandBuffer.Material[] mMaterials;
+    private int[] mTextures;
+    private float[] mMvpMatrices;
+
+    // Keeps the result of the last frame alive so that the work is not optimized away
+    private long mFirstKey;
+    private Packet mFirstPacket;
+
+
+    private void createPackets(int numPackets)
+    {
+        Random random = new Random(numPackets);
+
+        DrawCommandBuffer.Material[] materials = new DrawCommandBuffer.Material[2 * NUM_PROGRAMS];
+        for (int program = 0; program < NUM_PROGRAMS; program++)
+        {
+            materials[2 * program] = new DrawCommandBuffer.Material(program + 1, 0, 1, 2, 3, 4,
+                    DrawCommandBuffer.Material.FLAG_CULL_BACK_FACES);
+            materials[2 * program + 1] = new DrawCommandBuffer.Material(program + 1, 0, 1, 2, 3, 4,
+                    DrawCommandBuffer.Material.FLAG_TRANSLUCENT);
+        }
+
+        mMaterials = new DrawCommandBuffer.Material[numPackets];
+        mTextures = new int[numPackets];
+        mMvpMatrices = new float[numPackets * 16];
+        for (int i = 0; i < numPackets; i++)
+        {
+            boolean isTranslucent = random.nextInt(4) == 0;
+            mMaterials[i] = materials[2 * random.nextInt(NUM_PROGRAMS) + (isTranslucent ? 1 : 0)];
+            mTextures[i] = 1 + random.nextInt(NUM_TEXTURES);
+
+            for (int j = 0; j < 16; j++)
+            {
+                mMvpMatrices[i * 16 + j] = random.nextFloat();
+            }
+            mMvpMatrices[i * 16 + 15] = 0.1f + random.nextFloat() * (DrawCommandBuffer.DEFAULT_MAX_DEPTH - 0.1f);
+        }
+    }
+
+
+    private void recordFrame(DrawCommandBuffer buffer)
+    {
+        buffer.clear();
+        for (int i = 0; i < mMaterials.length; i++)
+        {
+            buffer.add(mMaterials[i], null, mTextures[i], mMvpMatrices, i * 16);
+        }
+    }
+
+
+    private void sortFrameOfObjects()
+    {
+        List<Packet> packets = new ArrayList<>(mMaterials.length);
+        for (int i = 0; i < mMaterials.length; i++)
+        {
+            float[] mvpMatrix = new float[16];
+            System.arraycopy(mMvpMatrices, i * 16, mvpMatrix, 0, 16);
+            packets.add(new Packet(mMaterials[i], mTextures[i], mvpMatrix));
+        }
+
+        Collections.sort(packets, PACKET_ORDER);
+        mFirstPacket = packets.get(0);
+    }
+
+
+    // Opaque packets first, grouped by program, translucent packets back to front
+    private void assertSubmissionOrder(DrawCommandBuffer buffer)
+    {
+        boolean isTranslucent = false;
+        int lastProgram = 0;
+        float lastDepth = Float.MAX_VALUE;
+
+        for (int i = 0; i < buffer.getCount(); i++)
+        {
+            int packet = buffer.getSortedPacket(i);
+            DrawCommandBuffer.Material material = mMaterials[packet];
+            float depth = mMvpMatrices[packet * 16 + 15];
+
+            if (material.mIsTranslucent)
+            {
+                if (isTranslucent)
+                {
+                    // Depths within one quantization step may come in either order
+                    assertTrue(depth <= lastDepth + 1e-4f);
+                }
+                isTranslucent = true;
+                lastDepth = depth;
+            }
+            else
+            {
+                assertFalse("Opaque packet after a translucent one", isTranslucent);
+                assertTrue(material.mProgram >= lastProgram);
+                lastProgram = material.mProgram;
+            }
+        }
+    }
+
+
+    @Test
+    public void recordAndSortThousandsOfPackets() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        for (int numPackets : NUM_PACKETS)
+        {
+            createPackets(numPackets);
+            final DrawCommandBuffer buffer = new DrawCommandBuffer();
+
+            recordFrame(buffer);
+            buffer.sort();
+            assertSubmissionOrder(buffer);
+
+            Benchmarks.Task recordFrames = new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    for (int frame = 0; frame < FRAMES_PER_RUN; frame++)
+                    {
+                        recordFrame(buffer);
+                    }
+                }
+            };
+
+            Benchmarks.Task recordAndSortFrames = new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    for (int frame = 0; frame < FRAMES_PER_RUN; frame++)
+                    {
+                        recordFrame(buffer);
+                        buffer.sort();
+                        mFirstKey = buffer.getSortedKey(0);
+                    }
+                }
+            };
+
+            Benchmarks.Task objectFrames = new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    for (int frame = 0; frame < FRAMES_PER_RUN; frame++)
+                    {
+                        sortFrameOfObjects();
+                    }
+                }
+            };
+
+            double recordMicros = Benchmarks.medianNanos(RUNS, recordFrames) / 1e3 / FRAMES_PER_RUN;
+            double totalMicros = Benchmarks.medianNanos(RUNS, recordAndSortFrames) / 1e3 / FRAMES_PER_RUN;
+            double objectMicros = Benchmarks.medianNanos(RUNS, objectFrames) / 1e3 / FRAMES_PER_RUN;
+            long bufferBytes = Benchmarks.allocatedBytes(recordAndSortFrames) / FRAMES_PER_RUN;
+            long objectBytes = Benchmarks.allocatedBytes(objectFrames) / FRAMES_PER_RUN;
+
+            Benchmarks.report("DrawCommandBuffer", "%d packets: record %.0f us, record and sort "
+                            + "%.0f us %d bytes per frame, objects and Comparator %.0f us %d bytes per frame",
+                    numPackets, recordMicros, totalMicros, bufferBytes, objectMicros, objectBytes);
+        }
+    }
+}
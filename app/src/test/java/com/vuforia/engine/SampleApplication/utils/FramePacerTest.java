@@ -0,0 +1,224 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FramePacerTest
+{
+    private static final long MS = 1000000L;
+    private static final long START_NS = 1000 * MS;
+    private static final long MIN_INTERVAL_NS = 16 * MS;
+    private static final long MAX_INTERVAL_NS = 1000 * MS;
+    private static final long CAMERA_PERIOD_NS = 33 * MS;
+
+    private static class FakeClock implements FrameTimingRecorder.Clock
+    {
+        long mNow = START_NS;
+
+        @Override
+        public long nanoTime()
+        {
+            return mNow;
+        }
+    }
+
+    private FakeClock mClock;
+    private FramePacer mPacer;
+
+
+    @Before
+    public void setUp()
+    {
+        mClock = new FakeClock();
+        mPacer = new FramePacer(mClock, MIN_INTERVAL_NS, MAX_INTERVAL_NS);
+    }
+
+
+    // Advances the clock by the delay the pacer asked for, then draws the frame
+    private void renderAfter(long delayNs)
+    {
+        mClock.mNow += delayNs;
+        mPacer.onFrameRendered();
+    }
+
+
+    @Test
+    public void newCameraFramesAreRenderedRightAway()
+    {
+        assertEquals(0, mPacer.onCameraFrame(0.0));
+        renderAfter(0);
+        assertEquals(START_NS, mPacer.getFrameReadyTime());
+
+        mClock.mNow += CAMERA_PERIOD_NS;
+        assertEquals(0, mPacer.onCameraFrame(0.033));
+        renderAfter(2 * MS);
+        assertEquals(START_NS + CAMERA_PERIOD_NS, mPacer.getFrameReadyTime());
+
+        assertEquals(2, mPacer.getCameraFrames());
+        assertEquals(2, mPacer.getRenderedFrames());
+        assertEquals(0, mPacer.getSkippedFrames());
+        assertEquals(0, mPacer.getRedundantFrames());
+    }
+
+
+    @Test
+    public void idleWithoutNewFramesRendersNothing()
+    {
+        assertEquals(0, mPacer.onCameraFrame(1.0));
+        renderAfter(0);
+
+        // The tracker goes on updating with the same camera frame while it is stalled
+        for (int i = 0; i < 10; i++)
+        {
+            mClock.mNow += CAMERA_PERIOD_NS;
+            assertEquals(FramePacer.NO_RENDER, mPacer.onCameraFrame(1.0));
+        }
+
+        // Within the maximum interval the idle check only reschedules itself
+        assertEquals(MAX_INTERVAL_NS - 10 * CAMERA_PERIOD_NS, mPacer.onIdleCheck());
+
+        assertEquals(1, mPacer.getRenderedFrames());
+        assertEquals(10, mPacer.getDuplicateFrames());
+        assertEquals(0, mPacer.getFallbackFrames());
+    }
+
+
+    @Test
+    public void requestsAreDelayedToTheMinimumInterval()
+    {
+        assertEquals(0, mPacer.onCameraFrame(0.0));
+        renderAfter(0);
+
+        // An invalidation 5 ms after the frame waits for the rest of the interval
+        mClock.mNow += 5 * MS;
+        assertEquals(MIN_INTERVAL_NS - 5 * MS, mPacer.invalidate());
+        renderAfter(MIN_INTERVAL_NS - 5 * MS);
+        assertEquals(START_NS + MIN_INTERVAL_NS, mPacer.getFrameReadyTime());
+
+        // Past the interval there is no delay
+        mClock.mNow += 20 * MS;
+        assertEquals(0, mPacer.invalidate());
+        assertEquals(2, mPacer.getInvalidations());
+    }
+
+
+    @Test
+    public void requestsWhileOneIsPendingAreCoalesced()
+    {
+        assertEquals(0, mPacer.onCameraFrame(0.0));
+
+        mClock.mNow += 2 * MS;
+        assertEquals(FramePacer.NO_RENDER, mPacer.invalidate());
+        assertEquals(FramePacer.NO_RENDER, mPacer.onCameraFrame(0.033));
+        renderAfter(0);
+
+        assertEquals(1, mPacer.getRenderedFrames());
+        assertEquals(2, mPacer.getSkippedFrames());
+
+        // The frame showed the latest camera frame, the next one is new again
+        mClock.mNow += CAMERA_PERIOD_NS;
+        assertEquals(0, mPacer.onCameraFrame(0.066));
+    }
+
+
+    @Test
+    public void aStaleRequestDoesNotBlockTheNextOne()
+    {
+        assertEquals(0, mPacer.onCameraFrame(0.0));
+        renderAfter(0);
+        mClock.mNow += CAMERA_PERIOD_NS;
+        assertEquals(0, mPacer.onCameraFrame(0.033));
+
+        // The surface was paused before the render, the request never led to a frame
+        mClock.mNow += 300 * MS;
+        assertEquals(0, mPacer.onCameraFrame(0.333));
+        assertEquals(0, mPacer.getSkippedFrames());
+    }
+
+
+    @Test
+    public void aFrameIsDrawnAtTheMinimumRate()
+    {
+        // Nothing is forced before the first frame
+        assertEquals(MAX_INTERVAL_NS, mPacer.onIdleCheck());
+
+        assertEquals(0, mPacer.onCameraFrame(0.0));
+        renderAfter(0);
+
+        mClock.mNow += 400 * MS;
+        assertEquals(600 * MS, mPacer.onIdleCheck());
+
+        // No camera frame or invalidation for the maximum interval
+        mClock.mNow += 600 * MS;
+        assertEquals(0, mPacer.onIdleCheck());
+        assertEquals(1, mPacer.getFallbackFrames());
+
+        // The forced render is pending, further checks wait for it
+        assertEquals(MAX_INTERVAL_NS, mPacer.onIdleCheck());
+        assertEquals(FramePacer.NO_RENDER, mPacer.invalidate());
+
+        renderAfter(MS);
+        assertEquals(START_NS + MAX_INTERVAL_NS, mPacer.getFrameReadyTime());
+        assertEquals(0, mPacer.getRedundantFrames());
+        assertEquals(MAX_INTERVAL_NS, mPacer.onIdleCheck());
+        assertEquals(1, mPacer.getFallbackFrames());
+    }
+
+
+    @Test
+    public void camerasFramesPostponeTheMinimumRate()
+    {
+        double timestamp = 0.0;
+        for (int frame = 0; frame < 100; frame++)
+        {
+            assertEquals(0, mPacer.onCameraFrame(timestamp));
+            renderAfter(0);
+
+            mClock.mNow += CAMERA_PERIOD_NS;
+            timestamp += 0.033;
+            assertEquals(MAX_INTERVAL_NS - CAMERA_PERIOD_NS, mPacer.onIdleCheck());
+        }
+
+        assertEquals(0, mPacer.getFallbackFrames());
+    }
+
+
+    @Test
+    public void framesNothingAskedForAreRedundant()
+    {
+        renderAfter(0);
+        assertEquals(FramePacer.NOT_REQUESTED, mPacer.getFrameReadyTime());
+        assertEquals(1, mPacer.getRedundantFrames());
+    }
+
+
+    @Test
+    public void resetForgetsTheLastTimestamp()
+    {
+        assertEquals(0, mPacer.onCameraFrame(0.0));
+        renderAfter(0);
+
+        mPacer.reset();
+        mClock.mNow += MS;
+        assertEquals(0, mPacer.onCameraFrame(0.0));
+        assertEquals(FramePacer.NOT_REQUESTED, mPacer.getFrameReadyTime());
+        assertEquals(0, mPacer.getDuplicateFrames());
+        assertEquals(2, mPacer.getCameraFrames());
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theMaximumIntervalMustExceedTheMinimum()
+    {
+        new FramePacer(mClock, MIN_INTERVAL_NS, MIN_INTERVAL_NS);
+    }
+}
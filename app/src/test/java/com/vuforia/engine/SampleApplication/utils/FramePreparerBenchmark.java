@@ -0,0 +1,224 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures what handing frames over through FramePreparer costs and saves the
+ * rendering thread, compared with preparing them on the rendering thread
+ *
+ * A synthetic frame holds the 3x4 poses of a number of targets, as a State
+ * would. Preparing it converts the poses and computes the model-view-projection
+ * matrix of an instance per target, as ImageTargetRenderer.prepareFrame() does
+ * without the Vuforia objects. Submitting a frame reads the instances of the
+ * snapshot, the GL calls are left out
+ */
+public class FramePreparerBenchmark
+{
+    private static final int NUM_TARGETS = 16;
+    private static final int NUM_FRAMES = 2000;
+    private static final int HANDOFFS_PER_RUN = 100000;
+    private static final int RUNS = 21;
+    private static final long THROUGHPUT_MS = 1000;
+
+    private static final float[] PROJECTION = ViewFrustumTest.createPerspective(60.0f, 0.75f, 0.01f, 5.0f);
+
+    private final float[][] mFrames = new float[NUM_FRAMES][];
+
+    // Used by whichever thread prepares
+    private final float[] mPose = new float[16];
+    private final float[] mModelView = new float[16];
+    private final float[] mModelViewProjection = new float[16];
+    private final float[] mModelTransform = new float[16];
+
+    // Keeps the results alive so that the work is not optimized away
+    private float mChecksum;
+
+
+    private void createFrames()
+    {
+        Random random = new Random(1);
+        for (int frame = 0; frame < NUM_FRAMES; frame++)
+        {
+            float[] poses = new float[NUM_TARGETS * 12];
+            for (int target = 0; target < NUM_TARGETS; target++)
+            {
+                int p = target * 12;
+                poses[p] = 1.0f;
+                poses[p + 5] = 1.0f;
+                poses[p + 10] = 1.0f;
+                poses[p + 3] = random.nextFloat() - 0.5f;
+                poses[p + 7] = random.nextFloat() - 0.5f;
+                poses[p + 11] = -0.5f - random.nextFloat();
+            }
+            mFrames[frame] = poses;
+        }
+
+        SampleArrayMath.Matrix44FIdentity(mModelTransform, 0);
+        SampleArrayMath.Matrix44FTranslate(mModelTransform, 0, 0.0f, 0.0f, 0.003f);
+        SampleArrayMath.Matrix44FScale(mModelTransform, 0, 0.003f, 0.003f, 0.003f);
+    }
+
+
+    private void prepare(int frame, FrameSnapshot snapshot)
+    {
+        float[] poses = mFrames[frame];
+        snapshot.setTimestamp(frame);
+        snapshot.setProjection(PROJECTION, 0);
+
+        for (int target = 0; target < NUM_TARGETS; target++)
+        {
+            SampleArrayMath.Matrix44FFromPose(mPose, 0, poses, target * 12);
+            int result = snapshot.addResult(target, 1, 2, 0, mPose, 0);
+
+            SampleArrayMath.Matrix44FMultiply(mModelView, 0, mPose, 0, mModelTransform, 0);
+            SampleArrayMath.Matrix44FMultiply(mModelViewProjection, 0, PROJECTION, 0, mModelView, 0);
+            snapshot.addInstance(result, 0, target & 3, mModelViewProjection, 0);
+        }
+    }
+
+
+    // What the rendering thread reads of a snapshot to record its draws
+    private static float submit(FrameSnapshot snapshot)
+    {
+        float sum = 0.0f;
+        float[] modelViewProjections = snapshot.getModelViewProjections();
+        for (int instance = 0; instance < snapshot.getNumInstances(); instance++)
+        {
+            sum += modelViewProjections[instance * FrameSnapshot.MATRIX_SIZE + 15]
+                    + snapshot.getInstanceTexture(instance);
+        }
+
+        return sum;
+    }
+
+
+    @Test
+    public void handoffCost() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        final TripleBuffer<FrameSnapshot> buffer =
+                new TripleBuffer<>(new FrameSnapshot(), new FrameSnapshot(), new FrameSnapshot());
+
+        long nanos = Benchmarks.medianNanos(RUNS, new Benchmarks.Task()
+        {
+            @Override
+            public void run()
+            {
+                long sequence = 0;
+                for (int i = 0; i < HANDOFFS_PER_RUN; i++)
+                {
+                    buffer.getWriteBuffer().clear(++sequence);
+                    buffer.publish();
+                    sequence += buffer.acquire().getSequence();
+                }
+                mChecksum = sequence;
+            }
+        });
+
+        Benchmarks.report("FramePreparer", "TripleBuffer publish and acquire: %.1f ns (%.1f M handoffs/s)",
+                (double) nanos / HANDOFFS_PER_RUN, HANDOFFS_PER_RUN * 1e3 / nanos);
+    }
+
+
+    @Test
+    public void renderingThreadTimePerFrame() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+        createFrames();
+
+        // Prepared and submitted one after the other on the rendering thread
+        final FrameSnapshot inlineSnapshot = new FrameSnapshot();
+        long inlineNanos = Benchmarks.medianNanos(RUNS, new Benchmarks.Task()
+        {
+            @Override
+            public void run()
+            {
+                float sum = 0.0f;
+                for (int frame = 0; frame < NUM_FRAMES; frame++)
+                {
+                    inlineSnapshot.clear(frame);
+                    prepare(frame, inlineSnapshot);
+                    sum += submit(inlineSnapshot);
+                }
+                mChecksum = sum;
+            }
+        });
+
+        // The rendering thread only acquires and submits what the preparation thread made
+        final FramePreparer<Integer> preparer = new FramePreparer<>("FramePreparerBenchmark",
+                new FramePreparer.Callback<Integer>()
+                {
+                    @Override
+                    public void prepareFrame(Integer frame, FrameSnapshot snapshot)
+                    {
+                        prepare(frame, snapshot);
+                    }
+                });
+        preparer.start();
+        preparer.submit(0);
+        while (preparer.getPreparedFrames() == 0)
+        {
+            Thread.yield();
+        }
+
+        long pipelinedNanos;
+        int numSubmitted;
+        try
+        {
+            pipelinedNanos = Benchmarks.medianNanos(RUNS, new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    float sum = 0.0f;
+                    for (int frame = 0; frame < NUM_FRAMES; frame++)
+                    {
+                        preparer.submit(frame);
+                        sum += submit(preparer.acquireSnapshot());
+                    }
+                    mChecksum = sum;
+                }
+            });
+
+            // Frames submitted as fast as they come, the preparation thread keeps the latest
+            long end = System.nanoTime() + THROUGHPUT_MS * 1000000L;
+            long preparedBefore = preparer.getPreparedFrames();
+            numSubmitted = 0;
+            while (System.nanoTime() < end)
+            {
+                preparer.submit(numSubmitted++ % NUM_FRAMES);
+            }
+
+            long numPrepared = preparer.getPreparedFrames() - preparedBefore;
+            Benchmarks.report("FramePreparer", "%d targets: %d frames submitted in %d ms, %d prepared "
+                            + "(%.0f frames/s), %d replaced before preparation", NUM_TARGETS, numSubmitted,
+                    THROUGHPUT_MS, numPrepared, numPrepared * 1e3 / THROUGHPUT_MS, preparer.getReplacedFrames());
+        }
+        finally
+        {
+            preparer.stop();
+        }
+
+        assertEquals(0, preparer.getFailedFrames());
+        assertTrue(preparer.getPreparedFrames() > 0);
+
+        double inlineFrameNanos = (double) inlineNanos / NUM_FRAMES;
+        double pipelinedFrameNanos = (double) pipelinedNanos / NUM_FRAMES;
+        Benchmarks.report("FramePreparer", "%d targets, rendering thread per frame: prepared inline "
+                        + "%.0f ns, submitted to the preparation thread %.0f ns, %.1fx less",
+                NUM_TARGETS, inlineFrameNanos, pipelinedFrameNanos, inlineFrameNanos / pipelinedFrameNanos);
+    }
+}
@@ -0,0 +1,221 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FramePreparerTest
+{
+    private static final int NUM_FRAMES = 1000;
+    private static final long TIMEOUT_MS = 5000;
+
+    // Frames are their index, odd frames fail when mFailOddFrames is set
+    private final AtomicIntegerArray mReleaseCounts = new AtomicIntegerArray(NUM_FRAMES);
+    private final AtomicInteger mNumReleased = new AtomicInteger(0);
+    private final AtomicInteger mNumFailed = new AtomicInteger(0);
+    private volatile boolean mFailOddFrames = false;
+
+    private FramePreparer<Integer> mPreparer;
+
+
+    @Before
+    public void setUp()
+    {
+        mPreparer = new FramePreparer<>("FramePreparerTest", new FramePreparer.Callback<Integer>()
+        {
+            @Override
+            public void prepareFrame(Integer frame, FrameSnapshot snapshot)
+            {
+                if (mFailOddFrames && frame % 2 == 1)
+                {
+                    throw new IllegalStateException("Frame " + frame);
+                }
+
+                snapshot.setTimestamp(frame);
+            }
+        });
+
+        mPreparer.setReleaser(new FramePreparer.Releaser<Integer>()
+        {
+            @Override
+            public void releaseFrame(Integer frame)
+            {
+                mReleaseCounts.incrementAndGet(frame);
+                mNumReleased.incrementAndGet();
+            }
+        });
+
+        mPreparer.setListener(new FramePreparer.Listener()
+        {
+            @Override
+            public void onFramePrepared(FrameSnapshot snapshot)
+            {
+            }
+
+
+            @Override
+            public void onFramePreparationFailed(RuntimeException exception)
+            {
+                mNumFailed.incrementAndGet();
+            }
+        });
+
+        mPreparer.start();
+    }
+
+
+    @After
+    public void tearDown()
+    {
+        mPreparer.stop();
+    }
+
+
+    // Acquires snapshots until the one of the frame shows up
+    private FrameSnapshot awaitSnapshot(int frame) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline)
+        {
+            FrameSnapshot snapshot = mPreparer.acquireSnapshot();
+            if (snapshot != null && snapshot.getTimestamp() == frame)
+            {
+                return snapshot;
+            }
+
+            Thread.sleep(1);
+        }
+
+        throw new AssertionError("Frame " + frame + " was not prepared");
+    }
+
+
+    // Waits until the frames submitted were prepared or failed
+    private void awaitProcessed(int numFrames) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (mPreparer.getPreparedFrames() + mPreparer.getFailedFrames() < numFrames
+                && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(1);
+        }
+
+        assertEquals(numFrames, mPreparer.getPreparedFrames() + mPreparer.getFailedFrames());
+    }
+
+
+    private void assertAllReleasedOnce()
+    {
+        for (int frame = 0; frame < NUM_FRAMES; frame++)
+        {
+            assertEquals("Frame " + frame, 1, mReleaseCounts.get(frame));
+        }
+    }
+
+
+    @Test
+    public void preparesTheLatestFrameAndReleasesEveryFrameOnce() throws InterruptedException
+    {
+        for (int frame = 0; frame < NUM_FRAMES; frame++)
+        {
+            mPreparer.submit(frame);
+        }
+
+        assertNotNull(awaitSnapshot(NUM_FRAMES - 1));
+        mPreparer.stop();
+
+        assertEquals(NUM_FRAMES, mPreparer.getSubmittedFrames());
+        assertEquals(NUM_FRAMES, mPreparer.getPreparedFrames() + mPreparer.getReplacedFrames());
+        assertAllReleasedOnce();
+    }
+
+
+    @Test
+    public void keepsPreparingFramesAfterAFailure() throws InterruptedException
+    {
+        mFailOddFrames = true;
+
+        // One frame at a time, so that none is replaced
+        for (int frame = 0; frame < NUM_FRAMES; frame++)
+        {
+            mPreparer.submit(frame);
+            awaitProcessed(frame + 1);
+        }
+
+        assertTrue(mPreparer.isRunning());
+        assertNotNull(awaitSnapshot(NUM_FRAMES - 2));
+        assertEquals(NUM_FRAMES / 2, mPreparer.getFailedFrames());
+        assertEquals(NUM_FRAMES / 2, mNumFailed.get());
+        assertEquals(NUM_FRAMES / 2, mPreparer.getPreparedFrames());
+
+        mPreparer.stop();
+        assertAllReleasedOnce();
+    }
+
+
+    // The rendering thread draws the video background of the frame a snapshot was prepared
+    // from, which must not be released while it may still use it
+    @Test
+    public void framesStayWithTheirSnapshotUntilItIsReused() throws InterruptedException
+    {
+        for (int frame = 0; frame < NUM_FRAMES; frame++)
+        {
+            mPreparer.submit(frame);
+            awaitProcessed(frame + 1);
+
+            // The reader only acquires every other frame, the writer goes on with the two
+            // other snapshots in between
+            if (frame % 2 == 0)
+            {
+                FrameSnapshot snapshot = mPreparer.acquireSnapshot();
+                assertEquals(frame, (int) snapshot.getTimestamp());
+                assertSame(snapshot, mPreparer.getAcquiredSnapshot());
+                assertEquals(frame, (int) mPreparer.getAcquiredFrame());
+            }
+
+            int acquired = mPreparer.getAcquiredFrame();
+            assertEquals("Frame " + acquired, 0, mReleaseCounts.get(acquired));
+            assertEquals(0, mReleaseCounts.get(frame));
+        }
+
+        // Only the frames of the three snapshots are still held
+        assertEquals(NUM_FRAMES - 3, mNumReleased.get());
+
+        mPreparer.stop();
+        assertAllReleasedOnce();
+        assertNull(mPreparer.acquireSnapshot());
+        assertNull(mPreparer.getAcquiredFrame());
+    }
+
+
+    @Test
+    public void stopReleasesTheFrameStillWaiting()
+    {
+        mPreparer.stop();
+
+        mPreparer.submit(0);
+        mPreparer.submit(1);
+        assertEquals(1, mReleaseCounts.get(0));
+        assertEquals(0, mReleaseCounts.get(1));
+
+        mPreparer.start();
+        mPreparer.stop();
+        assertEquals(2, mNumReleased.get());
+    }
+}
@@ -0,0 +1,148 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrameTimingRecorderTest
+{
+    private static final long MS = 1000000L;
+    private static final long FRAME_PERIOD_NS = 16 * MS;
+    private static final int CAPACITY = 8;
+
+    private static class FakeClock implements FrameTimingRecorder.Clock
+    {
+        long mNow = 1000 * MS;
+
+        @Override
+        public long nanoTime()
+        {
+            return mNow;
+        }
+    }
+
+    private FakeClock mClock;
+    private FrameTimingRecorder mRecorder;
+
+
+    @Before
+    public void setUp()
+    {
+        mClock = new FakeClock();
+        mRecorder = new FrameTimingRecorder(mClock, CAPACITY, FRAME_PERIOD_NS);
+    }
+
+
+    // Runs a frame starting intervalNs after the previous one, whose render stage takes renderNs
+    private void recordFrame(long intervalNs, long renderNs)
+    {
+        mClock.mNow += intervalNs;
+        mRecorder.beginFrame();
+        mRecorder.beginStage(FrameTimingRecorder.STAGE_RENDER_FRAME);
+        mClock.mNow += renderNs;
+        mRecorder.endStage(FrameTimingRecorder.STAGE_RENDER_FRAME);
+        mRecorder.endFrame();
+        mClock.mNow -= renderNs;
+    }
+
+
+    @Test
+    public void recordsTheDurationOfEachStage()
+    {
+        for (int i = 0; i < 4; i++)
+        {
+            recordFrame(FRAME_PERIOD_NS, 5 * MS);
+        }
+
+        assertEquals(4, mRecorder.getFrameCount());
+        assertEquals(4, mRecorder.getStageHistogram(FrameTimingRecorder.STAGE_RENDER_FRAME).getCount());
+        assertEquals(0, mRecorder.getStageHistogram(FrameTimingRecorder.STAGE_UPDATE_STATE).getCount());
+
+        FrameTimingRecorder.Summary summary = mRecorder.getSummary();
+        assertEquals(4, summary.frameCount);
+        assertEquals(5 * MS, summary.max[FrameTimingRecorder.STAGE_RENDER_FRAME]);
+        assertEquals(5 * MS, summary.p50[FrameTimingRecorder.STAGE_RENDER_FRAME]);
+    }
+
+
+    @Test
+    public void countsTheFramesMissedByALateFrame()
+    {
+        recordFrame(FRAME_PERIOD_NS, MS);
+        recordFrame(FRAME_PERIOD_NS, MS);
+        assertEquals(0, mRecorder.getDroppedFrameCount());
+
+        // Three periods after the previous frame, two were missed
+        recordFrame(3 * FRAME_PERIOD_NS, MS);
+        assertEquals(2, mRecorder.getDroppedFrameCount());
+
+        // A pause is not a dropped frame
+        recordFrame(5000 * MS, MS);
+        assertEquals(2, mRecorder.getDroppedFrameCount());
+    }
+
+
+    @Test
+    public void copiesTheRecentFramesOldestFirst()
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            recordFrame(FRAME_PERIOD_NS, i * MS);
+        }
+
+        int recordSize = FrameTimingRecorder.getRecordSize();
+        long[] records = new long[CAPACITY * recordSize];
+        int numFrames = mRecorder.copyRecentFrames(records);
+
+        assertEquals(CAPACITY - 1, numFrames);
+        for (int i = 0; i < numFrames; i++)
+        {
+            long frame = 20 - numFrames + i;
+            assertEquals(frame, records[i * recordSize]);
+            assertEquals(FRAME_PERIOD_NS, records[i * recordSize + 1]);
+            assertEquals(frame * MS, records[i * recordSize + 2 + FrameTimingRecorder.STAGE_RENDER_FRAME]);
+            assertEquals(-1, records[i * recordSize + 2 + FrameTimingRecorder.STAGE_UPDATE_STATE]);
+        }
+    }
+
+
+    @Test
+    public void resetIsAppliedOnTheNextFrame()
+    {
+        recordFrame(FRAME_PERIOD_NS, MS);
+        recordFrame(4 * FRAME_PERIOD_NS, MS);
+
+        mRecorder.reset();
+        assertEquals(2, mRecorder.getSummary().frameCount);
+        assertEquals(3, mRecorder.getDroppedFrameCount());
+
+        // The frame numbers keep counting, the statistics start over
+        recordFrame(FRAME_PERIOD_NS, MS);
+        assertEquals(3, mRecorder.getFrameCount());
+        assertEquals(1, mRecorder.getSummary().frameCount);
+        assertEquals(0, mRecorder.getDroppedFrameCount());
+    }
+
+
+    @Test
+    public void recordsNothingWhileDisabled()
+    {
+        mRecorder.setEnabled(false);
+        recordFrame(FRAME_PERIOD_NS, MS);
+        assertEquals(0, mRecorder.getFrameCount());
+
+        mRecorder.setEnabled(true);
+        recordFrame(FRAME_PERIOD_NS, MS);
+        assertEquals(1, mRecorder.getFrameCount());
+        assertTrue(mRecorder.getSummary().toJson().startsWith("{\"frames\":1,"));
+    }
+}
@@ -0,0 +1,167 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GpuFrameTimeEstimatorTest
+{
+    private static final long MS = 1000000L;
+    private static final long TARGET_NS = RenderScaleController.DEFAULT_TARGET_FRAME_TIME_NS;
+    private static final long CAMERA_PERIOD_NS = TARGET_NS;
+    private static final long CONTINUOUS = 0;
+    private static final float EPSILON = 0.0001f;
+
+    private final GpuFrameTimeEstimator mEstimator = new GpuFrameTimeEstimator(TARGET_NS);
+    private final RenderScaleController mController = new RenderScaleController();
+
+
+    /**
+     * Runs the rendering thread and the GPU for a number of frames and feeds the
+     * estimates to the controller, as SampleAppRenderer does. The GPU time is
+     * proportional to the pixels drawn, the square of the scale.
+     *
+     * The CPU work of a frame is queued for the GPU when it ends, and the swap that
+     * follows blocks until the GPU finished the previous frame. Rendering on demand,
+     * the next frame starts once the camera delivered a frame after the start of
+     * the previous one. Returns the median of the last estimates
+     */
+    private long run(long cpuNs, long fullScaleGpuNs, long cameraPeriodNs, int numFrames)
+    {
+        // Each run starts its clock over
+        mEstimator.reset();
+        long start = 1000 * MS;
+        long ready = start;
+        long previousGpuEnd = 0;
+        long[] estimates = new long[numFrames];
+
+        for (int frame = 0; frame < numFrames; frame++)
+        {
+            float scale = mController.getScale();
+            estimates[frame] = mEstimator.onFrameStart(start,
+                    cameraPeriodNs == CONTINUOUS ? GpuFrameTimeEstimator.NOT_PACED : ready);
+            if (estimates[frame] != GpuFrameTimeEstimator.NO_ESTIMATE)
+            {
+                mController.onFrame(estimates[frame]);
+            }
+
+            long end = start + cpuNs;
+            mEstimator.onFrameEnd(end);
+
+            long gpuEnd = Math.max(end, previousGpuEnd) + (long) (fullScaleGpuNs * scale * scale);
+            long swapDone = Math.max(end, previousGpuEnd);
+            previousGpuEnd = gpuEnd;
+
+            if (cameraPeriodNs == CONTINUOUS)
+            {
+                start = swapDone;
+            }
+            else
+            {
+                ready = (start / cameraPeriodNs + 1) * cameraPeriodNs;
+                start = Math.max(swapDone, ready);
+            }
+        }
+
+        long[] last = Arrays.copyOfRange(estimates, numFrames - 31, numFrames);
+        Arrays.sort(last);
+        return last[last.length / 2];
+    }
+
+
+    @Test
+    public void firstFrameHasNoEstimate()
+    {
+        assertEquals(GpuFrameTimeEstimator.NO_ESTIMATE, mEstimator.onFrameStart(0, GpuFrameTimeEstimator.NOT_PACED));
+        mEstimator.onFrameEnd(5 * MS);
+
+        // The millisecond before the next frame is too short for a blocked swap
+        assertEquals(6 * MS, mEstimator.onFrameStart(6 * MS, GpuFrameTimeEstimator.NOT_PACED));
+
+        // A frame that did not end is not estimated
+        assertEquals(GpuFrameTimeEstimator.NO_ESTIMATE, mEstimator.onFrameStart(20 * MS, 20 * MS));
+
+        mEstimator.onFrameEnd(25 * MS);
+        mEstimator.reset();
+        assertEquals(GpuFrameTimeEstimator.NO_ESTIMATE, mEstimator.onFrameStart(40 * MS, 40 * MS));
+    }
+
+
+    @Test
+    public void aBlockedSwapGivesTheInterval()
+    {
+        mEstimator.onFrameStart(0, GpuFrameTimeEstimator.NOT_PACED);
+        mEstimator.onFrameEnd(5 * MS);
+
+        // The next frame was asked for at 10 ms but could only start at 50 ms
+        assertEquals(50 * MS, mEstimator.onFrameStart(50 * MS, 10 * MS));
+    }
+
+
+    @Test
+    public void theWaitForTheCameraIsNotGpuTime()
+    {
+        mEstimator.onFrameStart(0, GpuFrameTimeEstimator.NOT_PACED);
+        mEstimator.onFrameEnd(5 * MS);
+
+        // Started as soon as the next camera frame asked for it
+        assertEquals(5 * MS + MS / 2, mEstimator.onFrameStart(33 * MS + MS / 2, 33 * MS));
+    }
+
+
+    @Test
+    public void aSlowCpuIsCappedAtTheTarget()
+    {
+        mEstimator.onFrameStart(0, 0);
+        mEstimator.onFrameEnd(80 * MS);
+        assertEquals(TARGET_NS, mEstimator.onFrameStart(80 * MS, 33 * MS));
+    }
+
+
+    @Test
+    public void theScaleDoesNotDropWhenOnlyTheCpuIsSlow()
+    {
+        // Rendering on demand and continuously, the CPU takes 1.5 times the target
+        assertEquals(TARGET_NS, run(50 * MS, 5 * MS, CAMERA_PERIOD_NS, 300));
+        assertEquals(1.0f, mController.getScale(), EPSILON);
+
+        assertEquals(TARGET_NS, run(50 * MS, 5 * MS, CONTINUOUS, 300));
+        assertEquals(1.0f, mController.getScale(), EPSILON);
+        assertEquals(0, mController.getChangeCount());
+    }
+
+
+    @Test
+    public void theScaleDropsUntilTheGpuMeetsTheTarget()
+    {
+        // 1.5 times the target at full scale, 0.82 brings it under
+        run(5 * MS, 50 * MS, CAMERA_PERIOD_NS, 600);
+
+        float scale = mController.getScale();
+        assertTrue("Scale " + scale, scale < 0.83f && scale > 0.7f);
+        assertTrue(50 * MS * scale * scale <= TARGET_NS * 1.1f);
+    }
+
+
+    @Test
+    public void aLightFrameWaitingForTheCameraRaisesTheScale()
+    {
+        run(5 * MS, 60 * MS, CAMERA_PERIOD_NS, 300);
+        assertTrue(mController.getScale() < 1.0f);
+
+        // The scene became lighter, the frames wait for the camera without blocking
+        long estimate = run(5 * MS, 10 * MS, CAMERA_PERIOD_NS, 900);
+        assertTrue("Estimate " + estimate, estimate < 10 * MS);
+        assertEquals(1.0f, mController.getScale(), EPSILON);
+    }
+}
@@ -0,0 +1,295 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InterleavedVerticesTest
+{
+    // Half a step of each quantized format, the most rounding to the nearest value loses
+    private static final double SHORT_POSITION_ERROR = 0.5 / 32767;
+    private static final double HALF_FLOAT_RELATIVE_ERROR = Math.pow(2, -11);
+    private static final double BYTE_NORMAL_DEGREES = Math.toDegrees(Math.asin(Math.sqrt(3) * 0.5 / 127));
+    private static final double TEN_BITS_NORMAL_DEGREES = Math.toDegrees(Math.asin(Math.sqrt(3) * 0.5 / 511));
+    private static final double TEX_COORD_ERROR = 0.5 / 65535;
+
+    // The fold of the lower half makes the octahedral steps uneven, the shipped assets
+    // are within 0.03 degrees
+    private static final double OCTAHEDRAL_NORMAL_DEGREES = 0.05;
+
+    // Float rounding of the decoding
+    private static final double FLOAT_TOLERANCE = 1.0e-6;
+
+    private static final VertexLayout.PositionFormat[] POSITION_FORMATS = {
+            VertexLayout.PositionFormat.FLOAT,
+            VertexLayout.PositionFormat.HALF_FLOAT,
+            VertexLayout.PositionFormat.NORMALIZED_SHORT};
+    private static final VertexLayout.NormalFormat[] NORMAL_FORMATS = {
+            VertexLayout.NormalFormat.FLOAT,
+            VertexLayout.NormalFormat.NORMALIZED_BYTE,
+            VertexLayout.NormalFormat.INT_10_10_10_2,
+            VertexLayout.NormalFormat.OCTAHEDRAL};
+
+    // The assets of readAssets()
+    private static final String[] ASSET_NAMES = {"Teapot", "Buildings", "astronaut", "drone"};
+
+
+    private static CompiledMesh readMesh(String name) throws IOException
+    {
+        CompiledMesh mesh = new CompiledMesh(name);
+        mesh.load(TestAssets.read(name));
+        return mesh;
+    }
+
+
+    private static MeshObject[] readAssets() throws IOException
+    {
+        return new MeshObject[] {readMesh("Teapot.mesh"), readMesh("ImageTargets/Buildings.mesh"),
+                TestAssets.readModel("astronaut.v3d"), TestAssets.readModel("drone.v3d")};
+    }
+
+
+    // Largest distance between the positions of the mesh and the decoded ones, and checks
+    // every component against the bound of the format
+    private static double assertPositionError(String name, MeshObject mesh, InterleavedVertices vertices)
+    {
+        FloatBuffer positions = MeshObject.asFloatBuffer(mesh.getVertices());
+        MeshBounds bounds = mesh.getBounds();
+        float scale = Math.max(bounds.getHalfExtent(0), Math.max(bounds.getHalfExtent(1), bounds.getHalfExtent(2)));
+
+        float[] decoded = new float[3];
+        double maxError = 0.0;
+        for (int v = 0; v < vertices.getNumVertices(); v++)
+        {
+            vertices.getPosition(v, decoded, 0);
+
+            double errorSq = 0.0;
+            for (int i = 0; i < 3; i++)
+            {
+                float expected = positions.get(v * 3 + i);
+                double error = Math.abs(decoded[i] - expected);
+                double bound;
+                switch (vertices.getLayout().getPositionFormat())
+                {
+                    case HALF_FLOAT:
+                        bound = Math.abs(expected) * HALF_FLOAT_RELATIVE_ERROR;
+                        break;
+                    case NORMALIZED_SHORT:
+                        bound = scale * SHORT_POSITION_ERROR;
+                        break;
+                    default:
+                        bound = 0.0;
+                        break;
+                }
+
+                assertTrue(name + " vertex " + v + " is off by " + error,
+                        error <= bound + FLOAT_TOLERANCE * scale);
+                errorSq += error * error;
+            }
+
+            maxError = Math.max(maxError, Math.sqrt(errorSq));
+        }
+
+        return maxError;
+    }
+
+
+    // Largest angle in degrees between the normals of the mesh and the decoded ones
+    private static double getNormalError(MeshObject mesh, InterleavedVertices vertices)
+    {
+        FloatBuffer normals = MeshObject.asFloatBuffer(mesh.getNormals());
+
+        float[] n = new float[3];
+        double maxDegrees = 0.0;
+        for (int v = 0; v < vertices.getNumVertices(); v++)
+        {
+            vertices.getNormal(v, n, 0);
+            double x = normals.get(v * 3);
+            double y = normals.get(v * 3 + 1);
+            double z = normals.get(v * 3 + 2);
+
+            double crossX = y * n[2] - z * n[1];
+            double crossY = z * n[0] - x * n[2];
+            double crossZ = x * n[1] - y * n[0];
+            double cross = Math.sqrt(crossX * crossX + crossY * crossY + crossZ * crossZ);
+            double dot = x * n[0] + y * n[1] + z * n[2];
+
+            maxDegrees = Math.max(maxDegrees, Math.toDegrees(Math.atan2(cross, dot)));
+        }
+
+        return maxDegrees;
+    }
+
+
+    private static double getTexCoordError(MeshObject mesh, InterleavedVertices vertices)
+    {
+        FloatBuffer texCoords = MeshObject.asFloatBuffer(mesh.getTexCoords());
+
+        float[] uv = new float[2];
+        double maxError = 0.0;
+        for (int v = 0; v < vertices.getNumVertices(); v++)
+        {
+            vertices.getTexCoord(v, uv, 0);
+            maxError = Math.max(maxError, Math.abs(uv[0] - texCoords.get(v * 2)));
+            maxError = Math.max(maxError, Math.abs(uv[1] - texCoords.get(v * 2 + 1)));
+        }
+
+        return maxError;
+    }
+
+
+    private static double getNormalBound(VertexLayout.NormalFormat format)
+    {
+        switch (format)
+        {
+            case NORMALIZED_BYTE:
+                return BYTE_NORMAL_DEGREES;
+            case INT_10_10_10_2:
+                return TEN_BITS_NORMAL_DEGREES;
+            case OCTAHEDRAL:
+                return OCTAHEDRAL_NORMAL_DEGREES;
+            default:
+                return 0.0;
+        }
+    }
+
+
+    @Test
+    public void positionsStayWithinHalfAStep() throws IOException
+    {
+        MeshObject[] meshes = readAssets();
+        for (int asset = 0; asset < meshes.length; asset++)
+        {
+            MeshObject mesh = meshes[asset];
+            for (VertexLayout.PositionFormat format : POSITION_FORMATS)
+            {
+                VertexLayout layout = new VertexLayout(format, VertexLayout.NormalFormat.NONE,
+                        VertexLayout.TexCoordFormat.NONE);
+                InterleavedVertices vertices = InterleavedVertices.build(mesh, layout);
+                assertEquals(mesh.getNumObjectVertex(), vertices.getNumVertices());
+                assertEquals(format, vertices.getLayout().getPositionFormat());
+
+                double error = assertPositionError(ASSET_NAMES[asset] + " " + format, mesh, vertices);
+
+                // Well below a pixel of a model filling the screen
+                assertTrue(ASSET_NAMES[asset] + " " + format + " " + error,
+                        error <= 1.0e-3 * mesh.getBounds().getRadius());
+            }
+        }
+    }
+
+
+    @Test
+    public void normalsStayWithinTheBoundOfTheirFormat() throws IOException
+    {
+        MeshObject[] meshes = readAssets();
+        for (int asset = 0; asset < meshes.length; asset++)
+        {
+            for (VertexLayout.NormalFormat format : NORMAL_FORMATS)
+            {
+                VertexLayout layout = new VertexLayout(VertexLayout.PositionFormat.FLOAT, format,
+                        VertexLayout.TexCoordFormat.NONE);
+                InterleavedVertices vertices = InterleavedVertices.build(meshes[asset], layout);
+                assertEquals(ASSET_NAMES[asset], format, vertices.getLayout().getNormalFormat());
+
+                double degrees = getNormalError(meshes[asset], vertices);
+                assertTrue(ASSET_NAMES[asset] + " " + format + " normals are off by " + degrees + " degrees",
+                        degrees <= getNormalBound(format) + 1.0e-3);
+            }
+        }
+    }
+
+
+    @Test
+    public void texCoordsInTheUnitRangeStayWithinHalfAStep() throws IOException
+    {
+        // Buildings and Teapot have their tex coords in [0, 1]
+        MeshObject[] meshes = readAssets();
+        for (int asset = 0; asset < 2; asset++)
+        {
+            InterleavedVertices vertices = InterleavedVertices.build(meshes[asset], VertexLayout.COMPACT);
+            assertEquals(VertexLayout.COMPACT, vertices.getLayout());
+            assertEquals(20, vertices.getLayout().getStride());
+            assertEquals(20 * vertices.getNumVertices(), vertices.getSizeInBytes());
+
+            double error = getTexCoordError(meshes[asset], vertices);
+            assertTrue(ASSET_NAMES[asset] + " tex coords are off by " + error,
+                    error <= TEX_COORD_ERROR + FLOAT_TOLERANCE);
+        }
+    }
+
+
+    // The astronaut and the drone repeat their textures, with tex coords up to 2
+    @Test
+    public void texCoordsOutsideTheUnitRangeStayFloats() throws IOException
+    {
+        MeshObject[] meshes = readAssets();
+        for (int asset = 2; asset < meshes.length; asset++)
+        {
+            InterleavedVertices vertices = InterleavedVertices.build(meshes[asset], VertexLayout.COMPACT);
+            assertEquals(VertexLayout.TexCoordFormat.FLOAT, vertices.getLayout().getTexCoordFormat());
+            assertEquals(VertexLayout.NormalFormat.NORMALIZED_BYTE, vertices.getLayout().getNormalFormat());
+            assertEquals(24, vertices.getLayout().getStride());
+            assertEquals(0.0, getTexCoordError(meshes[asset], vertices), 0.0);
+        }
+    }
+
+
+    @Test
+    public void normalsThatAreNotUnitLengthStayFloats()
+    {
+        float[] positions = {0, 0, 0, 1, 0, 0, 0, 1, 0};
+        float[] normals = {0, 0, 2, 0, 0, 2, 0, 0, 2};
+        TestMesh mesh = new TestMesh(positions, normals, null, null);
+
+        InterleavedVertices vertices = InterleavedVertices.build(mesh, VertexLayout.QUANTIZED);
+        assertEquals(VertexLayout.NormalFormat.FLOAT, vertices.getLayout().getNormalFormat());
+
+        float[] normal = new float[3];
+        vertices.getNormal(2, normal, 0);
+        assertArrayEquals(new float[] {0.0f, 0.0f, 2.0f}, normal, 0.0f);
+    }
+
+
+    // What the vertex shader computes from the stored shorts and the decode matrix
+    @Test
+    public void theDecodeMatrixGivesTheDecodedPositions() throws IOException
+    {
+        MeshObject mesh = readMesh("Teapot.mesh");
+        InterleavedVertices vertices = InterleavedVertices.build(mesh, VertexLayout.QUANTIZED);
+        assertTrue(vertices.hasPositionDecode());
+
+        float[] decode = new float[16];
+        vertices.getPositionDecodeMatrix(decode, 0);
+        assertEquals(decode[0], decode[5], 0.0f);
+        assertEquals(decode[0], decode[10], 0.0f);
+
+        float[] decoded = new float[3];
+        int stride = vertices.getLayout().getStride();
+        for (int v = 0; v < vertices.getNumVertices(); v++)
+        {
+            vertices.getPosition(v, decoded, 0);
+            for (int i = 0; i < 3; i++)
+            {
+                float stored = Math.max(vertices.getData().getShort(v * stride + i * 2) / 32767.0f, -1.0f);
+                assertEquals(decoded[i], decode[i * 5] * stored + decode[12 + i], FLOAT_TOLERANCE);
+            }
+        }
+
+        InterleavedVertices floats = InterleavedVertices.build(mesh, VertexLayout.COMPACT);
+        assertFalse(floats.hasPositionDecode());
+    }
+}
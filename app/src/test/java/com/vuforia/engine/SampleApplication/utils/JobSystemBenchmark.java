@@ -0,0 +1,118 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures how InstanceTransformBatch scales from 1 to 256 synthetic
+ * trackables, run on the calling thread alone and on a JobSystem with a
+ * worker for every other core
+ *
+ * Every trackable has a pose in front of the camera and the bounds of a
+ * teapot-sized mesh, as the renderers add them. One frame is begin(), add()
+ * for every trackable and run(), the join before the draws are submitted.
+ * Both systems must compute the same matrices and visibility
+ */
+public class JobSystemBenchmark
+{
+    private static final int MAX_TRACKABLES = 256;
+    private static final int FRAMES_PER_RUN = 200;
+    private static final int RUNS = 21;
+
+    private static final float[] PROJECTION = ViewFrustumTest.createPerspective(60.0f, 0.75f, 0.01f, 5.0f);
+    private static final MeshBounds BOUNDS = new MeshBounds(-0.1f, -0.1f, 0.0f, 0.1f, 0.1f, 0.15f, 0.2f);
+
+    private final float[] mPoses = new float[MAX_TRACKABLES * 16];
+    private final float[] mLocal = new float[16];
+
+
+    private void createPoses()
+    {
+        Random random = new Random(1);
+        for (int i = 0; i < MAX_TRACKABLES; i++)
+        {
+            int m = i * 16;
+            SampleArrayMath.Matrix44FIdentity(mPoses, m);
+            SampleArrayMath.Matrix44FRotate(mPoses, m, random.nextFloat() * 360.0f, 0.0f, 0.0f, 1.0f);
+            mPoses[m + 12] = random.nextFloat() * 2.0f - 1.0f;
+            mPoses[m + 13] = random.nextFloat() * 2.0f - 1.0f;
+            mPoses[m + 14] = -1.0f - random.nextFloat() * 3.0f;
+        }
+
+        SampleArrayMath.Matrix44FIdentity(mLocal, 0);
+        SampleArrayMath.Matrix44FScale(mLocal, 0, 0.003f, 0.003f, 0.003f);
+    }
+
+
+    private void runFrame(InstanceTransformBatch batch, int numTrackables)
+    {
+        batch.begin(PROJECTION, 0, null, 0);
+        for (int i = 0; i < numTrackables; i++)
+        {
+            batch.add(mPoses, i * 16, mLocal, 0, BOUNDS);
+        }
+        batch.run();
+    }
+
+
+    private long measure(final InstanceTransformBatch batch, final int numTrackables) throws Exception
+    {
+        return Benchmarks.medianNanos(RUNS, new Benchmarks.Task()
+        {
+            @Override
+            public void run()
+            {
+                for (int frame = 0; frame < FRAMES_PER_RUN; frame++)
+                {
+                    runFrame(batch, numTrackables);
+                }
+            }
+        }) / FRAMES_PER_RUN;
+    }
+
+
+    @Test
+    public void scalingWithTheNumberOfTrackables() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+        createPoses();
+
+        int numWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        JobSystem serialSystem = new JobSystem(0);
+        JobSystem parallelSystem = new JobSystem(numWorkers);
+        InstanceTransformBatch serial = new InstanceTransformBatch(serialSystem);
+        InstanceTransformBatch parallel = new InstanceTransformBatch(parallelSystem);
+
+        try
+        {
+            for (int numTrackables = 1; numTrackables <= MAX_TRACKABLES; numTrackables *= 2)
+            {
+                runFrame(serial, numTrackables);
+                runFrame(parallel, numTrackables);
+                assertEquals(serial.getVisibleCount(), parallel.getVisibleCount());
+                assertArrayEquals(serial.getModelViews(), parallel.getModelViews(), 0.0f);
+
+                long serialNanos = measure(serial, numTrackables);
+                long parallelNanos = measure(parallel, numTrackables);
+                Benchmarks.report("JobSystem", "%3d trackables, %3d visible: calling thread %.1f us, "
+                                + "%d workers %.1f us, %.2fx", numTrackables, serial.getVisibleCount(),
+                        serialNanos / 1e3, numWorkers, parallelNanos / 1e3, (double) serialNanos / parallelNanos);
+            }
+        }
+        finally
+        {
+            parallelSystem.shutdown();
+        }
+    }
+}
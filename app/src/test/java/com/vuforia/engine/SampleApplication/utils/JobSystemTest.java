@@ -0,0 +1,241 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JobSystemTest
+{
+    private JobSystem mJobSystem;
+
+
+    @Before
+    public void setUp()
+    {
+        mJobSystem = new JobSystem(3);
+    }
+
+
+    @After
+    public void tearDown()
+    {
+        mJobSystem.shutdown();
+    }
+
+
+    private static JobSystem.RangeTask countingTask(final AtomicIntegerArray counts)
+    {
+        return new JobSystem.RangeTask()
+        {
+            @Override
+            public void run(int begin, int end)
+            {
+                for (int i = begin; i < end; i++)
+                {
+                    counts.incrementAndGet(i);
+                }
+            }
+        };
+    }
+
+
+    private static void assertAllVisitedOnce(AtomicIntegerArray counts)
+    {
+        for (int i = 0; i < counts.length(); i++)
+        {
+            assertEquals("Index " + i, 1, counts.get(i));
+        }
+    }
+
+
+    @Test
+    public void parallelForVisitsEveryIndexOnce()
+    {
+        AtomicIntegerArray counts = new AtomicIntegerArray(10007);
+        mJobSystem.parallelFor(counts.length(), 16, countingTask(counts));
+        assertAllVisitedOnce(counts);
+    }
+
+
+    @Test
+    public void runsEverythingOnTheCallingThreadWithoutWorkers()
+    {
+        JobSystem jobSystem = new JobSystem(0);
+        final Thread caller = Thread.currentThread();
+        final AtomicBoolean isOnOtherThread = new AtomicBoolean(false);
+
+        AtomicIntegerArray counts = new AtomicIntegerArray(1000);
+        final JobSystem.RangeTask counting = countingTask(counts);
+        JobSystem.Job job = jobSystem.scheduleParallelFor(counts.length(), 10, new JobSystem.RangeTask()
+        {
+            @Override
+            public void run(int begin, int end)
+            {
+                isOnOtherThread.compareAndSet(false, Thread.currentThread() != caller);
+                counting.run(begin, end);
+            }
+        });
+
+        jobSystem.join(job);
+        assertTrue(job.isDone());
+        assertFalse(isOnOtherThread.get());
+        assertAllVisitedOnce(counts);
+    }
+
+
+    @Test
+    public void startsJobsOnlyOnceTheirDependenciesAreDone()
+    {
+        for (int run = 0; run < 100; run++)
+        {
+            final AtomicInteger step = new AtomicInteger(0);
+            final AtomicInteger failures = new AtomicInteger(0);
+
+            JobSystem.Job first = mJobSystem.schedule(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    Thread.yield();
+                    step.set(1);
+                }
+            });
+
+            JobSystem.Job range = mJobSystem.scheduleParallelFor(256, 8, new JobSystem.RangeTask()
+            {
+                @Override
+                public void run(int begin, int end)
+                {
+                    if (step.get() != 1)
+                    {
+                        failures.incrementAndGet();
+                    }
+                }
+            }, first);
+
+            JobSystem.Job last = mJobSystem.schedule(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    step.compareAndSet(1, 2);
+                }
+            }, range);
+
+            mJobSystem.join(last);
+            assertEquals(0, failures.get());
+            assertEquals(2, step.get());
+        }
+    }
+
+
+    @Test
+    public void joinRethrowsWhatTheJobThrew()
+    {
+        JobSystem.Job job = mJobSystem.schedule(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                throw new IllegalStateException("failed job");
+            }
+        });
+
+        try
+        {
+            mJobSystem.join(job);
+            fail("Expected the failure of the job");
+        }
+        catch (IllegalStateException e)
+        {
+            assertEquals("failed job", e.getMessage());
+        }
+    }
+
+
+    // Threads joining a job running elsewhere park rather than spin, and all of them are
+    // unparked by the worker finishing it
+    @Test
+    public void joinersParkUntilTheJobIsDone() throws InterruptedException
+    {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final JobSystem.Job job = mJobSystem.schedule(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                started.countDown();
+                try
+                {
+                    release.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Thread[] joiners = new Thread[3];
+        final AtomicInteger numJoined = new AtomicInteger(0);
+        for (int i = 0; i < joiners.length; i++)
+        {
+            joiners[i] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    mJobSystem.join(job);
+                    numJoined.incrementAndGet();
+                }
+            });
+            joiners[i].start();
+        }
+
+        for (Thread joiner : joiners)
+        {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (joiner.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(1);
+            }
+            assertEquals(Thread.State.WAITING, joiner.getState());
+        }
+        assertEquals(0, numJoined.get());
+
+        release.countDown();
+        for (Thread joiner : joiners)
+        {
+            joiner.join(5000);
+            assertFalse(joiner.isAlive());
+        }
+        assertEquals(joiners.length, numJoined.get());
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnEmptyGrain()
+    {
+        mJobSystem.scheduleParallelFor(10, 0, countingTask(new AtomicIntegerArray(10)));
+    }
+}
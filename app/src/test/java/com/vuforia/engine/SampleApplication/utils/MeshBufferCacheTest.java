@@ -0,0 +1,198 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MeshBufferCacheTest
+{
+    // Vertices, normals and tex coords of a mesh of 100 vertices without indices
+    private static final int MESH_BYTES = 100 * (3 + 3 + 2) * 4;
+
+    private RecordingGL mGL;
+
+
+    @Before
+    public void setUp()
+    {
+        mGL = new RecordingGL();
+    }
+
+
+    @Test
+    public void uploadsEachMeshOnce()
+    {
+        MeshBufferCache cache = new MeshBufferCache(mGL);
+        TestMesh mesh = TestMesh.create(100, 0);
+
+        MeshBufferCache.MeshBuffers buffers = cache.get(mesh);
+        assertEquals(3, mGL.count("bufferData"));
+        assertEquals(MESH_BYTES, buffers.getSizeInBytes());
+        assertEquals(MESH_BYTES, cache.getTotalBytes());
+
+        mGL.clearCalls();
+        assertSame(buffers, cache.get(mesh));
+        assertTrue(mGL.getCalls().isEmpty());
+        assertEquals(1, cache.getUploadCount());
+        assertEquals(1, cache.getNumEntries());
+    }
+
+
+    @Test
+    public void drawsFromTheBoundBuffers()
+    {
+        MeshBufferCache cache = new MeshBufferCache(mGL);
+        MeshBufferCache.MeshBuffers buffers = cache.get(TestMesh.create(100, 300));
+        assertEquals(4, mGL.getNumLiveBuffers());
+
+        // Without a tex coord handle, the tex coords are not bound
+        mGL.clearCalls();
+        buffers.bind(0, 1, -1);
+        buffers.draw();
+        buffers.unbind();
+
+        assertEquals(Arrays.asList(
+                "bindBuffer(34962, 1)",
+                "vertexAttribPointer(0, 3, 5126, false, 0, 0)",
+                "enableVertexAttribArray(0)",
+                "bindBuffer(34962, 2)",
+                "vertexAttribPointer(1, 3, 5126, false, 0, 0)",
+                "enableVertexAttribArray(1)",
+                "bindBuffer(34962, 0)",
+                "bindBuffer(34963, 4)",
+                "drawElements(4, 300, " + GLES20.GL_UNSIGNED_SHORT + ", 0)",
+                "disableVertexAttribArray(0)",
+                "disableVertexAttribArray(1)",
+                "bindBuffer(34963, 0)"), mGL.getCalls());
+    }
+
+
+    @Test
+    public void evictsTheLeastRecentlyUsedMeshes()
+    {
+        MeshBufferCache cache = new MeshBufferCache(mGL, MESH_BYTES * 5 / 2);
+        TestMesh first = TestMesh.create(100, 0);
+        TestMesh second = TestMesh.create(100, 0);
+        TestMesh third = TestMesh.create(100, 0);
+
+        MeshBufferCache.MeshBuffers firstBuffers = cache.get(first);
+        MeshBufferCache.MeshBuffers secondBuffers = cache.get(second);
+        cache.get(first);
+
+        mGL.clearCalls();
+        cache.get(third);
+
+        // The second mesh was used least recently
+        assertFalse(cache.contains(second));
+        assertFalse(secondBuffers.isValid());
+        assertEquals(Arrays.asList("deleteBuffer(4)", "deleteBuffer(5)", "deleteBuffer(6)"),
+                mGL.getCalls("deleteBuffer"));
+        assertTrue(cache.contains(first));
+        assertTrue(firstBuffers.isValid());
+        assertTrue(cache.contains(third));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2 * MESH_BYTES, cache.getTotalBytes());
+        assertEquals(6, mGL.getNumLiveBuffers());
+    }
+
+
+    @Test
+    public void keepsTheMeshJustAddedEvenIfLargerThanTheBudget()
+    {
+        MeshBufferCache cache = new MeshBufferCache(mGL, MESH_BYTES);
+        TestMesh small = TestMesh.create(100, 0);
+        TestMesh large = TestMesh.create(1000, 0);
+
+        cache.get(small);
+        MeshBufferCache.MeshBuffers largeBuffers = cache.get(large);
+
+        assertFalse(cache.contains(small));
+        assertTrue(largeBuffers.isValid());
+        assertEquals(largeBuffers.getSizeInBytes(), cache.getTotalBytes());
+        assertEquals(3, mGL.getNumLiveBuffers());
+    }
+
+
+    @Test
+    public void forgetsTheBuffersOfALostContextWithoutDeletingThem()
+    {
+        MeshBufferCache cache = new MeshBufferCache(mGL);
+        TestMesh mesh = TestMesh.create(100, 300);
+        MeshBufferCache.MeshBuffers buffers = cache.get(mesh);
+
+        // RecordingGL fails on deleting a name that died with the context
+        mGL.loseContext();
+        mGL.clearCalls();
+        cache.onSurfaceCreated();
+
+        assertEquals(0, mGL.count("deleteBuffer"));
+        assertFalse(buffers.isValid());
+        assertEquals(0, cache.getNumEntries());
+        assertEquals(0, cache.getTotalBytes());
+        assertEquals(1, cache.getContextGeneration());
+
+        MeshBufferCache.MeshBuffers uploadedAgain = cache.get(mesh);
+        assertNotSame(buffers, uploadedAgain);
+        assertEquals(4, mGL.count("bufferData"));
+        assertEquals(2, cache.getUploadCount());
+    }
+
+
+    @Test
+    public void releaseDeletesTheBuffers()
+    {
+        MeshBufferCache cache = new MeshBufferCache(mGL);
+        TestMesh first = TestMesh.create(100, 0);
+        TestMesh second = TestMesh.create(100, 30);
+        cache.get(first);
+        cache.get(second);
+
+        cache.release(first);
+        assertEquals(4, mGL.getNumLiveBuffers());
+        assertEquals(MESH_BYTES + 30 * 2, cache.getTotalBytes());
+
+        cache.releaseAll();
+        assertEquals(0, mGL.getNumLiveBuffers());
+        assertEquals(0, cache.getTotalBytes());
+        assertEquals(0, cache.getNumEntries());
+    }
+
+
+    @Test
+    public void needsTheExtensionForLargeMeshes()
+    {
+        MeshBufferCache cache = new MeshBufferCache(mGL);
+        TestMesh large = TestMesh.create(70000, 3);
+        assertEquals(GLES20.GL_UNSIGNED_INT, large.getIndexType());
+
+        assertTrue(cache.get(large).isValid());
+
+        mGL.mExtensions = "";
+        cache.onSurfaceCreated();
+        try
+        {
+            cache.get(large);
+            throw new AssertionError("Expected UnsupportedOperationException");
+        }
+        catch (UnsupportedOperationException e)
+        {
+            assertFalse(cache.contains(large));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times the generation of the levels of detail of the shipped .v3d models, the
+ * work generateLevelsOfDetail() adds to their loading thread: welding the
+ * corners into the simplifier, collapsing to half the triangles within 1% of
+ * the bounding radius, then to a quarter within 5%, building a mesh of each
+ */
+public class MeshSimplifierBenchmark
+{
+    private static final String[] MODELS = {"astronaut.v3d", "drone.v3d"};
+    private static final float[] TRIANGLE_RATIOS = {0.5f, 0.25f};
+    private static final float[] MAX_ERRORS = {0.01f, 0.05f};
+    private static final int RUNS = 11;
+
+    // Keeps the result of the last run alive so that the work is not optimized away
+    private SimplifiedMesh mMesh;
+
+
+    @Test
+    public void generateLevelsOfDetail() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        for (String name : MODELS)
+        {
+            final SampleApplicationV3DModel model = TestAssets.readModel(name);
+            final float radius = model.getBounds().getRadius();
+
+            Benchmarks.Task weld = new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    new MeshSimplifier(model);
+                }
+            };
+
+            final int[] triangles = new int[TRIANGLE_RATIOS.length + 1];
+            final float[] errors = new float[TRIANGLE_RATIOS.length];
+            Benchmarks.Task levels = new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    MeshSimplifier simplifier = new MeshSimplifier(model);
+                    triangles[0] = simplifier.getNumTriangles();
+                    for (int level = 0; level < TRIANGLE_RATIOS.length; level++)
+                    {
+                        triangles[level + 1] = simplifier.simplify(
+                                (int) (triangles[0] * TRIANGLE_RATIOS[level]), radius * MAX_ERRORS[level]);
+                        errors[level] = simplifier.getMaxError() / radius;
+                        mMesh = simplifier.toMesh();
+                    }
+                }
+            };
+
+            long weldNanos = Benchmarks.medianNanos(RUNS, weld);
+            long levelsNanos = Benchmarks.medianNanos(RUNS, levels);
+            long allocated = Benchmarks.allocatedBytes(levels);
+
+            assertTrue(triangles[2] < triangles[1] && triangles[1] < triangles[0]);
+
+            Benchmarks.report("MeshSimplifier", "%s %d -> %d -> %d triangles, error %.2f%% and %.2f%% "
+                            + "of the radius: %.1f ms (%.1f ms welding), %d KB allocated",
+                    name, triangles[0], triangles[1], triangles[2], errors[0] * 100.0f, errors[1] * 100.0f,
+                    Benchmarks.toMillis(levelsNanos), Benchmarks.toMillis(weldNanos), allocated / 1024);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MeshSimplifierTest
+{
+    private static final float EPSILON = 0.0001f;
+
+
+    @Test
+    public void collapsesAFlatPlaneWithoutError()
+    {
+        MeshSimplifier simplifier = new MeshSimplifier(PrimitiveMeshGenerator.createPlane(8));
+        assertEquals(128, simplifier.getNumTriangles());
+
+        assertEquals(2, simplifier.simplify(2, EPSILON));
+        assertEquals(0.0f, simplifier.getMaxError(), EPSILON);
+    }
+
+
+    @Test
+    public void stopsAtTheMaximumError()
+    {
+        MeshSimplifier simplifier = new MeshSimplifier(PrimitiveMeshGenerator.createSphere(32, 16));
+        int numTriangles = simplifier.getNumTriangles();
+
+        int remaining = simplifier.simplify(10, 0.01f);
+        assertTrue(remaining < numTriangles);
+        assertTrue(remaining > 10);
+        assertTrue(simplifier.getMaxError() <= 0.01f);
+
+        // Continues from where it stopped with a larger error
+        int fewer = simplifier.simplify(remaining / 2, 1.0f);
+        assertEquals(remaining / 2, fewer);
+        assertTrue(simplifier.getMaxError() > 0.01f);
+    }
+
+
+    @Test
+    public void keepsTheOriginalVerticesInTheSimplifiedMesh()
+    {
+        MeshSimplifier simplifier = new MeshSimplifier(PrimitiveMeshGenerator.createSphere(32, 16));
+        simplifier.simplify(simplifier.getNumTriangles() / 4, 1.0f);
+
+        SimplifiedMesh mesh = simplifier.toMesh();
+        assertEquals(simplifier.getNumTriangles(), mesh.getNumTriangles());
+        assertEquals(mesh.getNumTriangles() * 3, mesh.getNumObjectIndex());
+
+        // Vertices are only moved onto other vertices, so all of them stay on the unit sphere
+        int numVertices = mesh.getNumObjectVertex();
+        FloatBuffer positions = MeshObject.asFloatBuffer(mesh.getVertices());
+        for (int vertex = 0; vertex < numVertices; vertex++)
+        {
+            float x = positions.get(vertex * 3);
+            float y = positions.get(vertex * 3 + 1);
+            float z = positions.get(vertex * 3 + 2);
+            assertEquals(1.0f, (float) Math.sqrt(x * x + y * y + z * z), EPSILON);
+        }
+
+        int[] indices = mesh.copyIndices();
+        for (int triangle = 0; triangle < indices.length; triangle += 3)
+        {
+            int a = indices[triangle];
+            int b = indices[triangle + 1];
+            int c = indices[triangle + 2];
+            assertTrue(a < numVertices && b < numVertices && c < numVertices);
+            assertNotEquals(a, b);
+            assertNotEquals(b, c);
+            assertNotEquals(a, c);
+        }
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAMeshThatIsNotATriangleList()
+    {
+        new MeshSimplifier(new MeshObject()
+        {
+            @Override
+            protected Buffer getBuffer(BUFFER_TYPE bufferType)
+            {
+                return null;
+            }
+
+
+            @Override
+            public int getNumObjectVertex()
+            {
+                return 4;
+            }
+
+
+            @Override
+            public int getNumObjectIndex()
+            {
+                return 0;
+            }
+        });
+    }
+}
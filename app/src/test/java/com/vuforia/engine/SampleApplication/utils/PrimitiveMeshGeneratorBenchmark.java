@@ -0,0 +1,112 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertSame;
+
+/**
+ * Measures how long PrimitiveMeshGenerator takes to build its shapes and the
+ * heap it allocates doing so, compared with the CylinderModel it replaced, and
+ * how long a shared mesh takes to get from SampleAssetCache
+ *
+ * A cylinder is built for each number of sides getSidesForScreenRadius() can
+ * pick. CylinderModel always built 64 sides, through double arrays converted
+ * to float buffers
+ */
+public class PrimitiveMeshGeneratorBenchmark
+{
+    private static final int RUNS = 51;
+
+    // Keeps the result of the last run alive so that the work is not optimized away
+    private MeshObject mMesh;
+
+
+    private void measure(String name, Benchmarks.Task task) throws Exception
+    {
+        long nanos = Benchmarks.medianNanos(RUNS, task);
+        long allocated = Benchmarks.allocatedBytes(task);
+        Benchmarks.report("PrimitiveMeshGenerator", "%s %d vertices, %d triangles: %.1f us, "
+                        + "%d heap bytes allocated", name, mMesh.getNumObjectVertex(),
+                mMesh.getNumObjectIndex() / 3, nanos / 1e3, allocated);
+    }
+
+
+    @Test
+    public void generationCost() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        measure("CylinderModel 64 sides", new Benchmarks.Task()
+        {
+            @Override
+            public void run()
+            {
+                mMesh = new ReferenceCylinderModel(1.0f);
+            }
+        });
+
+        for (int sides = PrimitiveMeshGenerator.MIN_SIDES; sides <= PrimitiveMeshGenerator.MAX_SIDES; sides *= 2)
+        {
+            final int cylinderSides = sides;
+            measure("cylinder " + sides + " sides", new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    mMesh = PrimitiveMeshGenerator.createCylinder(1.0f, cylinderSides);
+                }
+            });
+        }
+
+        measure("plane", new Benchmarks.Task()
+        {
+            @Override
+            public void run()
+            {
+                mMesh = PrimitiveMeshGenerator.createPlane(1);
+            }
+        });
+        measure("box", new Benchmarks.Task()
+        {
+            @Override
+            public void run()
+            {
+                mMesh = PrimitiveMeshGenerator.createBox();
+            }
+        });
+        measure("sphere 32 x 16", new Benchmarks.Task()
+        {
+            @Override
+            public void run()
+            {
+                mMesh = PrimitiveMeshGenerator.createSphere(32, 16);
+            }
+        });
+
+        try
+        {
+            final PrimitiveMesh shared = PrimitiveMeshGenerator.getCylinder(1.0f,
+                    PrimitiveMeshGenerator.DEFAULT_CYLINDER_SIDES);
+            measure("cached cylinder 64 sides", new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    mMesh = PrimitiveMeshGenerator.getCylinder(1.0f, PrimitiveMeshGenerator.DEFAULT_CYLINDER_SIDES);
+                }
+            });
+            assertSame(shared, mMesh);
+        }
+        finally
+        {
+            SampleAssetCache.getInstance().clear();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveMeshGeneratorTest
+{
+    private static final float DELTA = 1e-6f;
+
+    // The top radii the cylinder targets sample used: a cylinder, a truncated cone and a cone
+    private static final float[] TOP_RADII = {1.0f, 0.5f, 0.0f};
+
+
+    @After
+    public void tearDown()
+    {
+        SampleAssetCache.getInstance().clear();
+    }
+
+
+    private static float[] getFloats(Buffer buffer)
+    {
+        FloatBuffer floats = MeshObject.asFloatBuffer(buffer);
+        float[] result = new float[floats.remaining()];
+        floats.get(result);
+        return result;
+    }
+
+
+    @Test
+    public void cylindersAtSixtyFourSidesMatchTheCylinderModel()
+    {
+        for (float topRadius : TOP_RADII)
+        {
+            ReferenceCylinderModel expected = new ReferenceCylinderModel(topRadius);
+            PrimitiveMesh cylinder = PrimitiveMeshGenerator.createCylinder(topRadius,
+                    PrimitiveMeshGenerator.DEFAULT_CYLINDER_SIDES);
+            String name = "top radius " + topRadius;
+
+            assertEquals(name, 130, cylinder.getNumObjectVertex());
+            assertEquals(name, expected.getNumObjectVertex(), cylinder.getNumObjectVertex());
+            assertEquals(name, expected.getNumObjectIndex(), cylinder.getNumObjectIndex());
+
+            // Bit for bit, both round the same doubles to floats
+            assertArrayEquals(name, getFloats(expected.getVertices()), getFloats(cylinder.getVertices()), 0.0f);
+            assertArrayEquals(name, getFloats(expected.getTexCoords()), getFloats(cylinder.getTexCoords()), 0.0f);
+            assertArrayEquals(name, expected.copyIndices(), cylinder.copyIndices());
+        }
+    }
+
+
+    // CylinderModel gave the sides the tangent of the circle as normal, the generator
+    // gives the outward normal of the side, and the same normals to the centers
+    @Test
+    public void cylinderNormalsAreTheSideNormals()
+    {
+        int sides = PrimitiveMeshGenerator.DEFAULT_CYLINDER_SIDES;
+        for (float topRadius : TOP_RADII)
+        {
+            float[] expected = getFloats(new ReferenceCylinderModel(topRadius).getNormals());
+            PrimitiveMesh cylinder = PrimitiveMeshGenerator.createCylinder(topRadius, sides);
+            float[] vertices = getFloats(cylinder.getVertices());
+            float[] normals = getFloats(cylinder.getNormals());
+
+            for (int v = 0; v < 2 * sides; v++)
+            {
+                float nx = normals[v * 3];
+                float ny = normals[v * 3 + 1];
+                float nz = normals[v * 3 + 2];
+                assertEquals(1.0f, (float) Math.sqrt(nx * nx + ny * ny + nz * nz), DELTA);
+
+                // Perpendicular to the tangent CylinderModel used, and to the edge
+                // going up the side
+                int bottom = v % sides;
+                int top = bottom + sides;
+                assertEquals(0.0f, nx * expected[bottom * 3] + ny * expected[bottom * 3 + 1], DELTA);
+                float ex = vertices[top * 3] - vertices[bottom * 3];
+                float ey = vertices[top * 3 + 1] - vertices[bottom * 3 + 1];
+                assertEquals(0.0f, nx * ex + ny * ey + nz, DELTA);
+
+                // Outwards
+                assertTrue(nx * vertices[bottom * 3] + ny * vertices[bottom * 3 + 1] > 0.0f);
+            }
+
+            for (int v = 2 * sides; v < 2 * sides + 2; v++)
+            {
+                assertArrayEquals(new float[] {expected[v * 3], expected[v * 3 + 1], expected[v * 3 + 2]},
+                        new float[] {normals[v * 3], normals[v * 3 + 1], normals[v * 3 + 2]}, 0.0f);
+            }
+        }
+    }
+
+
+    @Test
+    public void coneIsACylinderWithoutTop()
+    {
+        PrimitiveMesh cone = PrimitiveMeshGenerator.createCone(16);
+        PrimitiveMesh cylinder = PrimitiveMeshGenerator.createCylinder(0.0f, 16);
+
+        assertEquals(cylinder.getKey(), cone.getKey());
+        assertArrayEquals(getFloats(cylinder.getVertices()), getFloats(cone.getVertices()), 0.0f);
+        assertEquals(16 * 4, cone.getNumTriangles());
+    }
+
+
+    @Test
+    public void meshesAreSlicesOfOneDirectBuffer()
+    {
+        PrimitiveMesh cylinder = PrimitiveMeshGenerator.createCylinder(1.0f, 8);
+
+        assertTrue(cylinder.getVertices().isDirect());
+        assertTrue(cylinder.getNormals().isDirect());
+        assertTrue(cylinder.getTexCoords().isDirect());
+        assertTrue(cylinder.getIndices().isDirect());
+        assertEquals(18 * 3 * 4, cylinder.getVertices().capacity());
+        assertEquals(18 * 2 * 4, cylinder.getTexCoords().capacity());
+        assertEquals(8 * 12 * 2, cylinder.getIndices().capacity());
+    }
+
+
+    @Test
+    public void planeBoxAndSphereHaveTheirSizes()
+    {
+        PrimitiveMesh plane = PrimitiveMeshGenerator.createPlane(2);
+        assertEquals(9, plane.getNumObjectVertex());
+        assertEquals(8, plane.getNumTriangles());
+        MeshBounds planeBounds = plane.getBounds();
+        assertEquals(-0.5f, planeBounds.getMin(0), DELTA);
+        assertEquals(0.5f, planeBounds.getMax(1), DELTA);
+        assertEquals(0.0f, planeBounds.getHalfExtent(2), DELTA);
+
+        PrimitiveMesh box = PrimitiveMeshGenerator.createBox();
+        assertEquals(24, box.getNumObjectVertex());
+        assertEquals(12, box.getNumTriangles());
+        assertEquals(0.5f, box.getBounds().getHalfExtent(0), DELTA);
+
+        // The stacks touching the poles have one triangle per slice
+        PrimitiveMesh sphere = PrimitiveMeshGenerator.createSphere(16, 8);
+        assertEquals(17 * 9, sphere.getNumObjectVertex());
+        assertEquals(16 * 7 * 2, sphere.getNumTriangles());
+        float[] vertices = getFloats(sphere.getVertices());
+        for (int v = 0; v < sphere.getNumObjectVertex(); v++)
+        {
+            float x = vertices[v * 3];
+            float y = vertices[v * 3 + 1];
+            float z = vertices[v * 3 + 2];
+            assertEquals(1.0f, (float) Math.sqrt(x * x + y * y + z * z), DELTA);
+        }
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cylindersOverSixteenBitIndicesAreRejected()
+    {
+        PrimitiveMeshGenerator.createCylinder(1.0f, 0x8000);
+    }
+
+
+    @Test
+    public void getSharesMeshesByParameters()
+    {
+        PrimitiveMesh cylinder = PrimitiveMeshGenerator.getCylinder(1.0f, 32);
+        assertSame(cylinder, PrimitiveMeshGenerator.getCylinder(1.0f, 32));
+        assertNotSame(cylinder, PrimitiveMeshGenerator.getCylinder(1.0f, 64));
+        assertNotSame(cylinder, PrimitiveMeshGenerator.getCylinder(0.5f, 32));
+        assertSame(PrimitiveMeshGenerator.getPlane(1), PrimitiveMeshGenerator.getPlane(1));
+        assertEquals("primitive/cylinder/1.0/32", cylinder.getKey());
+    }
+
+
+    @Test
+    public void sidesFollowTheScreenRadius()
+    {
+        // A side of 8 is 0.076 radii from the circle, of 128 0.0003 radii
+        assertEquals(PrimitiveMeshGenerator.MIN_SIDES, PrimitiveMeshGenerator.getSidesForScreenRadius(5.0f, 0.5f));
+        assertEquals(16, PrimitiveMeshGenerator.getSidesForScreenRadius(10.0f, 0.5f));
+        assertEquals(64, PrimitiveMeshGenerator.getSidesForScreenRadius(300.0f, 0.5f));
+        assertEquals(PrimitiveMeshGenerator.MAX_SIDES,
+                PrimitiveMeshGenerator.getSidesForScreenRadius(Float.POSITIVE_INFINITY, 0.5f));
+
+        // 64 sides are needed from 104 pixels, and kept down to 15% below
+        assertEquals(64, PrimitiveMeshGenerator.selectSides(110.0f, 32));
+        assertEquals(32, PrimitiveMeshGenerator.selectSides(100.0f, 32));
+        assertEquals(64, PrimitiveMeshGenerator.selectSides(100.0f, 64));
+        assertEquals(32, PrimitiveMeshGenerator.selectSides(80.0f, 64));
+    }
+
+
+    @Test
+    public void screenRadiusOfAUnitCircle()
+    {
+        float[] projection = ViewFrustumTest.createPerspective(90.0f, 1.0f, 0.1f, 10.0f);
+        float[] modelView = {
+                1, 0, 0, 0,
+                0, 1, 0, 0,
+                0, 0, 1, 0,
+                0, 0, -10, 1};
+
+        // At 10 units with 90 degrees over 1000 pixels, a unit is 50 pixels
+        assertEquals(50.0f, PrimitiveMeshGenerator.getScreenRadius(1.0f, modelView, projection, 1000), 1e-3f);
+
+        modelView[0] = 2.0f;
+        assertEquals(100.0f, PrimitiveMeshGenerator.getScreenRadius(1.0f, modelView, projection, 1000), 1e-3f);
+
+        modelView[14] = -1.5f;
+        assertEquals(Float.POSITIVE_INFINITY,
+                PrimitiveMeshGenerator.getScreenRadius(1.0f, modelView, projection, 1000), 0.0f);
+    }
+}
@@ -0,0 +1,516 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A SampleGL without a GL context, for the unit tests of the sample utilities
+ *
+ * Every call is recorded as text, e.g. "bindBuffer(34962, 1)". Buffer,
+ * shader and program names are handed out in sequence and deleting a name
+ * that is not alive fails the test. Shaders compile and programs link unless
+ * told otherwise, and program binaries are only accepted when enabled
+ */
+public class RecordingGL implements SampleGL
+{
+    static final int BINARY_FORMAT = 0x8741;
+
+    // Shader sources containing this text do not compile
+    String mCompileErrorMarker = "#error";
+
+    String mExtensions = "GL_OES_element_index_uint GL_OES_vertex_half_float";
+    String mVersion = "OpenGL ES 3.0 RecordingGL";
+    boolean mProgramBinarySupported = false;
+    boolean mAcceptsProgramBinaries = true;
+
+    private final List<String> mCalls = new ArrayList<>();
+
+    private int mNextBuffer = 1;
+    private int mNextShader = 1;
+    private int mNextProgram = 1;
+    private final Set<Integer> mLiveBuffers = new HashSet<>();
+    private final Set<Integer> mLiveShaders = new HashSet<>();
+    private final Set<Integer> mLivePrograms = new HashSet<>();
+    private final Set<Integer> mLinkedPrograms = new HashSet<>();
+    private final Map<Integer, String> mShaderSources = new HashMap<>();
+    private final Set<Integer> mCompiledShaders = new HashSet<>();
+
+    // Locations are given in the order the names are first asked for, in any program
+    private final Map<String, Integer> mLocations = new HashMap<>();
+
+    private long mUploadedBytes = 0;
+
+
+    public List<String> getCalls()
+    {
+        return mCalls;
+    }
+
+
+    public void clearCalls()
+    {
+        mCalls.clear();
+    }
+
+
+    // Calls to the method since the last clearCalls()
+    public List<String> getCalls(String method)
+    {
+        List<String> calls = new ArrayList<>();
+        for (String call : mCalls)
+        {
+            if (call.startsWith(method + "("))
+            {
+                calls.add(call);
+            }
+        }
+
+        return calls;
+    }
+
+
+    public int count(String method)
+    {
+        return getCalls(method).size();
+    }
+
+
+    public int getNumLiveBuffers()
+    {
+        return mLiveBuffers.size();
+    }
+
+
+    public int getNumLivePrograms()
+    {
+        return mLivePrograms.size();
+    }
+
+
+    public long getUploadedBytes()
+    {
+        return mUploadedBytes;
+    }
+
+
+    // A new context: every name of the previous one is gone without being deleted
+    public void loseContext()
+    {
+        mLiveBuffers.clear();
+        mLiveShaders.clear();
+        mLivePrograms.clear();
+        mLinkedPrograms.clear();
+    }
+
+
+    private void record(String method, Object... args)
+    {
+        StringBuilder call = new StringBuilder(method).append('(');
+        for (int i = 0; i < args.length; i++)
+        {
+            if (i > 0)
+            {
+                call.append(", ");
+            }
+            call.append(args[i]);
+        }
+
+        mCalls.add(call.append(')').toString());
+    }
+
+
+    private static void checkAlive(Set<Integer> names, int name, String kind)
+    {
+        if (!names.contains(name))
+        {
+            throw new AssertionError(kind + " " + name + " is not alive");
+        }
+    }
+
+
+    @Override
+    public int genBuffer()
+    {
+        int buffer = mNextBuffer++;
+        mLiveBuffers.add(buffer);
+        record("genBuffer", buffer);
+        return buffer;
+    }
+
+
+    @Override
+    public void deleteBuffer(int buffer)
+    {
+        checkAlive(mLiveBuffers, buffer, "Buffer");
+        mLiveBuffers.remove(buffer);
+        record("deleteBuffer", buffer);
+    }
+
+
+    @Override
+    public void bindBuffer(int target, int buffer)
+    {
+        if (buffer != 0)
+        {
+            checkAlive(mLiveBuffers, buffer, "Buffer");
+        }
+        record("bindBuffer", target, buffer);
+    }
+
+
+    @Override
+    public void bufferData(int target, int size, Buffer data, int usage)
+    {
+        mUploadedBytes += size;
+        record("bufferData", target, size, usage);
+    }
+
+
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, int offset)
+    {
+        record("vertexAttribPointer", index, size, type, normalized, stride, offset);
+    }
+
+
+    @Override
+    public void enableVertexAttribArray(int index)
+    {
+        record("enableVertexAttribArray", index);
+    }
+
+
+    @Override
+    public void disableVertexAttribArray(int index)
+    {
+        record("disableVertexAttribArray", index);
+    }
+
+
+    @Override
+    public void drawArrays(int mode, int first, int count)
+    {
+        record("drawArrays", mode, first, count);
+    }
+
+
+    @Override
+    public void drawElements(int mode, int count, int type, int offset)
+    {
+        record("drawElements", mode, count, type, offset);
+    }
+
+
+    @Override
+    public void enable(int cap)
+    {
+        record("enable", cap);
+    }
+
+
+    @Override
+    public void disable(int cap)
+    {
+        record("disable", cap);
+    }
+
+
+    @Override
+    public void blendFunc(int sfactor, int dfactor)
+    {
+        record("blendFunc", sfactor, dfactor);
+    }
+
+
+    @Override
+    public void blendEquation(int mode)
+    {
+        record("blendEquation", mode);
+    }
+
+
+    @Override
+    public void cullFace(int mode)
+    {
+        record("cullFace", mode);
+    }
+
+
+    @Override
+    public void activeTexture(int texture)
+    {
+        record("activeTexture", texture);
+    }
+
+
+    @Override
+    public void bindTexture(int target, int texture)
+    {
+        record("bindTexture", target, texture);
+    }
+
+
+    @Override
+    public void useProgram(int program)
+    {
+        record("useProgram", program);
+    }
+
+
+    @Override
+    public void uniform1i(int location, int x)
+    {
+        record("uniform1i", location, x);
+    }
+
+
+    @Override
+    public void uniform1f(int location, float x)
+    {
+        record("uniform1f", location, x);
+    }
+
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z)
+    {
+        record("uniform3f", location, x, y, z);
+    }
+
+
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w)
+    {
+        record("uniform4f", location, x, y, z, w);
+    }
+
+
+    @Override
+    public void uniform1fv(int location, int count, float[] v, int offset)
+    {
+        record("uniform1fv", location, count, Arrays.toString(Arrays.copyOfRange(v, offset, offset + count)));
+    }
+
+
+    @Override
+    public void uniform4fv(int location, int count, float[] v, int offset)
+    {
+        record("uniform4fv", location, count, Arrays.toString(Arrays.copyOfRange(v, offset, offset + count * 4)));
+    }
+
+
+    @Override
+    public void uniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset)
+    {
+        record("uniformMatrix4fv", location, count, transpose,
+                Arrays.toString(Arrays.copyOfRange(value, offset, offset + count * 16)));
+    }
+
+
+    @Override
+    public int createShader(int type)
+    {
+        int shader = mNextShader++;
+        mLiveShaders.add(shader);
+        record("createShader", type);
+        return shader;
+    }
+
+
+    @Override
+    public void shaderSource(int shader, String source)
+    {
+        checkAlive(mLiveShaders, shader, "Shader");
+        mShaderSources.put(shader, source);
+        record("shaderSource", shader);
+    }
+
+
+    @Override
+    public void compileShader(int shader)
+    {
+        checkAlive(mLiveShaders, shader, "Shader");
+        String source = mShaderSources.get(shader);
+        if (source != null && (mCompileErrorMarker == null || !source.contains(mCompileErrorMarker)))
+        {
+            mCompiledShaders.add(shader);
+        }
+        record("compileShader", shader);
+    }
+
+
+    @Override
+    public int getShaderParameter(int shader, int pname)
+    {
+        record("getShaderParameter", shader, pname);
+        return mCompiledShaders.contains(shader) ? GLES20.GL_TRUE : GLES20.GL_FALSE;
+    }
+
+
+    @Override
+    public String getShaderInfoLog(int shader)
+    {
+        record("getShaderInfoLog", shader);
+        return "RecordingGL compile error";
+    }
+
+
+    @Override
+    public void deleteShader(int shader)
+    {
+        checkAlive(mLiveShaders, shader, "Shader");
+        mLiveShaders.remove(shader);
+        record("deleteShader", shader);
+    }
+
+
+    @Override
+    public int createProgram()
+    {
+        int program = mNextProgram++;
+        mLivePrograms.add(program);
+        record("createProgram", program);
+        return program;
+    }
+
+
+    @Override
+    public void attachShader(int program, int shader)
+    {
+        checkAlive(mLivePrograms, program, "Program");
+        checkAlive(mLiveShaders, shader, "Shader");
+        record("attachShader", program, shader);
+    }
+
+
+    @Override
+    public void linkProgram(int program)
+    {
+        checkAlive(mLivePrograms, program, "Program");
+        mLinkedPrograms.add(program);
+        record("linkProgram", program);
+    }
+
+
+    @Override
+    public int getProgramParameter(int program, int pname)
+    {
+        record("getProgramParameter", program, pname);
+        return mLinkedPrograms.contains(program) ? GLES20.GL_TRUE : GLES20.GL_FALSE;
+    }
+
+
+    @Override
+    public String getProgramInfoLog(int program)
+    {
+        record("getProgramInfoLog", program);
+        return "RecordingGL link error";
+    }
+
+
+    @Override
+    public void deleteProgram(int program)
+    {
+        checkAlive(mLivePrograms, program, "Program");
+        mLivePrograms.remove(program);
+        mLinkedPrograms.remove(program);
+        record("deleteProgram", program);
+    }
+
+
+    @Override
+    public int getAttribLocation(int program, String name)
+    {
+        record("getAttribLocation", program, name);
+        return getLocation(name);
+    }
+
+
+    @Override
+    public int getUniformLocation(int program, String name)
+    {
+        record("getUniformLocation", program, name);
+        return getLocation(name);
+    }
+
+
+    private int getLocation(String name)
+    {
+        Integer location = mLocations.get(name);
+        if (location == null)
+        {
+            location = mLocations.size();
+            mLocations.put(name, location);
+        }
+
+        return location;
+    }
+
+
+    @Override
+    public String getString(int name)
+    {
+        record("getString", name);
+        switch (name)
+        {
+            case GLES20.GL_EXTENSIONS:
+                return mExtensions;
+            case GLES20.GL_VERSION:
+                return mVersion;
+            case GLES20.GL_VENDOR:
+                return "RecordingGL";
+            case GLES20.GL_RENDERER:
+                return "RecordingGL renderer";
+            default:
+                return null;
+        }
+    }
+
+
+    @Override
+    public boolean isProgramBinarySupported()
+    {
+        return mProgramBinarySupported;
+    }
+
+
+    @Override
+    public ByteBuffer getProgramBinary(int program, int[] format)
+    {
+        checkAlive(mLinkedPrograms, program, "Linked program");
+        record("getProgramBinary", program);
+        format[0] = BINARY_FORMAT;
+
+        ByteBuffer binary = ByteBuffer.allocateDirect(4);
+        binary.putInt(program).flip();
+        return binary;
+    }
+
+
+    @Override
+    public void programBinary(int program, int format, ByteBuffer binary)
+    {
+        checkAlive(mLivePrograms, program, "Program");
+        if (mAcceptsProgramBinaries && format == BINARY_FORMAT)
+        {
+            mLinkedPrograms.add(program);
+        }
+        record("programBinary", program, format);
+    }
+}
@@ -7,17 +7,16 @@ Vuforia is a trademark of PTC Inc., registered in the United States and other
 countries.
 ===============================================================================*/
 
-package com.vuforia.engine.CoreSamples.app.CylinderTargets;
+package com.vuforia.engine.SampleApplication.utils;
 
 import java.nio.Buffer;
 
-import com.vuforia.engine.SampleApplication.utils.MeshObject;
-
 
 /**
- * This class contains all the information needed to augment a cylinder model
+ * CylinderModel of the cylinder targets sample as it was before
+ * PrimitiveMeshGenerator replaced it, the reference for its cylinders
  */
-public class CylinderModel extends MeshObject
+public class ReferenceCylinderModel extends MeshObject
 {
     
     private final int CYLINDER_NB_SIDES = 64;
@@ -36,7 +35,7 @@ public class CylinderModel extends MeshObject
     private final double[] cylinderNormals;
     
     
-    CylinderModel(float topRadius)
+    public ReferenceCylinderModel(float topRadius)
     {
 
         int numCylinderVertices = ((CYLINDER_NB_SIDES * 2) + 2);
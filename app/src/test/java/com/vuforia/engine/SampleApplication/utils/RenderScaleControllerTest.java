@@ -0,0 +1,161 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RenderScaleControllerTest
+{
+    private static final long TARGET_NS = 1000000000L / 30;
+    private static final int WINDOW_SIZE = 5;
+
+    // Frames skipped by the controller after each change of scale
+    private static final int FRAMES_SKIPPED = 2;
+
+    private static final float EPSILON = 0.0001f;
+
+    private RenderScaleController mController;
+    private boolean mHasChanged;
+
+
+    @Before
+    public void setUp()
+    {
+        mController = new RenderScaleController(0.5f, 1.0f, TARGET_NS, WINDOW_SIZE);
+
+        // A new controller skips frames like after a change
+        mHasChanged = true;
+    }
+
+
+    // Feeds one full window of frames of the given time, returns true if the scale changed
+    private boolean feedWindow(long frameTimeNs)
+    {
+        int numFrames = WINDOW_SIZE + (mHasChanged ? FRAMES_SKIPPED : 0);
+
+        boolean hasChanged = false;
+        for (int i = 0; i < numFrames; i++)
+        {
+            hasChanged |= mController.onFrame(frameTimeNs);
+        }
+
+        mHasChanged = hasChanged;
+        return hasChanged;
+    }
+
+
+    @Test
+    public void keepsTheScaleWithinTheBudget()
+    {
+        assertFalse(feedWindow(TARGET_NS));
+        assertFalse(feedWindow(TARGET_NS * 105 / 100));
+        assertEquals(1.0f, mController.getScale(), EPSILON);
+        assertEquals(0, mController.getChangeCount());
+    }
+
+
+    @Test
+    public void lowersTheScaleByAtMostAQuarter()
+    {
+        // Twice the target would need a scale of 0.71, one step only goes to 0.75
+        assertTrue(feedWindow(2 * TARGET_NS));
+        assertEquals(0.75f, mController.getScale(), EPSILON);
+
+        // 1.2 times the target is met at 0.75 / sqrt(1.2)
+        assertTrue(feedWindow(TARGET_NS * 12 / 10));
+        assertEquals(0.75f / (float) Math.sqrt(1.2), mController.getScale(), EPSILON);
+    }
+
+
+    @Test
+    public void neverGoesBelowTheMinimumScale()
+    {
+        for (int i = 0; i < 10; i++)
+        {
+            feedWindow(10 * TARGET_NS);
+        }
+
+        assertEquals(0.5f, mController.getScale(), EPSILON);
+    }
+
+
+    @Test
+    public void raisesTheScaleInStepsUpToTheMaximum()
+    {
+        feedWindow(10 * TARGET_NS);
+        feedWindow(10 * TARGET_NS);
+        feedWindow(10 * TARGET_NS);
+        assertEquals(0.5f, mController.getScale(), EPSILON);
+
+        assertTrue(feedWindow(TARGET_NS / 2));
+        assertEquals(0.55f, mController.getScale(), EPSILON);
+
+        for (int i = 0; i < 20; i++)
+        {
+            feedWindow(TARGET_NS / 2);
+        }
+
+        assertEquals(1.0f, mController.getScale(), EPSILON);
+    }
+
+
+    @Test
+    public void ignoresASingleHitch()
+    {
+        boolean hasChanged = false;
+        for (int i = 0; i < FRAMES_SKIPPED + WINDOW_SIZE; i++)
+        {
+            hasChanged |= mController.onFrame(i == 3 ? 10 * TARGET_NS : TARGET_NS);
+        }
+
+        assertFalse(hasChanged);
+        assertEquals(1.0f, mController.getScale(), EPSILON);
+    }
+
+
+    @Test
+    public void revertsAFailedIncreaseAndHoldsBeforeRetrying()
+    {
+        feedWindow(2 * TARGET_NS);
+        assertEquals(0.75f, mController.getScale(), EPSILON);
+
+        feedWindow(TARGET_NS / 2);
+        assertEquals(0.80f, mController.getScale(), EPSILON);
+
+        // The increase went over budget, back to the scale that was within it
+        assertTrue(feedWindow(2 * TARGET_NS));
+        assertEquals(0.75f, mController.getScale(), EPSILON);
+
+        // The failed scale is held off for the next window
+        assertFalse(feedWindow(TARGET_NS / 2));
+        assertTrue(feedWindow(TARGET_NS / 2));
+        assertEquals(0.80f, mController.getScale(), EPSILON);
+    }
+
+
+    @Test
+    public void ignoresPausesAndResets()
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            assertFalse(mController.onFrame(5000000000L));
+        }
+
+        feedWindow(2 * TARGET_NS);
+        assertEquals(1, mController.getChangeCount());
+
+        mController.reset();
+        assertEquals(1.0f, mController.getScale(), EPSILON);
+        assertEquals(0, mController.getChangeCount());
+    }
+}
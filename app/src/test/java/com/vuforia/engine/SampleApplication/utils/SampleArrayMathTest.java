@@ -0,0 +1,184 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SampleArrayMathTest
+{
+    private static final float EPSILON = 0.0001f;
+
+    private static final float[] IDENTITY = {
+            1, 0, 0, 0,
+            0, 1, 0, 0,
+            0, 0, 1, 0,
+            0, 0, 0, 1 };
+
+
+    // A rigid pose: rotated around an oblique axis, then translated
+    private static float[] createPose()
+    {
+        float[] pose = new float[16];
+        SampleArrayMath.Matrix44FIdentity(pose, 0);
+        SampleArrayMath.Matrix44FTranslate(pose, 0, 0.3f, -1.2f, 2.5f);
+        SampleArrayMath.Matrix44FRotate(pose, 0, 37.0f, 1.0f, 2.0f, -0.5f);
+        return pose;
+    }
+
+
+    @Test
+    public void multiplyingByTheIdentityKeepsTheMatrix()
+    {
+        float[] pose = createPose();
+        float[] out = new float[16];
+
+        SampleArrayMath.Matrix44FMultiply(out, 0, pose, 0, IDENTITY, 0);
+        assertArrayEquals(pose, out, EPSILON);
+
+        SampleArrayMath.Matrix44FMultiply(out, 0, IDENTITY, 0, pose, 0);
+        assertArrayEquals(pose, out, EPSILON);
+    }
+
+
+    @Test
+    public void multiplyAllowsTheOutputToAliasAnInput()
+    {
+        float[] pose = createPose();
+        float[] scale = new float[16];
+        SampleArrayMath.Matrix44FIdentity(scale, 0);
+        SampleArrayMath.Matrix44FScale(scale, 0, 2.0f, 3.0f, 4.0f);
+
+        float[] expected = new float[16];
+        SampleArrayMath.Matrix44FMultiply(expected, 0, pose, 0, scale, 0);
+
+        SampleArrayMath.Matrix44FMultiply(scale, 0, pose, 0, scale, 0);
+        assertArrayEquals(expected, scale, EPSILON);
+    }
+
+
+    @Test
+    public void inverseTimesMatrixIsTheIdentity()
+    {
+        float[] m = {
+                2, 0, 1, 0,
+                1, 3, 0, 0,
+                0, 1, 4, 1,
+                1, 0, 0, 2 };
+        float[] inverse = new float[16];
+        float[] product = new float[16];
+
+        assertTrue(SampleArrayMath.Matrix44FInverse(inverse, 0, m, 0));
+        SampleArrayMath.Matrix44FMultiply(product, 0, inverse, 0, m, 0);
+        assertArrayEquals(IDENTITY, product, EPSILON);
+    }
+
+
+    @Test
+    public void inverseOfASingularMatrixFails()
+    {
+        float[] singular = new float[16];
+        float[] out = { 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7 };
+
+        assertFalse(SampleArrayMath.Matrix44FInverse(out, 0, singular, 0));
+        assertFalse(SampleArrayMath.Matrix44FInverseAffine(out, 0, singular, 0));
+        assertEquals(7.0f, out[0], 0.0f);
+    }
+
+
+    @Test
+    public void affineInverseMatchesTheGeneralInverse()
+    {
+        float[] pose = createPose();
+        float[] general = new float[16];
+        float[] affine = new float[16];
+
+        assertTrue(SampleArrayMath.Matrix44FInverse(general, 0, pose, 0));
+        assertTrue(SampleArrayMath.Matrix44FInverseAffine(affine, 0, pose, 0));
+        assertArrayEquals(general, affine, EPSILON);
+    }
+
+
+    @Test
+    public void transformsPointsAndDirections()
+    {
+        float[] m = new float[16];
+        SampleArrayMath.Matrix44FIdentity(m, 0);
+        SampleArrayMath.Matrix44FTranslate(m, 0, 1.0f, 2.0f, 3.0f);
+        SampleArrayMath.Matrix44FRotate(m, 0, 90.0f, 0.0f, 0.0f, 1.0f);
+
+        float[] x = { 1, 0, 0 };
+        float[] out = new float[3];
+
+        // The x axis turns into the y axis, then the point is translated
+        SampleArrayMath.Vec3FTransform(out, 0, m, 0, x, 0);
+        assertArrayEquals(new float[] { 1, 3, 3 }, out, EPSILON);
+
+        // Directions are not translated
+        SampleArrayMath.Vec3FTransformNormal(out, 0, m, 0, x, 0);
+        assertArrayEquals(new float[] { 0, 1, 0 }, out, EPSILON);
+    }
+
+
+    @Test
+    public void convertsARowMajorPose()
+    {
+        float[] pose = {
+                1, 0, 0, 5,
+                0, 0, -1, 6,
+                0, 1, 0, 7 };
+        float[] out = new float[16];
+
+        SampleArrayMath.Matrix44FFromPose(out, 0, pose, 0);
+        assertArrayEquals(new float[] {
+                1, 0, 0, 0,
+                0, 0, 1, 0,
+                0, -1, 0, 0,
+                5, 6, 7, 1 }, out, 0.0f);
+    }
+
+
+    @Test
+    public void vectorOperationsUseTheGivenOffsets()
+    {
+        float[] v = { 9, 1, 0, 0, 0, 1, 0, 9 };
+        float[] out = new float[5];
+
+        SampleArrayMath.Vec3FCross(out, 2, v, 1, v, 4);
+        assertArrayEquals(new float[] { 0, 0, 0, 0, 1 }, out, 0.0f);
+        assertEquals(0.0f, SampleArrayMath.Vec3FDot(v, 1, v, 4), 0.0f);
+
+        float[] w = { 3, 0, 4 };
+        SampleArrayMath.Vec3FNormalize(w, 0, w, 0);
+        assertArrayEquals(new float[] { 0.6f, 0, 0.8f }, w, EPSILON);
+    }
+
+
+    @Test
+    public void intersectsALineWithAPlane()
+    {
+        float[] start = { 1, 2, 5 };
+        float[] end = { 1, 2, 4 };
+        float[] pointOnPlane = { 0, 0, -1 };
+        float[] normal = { 0, 0, 1 };
+        float[] out = new float[3];
+
+        // The intersection may lie beyond the end of the segment
+        assertTrue(SampleArrayMath.linePlaneIntersection(out, 0, start, 0, end, 0,
+                pointOnPlane, 0, normal, 0));
+        assertArrayEquals(new float[] { 1, 2, -1 }, out, EPSILON);
+
+        float[] parallelEnd = { 3, 2, 5 };
+        assertFalse(SampleArrayMath.linePlaneIntersection(out, 0, start, 0, parallelEnd, 0,
+                pointOnPlane, 0, normal, 0));
+    }
+}
@@ -0,0 +1,303 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.content.ComponentCallbacks2;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SampleAssetCacheTest
+{
+    private static final int ENTRY_BYTES = 100;
+
+    private static final int NUM_THREADS = 8;
+    private static final int NUM_KEYS = 32;
+    private static final int OPERATIONS_PER_THREAD = 20000;
+    private static final long TIMEOUT_MS = 30000;
+
+
+    // A cache of four entries of ENTRY_BYTES
+    private static SampleAssetCache createCache(String... keys)
+    {
+        SampleAssetCache cache = new SampleAssetCache(4 * ENTRY_BYTES);
+        for (String key : keys)
+        {
+            cache.putIfAbsent(key, key, ENTRY_BYTES);
+        }
+
+        return cache;
+    }
+
+
+    private static void assertCached(SampleAssetCache cache, String... keys)
+    {
+        assertEquals(keys.length, cache.getEntryCount());
+        assertEquals(keys.length * ENTRY_BYTES, cache.getTotalBytes());
+        for (String key : keys)
+        {
+            assertTrue(key, cache.contains(key));
+        }
+    }
+
+
+    @Test
+    public void evictsTheLeastRecentlyUsedEntries()
+    {
+        SampleAssetCache cache = createCache("a", "b", "c", "d");
+
+        // a is now the most recently used, b the least
+        assertEquals("a", cache.get("a", String.class));
+        cache.putIfAbsent("e", "e", ENTRY_BYTES);
+        assertCached(cache, "a", "c", "d", "e");
+
+        // Two entries make room for one of twice the size
+        cache.get("c", String.class);
+        cache.putIfAbsent("f", "f", 2 * ENTRY_BYTES);
+        assertFalse(cache.contains("a"));
+        assertFalse(cache.contains("d"));
+        assertTrue(cache.contains("e"));
+        assertTrue(cache.contains("c"));
+        assertTrue(cache.contains("f"));
+        assertEquals(4 * ENTRY_BYTES, cache.getTotalBytes());
+        assertEquals(3, cache.getEvictionCount());
+    }
+
+
+    @Test
+    public void putIfAbsentKeepsTheFirstValue()
+    {
+        SampleAssetCache cache = createCache("a");
+        String other = new String("a");
+
+        assertSame("a", cache.putIfAbsent("a", other, ENTRY_BYTES));
+        assertSame("a", cache.get("a", String.class));
+
+        // A value of another type replaces the entry
+        Integer replacement = 1;
+        assertSame(replacement, cache.putIfAbsent("a", replacement, ENTRY_BYTES));
+        assertNull(cache.get("a", String.class));
+        assertSame(replacement, cache.get("a", Integer.class));
+        assertEquals(ENTRY_BYTES, cache.getTotalBytes());
+    }
+
+
+    @Test
+    public void valuesLargerThanTheCacheAreNotCached()
+    {
+        SampleAssetCache cache = createCache("a", "b");
+
+        String large = "large";
+        assertSame(large, cache.putIfAbsent("large", large, 4 * ENTRY_BYTES + 1));
+
+        assertFalse(cache.contains("large"));
+        assertCached(cache, "a", "b");
+        assertEquals(0, cache.getEvictionCount());
+
+        // A value of exactly the budget evicts everything else
+        cache.putIfAbsent("full", "full", 4 * ENTRY_BYTES);
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(4 * ENTRY_BYTES, cache.getTotalBytes());
+    }
+
+
+    @Test
+    public void keepsEverythingWhileMemoryIsOnlyGettingScarce()
+    {
+        int[] levels = {ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE,
+                ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN};
+
+        for (int level : levels)
+        {
+            SampleAssetCache cache = createCache("a", "b", "c", "d");
+            cache.trimMemory(level);
+            assertCached(cache, "a", "b", "c", "d");
+        }
+    }
+
+
+    @Test
+    public void halvesTheCacheWhenLowOrInTheBackground()
+    {
+        int[] levels = {ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW,
+                ComponentCallbacks2.TRIM_MEMORY_BACKGROUND};
+
+        for (int level : levels)
+        {
+            SampleAssetCache cache = createCache("a", "b", "c", "d");
+            cache.get("a", String.class);
+            cache.trimMemory(level);
+            assertCached(cache, "d", "a");
+        }
+    }
+
+
+    @Test
+    public void emptiesTheCacheWhenCriticalOrAboutToBeKilled()
+    {
+        int[] levels = {ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL,
+                ComponentCallbacks2.TRIM_MEMORY_MODERATE,
+                ComponentCallbacks2.TRIM_MEMORY_COMPLETE};
+
+        for (int level : levels)
+        {
+            SampleAssetCache cache = createCache("a", "b", "c", "d");
+            cache.trimMemory(level);
+            assertCached(cache);
+            assertEquals(4, cache.getEvictionCount());
+        }
+    }
+
+
+    @Test
+    public void getMeshLoadsOnlyOnMisses()
+    {
+        final AtomicInteger numLoads = new AtomicInteger(0);
+        Callable<TestMesh> loader = new Callable<TestMesh>()
+        {
+            @Override
+            public TestMesh call()
+            {
+                numLoads.incrementAndGet();
+                return TestMesh.create(8, 12);
+            }
+        };
+
+        SampleAssetCache cache = new SampleAssetCache(SampleAssetCache.DEFAULT_MAX_BYTES);
+        TestMesh mesh = cache.getMesh("mesh", loader);
+        assertSame(mesh, cache.getMesh("mesh", loader));
+
+        assertEquals(1, numLoads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(SampleAssetCache.sizeOf(mesh), cache.getTotalBytes());
+    }
+
+
+    @Test
+    public void getMeshReportsTheFailureOfTheLoader()
+    {
+        final IllegalStateException error = new IllegalStateException("Corrupt");
+        SampleAssetCache cache = new SampleAssetCache(SampleAssetCache.DEFAULT_MAX_BYTES);
+
+        try
+        {
+            cache.getMesh("mesh", new Callable<TestMesh>()
+            {
+                @Override
+                public TestMesh call()
+                {
+                    throw error;
+                }
+            });
+            fail("The failure of the loader was not reported");
+        }
+        catch (RuntimeException e)
+        {
+            assertSame(error, e.getCause());
+        }
+
+        assertEquals(0, cache.getEntryCount());
+    }
+
+
+    // Entries of different sizes, so that a lost update of the total shows
+    private static int sizeOfKey(int key)
+    {
+        return (key + 1) * 10;
+    }
+
+
+    @Test
+    public void staysConsistentWhenUsedFromEightThreads() throws Exception
+    {
+        // Holds about half of the keys, so that entries are evicted all the time
+        final SampleAssetCache cache = new SampleAssetCache(NUM_KEYS * NUM_KEYS * 10 / 4);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int thread = 0; thread < NUM_THREADS; thread++)
+        {
+            final int seed = thread;
+            futures.add(executor.submit(new Callable<Integer>()
+            {
+                @Override
+                public Integer call() throws InterruptedException
+                {
+                    start.await();
+
+                    int numGets = 0;
+                    int random = seed * 7919 + 1;
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++)
+                    {
+                        random = random * 1103515245 + 12345;
+                        int key = (random >>> 16) % NUM_KEYS;
+                        String name = "key " + key;
+
+                        String value = cache.get(name, String.class);
+                        numGets++;
+                        if (value == null)
+                        {
+                            value = cache.putIfAbsent(name, name, sizeOfKey(key));
+                        }
+
+                        assertEquals(name, value);
+
+                        if (i % 1000 == 0)
+                        {
+                            cache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+                        }
+                    }
+
+                    return numGets;
+                }
+            }));
+        }
+
+        start.countDown();
+
+        long numGets = 0;
+        for (Future<Integer> future : futures)
+        {
+            numGets += future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(numGets, cache.getHitCount() + cache.getMissCount());
+        assertTrue(cache.getTotalBytes() <= cache.getMaxBytes());
+
+        long cachedBytes = 0;
+        for (int key = 0; key < NUM_KEYS; key++)
+        {
+            if (cache.contains("key " + key))
+            {
+                assertNotNull(cache.get("key " + key, String.class));
+                cachedBytes += sizeOfKey(key);
+            }
+        }
+        assertEquals(cachedBytes, cache.getTotalBytes());
+    }
+}
@@ -0,0 +1,235 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Loads the sections of the shipped .v3d models the way SampleApplicationV3DModel
+ * did before SampleAssetReader, reading the whole asset into a byte[] and copying
+ * it float by float, and the way it does now, mapped or streamed and bulk-copied
+ */
+public class SampleAssetReaderBenchmark
+{
+    private static final String[] MODELS = {"astronaut.v3d", "drone.v3d"};
+    private static final int RUNS = 21;
+    private static final int RETAINED_LOADS = 16;
+
+    // Values per face of the vertex, normal, tex coord and material sections, then
+    // values per material of the color, texture index, dissolve and range sections
+    private static final int[] FACE_SECTIONS = {9, 9, 6, 6};
+    private static final int[] MATERIAL_SECTIONS = {4, 4, 4, 1, 1, 2};
+    private static final int HEADER_SIZE = 5 * 4;
+
+    // Keeps the sections of the last load alive, as the model does
+    private ByteBuffer[] mSections;
+
+
+    private static ByteBuffer[] loadPerFloat(File file) throws IOException
+    {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+        byte[] bytesArray;
+        try
+        {
+            bytesArray = new byte[inputStream.available()];
+            int offset = 0;
+            while (offset < bytesArray.length)
+            {
+                offset += inputStream.read(bytesArray, offset, bytesArray.length - offset);
+            }
+        }
+        finally
+        {
+            inputStream.close();
+        }
+
+        ByteBuffer byteBuffer = ByteBuffer.wrap(bytesArray);
+        int numFaces = byteBuffer.getInt(12);
+        int numMaterials = byteBuffer.getInt(16);
+        byteBuffer.position(HEADER_SIZE);
+
+        ByteBuffer[] sections = new ByteBuffer[FACE_SECTIONS.length + MATERIAL_SECTIONS.length];
+        for (int section = 0; section < sections.length; section++)
+        {
+            int numValues = getNumValues(section, numFaces, numMaterials);
+            ByteBuffer values = ByteBuffer.allocateDirect(numValues * 4);
+            values.order(ByteOrder.nativeOrder());
+            for (int i = 0; i < numValues; i++)
+            {
+                values.putFloat(byteBuffer.getFloat());
+            }
+
+            values.rewind();
+            sections[section] = values;
+        }
+
+        return sections;
+    }
+
+
+    private static ByteBuffer[] loadBulk(ByteBuffer byteBuffer)
+    {
+        int numFaces = byteBuffer.getInt(12);
+        int numMaterials = byteBuffer.getInt(16);
+        byteBuffer.position(HEADER_SIZE);
+
+        // Ints and floats are both copied in bulk, only the floats are compared below
+        ByteBuffer[] sections = new ByteBuffer[FACE_SECTIONS.length + MATERIAL_SECTIONS.length];
+        for (int section = 0; section < sections.length; section++)
+        {
+            sections[section] = SampleAssetReader.copyFloats(byteBuffer,
+                    getNumValues(section, numFaces, numMaterials));
+        }
+
+        return sections;
+    }
+
+
+    private static ByteBuffer[] loadMapped(File file) throws IOException
+    {
+        FileInputStream fileStream = new FileInputStream(file);
+        try
+        {
+            return loadBulk(SampleAssetReader.mapRegion(fileStream, 0, file.length()));
+        }
+        finally
+        {
+            fileStream.close();
+        }
+    }
+
+
+    private static ByteBuffer[] loadStreamed(File file) throws IOException
+    {
+        FileInputStream fileStream = new FileInputStream(file);
+        try
+        {
+            return loadBulk(SampleAssetReader.readStream(fileStream));
+        }
+        finally
+        {
+            fileStream.close();
+        }
+    }
+
+
+    private static int getNumValues(int section, int numFaces, int numMaterials)
+    {
+        return section < FACE_SECTIONS.length
+                ? numFaces * FACE_SECTIONS[section]
+                : numMaterials * MATERIAL_SECTIONS[section - FACE_SECTIONS.length];
+    }
+
+
+    private interface Loader
+    {
+        ByteBuffer[] load(File file) throws IOException;
+    }
+
+
+    private void measure(String model, String name, final File file, final Loader loader)
+        throws Exception
+    {
+        long durationNs = Benchmarks.medianNanos(RUNS, new Benchmarks.Task()
+        {
+            @Override
+            public void run() throws Exception
+            {
+                mSections = loader.load(file);
+            }
+        });
+
+        // The peak is at least what one load allocates, what stays is averaged over
+        // several loads kept alive at the same time
+        mSections = null;
+        long allocated = Benchmarks.allocatedBytes(new Benchmarks.Task()
+        {
+            @Override
+            public void run() throws Exception
+            {
+                loader.load(file);
+            }
+        });
+
+        ByteBuffer[][] kept = new ByteBuffer[RETAINED_LOADS][];
+        long heapBefore = Benchmarks.usedHeapBytes();
+        for (int load = 0; load < RETAINED_LOADS; load++)
+        {
+            kept[load] = loader.load(file);
+        }
+        long retained = (Benchmarks.usedHeapBytes() - heapBefore) / RETAINED_LOADS;
+
+        long directBytes = 0;
+        for (ByteBuffer section : kept[0])
+        {
+            directBytes += section.capacity();
+        }
+
+        Benchmarks.report("SampleAssetReader", "%s %-9s %6.2f ms, %8d heap bytes allocated,"
+                + " %6d heap bytes and %8d direct bytes retained", model, name,
+                Benchmarks.toMillis(durationNs), allocated, retained, directBytes);
+    }
+
+
+    @Test
+    public void loadModels() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        for (String model : MODELS)
+        {
+            File file = TestAssets.getFile(model);
+
+            // The three loaders give the same sections
+            ByteBuffer[] expected = loadPerFloat(file);
+            ByteBuffer[] mapped = loadMapped(file);
+            ByteBuffer[] streamed = loadStreamed(file);
+            for (int section = 0; section < expected.length; section++)
+            {
+                assertEquals(expected[section], mapped[section]);
+                assertEquals(expected[section], streamed[section]);
+            }
+
+            Benchmarks.report("SampleAssetReader", "%s is %d bytes", model, file.length());
+            measure(model, "per-float", file, new Loader()
+            {
+                @Override
+                public ByteBuffer[] load(File file) throws IOException
+                {
+                    return loadPerFloat(file);
+                }
+            });
+            measure(model, "mapped", file, new Loader()
+            {
+                @Override
+                public ByteBuffer[] load(File file) throws IOException
+                {
+                    return loadMapped(file);
+                }
+            });
+            measure(model, "streamed", file, new Loader()
+            {
+                @Override
+                public ByteBuffer[] load(File file) throws IOException
+                {
+                    return loadStreamed(file);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SampleAssetReaderTest
+{
+    // Where the asset starts in the file, as inside an APK
+    private static final int ASSET_OFFSET = 100;
+    private static final int NUM_FLOATS = 1000;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+
+    // An asset of NUM_FLOATS big-endian floats, preceded by ASSET_OFFSET bytes of padding
+    private File writeAsset() throws IOException
+    {
+        ByteBuffer content = ByteBuffer.allocate(ASSET_OFFSET + NUM_FLOATS * 4);
+        content.position(ASSET_OFFSET);
+        for (int i = 0; i < NUM_FLOATS; i++)
+        {
+            content.putFloat(i * 0.5f);
+        }
+
+        File file = mFolder.newFile("asset.bin");
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try
+        {
+            outputStream.write(content.array());
+        }
+        finally
+        {
+            outputStream.close();
+        }
+
+        return file;
+    }
+
+
+    private static void assertAssetFloats(ByteBuffer asset)
+    {
+        assertEquals(0, asset.position());
+        assertEquals(NUM_FLOATS * 4, asset.remaining());
+        assertEquals(ByteOrder.BIG_ENDIAN, asset.order());
+        for (int i = 0; i < NUM_FLOATS; i++)
+        {
+            assertEquals(i * 0.5f, asset.getFloat(i * 4), 0.0f);
+        }
+    }
+
+
+    @Test
+    public void mapsTheRegionOfTheAsset() throws IOException
+    {
+        File file = writeAsset();
+
+        ByteBuffer mapped;
+        FileInputStream fileStream = new FileInputStream(file);
+        try
+        {
+            mapped = SampleAssetReader.mapRegion(fileStream, ASSET_OFFSET, NUM_FLOATS * 4);
+        }
+        finally
+        {
+            fileStream.close();
+        }
+
+        // Still readable once the stream is closed
+        assertTrue(mapped instanceof MappedByteBuffer);
+        assertAssetFloats(mapped);
+    }
+
+
+    @Test
+    public void streamsAnAssetOfUnknownSize() throws IOException
+    {
+        // Larger than a read chunk and the initial buffer, handed out in small reads
+        final int numBytes = 300 * 1024 + 7;
+        byte[] content = new byte[numBytes];
+        for (int i = 0; i < numBytes; i++)
+        {
+            content[i] = (byte) (i * 31);
+        }
+
+        InputStream inputStream = new ByteArrayInputStream(content)
+        {
+            @Override
+            public synchronized int available()
+            {
+                return 0;
+            }
+
+
+            @Override
+            public synchronized int read(byte[] b, int off, int len)
+            {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+
+        ByteBuffer streamed = SampleAssetReader.readStream(inputStream);
+
+        assertTrue(streamed.isDirect());
+        assertEquals(0, streamed.position());
+        assertEquals(numBytes, streamed.limit());
+        for (int i = 0; i < numBytes; i++)
+        {
+            assertEquals(content[i], streamed.get(i));
+        }
+    }
+
+
+    @Test
+    public void mappedAndStreamedAssetsAreTheSame() throws IOException
+    {
+        File file = writeAsset();
+
+        FileInputStream fileStream = new FileInputStream(file);
+        ByteBuffer mapped;
+        ByteBuffer streamed;
+        try
+        {
+            mapped = SampleAssetReader.mapRegion(fileStream, ASSET_OFFSET, NUM_FLOATS * 4);
+            fileStream.getChannel().position(ASSET_OFFSET);
+            streamed = SampleAssetReader.readStream(fileStream);
+        }
+        finally
+        {
+            fileStream.close();
+        }
+
+        assertAssetFloats(streamed);
+        assertEquals(mapped, streamed);
+    }
+
+
+    @Test
+    public void copiesSectionsInNativeOrder() throws IOException
+    {
+        FileInputStream fileStream = new FileInputStream(writeAsset());
+        ByteBuffer asset;
+        try
+        {
+            asset = SampleAssetReader.mapRegion(fileStream, ASSET_OFFSET, NUM_FLOATS * 4);
+        }
+        finally
+        {
+            fileStream.close();
+        }
+
+        ByteBuffer first = SampleAssetReader.copyFloats(asset, 10);
+        float[] second = SampleAssetReader.readFloatArray(asset, 10);
+
+        assertEquals(80, asset.position());
+        assertEquals(ByteOrder.nativeOrder(), first.order());
+        assertTrue(first.isDirect());
+
+        FloatBuffer firstFloats = first.asFloatBuffer();
+        for (int i = 0; i < 10; i++)
+        {
+            assertEquals(i * 0.5f, firstFloats.get(i), 0.0f);
+            assertEquals((i + 10) * 0.5f, second[i], 0.0f);
+        }
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsASectionPastTheEnd()
+    {
+        ByteBuffer asset = ByteBuffer.allocate(16);
+        asset.position(8);
+
+        SampleAssetReader.copyFloats(asset, 3);
+    }
+
+
+    @Test
+    public void readsTheShippedModels() throws IOException
+    {
+        String[] models = {"astronaut.v3d", "drone.v3d"};
+        for (String model : models)
+        {
+            File file = TestAssets.getFile(model);
+            FileInputStream fileStream = new FileInputStream(file);
+            try
+            {
+                ByteBuffer mapped = SampleAssetReader.mapRegion(fileStream, 0, file.length());
+                assertEquals(TestAssets.read(model), mapped);
+
+                // The magic number is found again at the end of the sections
+                assertEquals(mapped.getInt(0), mapped.getInt(mapped.limit() - 4));
+            }
+            finally
+            {
+                fileStream.close();
+            }
+        }
+    }
+}
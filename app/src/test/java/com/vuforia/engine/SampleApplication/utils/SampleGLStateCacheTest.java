@@ -0,0 +1,188 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SampleGLStateCacheTest
+{
+    private static final int PROGRAM = 1;
+    private static final int OTHER_PROGRAM = 2;
+    private static final int LOCATION = 3;
+
+    private RecordingGL mGL;
+    private SampleGLStateCache mCache;
+
+
+    @Before
+    public void setUp()
+    {
+        mGL = new RecordingGL();
+        mCache = new SampleGLStateCache(mGL);
+    }
+
+
+    @Test
+    public void dropsStateCallsThatChangeNothing()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            mCache.enable(GLES20.GL_DEPTH_TEST);
+            mCache.blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+            mCache.cullFace(GLES20.GL_BACK);
+            mCache.useProgram(PROGRAM);
+        }
+
+        mCache.disable(GLES20.GL_DEPTH_TEST);
+
+        assertEquals(2, mGL.count("enable") + mGL.count("disable"));
+        assertEquals(1, mGL.count("blendFunc"));
+        assertEquals(1, mGL.count("cullFace"));
+        assertEquals(1, mGL.count("useProgram"));
+        assertEquals(5, mCache.getIssuedCount());
+        assertEquals(8, mCache.getElidedCount());
+    }
+
+
+    @Test
+    public void keepsTheTextureBindingOfEachUnit()
+    {
+        mCache.activeTexture(GLES20.GL_TEXTURE0);
+        mCache.bindTexture(GLES20.GL_TEXTURE_2D, 10);
+        mCache.activeTexture(GLES20.GL_TEXTURE1);
+        mCache.bindTexture(GLES20.GL_TEXTURE_2D, 11);
+
+        mCache.activeTexture(GLES20.GL_TEXTURE0);
+        mCache.bindTexture(GLES20.GL_TEXTURE_2D, 10);
+        mCache.bindTexture(GLES20.GL_TEXTURE_2D, 11);
+
+        assertEquals(3, mGL.count("activeTexture"));
+        assertEquals(3, mGL.count("bindTexture"));
+    }
+
+
+    @Test
+    public void deletingABoundBufferUnbindsIt()
+    {
+        int buffer = mGL.genBuffer();
+        mCache.bindBuffer(GLES20.GL_ARRAY_BUFFER, buffer);
+        mCache.deleteBuffer(buffer);
+
+        // The binding reverted to 0, binding 0 changes nothing
+        mCache.bindBuffer(GLES20.GL_ARRAY_BUFFER, 0);
+
+        assertEquals(1, mGL.count("bindBuffer"));
+        assertEquals(1, mGL.count("deleteBuffer"));
+    }
+
+
+    @Test
+    public void keepsTheUniformsOfEachProgram()
+    {
+        mCache.useProgram(PROGRAM);
+        mCache.uniform1f(LOCATION, 1.0f);
+        mCache.useProgram(OTHER_PROGRAM);
+        mCache.uniform1f(LOCATION, 2.0f);
+
+        mCache.useProgram(PROGRAM);
+        mCache.uniform1f(LOCATION, 1.0f);
+        mCache.useProgram(OTHER_PROGRAM);
+        mCache.uniform1f(LOCATION, 2.0f);
+
+        assertEquals("[uniform1f(3, 1.0), uniform1f(3, 2.0)]", mGL.getCalls("uniform1f").toString());
+    }
+
+
+    @Test
+    public void uniformArraysAreComparedAsAWhole()
+    {
+        float[] values = {1.0f, 2.0f, 3.0f, 4.0f};
+        mCache.useProgram(PROGRAM);
+        mCache.uniform1fv(LOCATION, 4, values, 0);
+        mCache.uniform1fv(LOCATION, 4, values.clone(), 0);
+
+        values[3] = 5.0f;
+        mCache.uniform1fv(LOCATION, 4, values, 0);
+
+        assertEquals(2, mGL.count("uniform1fv"));
+    }
+
+
+    @Test
+    public void linkingForgetsTheUniformsOfTheProgram()
+    {
+        int program = mGL.createProgram();
+        mCache.useProgram(program);
+        mCache.uniform1i(LOCATION, 0);
+        mCache.linkProgram(program);
+        mCache.uniform1i(LOCATION, 0);
+
+        assertEquals(2, mGL.count("uniform1i"));
+    }
+
+
+    // What a renderer does when direct GLES20 calls, e.g. those of the video background,
+    // set the uniforms of a program shared through ShaderProgramRegistry
+    @Test
+    public void invalidateForgetsTheUniforms()
+    {
+        mCache.useProgram(PROGRAM);
+        mCache.uniform1f(LOCATION, 1.0f);
+
+        mGL.useProgram(PROGRAM);
+        mGL.uniform1f(LOCATION, 2.0f);
+        mCache.invalidate();
+
+        mCache.useProgram(PROGRAM);
+        mCache.uniform1f(LOCATION, 1.0f);
+
+        assertEquals("[uniform1f(3, 1.0), uniform1f(3, 2.0), uniform1f(3, 1.0)]",
+                mGL.getCalls("uniform1f").toString());
+        assertEquals(3, mGL.count("useProgram"));
+    }
+
+
+    // Each renderer has its own cache, the programs are shared
+    @Test
+    public void anotherCacheSettingASharedProgramIsSeenAfterInvalidate()
+    {
+        SampleGLStateCache otherCache = new SampleGLStateCache(mGL);
+
+        mCache.useProgram(PROGRAM);
+        mCache.uniform4f(LOCATION, 1.0f, 0.0f, 0.0f, 1.0f);
+
+        otherCache.useProgram(PROGRAM);
+        otherCache.uniform4f(LOCATION, 0.0f, 1.0f, 0.0f, 1.0f);
+
+        mCache.invalidate();
+        mCache.useProgram(PROGRAM);
+        mCache.uniform4f(LOCATION, 1.0f, 0.0f, 0.0f, 1.0f);
+
+        assertEquals(3, mGL.count("uniform4f"));
+    }
+
+
+    @Test
+    public void uniformsOfAnUnknownProgramAreForwarded()
+    {
+        mCache.useProgram(PROGRAM);
+        mCache.uniformMatrix4fv(LOCATION, 1, false, new float[16], 0);
+
+        // A program made current behind the cache's back
+        mCache.invalidate();
+        mCache.uniformMatrix4fv(LOCATION, 1, false, new float[16], 0);
+        mCache.uniformMatrix4fv(LOCATION, 1, false, new float[16], 0);
+
+        assertEquals(3, mGL.count("uniformMatrix4fv"));
+    }
+}
@@ -0,0 +1,128 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SampleMeshCompilerTest
+{
+    private static final String[] TEXT_MESHES = {"ImageTargets/Buildings.txt", "CylinderTargets/Sphere.txt"};
+
+
+    private static float[] toArray(Buffer buffer)
+    {
+        FloatBuffer floats = MeshObject.asFloatBuffer(buffer);
+        float[] values = new float[floats.remaining()];
+        floats.get(values);
+        return values;
+    }
+
+
+    private static CompiledMesh roundTrip(ByteBuffer compiled)
+    {
+        CompiledMesh mesh = new CompiledMesh("test.mesh");
+        mesh.load(compiled);
+        return mesh;
+    }
+
+
+    private static void assertSameGeometry(float[][] sections, MeshObject mesh)
+    {
+        assertEquals(sections[CompiledMeshFormat.SECTION_VERTICES].length / 3, mesh.getNumObjectVertex());
+        assertArrayEquals(sections[CompiledMeshFormat.SECTION_VERTICES], toArray(mesh.getVertices()), 0.0f);
+        assertArrayEquals(sections[CompiledMeshFormat.SECTION_NORMALS], toArray(mesh.getNormals()), 0.0f);
+        assertArrayEquals(sections[CompiledMeshFormat.SECTION_TEX_COORDS], toArray(mesh.getTexCoords()), 0.0f);
+    }
+
+
+    @Test
+    public void textMeshesSurviveTheRoundTrip() throws IOException
+    {
+        for (String name : TEXT_MESHES)
+        {
+            float[][] sections = SampleMeshCompiler.parseText(TestAssets.getFile(name));
+            CompiledMesh mesh = roundTrip(SampleMeshCompiler.compile(sections));
+
+            assertSameGeometry(sections, mesh);
+            assertEquals(0, mesh.getNumObjectIndex());
+            assertNull(mesh.getIndices());
+        }
+    }
+
+
+    @Test
+    public void shippedMeshesAreUpToDate() throws IOException
+    {
+        for (String name : TEXT_MESHES)
+        {
+            ByteBuffer compiled = SampleMeshCompiler.compile(SampleMeshCompiler.parseText(TestAssets.getFile(name)));
+            assertEquals(name, compiled, TestAssets.read(CompiledMeshFormat.getCompiledName(name)));
+        }
+    }
+
+
+    @Test
+    public void indexedMeshesSurviveTheRoundTrip()
+    {
+        float[][] sections = new float[CompiledMeshFormat.NUM_SECTIONS][];
+        sections[CompiledMeshFormat.SECTION_VERTICES] = new float[] {0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0};
+        sections[CompiledMeshFormat.SECTION_NORMALS] = new float[] {0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1};
+        sections[CompiledMeshFormat.SECTION_TEX_COORDS] = new float[] {0, 0, 1, 0, 1, 1, 0, 1};
+
+        // Indices above 32767 are stored as negative shorts and read back unsigned
+        short[] indices = {0, 1, 2, 2, 3, 0, (short) 65535};
+        CompiledMesh mesh = roundTrip(SampleMeshCompiler.compile(sections, indices));
+
+        assertSameGeometry(sections, mesh);
+        assertArrayEquals(new int[] {0, 1, 2, 2, 3, 0, 65535}, mesh.copyIndices());
+    }
+
+
+    @Test
+    public void compiledMeshObjectsSurviveTheRoundTrip() throws IOException
+    {
+        // A mesh compiled from a MeshObject compiles to the same file again
+        String[] meshes = {"Teapot.mesh", "Cube.mesh", "MultiTargets/BowlAndSpoon.mesh"};
+        for (String name : meshes)
+        {
+            ByteBuffer asset = TestAssets.read(name);
+            CompiledMesh mesh = roundTrip(asset.duplicate());
+
+            asset.rewind();
+            assertEquals(name, asset, SampleMeshCompiler.compile(mesh).order(asset.order()));
+        }
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsContentThatIsNotACompiledMesh()
+    {
+        ByteBuffer text = ByteBuffer.wrap("3\n0.0\n1.0\n2.0\n".getBytes());
+        roundTrip(text);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsATruncatedMesh()
+    {
+        float[][] sections = {new float[] {0, 0, 0, 1, 1, 1}, new float[0], new float[0]};
+        ByteBuffer compiled = SampleMeshCompiler.compile(sections);
+        compiled.limit(compiled.limit() - 4);
+
+        roundTrip(compiled);
+    }
+}
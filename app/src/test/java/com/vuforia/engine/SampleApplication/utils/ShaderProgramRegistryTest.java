@@ -0,0 +1,254 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ShaderProgramRegistryTest
+{
+    private static final String VERTEX_SHADER = "attribute vec4 vertexPosition;\nvoid main() {}";
+    private static final String FRAGMENT_SHADER = "precision mediump float;\nvoid main() {}";
+    private static final String OTHER_FRAGMENT_SHADER = "precision highp float;\nvoid main() {}";
+
+    @Rule
+    public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    private File mBinaryCacheDir;
+
+
+    @Before
+    public void setUp()
+    {
+        mBinaryCacheDir = new File(mTemporaryFolder.getRoot(), "shaders");
+    }
+
+
+    // The GL of a launch of the app on a device that supports program binaries
+    private static RecordingGL createBinaryGL()
+    {
+        RecordingGL gl = new RecordingGL();
+        gl.mProgramBinarySupported = true;
+        return gl;
+    }
+
+
+    private File[] getBinaryFiles()
+    {
+        File[] files = mBinaryCacheDir.listFiles();
+        return files != null ? files : new File[0];
+    }
+
+
+    @Test
+    public void compilesEachProgramOnce()
+    {
+        RecordingGL gl = new RecordingGL();
+        ShaderProgramRegistry registry = new ShaderProgramRegistry(gl, null);
+
+        ShaderProgramRegistry.Program program = registry.getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        assertNotNull(program);
+        assertSame(program, registry.getProgram(VERTEX_SHADER, FRAGMENT_SHADER));
+        assertSame(program, registry.findProgram(program.getId()));
+
+        assertEquals(1, registry.getCompileCount());
+        assertEquals(1, registry.getHitCount());
+        assertEquals(1, gl.count("createProgram"));
+        assertEquals(2, gl.count("compileShader"));
+
+        // The shaders are flagged for deletion once linked, the program stays alive
+        assertEquals(2, gl.count("deleteShader"));
+        assertEquals(1, gl.getNumLivePrograms());
+    }
+
+
+    @Test
+    public void otherSourcesAreAnotherProgram()
+    {
+        RecordingGL gl = new RecordingGL();
+        ShaderProgramRegistry registry = new ShaderProgramRegistry(gl, null);
+
+        ShaderProgramRegistry.Program program = registry.getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        ShaderProgramRegistry.Program other = registry.getProgram(VERTEX_SHADER, OTHER_FRAGMENT_SHADER);
+
+        assertNotEquals(program.getId(), other.getId());
+        assertEquals(2, registry.getCompileCount());
+        assertEquals(0, registry.getHitCount());
+
+        // Moving text from one shader to the other changes the hash
+        assertNotEquals(ShaderProgramRegistry.hashSources("ab", "c"),
+                ShaderProgramRegistry.hashSources("a", "bc"));
+    }
+
+
+    @Test
+    public void looksUpEachLocationOnce()
+    {
+        RecordingGL gl = new RecordingGL();
+        ShaderProgramRegistry.Program program =
+                new ShaderProgramRegistry(gl, null).getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+
+        // More names than the initial capacity of the arrays
+        for (int pass = 0; pass < 2; pass++)
+        {
+            for (int i = 0; i < 10; i++)
+            {
+                assertEquals(i, program.getUniformLocation("uniform" + i));
+            }
+            assertEquals(10, program.getAttribLocation("vertexPosition"));
+        }
+
+        assertEquals(10, gl.count("getUniformLocation"));
+        assertEquals(1, gl.count("getAttribLocation"));
+    }
+
+
+    @Test
+    public void returnsNullIfTheShadersDoNotCompile()
+    {
+        RecordingGL gl = new RecordingGL();
+        ShaderProgramRegistry registry = new ShaderProgramRegistry(gl, null);
+
+        assertNull(registry.getProgram(VERTEX_SHADER, "#error\n" + FRAGMENT_SHADER));
+
+        assertEquals(0, registry.getCompileCount());
+        assertEquals(0, gl.count("createProgram"));
+        assertEquals(2, gl.count("deleteShader"));
+
+        // Nothing was registered, the next call tries again
+        assertNull(registry.getProgram(VERTEX_SHADER, "#error\n" + FRAGMENT_SHADER));
+        assertEquals(4, gl.count("compileShader"));
+    }
+
+
+    @Test
+    public void compilesAgainInANewContext()
+    {
+        RecordingGL gl = new RecordingGL();
+        ShaderProgramRegistry registry = new ShaderProgramRegistry(gl, null);
+        ShaderProgramRegistry.Program program = registry.getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+
+        gl.loseContext();
+        registry.onContextCreated();
+        assertNull(registry.findProgram(program.getId()));
+
+        ShaderProgramRegistry.Program recompiled = registry.getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        assertNotEquals(program.getId(), recompiled.getId());
+        assertEquals(2, registry.getCompileCount());
+
+        // The names of the lost context are not deleted
+        assertEquals(0, gl.count("deleteProgram"));
+        assertEquals(1, gl.getNumLivePrograms());
+    }
+
+
+    @Test
+    public void loadsTheBinarySavedByThePreviousLaunch()
+    {
+        ShaderProgramRegistry first = new ShaderProgramRegistry(createBinaryGL(), mBinaryCacheDir);
+        first.getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        assertEquals(1, first.getCompileCount());
+        assertEquals(1, getBinaryFiles().length);
+
+        RecordingGL gl = createBinaryGL();
+        ShaderProgramRegistry second = new ShaderProgramRegistry(gl, mBinaryCacheDir);
+        assertNotNull(second.getProgram(VERTEX_SHADER, FRAGMENT_SHADER));
+
+        assertEquals(0, second.getCompileCount());
+        assertEquals(1, second.getBinaryLoadCount());
+        assertEquals(0, gl.count("compileShader"));
+        assertEquals(1, gl.count("programBinary"));
+    }
+
+
+    @Test
+    public void compilesWhenTheBinaryIsRejected()
+    {
+        new ShaderProgramRegistry(createBinaryGL(), mBinaryCacheDir).getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+
+        // Same driver identification, but it no longer takes the binary
+        RecordingGL gl = createBinaryGL();
+        gl.mAcceptsProgramBinaries = false;
+        ShaderProgramRegistry registry = new ShaderProgramRegistry(gl, mBinaryCacheDir);
+
+        ShaderProgramRegistry.Program program = registry.getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        assertNotNull(program);
+        assertEquals(0, registry.getBinaryLoadCount());
+        assertEquals(1, registry.getCompileCount());
+
+        // The rejected program is deleted and the compiled one saved in place of the binary
+        assertEquals(1, gl.count("deleteProgram"));
+        assertEquals(1, gl.getNumLivePrograms());
+        assertEquals(1, gl.count("getProgramBinary"));
+        assertEquals(1, getBinaryFiles().length);
+    }
+
+
+    @Test
+    public void compilesWhenTheBinaryFileIsCorrupt() throws IOException
+    {
+        new ShaderProgramRegistry(createBinaryGL(), mBinaryCacheDir).getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+
+        File file = getBinaryFiles()[0];
+        FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(new byte[] {1, 2, 3});
+        outputStream.close();
+
+        RecordingGL gl = createBinaryGL();
+        ShaderProgramRegistry registry = new ShaderProgramRegistry(gl, mBinaryCacheDir);
+        assertNotNull(registry.getProgram(VERTEX_SHADER, FRAGMENT_SHADER));
+
+        assertEquals(1, registry.getCompileCount());
+        assertEquals(0, gl.count("programBinary"));
+        assertTrue(file.length() > 3);
+    }
+
+
+    @Test
+    public void deletesTheBinariesOfAnotherDriver()
+    {
+        new ShaderProgramRegistry(createBinaryGL(), mBinaryCacheDir).getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        File oldFile = getBinaryFiles()[0];
+
+        // A system update changed the driver version
+        RecordingGL gl = createBinaryGL();
+        gl.mVersion = "OpenGL ES 3.2 RecordingGL";
+        ShaderProgramRegistry registry = new ShaderProgramRegistry(gl, mBinaryCacheDir);
+        registry.getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+
+        assertEquals(1, registry.getCompileCount());
+        File[] files = getBinaryFiles();
+        assertEquals(1, files.length);
+        assertNotEquals(oldFile.getName(), files[0].getName());
+    }
+
+
+    @Test
+    public void savesNoBinaryWithoutDriverSupport()
+    {
+        RecordingGL gl = new RecordingGL();
+        ShaderProgramRegistry registry = new ShaderProgramRegistry(gl, mBinaryCacheDir);
+        registry.getProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+
+        assertEquals(0, gl.count("getProgramBinary"));
+        assertEquals(0, getBinaryFiles().length);
+    }
+}
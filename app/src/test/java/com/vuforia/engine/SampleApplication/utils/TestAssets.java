@@ -0,0 +1,83 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Gives the unit tests access to the assets shipped with the samples
+ *
+ * Gradle runs the tests from the app module, an IDE may run them from the root
+ * of the project, both are looked at
+ */
+final class TestAssets
+{
+    private static final String[] ASSET_DIRECTORIES = {"src/main/assets", "app/src/main/assets"};
+
+
+    private TestAssets()
+    {
+    }
+
+
+    static File getFile(String name) throws FileNotFoundException
+    {
+        for (String directory : ASSET_DIRECTORIES)
+        {
+            File file = new File(directory, name);
+            if (file.isFile())
+            {
+                return file;
+            }
+        }
+
+        throw new FileNotFoundException("Asset " + name + " not found from "
+                + new File("").getAbsolutePath());
+    }
+
+
+    static InputStream open(String name) throws IOException
+    {
+        return new FileInputStream(getFile(name));
+    }
+
+
+    // Returns the content of the asset the way SampleAssetReader does when the asset
+    // cannot be mapped
+    static ByteBuffer read(String name) throws IOException
+    {
+        InputStream inputStream = open(name);
+        try
+        {
+            return SampleAssetReader.readStream(inputStream);
+        }
+        finally
+        {
+            inputStream.close();
+        }
+    }
+
+
+    // The model of a .v3d asset, read and indexed the way loadModel() does it, but
+    // without its GL buffers
+    static SampleApplicationV3DModel readModel(String name) throws IOException
+    {
+        SampleApplicationV3DModel model = new SampleApplicationV3DModel(false);
+        if (!model.readModel(read(name), name))
+        {
+            throw new IOException("Asset " + name + " is not a valid model");
+        }
+
+        return model;
+    }
+}
@@ -0,0 +1,119 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * A MeshObject built from arrays, for the unit tests of the sample utilities
+ */
+class TestMesh extends MeshObject
+{
+    private final ByteBuffer mVertices;
+    private final ByteBuffer mNormals;
+    private final ByteBuffer mTexCoords;
+    private final ByteBuffer mIndices;
+    private final int mNumVertices;
+    private final int mNumIndices;
+    private final int mIndexType;
+
+
+    // normals, texCoords and indices may be null
+    TestMesh(float[] vertices, float[] normals, float[] texCoords, int[] indices)
+    {
+        mNumVertices = vertices.length / 3;
+        mNumIndices = indices != null ? indices.length : 0;
+        mIndexType = getIndexTypeFor(mNumVertices);
+
+        mVertices = toBuffer(vertices);
+        mNormals = toBuffer(normals);
+        mTexCoords = toBuffer(texCoords);
+        mIndices = indices != null ? createIndexBuffer(indices, mIndexType) : null;
+    }
+
+
+    // numVertices vertices along a line, with numIndices indices going through them
+    static TestMesh create(int numVertices, int numIndices)
+    {
+        float[] vertices = new float[numVertices * 3];
+        float[] normals = new float[numVertices * 3];
+        float[] texCoords = new float[numVertices * 2];
+        for (int vertex = 0; vertex < numVertices; vertex++)
+        {
+            vertices[vertex * 3] = vertex;
+            normals[vertex * 3 + 2] = 1.0f;
+            texCoords[vertex * 2] = (float) vertex / numVertices;
+        }
+
+        int[] indices = null;
+        if (numIndices > 0)
+        {
+            indices = new int[numIndices];
+            for (int i = 0; i < numIndices; i++)
+            {
+                indices[i] = i % numVertices;
+            }
+        }
+
+        return new TestMesh(vertices, normals, texCoords, indices);
+    }
+
+
+    private static ByteBuffer toBuffer(float[] values)
+    {
+        if (values == null)
+        {
+            return null;
+        }
+
+        ByteBuffer buffer = SampleAssetReader.allocateNative(values.length * 4);
+        buffer.asFloatBuffer().put(values);
+        return buffer;
+    }
+
+
+    @Override
+    protected Buffer getBuffer(BUFFER_TYPE bufferType)
+    {
+        switch (bufferType)
+        {
+            case BUFFER_TYPE_VERTEX:
+                return mVertices;
+            case BUFFER_TYPE_NORMALS:
+                return mNormals;
+            case BUFFER_TYPE_TEXTURE_COORD:
+                return mTexCoords;
+            case BUFFER_TYPE_INDICES:
+                return mIndices;
+            default:
+                return null;
+        }
+    }
+
+
+    @Override
+    public int getIndexType()
+    {
+        return mIndexType;
+    }
+
+
+    @Override
+    public int getNumObjectVertex()
+    {
+        return mNumVertices;
+    }
+
+
+    @Override
+    public int getNumObjectIndex()
+    {
+        return mNumIndices;
+    }
+}
@@ -0,0 +1,70 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.io.File;
+
+/**
+ * Compares the time and heap to load the shipped textures from their PNG, the
+ * way Texture falls back to, with loading their compiled versions
+ *
+ * ImageIO stands in for BitmapFactory, so the PNG times only show the order of
+ * magnitude of the decode on a device. Both include reading the file
+ */
+public class TextureLoadBenchmark
+{
+    private static final int RUNS = 21;
+
+    // Keeps the last texture alive so that the work is not optimized away
+    private Texture mTexture;
+
+
+    @Test
+    public void loadPngAndCompiled() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        for (final String name : TextureTest.COMPILED_TEXTURES)
+        {
+            File png = TestAssets.getFile(name);
+            File compiled = TestAssets.getFile(CompiledTextureFormat.getCompiledName(name));
+
+            Benchmarks.Task loadPng = new Benchmarks.Task()
+            {
+                @Override
+                public void run() throws Exception
+                {
+                    mTexture = TextureTest.loadPng(name);
+                }
+            };
+
+            Benchmarks.Task loadCompiled = new Benchmarks.Task()
+            {
+                @Override
+                public void run() throws Exception
+                {
+                    mTexture = TextureTest.loadCompiled(name);
+                }
+            };
+
+            long pngNs = Benchmarks.medianNanos(RUNS, loadPng);
+            long compiledNs = Benchmarks.medianNanos(RUNS, loadCompiled);
+            long pngBytes = Benchmarks.allocatedBytes(loadPng);
+            long compiledBytes = Benchmarks.allocatedBytes(loadCompiled);
+
+            Benchmarks.report("TextureLoad", "%s (%dx%d): png %.2f ms %d KB heap (%d bytes), "
+                            + "compiled %.2f ms %d KB heap (%d bytes), %.1fx faster",
+                    name, mTexture.mWidth, mTexture.mHeight,
+                    Benchmarks.toMillis(pngNs), pngBytes / 1024, png.length(),
+                    Benchmarks.toMillis(compiledNs), compiledBytes / 1024, compiled.length(),
+                    (double) pngNs / compiledNs);
+        }
+    }
+}
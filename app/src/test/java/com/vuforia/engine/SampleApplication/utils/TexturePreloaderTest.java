@@ -0,0 +1,135 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TexturePreloaderTest
+{
+    private static final long TIMEOUT_MS = 5000;
+
+    private final Map<String, Texture> mTextures = new HashMap<>();
+    private ExecutorService mExecutor;
+
+
+    // Returns the textures of mTextures, fails for the other names
+    private final TexturePreloader.Loader mLoader = new TexturePreloader.Loader()
+    {
+        @Override
+        public Texture load(String name) throws FileNotFoundException
+        {
+            Texture texture = mTextures.get(name);
+            if (texture == null)
+            {
+                throw new FileNotFoundException(name);
+            }
+
+            return texture;
+        }
+    };
+
+
+    @After
+    public void tearDown() throws InterruptedException
+    {
+        if (mExecutor != null)
+        {
+            mExecutor.shutdownNow();
+            assertTrue(mExecutor.awaitTermination(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        }
+    }
+
+
+    private Texture addTexture(String name)
+    {
+        Texture texture = new Texture();
+        mTextures.put(name, texture);
+        return texture;
+    }
+
+
+    @Test
+    public void returnsTheTexturesInTheOrderTheyWereAdded()
+    {
+        Texture wireframe = addTexture("wireframe.png");
+        Texture sphere = addTexture("sphere.png");
+
+        mExecutor = Executors.newFixedThreadPool(2);
+        TexturePreloader preloader = new TexturePreloader(new AssetPreloader(mExecutor, null), mLoader);
+        preloader.add("wireframe.png");
+        preloader.add("sphere.png");
+        preloader.start();
+
+        Vector<Texture> textures = preloader.getTextures();
+        assertEquals(2, textures.size());
+        assertSame(wireframe, textures.get(0));
+        assertSame(sphere, textures.get(1));
+    }
+
+
+    @Test
+    public void texturesThatFailedAreNull()
+    {
+        Texture teapot = addTexture("teapot.png");
+
+        TexturePreloader preloader = new TexturePreloader(
+                new AssetPreloader(new DirectExecutor(), null), mLoader);
+        preloader.add("missing.png");
+        preloader.add("teapot.png");
+        preloader.start();
+
+        Vector<Texture> textures = preloader.getTextures();
+        assertEquals(2, textures.size());
+        assertNull(textures.get(0));
+        assertSame(teapot, textures.get(1));
+    }
+
+
+    @Test
+    public void getTexturesReturnsOnceCancelled() throws InterruptedException
+    {
+        final CountDownLatch started = new CountDownLatch(1);
+
+        mExecutor = Executors.newSingleThreadExecutor();
+        TexturePreloader preloader = new TexturePreloader(new AssetPreloader(mExecutor, null),
+                new TexturePreloader.Loader()
+                {
+                    @Override
+                    public Texture load(String name) throws InterruptedException
+                    {
+                        started.countDown();
+                        new CountDownLatch(1).await();
+                        return null;
+                    }
+                });
+        preloader.add("slow.png");
+        preloader.start();
+        assertTrue(started.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        preloader.cancel();
+
+        Vector<Texture> textures = preloader.getTextures();
+        assertEquals(1, textures.size());
+        assertNull(textures.get(0));
+    }
+}
@@ -0,0 +1,140 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TextureTest
+{
+    // The shipped textures that have a compiled version next to them
+    static final String[] COMPILED_TEXTURES = {
+            "TextureTeapotBlue.png",
+            "TextureTeapotRed.png",
+            "VirtualButtons/TextureTeapotGreen.png",
+            "VirtualButtons/TextureTeapotYellow.png",
+            "GroundPlane/reticle_interactive_2d.png",
+            "GroundPlane/reticle_interactive_3d.png",
+            "GroundPlane/reticle_midair.png",
+            "GroundPlane/reticle_rotate.png",
+            "GroundPlane/reticle_translate.png",
+            "GroundPlane/shadow.png"};
+
+
+    // What loadTextureFromApk() does with a PNG, ImageIO standing in for BitmapFactory
+    static Texture loadPng(String name) throws IOException
+    {
+        InputStream inputStream = TestAssets.open(name);
+        try
+        {
+            BufferedImage image = ImageIO.read(inputStream);
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int[] data = image.getRGB(0, 0, width, height, null, 0, width);
+            return Texture.loadTextureFromIntBuffer(data, width, height);
+        }
+        finally
+        {
+            inputStream.close();
+        }
+    }
+
+
+    static Texture loadCompiled(String name) throws IOException
+    {
+        String compiledName = CompiledTextureFormat.getCompiledName(name);
+        return Texture.loadCompiledTexture(TestAssets.read(compiledName), compiledName);
+    }
+
+
+    private static byte[] getBytes(ByteBuffer buffer)
+    {
+        ByteBuffer pixels = buffer.duplicate();
+        pixels.rewind();
+        byte[] bytes = new byte[pixels.remaining()];
+        pixels.get(bytes);
+        return bytes;
+    }
+
+
+    @Test
+    public void compiledTexturesMatchThePngLoader() throws IOException
+    {
+        for (String name : COMPILED_TEXTURES)
+        {
+            Texture png = loadPng(name);
+            Texture compiled = loadCompiled(name);
+            assertNotNull(name, compiled);
+
+            assertEquals(name, png.mWidth, compiled.mWidth);
+            assertEquals(name, png.mHeight, compiled.mHeight);
+            assertFalse(name, compiled.isPremultiplied());
+            assertArrayEquals(name, getBytes(png.mData), getBytes(compiled.mData));
+        }
+    }
+
+
+    @Test
+    public void freshlyCompiledPixelsMatchThePngLoader() throws IOException
+    {
+        for (String name : COMPILED_TEXTURES)
+        {
+            int[] size = new int[2];
+            byte[] rgba = SampleTextureCompiler.decodePng(getBytes(TestAssets.read(name)), size);
+
+            Texture png = loadPng(name);
+            Texture compiled = Texture.loadCompiledTexture(
+                    SampleTextureCompiler.compile(rgba, size[0], size[1], false, true), name);
+            assertNotNull(name, compiled);
+
+            assertArrayEquals(name, getBytes(png.mData), getBytes(compiled.mData));
+            assertTrue(name, compiled.getNumLevels() > 1 || size[0] * size[1] == 1);
+        }
+    }
+
+
+    @Test
+    public void premultipliedTexturesAreFlagged()
+    {
+        // One opaque and one half transparent red pixel
+        byte[] rgba = {(byte) 255, 0, 0, (byte) 255, (byte) 255, 0, 0, (byte) 128};
+        Texture texture = Texture.loadCompiledTexture(
+                SampleTextureCompiler.compile(rgba, 2, 1, true, false), "premultiplied");
+
+        assertNotNull(texture);
+        assertTrue(texture.isPremultiplied());
+        assertArrayEquals(new byte[]{(byte) 255, 0, 0, (byte) 255, (byte) 128, 0, 0, (byte) 128},
+                getBytes(texture.mData));
+    }
+
+
+    @Test
+    public void rejectsInvalidAndTruncatedContent() throws IOException
+    {
+        assertNull(Texture.loadCompiledTexture(ByteBuffer.wrap(new byte[64]), "zeros"));
+
+        // A file that ends half way through the pixels
+        byte[] compiled = getBytes(TestAssets.read("TextureTeapotBlue.tex"));
+        ByteBuffer truncated = ByteBuffer.allocate(compiled.length / 2);
+        truncated.put(compiled, 0, truncated.capacity()).rewind();
+        assertNull(Texture.loadCompiledTexture(truncated, "truncated"));
+    }
+}
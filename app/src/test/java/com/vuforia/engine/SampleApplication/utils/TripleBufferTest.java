@@ -0,0 +1,163 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TripleBufferTest
+{
+    @Test
+    public void readsNothingBeforeTheFirstPublish()
+    {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(new long[1], new long[1], new long[1]);
+
+        assertFalse(buffer.hasPublished());
+        assertNull(buffer.acquire());
+        assertNull(buffer.getReadBuffer());
+    }
+
+
+    @Test
+    public void readerGetsTheLatestPublishedBuffer()
+    {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(new long[1], new long[1], new long[1]);
+
+        for (long value = 1; value <= 3; value++)
+        {
+            buffer.getWriteBuffer()[0] = value;
+            buffer.publish();
+        }
+
+        assertTrue(buffer.hasPublished());
+        long[] read = buffer.acquire();
+        assertEquals(3, read[0]);
+        assertFalse(buffer.hasPublished());
+
+        // Nothing new, the reader keeps its buffer
+        assertSame(read, buffer.acquire());
+        assertSame(read, buffer.getReadBuffer());
+        assertEquals(3, buffer.getNumPublished());
+    }
+
+
+    @Test
+    public void writerNeverGetsTheBufferHeldByTheReader()
+    {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(new long[1], new long[1], new long[1]);
+
+        for (int i = 0; i < 10; i++)
+        {
+            buffer.publish();
+            long[] read = buffer.acquire();
+            for (int j = 0; j < 3; j++)
+            {
+                assertNotSame(read, buffer.getWriteBuffer());
+                buffer.publish();
+            }
+        }
+    }
+
+
+    @Test
+    public void clearForgetsWhatWasPublished()
+    {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(new long[1], new long[1], new long[1]);
+
+        buffer.getWriteBuffer()[0] = 1;
+        buffer.publish();
+        assertNotNull(buffer.acquire());
+        buffer.publish();
+
+        buffer.clear();
+        assertFalse(buffer.hasPublished());
+        assertNull(buffer.acquire());
+        assertNull(buffer.getReadBuffer());
+
+        buffer.getWriteBuffer()[0] = 2;
+        buffer.publish();
+        assertEquals(2, buffer.acquire()[0]);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTheSameBufferTwice()
+    {
+        long[] shared = new long[1];
+        new TripleBuffer<>(shared, new long[1], shared);
+    }
+
+
+    // The writer fills every slot of a buffer with the same number. A reader seeing
+    // different numbers in one buffer, or a number going back, would read a torn buffer
+    @Test
+    public void readerNeverSeesATornBuffer() throws InterruptedException
+    {
+        final int numFrames = 200000;
+        final int size = 64;
+        final TripleBuffer<long[]> buffer = new TripleBuffer<>(new long[size], new long[size], new long[size]);
+        final AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                for (long frame = 1; frame <= numFrames; frame++)
+                {
+                    long[] data = buffer.getWriteBuffer();
+                    for (int i = 0; i < size; i++)
+                    {
+                        data[i] = frame;
+                    }
+                    buffer.publish();
+                }
+            }
+        });
+        writer.start();
+
+        long last = 0;
+        while (last < numFrames && failure.get() == null)
+        {
+            long[] data = buffer.acquire();
+            if (data == null)
+            {
+                continue;
+            }
+
+            long frame = data[0];
+            for (int i = 1; i < size; i++)
+            {
+                if (data[i] != frame)
+                {
+                    failure.set("Torn buffer in frame " + frame);
+                }
+            }
+
+            if (frame < last)
+            {
+                failure.set("Frame " + frame + " read after frame " + last);
+            }
+
+            last = frame;
+        }
+
+        writer.join();
+        assertNull(failure.get());
+        assertEquals(numFrames, buffer.getNumPublished());
+    }
+}
@@ -0,0 +1,165 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the average cache miss ratio, the vertices transformed per
+ * triangle with a FIFO post-transform cache of DEFAULT_FIFO_SIZE entries, of
+ * the shipped meshes, and the time to weld and reorder the .v3d models
+ *
+ * A .v3d model stores three vertices per face, an ACMR of 3. It is given for
+ * the vertices welded in file order, then reordered by VertexCacheOptimizer as
+ * buildIndices() does. The compiled .mesh assets are drawn in the order of
+ * their indices, which is compared with the order VertexCacheOptimizer gives
+ */
+public class VertexCacheOptimizerBenchmark
+{
+    private static final String[] MODELS = {"astronaut.v3d", "drone.v3d", "GroundPlane/chair.v3d"};
+    private static final String[] MESHES = {"Teapot.mesh", "MultiTargets/BowlAndSpoon.mesh",
+            "ImageTargets/Buildings.mesh", "CylinderTargets/Sphere.mesh", "Cube.mesh"};
+    private static final int RUNS = 11;
+
+    // Floats per corner, as in buildIndices(): position, normal, tex coord and extras
+    private static final int STRIDE = 10;
+    private static final int HEADER_SIZE = 5 * 4;
+
+    // Keeps the result of the last run alive so that the work is not optimized away
+    private int[] mIndices;
+
+
+    // The corners of a .v3d model in file order, STRIDE floats each
+    private static float[] readCorners(String name) throws Exception
+    {
+        ByteBuffer asset = TestAssets.read(name).order(ByteOrder.BIG_ENDIAN);
+        int numCorners = asset.getInt(12) * 3;
+        int[] sectionSizes = {3, 3, 2, 2};
+
+        float[] corners = new float[numCorners * STRIDE];
+        asset.position(HEADER_SIZE);
+        int offset = 0;
+        for (int size : sectionSizes)
+        {
+            for (int corner = 0; corner < numCorners; corner++)
+            {
+                for (int i = 0; i < size; i++)
+                {
+                    corners[corner * STRIDE + offset + i] = asset.getFloat();
+                }
+            }
+            offset += size;
+        }
+
+        return corners;
+    }
+
+
+    private static int[] weld(float[] corners, int[] numVertices)
+    {
+        int numCorners = corners.length / STRIDE;
+        int[] cornerVertices = new int[numCorners];
+        numVertices[0] = VertexWelder.weld(corners, numCorners, STRIDE, STRIDE,
+                cornerVertices, new float[corners.length]);
+
+        // Faces that lost a corner in the welding are dropped, as buildIndices() does
+        int[] indices = new int[numCorners];
+        int numIndices = 0;
+        for (int corner = 0; corner < numCorners; corner += 3)
+        {
+            int a = cornerVertices[corner];
+            int b = cornerVertices[corner + 1];
+            int c = cornerVertices[corner + 2];
+            if (a != b && b != c && c != a)
+            {
+                indices[numIndices++] = a;
+                indices[numIndices++] = b;
+                indices[numIndices++] = c;
+            }
+        }
+
+        return Arrays.copyOf(indices, numIndices);
+    }
+
+
+    private static float acmr(int[] indices, int numVertices)
+    {
+        return VertexCacheOptimizer.computeAcmr(indices, numVertices, VertexCacheOptimizer.DEFAULT_FIFO_SIZE);
+    }
+
+
+    @Test
+    public void acmrOfTheShippedModels() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        for (String name : MODELS)
+        {
+            final float[] corners = readCorners(name);
+            final int[] numVertices = new int[1];
+            final int[] welded = weld(corners, numVertices);
+            final int[] optimized = VertexCacheOptimizer.optimize(welded.clone(), numVertices[0]);
+
+            // The model draws the optimized order
+            SampleApplicationV3DModel model = TestAssets.readModel(name);
+            assertEquals(numVertices[0], model.getNumObjectVertex());
+            assertEquals(acmr(optimized, numVertices[0]), acmr(model.copyIndices(), numVertices[0]), 1e-6f);
+
+            long weldNanos = Benchmarks.medianNanos(RUNS, new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    mIndices = weld(corners, numVertices);
+                }
+            });
+            long optimizeNanos = Benchmarks.medianNanos(RUNS, new Benchmarks.Task()
+            {
+                @Override
+                public void run()
+                {
+                    mIndices = VertexCacheOptimizer.optimize(welded.clone(), numVertices[0]);
+                }
+            });
+
+            Benchmarks.report("VertexCacheOptimizer", "%s %d -> %d vertices, ACMR 3.00 -> %.2f welded "
+                            + "-> %.2f optimized, weld %.1f ms, optimize %.1f ms",
+                    name, corners.length / STRIDE, numVertices[0], acmr(welded, numVertices[0]),
+                    acmr(optimized, numVertices[0]), Benchmarks.toMillis(weldNanos),
+                    Benchmarks.toMillis(optimizeNanos));
+        }
+
+        for (String name : MESHES)
+        {
+            CompiledMesh mesh = new CompiledMesh(name);
+            mesh.load(TestAssets.read(name));
+            int numVertices = mesh.getNumObjectVertex();
+
+            if (mesh.getNumObjectIndex() == 0)
+            {
+                Benchmarks.report("VertexCacheOptimizer", "%s %d vertices, not indexed", name, numVertices);
+                continue;
+            }
+
+            int[] indices = mesh.copyIndices();
+            float stored = acmr(indices, numVertices);
+            float optimized = acmr(VertexCacheOptimizer.optimize(indices.clone(), numVertices), numVertices);
+            assertTrue(name, optimized <= stored + 0.01f);
+
+            Benchmarks.report("VertexCacheOptimizer", "%s %d vertices, %d triangles, ACMR %.2f stored, "
+                    + "%.2f optimized", name, numVertices, indices.length / 3, stored, optimized);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class VertexLayoutTest
+{
+    private static void assertAttribute(VertexLayout.Attribute attribute, int components, int type,
+            boolean isNormalized, int offset)
+    {
+        assertEquals(components, attribute.getComponents());
+        assertEquals(type, attribute.getType());
+        assertEquals(isNormalized, attribute.isNormalized());
+        assertEquals(offset, attribute.getOffset());
+        assertEquals(0, attribute.getOffset() % 4);
+    }
+
+
+    @Test
+    public void floatLayoutHoldsTheSeparateBuffers()
+    {
+        VertexLayout layout = VertexLayout.FLOAT;
+        assertAttribute(layout.getPosition(), 3, GLES20.GL_FLOAT, false, 0);
+        assertAttribute(layout.getNormal(), 3, GLES20.GL_FLOAT, false, 12);
+        assertAttribute(layout.getTexCoord(), 2, GLES20.GL_FLOAT, false, 24);
+        assertEquals(32, layout.getStride());
+        assertNull(layout.getRequiredExtension());
+    }
+
+
+    @Test
+    public void compactLayoutUsesCoreTypes()
+    {
+        VertexLayout layout = VertexLayout.COMPACT;
+        assertAttribute(layout.getPosition(), 3, GLES20.GL_FLOAT, false, 0);
+        assertAttribute(layout.getNormal(), 3, GLES20.GL_BYTE, true, 12);
+        assertAttribute(layout.getTexCoord(), 2, GLES20.GL_UNSIGNED_SHORT, true, 16);
+        assertEquals(20, layout.getStride());
+        assertNull(layout.getRequiredExtension());
+    }
+
+
+    @Test
+    public void quantizedLayoutIsSixteenBytes()
+    {
+        VertexLayout layout = VertexLayout.QUANTIZED;
+        assertAttribute(layout.getPosition(), 3, GLES20.GL_SHORT, true, 0);
+        assertAttribute(layout.getNormal(), 3, GLES20.GL_BYTE, true, 8);
+        assertAttribute(layout.getTexCoord(), 2, GLES20.GL_UNSIGNED_SHORT, true, 12);
+        assertEquals(16, layout.getStride());
+        assertNull(layout.getRequiredExtension());
+    }
+
+
+    @Test
+    public void extensionTypesNameTheirExtension()
+    {
+        VertexLayout halfFloat = new VertexLayout(VertexLayout.PositionFormat.HALF_FLOAT,
+                VertexLayout.NormalFormat.OCTAHEDRAL, VertexLayout.TexCoordFormat.NONE);
+        assertAttribute(halfFloat.getPosition(), 3, VertexLayout.GL_HALF_FLOAT_OES, false, 0);
+        assertAttribute(halfFloat.getNormal(), 2, GLES20.GL_SHORT, true, 8);
+        assertNull(halfFloat.getTexCoord());
+        assertEquals(12, halfFloat.getStride());
+        assertEquals("GL_OES_vertex_half_float", halfFloat.getRequiredExtension());
+
+        VertexLayout packed = new VertexLayout(VertexLayout.PositionFormat.FLOAT,
+                VertexLayout.NormalFormat.INT_10_10_10_2, VertexLayout.TexCoordFormat.FLOAT);
+        assertAttribute(packed.getNormal(), 4, VertexLayout.GL_INT_10_10_10_2_OES, true, 12);
+        assertEquals(24, packed.getStride());
+        assertEquals("GL_OES_vertex_type_10_10_10_2", packed.getRequiredExtension());
+    }
+
+
+    @Test
+    public void replacingAFormatKeepsTheOthers()
+    {
+        VertexLayout layout = VertexLayout.QUANTIZED.withTexCoordFormat(VertexLayout.TexCoordFormat.FLOAT);
+        assertEquals(VertexLayout.PositionFormat.NORMALIZED_SHORT, layout.getPositionFormat());
+        assertEquals(VertexLayout.NormalFormat.NORMALIZED_BYTE, layout.getNormalFormat());
+        assertEquals(20, layout.getStride());
+
+        assertSame(VertexLayout.COMPACT, VertexLayout.COMPACT.withNormalFormat(
+                VertexLayout.NormalFormat.NORMALIZED_BYTE));
+        assertNull(VertexLayout.COMPACT.withNormalFormat(VertexLayout.NormalFormat.NONE).getNormal());
+    }
+}
@@ -0,0 +1,96 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class VertexWelderTest
+{
+    @Test
+    public void givesEqualRowsTheSameId()
+    {
+        float[] data = {
+                0, 0, 0,
+                1, 0, 0,
+                0, 0, 0,
+                0, 1, 0,
+                1, 0, 0 };
+        int[] ids = new int[5];
+        float[] unique = new float[data.length];
+
+        int numIds = VertexWelder.weld(data, 5, 3, 3, ids, unique);
+
+        assertEquals(3, numIds);
+        assertArrayEquals(new int[] { 0, 1, 0, 2, 1 }, ids);
+        assertArrayEquals(new float[] { 0, 0, 0, 1, 0, 0, 0, 1, 0 },
+                Arrays.copyOf(unique, numIds * 3), 0.0f);
+    }
+
+
+    @Test
+    public void onlyComparesTheFirstComponents()
+    {
+        // Rows of a position and a tag, welded on the position only
+        float[] data = {
+                1, 2, 10,
+                1, 2, 20,
+                3, 4, 30 };
+        int[] ids = new int[3];
+        float[] unique = new float[data.length];
+
+        int numIds = VertexWelder.weld(data, 3, 3, 2, ids, unique);
+
+        assertEquals(2, numIds);
+        assertArrayEquals(new int[] { 0, 0, 1 }, ids);
+
+        // The whole row of the first occurrence is kept
+        assertEquals(10.0f, unique[2], 0.0f);
+        assertEquals(30.0f, unique[5], 0.0f);
+    }
+
+
+    @Test
+    public void comparesBitForBit()
+    {
+        float[] data = { 0.0f, -0.0f, Float.NaN, Float.NaN };
+        int[] ids = new int[4];
+
+        int numIds = VertexWelder.weld(data, 4, 1, 1, ids, null);
+
+        assertEquals(3, numIds);
+        assertArrayEquals(new int[] { 0, 1, 2, 2 }, ids);
+    }
+
+
+    @Test
+    public void weldsLargeInputs()
+    {
+        // Every value appears three times, which exercises the probing of the table
+        int count = 30000;
+        float[] data = new float[count * 2];
+        for (int row = 0; row < count; row++)
+        {
+            data[row * 2] = row % 10000;
+            data[row * 2 + 1] = (row % 10000) * 0.5f;
+        }
+
+        int[] ids = new int[count];
+        int numIds = VertexWelder.weld(data, count, 2, 2, ids, null);
+
+        assertEquals(10000, numIds);
+        for (int row = 0; row < count; row++)
+        {
+            assertEquals(row % 10000, ids[row]);
+        }
+    }
+}
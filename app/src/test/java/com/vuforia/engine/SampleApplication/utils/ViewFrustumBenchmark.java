@@ -0,0 +1,233 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures how many boxes per second ViewFrustum.classify() settles, and
+ * compares it with transforming the eight corners of each box into clip space
+ * and culling the box when they are all outside the same clip plane
+ *
+ * The boxes are randomly placed, rotated and scaled around the camera, so
+ * that some are inside, some cross a plane and most are outside. Both tests
+ * cull exactly the boxes that are entirely behind one plane. The model-view-
+ * projection matrices of the corner test are computed beforehand, a renderer
+ * computes them for drawing anyway
+ */
+public class ViewFrustumBenchmark
+{
+    private static final int NUM_BOXES = 4096;
+    private static final int PASSES_PER_RUN = 20;
+    private static final int RUNS = 21;
+
+    private static final float[] PROJECTION = ViewFrustumTest.createPerspective(60.0f, 0.75f, 0.05f, 20.0f);
+
+    private final ViewFrustum mFrustum = new ViewFrustum();
+    private final MeshBounds[] mBounds = new MeshBounds[NUM_BOXES];
+    private final float[] mModelViews = new float[NUM_BOXES * 16];
+    private final float[] mMvps = new float[NUM_BOXES * 16];
+
+    // Keeps the results alive so that the work is not optimized away
+    private int mNumCulled;
+
+
+    private void createBoxes()
+    {
+        Random random = new Random(1);
+        float[] rotation = new float[16];
+
+        for (int i = 0; i < NUM_BOXES; i++)
+        {
+            float hx = 0.05f + random.nextFloat();
+            float hy = 0.05f + random.nextFloat();
+            float hz = 0.05f + random.nextFloat();
+            mBounds[i] = new MeshBounds(-hx, -hy, -hz, hx, hy, hz,
+                    (float) Math.sqrt(hx * hx + hy * hy + hz * hz));
+
+            // Rotation about a random axis, scaled, then translated within 20 units
+            float ax = random.nextFloat() - 0.5f;
+            float ay = random.nextFloat() - 0.5f;
+            float az = random.nextFloat() - 0.5f;
+            float length = (float) Math.sqrt(ax * ax + ay * ay + az * az);
+            setRotation(rotation, random.nextFloat() * 2.0f * (float) Math.PI,
+                    ax / length, ay / length, az / length);
+
+            float scale = 0.5f + random.nextFloat();
+            int m = i * 16;
+            for (int j = 0; j < 12; j++)
+            {
+                mModelViews[m + j] = rotation[j] * scale;
+            }
+            mModelViews[m + 12] = (random.nextFloat() - 0.5f) * 40.0f;
+            mModelViews[m + 13] = (random.nextFloat() - 0.5f) * 40.0f;
+            mModelViews[m + 14] = (random.nextFloat() - 0.5f) * 40.0f;
+            mModelViews[m + 15] = 1.0f;
+
+            multiply(PROJECTION, mModelViews, m, mMvps, m);
+        }
+    }
+
+
+    // Column-major rotation of angle radians about the unit axis x, y, z
+    private static void setRotation(float[] m, float angle, float x, float y, float z)
+    {
+        float c = (float) Math.cos(angle);
+        float s = (float) Math.sin(angle);
+        float t = 1.0f - c;
+
+        m[0] = t * x * x + c;
+        m[1] = t * x * y + s * z;
+        m[2] = t * x * z - s * y;
+        m[4] = t * x * y - s * z;
+        m[5] = t * y * y + c;
+        m[6] = t * y * z + s * x;
+        m[8] = t * x * z + s * y;
+        m[9] = t * y * z - s * x;
+        m[10] = t * z * z + c;
+    }
+
+
+    // result = lhs * rhs, all column-major
+    private static void multiply(float[] lhs, float[] rhs, int rhsOffset, float[] result, int resultOffset)
+    {
+        for (int column = 0; column < 4; column++)
+        {
+            for (int row = 0; row < 4; row++)
+            {
+                float sum = 0.0f;
+                for (int k = 0; k < 4; k++)
+                {
+                    sum += lhs[k * 4 + row] * rhs[rhsOffset + column * 4 + k];
+                }
+                result[resultOffset + column * 4 + row] = sum;
+            }
+        }
+    }
+
+
+    // True if the eight corners of the bounds are outside the same clip plane
+    private static boolean isOutsideByCorners(MeshBounds bounds, float[] mvp, int m)
+    {
+        int outside = 0x3f;
+        for (int corner = 0; corner < 8; corner++)
+        {
+            float x = (corner & 1) != 0 ? bounds.getMax(0) : bounds.getMin(0);
+            float y = (corner & 2) != 0 ? bounds.getMax(1) : bounds.getMin(1);
+            float z = (corner & 4) != 0 ? bounds.getMax(2) : bounds.getMin(2);
+
+            float cx = mvp[m] * x + mvp[m + 4] * y + mvp[m + 8] * z + mvp[m + 12];
+            float cy = mvp[m + 1] * x + mvp[m + 5] * y + mvp[m + 9] * z + mvp[m + 13];
+            float cz = mvp[m + 2] * x + mvp[m + 6] * y + mvp[m + 10] * z + mvp[m + 14];
+            float cw = mvp[m + 3] * x + mvp[m + 7] * y + mvp[m + 11] * z + mvp[m + 15];
+
+            int flags = 0;
+            flags |= cx < -cw ? 1 : 0;
+            flags |= cx > cw ? 2 : 0;
+            flags |= cy < -cw ? 4 : 0;
+            flags |= cy > cw ? 8 : 0;
+            flags |= cz < -cw ? 16 : 0;
+            flags |= cz > cw ? 32 : 0;
+            outside &= flags;
+        }
+
+        return outside != 0;
+    }
+
+
+    private int cullWithFrustum()
+    {
+        int numCulled = 0;
+        for (int i = 0; i < NUM_BOXES; i++)
+        {
+            if (mFrustum.classify(mBounds[i], mModelViews, i * 16) == ViewFrustum.OUTSIDE)
+            {
+                numCulled++;
+            }
+        }
+
+        return numCulled;
+    }
+
+
+    private int cullWithCorners()
+    {
+        int numCulled = 0;
+        for (int i = 0; i < NUM_BOXES; i++)
+        {
+            if (isOutsideByCorners(mBounds[i], mMvps, i * 16))
+            {
+                numCulled++;
+            }
+        }
+
+        return numCulled;
+    }
+
+
+    @Test
+    public void cullingThroughput() throws Exception
+    {
+        Benchmarks.assumeEnabled();
+
+        createBoxes();
+        mFrustum.setProjection(PROJECTION, 0);
+
+        int numDisagreements = 0;
+        int numInside = 0;
+        for (int i = 0; i < NUM_BOXES; i++)
+        {
+            int result = mFrustum.classify(mBounds[i], mModelViews, i * 16);
+            if ((result == ViewFrustum.OUTSIDE) != isOutsideByCorners(mBounds[i], mMvps, i * 16))
+            {
+                numDisagreements++;
+            }
+            numInside += result == ViewFrustum.INSIDE ? 1 : 0;
+        }
+
+        // Boxes touching a plane within rounding may go either way
+        assertEquals(0, numDisagreements, NUM_BOXES / 1000);
+
+        Benchmarks.Task frustum = new Benchmarks.Task()
+        {
+            @Override
+            public void run()
+            {
+                for (int pass = 0; pass < PASSES_PER_RUN; pass++)
+                {
+                    mNumCulled = cullWithFrustum();
+                }
+            }
+        };
+
+        Benchmarks.Task corners = new Benchmarks.Task()
+        {
+            @Override
+            public void run()
+            {
+                for (int pass = 0; pass < PASSES_PER_RUN; pass++)
+                {
+                    mNumCulled = cullWithCorners();
+                }
+            }
+        };
+
+        double frustumNanos = (double) Benchmarks.medianNanos(RUNS, frustum) / NUM_BOXES / PASSES_PER_RUN;
+        int numCulled = mNumCulled;
+        double cornerNanos = (double) Benchmarks.medianNanos(RUNS, corners) / NUM_BOXES / PASSES_PER_RUN;
+
+        Benchmarks.report("ViewFrustum", "%d boxes, %d inside, %d culled: classify %.1f ns per box "
+                        + "(%.1f M boxes/s), eight corners in clip space %.1f ns per box, %.1fx faster",
+                NUM_BOXES, numInside, numCulled, frustumNanos, 1e3 / frustumNanos, cornerNanos,
+                cornerNanos / frustumNanos);
+    }
+}
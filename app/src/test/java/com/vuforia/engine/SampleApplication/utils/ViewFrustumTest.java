@@ -0,0 +1,263 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ViewFrustumTest
+{
+    private static final float NEAR = 0.1f;
+    private static final float FAR = 10.0f;
+    private static final float DELTA = 1e-6f;
+
+    // 90 degrees vertical field of view, square: the side planes are x = +-z and y = +-z
+    private static final float[] PROJECTION = createPerspective(90.0f, 1.0f, NEAR, FAR);
+
+    private static final float[] IDENTITY = {
+            1, 0, 0, 0,
+            0, 1, 0, 0,
+            0, 0, 1, 0,
+            0, 0, 0, 1};
+
+    private ViewFrustum mFrustum;
+
+
+    @Before
+    public void setUp()
+    {
+        mFrustum = new ViewFrustum();
+        mFrustum.setProjection(PROJECTION, 0);
+    }
+
+
+    // Column-major GL perspective, the camera looks down -z
+    static float[] createPerspective(float fovY, float aspect, float near, float far)
+    {
+        float f = 1.0f / (float) Math.tan(Math.toRadians(fovY) / 2.0);
+        float[] m = new float[16];
+        m[0] = f / aspect;
+        m[5] = f;
+        m[10] = (far + near) / (near - far);
+        m[11] = -1.0f;
+        m[14] = 2.0f * far * near / (near - far);
+        return m;
+    }
+
+
+    // Column-major translation
+    private static float[] translation(float x, float y, float z)
+    {
+        float[] m = IDENTITY.clone();
+        m[12] = x;
+        m[13] = y;
+        m[14] = z;
+        return m;
+    }
+
+
+    // A box of the given half extents around the origin, the sphere reaches its corners
+    private static MeshBounds box(float hx, float hy, float hz)
+    {
+        return new MeshBounds(-hx, -hy, -hz, hx, hy, hz,
+                (float) Math.sqrt(hx * hx + hy * hy + hz * hz));
+    }
+
+
+    private int classifyCube(float x, float y, float z)
+    {
+        return mFrustum.classify(box(0.5f, 0.5f, 0.5f), translation(x, y, z), 0);
+    }
+
+
+    @Test
+    public void acceptsEverythingWithoutAProjection()
+    {
+        ViewFrustum frustum = new ViewFrustum();
+        assertEquals(ViewFrustum.INSIDE, frustum.classify(box(1, 1, 1), translation(0, 0, 1000), 0));
+        assertEquals(ViewFrustum.INSIDE, frustum.classifySphere(-1000, 0, 0, 1));
+    }
+
+
+    @Test
+    public void boxesWellInsideOrOutsideAreSettled()
+    {
+        assertEquals(ViewFrustum.INSIDE, classifyCube(0, 0, -5));
+
+        // Behind the camera, left, right, below and above
+        assertEquals(ViewFrustum.OUTSIDE, classifyCube(0, 0, 5));
+        assertEquals(ViewFrustum.OUTSIDE, classifyCube(-8, 0, -5));
+        assertEquals(ViewFrustum.OUTSIDE, classifyCube(8, 0, -5));
+        assertEquals(ViewFrustum.OUTSIDE, classifyCube(0, -8, -5));
+        assertEquals(ViewFrustum.OUTSIDE, classifyCube(0, 8, -5));
+    }
+
+
+    @Test
+    public void boxesStraddlingASidePlaneIntersect()
+    {
+        // The left plane is x = z, at z = -5 it passes through x = -5
+        assertEquals(ViewFrustum.INTERSECTING, classifyCube(-5, 0, -5));
+        assertEquals(ViewFrustum.INTERSECTING, classifyCube(5, 0, -5));
+        assertEquals(ViewFrustum.INTERSECTING, classifyCube(0, -5, -5));
+        assertEquals(ViewFrustum.INTERSECTING, classifyCube(0, 5, -5));
+
+        // Just clear of the plane on either side. The centers are 1.1 / sqrt(2) = 0.78
+        // from the plane, within the radius of the sphere, 0.87, but beyond the extent
+        // of the box along the normal of the plane, 0.71
+        assertEquals(ViewFrustum.INSIDE, classifyCube(-3.9f, 0, -5));
+        assertEquals(ViewFrustum.OUTSIDE, classifyCube(-6.1f, 0, -5));
+    }
+
+
+    @Test
+    public void nearPlane()
+    {
+        // The near plane is z = -0.1
+        MeshBounds small = box(0.01f, 0.01f, 0.01f);
+        assertEquals(ViewFrustum.INTERSECTING, mFrustum.classify(small, translation(0, 0, -NEAR), 0));
+        assertEquals(ViewFrustum.INSIDE, mFrustum.classify(small, translation(0, 0, -NEAR - 0.02f), 0));
+
+        // Between the camera and the near plane
+        assertEquals(ViewFrustum.OUTSIDE, mFrustum.classify(small, translation(0, 0, -0.05f), 0));
+        assertEquals(ViewFrustum.OUTSIDE, classifyCube(0, 0, -NEAR + 0.51f));
+    }
+
+
+    @Test
+    public void farPlane()
+    {
+        assertEquals(ViewFrustum.INTERSECTING, classifyCube(0, 0, -FAR));
+        assertEquals(ViewFrustum.INSIDE, classifyCube(0, 0, -FAR + 0.51f));
+        assertEquals(ViewFrustum.OUTSIDE, classifyCube(0, 0, -FAR - 0.51f));
+    }
+
+
+    // The sphere of a long thin box crosses the left plane, the box itself does not
+    @Test
+    public void theBoxSettlesWhatTheSphereCannot()
+    {
+        MeshBounds rod = box(0.05f, 2.0f, 0.05f);
+
+        assertEquals(ViewFrustum.INTERSECTING, mFrustum.classifySphere(-5.5f, 0, -5, rod.getRadius()));
+        assertEquals(ViewFrustum.OUTSIDE, mFrustum.classify(rod, translation(-5.5f, 0, -5), 0));
+        assertEquals(ViewFrustum.INSIDE, mFrustum.classify(rod, translation(-4.5f, 0, -5), 0));
+    }
+
+
+    @Test
+    public void theModelViewRotatesTheBox()
+    {
+        MeshBounds rod = box(0.05f, 2.0f, 0.05f);
+
+        // Rotated 90 degrees about z, the rod lies along x and reaches across the left plane
+        float[] rotated = {
+                0, 1, 0, 0,
+                -1, 0, 0, 0,
+                0, 0, 1, 0,
+                -5.5f, 0, -5, 1};
+        assertEquals(ViewFrustum.INTERSECTING, mFrustum.classify(rod, rotated, 0));
+    }
+
+
+    @Test
+    public void theModelViewScalesTheBox()
+    {
+        float[] scaled = translation(-3.9f, 0, -5);
+        scaled[0] = 2.0f;
+        scaled[5] = 2.0f;
+        scaled[10] = 2.0f;
+
+        assertEquals(ViewFrustum.INSIDE, classifyCube(-3.9f, 0, -5));
+        assertEquals(ViewFrustum.INTERSECTING, mFrustum.classify(box(0.5f, 0.5f, 0.5f), scaled, 0));
+    }
+
+
+    @Test
+    public void readsTheMatricesAtTheirOffsets()
+    {
+        float[] projections = new float[32];
+        System.arraycopy(PROJECTION, 0, projections, 16, 16);
+        ViewFrustum frustum = new ViewFrustum();
+        frustum.setProjection(projections, 16);
+
+        float[] modelViews = new float[32];
+        System.arraycopy(translation(0, 0, 5), 0, modelViews, 16, 16);
+        assertEquals(ViewFrustum.OUTSIDE, frustum.classify(box(0.5f, 0.5f, 0.5f), modelViews, 16));
+    }
+
+
+    // Outside two planes near a corner of the frustum but not entirely behind either:
+    // the test is conservative and keeps the box
+    @Test
+    public void boxesNearACornerMayBeKept()
+    {
+        assertEquals(ViewFrustum.INTERSECTING, classifyCube(-5.6f, 5.6f, -5));
+    }
+
+
+    @Test
+    public void isVisibleCountsTheResults()
+    {
+        MeshBounds cube = box(0.5f, 0.5f, 0.5f);
+        assertTrue(mFrustum.isVisible(cube, translation(0, 0, -5), 0));
+        assertTrue(mFrustum.isVisible(cube, translation(-5, 0, -5), 0));
+        assertFalse(mFrustum.isVisible(cube, translation(0, 0, 5), 0));
+
+        assertEquals(2, mFrustum.getVisibleCount());
+        assertEquals(1, mFrustum.getCulledCount());
+
+        mFrustum.resetCounters();
+        assertEquals(0, mFrustum.getVisibleCount());
+        assertEquals(0, mFrustum.getCulledCount());
+    }
+
+
+    @Test
+    public void boundsOfVertices()
+    {
+        ByteBuffer bytes = ByteBuffer.allocateDirect(4 * 3 * 4).order(ByteOrder.nativeOrder());
+        FloatBuffer floats = bytes.asFloatBuffer();
+        floats.put(new float[] {
+                1, 2, 3,
+                -1, 0, 3,
+                3, 2, -1,
+                1, 4, 1});
+
+        MeshBounds bounds = MeshBounds.fromVertices(bytes, 4);
+        assertEquals(-1, bounds.getMin(0), DELTA);
+        assertEquals(0, bounds.getMin(1), DELTA);
+        assertEquals(-1, bounds.getMin(2), DELTA);
+        assertEquals(3, bounds.getMax(0), DELTA);
+        assertEquals(4, bounds.getMax(1), DELTA);
+        assertEquals(3, bounds.getMax(2), DELTA);
+        assertEquals(1, bounds.getCenter(0), DELTA);
+        assertEquals(2, bounds.getHalfExtent(1), DELTA);
+
+        // The sphere is centered on the box, (-1, 0, 3) and (3, 2, -1) are the farthest
+        assertEquals((float) Math.sqrt(12), bounds.getRadius(), DELTA);
+
+        // The buffer is read from 0 whatever its position
+        assertEquals(bounds.getRadius(), MeshBounds.fromVertices(floats, 4).getRadius(), DELTA);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void boundsOfTooFewVerticesAreRejected()
+    {
+        MeshBounds.fromVertices(FloatBuffer.allocate(6), 3);
+    }
+}
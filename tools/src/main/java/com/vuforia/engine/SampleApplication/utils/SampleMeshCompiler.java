@@ -0,0 +1,234 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import android.opengl.GLES20;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Offline converter from the .txt mesh format read by SampleApplication3DModel,
+ * or from a MeshObject class, to the little-endian binary described by
+ * CompiledMeshFormat, which can be bulk-loaded at runtime
+ *
+ * This is a tool of the development machine, built by the tools module and
+ * not packaged in the APK.
+ *
+ * Usage: java SampleMeshCompiler Buildings.txt [Buildings.mesh]
+ * If no output is given the compiled file is written next to the input
+ * with the .mesh extension, where the loader looks for it
+ *
+ * Usage: java SampleMeshCompiler --class <MeshObject class> <output.mesh>
+ * Compiles the geometry of a MeshObject built by its no-argument constructor,
+ * which must be on the classpath of the tool
+ */
+public class SampleMeshCompiler
+{
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length == 3 && args[0].equals("--class"))
+        {
+            compileClass(args[1], new File(args[2]));
+            return;
+        }
+
+        if (args.length < 1 || args.length > 2)
+        {
+            String extension = CompiledMeshFormat.COMPILED_EXTENSION;
+            System.err.println("Usage: SampleMeshCompiler <mesh.txt> [output" + extension + "]");
+            System.err.println("       SampleMeshCompiler --class <MeshObject class> <output" + extension + ">");
+            System.exit(1);
+        }
+
+        File input = new File(args[0]);
+        File output = new File(args.length == 2 ? args[1] : CompiledMeshFormat.getCompiledName(args[0]));
+
+        float[][] sections = parseText(input);
+        ByteBuffer compiled = compile(sections);
+        write(compiled, output);
+
+        System.out.println("Compiled " + input + " (" + input.length() + " bytes) to "
+                + output + " (" + compiled.limit() + " bytes)");
+    }
+
+
+    private static void compileClass(String className, File output) throws IOException
+    {
+        MeshObject mesh;
+        try
+        {
+            Constructor<?> constructor = Class.forName(className).getDeclaredConstructor();
+            constructor.setAccessible(true);
+            mesh = (MeshObject) constructor.newInstance();
+        }
+        catch (ReflectiveOperationException | ClassCastException e)
+        {
+            throw new IllegalArgumentException("Cannot create a MeshObject of class " + className, e);
+        }
+
+        ByteBuffer compiled = compile(mesh);
+        write(compiled, output);
+
+        System.out.println("Compiled " + className + " to " + output + " (" + compiled.limit() + " bytes)");
+    }
+
+
+    private static void write(ByteBuffer compiled, File output) throws IOException
+    {
+        OutputStream outputStream = new FileOutputStream(output);
+        try
+        {
+            outputStream.write(compiled.array(), 0, compiled.limit());
+        }
+        finally
+        {
+            outputStream.close();
+        }
+    }
+
+
+    // Parses the vertices, normals and tex coords sections of a .txt mesh
+    public static float[][] parseText(File input) throws IOException
+    {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(input)));
+        try
+        {
+            float[][] sections = new float[CompiledMeshFormat.NUM_SECTIONS][];
+            for (int section = 0; section < CompiledMeshFormat.NUM_SECTIONS; section++)
+            {
+                int floatsToRead = Integer.parseInt(reader.readLine().trim());
+                float[] values = new float[floatsToRead];
+                for (int i = 0; i < floatsToRead; i++)
+                {
+                    values[i] = Float.parseFloat(reader.readLine());
+                }
+
+                sections[section] = values;
+            }
+
+            return sections;
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+
+    public static ByteBuffer compile(float[][] sections)
+    {
+        return compile(sections, null);
+    }
+
+
+    // indices is null for a triangle list, otherwise they must all be below 65536
+    public static ByteBuffer compile(float[][] sections, short[] indices)
+    {
+        if (sections.length != CompiledMeshFormat.NUM_SECTIONS)
+        {
+            throw new IllegalArgumentException("Expected " + CompiledMeshFormat.NUM_SECTIONS + " sections");
+        }
+
+        int numSections = indices != null
+                ? CompiledMeshFormat.NUM_INDEXED_SECTIONS : CompiledMeshFormat.NUM_SECTIONS;
+        int headerSize = CompiledMeshFormat.getHeaderSize(numSections);
+        int totalSize = headerSize;
+        for (float[] section : sections)
+        {
+            totalSize += section.length * (Float.SIZE / Byte.SIZE);
+        }
+        if (indices != null)
+        {
+            totalSize += indices.length * (Short.SIZE / Byte.SIZE);
+        }
+
+        ByteBuffer compiled = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
+        compiled.putInt(CompiledMeshFormat.MAGIC_NUMBER);
+        compiled.putInt(CompiledMeshFormat.VERSION);
+        compiled.putInt(numSections);
+
+        int offset = headerSize;
+        for (float[] section : sections)
+        {
+            compiled.putInt(section.length);
+            compiled.putInt(offset);
+            offset += section.length * (Float.SIZE / Byte.SIZE);
+        }
+        if (indices != null)
+        {
+            compiled.putInt(indices.length);
+            compiled.putInt(offset);
+        }
+
+        for (float[] section : sections)
+        {
+            compiled.asFloatBuffer().put(section);
+            compiled.position(compiled.position() + section.length * (Float.SIZE / Byte.SIZE));
+        }
+        if (indices != null)
+        {
+            compiled.asShortBuffer().put(indices);
+            compiled.position(compiled.position() + indices.length * (Short.SIZE / Byte.SIZE));
+        }
+
+        compiled.flip();
+        return compiled;
+    }
+
+
+    // Compiles the current geometry of a mesh, which must have 16-bit indices if any
+    public static ByteBuffer compile(MeshObject mesh)
+    {
+        int numVertices = mesh.getNumObjectVertex();
+        float[][] sections = new float[CompiledMeshFormat.NUM_SECTIONS][];
+        sections[CompiledMeshFormat.SECTION_VERTICES] = toArray(mesh.getVertices(), numVertices * 3);
+        sections[CompiledMeshFormat.SECTION_NORMALS] = toArray(mesh.getNormals(), numVertices * 3);
+        sections[CompiledMeshFormat.SECTION_TEX_COORDS] = toArray(mesh.getTexCoords(), numVertices * 2);
+
+        short[] indices = null;
+        if (mesh.getNumObjectIndex() > 0)
+        {
+            if (mesh.getIndexType() != GLES20.GL_UNSIGNED_SHORT)
+            {
+                throw new IllegalArgumentException("Only meshes with 16-bit indices can be compiled");
+            }
+
+            int[] values = mesh.copyIndices();
+            indices = new short[values.length];
+            for (int i = 0; i < values.length; i++)
+            {
+                indices[i] = (short) values[i];
+            }
+        }
+
+        return compile(sections, indices);
+    }
+
+
+    // An absent attribute compiles to an empty section
+    private static float[] toArray(Buffer buffer, int numFloats)
+    {
+        float[] values = new float[buffer != null ? numFloats : 0];
+        if (buffer != null)
+        {
+            MeshObject.asFloatBuffer(buffer).get(values);
+        }
+
+        return values;
+    }
+}
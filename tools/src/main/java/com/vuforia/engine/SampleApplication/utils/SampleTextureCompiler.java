@@ -0,0 +1,560 @@
+/*===============================================================================
+Copyright (c) 2020 PTC Inc. All Rights Reserved.
+
+Vuforia is a trademark of PTC Inc., registered in the United States and other
+countries.
+===============================================================================*/
+
+package com.vuforia.engine.SampleApplication.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Offline converter from the PNG textures of the samples to a container that
+ * Texture.loadTextureFromApk() reads in bulk, without decoding the image and
+ * without any per-pixel work on the device
+ *
+ * The pixels are stored the way the renderers upload them: RGBA, 8 bits per
+ * channel, with the bottom row first. Optionally the colors are premultiplied
+ * by alpha and the whole mip chain is precomputed.
+ *
+ * The layout of the compiled file is described by CompiledTextureFormat.
+ *
+ * This is a tool of the development machine, built by the tools module and
+ * not packaged in the APK.
+ *
+ * Usage: java SampleTextureCompiler [--premultiply] [--mipmaps] texture.png [texture.tex]
+ * If no output is given the compiled file is written next to the input
+ * with the .tex extension, where the loader looks for it
+ */
+public class SampleTextureCompiler
+{
+    private static final int CHANNELS = 4;
+
+    private static final byte[] PNG_SIGNATURE = { (byte) 137, 80, 78, 71, 13, 10, 26, 10 };
+
+    // Adam7 passes: x start, y start, x step, y step
+    private static final int[][] ADAM7_PASSES = {
+            { 0, 0, 8, 8 }, { 4, 0, 8, 8 }, { 0, 4, 4, 8 }, { 2, 0, 4, 4 },
+            { 0, 2, 2, 4 }, { 1, 0, 2, 2 }, { 0, 1, 1, 2 } };
+
+
+    public static void main(String[] args) throws IOException
+    {
+        boolean premultiply = false;
+        boolean mipmaps = false;
+        List<String> files = new ArrayList<>();
+
+        for (String arg : args)
+        {
+            if (arg.equals("--premultiply"))
+            {
+                premultiply = true;
+            }
+            else if (arg.equals("--mipmaps"))
+            {
+                mipmaps = true;
+            }
+            else
+            {
+                files.add(arg);
+            }
+        }
+
+        if (files.size() < 1 || files.size() > 2)
+        {
+            System.err.println("Usage: SampleTextureCompiler [--premultiply] [--mipmaps] <texture.png> [output"
+                    + CompiledTextureFormat.COMPILED_EXTENSION + "]");
+            System.exit(1);
+        }
+
+        File input = new File(files.get(0));
+        File output = new File(files.size() == 2
+                ? files.get(1) : CompiledTextureFormat.getCompiledName(files.get(0)));
+
+        byte[] png = readFile(input);
+        int[] size = new int[2];
+        byte[] rgba = decodePng(png, size);
+        ByteBuffer compiled = compile(rgba, size[0], size[1], premultiply, mipmaps);
+
+        OutputStream outputStream = new FileOutputStream(output);
+        try
+        {
+            outputStream.write(compiled.array(), 0, compiled.limit());
+        }
+        finally
+        {
+            outputStream.close();
+        }
+
+        System.out.println("Compiled " + input + " (" + size[0] + "x" + size[1] + ", "
+                + input.length() + " bytes) to " + output + " (" + compiled.limit() + " bytes)");
+    }
+
+
+    // rgba holds the top row first, as decoded
+    public static ByteBuffer compile(byte[] rgba, int width, int height,
+                                     boolean premultiply, boolean mipmaps)
+    {
+        if (rgba.length != width * height * CHANNELS)
+        {
+            throw new IllegalArgumentException("Expected " + width * height * CHANNELS + " bytes of pixels");
+        }
+
+        List<byte[]> levels = new ArrayList<>();
+        List<int[]> sizes = new ArrayList<>();
+
+        byte[] level = flipRows(rgba, width, height);
+        if (premultiply)
+        {
+            premultiplyAlpha(level);
+        }
+
+        int levelWidth = width;
+        int levelHeight = height;
+        levels.add(level);
+        sizes.add(new int[] { levelWidth, levelHeight });
+
+        while (mipmaps && (levelWidth > 1 || levelHeight > 1))
+        {
+            int nextWidth = Math.max(1, levelWidth / 2);
+            int nextHeight = Math.max(1, levelHeight / 2);
+            level = downsample(level, levelWidth, levelHeight, nextWidth, nextHeight, premultiply);
+
+            levelWidth = nextWidth;
+            levelHeight = nextHeight;
+            levels.add(level);
+            sizes.add(new int[] { levelWidth, levelHeight });
+        }
+
+        int dataOffset = CompiledTextureFormat.HEADER_SIZE
+                + levels.size() * CompiledTextureFormat.LEVEL_ENTRY_SIZE;
+        int totalSize = dataOffset;
+        for (byte[] pixels : levels)
+        {
+            totalSize += pixels.length;
+        }
+
+        ByteBuffer compiled = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
+        compiled.putInt(CompiledTextureFormat.MAGIC_NUMBER);
+        compiled.putInt(CompiledTextureFormat.VERSION);
+        compiled.putInt(CompiledTextureFormat.FORMAT_RGBA8888);
+        compiled.putInt(CompiledTextureFormat.FLAG_FLIPPED
+                | (premultiply ? CompiledTextureFormat.FLAG_PREMULTIPLIED : 0));
+        compiled.putInt(levels.size());
+
+        int offset = dataOffset;
+        for (int i = 0; i < levels.size(); i++)
+        {
+            compiled.putInt(sizes.get(i)[0]);
+            compiled.putInt(sizes.get(i)[1]);
+            compiled.putInt(offset);
+            compiled.putInt(levels.get(i).length);
+            offset += levels.get(i).length;
+        }
+
+        for (byte[] pixels : levels)
+        {
+            compiled.put(pixels);
+        }
+
+        compiled.flip();
+        return compiled;
+    }
+
+
+    // Decodes an 8-bit PNG of any color type, interlaced or not, into RGBA with the
+    // top row first. size receives the width and height
+    public static byte[] decodePng(byte[] png, int[] size) throws IOException
+    {
+        DataInputStream stream = new DataInputStream(new ByteArrayInputStream(png));
+
+        byte[] signature = new byte[PNG_SIGNATURE.length];
+        stream.readFully(signature);
+        if (!Arrays.equals(signature, PNG_SIGNATURE))
+        {
+            throw new IOException("Not a PNG file");
+        }
+
+        int width = 0;
+        int height = 0;
+        int colorType = -1;
+        int interlace = 0;
+        byte[] palette = null;
+        byte[] transparency = null;
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        while (true)
+        {
+            int length = stream.readInt();
+            int type = stream.readInt();
+            byte[] data = new byte[length];
+            stream.readFully(data);
+            stream.readInt(); // CRC
+
+            if (type == chunkType("IHDR"))
+            {
+                ByteBuffer header = ByteBuffer.wrap(data);
+                width = header.getInt();
+                height = header.getInt();
+                int bitDepth = header.get();
+                colorType = header.get();
+                header.get(); // compression
+                header.get(); // filter
+                interlace = header.get();
+
+                if (bitDepth != 8)
+                {
+                    throw new IOException("Only 8-bit PNG files are supported, found " + bitDepth + " bits");
+                }
+            }
+            else if (type == chunkType("PLTE"))
+            {
+                palette = data;
+            }
+            else if (type == chunkType("tRNS"))
+            {
+                transparency = data;
+            }
+            else if (type == chunkType("IDAT"))
+            {
+                compressed.write(data);
+            }
+            else if (type == chunkType("IEND"))
+            {
+                break;
+            }
+        }
+
+        int channels = channelsOf(colorType);
+        byte[] raw = inflate(compressed.toByteArray());
+        byte[] samples = new byte[width * height * channels];
+
+        if (interlace == 0)
+        {
+            unfilter(raw, 0, samples, width, height, channels, 0, 0, 1, 1);
+        }
+        else
+        {
+            int rawOffset = 0;
+            for (int[] pass : ADAM7_PASSES)
+            {
+                int passWidth = (width - pass[0] + pass[2] - 1) / pass[2];
+                int passHeight = (height - pass[1] + pass[3] - 1) / pass[3];
+                if (passWidth <= 0 || passHeight <= 0)
+                {
+                    continue;
+                }
+
+                rawOffset = unfilter(raw, rawOffset, samples, width, passHeight, channels,
+                        pass[0], pass[1], pass[2], pass[3]);
+            }
+        }
+
+        size[0] = width;
+        size[1] = height;
+        return toRgba(samples, width * height, colorType, palette, transparency);
+    }
+
+
+    private static int chunkType(String name)
+    {
+        return (name.charAt(0) << 24) | (name.charAt(1) << 16) | (name.charAt(2) << 8) | name.charAt(3);
+    }
+
+
+    private static int channelsOf(int colorType) throws IOException
+    {
+        switch (colorType)
+        {
+            case 0: return 1;   // Gray
+            case 2: return 3;   // RGB
+            case 3: return 1;   // Palette index
+            case 4: return 2;   // Gray and alpha
+            case 6: return 4;   // RGBA
+            default:
+                throw new IOException("Unknown PNG color type " + colorType);
+        }
+    }
+
+
+    private static byte[] inflate(byte[] compressed) throws IOException
+    {
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(compressed.length * 4);
+        byte[] chunk = new byte[64 * 1024];
+        try
+        {
+            while (!inflater.finished())
+            {
+                int numInflated = inflater.inflate(chunk);
+                if (numInflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    throw new IOException("Truncated PNG image data");
+                }
+
+                raw.write(chunk, 0, numInflated);
+            }
+        }
+        catch (DataFormatException e)
+        {
+            throw new IOException("Corrupt PNG image data", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+
+        return raw.toByteArray();
+    }
+
+
+    // Reverses the PNG row filters of one image or interlace pass and scatters its
+    // pixels into samples. Returns the offset in raw following the pass
+    private static int unfilter(byte[] raw, int rawOffset, byte[] samples, int width, int passHeight,
+                                int channels, int xStart, int yStart, int xStep, int yStep)
+    {
+        int passWidth = (width - xStart + xStep - 1) / xStep;
+        int rowBytes = passWidth * channels;
+        byte[] previous = new byte[rowBytes];
+        byte[] current = new byte[rowBytes];
+
+        for (int row = 0; row < passHeight; row++)
+        {
+            int filter = raw[rawOffset++];
+            for (int i = 0; i < rowBytes; i++)
+            {
+                int x = raw[rawOffset + i] & 0xFF;
+                int a = i >= channels ? current[i - channels] & 0xFF : 0;
+                int b = previous[i] & 0xFF;
+                int c = i >= channels ? previous[i - channels] & 0xFF : 0;
+
+                switch (filter)
+                {
+                    case 1: x += a; break;
+                    case 2: x += b; break;
+                    case 3: x += (a + b) >> 1; break;
+                    case 4: x += paeth(a, b, c); break;
+                    default: break;
+                }
+
+                current[i] = (byte) x;
+            }
+            rawOffset += rowBytes;
+
+            int y = yStart + row * yStep;
+            for (int column = 0; column < passWidth; column++)
+            {
+                int x = xStart + column * xStep;
+                System.arraycopy(current, column * channels, samples, (y * width + x) * channels, channels);
+            }
+
+            byte[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return rawOffset;
+    }
+
+
+    private static int paeth(int a, int b, int c)
+    {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+
+        if (pa <= pb && pa <= pc)
+        {
+            return a;
+        }
+
+        return pb <= pc ? b : c;
+    }
+
+
+    private static byte[] toRgba(byte[] samples, int numPixels, int colorType,
+                                 byte[] palette, byte[] transparency) throws IOException
+    {
+        byte[] rgba = new byte[numPixels * CHANNELS];
+
+        for (int p = 0; p < numPixels; p++)
+        {
+            int r, g, b, a = 255;
+
+            switch (colorType)
+            {
+                case 0:
+                    r = g = b = samples[p] & 0xFF;
+                    if (transparency != null && transparency.length >= 2 && r == (transparency[1] & 0xFF))
+                    {
+                        a = 0;
+                    }
+                    break;
+
+                case 2:
+                    r = samples[p * 3] & 0xFF;
+                    g = samples[p * 3 + 1] & 0xFF;
+                    b = samples[p * 3 + 2] & 0xFF;
+                    if (transparency != null && transparency.length >= 6
+                            && r == (transparency[1] & 0xFF) && g == (transparency[3] & 0xFF)
+                            && b == (transparency[5] & 0xFF))
+                    {
+                        a = 0;
+                    }
+                    break;
+
+                case 3:
+                    int index = samples[p] & 0xFF;
+                    if (palette == null || index * 3 + 2 >= palette.length)
+                    {
+                        throw new IOException("PNG palette index out of range");
+                    }
+                    r = palette[index * 3] & 0xFF;
+                    g = palette[index * 3 + 1] & 0xFF;
+                    b = palette[index * 3 + 2] & 0xFF;
+                    if (transparency != null && index < transparency.length)
+                    {
+                        a = transparency[index] & 0xFF;
+                    }
+                    break;
+
+                case 4:
+                    r = g = b = samples[p * 2] & 0xFF;
+                    a = samples[p * 2 + 1] & 0xFF;
+                    break;
+
+                default:
+                    r = samples[p * 4] & 0xFF;
+                    g = samples[p * 4 + 1] & 0xFF;
+                    b = samples[p * 4 + 2] & 0xFF;
+                    a = samples[p * 4 + 3] & 0xFF;
+                    break;
+            }
+
+            rgba[p * 4] = (byte) r;
+            rgba[p * 4 + 1] = (byte) g;
+            rgba[p * 4 + 2] = (byte) b;
+            rgba[p * 4 + 3] = (byte) a;
+        }
+
+        return rgba;
+    }
+
+
+    // Bottom row first, as expected by glTexImage2D with the samples' texture coordinates
+    private static byte[] flipRows(byte[] rgba, int width, int height)
+    {
+        int rowSize = width * CHANNELS;
+        byte[] flipped = new byte[rgba.length];
+        for (int row = 0; row < height; row++)
+        {
+            System.arraycopy(rgba, row * rowSize, flipped, (height - 1 - row) * rowSize, rowSize);
+        }
+
+        return flipped;
+    }
+
+
+    private static void premultiplyAlpha(byte[] rgba)
+    {
+        for (int p = 0; p < rgba.length; p += CHANNELS)
+        {
+            int a = rgba[p + 3] & 0xFF;
+            for (int c = 0; c < 3; c++)
+            {
+                rgba[p + c] = (byte) (((rgba[p + c] & 0xFF) * a + 127) / 255);
+            }
+        }
+    }
+
+
+    // Box filter over the source texels covered by each destination texel. Straight
+    // alpha colors are weighted by alpha so that transparent texels do not bleed
+    private static byte[] downsample(byte[] src, int srcWidth, int srcHeight,
+                                     int dstWidth, int dstHeight, boolean isPremultiplied)
+    {
+        byte[] dst = new byte[dstWidth * dstHeight * CHANNELS];
+        int xScale = srcWidth / dstWidth;
+        int yScale = srcHeight / dstHeight;
+        long[] sum = new long[CHANNELS];
+
+        for (int y = 0; y < dstHeight; y++)
+        {
+            for (int x = 0; x < dstWidth; x++)
+            {
+                Arrays.fill(sum, 0);
+                long weightSum = 0;
+                int count = 0;
+
+                for (int sy = y * yScale; sy < (y + 1) * yScale; sy++)
+                {
+                    for (int sx = x * xScale; sx < (x + 1) * xScale; sx++)
+                    {
+                        int s = (sy * srcWidth + sx) * CHANNELS;
+                        int a = src[s + 3] & 0xFF;
+                        int weight = isPremultiplied ? 1 : a;
+
+                        for (int c = 0; c < 3; c++)
+                        {
+                            sum[c] += (src[s + c] & 0xFF) * weight;
+                        }
+
+                        sum[3] += a;
+                        weightSum += weight;
+                        count++;
+                    }
+                }
+
+                int d = (y * dstWidth + x) * CHANNELS;
+                for (int c = 0; c < 3; c++)
+                {
+                    dst[d + c] = (byte) (weightSum == 0 ? 0 : (sum[c] + weightSum / 2) / weightSum);
+                }
+                dst[d + 3] = (byte) ((sum[3] + count / 2) / count);
+            }
+        }
+
+        return dst;
+    }
+
+
+    private static byte[] readFile(File file) throws IOException
+    {
+        InputStream inputStream = new FileInputStream(file);
+        try
+        {
+            ByteArrayOutputStream content = new ByteArrayOutputStream((int) file.length());
+            byte[] chunk = new byte[64 * 1024];
+            int numRead;
+            while ((numRead = inputStream.read(chunk)) != -1)
+            {
+                content.write(chunk, 0, numRead);
+            }
+
+            return content.toByteArray();
+        }
+        finally
+        {
+            inputStream.close();
+        }
+    }
+}